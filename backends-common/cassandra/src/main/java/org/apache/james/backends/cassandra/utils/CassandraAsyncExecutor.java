@@ -45,11 +45,15 @@ public class CassandraAsyncExecutor {
     }
 
     public Mono<ResultSet> execute(Statement statement) {
-        return Mono.fromFuture(() -> FutureConverter
-                .toCompletableFuture(session.executeAsync(statement)))
+        return executeOnDriverThread(statement)
                 .publishOn(Schedulers.elastic());
     }
 
+    private Mono<ResultSet> executeOnDriverThread(Statement statement) {
+        return Mono.fromFuture(() -> FutureConverter
+                .toCompletableFuture(session.executeAsync(statement)));
+    }
+
     public Mono<Boolean> executeReturnApplied(Statement statement) {
         return execute(statement)
                 .map(ResultSet::wasApplied);
@@ -65,9 +69,12 @@ public class CassandraAsyncExecutor {
                 .handle(publishIfPresent());
     }
 
+    /**
+     * Pages are fetched asynchronously, see {@link CassandraUtils#pagedRows(ResultSet)}.
+     */
     public Flux<Row> executeRows(Statement statement) {
-        return execute(statement)
-            .flatMapMany(Flux::fromIterable);
+        return executeOnDriverThread(statement)
+            .flatMapMany(CassandraUtils::pagedRows);
     }
 
     public Mono<Optional<Row>> executeSingleRowOptional(Statement statement) {
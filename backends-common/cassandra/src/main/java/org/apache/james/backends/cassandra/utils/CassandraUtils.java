@@ -19,6 +19,7 @@
 
 package org.apache.james.backends.cassandra.utils;
 
+import java.util.List;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -28,13 +29,50 @@ import org.apache.james.backends.cassandra.init.configuration.CassandraConfigura
 
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
+import com.google.common.collect.ImmutableList;
 
+import net.javacrumbs.futureconverter.java8guava.FutureConverter;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public class CassandraUtils {
 
     public static final CassandraUtils WITH_DEFAULT_CONFIGURATION = new CassandraUtils(CassandraConfiguration.DEFAULT_CONFIGURATION);
 
+    private static final int ONE_PAGE = 1;
+
+    /**
+     * Streams the rows of a result set without ever blocking on a page fetch.
+     *
+     * Pages are read as a whole from the driver buffer, then the next page is fetched asynchronously with
+     * {@link ResultSet#fetchMoreResults()} while the rows of the current page are consumed: at most one page is fetched
+     * in advance, and only upon downstream demand. Driver threads are left as soon as a page is received.
+     */
+    public static Flux<Row> pagedRows(ResultSet resultSet) {
+        return Mono.fromCallable(() -> readPage(resultSet))
+            .expand(page -> fetchNextPage(resultSet))
+            .publishOn(Schedulers.elastic(), ONE_PAGE)
+            .concatMapIterable(page -> page, ONE_PAGE);
+    }
+
+    private static Mono<List<Row>> fetchNextPage(ResultSet resultSet) {
+        if (resultSet.isFullyFetched()) {
+            return Mono.empty();
+        }
+        return Mono.fromFuture(() -> FutureConverter.toCompletableFuture(resultSet.fetchMoreResults()))
+            .map(CassandraUtils::readPage);
+    }
+
+    private static List<Row> readPage(ResultSet resultSet) {
+        int available = resultSet.getAvailableWithoutFetching();
+        ImmutableList.Builder<Row> page = ImmutableList.builderWithExpectedSize(available);
+        for (int i = 0; i < available; i++) {
+            page.add(resultSet.one());
+        }
+        return page.build();
+    }
+
     private final CassandraConfiguration cassandraConfiguration;
 
     @Inject
@@ -43,7 +81,7 @@ public class CassandraUtils {
     }
 
     public Flux<Row> convertToFlux(ResultSet resultSet) {
-        return Flux.fromIterable(resultSet);
+        return pagedRows(resultSet);
     }
 
     public Stream<Row> convertToStream(ResultSet resultSet) {
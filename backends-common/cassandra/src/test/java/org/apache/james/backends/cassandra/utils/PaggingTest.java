@@ -25,6 +25,7 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.UUID;
+import java.util.stream.LongStream;
 
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
@@ -35,6 +36,7 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 
 import com.datastax.driver.core.DataType;
 import com.datastax.driver.core.utils.UUIDs;
+import com.github.steveash.guavate.Guavate;
 
 import reactor.core.publisher.Flux;
 
@@ -81,4 +83,69 @@ class PaggingTest {
             .hasSize(size);
     }
 
+    @Test
+    void executeRowsShouldReturnAllPagesInOrder() {
+        int fetchSize = 200;
+        int size = 2 * fetchSize + 50;
+        insertRows(size);
+
+        assertThat(executor.executeRows(select()
+                    .from(TABLE_NAME)
+                    .where(eq(ID, UUID))
+                    .setFetchSize(fetchSize))
+                .map(row -> row.getLong(CLUSTERING))
+                .collectList()
+                .block())
+            .containsExactlyElementsOf(LongStream.range(0, size).boxed().collect(Guavate.toImmutableList()));
+    }
+
+    @Test
+    void executeRowsShouldSupportPartialConsumption() {
+        int fetchSize = 20;
+        insertRows(10 * fetchSize);
+
+        assertThat(executor.executeRows(select()
+                    .from(TABLE_NAME)
+                    .where(eq(ID, UUID))
+                    .setFetchSize(fetchSize))
+                .take(fetchSize + 5)
+                .count()
+                .block())
+            .isEqualTo(fetchSize + 5);
+    }
+
+    @Test
+    void executeRowsShouldNotEmitRowsOnDriverThreads() {
+        int fetchSize = 20;
+        insertRows(5 * fetchSize);
+
+        assertThat(executor.executeRows(select()
+                    .from(TABLE_NAME)
+                    .where(eq(ID, UUID))
+                    .setFetchSize(fetchSize))
+                .map(row -> Thread.currentThread().getName())
+                .collectList()
+                .block())
+            .noneMatch(threadName -> threadName.contains("nio-worker"));
+    }
+
+    @Test
+    void executeRowsShouldReturnEmptyWhenNoRows() {
+        assertThat(executor.executeRows(select()
+                    .from(TABLE_NAME)
+                    .where(eq(ID, UUID))
+                    .setFetchSize(10))
+                .collectList()
+                .block())
+            .isEmpty();
+    }
+
+    private void insertRows(int size) {
+        Flux.range(0, size)
+            .flatMap(i -> executor
+                .executeVoid(insertInto(TABLE_NAME)
+                    .value(ID, UUID)
+                    .value(CLUSTERING, i)))
+            .blockLast();
+    }
 }
@@ -0,0 +1,39 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.events;
+
+import java.util.Optional;
+
+/**
+ * Compact binary encoding of events, used by transports in place of JSON for the events it supports.
+ *
+ * Encodings are versioned: the codec name identifies both the encoding and its version, and is carried along
+ * serialized events so that readers can pick the matching decoder.
+ */
+public interface BinaryEventSerializer {
+    String codecName();
+
+    /**
+     * @return the binary form of this event, or empty if this encoding does not support this kind of event
+     */
+    Optional<byte[]> toBytes(Event event);
+
+    Event fromBytes(byte[] serialized);
+}
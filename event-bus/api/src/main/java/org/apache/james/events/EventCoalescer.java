@@ -0,0 +1,57 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.events;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Merges events that can be delivered to listeners as a single event, for instance flag updates of a given mailbox.
+ *
+ * Event buses use it to reduce the fan-out of event storms: events sharing the same coalescing key and dispatched to
+ * the same registration keys can be replaced by the result of {@link #coalesce(List)}.
+ */
+public interface EventCoalescer {
+    EventCoalescer NONE = new EventCoalescer() {
+        @Override
+        public Optional<Object> coalescingKey(Event event) {
+            return Optional.empty();
+        }
+
+        /**
+         * Never called as no event has a coalescing key.
+         */
+        @Override
+        public Event coalesce(List<Event> events) {
+            return events.get(events.size() - 1);
+        }
+    };
+
+    /**
+     * @return the key shared by the events this event can be merged with, empty if it can not be merged
+     */
+    Optional<Object> coalescingKey(Event event);
+
+    /**
+     * @param events at least one event, all of them sharing the same coalescing key, in dispatch order
+     * @return a single event equivalent to the given events delivered in order
+     */
+    Event coalesce(List<Event> events);
+}
@@ -19,8 +19,14 @@
 
 package org.apache.james.events;
 
+import java.util.Optional;
+
 public interface EventSerializer {
     String toJson(Event event);
 
     Event asEvent(String serialized);
+
+    default Optional<BinaryEventSerializer> binarySerializer() {
+        return Optional.empty();
+    }
 }
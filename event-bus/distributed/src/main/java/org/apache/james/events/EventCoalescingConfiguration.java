@@ -0,0 +1,95 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.events;
+
+import java.util.Objects;
+
+import org.apache.commons.configuration2.Configuration;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * Controls the coalescing of dispatched events.
+ *
+ * When enabled, events that can be merged (see {@link EventCoalescer}) and that are dispatched while a previous
+ * event of the same kind is still being dispatched are merged together, up to {@link #getMaxEvents()} events, then
+ * dispatched as a single event once the previous dispatch completes.
+ */
+public class EventCoalescingConfiguration {
+    static final String ENABLED_PROPERTY = "event.bus.coalescing.enabled";
+    static final String MAX_EVENTS_PROPERTY = "event.bus.coalescing.max.events";
+    static final boolean DEFAULT_ENABLED = false;
+    static final int DEFAULT_MAX_EVENTS = 256;
+
+    public static final EventCoalescingConfiguration DEFAULT = new EventCoalescingConfiguration(DEFAULT_ENABLED, DEFAULT_MAX_EVENTS);
+
+    public static EventCoalescingConfiguration enabled(int maxEvents) {
+        return new EventCoalescingConfiguration(true, maxEvents);
+    }
+
+    public static EventCoalescingConfiguration from(Configuration configuration) {
+        return new EventCoalescingConfiguration(
+            configuration.getBoolean(ENABLED_PROPERTY, DEFAULT_ENABLED),
+            configuration.getInt(MAX_EVENTS_PROPERTY, DEFAULT_MAX_EVENTS));
+    }
+
+    private final boolean enabled;
+    private final int maxEvents;
+
+    private EventCoalescingConfiguration(boolean enabled, int maxEvents) {
+        Preconditions.checkArgument(maxEvents > 0, "'%s' needs to be strictly positive", MAX_EVENTS_PROPERTY);
+
+        this.enabled = enabled;
+        this.maxEvents = maxEvents;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof EventCoalescingConfiguration) {
+            EventCoalescingConfiguration that = (EventCoalescingConfiguration) o;
+
+            return Objects.equals(this.enabled, that.enabled)
+                && Objects.equals(this.maxEvents, that.maxEvents);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(enabled, maxEvents);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("enabled", enabled)
+            .add("maxEvents", maxEvents)
+            .toString();
+    }
+}
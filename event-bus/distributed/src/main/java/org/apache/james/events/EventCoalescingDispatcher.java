@@ -0,0 +1,155 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.events;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Merges events dispatched while an event sharing their registration keys is being dispatched.
+ *
+ * Events of given registration keys are dispatched one (merged) event at a time as soon as one of them can be
+ * coalesced: events submitted while a dispatch is in flight are queued, then consecutive queued events sharing a
+ * coalescing key are merged and dispatched once it completes. Isolated events are thus dispatched right away while
+ * storms get merged, and listeners keep receiving the events of given registration keys in dispatch order: an event
+ * that can not be coalesced waits for the pending events of its registration keys. Like {@link EventDispatcher#dispatch(Event, Set)}, dispatching starts without waiting for a subscription, and the
+ * returned Mono completes once the event it was merged in got dispatched.
+ */
+class EventCoalescingDispatcher {
+    static final String COALESCED_EVENTS_METRIC_NAME = "eventBus-coalescedEvents";
+
+    private static class PendingEvent {
+        private final Event event;
+        private final Optional<Object> coalescingKey;
+        private final MonoSink<Void> sink;
+
+        private PendingEvent(Event event, Optional<Object> coalescingKey, MonoSink<Void> sink) {
+            this.event = event;
+            this.coalescingKey = coalescingKey;
+            this.sink = sink;
+        }
+
+        private boolean canBeMergedWith(PendingEvent other) {
+            return coalescingKey.isPresent() && coalescingKey.equals(other.coalescingKey);
+        }
+    }
+
+    private final BiFunction<Event, Set<RegistrationKey>, Mono<Void>> dispatcher;
+    private final EventCoalescer coalescer;
+    private final int maxEvents;
+    private final Metric coalescedEvents;
+    private final Map<Set<RegistrationKey>, Queue<PendingEvent>> lanes;
+
+    EventCoalescingDispatcher(BiFunction<Event, Set<RegistrationKey>, Mono<Void>> dispatcher, EventCoalescer coalescer,
+                              EventCoalescingConfiguration configuration, MetricFactory metricFactory) {
+        this.dispatcher = dispatcher;
+        this.coalescer = Optional.of(coalescer)
+            .filter(any -> configuration.isEnabled())
+            .orElse(EventCoalescer.NONE);
+        this.maxEvents = configuration.getMaxEvents();
+        this.coalescedEvents = metricFactory.generate(COALESCED_EVENTS_METRIC_NAME);
+        this.lanes = new HashMap<>();
+    }
+
+    Mono<Void> dispatch(Event event, Set<RegistrationKey> keys) {
+        Optional<Object> coalescingKey = coalescer.coalescingKey(event);
+        Set<RegistrationKey> laneKey = ImmutableSet.copyOf(keys);
+        if (coalescingKey.isPresent() || hasLane(laneKey)) {
+            return Mono.<Void>create(sink -> submit(laneKey, new PendingEvent(event, coalescingKey, sink)))
+                .subscribeWith(MonoProcessor.create());
+        }
+        return dispatcher.apply(event, keys);
+    }
+
+    private synchronized boolean hasLane(Set<RegistrationKey> laneKey) {
+        return lanes.containsKey(laneKey);
+    }
+
+    private void submit(Set<RegistrationKey> laneKey, PendingEvent pendingEvent) {
+        synchronized (this) {
+            Queue<PendingEvent> lane = lanes.get(laneKey);
+            if (lane != null) {
+                lane.add(pendingEvent);
+                return;
+            }
+            lanes.put(laneKey, new ArrayDeque<>());
+        }
+        dispatchBatch(laneKey, ImmutableList.of(pendingEvent));
+    }
+
+    private void dispatchBatch(Set<RegistrationKey> laneKey, List<PendingEvent> batch) {
+        Mono.fromCallable(() -> coalesce(batch))
+            .flatMap(event -> dispatcher.apply(event, laneKey))
+            .subscribe(any -> { },
+                error -> {
+                    batch.forEach(pendingEvent -> pendingEvent.sink.error(error));
+                    dispatchNext(laneKey);
+                },
+                () -> {
+                    batch.forEach(pendingEvent -> pendingEvent.sink.success());
+                    dispatchNext(laneKey);
+                });
+    }
+
+    private Event coalesce(List<PendingEvent> batch) {
+        if (batch.size() == 1) {
+            return batch.get(0).event;
+        }
+        Event coalesced = coalescer.coalesce(batch.stream()
+            .map(pendingEvent -> pendingEvent.event)
+            .collect(Guavate.toImmutableList()));
+        coalescedEvents.add(batch.size() - 1);
+        return coalesced;
+    }
+
+    private void dispatchNext(Set<RegistrationKey> laneKey) {
+        ImmutableList.Builder<PendingEvent> batch = ImmutableList.builder();
+        synchronized (this) {
+            Queue<PendingEvent> lane = lanes.get(laneKey);
+            if (lane.isEmpty()) {
+                lanes.remove(laneKey);
+                return;
+            }
+            PendingEvent first = lane.poll();
+            batch.add(first);
+            for (int i = 1; i < maxEvents && !lane.isEmpty() && first.canBeMergedWith(lane.peek()); i++) {
+                batch.add(lane.poll());
+            }
+        }
+        dispatchBatch(laneKey, batch.build());
+    }
+}
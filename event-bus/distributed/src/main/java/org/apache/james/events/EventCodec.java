@@ -0,0 +1,95 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.events;
+
+import static com.rabbitmq.client.MessageProperties.PERSISTENT_TEXT_PLAIN;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serializes events published over RabbitMQ, and deserializes received ones.
+ *
+ * The codec used for an event is carried by the {@link #CODEC_HEADER} message header. Messages without it are JSON
+ * encoded, as published by nodes predating binary encodings.
+ */
+class EventCodec {
+    static final String CODEC_HEADER = "eventCodec";
+    static final String JSON_CODEC = "json";
+    static final String BINARY_CONTENT_TYPE = "application/octet-stream";
+
+    static class EncodedEvent {
+        private final String codec;
+        private final byte[] payload;
+
+        private EncodedEvent(String codec, byte[] payload) {
+            this.codec = codec;
+            this.payload = payload;
+        }
+
+        String getCodec() {
+            return codec;
+        }
+
+        String getContentType() {
+            if (JSON_CODEC.equals(codec)) {
+                return PERSISTENT_TEXT_PLAIN.getContentType();
+            }
+            return BINARY_CONTENT_TYPE;
+        }
+
+        byte[] getPayload() {
+            return payload;
+        }
+    }
+
+    private final EventSerializer eventSerializer;
+    private final Optional<BinaryEventSerializer> binarySerializer;
+    private final Optional<BinaryEventSerializer> binaryPublisher;
+
+    EventCodec(EventSerializer eventSerializer, EventCodecConfiguration configuration) {
+        this.eventSerializer = eventSerializer;
+        this.binarySerializer = eventSerializer.binarySerializer();
+        this.binaryPublisher = binarySerializer.filter(any -> configuration.isBinaryPublishingEnabled());
+    }
+
+    EncodedEvent encode(Event event) {
+        return binaryPublisher
+            .flatMap(serializer -> serializer.toBytes(event)
+                .map(payload -> new EncodedEvent(serializer.codecName(), payload)))
+            .orElseGet(() -> new EncodedEvent(JSON_CODEC, eventSerializer.toJson(event).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    Event decode(byte[] payload, Map<String, Object> headers) {
+        String codec = Optional.ofNullable(headers)
+            .flatMap(values -> Optional.ofNullable(values.get(CODEC_HEADER)))
+            .map(Object::toString)
+            .orElse(JSON_CODEC);
+
+        if (JSON_CODEC.equals(codec)) {
+            return eventSerializer.asEvent(new String(payload, StandardCharsets.UTF_8));
+        }
+        return binarySerializer
+            .filter(serializer -> serializer.codecName().equals(codec))
+            .map(serializer -> serializer.fromBytes(payload))
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported event codec " + codec));
+    }
+}
@@ -0,0 +1,77 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.events;
+
+import java.util.Objects;
+
+import org.apache.commons.configuration2.Configuration;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Controls how events are published over RabbitMQ.
+ *
+ * Binary encoded events can only be read by nodes knowing the binary encoding. Binary publishing is thus to be enabled
+ * once every node of the cluster got upgraded. Whatever this setting, received events are decoded according to
+ * the codec they were published with.
+ */
+public class EventCodecConfiguration {
+    static final String BINARY_PUBLISHING_PROPERTY = "event.bus.binary.publishing.enabled";
+    static final boolean DEFAULT_BINARY_PUBLISHING = false;
+
+    public static final EventCodecConfiguration DEFAULT = new EventCodecConfiguration(DEFAULT_BINARY_PUBLISHING);
+    public static final EventCodecConfiguration BINARY_PUBLISHING = new EventCodecConfiguration(true);
+
+    public static EventCodecConfiguration from(Configuration configuration) {
+        return new EventCodecConfiguration(configuration.getBoolean(BINARY_PUBLISHING_PROPERTY, DEFAULT_BINARY_PUBLISHING));
+    }
+
+    private final boolean binaryPublishingEnabled;
+
+    private EventCodecConfiguration(boolean binaryPublishingEnabled) {
+        this.binaryPublishingEnabled = binaryPublishingEnabled;
+    }
+
+    public boolean isBinaryPublishingEnabled() {
+        return binaryPublishingEnabled;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof EventCodecConfiguration) {
+            EventCodecConfiguration that = (EventCodecConfiguration) o;
+
+            return Objects.equals(this.binaryPublishingEnabled, that.binaryPublishingEnabled);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(binaryPublishingEnabled);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("binaryPublishingEnabled", binaryPublishingEnabled)
+            .toString();
+    }
+}
@@ -28,12 +28,13 @@ import static org.apache.james.backends.rabbitmq.Constants.EXCLUSIVE;
 import static org.apache.james.backends.rabbitmq.Constants.NO_ARGUMENTS;
 import static org.apache.james.events.RabbitMQEventBus.EVENT_BUS_ID;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 
 import org.apache.james.events.RoutingKeyConverter.RoutingKey;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.util.MDCBuilder;
 import org.apache.james.util.MDCStructuredLogger;
 import org.apache.james.util.StructuredLogger;
@@ -59,32 +60,37 @@ public class EventDispatcher {
         public static DispatchingFailureGroup INSTANCE = new DispatchingFailureGroup();
     }
 
+    static final String DISPATCHED_EVENTS_METRIC_NAME = "eventBus-dispatchedEvents";
+    static final String LOCAL_FAN_OUT_METRIC_NAME = "eventBus-fanOut-localListeners";
+    static final String REMOTE_FAN_OUT_METRIC_NAME = "eventBus-fanOut-remoteMessages";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(EventDispatcher.class);
 
     private final NamingStrategy namingStrategy;
-    private final EventSerializer eventSerializer;
+    private final EventCodec eventCodec;
     private final Sender sender;
     private final LocalListenerRegistry localListenerRegistry;
-    private final AMQP.BasicProperties basicProperties;
+    private final EventBusId eventBusId;
     private final ListenerExecutor listenerExecutor;
     private final EventDeadLetters deadLetters;
+    private final Metric dispatchedEvents;
+    private final Metric localFanOut;
+    private final Metric remoteFanOut;
 
-    EventDispatcher(NamingStrategy namingStrategy, EventBusId eventBusId, EventSerializer eventSerializer, Sender sender,
+    EventDispatcher(NamingStrategy namingStrategy, EventBusId eventBusId, EventCodec eventCodec, Sender sender,
                     LocalListenerRegistry localListenerRegistry,
                     ListenerExecutor listenerExecutor,
-                    EventDeadLetters deadLetters) {
+                    EventDeadLetters deadLetters, MetricFactory metricFactory) {
         this.namingStrategy = namingStrategy;
-        this.eventSerializer = eventSerializer;
+        this.eventCodec = eventCodec;
         this.sender = sender;
         this.localListenerRegistry = localListenerRegistry;
-        this.basicProperties = new AMQP.BasicProperties.Builder()
-            .headers(ImmutableMap.of(EVENT_BUS_ID, eventBusId.asString()))
-            .deliveryMode(PERSISTENT_TEXT_PLAIN.getDeliveryMode())
-            .priority(PERSISTENT_TEXT_PLAIN.getPriority())
-            .contentType(PERSISTENT_TEXT_PLAIN.getContentType())
-            .build();
+        this.eventBusId = eventBusId;
         this.listenerExecutor = listenerExecutor;
         this.deadLetters = deadLetters;
+        this.dispatchedEvents = metricFactory.generate(DISPATCHED_EVENTS_METRIC_NAME);
+        this.localFanOut = metricFactory.generate(LOCAL_FAN_OUT_METRIC_NAME);
+        this.remoteFanOut = metricFactory.generate(REMOTE_FAN_OUT_METRIC_NAME);
     }
 
     void start() {
@@ -109,6 +115,7 @@ public class EventDispatcher {
     }
 
     Mono<Void> dispatch(Event event, Set<RegistrationKey> keys) {
+        dispatchedEvents.increment();
         return Flux
             .concat(
                 dispatchToLocalListeners(event, keys),
@@ -123,6 +130,7 @@ public class EventDispatcher {
             .flatMap(key -> localListenerRegistry.getLocalListeners(key)
                 .map(listener -> Tuples.of(key, listener)), EventBus.EXECUTION_RATE)
             .filter(pair -> pair.getT2().getExecutionMode() == EventListener.ExecutionMode.SYNCHRONOUS)
+            .doOnNext(any -> localFanOut.increment())
             .flatMap(pair -> executeListener(event, pair.getT2(), pair.getT1()), EventBus.EXECUTION_RATE)
             .then();
     }
@@ -155,7 +163,7 @@ public class EventDispatcher {
             .then();
     }
 
-    private Mono<Void> remoteGroupsDispatch(byte[] serializedEvent, Event event) {
+    private Mono<Void> remoteGroupsDispatch(EventCodec.EncodedEvent serializedEvent, Event event) {
         return remoteDispatch(serializedEvent, Collections.singletonList(RoutingKey.empty()))
             .doOnError(ex -> LOGGER.error(
                 "cannot dispatch event of type '{}' belonging '{}' with id '{}' to remote groups, store it into dead letter",
@@ -167,26 +175,39 @@ public class EventDispatcher {
                 .then(Mono.error(ex)));
     }
 
-    private Mono<Void> remoteKeysDispatch(byte[] serializedEvent, Set<RegistrationKey> keys) {
+    private Mono<Void> remoteKeysDispatch(EventCodec.EncodedEvent serializedEvent, Set<RegistrationKey> keys) {
         return remoteDispatch(serializedEvent,
             keys.stream()
                 .map(RoutingKey::of)
                 .collect(Guavate.toImmutableList()));
     }
 
-    private Mono<Void> remoteDispatch(byte[] serializedEvent, Collection<RoutingKey> routingKeys) {
+    private Mono<Void> remoteDispatch(EventCodec.EncodedEvent serializedEvent, Collection<RoutingKey> routingKeys) {
         if (routingKeys.isEmpty()) {
             return Mono.empty();
         }
+        remoteFanOut.add(routingKeys.size());
         return sender.send(toMessages(serializedEvent, routingKeys));
     }
 
-    private Flux<OutboundMessage> toMessages(byte[] serializedEvent, Collection<RoutingKey> routingKeys) {
+    private Flux<OutboundMessage> toMessages(EventCodec.EncodedEvent serializedEvent, Collection<RoutingKey> routingKeys) {
+        AMQP.BasicProperties basicProperties = basicProperties(serializedEvent);
         return Flux.fromIterable(routingKeys)
-                .map(routingKey -> new OutboundMessage(namingStrategy.exchange(), routingKey.asString(), basicProperties, serializedEvent));
+                .map(routingKey -> new OutboundMessage(namingStrategy.exchange(), routingKey.asString(), basicProperties, serializedEvent.getPayload()));
+    }
+
+    private AMQP.BasicProperties basicProperties(EventCodec.EncodedEvent serializedEvent) {
+        return new AMQP.BasicProperties.Builder()
+            .headers(ImmutableMap.of(
+                EVENT_BUS_ID, eventBusId.asString(),
+                EventCodec.CODEC_HEADER, serializedEvent.getCodec()))
+            .deliveryMode(PERSISTENT_TEXT_PLAIN.getDeliveryMode())
+            .priority(PERSISTENT_TEXT_PLAIN.getPriority())
+            .contentType(serializedEvent.getContentType())
+            .build();
     }
 
-    private byte[] serializeEvent(Event event) {
-        return eventSerializer.toJson(event).getBytes(StandardCharsets.UTF_8);
+    private EventCodec.EncodedEvent serializeEvent(Event event) {
+        return eventCodec.encode(event);
     }
 }
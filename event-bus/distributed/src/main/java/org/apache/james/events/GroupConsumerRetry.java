@@ -25,8 +25,6 @@ import static org.apache.james.backends.rabbitmq.Constants.DURABLE;
 import static org.apache.james.backends.rabbitmq.Constants.EMPTY_ROUTING_KEY;
 import static org.apache.james.events.GroupRegistration.RETRY_COUNT;
 
-import java.nio.charset.StandardCharsets;
-
 import org.apache.james.util.MDCStructuredLogger;
 import org.apache.james.util.StructuredLogger;
 import org.slf4j.Logger;
@@ -64,16 +62,16 @@ class GroupConsumerRetry {
     private final RetryBackoffConfiguration retryBackoff;
     private final EventDeadLetters eventDeadLetters;
     private final Group group;
-    private final EventSerializer eventSerializer;
+    private final EventCodec eventCodec;
 
     GroupConsumerRetry(NamingStrategy namingStrategy, Sender sender, Group group, RetryBackoffConfiguration retryBackoff,
-                       EventDeadLetters eventDeadLetters, EventSerializer eventSerializer) {
+                       EventDeadLetters eventDeadLetters, EventCodec eventCodec) {
         this.sender = sender;
         this.retryExchangeName = namingStrategy.retryExchange(group);
         this.retryBackoff = retryBackoff;
         this.eventDeadLetters = eventDeadLetters;
         this.group = group;
-        this.eventSerializer = eventSerializer;
+        this.eventCodec = eventCodec;
     }
 
     Mono<Void> createRetryExchange(GroupRegistration.WorkQueueName queueName) {
@@ -102,18 +100,20 @@ class GroupConsumerRetry {
     }
 
     private Mono<Void> sendRetryMessage(Event event, int currentRetryCount) {
-        byte[] eventAsBytes = eventSerializer.toJson(event).getBytes(StandardCharsets.UTF_8);
+        EventCodec.EncodedEvent encodedEvent = eventCodec.encode(event);
 
         Mono<OutboundMessage> retryMessage = Mono.just(new OutboundMessage(
             retryExchangeName.asString(),
             EMPTY_ROUTING_KEY,
             new AMQP.BasicProperties.Builder()
-                .headers(ImmutableMap.of(RETRY_COUNT, currentRetryCount + 1))
+                .headers(ImmutableMap.of(
+                    RETRY_COUNT, currentRetryCount + 1,
+                    EventCodec.CODEC_HEADER, encodedEvent.getCodec()))
                 .deliveryMode(PERSISTENT_TEXT_PLAIN.getDeliveryMode())
                 .priority(PERSISTENT_TEXT_PLAIN.getPriority())
-                .contentType(PERSISTENT_TEXT_PLAIN.getContentType())
+                .contentType(encodedEvent.getContentType())
                 .build(),
-            eventAsBytes));
+            encodedEvent.getPayload()));
 
         return sender.send(retryMessage)
             .doOnError(throwable -> createStructuredLogger(event)
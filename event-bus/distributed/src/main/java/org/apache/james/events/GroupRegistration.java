@@ -26,7 +26,6 @@ import static org.apache.james.backends.rabbitmq.Constants.EXCLUSIVE;
 import static org.apache.james.backends.rabbitmq.Constants.REQUEUE;
 import static org.apache.james.backends.rabbitmq.Constants.deadLetterQueue;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Predicate;
@@ -77,7 +76,7 @@ class GroupRegistration implements Registration {
     private final Receiver receiver;
     private final Runnable unregisterGroup;
     private final Sender sender;
-    private final EventSerializer eventSerializer;
+    private final EventCodec eventCodec;
     private final GroupConsumerRetry retryHandler;
     private final WaitDelayGenerator delayGenerator;
     private final Group group;
@@ -85,13 +84,13 @@ class GroupRegistration implements Registration {
     private final ListenerExecutor listenerExecutor;
     private Optional<Disposable> receiverSubscriber;
 
-    GroupRegistration(NamingStrategy namingStrategy, ReactorRabbitMQChannelPool channelPool, Sender sender, ReceiverProvider receiverProvider, EventSerializer eventSerializer,
+    GroupRegistration(NamingStrategy namingStrategy, ReactorRabbitMQChannelPool channelPool, Sender sender, ReceiverProvider receiverProvider, EventCodec eventCodec,
                       EventListener.ReactiveEventListener listener, Group group, RetryBackoffConfiguration retryBackoff,
                       EventDeadLetters eventDeadLetters,
                       Runnable unregisterGroup, ListenerExecutor listenerExecutor) {
         this.namingStrategy = namingStrategy;
         this.channelPool = channelPool;
-        this.eventSerializer = eventSerializer;
+        this.eventCodec = eventCodec;
         this.listener = listener;
         this.queueName = namingStrategy.workQueue(group);
         this.sender = sender;
@@ -100,7 +99,7 @@ class GroupRegistration implements Registration {
         this.listenerExecutor = listenerExecutor;
         this.receiverSubscriber = Optional.empty();
         this.unregisterGroup = unregisterGroup;
-        this.retryHandler = new GroupConsumerRetry(namingStrategy, sender, group, retryBackoff, eventDeadLetters, eventSerializer);
+        this.retryHandler = new GroupConsumerRetry(namingStrategy, sender, group, retryBackoff, eventDeadLetters, eventCodec);
         this.delayGenerator = WaitDelayGenerator.of(retryBackoff);
         this.group = group;
     }
@@ -137,10 +136,9 @@ class GroupRegistration implements Registration {
     }
 
     private Mono<Void> deliver(AcknowledgableDelivery acknowledgableDelivery) {
-        byte[] eventAsBytes = acknowledgableDelivery.getBody();
         int currentRetryCount = getRetryCount(acknowledgableDelivery);
 
-        return deserializeEvent(eventAsBytes)
+        return deserializeEvent(acknowledgableDelivery)
             .flatMap(event -> delayGenerator.delayIfHaveTo(currentRetryCount)
                 .flatMap(any -> runListener(event))
                 .onErrorResume(throwable -> retryHandler.handleRetry(event, currentRetryCount, throwable))
@@ -151,8 +149,8 @@ class GroupRegistration implements Registration {
             });
     }
 
-    private Mono<Event> deserializeEvent(byte[] eventAsBytes) {
-        return Mono.fromCallable(() -> eventSerializer.asEvent(new String(eventAsBytes, StandardCharsets.UTF_8)))
+    private Mono<Event> deserializeEvent(AcknowledgableDelivery acknowledgableDelivery) {
+        return Mono.fromCallable(() -> eventCodec.decode(acknowledgableDelivery.getBody(), acknowledgableDelivery.getProperties().getHeaders()))
             .subscribeOn(Schedulers.parallel());
     }
 
@@ -31,7 +31,7 @@ import reactor.rabbitmq.Sender;
 class GroupRegistrationHandler {
     private final NamingStrategy namingStrategy;
     private final Map<Group, GroupRegistration> groupRegistrations;
-    private final EventSerializer eventSerializer;
+    private final EventCodec eventCodec;
     private final ReactorRabbitMQChannelPool channelPool;
     private final Sender sender;
     private final ReceiverProvider receiverProvider;
@@ -39,11 +39,11 @@ class GroupRegistrationHandler {
     private final EventDeadLetters eventDeadLetters;
     private final ListenerExecutor listenerExecutor;
 
-    GroupRegistrationHandler(NamingStrategy namingStrategy, EventSerializer eventSerializer, ReactorRabbitMQChannelPool channelPool, Sender sender, ReceiverProvider receiverProvider,
+    GroupRegistrationHandler(NamingStrategy namingStrategy, EventCodec eventCodec, ReactorRabbitMQChannelPool channelPool, Sender sender, ReceiverProvider receiverProvider,
                              RetryBackoffConfiguration retryBackoff,
                              EventDeadLetters eventDeadLetters, ListenerExecutor listenerExecutor) {
         this.namingStrategy = namingStrategy;
-        this.eventSerializer = eventSerializer;
+        this.eventCodec = eventCodec;
         this.channelPool = channelPool;
         this.sender = sender;
         this.receiverProvider = receiverProvider;
@@ -77,7 +77,7 @@ class GroupRegistrationHandler {
         return new GroupRegistration(
             namingStrategy, channelPool, sender,
             receiverProvider,
-            eventSerializer,
+            eventCodec,
             listener,
             group,
             retryBackoff,
@@ -24,7 +24,6 @@ import static org.apache.james.backends.rabbitmq.Constants.DURABLE;
 import static org.apache.james.backends.rabbitmq.Constants.EXCLUSIVE;
 import static org.apache.james.events.RabbitMQEventBus.EVENT_BUS_ID;
 
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
@@ -61,7 +60,7 @@ class KeyRegistrationHandler {
     private final NamingStrategy namingStrategy;
     private final EventBusId eventBusId;
     private final LocalListenerRegistry localListenerRegistry;
-    private final EventSerializer eventSerializer;
+    private final EventCodec eventCodec;
     private final Sender sender;
     private final RoutingKeyConverter routingKeyConverter;
     private final Receiver receiver;
@@ -71,13 +70,13 @@ class KeyRegistrationHandler {
     private final RetryBackoffConfiguration retryBackoff;
     private Optional<Disposable> receiverSubscriber;
 
-    KeyRegistrationHandler(NamingStrategy namingStrategy, EventBusId eventBusId, EventSerializer eventSerializer,
+    KeyRegistrationHandler(NamingStrategy namingStrategy, EventBusId eventBusId, EventCodec eventCodec,
                            Sender sender, ReceiverProvider receiverProvider,
                            RoutingKeyConverter routingKeyConverter, LocalListenerRegistry localListenerRegistry,
                            ListenerExecutor listenerExecutor, RetryBackoffConfiguration retryBackoff) {
         this.namingStrategy = namingStrategy;
         this.eventBusId = eventBusId;
-        this.eventSerializer = eventSerializer;
+        this.eventCodec = eventCodec;
         this.sender = sender;
         this.routingKeyConverter = routingKeyConverter;
         this.localListenerRegistry = localListenerRegistry;
@@ -186,7 +185,7 @@ class KeyRegistrationHandler {
     }
 
     private Event toEvent(Delivery delivery) {
-        return eventSerializer.asEvent(new String(delivery.getBody(), StandardCharsets.UTF_8));
+        return eventCodec.decode(delivery.getBody(), delivery.getProperties().getHeaders());
     }
 
     private StructuredLogger structuredLogger(Event event, RegistrationKey key) {
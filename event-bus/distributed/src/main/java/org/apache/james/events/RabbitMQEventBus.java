@@ -42,7 +42,7 @@ public class RabbitMQEventBus implements EventBus, Startable {
     static final String EVENT_BUS_ID = "eventBusId";
 
     private final NamingStrategy namingStrategy;
-    private final EventSerializer eventSerializer;
+    private final EventCodec eventCodec;
     private final RoutingKeyConverter routingKeyConverter;
     private final RetryBackoffConfiguration retryBackoff;
     private final EventBusId eventBusId;
@@ -51,29 +51,47 @@ public class RabbitMQEventBus implements EventBus, Startable {
     private final Sender sender;
     private final ReceiverProvider receiverProvider;
     private final ReactorRabbitMQChannelPool channelPool;
+    private final MetricFactory metricFactory;
+    private final EventCoalescingConfiguration eventCoalescingConfiguration;
+    private final EventCoalescer eventCoalescer;
 
     private volatile boolean isRunning;
     private volatile boolean isStopping;
     private GroupRegistrationHandler groupRegistrationHandler;
     private KeyRegistrationHandler keyRegistrationHandler;
     private EventDispatcher eventDispatcher;
+    private EventCoalescingDispatcher eventCoalescingDispatcher;
 
-    @Inject
     public RabbitMQEventBus(NamingStrategy namingStrategy, Sender sender, ReceiverProvider receiverProvider, EventSerializer eventSerializer,
                             RetryBackoffConfiguration retryBackoff,
                             RoutingKeyConverter routingKeyConverter,
                             EventDeadLetters eventDeadLetters, MetricFactory metricFactory, ReactorRabbitMQChannelPool channelPool,
                             EventBusId eventBusId) {
+        this(namingStrategy, sender, receiverProvider, eventSerializer, retryBackoff, routingKeyConverter, eventDeadLetters,
+            metricFactory, channelPool, eventBusId, EventCodecConfiguration.DEFAULT, EventCoalescingConfiguration.DEFAULT,
+            EventCoalescer.NONE);
+    }
+
+    @Inject
+    public RabbitMQEventBus(NamingStrategy namingStrategy, Sender sender, ReceiverProvider receiverProvider, EventSerializer eventSerializer,
+                            RetryBackoffConfiguration retryBackoff,
+                            RoutingKeyConverter routingKeyConverter,
+                            EventDeadLetters eventDeadLetters, MetricFactory metricFactory, ReactorRabbitMQChannelPool channelPool,
+                            EventBusId eventBusId, EventCodecConfiguration eventCodecConfiguration,
+                            EventCoalescingConfiguration eventCoalescingConfiguration, EventCoalescer eventCoalescer) {
         this.namingStrategy = namingStrategy;
         this.sender = sender;
         this.receiverProvider = receiverProvider;
+        this.metricFactory = metricFactory;
         this.listenerExecutor = new ListenerExecutor(metricFactory);
         this.channelPool = channelPool;
         this.eventBusId = eventBusId;
-        this.eventSerializer = eventSerializer;
+        this.eventCodec = new EventCodec(eventSerializer, eventCodecConfiguration);
         this.routingKeyConverter = routingKeyConverter;
         this.retryBackoff = retryBackoff;
         this.eventDeadLetters = eventDeadLetters;
+        this.eventCoalescingConfiguration = eventCoalescingConfiguration;
+        this.eventCoalescer = eventCoalescer;
         this.isRunning = false;
         this.isStopping = false;
     }
@@ -82,9 +100,10 @@ public class RabbitMQEventBus implements EventBus, Startable {
         if (!isRunning && !isStopping) {
 
             LocalListenerRegistry localListenerRegistry = new LocalListenerRegistry();
-            keyRegistrationHandler = new KeyRegistrationHandler(namingStrategy, eventBusId, eventSerializer, sender, receiverProvider, routingKeyConverter, localListenerRegistry, listenerExecutor, retryBackoff);
-            groupRegistrationHandler = new GroupRegistrationHandler(namingStrategy, eventSerializer, channelPool, sender, receiverProvider, retryBackoff, eventDeadLetters, listenerExecutor);
-            eventDispatcher = new EventDispatcher(namingStrategy, eventBusId, eventSerializer, sender, localListenerRegistry, listenerExecutor, eventDeadLetters);
+            keyRegistrationHandler = new KeyRegistrationHandler(namingStrategy, eventBusId, eventCodec, sender, receiverProvider, routingKeyConverter, localListenerRegistry, listenerExecutor, retryBackoff);
+            groupRegistrationHandler = new GroupRegistrationHandler(namingStrategy, eventCodec, channelPool, sender, receiverProvider, retryBackoff, eventDeadLetters, listenerExecutor);
+            eventDispatcher = new EventDispatcher(namingStrategy, eventBusId, eventCodec, sender, localListenerRegistry, listenerExecutor, eventDeadLetters, metricFactory);
+            eventCoalescingDispatcher = new EventCoalescingDispatcher(eventDispatcher::dispatch, eventCoalescer, eventCoalescingConfiguration, metricFactory);
 
             eventDispatcher.start();
             keyRegistrationHandler.start();
@@ -97,9 +116,10 @@ public class RabbitMQEventBus implements EventBus, Startable {
         if (!isRunning && !isStopping) {
 
             LocalListenerRegistry localListenerRegistry = new LocalListenerRegistry();
-            keyRegistrationHandler = new KeyRegistrationHandler(namingStrategy, eventBusId, eventSerializer, sender, receiverProvider, routingKeyConverter, localListenerRegistry, listenerExecutor, retryBackoff);
-            groupRegistrationHandler = new GroupRegistrationHandler(namingStrategy, eventSerializer, channelPool, sender, receiverProvider, retryBackoff, eventDeadLetters, listenerExecutor);
-            eventDispatcher = new EventDispatcher(namingStrategy, eventBusId, eventSerializer, sender, localListenerRegistry, listenerExecutor, eventDeadLetters);
+            keyRegistrationHandler = new KeyRegistrationHandler(namingStrategy, eventBusId, eventCodec, sender, receiverProvider, routingKeyConverter, localListenerRegistry, listenerExecutor, retryBackoff);
+            groupRegistrationHandler = new GroupRegistrationHandler(namingStrategy, eventCodec, channelPool, sender, receiverProvider, retryBackoff, eventDeadLetters, listenerExecutor);
+            eventDispatcher = new EventDispatcher(namingStrategy, eventBusId, eventCodec, sender, localListenerRegistry, listenerExecutor, eventDeadLetters, metricFactory);
+            eventCoalescingDispatcher = new EventCoalescingDispatcher(eventDispatcher::dispatch, eventCoalescer, eventCoalescingConfiguration, metricFactory);
 
             keyRegistrationHandler.declareQueue();
 
@@ -139,7 +159,7 @@ public class RabbitMQEventBus implements EventBus, Startable {
     public Mono<Void> dispatch(Event event, Set<RegistrationKey> key) {
         Preconditions.checkState(isRunning, NOT_RUNNING_ERROR_MESSAGE);
         if (!event.isNoop()) {
-            return eventDispatcher.dispatch(event, key);
+            return eventCoalescingDispatcher.dispatch(event, key);
         }
         return Mono.empty();
     }
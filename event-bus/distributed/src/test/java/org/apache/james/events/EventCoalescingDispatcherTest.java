@@ -0,0 +1,240 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.events;
+
+import static org.apache.james.events.EventBusTestFixture.EVENT;
+import static org.apache.james.events.EventBusTestFixture.EVENT_2;
+import static org.apache.james.events.EventBusTestFixture.EVENT_UNSUPPORTED_BY_LISTENER;
+import static org.apache.james.events.EventBusTestFixture.NO_KEYS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.james.events.EventBusTestFixture.TestEvent;
+import org.apache.james.events.EventBusTestFixture.TestRegistrationKey;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+class EventCoalescingDispatcherTest {
+    private static final Event EVENT_3 = new TestEvent(Event.EventId.random(), EventBusTestFixture.USERNAME);
+
+    static class RecordingDispatcher {
+        private final List<Event> dispatched = new CopyOnWriteArrayList<>();
+        private final List<MonoProcessor<Void>> inFlight = new CopyOnWriteArrayList<>();
+
+        Mono<Void> dispatch(Event event, Set<RegistrationKey> keys) {
+            MonoProcessor<Void> completion = MonoProcessor.create();
+            dispatched.add(event);
+            inFlight.add(completion);
+            return completion;
+        }
+
+        void completeAll() {
+            inFlight.stream()
+                .filter(completion -> !completion.isTerminated())
+                .forEach(MonoProcessor::onComplete);
+        }
+    }
+
+    static class TestEventCoalescer implements EventCoalescer {
+        private final List<List<Event>> coalesced = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Optional<Object> coalescingKey(Event event) {
+            if (event instanceof TestEvent) {
+                return Optional.of(event.getUsername());
+            }
+            return Optional.empty();
+        }
+
+        @Override
+        public Event coalesce(List<Event> events) {
+            coalesced.add(ImmutableList.copyOf(events));
+            return events.get(events.size() - 1);
+        }
+    }
+
+    private RecordingDispatcher dispatcher;
+    private TestEventCoalescer coalescer;
+    private RecordingMetricFactory metricFactory;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new RecordingDispatcher();
+        coalescer = new TestEventCoalescer();
+        metricFactory = new RecordingMetricFactory();
+    }
+
+    private EventCoalescingDispatcher testee(EventCoalescingConfiguration configuration) {
+        return new EventCoalescingDispatcher(dispatcher::dispatch, coalescer, configuration, metricFactory);
+    }
+
+    @Test
+    void isolatedEventsShouldBeDispatchedRightAway() {
+        EventCoalescingDispatcher testee = testee(EventCoalescingConfiguration.enabled(10));
+
+        Mono<Void> result = testee.dispatch(EVENT, NO_KEYS);
+
+        assertThat(dispatcher.dispatched).containsExactly(EVENT);
+        dispatcher.completeAll();
+        result.block();
+    }
+
+    @Test
+    void eventsDispatchedDuringAnInFlightDispatchShouldBeMerged() {
+        EventCoalescingDispatcher testee = testee(EventCoalescingConfiguration.enabled(10));
+
+        Mono<Void> first = testee.dispatch(EVENT, NO_KEYS);
+        Mono<Void> second = testee.dispatch(EVENT_2, NO_KEYS);
+        Mono<Void> third = testee.dispatch(EVENT_3, NO_KEYS);
+        dispatcher.completeAll();
+
+        assertThat(dispatcher.dispatched).containsExactly(EVENT, EVENT_3);
+        assertThat(coalescer.coalesced).containsExactly(ImmutableList.of(EVENT_2, EVENT_3));
+        assertThat(metricFactory.countFor(EventCoalescingDispatcher.COALESCED_EVENTS_METRIC_NAME)).isEqualTo(1);
+
+        dispatcher.completeAll();
+        first.block();
+        second.block();
+        third.block();
+    }
+
+    @Test
+    void mergedEventsShouldNotCompleteBeforeTheirDispatch() {
+        EventCoalescingDispatcher testee = testee(EventCoalescingConfiguration.enabled(10));
+
+        testee.dispatch(EVENT, NO_KEYS);
+        MonoProcessor<Void> second = (MonoProcessor<Void>) testee.dispatch(EVENT_2, NO_KEYS);
+        assertThat(second.isTerminated()).isFalse();
+
+        dispatcher.completeAll();
+        assertThat(second.isTerminated()).isFalse();
+
+        dispatcher.completeAll();
+        assertThat(second.isSuccess()).isTrue();
+    }
+
+    @Test
+    void mergedEventsShouldBeBoundedByMaxEvents() {
+        EventCoalescingDispatcher testee = testee(EventCoalescingConfiguration.enabled(1));
+
+        testee.dispatch(EVENT, NO_KEYS);
+        testee.dispatch(EVENT_2, NO_KEYS);
+        testee.dispatch(EVENT_3, NO_KEYS);
+        dispatcher.completeAll();
+        dispatcher.completeAll();
+
+        assertThat(dispatcher.dispatched).containsExactly(EVENT, EVENT_2, EVENT_3);
+        assertThat(coalescer.coalesced).isEmpty();
+    }
+
+    @Test
+    void eventsWithDistinctRegistrationKeysShouldNotBeMerged() {
+        EventCoalescingDispatcher testee = testee(EventCoalescingConfiguration.enabled(10));
+
+        testee.dispatch(EVENT, NO_KEYS);
+        testee.dispatch(EVENT_2, ImmutableSet.of(new TestRegistrationKey("a")));
+
+        assertThat(dispatcher.dispatched).containsExactly(EVENT, EVENT_2);
+    }
+
+    @Test
+    void eventsWithoutCoalescingKeyShouldBeDispatchedRightAway() {
+        EventCoalescingDispatcher testee = testee(EventCoalescingConfiguration.enabled(10));
+
+        testee.dispatch(EVENT_UNSUPPORTED_BY_LISTENER, NO_KEYS);
+
+        assertThat(dispatcher.dispatched).containsExactly(EVENT_UNSUPPORTED_BY_LISTENER);
+    }
+
+    @Test
+    void eventsWithoutCoalescingKeyShouldNotWaitForPendingEventsOfOtherRegistrationKeys() {
+        EventCoalescingDispatcher testee = testee(EventCoalescingConfiguration.enabled(10));
+
+        testee.dispatch(EVENT, NO_KEYS);
+        testee.dispatch(EVENT_UNSUPPORTED_BY_LISTENER, ImmutableSet.of(new TestRegistrationKey("a")));
+
+        assertThat(dispatcher.dispatched).containsExactly(EVENT, EVENT_UNSUPPORTED_BY_LISTENER);
+    }
+
+    @Test
+    void eventsWithoutCoalescingKeyShouldBeDispatchedAfterThePendingEventsOfTheirRegistrationKeys() {
+        EventCoalescingDispatcher testee = testee(EventCoalescingConfiguration.enabled(10));
+
+        testee.dispatch(EVENT, NO_KEYS);
+        testee.dispatch(EVENT_2, NO_KEYS);
+        MonoProcessor<Void> unsupported = (MonoProcessor<Void>) testee.dispatch(EVENT_UNSUPPORTED_BY_LISTENER, NO_KEYS);
+        testee.dispatch(EVENT_3, NO_KEYS);
+        assertThat(dispatcher.dispatched).containsExactly(EVENT);
+
+        dispatcher.completeAll();
+        assertThat(dispatcher.dispatched).containsExactly(EVENT, EVENT_2);
+
+        dispatcher.completeAll();
+        assertThat(dispatcher.dispatched).containsExactly(EVENT, EVENT_2, EVENT_UNSUPPORTED_BY_LISTENER);
+
+        dispatcher.completeAll();
+        assertThat(dispatcher.dispatched).containsExactly(EVENT, EVENT_2, EVENT_UNSUPPORTED_BY_LISTENER, EVENT_3);
+        assertThat(unsupported.isSuccess()).isTrue();
+        assertThat(coalescer.coalesced).isEmpty();
+    }
+
+    @Test
+    void noneCoalescerShouldNotThrow() {
+        assertThat(EventCoalescer.NONE.coalescingKey(EVENT)).isEmpty();
+        assertThat(EventCoalescer.NONE.coalesce(ImmutableList.of(EVENT, EVENT_2))).isEqualTo(EVENT_2);
+    }
+
+    @Test
+    void eventsShouldNotBeMergedWhenCoalescingIsDisabled() {
+        EventCoalescingDispatcher testee = testee(EventCoalescingConfiguration.DEFAULT);
+
+        testee.dispatch(EVENT, NO_KEYS);
+        testee.dispatch(EVENT_2, NO_KEYS);
+
+        assertThat(dispatcher.dispatched).containsExactly(EVENT, EVENT_2);
+        assertThat(coalescer.coalesced).isEmpty();
+    }
+
+    @Test
+    void dispatchFailureShouldBePropagatedAndNotBlockNextEvents() {
+        EventCoalescingDispatcher testee = testee(EventCoalescingConfiguration.enabled(10));
+
+        MonoProcessor<Void> first = (MonoProcessor<Void>) testee.dispatch(EVENT, NO_KEYS);
+        MonoProcessor<Void> second = (MonoProcessor<Void>) testee.dispatch(EVENT_2, NO_KEYS);
+        dispatcher.inFlight.get(0).onError(new RuntimeException("boom"));
+
+        assertThat(first.isError()).isTrue();
+        assertThat(dispatcher.dispatched).containsExactly(EVENT, EVENT_2);
+
+        dispatcher.inFlight.get(1).onComplete();
+        assertThat(second.isSuccess()).isTrue();
+    }
+}
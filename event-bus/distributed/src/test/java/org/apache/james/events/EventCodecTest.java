@@ -0,0 +1,161 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.events;
+
+import static org.apache.james.events.EventBusTestFixture.EVENT;
+import static org.apache.james.events.EventBusTestFixture.EVENT_UNSUPPORTED_BY_LISTENER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.apache.james.events.EventBusTestFixture.TestEvent;
+import org.apache.james.events.EventBusTestFixture.TestEventSerializer;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+class EventCodecTest {
+    private static final String BINARY_CODEC = "test-binary-v1";
+    private static final byte MAGIC = 42;
+
+    static class BinaryTestEventSerializer implements BinaryEventSerializer {
+        private final EventSerializer jsonSerializer = new TestEventSerializer();
+
+        @Override
+        public String codecName() {
+            return BINARY_CODEC;
+        }
+
+        @Override
+        public Optional<byte[]> toBytes(Event event) {
+            if (!(event instanceof TestEvent)) {
+                return Optional.empty();
+            }
+            byte[] json = jsonSerializer.toJson(event).getBytes(StandardCharsets.UTF_8);
+            byte[] result = new byte[json.length + 1];
+            result[0] = MAGIC;
+            System.arraycopy(json, 0, result, 1, json.length);
+            return Optional.of(result);
+        }
+
+        @Override
+        public Event fromBytes(byte[] serialized) {
+            if (serialized[0] != MAGIC) {
+                throw new IllegalArgumentException("Not a binary test event");
+            }
+            return jsonSerializer.asEvent(new String(Arrays.copyOfRange(serialized, 1, serialized.length), StandardCharsets.UTF_8));
+        }
+    }
+
+    static class BinaryCapableSerializer extends TestEventSerializer {
+        @Override
+        public Optional<BinaryEventSerializer> binarySerializer() {
+            return Optional.of(new BinaryTestEventSerializer());
+        }
+    }
+
+    @Test
+    void encodeShouldUseJsonByDefault() {
+        EventCodec testee = new EventCodec(new BinaryCapableSerializer(), EventCodecConfiguration.DEFAULT);
+
+        EventCodec.EncodedEvent encoded = testee.encode(EVENT);
+
+        assertThat(encoded.getCodec()).isEqualTo(EventCodec.JSON_CODEC);
+        assertThat(encoded.getContentType()).isEqualTo("text/plain");
+        assertThat(new String(encoded.getPayload(), StandardCharsets.UTF_8)).isEqualTo(new TestEventSerializer().toJson(EVENT));
+    }
+
+    @Test
+    void encodeShouldUseBinaryWhenPublishingIsEnabled() {
+        EventCodec testee = new EventCodec(new BinaryCapableSerializer(), EventCodecConfiguration.BINARY_PUBLISHING);
+
+        EventCodec.EncodedEvent encoded = testee.encode(EVENT);
+
+        assertThat(encoded.getCodec()).isEqualTo(BINARY_CODEC);
+        assertThat(encoded.getContentType()).isEqualTo(EventCodec.BINARY_CONTENT_TYPE);
+        assertThat(encoded.getPayload()[0]).isEqualTo(MAGIC);
+    }
+
+    @Test
+    void encodeShouldFallbackToJsonWhenEventIsNotSupportedByTheBinarySerializer() {
+        EventCodec testee = new EventCodec(new BinaryCapableSerializer(), EventCodecConfiguration.BINARY_PUBLISHING);
+
+        assertThat(testee.encode(EVENT_UNSUPPORTED_BY_LISTENER).getCodec()).isEqualTo(EventCodec.JSON_CODEC);
+    }
+
+    @Test
+    void encodeShouldUseJsonWhenNoBinarySerializer() {
+        EventCodec testee = new EventCodec(new TestEventSerializer(), EventCodecConfiguration.BINARY_PUBLISHING);
+
+        assertThat(testee.encode(EVENT).getCodec()).isEqualTo(EventCodec.JSON_CODEC);
+    }
+
+    @Test
+    void decodeShouldRoundTripBinaryEvents() {
+        EventCodec testee = new EventCodec(new BinaryCapableSerializer(), EventCodecConfiguration.BINARY_PUBLISHING);
+
+        EventCodec.EncodedEvent encoded = testee.encode(EVENT);
+
+        assertThat(testee.decode(encoded.getPayload(), ImmutableMap.of(EventCodec.CODEC_HEADER, encoded.getCodec())))
+            .isEqualTo(EVENT);
+    }
+
+    @Test
+    void decodeShouldAcceptBinaryEventsEvenWhenPublishingIsDisabled() {
+        EventCodec publisher = new EventCodec(new BinaryCapableSerializer(), EventCodecConfiguration.BINARY_PUBLISHING);
+        EventCodec testee = new EventCodec(new BinaryCapableSerializer(), EventCodecConfiguration.DEFAULT);
+
+        EventCodec.EncodedEvent encoded = publisher.encode(EVENT);
+
+        assertThat(testee.decode(encoded.getPayload(), ImmutableMap.of(EventCodec.CODEC_HEADER, encoded.getCodec())))
+            .isEqualTo(EVENT);
+    }
+
+    @Test
+    void decodeShouldTreatMessagesWithoutCodecHeaderAsJson() {
+        EventCodec testee = new EventCodec(new BinaryCapableSerializer(), EventCodecConfiguration.BINARY_PUBLISHING);
+        byte[] json = new TestEventSerializer().toJson(EVENT).getBytes(StandardCharsets.UTF_8);
+
+        assertThat(testee.decode(json, ImmutableMap.of())).isEqualTo(EVENT);
+        assertThat(testee.decode(json, null)).isEqualTo(EVENT);
+    }
+
+    @Test
+    void decodeShouldRejectUnknownCodecs() {
+        EventCodec testee = new EventCodec(new BinaryCapableSerializer(), EventCodecConfiguration.BINARY_PUBLISHING);
+
+        assertThatThrownBy(() -> testee.decode(new byte[] {1, 2}, ImmutableMap.of(EventCodec.CODEC_HEADER, "unknown-v9")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decodeShouldRejectBinaryEventsWhenNoBinarySerializer() {
+        EventCodec publisher = new EventCodec(new BinaryCapableSerializer(), EventCodecConfiguration.BINARY_PUBLISHING);
+        EventCodec testee = new EventCodec(new TestEventSerializer(), EventCodecConfiguration.DEFAULT);
+
+        EventCodec.EncodedEvent encoded = publisher.encode(EVENT);
+
+        assertThatThrownBy(() -> testee.decode(encoded.getPayload(), ImmutableMap.of(EventCodec.CODEC_HEADER, encoded.getCodec())))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
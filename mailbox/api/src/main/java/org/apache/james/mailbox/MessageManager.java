@@ -39,6 +39,7 @@ import org.apache.james.mailbox.exception.UnsupportedCriteriaException;
 import org.apache.james.mailbox.exception.UnsupportedRightException;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.Content;
 import org.apache.james.mailbox.model.FetchGroup;
 import org.apache.james.mailbox.model.Mailbox;
 import org.apache.james.mailbox.model.MailboxACL;
@@ -207,6 +208,22 @@ public interface MessageManager {
      */
     AppendResult appendMessage(InputStream msgIn, Date internalDate, MailboxSession mailboxSession, boolean isRecent, Flags flags) throws MailboxException;
 
+    /**
+     * Appends a message whose size is known upfront.
+     *
+     * Implementations able to read the {@link Content} several times can store it in place, saving the
+     * copy done when appending an {@link InputStream}.
+     *
+     * @see #appendMessage(InputStream, Date, MailboxSession, boolean, Flags)
+     */
+    default AppendResult appendMessage(Content content, Date internalDate, MailboxSession mailboxSession, boolean isRecent, Flags flags) throws MailboxException {
+        try (InputStream msgIn = content.getInputStream()) {
+            return appendMessage(msgIn, internalDate, mailboxSession, isRecent, flags);
+        } catch (IOException e) {
+            throw new MailboxException("Unable to read message content", e);
+        }
+    }
+
     class AppendCommand {
 
         public static AppendCommand from(Message.Builder builder) throws IOException {
@@ -0,0 +1,116 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.events;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.james.core.Username;
+import org.apache.james.events.Event;
+import org.apache.james.events.EventCoalescer;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.events.MailboxEvents.FlagsUpdated;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.UpdatedFlags;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Merges the {@link FlagsUpdated} events of a mailbox, emitted by the same session.
+ *
+ * The merged event carries one {@link UpdatedFlags} per message, ordered by first update: its old flags are the ones
+ * of the first update while its new flags and modseq are the ones of the last update. The merged event keeps the
+ * event id of the first merged event.
+ */
+public class FlagsUpdatedCoalescer implements EventCoalescer {
+    private static class CoalescingKey {
+        private final MailboxId mailboxId;
+        private final MailboxPath path;
+        private final Username username;
+        private final MailboxSession.SessionId sessionId;
+
+        private CoalescingKey(FlagsUpdated event) {
+            this.mailboxId = event.getMailboxId();
+            this.path = event.getMailboxPath();
+            this.username = event.getUsername();
+            this.sessionId = event.getSessionId();
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof CoalescingKey) {
+                CoalescingKey that = (CoalescingKey) o;
+
+                return Objects.equals(this.mailboxId, that.mailboxId)
+                    && Objects.equals(this.path, that.path)
+                    && Objects.equals(this.username, that.username)
+                    && Objects.equals(this.sessionId, that.sessionId);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(mailboxId, path, username, sessionId);
+        }
+    }
+
+    @Override
+    public Optional<Object> coalescingKey(Event event) {
+        if (event instanceof FlagsUpdated) {
+            return Optional.of(new CoalescingKey((FlagsUpdated) event));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Event coalesce(List<Event> events) {
+        Preconditions.checkArgument(!events.isEmpty(), "Can not coalesce an empty list of events");
+        if (events.size() == 1) {
+            return events.get(0);
+        }
+
+        FlagsUpdated first = (FlagsUpdated) events.get(0);
+        Map<MessageUid, UpdatedFlags> updatedFlags = new LinkedHashMap<>();
+        events.stream()
+            .map(FlagsUpdated.class::cast)
+            .flatMap(event -> event.getUpdatedFlags().stream())
+            .forEach(update -> updatedFlags.merge(update.getUid(), update, FlagsUpdatedCoalescer::merge));
+
+        return new FlagsUpdated(first.getSessionId(), first.getUsername(), first.getMailboxPath(), first.getMailboxId(),
+            ImmutableList.copyOf(updatedFlags.values()), first.getEventId());
+    }
+
+    private static UpdatedFlags merge(UpdatedFlags previous, UpdatedFlags next) {
+        return UpdatedFlags.builder()
+            .uid(next.getUid())
+            .messageId(next.getMessageId().or(previous::getMessageId))
+            .modSeq(next.getModSeq())
+            .oldFlags(previous.getOldFlags())
+            .newFlags(next.getNewFlags())
+            .build();
+    }
+}
@@ -24,6 +24,8 @@ import java.io.InputStream;
 
 import org.apache.james.mailbox.exception.MailboxException;
 
+import com.google.common.io.ByteStreams;
+
 /**
  * IMAP needs to know the size of the content before it starts to write it out.
  * This interface allows direct writing whilst exposing total size.
@@ -33,6 +35,23 @@ public interface Content {
      * Return the content as {@link InputStream}
      */
     InputStream getInputStream() throws IOException;
+
+    /**
+     * Return at most length octets of the content, starting at the given offset
+     */
+    default InputStream getInputStream(long offset, long length) throws IOException {
+        return range(getInputStream(), offset, length);
+    }
+
+    /**
+     * Skip the first offset octets of the given stream and bound what remains to length octets.
+     *
+     * Fallback for content that can not be read from an arbitrary position.
+     */
+    static InputStream range(InputStream inputStream, long offset, long length) throws IOException {
+        ByteStreams.exhaust(ByteStreams.limit(inputStream, offset));
+        return ByteStreams.limit(inputStream, length);
+    }
     
     /**
      * Size (in octets) of the content.
@@ -32,14 +32,18 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 
 import javax.mail.Flags;
+import javax.mail.util.SharedByteArrayInputStream;
 
 import org.apache.james.core.Username;
 import org.apache.james.core.quota.QuotaCountLimit;
@@ -69,6 +73,7 @@ import org.apache.james.mailbox.exception.TooLongMailboxNameException;
 import org.apache.james.mailbox.extension.PreDeletionHook;
 import org.apache.james.mailbox.mock.DataProvisioner;
 import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.Content;
 import org.apache.james.mailbox.model.FetchGroup;
 import org.apache.james.mailbox.model.MailboxACL;
 import org.apache.james.mailbox.model.MailboxAnnotation;
@@ -2855,6 +2860,27 @@ public abstract class MailboxManagerTest<T extends MailboxManager> {
                     .collectList().block())
                 .isEmpty();
         }
+
+        @Test
+        void appendMessageShouldStoreSharedContent() throws Exception {
+            byte[] message = "Subject: test\r\n\r\ntestmail".getBytes(StandardCharsets.UTF_8);
+            Content content = new Content() {
+                @Override
+                public InputStream getInputStream() {
+                    return new SharedByteArrayInputStream(message);
+                }
+
+                @Override
+                public long size() {
+                    return message.length;
+                }
+            };
+
+            ComposedMessageId composeId = inboxManager.appendMessage(content, new Date(), session, false, new Flags()).getId();
+
+            MessageResult messageResult = inboxManager.getMessages(MessageRange.one(composeId.getUid()), FetchGroup.FULL_CONTENT, session).next();
+            assertThat(messageResult.getFullContent().getInputStream()).hasSameContentAs(new ByteArrayInputStream(message));
+        }
     }
 
     @Nested
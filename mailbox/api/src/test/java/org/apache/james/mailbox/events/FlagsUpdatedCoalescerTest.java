@@ -0,0 +1,137 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import javax.mail.Flags;
+
+import org.apache.james.core.Username;
+import org.apache.james.events.Event;
+import org.apache.james.mailbox.FlagsBuilder;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.events.MailboxEvents.FlagsUpdated;
+import org.apache.james.mailbox.events.MailboxEvents.MailboxAdded;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.model.TestMessageId;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+class FlagsUpdatedCoalescerTest {
+    private static final Username USERNAME = Username.of("user");
+    private static final MailboxSession.SessionId SESSION_ID = MailboxSession.SessionId.of(42);
+    private static final MailboxPath PATH = MailboxPath.inbox(USERNAME);
+    private static final TestId MAILBOX_ID = TestId.of(18);
+    private static final Flags NO_FLAGS = new Flags();
+    private static final Flags SEEN = new Flags(Flags.Flag.SEEN);
+    private static final Flags SEEN_AND_FLAGGED = FlagsBuilder.builder()
+        .add(Flags.Flag.SEEN, Flags.Flag.FLAGGED)
+        .build();
+
+    private final FlagsUpdatedCoalescer testee = new FlagsUpdatedCoalescer();
+
+    private static UpdatedFlags updatedFlags(long uid, long modSeq, Flags oldFlags, Flags newFlags) {
+        return UpdatedFlags.builder()
+            .uid(MessageUid.of(uid))
+            .modSeq(ModSeq.of(modSeq))
+            .oldFlags(oldFlags)
+            .newFlags(newFlags)
+            .messageId(TestMessageId.of(uid))
+            .build();
+    }
+
+    private static FlagsUpdated flagsUpdated(TestId mailboxId, UpdatedFlags... updatedFlags) {
+        return new FlagsUpdated(SESSION_ID, USERNAME, PATH, mailboxId, ImmutableList.copyOf(updatedFlags), Event.EventId.random());
+    }
+
+    @Test
+    void flagsUpdatedOfTheSameMailboxShouldShareTheirCoalescingKey() {
+        assertThat(testee.coalescingKey(flagsUpdated(MAILBOX_ID, updatedFlags(1, 2, NO_FLAGS, SEEN))))
+            .isEqualTo(testee.coalescingKey(flagsUpdated(MAILBOX_ID, updatedFlags(3, 4, NO_FLAGS, SEEN))));
+    }
+
+    @Test
+    void flagsUpdatedOfDistinctMailboxesShouldHaveDistinctCoalescingKeys() {
+        assertThat(testee.coalescingKey(flagsUpdated(MAILBOX_ID, updatedFlags(1, 2, NO_FLAGS, SEEN))))
+            .isNotEqualTo(testee.coalescingKey(flagsUpdated(TestId.of(19), updatedFlags(1, 2, NO_FLAGS, SEEN))));
+    }
+
+    @Test
+    void otherEventsShouldNotBeCoalesced() {
+        MailboxAdded mailboxAdded = new MailboxAdded(SESSION_ID, USERNAME, PATH, MAILBOX_ID, Event.EventId.random());
+
+        assertThat(testee.coalescingKey(mailboxAdded)).isEmpty();
+    }
+
+    @Test
+    void coalesceShouldReturnTheEventWhenSingle() {
+        FlagsUpdated event = flagsUpdated(MAILBOX_ID, updatedFlags(1, 2, NO_FLAGS, SEEN));
+
+        assertThat(testee.coalesce(ImmutableList.of(event))).isSameAs(event);
+    }
+
+    @Test
+    void coalesceShouldConcatenateUpdatesOfDistinctMessages() {
+        FlagsUpdated first = flagsUpdated(MAILBOX_ID, updatedFlags(1, 2, NO_FLAGS, SEEN), updatedFlags(2, 3, NO_FLAGS, SEEN));
+        FlagsUpdated second = flagsUpdated(MAILBOX_ID, updatedFlags(3, 4, NO_FLAGS, SEEN));
+
+        FlagsUpdated coalesced = (FlagsUpdated) testee.coalesce(ImmutableList.of(first, second));
+
+        assertThat(coalesced.getUpdatedFlags()).containsExactly(
+            updatedFlags(1, 2, NO_FLAGS, SEEN),
+            updatedFlags(2, 3, NO_FLAGS, SEEN),
+            updatedFlags(3, 4, NO_FLAGS, SEEN));
+    }
+
+    @Test
+    void coalesceShouldMergeSuccessiveUpdatesOfAMessage() {
+        FlagsUpdated first = flagsUpdated(MAILBOX_ID, updatedFlags(1, 2, NO_FLAGS, SEEN), updatedFlags(2, 3, NO_FLAGS, SEEN));
+        FlagsUpdated second = flagsUpdated(MAILBOX_ID, updatedFlags(1, 4, SEEN, SEEN_AND_FLAGGED));
+
+        FlagsUpdated coalesced = (FlagsUpdated) testee.coalesce(ImmutableList.of(first, second));
+
+        assertThat(coalesced.getUpdatedFlags()).containsExactly(
+            updatedFlags(1, 4, NO_FLAGS, SEEN_AND_FLAGGED),
+            updatedFlags(2, 3, NO_FLAGS, SEEN));
+    }
+
+    @Test
+    void coalesceShouldKeepTheMetadataOfTheFirstEvent() {
+        Event.EventId eventId = Event.EventId.of(UUID.fromString("6e0dd59d-660e-4d9b-b22f-0354479f47b4"));
+        FlagsUpdated first = new FlagsUpdated(SESSION_ID, USERNAME, PATH, MAILBOX_ID,
+            ImmutableList.of(updatedFlags(1, 2, NO_FLAGS, SEEN)), eventId);
+        FlagsUpdated second = flagsUpdated(MAILBOX_ID, updatedFlags(2, 3, NO_FLAGS, SEEN));
+
+        FlagsUpdated coalesced = (FlagsUpdated) testee.coalesce(ImmutableList.of(first, second));
+
+        assertThat(coalesced.getEventId()).isEqualTo(eventId);
+        assertThat(coalesced.getMailboxId()).isEqualTo(MAILBOX_ID);
+        assertThat(coalesced.getSessionId()).isEqualTo(SESSION_ID);
+        assertThat(coalesced.getUsername()).isEqualTo(USERNAME);
+        assertThat(coalesced.getMailboxPath()).isEqualTo(PATH);
+    }
+}
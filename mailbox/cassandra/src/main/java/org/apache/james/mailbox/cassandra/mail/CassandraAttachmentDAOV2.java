@@ -49,6 +49,7 @@ import com.datastax.driver.core.Session;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.google.common.base.Preconditions;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraAttachmentDAOV2 {
@@ -129,6 +130,7 @@ public class CassandraAttachmentDAOV2 {
     private final PreparedStatement insertStatement;
     private final PreparedStatement deleteStatement;
     private final PreparedStatement selectStatement;
+    private final PreparedStatement listBlobsStatement;
     private final ConsistencyLevel consistencyLevel;
 
     @Inject
@@ -141,6 +143,12 @@ public class CassandraAttachmentDAOV2 {
         this.selectStatement = prepareSelect(session);
         this.insertStatement = prepareInsert(session);
         this.deleteStatement = prepareDelete(session);
+        this.listBlobsStatement = prepareListBlobs(session);
+    }
+
+    private PreparedStatement prepareListBlobs(Session session) {
+        return session.prepare(select(BLOB_ID)
+            .from(TABLE_NAME));
     }
 
     private PreparedStatement prepareDelete(Session session) {
@@ -184,6 +192,11 @@ public class CassandraAttachmentDAOV2 {
                 .setString(BLOB_ID, attachment.getBlobId().asString()));
     }
 
+    public Flux<BlobId> listBlobs() {
+        return cassandraAsyncExecutor.executeRows(listBlobsStatement.bind())
+            .map(row -> blobIdFactory.from(row.getString(BLOB_ID)));
+    }
+
     public Mono<Void> delete(AttachmentId attachmentId) {
         return cassandraAsyncExecutor.executeVoid(
             deleteStatement.bind()
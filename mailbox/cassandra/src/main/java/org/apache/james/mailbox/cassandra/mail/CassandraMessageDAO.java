@@ -257,7 +257,15 @@ public class CassandraMessageDAO {
                 getProperties(row),
                 getAttachments(row).collect(Guavate.toImmutableList()),
                 headerId,
-                bodyId));
+                bodyId,
+                fullContentRangeReader(fetchType, headerId, bodyId, bodyStartOctet)));
+    }
+
+    private Optional<FullContentRangeReader> fullContentRangeReader(FetchType fetchType, BlobId headerId, BlobId bodyId, int bodyStartOctet) {
+        if (fetchType == FetchType.Full) {
+            return Optional.empty();
+        }
+        return Optional.of(new FullContentRangeReader(blobStore, headerId, bodyId, bodyStartOctet));
     }
 
     private MessageRepresentation message(Row row) {
@@ -274,7 +282,8 @@ public class CassandraMessageDAO {
                 getProperties(row),
                 getAttachments(row).collect(Guavate.toImmutableList()),
                 headerId,
-                bodyId);
+                bodyId,
+                fullContentRangeReader(FetchType.Metadata, headerId, bodyId, row.getInt(BODY_START_OCTET)));
     }
 
     private org.apache.james.mailbox.store.mail.model.impl.Properties getProperties(Row row) {
@@ -85,6 +85,7 @@ import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Bytes;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
 
@@ -99,6 +100,7 @@ public class CassandraMessageDAOV3 {
     private final PreparedStatement insert;
     private final PreparedStatement delete;
     private final PreparedStatement select;
+    private final PreparedStatement listBlobs;
     private final Cid.CidParser cidParser;
     private final ConsistencyLevel consistencyLevel;
 
@@ -115,6 +117,7 @@ public class CassandraMessageDAOV3 {
         this.insert = prepareInsert(session);
         this.delete = prepareDelete(session);
         this.select = prepareSelect(session);
+        this.listBlobs = prepareSelectBlobs(session);
         this.cidParser = Cid.parser().relaxed();
     }
 
@@ -124,6 +127,11 @@ public class CassandraMessageDAOV3 {
             .where(eq(MESSAGE_ID, bindMarker(MESSAGE_ID))));
     }
 
+    private PreparedStatement prepareSelectBlobs(Session session) {
+        return session.prepare(select(HEADER_CONTENT, BODY_CONTENT)
+            .from(TABLE_NAME));
+    }
+
     private PreparedStatement prepareInsert(Session session) {
         return session.prepare(insertInto(TABLE_NAME)
             .value(MESSAGE_ID, bindMarker(MESSAGE_ID))
@@ -154,6 +162,13 @@ public class CassandraMessageDAOV3 {
             .where(eq(MESSAGE_ID, bindMarker(MESSAGE_ID))));
     }
 
+    public Flux<BlobId> listBlobs() {
+        return cassandraAsyncExecutor.executeRows(listBlobs.bind())
+            .flatMapIterable(row -> ImmutableList.of(
+                retrieveBlobId(HEADER_CONTENT, row),
+                retrieveBlobId(BODY_CONTENT, row)));
+    }
+
     public Mono<Void> save(MailboxMessage message) throws MailboxException {
         return saveContent(message)
             .flatMap(pair -> cassandraAsyncExecutor.executeVoid(boundWriteStatement(message, pair)));
@@ -297,7 +312,15 @@ public class CassandraMessageDAOV3 {
                 getProperties(row),
                 getAttachments(row).collect(Guavate.toImmutableList()),
                 headerId,
-                bodyId));
+                bodyId,
+                fullContentRangeReader(fetchType, headerId, bodyId, bodyStartOctet)));
+    }
+
+    private Optional<FullContentRangeReader> fullContentRangeReader(FetchType fetchType, BlobId headerId, BlobId bodyId, int bodyStartOctet) {
+        if (fetchType == FetchType.Full) {
+            return Optional.empty();
+        }
+        return Optional.of(new FullContentRangeReader(blobStore, headerId, bodyId, bodyStartOctet));
     }
 
     private Properties getProperties(Row row) {
@@ -0,0 +1,64 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+
+import com.google.common.primitives.Bytes;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads a range of the full content of a message stored as a header blob followed by a body blob,
+ * fetching only the blob ranges overlapping the requested octets.
+ */
+class FullContentRangeReader {
+    private final BlobStore blobStore;
+    private final BlobId headerId;
+    private final BlobId bodyId;
+    private final int bodyStartOctet;
+
+    FullContentRangeReader(BlobStore blobStore, BlobId headerId, BlobId bodyId, int bodyStartOctet) {
+        this.blobStore = blobStore;
+        this.headerId = headerId;
+        this.bodyId = bodyId;
+        this.bodyStartOctet = bodyStartOctet;
+    }
+
+    Mono<byte[]> read(long offset, long length) {
+        if (length <= 0) {
+            return Mono.just(new byte[0]);
+        }
+        if (offset >= bodyStartOctet) {
+            return read(bodyId, offset - bodyStartOctet, length);
+        }
+        long headerLength = Math.min(length, bodyStartOctet - offset);
+        Mono<byte[]> header = read(headerId, offset, headerLength);
+        if (headerLength == length) {
+            return header;
+        }
+        return header.zipWith(read(bodyId, 0, length - headerLength), Bytes::concat);
+    }
+
+    private Mono<byte[]> read(BlobId blobId, long offset, long length) {
+        return Mono.from(blobStore.readBytes(blobStore.getDefaultBucketName(), blobId, offset, length));
+    }
+}
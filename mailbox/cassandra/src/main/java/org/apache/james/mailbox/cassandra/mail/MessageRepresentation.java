@@ -19,19 +19,43 @@
 
 package org.apache.james.mailbox.cassandra.mail;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
+import javax.mail.Flags;
 import javax.mail.util.SharedByteArrayInputStream;
 
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MessageAttachmentMetadata;
 import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.store.mail.model.impl.Properties;
 import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
 
 public class MessageRepresentation {
+    /**
+     * Message whose content was not loaded: ranges of its full content are read from the blob store on demand.
+     */
+    private static class RangeReadingMailboxMessage extends SimpleMailboxMessage {
+        private final FullContentRangeReader fullContentRangeReader;
+
+        RangeReadingMailboxMessage(MessageId messageId, Date internalDate, long size, int bodyStartOctet, SharedByteArrayInputStream content,
+                                   Flags flags, Properties properties, MailboxId mailboxId, List<MessageAttachmentMetadata> attachments,
+                                   FullContentRangeReader fullContentRangeReader) {
+            super(messageId, internalDate, size, bodyStartOctet, content, flags, properties, mailboxId, attachments);
+            this.fullContentRangeReader = fullContentRangeReader;
+        }
+
+        @Override
+        public InputStream getFullContent(long offset, long length) {
+            return new ByteArrayInputStream(fullContentRangeReader.read(offset, length).block());
+        }
+    }
+
     private final MessageId messageId;
     private final Date internalDate;
     private final Long size;
@@ -41,9 +65,16 @@ public class MessageRepresentation {
     private final List<MessageAttachmentRepresentation> attachments;
     private final BlobId headerId;
     private final BlobId bodyId;
+    private final Optional<FullContentRangeReader> fullContentRangeReader;
 
     public MessageRepresentation(MessageId messageId, Date internalDate, Long size, Integer bodyStartOctet, SharedByteArrayInputStream content,
                                  Properties properties, List<MessageAttachmentRepresentation> attachments, BlobId headerId, BlobId bodyId) {
+        this(messageId, internalDate, size, bodyStartOctet, content, properties, attachments, headerId, bodyId, Optional.empty());
+    }
+
+    MessageRepresentation(MessageId messageId, Date internalDate, Long size, Integer bodyStartOctet, SharedByteArrayInputStream content,
+                          Properties properties, List<MessageAttachmentRepresentation> attachments, BlobId headerId, BlobId bodyId,
+                          Optional<FullContentRangeReader> fullContentRangeReader) {
         this.messageId = messageId;
         this.internalDate = internalDate;
         this.size = size;
@@ -53,9 +84,17 @@ public class MessageRepresentation {
         this.attachments = attachments;
         this.headerId = headerId;
         this.bodyId = bodyId;
+        this.fullContentRangeReader = fullContentRangeReader;
     }
 
     public SimpleMailboxMessage toMailboxMessage(ComposedMessageIdWithMetaData metadata, List<MessageAttachmentMetadata> attachments) {
+        if (fullContentRangeReader.isPresent()) {
+            RangeReadingMailboxMessage message = new RangeReadingMailboxMessage(messageId, internalDate, size, bodyStartOctet, content,
+                metadata.getFlags(), properties, metadata.getComposedMessageId().getMailboxId(), attachments, fullContentRangeReader.get());
+            message.setUid(metadata.getComposedMessageId().getUid());
+            message.setModSeq(metadata.getModSeq());
+            return message;
+        }
         return SimpleMailboxMessage.builder()
             .messageId(messageId)
             .mailboxId(metadata.getComposedMessageId().getMailboxId())
@@ -172,6 +172,58 @@ class CassandraMessageDAOV3Test {
             .isEqualTo(CONTENT.substring(0, BODY_START));
     }
 
+    @Test
+    void fullContentRangeShouldBeReadWithinTheHeaderBlob() throws Exception {
+        message = createMessage(messageId, CONTENT, BODY_START, new PropertyBuilder(), NO_ATTACHMENT);
+
+        testee.save(message).block();
+
+        SimpleMailboxMessage retrieved = toMessage(testee.retrieveMessage(messageIdWithMetadata, MessageMapper.FetchType.Metadata))
+            .toMailboxMessage(messageIdWithMetadata, NO_ATTACHMENT);
+
+        assertThat(IOUtils.toString(retrieved.getFullContent(2, 5), StandardCharsets.UTF_8))
+            .isEqualTo(CONTENT.substring(2, 7));
+    }
+
+    @Test
+    void fullContentRangeShouldSpanTheHeaderAndBodyBlobs() throws Exception {
+        message = createMessage(messageId, CONTENT, BODY_START, new PropertyBuilder(), NO_ATTACHMENT);
+
+        testee.save(message).block();
+
+        SimpleMailboxMessage retrieved = toMessage(testee.retrieveMessage(messageIdWithMetadata, MessageMapper.FetchType.Metadata))
+            .toMailboxMessage(messageIdWithMetadata, NO_ATTACHMENT);
+
+        assertThat(IOUtils.toString(retrieved.getFullContent(BODY_START - 4, 8), StandardCharsets.UTF_8))
+            .isEqualTo(CONTENT.substring(BODY_START - 4, BODY_START + 4));
+    }
+
+    @Test
+    void fullContentRangeShouldBeReadWithinTheBodyBlob() throws Exception {
+        message = createMessage(messageId, CONTENT, BODY_START, new PropertyBuilder(), NO_ATTACHMENT);
+
+        testee.save(message).block();
+
+        SimpleMailboxMessage retrieved = toMessage(testee.retrieveMessage(messageIdWithMetadata, MessageMapper.FetchType.Metadata))
+            .toMailboxMessage(messageIdWithMetadata, NO_ATTACHMENT);
+
+        assertThat(IOUtils.toString(retrieved.getFullContent(BODY_START + 1, 3), StandardCharsets.UTF_8))
+            .isEqualTo(CONTENT.substring(BODY_START + 1, BODY_START + 4));
+    }
+
+    @Test
+    void fullContentRangeShouldBeTruncatedToTheMessageSize() throws Exception {
+        message = createMessage(messageId, CONTENT, BODY_START, new PropertyBuilder(), NO_ATTACHMENT);
+
+        testee.save(message).block();
+
+        SimpleMailboxMessage retrieved = toMessage(testee.retrieveMessage(messageIdWithMetadata, MessageMapper.FetchType.Metadata))
+            .toMailboxMessage(messageIdWithMetadata, NO_ATTACHMENT);
+
+        assertThat(IOUtils.toString(retrieved.getFullContent(BODY_START - 1, 1000), StandardCharsets.UTF_8))
+            .isEqualTo(CONTENT.substring(BODY_START - 1));
+    }
+
     private SimpleMailboxMessage createMessage(MessageId messageId, String content, int bodyStart, PropertyBuilder propertyBuilder, Collection<MessageAttachmentMetadata> attachments) {
         return SimpleMailboxMessage.builder()
             .messageId(messageId)
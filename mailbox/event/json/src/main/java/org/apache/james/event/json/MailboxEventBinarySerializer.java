@@ -0,0 +1,387 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.event.json;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.mail.Flags;
+
+import org.apache.james.core.Username;
+import org.apache.james.events.BinaryEventSerializer;
+import org.apache.james.events.Event;
+import org.apache.james.events.Event.EventId;
+import org.apache.james.mailbox.MailboxSession.SessionId;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.events.MailboxEvents.Added;
+import org.apache.james.mailbox.events.MailboxEvents.Expunged;
+import org.apache.james.mailbox.events.MailboxEvents.FlagsUpdated;
+import org.apache.james.mailbox.events.MailboxEvents.MailboxEvent;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.UpdatedFlags;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Compact binary encoding of the mailbox events carrying message metadata: {@link Added}, {@link Expunged} and
+ * {@link FlagsUpdated}. Other events are left to the JSON serialization.
+ *
+ * Integers are written as variable length quantities. Message entries are sorted by UID (FlagsUpdated keeps its
+ * order) and their UIDs, modseqs and internal dates are written as deltas from the previous entry: contiguous UID
+ * ranges thus cost one byte per UID. Flags are interned: each distinct set of flags of the event is written once,
+ * then referenced by its index.
+ */
+public class MailboxEventBinarySerializer implements BinaryEventSerializer {
+    public static final byte FORMAT_VERSION = 1;
+    public static final String CODEC_NAME = "mailbox-binary-v" + FORMAT_VERSION;
+
+    private static final byte ADDED = 1;
+    private static final byte EXPUNGED = 2;
+    private static final byte FLAGS_UPDATED = 3;
+
+    private static final List<Flags.Flag> SYSTEM_FLAGS = ImmutableList.of(
+        Flags.Flag.ANSWERED,
+        Flags.Flag.DELETED,
+        Flags.Flag.DRAFT,
+        Flags.Flag.FLAGGED,
+        Flags.Flag.RECENT,
+        Flags.Flag.SEEN);
+
+    private static class Writer {
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        void writeByte(int value) {
+            output.write(value);
+        }
+
+        void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                output.write((int) (value >>> shift));
+            }
+        }
+
+        void writeVarLong(long value) {
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                output.write((int) ((remaining & 0x7F) | 0x80));
+                remaining >>>= 7;
+            }
+            output.write((int) remaining);
+        }
+
+        void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            output.write(bytes, 0, bytes.length);
+        }
+
+        void writeOptionalString(Optional<String> value) {
+            writeByte(value.isPresent() ? 1 : 0);
+            value.ifPresent(this::writeString);
+        }
+
+        byte[] toByteArray() {
+            return output.toByteArray();
+        }
+    }
+
+    private static class Reader {
+        private final ByteBuffer input;
+
+        Reader(byte[] serialized) {
+            this.input = ByteBuffer.wrap(serialized);
+        }
+
+        byte readByte() {
+            return input.get();
+        }
+
+        long readLong() {
+            return input.getLong();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte current = input.get();
+                value |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed variable length quantity");
+        }
+
+        int readVarInt() {
+            return Math.toIntExact(readVarLong());
+        }
+
+        long readSignedVarLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            byte[] bytes = new byte[readVarInt()];
+            input.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Optional<String> readOptionalString() {
+            if (readByte() == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(readString());
+        }
+    }
+
+    private final MailboxId.Factory mailboxIdFactory;
+    private final MessageId.Factory messageIdFactory;
+
+    public MailboxEventBinarySerializer(MailboxId.Factory mailboxIdFactory, MessageId.Factory messageIdFactory) {
+        this.mailboxIdFactory = mailboxIdFactory;
+        this.messageIdFactory = messageIdFactory;
+    }
+
+    @Override
+    public String codecName() {
+        return CODEC_NAME;
+    }
+
+    @Override
+    public Optional<byte[]> toBytes(Event event) {
+        if (event instanceof Added) {
+            Added added = (Added) event;
+            return Optional.of(serializeMetaDataHoldingEvent(ADDED, added, added.getAdded()));
+        }
+        if (event instanceof Expunged) {
+            Expunged expunged = (Expunged) event;
+            return Optional.of(serializeMetaDataHoldingEvent(EXPUNGED, expunged, expunged.getExpunged()));
+        }
+        if (event instanceof FlagsUpdated) {
+            return Optional.of(serializeFlagsUpdated((FlagsUpdated) event));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Event fromBytes(byte[] serialized) {
+        try {
+            Reader reader = new Reader(serialized);
+            byte version = reader.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported binary event format version " + version);
+            }
+            byte type = reader.readByte();
+            EventId eventId = EventId.of(new UUID(reader.readLong(), reader.readLong()));
+            SessionId sessionId = SessionId.of(reader.readLong());
+            Username username = Username.of(reader.readString());
+            MailboxPath path = new MailboxPath(
+                reader.readOptionalString().orElse(null),
+                reader.readOptionalString().map(Username::of).orElse(null),
+                reader.readString());
+            MailboxId mailboxId = mailboxIdFactory.fromString(reader.readString());
+            List<Flags> flagsTable = readFlagsTable(reader);
+
+            switch (type) {
+                case ADDED:
+                    return new Added(sessionId, username, path, mailboxId, new TreeMap<>(readMetaData(reader, flagsTable)), eventId);
+                case EXPUNGED:
+                    return new Expunged(sessionId, username, path, mailboxId, readMetaData(reader, flagsTable), eventId);
+                case FLAGS_UPDATED:
+                    return new FlagsUpdated(sessionId, username, path, mailboxId, readUpdatedFlags(reader, flagsTable), eventId);
+                default:
+                    throw new IllegalArgumentException("Unknown binary event type " + type);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary event", e);
+        }
+    }
+
+    private byte[] serializeMetaDataHoldingEvent(byte type, MailboxEvent event, Map<MessageUid, MessageMetaData> metaData) {
+        List<MessageMetaData> entries = metaData.values()
+            .stream()
+            .sorted(Comparator.comparing(MessageMetaData::getUid))
+            .collect(Guavate.toImmutableList());
+        Map<Flags, Integer> flagsTable = internFlags(entries.stream()
+            .map(MessageMetaData::getFlags)
+            .collect(Guavate.toImmutableList()));
+
+        Writer writer = new Writer();
+        writeHeader(writer, type, event, flagsTable);
+        writer.writeVarLong(entries.size());
+        long previousUid = 0;
+        long previousModSeq = 0;
+        long previousInternalDate = 0;
+        for (MessageMetaData entry : entries) {
+            writer.writeVarLong(entry.getUid().asLong() - previousUid);
+            writer.writeSignedVarLong(entry.getModSeq().asLong() - previousModSeq);
+            writer.writeVarLong(flagsTable.get(entry.getFlags()));
+            writer.writeVarLong(entry.getSize());
+            writer.writeSignedVarLong(entry.getInternalDate().getTime() - previousInternalDate);
+            writer.writeString(entry.getMessageId().serialize());
+            previousUid = entry.getUid().asLong();
+            previousModSeq = entry.getModSeq().asLong();
+            previousInternalDate = entry.getInternalDate().getTime();
+        }
+        return writer.toByteArray();
+    }
+
+    private Map<MessageUid, MessageMetaData> readMetaData(Reader reader, List<Flags> flagsTable) {
+        int count = reader.readVarInt();
+        Map<MessageUid, MessageMetaData> metaData = new LinkedHashMap<>();
+        long uid = 0;
+        long modSeq = 0;
+        long internalDate = 0;
+        for (int i = 0; i < count; i++) {
+            uid += reader.readVarLong();
+            modSeq += reader.readSignedVarLong();
+            Flags flags = flagsTable.get(reader.readVarInt());
+            long size = reader.readVarLong();
+            internalDate += reader.readSignedVarLong();
+            MessageId messageId = messageIdFactory.fromString(reader.readString());
+
+            MessageUid messageUid = MessageUid.of(uid);
+            metaData.put(messageUid, new MessageMetaData(messageUid, ModSeq.of(modSeq), new Flags(flags), size, new Date(internalDate), messageId));
+        }
+        return metaData;
+    }
+
+    private byte[] serializeFlagsUpdated(FlagsUpdated event) {
+        List<UpdatedFlags> updatedFlags = event.getUpdatedFlags();
+        Map<Flags, Integer> flagsTable = internFlags(updatedFlags.stream()
+            .flatMap(updated -> Stream.of(updated.getOldFlags(), updated.getNewFlags()))
+            .collect(Guavate.toImmutableList()));
+
+        Writer writer = new Writer();
+        writeHeader(writer, FLAGS_UPDATED, event, flagsTable);
+        writer.writeVarLong(updatedFlags.size());
+        long previousUid = 0;
+        long previousModSeq = 0;
+        for (UpdatedFlags updated : updatedFlags) {
+            writer.writeSignedVarLong(updated.getUid().asLong() - previousUid);
+            writer.writeSignedVarLong(updated.getModSeq().asLong() - previousModSeq);
+            writer.writeVarLong(flagsTable.get(updated.getOldFlags()));
+            writer.writeVarLong(flagsTable.get(updated.getNewFlags()));
+            writer.writeOptionalString(updated.getMessageId().map(MessageId::serialize));
+            previousUid = updated.getUid().asLong();
+            previousModSeq = updated.getModSeq().asLong();
+        }
+        return writer.toByteArray();
+    }
+
+    private List<UpdatedFlags> readUpdatedFlags(Reader reader, List<Flags> flagsTable) {
+        int count = reader.readVarInt();
+        ImmutableList.Builder<UpdatedFlags> updatedFlags = ImmutableList.builder();
+        long uid = 0;
+        long modSeq = 0;
+        for (int i = 0; i < count; i++) {
+            uid += reader.readSignedVarLong();
+            modSeq += reader.readSignedVarLong();
+            updatedFlags.add(UpdatedFlags.builder()
+                .uid(MessageUid.of(uid))
+                .modSeq(ModSeq.of(modSeq))
+                .oldFlags(new Flags(flagsTable.get(reader.readVarInt())))
+                .newFlags(new Flags(flagsTable.get(reader.readVarInt())))
+                .messageId(reader.readOptionalString().map(messageIdFactory::fromString))
+                .build());
+        }
+        return updatedFlags.build();
+    }
+
+    private void writeHeader(Writer writer, byte type, MailboxEvent event, Map<Flags, Integer> flagsTable) {
+        writer.writeByte(FORMAT_VERSION);
+        writer.writeByte(type);
+        writer.writeLong(event.getEventId().getId().getMostSignificantBits());
+        writer.writeLong(event.getEventId().getId().getLeastSignificantBits());
+        writer.writeLong(event.getSessionId().getValue());
+        writer.writeString(event.getUsername().asString());
+        writer.writeOptionalString(Optional.ofNullable(event.getMailboxPath().getNamespace()));
+        writer.writeOptionalString(Optional.ofNullable(event.getMailboxPath().getUser()).map(Username::asString));
+        writer.writeString(event.getMailboxPath().getName());
+        writer.writeString(event.getMailboxId().serialize());
+        writeFlagsTable(writer, flagsTable);
+    }
+
+    private Map<Flags, Integer> internFlags(List<Flags> flags) {
+        Map<Flags, Integer> flagsTable = new LinkedHashMap<>();
+        flags.forEach(value -> flagsTable.putIfAbsent(value, flagsTable.size()));
+        return flagsTable;
+    }
+
+    private void writeFlagsTable(Writer writer, Map<Flags, Integer> flagsTable) {
+        writer.writeVarLong(flagsTable.size());
+        for (Flags flags : flagsTable.keySet()) {
+            int systemFlags = 0;
+            for (int i = 0; i < SYSTEM_FLAGS.size(); i++) {
+                if (flags.contains(SYSTEM_FLAGS.get(i))) {
+                    systemFlags |= 1 << i;
+                }
+            }
+            writer.writeVarLong(systemFlags);
+            String[] userFlags = flags.getUserFlags();
+            writer.writeVarLong(userFlags.length);
+            for (String userFlag : userFlags) {
+                writer.writeString(userFlag);
+            }
+        }
+    }
+
+    private List<Flags> readFlagsTable(Reader reader) {
+        int count = reader.readVarInt();
+        List<Flags> flagsTable = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Flags flags = new Flags();
+            int systemFlags = reader.readVarInt();
+            for (int bit = 0; bit < SYSTEM_FLAGS.size(); bit++) {
+                if ((systemFlags & (1 << bit)) != 0) {
+                    flags.add(SYSTEM_FLAGS.get(bit));
+                }
+            }
+            int userFlagCount = reader.readVarInt();
+            for (int j = 0; j < userFlagCount; j++) {
+                flags.add(reader.readString());
+            }
+            flagsTable.add(flags);
+        }
+        return flagsTable;
+    }
+}
@@ -0,0 +1,211 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.event.json;
+
+import static org.apache.james.event.json.SerializerFixture.EVENT_ID;
+import static org.apache.james.event.json.SerializerFixture.EVENT_SERIALIZER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.mail.Flags;
+
+import org.apache.james.core.Username;
+import org.apache.james.events.BinaryEventSerializer;
+import org.apache.james.mailbox.FlagsBuilder;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.events.MailboxEvents.Added;
+import org.apache.james.mailbox.events.MailboxEvents.Expunged;
+import org.apache.james.mailbox.events.MailboxEvents.FlagsUpdated;
+import org.apache.james.mailbox.events.MailboxEvents.MailboxAdded;
+import org.apache.james.mailbox.model.MailboxConstants;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.model.TestMessageId;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+
+class MailboxEventBinarySerializerTest {
+    private static final Username USERNAME = Username.of("user");
+    private static final MailboxSession.SessionId SESSION_ID = MailboxSession.SessionId.of(42);
+    private static final MailboxId MAILBOX_ID = TestId.of(18);
+    private static final MailboxPath MAILBOX_PATH = new MailboxPath(MailboxConstants.USER_NAMESPACE, USERNAME, "mailboxName");
+    private static final Instant INSTANT = Instant.parse("2018-12-14T09:41:51.541Z");
+    private static final Flags SEEN = new Flags(Flags.Flag.SEEN);
+    private static final Flags CUSTOM = FlagsBuilder.builder()
+        .add(Flags.Flag.ANSWERED, Flags.Flag.DRAFT)
+        .add("User Custom Flag")
+        .build();
+
+    private static final BinaryEventSerializer TESTEE = EVENT_SERIALIZER.binarySerializer().get();
+
+    private static SortedMap<MessageUid, MessageMetaData> metaData(int count) {
+        TreeMap<MessageUid, MessageMetaData> result = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            MessageUid uid = MessageUid.of(1000 + i);
+            Flags flags = i % 3 == 0 ? CUSTOM : SEEN;
+            result.put(uid, new MessageMetaData(uid, ModSeq.of(35 + i), flags, 1024 + i,
+                Date.from(INSTANT.plusSeconds(i)), TestMessageId.of(i)));
+        }
+        return result;
+    }
+
+    private static void assertSameMetaData(Map<MessageUid, MessageMetaData> actual, Map<MessageUid, MessageMetaData> expected) {
+        assertThat(actual.keySet()).containsExactlyElementsOf(expected.keySet());
+        expected.forEach((uid, metaData) -> {
+            MessageMetaData actualMetaData = actual.get(uid);
+            assertThat(actualMetaData.getModSeq()).isEqualTo(metaData.getModSeq());
+            assertThat(actualMetaData.getFlags()).isEqualTo(metaData.getFlags());
+            assertThat(actualMetaData.getSize()).isEqualTo(metaData.getSize());
+            assertThat(actualMetaData.getInternalDate()).isEqualTo(metaData.getInternalDate());
+            assertThat(actualMetaData.getMessageId()).isEqualTo(metaData.getMessageId());
+        });
+    }
+
+    @Test
+    void codecNameShouldBeVersioned() {
+        assertThat(TESTEE.codecName()).isEqualTo("mailbox-binary-v1");
+    }
+
+    @Test
+    void addedShouldRoundTrip() {
+        Added added = new Added(SESSION_ID, USERNAME, MAILBOX_PATH, MAILBOX_ID, metaData(10), EVENT_ID);
+
+        Added actual = (Added) TESTEE.fromBytes(TESTEE.toBytes(added).get());
+
+        assertThat(actual).isEqualTo(added);
+        assertSameMetaData(actual.getAdded(), added.getAdded());
+    }
+
+    @Test
+    void addedShouldRoundTripSparseUids() {
+        MessageUid first = MessageUid.of(1);
+        MessageUid last = MessageUid.of(Long.MAX_VALUE / 2);
+        SortedMap<MessageUid, MessageMetaData> metaData = ImmutableSortedMap.of(
+            first, new MessageMetaData(first, ModSeq.of(900), SEEN, 12, Date.from(INSTANT), TestMessageId.of(1)),
+            last, new MessageMetaData(last, ModSeq.of(3), CUSTOM, 45, Date.from(INSTANT.minusSeconds(3600)), TestMessageId.of(2)));
+        Added added = new Added(SESSION_ID, USERNAME, MAILBOX_PATH, MAILBOX_ID, metaData, EVENT_ID);
+
+        Added actual = (Added) TESTEE.fromBytes(TESTEE.toBytes(added).get());
+
+        assertThat(actual).isEqualTo(added);
+        assertSameMetaData(actual.getAdded(), added.getAdded());
+    }
+
+    @Test
+    void addedShouldRoundTripWhenPathHasNoUser() {
+        MailboxPath path = new MailboxPath(MailboxConstants.USER_NAMESPACE, null, "shared");
+        Added added = new Added(SESSION_ID, USERNAME, path, MAILBOX_ID, metaData(1), EVENT_ID);
+
+        assertThat(TESTEE.fromBytes(TESTEE.toBytes(added).get())).isEqualTo(added);
+    }
+
+    @Test
+    void expungedShouldRoundTrip() {
+        Expunged expunged = new Expunged(SESSION_ID, USERNAME, MAILBOX_PATH, MAILBOX_ID, metaData(5), EVENT_ID);
+
+        Expunged actual = (Expunged) TESTEE.fromBytes(TESTEE.toBytes(expunged).get());
+
+        assertThat(actual).isEqualTo(expunged);
+        assertSameMetaData(actual.getExpunged(), expunged.getExpunged());
+    }
+
+    @Test
+    void flagsUpdatedShouldRoundTripAndPreserveOrder() {
+        FlagsUpdated flagsUpdated = new FlagsUpdated(SESSION_ID, USERNAME, MAILBOX_PATH, MAILBOX_ID,
+            ImmutableList.of(
+                UpdatedFlags.builder()
+                    .uid(MessageUid.of(12))
+                    .modSeq(ModSeq.of(40))
+                    .oldFlags(SEEN)
+                    .newFlags(CUSTOM)
+                    .messageId(TestMessageId.of(3))
+                    .build(),
+                UpdatedFlags.builder()
+                    .uid(MessageUid.of(3))
+                    .modSeq(ModSeq.of(41))
+                    .oldFlags(new Flags())
+                    .newFlags(SEEN)
+                    .build()),
+            EVENT_ID);
+
+        assertThat(TESTEE.fromBytes(TESTEE.toBytes(flagsUpdated).get())).isEqualTo(flagsUpdated);
+    }
+
+    @Test
+    void toBytesShouldBeEmptyForEventsWithoutMessageMetadata() {
+        MailboxAdded mailboxAdded = new MailboxAdded(SESSION_ID, USERNAME, MAILBOX_PATH, MAILBOX_ID, EVENT_ID);
+
+        assertThat(TESTEE.toBytes(mailboxAdded)).isEmpty();
+    }
+
+    @Test
+    void binaryEncodingShouldBeSmallerThanJson() {
+        Added added = new Added(SESSION_ID, USERNAME, MAILBOX_PATH, MAILBOX_ID, metaData(100), EVENT_ID);
+
+        int jsonSize = EVENT_SERIALIZER.toJson(added).getBytes(StandardCharsets.UTF_8).length;
+        int binarySize = TESTEE.toBytes(added).get().length;
+
+        assertThat(binarySize).isLessThan(jsonSize / 4);
+    }
+
+    @Test
+    void binaryEncodingShouldBeSmallerThanJsonForThousandUids() {
+        Added added = new Added(SESSION_ID, USERNAME, MAILBOX_PATH, MAILBOX_ID, metaData(1000), EVENT_ID);
+
+        int jsonSize = EVENT_SERIALIZER.toJson(added).getBytes(StandardCharsets.UTF_8).length;
+        int binarySize = TESTEE.toBytes(added).get().length;
+
+        assertThat(binarySize).isLessThan(jsonSize);
+    }
+
+    @Test
+    void fromBytesShouldRejectUnknownVersion() {
+        Added added = new Added(SESSION_ID, USERNAME, MAILBOX_PATH, MAILBOX_ID, metaData(1), EVENT_ID);
+        byte[] serialized = TESTEE.toBytes(added).get();
+        serialized[0] = 42;
+
+        assertThatThrownBy(() -> TESTEE.fromBytes(serialized))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fromBytesShouldRejectTruncatedPayload() {
+        Added added = new Added(SESSION_ID, USERNAME, MAILBOX_PATH, MAILBOX_ID, metaData(3), EVENT_ID);
+        byte[] serialized = TESTEE.toBytes(added).get();
+
+        assertThatThrownBy(() -> TESTEE.fromBytes(Arrays.copyOf(serialized, serialized.length - 4)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
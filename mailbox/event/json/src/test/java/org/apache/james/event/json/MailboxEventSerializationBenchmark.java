@@ -0,0 +1,131 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.event.json;
+
+import static org.apache.james.event.json.SerializerFixture.EVENT_ID;
+import static org.apache.james.event.json.SerializerFixture.EVENT_SERIALIZER;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.Flags;
+
+import org.apache.james.core.Username;
+import org.apache.james.events.BinaryEventSerializer;
+import org.apache.james.events.Event;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.events.MailboxEvents.Added;
+import org.apache.james.mailbox.model.MailboxConstants;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageMetaData;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.model.TestMessageId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the JSON and the binary serialization of an {@link Added} event carrying a contiguous range of UIDs,
+ * as emitted by a bulk append or a mailbox copy.
+ *
+ * Payload sizes are asserted by {@link MailboxEventBinarySerializerTest}. Run it through its main method, from the
+ * test classpath of this module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MailboxEventSerializationBenchmark {
+    private static final BinaryEventSerializer BINARY_SERIALIZER = EVENT_SERIALIZER.binarySerializer().get();
+
+    @Param({"1", "100", "1000"})
+    int uidCount;
+
+    private Added event;
+    private String json;
+    private byte[] binary;
+
+    private static Added addedEvent(int uidCount) {
+        Instant instant = Instant.parse("2018-12-14T09:41:51.541Z");
+        Flags seen = new Flags(Flags.Flag.SEEN);
+        TreeMap<MessageUid, MessageMetaData> metaData = new TreeMap<>();
+        for (int i = 0; i < uidCount; i++) {
+            MessageUid uid = MessageUid.of(1000 + i);
+            metaData.put(uid, new MessageMetaData(uid, ModSeq.of(35 + i), seen, 4096 + i,
+                Date.from(instant.plusSeconds(i)), TestMessageId.of(i)));
+        }
+        Username username = Username.of("user");
+        return new Added(MailboxSession.SessionId.of(42), username,
+            new MailboxPath(MailboxConstants.USER_NAMESPACE, username, "INBOX"), TestId.of(18),
+            metaData, EVENT_ID);
+    }
+
+    @Setup
+    public void setUp() {
+        event = addedEvent(uidCount);
+        json = EVENT_SERIALIZER.toJson(event);
+        binary = BINARY_SERIALIZER.toBytes(event).get();
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return EVENT_SERIALIZER.toJson(event).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return BINARY_SERIALIZER.toBytes(event).get();
+    }
+
+    @Benchmark
+    public Event decodeJson() {
+        return EVENT_SERIALIZER.asEvent(json);
+    }
+
+    @Benchmark
+    public Event decodeBinary() {
+        return BINARY_SERIALIZER.fromBytes(binary);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(MailboxEventSerializationBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
@@ -151,4 +151,17 @@ public class InMemoryAttachmentMapper implements AttachmentMapper {
         }
         return new ByteArrayInputStream(buf);
     }
-}
\ No newline at end of file
+
+    @Override
+    public InputStream loadAttachmentContent(AttachmentId attachmentId, long offset, long length) throws AttachmentNotFoundException, IOException {
+        Preconditions.checkArgument(offset >= 0, "'offset' should be positive");
+        Preconditions.checkArgument(length > 0, "'length' should be strictly positive");
+        byte[] buf = attachmentsRawContentById.get(attachmentId);
+        if (buf == null) {
+            throw new AttachmentNotFoundException(attachmentId.toString());
+        }
+        int from = (int) Math.min(offset, buf.length);
+        int count = (int) Math.min(length, buf.length - from);
+        return new ByteArrayInputStream(buf, from, count);
+    }
+}
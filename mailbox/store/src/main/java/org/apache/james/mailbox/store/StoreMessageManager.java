@@ -41,6 +41,7 @@ import java.util.TreeMap;
 
 import javax.mail.Flags;
 import javax.mail.Flags.Flag;
+import javax.mail.internet.SharedInputStream;
 import javax.mail.util.SharedFileInputStream;
 
 import org.apache.commons.io.input.TeeInputStream;
@@ -61,6 +62,7 @@ import org.apache.james.mailbox.exception.ReadOnlyException;
 import org.apache.james.mailbox.exception.UnsupportedRightException;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.model.Content;
 import org.apache.james.mailbox.model.FetchGroup;
 import org.apache.james.mailbox.model.Mailbox;
 import org.apache.james.mailbox.model.MailboxACL;
@@ -324,15 +326,7 @@ public class StoreMessageManager implements MessageManager {
                  BufferedOutputStream bufferedOut = new BufferedOutputStream(out);
                  BufferedInputStream tmpMsgIn = new BufferedInputStream(new TeeInputStream(msgIn, bufferedOut));
                  BodyOffsetInputStream bIn = new BodyOffsetInputStream(tmpMsgIn)) {
-                // Disable line length... This should be handled by the smtp server
-                // component and not the parser itself
-                // https://issues.apache.org/jira/browse/IMAP-122
-                final MimeTokenStream parser = getParser(bIn);
-                readHeader(parser);
-                final MaximalBodyDescriptor descriptor = (MaximalBodyDescriptor) parser.getBodyDescriptor();
-                final MediaType mediaType = getMediaType(descriptor);
-                final PropertyBuilder propertyBuilder = getPropertyBuilder(descriptor, mediaType.mediaType, mediaType.subType);
-                setTextualLinesCount(parser, mediaType.mediaType, propertyBuilder);
+                final PropertyBuilder propertyBuilder = parseProperties(bIn);
                 final Flags flags = getFlags(mailboxSession, isRecent, flagsToBeSet);
 
                 if (internalDate == null) {
@@ -341,7 +335,9 @@ public class StoreMessageManager implements MessageManager {
                 InputStreamConsummer.consume(tmpMsgIn);
                 bufferedOut.flush();
                 int bodyStartOctet = getBodyStartOctet(bIn);
-                return createAndDispatchMessage(internalDate, mailboxSession, file, propertyBuilder, flags, bodyStartOctet);
+                try (SharedFileInputStream contentIn = new SharedFileInputStream(file)) {
+                    return createAndDispatchMessage(internalDate, mailboxSession, contentIn, (int) file.length(), propertyBuilder, flags, bodyStartOctet);
+                }
             }
         } catch (IOException | MimeException e) {
             throw new MailboxException("Unable to parse message", e);
@@ -357,6 +353,46 @@ public class StoreMessageManager implements MessageManager {
         }
     }
 
+    /**
+     * Contents backed by a {@link SharedInputStream} are parsed and stored in place, without being copied
+     * to a temporary file first. Other contents are handled as plain {@link InputStream}.
+     */
+    @Override
+    public AppendResult appendMessage(Content content, Date internalDate, MailboxSession mailboxSession, boolean isRecent, Flags flagsToBeSet) throws MailboxException {
+        try (InputStream contentIn = content.getInputStream()) {
+            if (!(contentIn instanceof SharedInputStream)) {
+                return appendMessage(contentIn, internalDate, mailboxSession, isRecent, flagsToBeSet);
+            }
+            if (!isWriteable(mailboxSession)) {
+                throw new ReadOnlyException(getMailboxPath());
+            }
+
+            SharedInputStream sharedContent = (SharedInputStream) contentIn;
+            try (BodyOffsetInputStream bIn = new BodyOffsetInputStream(new BufferedInputStream(sharedContent.newStream(0, -1)))) {
+                final PropertyBuilder propertyBuilder = parseProperties(bIn);
+                final Flags flags = getFlags(mailboxSession, isRecent, flagsToBeSet);
+                final Date date = Optional.ofNullable(internalDate).orElseGet(Date::new);
+                int bodyStartOctet = getBodyStartOctet(bIn);
+                return createAndDispatchMessage(date, mailboxSession, sharedContent, (int) content.size(), propertyBuilder, flags, bodyStartOctet);
+            }
+        } catch (IOException | MimeException e) {
+            throw new MailboxException("Unable to parse message", e);
+        }
+    }
+
+    private PropertyBuilder parseProperties(BodyOffsetInputStream bIn) throws IOException, MimeException {
+        // Disable line length... This should be handled by the smtp server
+        // component and not the parser itself
+        // https://issues.apache.org/jira/browse/IMAP-122
+        final MimeTokenStream parser = getParser(bIn);
+        readHeader(parser);
+        final MaximalBodyDescriptor descriptor = (MaximalBodyDescriptor) parser.getBodyDescriptor();
+        final MediaType mediaType = getMediaType(descriptor);
+        final PropertyBuilder propertyBuilder = getPropertyBuilder(descriptor, mediaType.mediaType, mediaType.subType);
+        setTextualLinesCount(parser, mediaType.mediaType, propertyBuilder);
+        return propertyBuilder;
+    }
+
     private MimeTokenStream getParser(BodyOffsetInputStream bIn) {
         final MimeTokenStream parser = new MimeTokenStream(MimeConfig.PERMISSIVE, new DefaultBodyDescriptorBuilder());
 
@@ -431,30 +467,27 @@ public class StoreMessageManager implements MessageManager {
         return bodyStartOctet;
     }
 
-    private AppendResult createAndDispatchMessage(Date internalDate, MailboxSession mailboxSession, File file, PropertyBuilder propertyBuilder, Flags flags, int bodyStartOctet) throws IOException, MailboxException {
-        try (SharedFileInputStream contentIn = new SharedFileInputStream(file)) {
-            final int size = (int) file.length();
-            new QuotaChecker(quotaManager, quotaRootResolver, mailbox).tryAddition(1, size);
-
-            return locker.executeWithLock(getMailboxPath(), () -> {
-                Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>> data = messageStorer.appendMessageToStore(mailbox, internalDate, size, bodyStartOctet, contentIn, flags, propertyBuilder, mailboxSession);
-
-                Mailbox mailbox = getMailboxEntity();
-
-                eventBus.dispatch(EventFactory.added()
-                        .randomEventId()
-                        .mailboxSession(mailboxSession)
-                        .mailbox(mailbox)
-                        .addMetaData(data.getLeft())
-                        .build(),
-                        new MailboxIdRegistrationKey(mailbox.getMailboxId()))
-                    .subscribeOn(Schedulers.elastic())
-                    .block();
-                MessageMetaData messageMetaData = data.getLeft();
-                ComposedMessageId ids = new ComposedMessageId(mailbox.getMailboxId(), messageMetaData.getMessageId(), messageMetaData.getUid());
-                return new AppendResult(ids, messageMetaData.getSize(), data.getRight());
-            }, MailboxPathLocker.LockType.Write);
-        }
+    private AppendResult createAndDispatchMessage(Date internalDate, MailboxSession mailboxSession, SharedInputStream contentIn, int size, PropertyBuilder propertyBuilder, Flags flags, int bodyStartOctet) throws MailboxException {
+        new QuotaChecker(quotaManager, quotaRootResolver, mailbox).tryAddition(1, size);
+
+        return locker.executeWithLock(getMailboxPath(), () -> {
+            Pair<MessageMetaData, Optional<List<MessageAttachmentMetadata>>> data = messageStorer.appendMessageToStore(mailbox, internalDate, size, bodyStartOctet, contentIn, flags, propertyBuilder, mailboxSession);
+
+            Mailbox mailbox = getMailboxEntity();
+
+            eventBus.dispatch(EventFactory.added()
+                    .randomEventId()
+                    .mailboxSession(mailboxSession)
+                    .mailbox(mailbox)
+                    .addMetaData(data.getLeft())
+                    .build(),
+                    new MailboxIdRegistrationKey(mailbox.getMailboxId()))
+                .subscribeOn(Schedulers.elastic())
+                .block();
+            MessageMetaData messageMetaData = data.getLeft();
+            ComposedMessageId ids = new ComposedMessageId(mailbox.getMailboxId(), messageMetaData.getMessageId(), messageMetaData.getUid());
+            return new AppendResult(ids, messageMetaData.getSize(), data.getRight());
+        }, MailboxPathLocker.LockType.Write);
     }
 
     private PropertyBuilder getPropertyBuilder(MaximalBodyDescriptor descriptor, String mediaType, String subType) {
@@ -39,6 +39,11 @@ public interface AttachmentMapper extends Mapper {
 
     InputStream loadAttachmentContent(AttachmentId attachmentId) throws AttachmentNotFoundException, IOException;
 
+    /**
+     * Loads at most length bytes of the attachment content, starting at the given offset.
+     */
+    InputStream loadAttachmentContent(AttachmentId attachmentId, long offset, long length) throws AttachmentNotFoundException, IOException;
+
     AttachmentMetadata getAttachment(AttachmentId attachmentId) throws AttachmentNotFoundException;
 
     List<AttachmentMetadata> getAttachments(Collection<AttachmentId> attachmentIds);
@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
 
+import org.apache.james.mailbox.model.Content;
 import org.apache.james.mailbox.model.MessageAttachmentMetadata;
 import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.store.mail.model.impl.Properties;
@@ -94,6 +95,16 @@ public interface Message {
      */
     InputStream getFullContent() throws IOException;
 
+    /**
+     * Gets at most length octets of the full content, starting at the given offset.
+     *
+     * Implementations able to read their storage from an arbitrary position should
+     * override this to avoid reading the octets preceding the requested range.
+     */
+    default InputStream getFullContent(long offset, long length) throws IOException {
+        return Content.range(getFullContent(), offset, length);
+    }
+
     /**
      * Gets a read-only list of meta-data properties.
      * For properties with multiple values, this list will contain
@@ -49,5 +49,12 @@ public final class ByteContent implements Content {
         return new ByteArrayInputStream(contents);
     }
 
+    @Override
+    public InputStream getInputStream(long offset, long length) {
+        int from = (int) Math.min(offset, contents.length);
+        int count = (int) Math.min(length, contents.length - from);
+        return new ByteArrayInputStream(contents, from, count);
+    }
+
 
 }
@@ -111,6 +111,34 @@ public abstract class AttachmentMapperTest {
             .hasSameContentAs(new ByteArrayInputStream(bytes));
     }
 
+    @Test
+    void loadAttachmentContentWithRangeShouldReturnRequestedBytes() throws Exception {
+        ContentType content = ContentType.of("content");
+        byte[] bytes = "payload".getBytes(StandardCharsets.UTF_8);
+
+        AttachmentMetadata stored = Mono.from(attachmentMapper.storeAttachmentForOwner(content, new ByteArrayInputStream(bytes), OWNER)).block();
+
+        assertThat(attachmentMapper.loadAttachmentContent(stored.getAttachmentId(), 3, 3))
+            .hasSameContentAs(new ByteArrayInputStream("loa".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void loadAttachmentContentWithRangeShouldBeTruncatedWhenGoingPastTheEnd() throws Exception {
+        ContentType content = ContentType.of("content");
+        byte[] bytes = "payload".getBytes(StandardCharsets.UTF_8);
+
+        AttachmentMetadata stored = Mono.from(attachmentMapper.storeAttachmentForOwner(content, new ByteArrayInputStream(bytes), OWNER)).block();
+
+        assertThat(attachmentMapper.loadAttachmentContent(stored.getAttachmentId(), 5, 100))
+            .hasSameContentAs(new ByteArrayInputStream("ad".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void loadAttachmentContentWithRangeShouldThrowWhenNotFound() {
+        assertThatThrownBy(() -> attachmentMapper.loadAttachmentContent(UNKNOWN_ATTACHMENT_ID, 0, 10))
+            .isInstanceOf(AttachmentNotFoundException.class);
+    }
+
     @Test
     void getAttachmentsShouldThrowWhenNullAttachmentId() {
         assertThatThrownBy(() -> attachmentMapper.getAttachments(null))
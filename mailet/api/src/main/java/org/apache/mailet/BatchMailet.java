@@ -0,0 +1,54 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.mailet;
+
+import java.util.Collection;
+
+import javax.mail.MessagingException;
+
+/**
+ * A {@link Mailet} able to process several mails at once.
+ * <p>
+ * Mailet containers supporting it call {@link #service(Collection)} with all the mails of a
+ * batch matched by the mailet matcher, allowing the mailet to amortize the latency of the
+ * backends it relies on. Other mailet containers keep calling {@link #service(Mail)} for each
+ * mail, which hence needs to remain implemented. In James, only the {@code pipeline} processing
+ * engine hands batches to mailets: under the {@code camel} engine, mails always reach mailets one by one.
+ * <p>
+ * Processing a batch must leave each mail in the state {@link #service(Mail)} would have left it in.
+ * Mails failing processing while the rest of the batch succeeded are reported by throwing a
+ * {@link BatchMailetException}. Any other exception is considered as a failure for every mail
+ * of the batch.
+ */
+@Experimental
+public interface BatchMailet extends Mailet {
+
+    /**
+     * Services several mail messages.
+     *
+     * @param mails the Mails to process
+     * @throws BatchMailetException if the processing of some of the mails failed
+     * @throws MessagingException if any error occurs which prevents the processing of the
+     *         whole batch from completing successfully
+     */
+    void service(Collection<Mail> mails) throws MessagingException;
+
+}
@@ -0,0 +1,58 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.mailet;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Thrown by a {@link BatchMailet} when processing failed for some of the mails of a batch.
+ * <p>
+ * The mails not listed by {@link #getFailures()} were processed successfully.
+ */
+public class BatchMailetException extends MailetException {
+
+    private static final long serialVersionUID = 5264478910541934011L;
+
+    private final transient Map<Mail, Exception> failures;
+
+    /**
+     * Constructs a new batch mailet exception.
+     *
+     * @param failures the cause of the failure of each failed mail
+     */
+    public BatchMailetException(Map<Mail, Exception> failures) {
+        super("Failed processing " + failures.size() + " mail(s) of the batch");
+        this.failures = Collections.unmodifiableMap(new IdentityHashMap<>(failures));
+    }
+
+    /**
+     * Returns the mails that failed processing, along with the cause of the failure. Mails are
+     * compared by identity.
+     *
+     * @return the failures of this batch
+     */
+    public Map<Mail, Exception> getFailures() {
+        return failures;
+    }
+
+}
@@ -33,6 +33,7 @@ public interface LineHandler<SessionT extends ProtocolSession> extends ProtocolH
      
     /**
      * Processing the give line. The line includes the {@link ProtocolSession#getLineDelimiter()} delimiter.
+     * The buffer is not reused by the transport once this method returns: it may be retained.
      * 
      * @param session not null
      * @param buffer not null
@@ -150,6 +150,14 @@ public interface SelectedMailbox {
      */
     NullableMessageSequenceNumber remove(MessageUid uid);
 
+    /**
+     * Removes the given UIDs at once.
+     *
+     * @param uids
+     *            not null, unknown uids are ignored
+     */
+    void removeAll(Collection<MessageUid> uids);
+
     /**
      * Return a Collection which holds all uids reflecting the Messages which
      * flags were updated
@@ -47,7 +47,9 @@ import org.apache.james.imap.api.message.UidRange;
 import org.apache.james.imap.api.message.request.DayMonthYear;
 import org.apache.james.imap.api.process.ImapSession;
 import org.apache.james.imap.api.process.SearchResUtil;
+import org.apache.james.imap.utils.SharedInputStreamContent;
 import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.model.Content;
 
 /**
  * Wraps the client input reader with a bunch of convenience methods, allowing
@@ -165,6 +167,28 @@ public abstract class ImapRequestLineReader {
      */
     public abstract InputStream read(int size, boolean extraCRLF) throws DecodingException;
 
+    /**
+     * Reads and consumes size octets followed by the end of the line as a {@link Content}.
+     *
+     * The default implementation wraps {@link #read(int, boolean)}: the returned content can then only be read
+     * once, and the end of the line is consumed when its end is reached. Implementations holding the literal
+     * should rather expose it as a {@link SharedInputStreamContent}.
+     */
+    protected Content readContent(int size) throws DecodingException {
+        InputStream literal = read(size, true);
+        return new Content() {
+            @Override
+            public InputStream getInputStream() {
+                return literal;
+            }
+
+            @Override
+            public long size() {
+                return size;
+            }
+        };
+    }
+
     /**
      * Sends a server command continuation request '+' back to the client,
      * requesting more data to be sent.
@@ -385,6 +409,21 @@ public abstract class ImapRequestLineReader {
      * @return the literal data and its expected size
      */
     public ImmutablePair<Integer, InputStream> consumeLiteral(boolean extraCRLF) throws DecodingException {
+        int size = consumeLiteralSize();
+        return ImmutablePair.of(size, read(size, extraCRLF));
+    }
+
+    /**
+     * Reads a literal followed by the end of the line as a {@link Content}
+     *
+     * @return the literal data
+     */
+    public Content consumeLiteralContent() throws DecodingException {
+        int size = consumeLiteralSize();
+        return readContent(size);
+    }
+
+    private int consumeLiteralSize() throws DecodingException {
         // The 1st character must be '{'
         consumeChar('{');
 
@@ -415,8 +454,7 @@ public abstract class ImapRequestLineReader {
             commandContinuationRequest();
         }
 
-        int size = Integer.parseInt(digits.toString());
-        return ImmutablePair.of(size, read(size, extraCRLF));
+        return Integer.parseInt(digits.toString());
     }
 
     private String decode(Charset charset, ByteBuffer buffer) throws DecodingException {
@@ -18,7 +18,6 @@
  ****************************************************************/
 package org.apache.james.imap.decode.parser;
 
-import java.io.InputStream;
 import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -35,6 +34,7 @@ import org.apache.james.imap.decode.DecodingException;
 import org.apache.james.imap.decode.ImapRequestLineReader;
 import org.apache.james.imap.decode.base.AbstractImapCommandParser;
 import org.apache.james.imap.message.request.AppendRequest;
+import org.apache.james.mailbox.model.Content;
 
 import com.google.common.annotations.VisibleForTesting;
 
@@ -82,7 +82,7 @@ public class AppendCommandParser extends AbstractImapCommandParser {
         LocalDateTime datetime = parseDateTime(request);
         request.nextWordChar();
 
-        InputStream literal = request.consumeLiteral(true).right;
+        Content literal = request.consumeLiteralContent();
         return new AppendRequest(mailboxName, flags, Date.from(datetime.atZone(ZoneId.systemDefault()).toInstant()), literal, tag);
     }
 }
@@ -18,7 +18,6 @@
  ****************************************************************/
 package org.apache.james.imap.message.request;
 
-import java.io.InputStream;
 import java.util.Date;
 
 import javax.mail.Flags;
@@ -26,6 +25,7 @@ import javax.mail.Flags;
 import org.apache.james.imap.api.ImapConstants;
 import org.apache.james.imap.api.Tag;
 import org.apache.james.imap.api.message.request.ImapRequest;
+import org.apache.james.mailbox.model.Content;
 
 import com.google.common.base.MoreObjects;
 
@@ -36,9 +36,9 @@ public class AppendRequest extends AbstractImapRequest {
     private final String mailboxName;
     private final Flags flags;
     private final Date datetime;
-    private final InputStream message;
+    private final Content message;
 
-    public AppendRequest(String mailboxName, Flags flags, Date datetime, InputStream message, Tag tag) {
+    public AppendRequest(String mailboxName, Flags flags, Date datetime, Content message, Tag tag) {
         super(tag, ImapConstants.APPEND_COMMAND);
         this.mailboxName = mailboxName;
         this.flags = flags;
@@ -74,11 +74,11 @@ public class AppendRequest extends AbstractImapRequest {
     }
 
     /**
-     * Return the message to append as {@link InputStream}
+     * Return the message to append as {@link Content}
      * 
      * @return message
      */
-    public InputStream getMessage() {
+    public Content getMessage() {
         return message;
     }
 
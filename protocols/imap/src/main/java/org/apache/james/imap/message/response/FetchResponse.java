@@ -18,6 +18,8 @@
  ****************************************************************/
 package org.apache.james.imap.message.response;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -29,6 +31,7 @@ import org.apache.james.imap.api.message.response.ImapResponseMessage;
 import org.apache.james.mailbox.MessageSequenceNumber;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.Content;
 
 public final class FetchResponse implements ImapResponseMessage {
     private final MessageSequenceNumber messageNumber;
@@ -293,6 +296,13 @@ public final class FetchResponse implements ImapResponseMessage {
          */
         String getName();
 
+        /**
+         * Return at most length octets of the element, starting at the given offset.
+         * Elements backed by randomly accessible content can avoid reading the skipped octets.
+         */
+        default InputStream getInputStream(long offset, long length) throws IOException {
+            return Content.range(getInputStream(), offset, length);
+        }
     }
 
     /**
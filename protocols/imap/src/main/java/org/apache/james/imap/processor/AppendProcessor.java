@@ -45,6 +45,7 @@ import org.apache.james.mailbox.MessageManager;
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.exception.MailboxNotFoundException;
 import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.Content;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.model.UidValidity;
 import org.apache.james.metrics.api.MetricFactory;
@@ -63,7 +64,7 @@ public class AppendProcessor extends AbstractMailboxProcessor<AppendRequest> {
     @Override
     protected void processRequest(AppendRequest request, ImapSession session, Responder responder) {
         final String mailboxName = request.getMailboxName();
-        final InputStream messageIn = request.getMessage();
+        final Content messageIn = request.getMessage();
         final Date datetime = request.getDatetime();
         final Flags flags = request.getFlags();
         final MailboxPath mailboxPath = PathConverter.forSession(session).buildFullPath(mailboxName);
@@ -96,8 +97,8 @@ public class AppendProcessor extends AbstractMailboxProcessor<AppendRequest> {
 
     }
 
-    private void consume(InputStream in) {
-        try {
+    private void consume(Content content) {
+        try (InputStream in = content.getInputStream()) {
             // IOUtils.copy() buffers the input internally, so there is no need
             // to use a BufferedInputStream.
             IOUtils.copy(in, NULL_OUTPUT_STREAM);
@@ -122,7 +123,7 @@ public class AppendProcessor extends AbstractMailboxProcessor<AppendRequest> {
         no(request, responder, HumanReadableText.FAILURE_NO_SUCH_MAILBOX, StatusResponse.ResponseCode.tryCreate());
     }
 
-    private void appendToMailbox(InputStream message, Date datetime, Flags flagsToBeSet, ImapSession session, AppendRequest request, MessageManager mailbox, Responder responder, MailboxPath mailboxPath) {
+    private void appendToMailbox(Content message, Date datetime, Flags flagsToBeSet, ImapSession session, AppendRequest request, MessageManager mailbox, Responder responder, MailboxPath mailboxPath) {
         try {
             final MailboxSession mailboxSession = session.getMailboxSession();
             final SelectedMailbox selectedMailbox = session.getSelected();
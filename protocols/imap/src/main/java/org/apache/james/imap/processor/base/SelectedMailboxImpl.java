@@ -259,6 +259,11 @@ public class SelectedMailboxImpl implements SelectedMailbox, EventListener {
         return result;
     }
 
+    @Override
+    public synchronized void removeAll(Collection<MessageUid> uids) {
+        uidMsnConverter.removeAll(uids);
+    }
+
     private boolean interestingFlags(UpdatedFlags updated) {
         boolean result;
         final Iterator<Flags.Flag> it = updated.systemFlagIterator();
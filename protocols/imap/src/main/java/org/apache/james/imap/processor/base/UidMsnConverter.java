@@ -19,97 +19,313 @@
 
 package org.apache.james.imap.processor.base;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.TreeSet;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.NullableMessageSequenceNumber;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Lists;
 
+/**
+ * Maps message sequence numbers to uids for a selected mailbox.
+ *
+ * Uids are held, sorted, within a primitive array. Removed uids are only marked as expunged, and a
+ * Fenwick tree counting expunged entries allows translating positions into message sequence numbers
+ * in logarithmic time. The array is compacted once half of its entries are expunged.
+ *
+ * Writes are exclusive while reads are optimistic: they do not lock unless a write happened concurrently.
+ */
 public class UidMsnConverter {
 
     public static final int FIRST_MSN = 1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long[] EMPTY = new long[0];
 
-    @VisibleForTesting final ArrayList<MessageUid> uids;
+    private final StampedLock lock;
+    private long[] uids;
+    private int size;
+    // Both are only allocated once an uid is expunged
+    private long[] expunged;
+    private int[] expungedTree;
+    private int expungedCount;
 
     public UidMsnConverter() {
-        this.uids = Lists.newArrayList();
+        this.lock = new StampedLock();
+        this.uids = EMPTY;
+        this.size = 0;
+        resetExpunged();
     }
 
-    public synchronized void addAll(List<MessageUid> addedUids) {
-        TreeSet<MessageUid> tmp = new TreeSet<>();
-        tmp.addAll(uids);
-        tmp.addAll(addedUids);
-        uids.clear();
-        uids.addAll(tmp);
+    public void addAll(List<MessageUid> addedUids) {
+        long[] added = addedUids.stream()
+            .mapToLong(MessageUid::asLong)
+            .sorted()
+            .distinct()
+            .toArray();
+
+        write(() -> {
+            compact();
+            long[] merged = new long[size + added.length];
+            int mergedSize = merge(uids, size, added, merged);
+            uids = merged;
+            size = mergedSize;
+        });
+    }
+
+    public NullableMessageSequenceNumber getMsn(MessageUid uid) {
+        return read(() -> {
+            int position = Arrays.binarySearch(uids, 0, Math.min(size, uids.length), uid.asLong());
+            if (position < 0 || isExpunged(position)) {
+                return NullableMessageSequenceNumber.noMessage();
+            }
+            return NullableMessageSequenceNumber.of(position + 1 - expungedBefore(position + 1));
+        });
+    }
+
+    public Optional<MessageUid> getUid(int msn) {
+        return read(() -> uidAt(msn));
+    }
+
+    public Optional<MessageUid> getLastUid() {
+        return read(() -> uidAt(numMessage()));
+    }
+
+    public Optional<MessageUid> getFirstUid() {
+        return read(() -> uidAt(FIRST_MSN));
+    }
+
+    public int getNumMessage() {
+        return read(this::numMessage);
+    }
+
+    public boolean isEmpty() {
+        return getNumMessage() == 0;
+    }
+
+    public void remove(MessageUid uid) {
+        write(() -> {
+            markExpunged(uid);
+            compactIfNeeded();
+        });
+    }
+
+    public void removeAll(Collection<MessageUid> removedUids) {
+        write(() -> {
+            removedUids.forEach(this::markExpunged);
+            compactIfNeeded();
+        });
+    }
+
+    public void clear() {
+        write(() -> {
+            uids = EMPTY;
+            size = 0;
+            resetExpunged();
+        });
+    }
+
+    public void addUid(MessageUid uid) {
+        write(() -> {
+            long value = uid.asLong();
+            if (size == 0 || uids[size - 1] < value) {
+                append(value);
+                return;
+            }
+            int position = Arrays.binarySearch(uids, 0, size, value);
+            if (position >= 0) {
+                if (isExpunged(position)) {
+                    unmarkExpunged(position);
+                }
+                return;
+            }
+            compact();
+            insert(-(Arrays.binarySearch(uids, 0, size, value) + 1), value);
+        });
+    }
+
+    @VisibleForTesting
+    long[] uids() {
+        return read(() -> {
+            long[] result = new long[numMessage()];
+            int index = 0;
+            for (int position = 0; position < Math.min(size, uids.length) && index < result.length; position++) {
+                if (!isExpunged(position)) {
+                    result[index++] = uids[position];
+                }
+            }
+            return result;
+        });
     }
 
-    public synchronized NullableMessageSequenceNumber getMsn(MessageUid uid) {
-        int position = Collections.binarySearch(uids, uid);
-        if (position < 0) {
-            return NullableMessageSequenceNumber.noMessage();
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Inconsistent state observed because of a concurrent write, retrying under lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return NullableMessageSequenceNumber.of(position + 1);
     }
 
-    public synchronized Optional<MessageUid> getUid(int msn) {
-        if (msn <= uids.size() && msn > 0) {
-            return Optional.of(uids.get(msn - 1));
+    private void write(Runnable writer) {
+        long stamp = lock.writeLock();
+        try {
+            writer.run();
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        return Optional.empty();
     }
 
-    public synchronized Optional<MessageUid> getLastUid() {
-        if (uids.isEmpty()) {
+    private int numMessage() {
+        return size - expungedCount;
+    }
+
+    private Optional<MessageUid> uidAt(int msn) {
+        if (msn <= 0 || msn > numMessage()) {
             return Optional.empty();
         }
-        return getUid(getLastMsn());
+        return Optional.of(MessageUid.of(uids[positionOf(msn)]));
+    }
+
+    private int positionOf(int msn) {
+        int[] tree = expungedTree;
+        if (tree == null) {
+            return msn - 1;
+        }
+        // Descends the Fenwick tree looking for the first position holding msn non-expunged entries
+        int position = 0;
+        int remaining = msn;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && step - tree[next] < remaining) {
+                position = next;
+                remaining -= step - tree[next];
+            }
+        }
+        return position;
+    }
+
+    private int expungedBefore(int end) {
+        int[] tree = expungedTree;
+        if (tree == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int index = Math.min(end, tree.length - 1); index > 0; index -= index & -index) {
+            count += tree[index];
+        }
+        return count;
     }
 
-    public synchronized Optional<MessageUid> getFirstUid() {
-        return getUid(FIRST_MSN);
+    private boolean isExpunged(int position) {
+        long[] bits = expunged;
+        return bits != null && (bits[position >>> 6] & (1L << position)) != 0;
     }
 
-    public synchronized int getNumMessage() {
-        return uids.size();
+    private void markExpunged(MessageUid uid) {
+        int position = Arrays.binarySearch(uids, 0, size, uid.asLong());
+        if (position < 0 || isExpunged(position)) {
+            return;
+        }
+        if (expunged == null) {
+            expunged = new long[(uids.length >>> 6) + 1];
+            expungedTree = new int[uids.length + 1];
+        }
+        expunged[position >>> 6] |= 1L << position;
+        updateTree(position, 1);
+        expungedCount++;
     }
 
-    public synchronized void remove(MessageUid uid) {
-        uids.remove(uid);
+    private void unmarkExpunged(int position) {
+        expunged[position >>> 6] &= ~(1L << position);
+        updateTree(position, -1);
+        expungedCount--;
     }
 
-    public synchronized boolean isEmpty() {
-        return uids.isEmpty();
+    private void updateTree(int position, int delta) {
+        for (int index = position + 1; index < expungedTree.length; index += index & -index) {
+            expungedTree[index] += delta;
+        }
     }
 
-    public synchronized void clear() {
-        uids.clear();
+    private void compactIfNeeded() {
+        if (expungedCount > size / 2) {
+            compact();
+        }
     }
 
-    public synchronized void addUid(MessageUid uid) {
-        if (uids.contains(uid)) {
+    private void compact() {
+        if (expungedCount == 0) {
+            resetExpunged();
             return;
         }
-        if (isLastUid(uid)) {
-            uids.add(uid);
-        } else {
-            uids.add(uid);
-            Collections.sort(uids);
+        long[] compacted = new long[size - expungedCount];
+        int index = 0;
+        for (int position = 0; position < size; position++) {
+            if (!isExpunged(position)) {
+                compacted[index++] = uids[position];
+            }
         }
+        uids = compacted;
+        size = compacted.length;
+        resetExpunged();
     }
 
-    private boolean isLastUid(MessageUid uid) {
-        Optional<MessageUid> lastUid = getLastUid();
-        return !lastUid.isPresent() ||
-            lastUid.get().compareTo(uid) < 0;
+    private void resetExpunged() {
+        expunged = null;
+        expungedTree = null;
+        expungedCount = 0;
     }
 
-    private int getLastMsn() {
-        return getNumMessage();
+    private void append(long value) {
+        if (size == uids.length) {
+            // Growing the array would require resizing the expunged markers
+            compact();
+            uids = Arrays.copyOf(uids, Math.max(INITIAL_CAPACITY, size * 2));
+        }
+        uids[size] = value;
+        size++;
+    }
+
+    private void insert(int position, long value) {
+        long[] result = new long[Math.max(INITIAL_CAPACITY, size + 1)];
+        System.arraycopy(uids, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(uids, position, result, position + 1, size - position);
+        uids = result;
+        size++;
+    }
+
+    private int merge(long[] left, int leftSize, long[] right, long[] result) {
+        int leftIndex = 0;
+        int rightIndex = 0;
+        int index = 0;
+        while (leftIndex < leftSize || rightIndex < right.length) {
+            long value;
+            if (rightIndex == right.length || (leftIndex < leftSize && left[leftIndex] <= right[rightIndex])) {
+                value = left[leftIndex++];
+            } else {
+                value = right[rightIndex++];
+            }
+            if (index == 0 || result[index - 1] != value) {
+                result[index++] = value;
+            }
+        }
+        return index;
     }
 }
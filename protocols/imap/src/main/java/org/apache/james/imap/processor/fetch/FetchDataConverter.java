@@ -48,7 +48,10 @@ class FetchDataConverter {
                 final boolean isBase = (path == null || path.length == 0);
                 switch (sectionType) {
                     case CONTENT:
-                        if (isBase) {
+                        if (isBase && element.getFirstOctet() != null) {
+                            // Partial fetches read the requested range from the stored content on demand
+                            break;
+                        } else if (isBase) {
                             result = addContent(result, path, isBase, FetchGroup.Profile.FULL_CONTENT);
                         } else {
                             result = addContent(result, path, isBase, FetchGroup.Profile.MIME_CONTENT);
@@ -0,0 +1,54 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.utils;
+
+import java.io.InputStream;
+
+import javax.mail.internet.SharedInputStream;
+
+import org.apache.james.mailbox.model.Content;
+
+/**
+ * {@link Content} exposing a range of a {@link SharedInputStream}.
+ *
+ * Each call to {@link #getInputStream()} returns a new {@link SharedInputStream} over that range, allowing
+ * the content to be read several times, and to be stored without being copied.
+ */
+public class SharedInputStreamContent implements Content {
+    private final SharedInputStream source;
+    private final long start;
+    private final long size;
+
+    public SharedInputStreamContent(SharedInputStream source, long start, long size) {
+        this.source = source;
+        this.start = start;
+        this.size = size;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return source.newStream(start, start + size);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+}
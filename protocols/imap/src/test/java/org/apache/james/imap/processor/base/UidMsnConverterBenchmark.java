@@ -0,0 +1,203 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.processor.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.NullableMessageSequenceNumber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link UidMsnConverter} with the former boxed, list based, implementation.
+ *
+ * Run it through its main method, from the test classpath of this module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UidMsnConverterBenchmark {
+
+    /**
+     * The implementation prior to the primitive array based one, kept as a baseline.
+     */
+    static class BoxedUidMsnConverter {
+        private final ArrayList<MessageUid> uids = new ArrayList<>();
+
+        synchronized void addAll(List<MessageUid> addedUids) {
+            TreeSet<MessageUid> tmp = new TreeSet<>();
+            tmp.addAll(uids);
+            tmp.addAll(addedUids);
+            uids.clear();
+            uids.addAll(tmp);
+        }
+
+        synchronized NullableMessageSequenceNumber getMsn(MessageUid uid) {
+            int position = Collections.binarySearch(uids, uid);
+            if (position < 0) {
+                return NullableMessageSequenceNumber.noMessage();
+            }
+            return NullableMessageSequenceNumber.of(position + 1);
+        }
+
+        synchronized Optional<MessageUid> getUid(int msn) {
+            if (msn <= uids.size() && msn > 0) {
+                return Optional.of(uids.get(msn - 1));
+            }
+            return Optional.empty();
+        }
+
+        synchronized void remove(MessageUid uid) {
+            uids.remove(uid);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ExpungeState {
+        private UidMsnConverter converter;
+        private BoxedUidMsnConverter boxedConverter;
+
+        /**
+         * Expunging mutates the converters, they are thus rebuilt for each invocation.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(UidMsnConverterBenchmark benchmark) {
+            converter = new UidMsnConverter();
+            converter.addAll(benchmark.uids);
+            boxedConverter = new BoxedUidMsnConverter();
+            boxedConverter.addAll(benchmark.uids);
+        }
+    }
+
+    @Param({"10000", "500000"})
+    int messageCount;
+
+    private List<MessageUid> uids;
+    private List<MessageUid> expungedUids;
+    private UidMsnConverter converter;
+    private BoxedUidMsnConverter boxedConverter;
+
+    @Setup
+    public void setUp() {
+        uids = LongStream.rangeClosed(1, messageCount)
+            .mapToObj(MessageUid::of)
+            .collect(Collectors.toList());
+        expungedUids = uids.stream()
+            .filter(uid -> uid.asLong() % 10 == 0)
+            .collect(Collectors.toList());
+
+        converter = new UidMsnConverter();
+        converter.addAll(uids);
+        boxedConverter = new BoxedUidMsnConverter();
+        boxedConverter.addAll(uids);
+    }
+
+    @Benchmark
+    public UidMsnConverter select() {
+        UidMsnConverter result = new UidMsnConverter();
+        result.addAll(uids);
+        return result;
+    }
+
+    @Benchmark
+    public BoxedUidMsnConverter selectBoxed() {
+        BoxedUidMsnConverter result = new BoxedUidMsnConverter();
+        result.addAll(uids);
+        return result;
+    }
+
+    @Benchmark
+    public NullableMessageSequenceNumber getMsn() {
+        return converter.getMsn(randomUid());
+    }
+
+    @Benchmark
+    public NullableMessageSequenceNumber getMsnBoxed() {
+        return boxedConverter.getMsn(randomUid());
+    }
+
+    @Benchmark
+    public Optional<MessageUid> getUid() {
+        return converter.getUid(randomMsn());
+    }
+
+    @Benchmark
+    public Optional<MessageUid> getUidBoxed() {
+        return boxedConverter.getUid(randomMsn());
+    }
+
+    @Benchmark
+    public int expunge(ExpungeState state) {
+        for (MessageUid uid : expungedUids) {
+            state.converter.getMsn(uid);
+            state.converter.remove(uid);
+        }
+        return state.converter.getNumMessage();
+    }
+
+    @Benchmark
+    public Optional<MessageUid> expungeBoxed(ExpungeState state) {
+        for (MessageUid uid : expungedUids) {
+            state.boxedConverter.getMsn(uid);
+            state.boxedConverter.remove(uid);
+        }
+        return state.boxedConverter.getUid(1);
+    }
+
+    private MessageUid randomUid() {
+        return MessageUid.of(ThreadLocalRandom.current().nextLong(1, messageCount + 1));
+    }
+
+    private int randomMsn() {
+        return ThreadLocalRandom.current().nextInt(1, messageCount + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(UidMsnConverterBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
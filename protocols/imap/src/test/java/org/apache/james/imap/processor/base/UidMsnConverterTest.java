@@ -459,10 +459,181 @@ class UidMsnConverterTest {
             .containsExactlyElementsOf(resultBuilder.build().entrySet());
     }
 
+    @Test
+    void getMsnShouldAccountForRemovedUids() {
+        testee.addAll(IntStream.rangeClosed(1, 10)
+            .mapToObj(MessageUid::of)
+            .collect(Collectors.toList()));
+
+        testee.remove(MessageUid.of(2));
+        testee.remove(MessageUid.of(5));
+
+        assertThat(testee.getMsn(MessageUid.of(6)))
+            .isEqualTo(NullableMessageSequenceNumber.of(4));
+    }
+
+    @Test
+    void getMsnShouldReturnAbsentForRemovedUid() {
+        testee.addAll(IntStream.rangeClosed(1, 10)
+            .mapToObj(MessageUid::of)
+            .collect(Collectors.toList()));
+
+        testee.remove(MessageUid.of(5));
+
+        assertThat(testee.getMsn(MessageUid.of(5)))
+            .isEqualTo(NullableMessageSequenceNumber.noMessage());
+    }
+
+    @Test
+    void getUidShouldAccountForRemovedUids() {
+        testee.addAll(IntStream.rangeClosed(1, 10)
+            .mapToObj(MessageUid::of)
+            .collect(Collectors.toList()));
+
+        testee.remove(MessageUid.of(2));
+        testee.remove(MessageUid.of(5));
+
+        assertThat(testee.getUid(4))
+            .contains(MessageUid.of(6));
+    }
+
+    @Test
+    void getUidAndGetMsnShouldBeConsistentWhenRemovingMostUids() {
+        int count = 1000;
+        testee.addAll(IntStream.rangeClosed(1, count)
+            .mapToObj(MessageUid::of)
+            .collect(Collectors.toList()));
+
+        IntStream.rangeClosed(1, count)
+            .filter(i -> i % 7 != 0)
+            .forEach(i -> testee.remove(MessageUid.of(i)));
+
+        ImmutableMap.Builder<Integer, MessageUid> expected = ImmutableMap.builder();
+        for (int msn = 1; msn <= count / 7; msn++) {
+            expected.put(msn, MessageUid.of(msn * 7));
+        }
+        assertThat(mapTesteeInternalDataToMsnByUid().entrySet())
+            .containsExactlyElementsOf(expected.build().entrySet());
+        assertThat(IntStream.rangeClosed(1, count / 7)
+                .mapToObj(msn -> testee.getUid(msn).get())
+                .collect(Collectors.toList()))
+            .containsExactlyElementsOf(expected.build().values());
+        assertThat(IntStream.rangeClosed(1, count / 7)
+                .mapToObj(msn -> testee.getMsn(MessageUid.of(msn * 7)).asInt().get())
+                .collect(Collectors.toList()))
+            .containsExactlyElementsOf(expected.build().keySet());
+    }
+
+    @Test
+    void getLastUidShouldReturnLastNonRemovedUid() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid2, messageUid3, messageUid4));
+
+        testee.remove(messageUid4);
+
+        assertThat(testee.getLastUid()).contains(messageUid3);
+    }
+
+    @Test
+    void getFirstUidShouldReturnFirstNonRemovedUid() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid2, messageUid3, messageUid4));
+
+        testee.remove(messageUid1);
+
+        assertThat(testee.getFirstUid()).contains(messageUid2);
+    }
+
+    @Test
+    void getNumMessageShouldNotCountRemovedUids() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid2, messageUid3, messageUid4));
+
+        testee.remove(messageUid2);
+
+        assertThat(testee.getNumMessage()).isEqualTo(3);
+    }
+
+    @Test
+    void removeAllShouldRemoveGivenUids() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid2, messageUid3, messageUid4));
+
+        testee.removeAll(ImmutableList.of(messageUid1, messageUid3));
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(
+                1, messageUid2,
+                2, messageUid4));
+    }
+
+    @Test
+    void removeAllShouldIgnoreUnknownUids() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid2));
+
+        testee.removeAll(ImmutableList.of(messageUid2, messageUid3));
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(1, messageUid1));
+    }
+
+    @Test
+    void addUidShouldRestoreARemovedUid() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid2, messageUid3));
+        testee.remove(messageUid2);
+
+        testee.addUid(messageUid2);
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(
+                1, messageUid1,
+                2, messageUid2,
+                3, messageUid3));
+    }
+
+    @Test
+    void addUidShouldInsertInOrderAfterRemovals() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid3, messageUid4));
+        testee.remove(messageUid1);
+
+        testee.addUid(messageUid2);
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(
+                1, messageUid2,
+                2, messageUid3,
+                3, messageUid4));
+    }
+
+    @Test
+    void addUidShouldAppendAfterRemovals() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid2, messageUid3));
+        testee.remove(messageUid2);
+
+        testee.addUid(messageUid4);
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(
+                1, messageUid1,
+                2, messageUid3,
+                3, messageUid4));
+    }
+
+    @Test
+    void addAllShouldMergeWithPreviousDataAfterRemovals() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid2, messageUid4));
+        testee.remove(messageUid2);
+
+        testee.addAll(ImmutableList.of(messageUid3));
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(
+                1, messageUid1,
+                2, messageUid3,
+                3, messageUid4));
+    }
+
     private Map<Integer, MessageUid> mapTesteeInternalDataToMsnByUid() {
         ImmutableMap.Builder<Integer, MessageUid> result = ImmutableMap.builder();
-        for (int i = 0; i < testee.uids.size(); i++) {
-            result.put(i + 1, testee.uids.get(i));
+        long[] uids = testee.uids();
+        for (int i = 0; i < uids.length; i++) {
+            result.put(i + 1, MessageUid.of(uids[i]));
         }
         return result.build();
     }
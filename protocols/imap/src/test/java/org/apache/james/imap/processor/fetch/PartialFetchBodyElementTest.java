@@ -23,7 +23,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
 import org.apache.james.imap.message.response.FetchResponse.BodyElement;
+import org.apache.james.mailbox.model.Content;
+import org.apache.james.mailbox.store.streaming.ByteContent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -96,4 +102,47 @@ class PartialFetchBodyElementTest {
 
         assertThat(element.size()).describedAs("Content size is less than start. Size should be zero.").isEqualTo(NUMBER_OF_OCTETS);
     }
+
+    @Test
+    void getInputStreamShouldReadTheRangeFromTheDelegate() throws Exception {
+        PartialFetchBodyElement element = new PartialFetchBodyElement(mockBodyElement, 10, NUMBER_OF_OCTETS);
+        when(mockBodyElement.size()).thenReturn(60L);
+        when(mockBodyElement.getInputStream(10, 50)).thenReturn(new ByteArrayInputStream("range".getBytes(StandardCharsets.US_ASCII)));
+
+        assertThat(element.getInputStream()).hasContent("range");
+    }
+
+    @Test
+    void getInputStreamShouldReturnTheRequestedOctetsOfTheContent() throws Exception {
+        BodyElement content = new ContentBodyElement("Name", new ByteContent("0123456789".getBytes(StandardCharsets.US_ASCII)));
+        PartialFetchBodyElement element = new PartialFetchBodyElement(content, 2, 5);
+
+        assertThat(element.getInputStream()).hasContent("23456");
+    }
+
+    @Test
+    void getInputStreamShouldBeTruncatedWhenGoingPastTheEndOfTheContent() throws Exception {
+        BodyElement content = new ContentBodyElement("Name", new ByteContent("0123456789".getBytes(StandardCharsets.US_ASCII)));
+        PartialFetchBodyElement element = new PartialFetchBodyElement(content, 8, 5);
+
+        assertThat(element.getInputStream()).hasContent("89");
+    }
+
+    @Test
+    void getInputStreamShouldReturnTheRequestedOctetsWhenStreamedContent() throws Exception {
+        BodyElement content = new ContentBodyElement("Name", new Content() {
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream("0123456789".getBytes(StandardCharsets.US_ASCII));
+            }
+
+            @Override
+            public long size() {
+                return 10;
+            }
+        });
+        PartialFetchBodyElement element = new PartialFetchBodyElement(content, 2, 5);
+
+        assertThat(element.getInputStream()).hasContent("23456");
+    }
 }
@@ -0,0 +1,248 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.netty4;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.james.protocols.api.ProtocolServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.internal.StringUtil;
+
+/**
+ * Abstract base class for Servers which want to use async io on top of Netty 4.
+ *
+ * Buffers are allocated from the {@link PooledByteBufAllocator}, and the native epoll transport
+ * is used when available.
+ */
+public abstract class AbstractNetty4Server implements ProtocolServer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractNetty4Server.class);
+
+    public static final int DEFAULT_IO_WORKER_COUNT = Runtime.getRuntime().availableProcessors() * 2;
+    private static final int SHUTDOWN_QUIET_PERIOD_SECONDS = 0;
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 15;
+
+    private volatile int backlog = 250;
+
+    private volatile int timeout = 120;
+
+    private volatile boolean started;
+
+    private final ChannelGroup serverChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+
+    private final ChannelGroup childChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+
+    private final AtomicLong handledConnections = new AtomicLong();
+
+    private volatile int ioWorker = DEFAULT_IO_WORKER_COUNT;
+
+    private volatile IoTransport ioTransport = IoTransport.bestAvailable();
+
+    private EventLoopGroup bossGroup;
+
+    private EventLoopGroup workerGroup;
+
+    private List<InetSocketAddress> addresses = new ArrayList<>();
+
+    public synchronized void setListenAddresses(InetSocketAddress... addresses) {
+        if (started) {
+            throw new IllegalStateException("Can only be set when the server is not running");
+        }
+        this.addresses = ImmutableList.copyOf(addresses);
+    }
+
+    /**
+     * Set the IO-worker thread count to use. Default is nCores * 2
+     */
+    public void setIoWorkerCount(int ioWorker) {
+        if (started) {
+            throw new IllegalStateException("Can only be set when the server is not running");
+        }
+        this.ioWorker = ioWorker;
+    }
+
+    /**
+     * Set the socket implementation to use. Default is epoll when available, NIO otherwise
+     */
+    public void setIoTransport(IoTransport ioTransport) {
+        if (started) {
+            throw new IllegalStateException("Can only be set when the server is not running");
+        }
+        this.ioTransport = ioTransport;
+    }
+
+    @Override
+    public synchronized void bind() throws Exception {
+        if (started) {
+            throw new IllegalStateException("Server running already");
+        }
+
+        if (addresses.isEmpty()) {
+            throw new RuntimeException("Please specify at least on socketaddress to which the server should get bound!");
+        }
+
+        LOGGER.info("Using {} transport", ioTransport);
+        bossGroup = ioTransport.newEventLoopGroup(1, createThreadFactory("boss"));
+        workerGroup = ioTransport.newEventLoopGroup(ioWorker, createThreadFactory("worker"));
+
+        ChannelHandler channelInitializer = createChannelInitializer();
+        ServerBootstrap bootstrap = new ServerBootstrap()
+            .group(bossGroup, workerGroup)
+            .channel(ioTransport.serverChannelClass())
+            .childHandler(new ChannelInitializer<Channel>() {
+                @Override
+                protected void initChannel(Channel channel) {
+                    childChannels.add(channel);
+                    handledConnections.incrementAndGet();
+                    channel.pipeline().addLast(channelInitializer);
+                }
+            });
+        configureBootstrap(bootstrap);
+
+        try {
+            for (InetSocketAddress address : addresses) {
+                serverChannels.add(bootstrap.bind(address).sync().channel());
+            }
+        } catch (Exception e) {
+            releaseResources();
+            throw e;
+        }
+        started = true;
+    }
+
+    /**
+     * Configure the bootstrap before it get bound
+     */
+    protected void configureBootstrap(ServerBootstrap bootstrap) {
+        // Bind and start to accept incoming connections.
+        bootstrap.option(ChannelOption.SO_BACKLOG, backlog)
+            .option(ChannelOption.SO_REUSEADDR, true)
+            .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * Create the {@link ThreadFactory} of the given event loop group. Netty {@link DefaultThreadFactory} creates threads
+     * with fast thread local storage, on which the buffer pool relies.
+     */
+    protected ThreadFactory createThreadFactory(String role) {
+        return new DefaultThreadFactory(StringUtil.simpleClassName(getClass()) + "-" + role);
+    }
+
+    @Override
+    public synchronized void unbind() {
+        if (!started) {
+            return;
+        }
+        releaseResources();
+        started = false;
+    }
+
+    private void releaseResources() {
+        serverChannels.close().awaitUninterruptibly();
+        childChannels.close().awaitUninterruptibly();
+        bossGroup.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_SECONDS, SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS).awaitUninterruptibly();
+        workerGroup.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_SECONDS, SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS).awaitUninterruptibly();
+    }
+
+    @Override
+    public synchronized List<InetSocketAddress> getListenAddresses() {
+        ImmutableList.Builder<InetSocketAddress> builder = ImmutableList.builder();
+        for (Channel channel : ImmutableList.copyOf(serverChannels.iterator())) {
+            builder.add((InetSocketAddress) channel.localAddress());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create the {@link ChannelHandler} initializing the pipeline of the accepted channels. It is shared by all the channels.
+     */
+    protected abstract ChannelHandler createChannelInitializer();
+
+    /**
+     * Set the read/write timeout for the server. This will throw a {@link IllegalStateException} if the
+     * server is running.
+     */
+    public void setTimeout(int timeout) {
+        if (started) {
+            throw new IllegalStateException("Can only be set when the server is not running");
+        }
+        this.timeout = timeout;
+    }
+
+    /**
+     * Set the Backlog for the socket. This will throw a {@link IllegalStateException} if the server is running.
+     */
+    public void setBacklog(int backlog) {
+        if (started) {
+            throw new IllegalStateException("Can only be set when the server is not running");
+        }
+        this.backlog = backlog;
+    }
+
+    @Override
+    public int getBacklog() {
+        return backlog;
+    }
+
+    @Override
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Return the count of connections currently opened
+     */
+    public int getCurrentConnections() {
+        return childChannels.size();
+    }
+
+    /**
+     * Return the count of connections accepted since the server started
+     */
+    public long getHandledConnections() {
+        return handledConnections.get();
+    }
+
+    @Override
+    public boolean isBound() {
+        return started;
+    }
+}
@@ -0,0 +1,102 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.netty4;
+
+import javax.net.ssl.SSLEngine;
+
+import org.apache.james.protocols.api.Encryption;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.concurrent.EventExecutorGroup;
+
+/**
+ * Abstract base class for {@link ChannelInitializer} implementations of line based protocols, which might use TLS
+ */
+public abstract class AbstractProtocolChannelInitializer extends ChannelInitializer<Channel> {
+    public static final int MAX_LINE_LENGTH = 8192;
+
+    private final ConnectionLimitInboundHandler connectionLimitHandler;
+    private final ConnectionPerIpLimitInboundHandler connectionPerIpLimitHandler;
+    private final int timeout;
+    private final Encryption secure;
+    private final EventExecutorGroup executorGroup;
+    private final FrameHandlerFactory frameHandlerFactory;
+
+    /**
+     * @param secure the encryption of the server, or null when it does not support TLS
+     * @param executorGroup the executors running the core handler, or null to run it on the IO threads
+     */
+    public AbstractProtocolChannelInitializer(int timeout, int maxConnections, int maxConnectsPerIp, Encryption secure,
+                                              EventExecutorGroup executorGroup, FrameHandlerFactory frameHandlerFactory) {
+        this.connectionLimitHandler = new ConnectionLimitInboundHandler(maxConnections);
+        this.connectionPerIpLimitHandler = new ConnectionPerIpLimitInboundHandler(maxConnectsPerIp);
+        this.timeout = timeout;
+        this.secure = secure;
+        this.executorGroup = executorGroup;
+        this.frameHandlerFactory = frameHandlerFactory;
+    }
+
+    @Override
+    protected void initChannel(Channel channel) {
+        ChannelPipeline pipeline = channel.pipeline();
+
+        if (isSSLSocket()) {
+            // We need to set clientMode to false.
+            // See https://issues.apache.org/jira/browse/JAMES-1025
+            SSLEngine engine = secure.getContext().createSSLEngine();
+            engine.setUseClientMode(false);
+            String[] enabledCipherSuites = secure.getEnabledCipherSuites();
+            if (enabledCipherSuites != null && enabledCipherSuites.length > 0) {
+                engine.setEnabledCipherSuites(enabledCipherSuites);
+            }
+            pipeline.addLast(HandlerConstants.SSL_HANDLER, new SslHandler(engine));
+        }
+
+        pipeline.addLast(HandlerConstants.CONNECTION_LIMIT_HANDLER, connectionLimitHandler);
+
+        pipeline.addLast(HandlerConstants.CONNECTION_PER_IP_LIMIT_HANDLER, connectionPerIpLimitHandler);
+
+        // Add the text line decoder which limit the max line length, don't strip the delimiter and use CRLF as delimiter
+        pipeline.addLast(HandlerConstants.FRAMER, frameHandlerFactory.create(pipeline));
+
+        // Add the ChunkedWriteHandler to be able to write ChunkInput
+        pipeline.addLast(HandlerConstants.CHUNK_HANDLER, new ChunkedWriteHandler());
+        pipeline.addLast(HandlerConstants.TIMEOUT_HANDLER, new TimeoutHandler(timeout));
+
+        pipeline.addLast(executorGroup, HandlerConstants.CORE_HANDLER, createHandler());
+    }
+
+    private boolean isSSLSocket() {
+        return secure != null && !secure.isStartTLS();
+    }
+
+    /**
+     * Create the core {@link ChannelHandler} to use
+     *
+     * @return coreHandler
+     */
+    protected abstract ChannelHandler createHandler();
+
+}
@@ -0,0 +1,245 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.netty4;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.net.ssl.SSLEngine;
+
+import org.apache.james.protocols.api.Encryption;
+import org.apache.james.protocols.api.Protocol;
+import org.apache.james.protocols.api.ProtocolSession;
+import org.apache.james.protocols.api.ProtocolSessionImpl;
+import org.apache.james.protocols.api.ProtocolTransport;
+import org.apache.james.protocols.api.Response;
+import org.apache.james.protocols.api.handler.ConnectHandler;
+import org.apache.james.protocols.api.handler.DisconnectHandler;
+import org.apache.james.protocols.api.handler.LineHandler;
+import org.apache.james.protocols.api.handler.ProtocolHandlerChain;
+import org.apache.james.protocols.api.handler.ProtocolHandlerResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.AttributeKey;
+
+/**
+ * {@link SimpleChannelInboundHandler} which is used by the SMTPServer and other line based protocols
+ */
+@Sharable
+public class BasicChannelInboundHandler extends SimpleChannelInboundHandler<ByteBuf> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BasicChannelInboundHandler.class);
+
+    /**
+     * The {@link ProtocolSession} attached to a channel
+     */
+    public static final AttributeKey<ProtocolSession> SESSION = AttributeKey.valueOf("protocolSession");
+
+    /**
+     * Expose a frame to the {@link LineHandler}'s.
+     *
+     * The frame is copied: its pooled buffer is released once channelRead0 returns, while handlers might retain the
+     * line, for instance when it is part of a multi-line command. Heap buffers might moreover be a slice of a larger
+     * pooled array, which the handlers relying on {@link ByteBuffer#array()} do not expect.
+     */
+    static ByteBuffer toByteBuffer(ByteBuf buf) {
+        return ByteBuffer.wrap(ByteBufUtil.getBytes(buf));
+    }
+
+    private final ProtocolMDCContextFactory mdcContextFactory;
+    protected final Protocol protocol;
+    protected final ProtocolHandlerChain chain;
+    protected final Encryption secure;
+
+    public BasicChannelInboundHandler(ProtocolMDCContextFactory mdcContextFactory, Protocol protocol) {
+        this(mdcContextFactory, protocol, null);
+    }
+
+    public BasicChannelInboundHandler(ProtocolMDCContextFactory mdcContextFactory, Protocol protocol, Encryption secure) {
+        this.mdcContextFactory = mdcContextFactory;
+        this.protocol = protocol;
+        this.chain = protocol.getProtocolChain();
+        this.secure = secure;
+    }
+
+    /**
+     * Call the {@link ConnectHandler} instances which are stored in the {@link ProtocolHandlerChain}
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        ctx.channel().attr(SESSION).set(createSession(ctx));
+        try (Closeable closeable = mdcContextFactory.from(protocol, ctx)) {
+            List<ConnectHandler> connectHandlers = chain.getHandlers(ConnectHandler.class);
+            List<ProtocolHandlerResultHandler> resultHandlers = chain.getHandlers(ProtocolHandlerResultHandler.class);
+            ProtocolSession session = ctx.channel().attr(SESSION).get();
+            LOGGER.info("Connection established from {}", session.getRemoteAddress().getAddress().getHostAddress());
+            if (connectHandlers != null) {
+                for (ConnectHandler cHandler : connectHandlers) {
+                    long start = System.currentTimeMillis();
+                    Response response = cHandler.onConnect(session);
+                    long executionTime = System.currentTimeMillis() - start;
+
+                    for (ProtocolHandlerResultHandler resultHandler : resultHandlers) {
+                        resultHandler.onResponse(session, response, executionTime, cHandler);
+                    }
+                    if (response != null) {
+                        ((ProtocolSessionImpl) session).getProtocolTransport().writeResponse(response, session);
+                    }
+
+                }
+            }
+            super.channelActive(ctx);
+        }
+    }
+
+    /**
+     * Call the {@link DisconnectHandler} instances which are stored in the {@link ProtocolHandlerChain}, then cleanup the channel
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        try (Closeable closeable = mdcContextFactory.from(protocol, ctx)) {
+            List<DisconnectHandler> disconnectHandlers = chain.getHandlers(DisconnectHandler.class);
+            ProtocolSession session = ctx.channel().attr(SESSION).get();
+            if (session != null) {
+                if (disconnectHandlers != null) {
+                    for (DisconnectHandler disconnectHandler : disconnectHandlers) {
+                        disconnectHandler.onDisconnect(session);
+                    }
+                }
+                LOGGER.info("Connection closed for {}", session.getRemoteAddress().getAddress().getHostAddress());
+                cleanup(ctx);
+            }
+        }
+    }
+
+    /**
+     * The core handler is the last handler of the pipeline: the event is not propagated, as the IO threads it would
+     * be handed back to might already be shut down when the core handler runs on its own executors.
+     */
+    @Override
+    public void channelUnregistered(ChannelHandlerContext ctx) {
+        // Nothing to propagate the event to
+    }
+
+    /**
+     * Call the {@link LineHandler}
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf buf) throws Exception {
+        try (Closeable closeable = mdcContextFactory.from(protocol, ctx)) {
+            ProtocolSession pSession = ctx.channel().attr(SESSION).get();
+            Netty4ProtocolTransport transport = (Netty4ProtocolTransport) ((ProtocolSessionImpl) pSession).getProtocolTransport();
+            Optional<LineHandler<? extends ProtocolSession>> pushedLineHandler = transport.getPushedLineHandler();
+            if (pushedLineHandler.isPresent()) {
+                Response response = ((LineHandler) pushedLineHandler.get()).onLine(pSession, toByteBuffer(buf));
+                if (response != null) {
+                    transport.writeResponse(response, pSession);
+                }
+                return;
+            }
+
+            LinkedList<LineHandler> lineHandlers = chain.getHandlers(LineHandler.class);
+            LinkedList<ProtocolHandlerResultHandler> resultHandlers = chain.getHandlers(ProtocolHandlerResultHandler.class);
+
+            if (lineHandlers.size() > 0) {
+
+                LineHandler lHandler = lineHandlers.getLast();
+                long start = System.currentTimeMillis();
+                Response response = lHandler.onLine(pSession, toByteBuffer(buf));
+                long executionTime = System.currentTimeMillis() - start;
+
+                for (ProtocolHandlerResultHandler resultHandler : resultHandlers) {
+                    response = resultHandler.onResponse(pSession, response, executionTime, lHandler);
+                }
+                if (response != null) {
+                    ((ProtocolSessionImpl) pSession).getProtocolTransport().writeResponse(response, pSession);
+                }
+
+            }
+        }
+    }
+
+    /**
+     * Cleanup the channel
+     */
+    protected void cleanup(ChannelHandlerContext ctx) {
+        ProtocolSession session = ctx.channel().attr(SESSION).get();
+        if (session != null) {
+            session.resetState();
+        }
+    }
+
+    protected ProtocolSession createSession(ChannelHandlerContext ctx) throws Exception {
+        SSLEngine engine = null;
+        if (secure != null) {
+            engine = secure.getContext().createSSLEngine();
+            String[] enabledCipherSuites = secure.getEnabledCipherSuites();
+            if (enabledCipherSuites != null && enabledCipherSuites.length > 0) {
+                engine.setEnabledCipherSuites(enabledCipherSuites);
+            }
+        }
+
+        return protocol.newSession(new Netty4ProtocolTransport(ctx.channel(), engine));
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        try (Closeable closeable = mdcContextFactory.from(protocol, ctx)) {
+            ProtocolSession session = ctx.channel().attr(SESSION).get();
+            if (cause instanceof TooLongFrameException && session != null) {
+                Response r = session.newLineTooLongResponse();
+                ProtocolTransport transport = ((ProtocolSessionImpl) session).getProtocolTransport();
+                if (r != null) {
+                    transport.writeResponse(r, session);
+                }
+            } else {
+                if (ctx.channel().isActive() && session != null) {
+                    ProtocolTransport transport = ((ProtocolSessionImpl) session).getProtocolTransport();
+
+                    Response r = session.newFatalErrorResponse();
+                    if (r != null) {
+                        transport.writeResponse(r, session);
+                    }
+                    transport.writeResponse(Response.DISCONNECT, session);
+                }
+                if (cause instanceof ClosedChannelException) {
+                    LOGGER.info("Unable to process request", cause);
+                } else {
+                    LOGGER.error("Unable to process request", cause);
+                }
+                cleanup(ctx);
+            }
+        }
+    }
+
+}
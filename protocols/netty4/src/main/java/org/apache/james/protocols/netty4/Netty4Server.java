@@ -0,0 +1,111 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.netty4;
+
+import java.util.Optional;
+
+import org.apache.james.protocols.api.Encryption;
+import org.apache.james.protocols.api.Protocol;
+
+import com.google.common.base.Preconditions;
+
+import io.netty.channel.ChannelHandler;
+
+/**
+ * Generic Netty 4 server
+ */
+public class Netty4Server extends AbstractNetty4Server {
+    private static final int UNLIMITED_CONNECTIONS = 0;
+
+    public static class Factory {
+
+        private Protocol protocol;
+        private Optional<Encryption> secure;
+        private Optional<FrameHandlerFactory> frameHandlerFactory;
+
+        public Factory() {
+            secure = Optional.empty();
+            frameHandlerFactory = Optional.empty();
+        }
+
+        public Factory protocol(Protocol protocol) {
+            Preconditions.checkNotNull(protocol, "'protocol' is mandatory");
+            this.protocol = protocol;
+            return this;
+        }
+
+        public Factory secure(Encryption secure) {
+            this.secure = Optional.ofNullable(secure);
+            return this;
+        }
+
+        public Factory frameHandlerFactory(FrameHandlerFactory frameHandlerFactory) {
+            this.frameHandlerFactory = Optional.ofNullable(frameHandlerFactory);
+            return this;
+        }
+
+        public Netty4Server build() {
+            Preconditions.checkState(protocol != null, "'protocol' is mandatory");
+            return new Netty4Server(protocol,
+                    secure.orElse(null),
+                    frameHandlerFactory.orElse(new LineDelimiterBasedFrameHandlerFactory(AbstractProtocolChannelInitializer.MAX_LINE_LENGTH)));
+        }
+    }
+
+    protected final Encryption secure;
+    protected final Protocol protocol;
+    private final FrameHandlerFactory frameHandlerFactory;
+
+    private ChannelHandler coreHandler;
+
+    private Netty4Server(Protocol protocol, Encryption secure, FrameHandlerFactory frameHandlerFactory) {
+        this.protocol = protocol;
+        this.secure = secure;
+        this.frameHandlerFactory = frameHandlerFactory;
+    }
+
+    protected ChannelHandler createCoreHandler() {
+        return new BasicChannelInboundHandler(new ProtocolMDCContextFactory.Standard(), protocol, secure);
+    }
+
+    @Override
+    public synchronized void bind() throws Exception {
+        coreHandler = createCoreHandler();
+        super.bind();
+    }
+
+    @Override
+    protected ChannelHandler createChannelInitializer() {
+        return new AbstractProtocolChannelInitializer(
+            getTimeout(),
+            UNLIMITED_CONNECTIONS,
+            UNLIMITED_CONNECTIONS,
+            secure,
+            null,
+            frameHandlerFactory) {
+
+            @Override
+            protected ChannelHandler createHandler() {
+                return coreHandler;
+            }
+        };
+    }
+
+}
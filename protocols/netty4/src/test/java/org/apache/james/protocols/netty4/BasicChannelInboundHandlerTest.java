@@ -0,0 +1,81 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.netty4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+class BasicChannelInboundHandlerTest {
+    private static final byte[] LINE = "A001 LOGIN user password\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OTHER_LINE = "A002 LOGOUT and some more\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void retainedLinesShouldSurviveTheReleaseOfDirectBuffers() {
+        ByteBuffer line = readAndRelease(PooledByteBufAllocator.DEFAULT.directBuffer(LINE.length));
+
+        overwritePooledMemory(PooledByteBufAllocator.DEFAULT.directBuffer(OTHER_LINE.length));
+
+        assertThat(StandardCharsets.US_ASCII.decode(line).toString())
+            .isEqualTo(new String(LINE, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void retainedLinesShouldSurviveTheReleaseOfHeapBuffers() {
+        ByteBuffer line = readAndRelease(PooledByteBufAllocator.DEFAULT.heapBuffer(LINE.length));
+
+        overwritePooledMemory(PooledByteBufAllocator.DEFAULT.heapBuffer(OTHER_LINE.length));
+
+        assertThat(StandardCharsets.US_ASCII.decode(line).toString())
+            .isEqualTo(new String(LINE, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void linesShouldHaveABackingArrayStartingWithTheLine() {
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.directBuffer(LINE.length);
+        ByteBuffer line = readAndRelease(buf);
+
+        assertThat(line.hasArray()).isTrue();
+        assertThat(line.arrayOffset()).isZero();
+    }
+
+    private ByteBuffer readAndRelease(ByteBuf buf) {
+        try {
+            buf.writeBytes(LINE);
+            return BasicChannelInboundHandler.toByteBuffer(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private void overwritePooledMemory(ByteBuf buf) {
+        try {
+            buf.writeBytes(OTHER_LINE);
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.netty4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.net.InetSocketAddress;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.james.protocols.api.Encryption;
+import org.apache.james.protocols.api.Protocol;
+import org.junit.jupiter.api.Test;
+
+class Netty4ServerTest {
+    private static final String LOCALHOST_IP = "127.0.0.1";
+    private static final int RANDOM_PORT = 0;
+
+    @Test
+    void protocolShouldThrowWhenProtocolIsNull() {
+        assertThatThrownBy(() -> new Netty4Server.Factory().protocol(null))
+            .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void buildShouldThrowWhenProtocolIsNotGiven() {
+        assertThatThrownBy(() -> new Netty4Server.Factory()
+            .build())
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void buildShouldWorkWhenProtocolIsGiven() {
+        Protocol protocol = mock(Protocol.class);
+        new Netty4Server.Factory()
+            .protocol(protocol)
+            .build();
+    }
+
+    @Test
+    void buildShouldWorkWhenEverythingIsGiven() throws Exception {
+        Protocol protocol = mock(Protocol.class);
+        Encryption encryption = Encryption.createStartTls(SSLContext.getDefault());
+        FrameHandlerFactory frameHandlerFactory = mock(FrameHandlerFactory.class);
+        new Netty4Server.Factory()
+            .protocol(protocol)
+            .secure(encryption)
+            .frameHandlerFactory(frameHandlerFactory)
+            .build();
+    }
+
+    @Test
+    void bindShouldExposeTheBoundAddresses() throws Exception {
+        Netty4Server server = new Netty4Server.Factory()
+            .protocol(mock(Protocol.class))
+            .build();
+        server.setListenAddresses(new InetSocketAddress(LOCALHOST_IP, RANDOM_PORT));
+
+        server.bind();
+        try {
+            assertThat(server.getListenAddresses())
+                .hasSize(1)
+                .allSatisfy(address -> assertThat(address.getPort()).isPositive());
+        } finally {
+            server.unbind();
+        }
+    }
+
+    @Test
+    void unbindShouldReleaseTheBoundAddresses() throws Exception {
+        Netty4Server server = new Netty4Server.Factory()
+            .protocol(mock(Protocol.class))
+            .build();
+        server.setListenAddresses(new InetSocketAddress(LOCALHOST_IP, RANDOM_PORT));
+        server.bind();
+
+        server.unbind();
+
+        assertThat(server.isBound()).isFalse();
+        assertThat(server.getListenAddresses()).isEmpty();
+    }
+
+    @Test
+    void bindShouldWorkWithTheNioTransport() throws Exception {
+        Netty4Server server = new Netty4Server.Factory()
+            .protocol(mock(Protocol.class))
+            .build();
+        server.setIoTransport(IoTransport.NIO);
+        server.setListenAddresses(new InetSocketAddress(LOCALHOST_IP, RANDOM_PORT));
+
+        server.bind();
+        try {
+            assertThat(server.getListenAddresses()).hasSize(1);
+        } finally {
+            server.unbind();
+        }
+    }
+}
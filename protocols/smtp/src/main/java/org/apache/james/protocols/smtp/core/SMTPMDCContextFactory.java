@@ -53,7 +53,7 @@ public class SMTPMDCContextFactory implements ProtocolMDCContextFactory {
             .orElse(MDCBuilder.create());
     }
 
-    private static MDCBuilder forSMTPSession(SMTPSession smtpSession) {
+    public static MDCBuilder forSMTPSession(SMTPSession smtpSession) {
         return MDCBuilder.create()
             .addContext("ehlo", smtpSession.getAttachment(SMTPSession.CURRENT_HELO_NAME, ProtocolSession.State.Connection))
             .addContext("sender", smtpSession.getAttachment(SMTPSession.SENDER, ProtocolSession.State.Transaction)
@@ -43,6 +43,13 @@ public interface BlobStore {
 
     InputStream read(BucketName bucketName, BlobId blobId);
 
+    /**
+     * Reads at most length bytes of the blob, starting at the given offset.
+     *
+     * @see BlobStoreDAO#readBytes(BucketName, BlobId, long, long)
+     */
+    Publisher<byte[]> readBytes(BucketName bucketName, BlobId blobId, long offset, long length);
+
     default Publisher<byte[]> readBytes(BucketName bucketName, BlobId blobId, StoragePolicy storagePolicy) {
        return readBytes(bucketName, blobId);
     }
@@ -21,6 +21,8 @@ package org.apache.james.blob.api;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.function.Supplier;
 
 import org.reactivestreams.Publisher;
 
@@ -46,6 +48,19 @@ public interface BlobStoreDAO {
      */
     Publisher<byte[]> readBytes(BucketName bucketName, BlobId blobId);
 
+    /**
+     * Reads a range of a Blob based on its BucketName and its BlobId
+     *
+     * The range starts at the given offset (inclusive) and spans at most length bytes.
+     * Less bytes are returned when the range goes past the end of the blob, and an
+     * empty array is returned when the offset lies after the end of the blob.
+     *
+     * @return a Mono containing the requested range of the blob or
+     *  an ObjectNotFoundException in its error channel when the blobId or the bucket is not found
+     *  or an IOObjectStoreException when an unexpected IO error occurs
+     */
+    Publisher<byte[]> readBytes(BucketName bucketName, BlobId blobId, long offset, long length);
+
 
     /**
      * Save the blob with the provided blob id, and overwrite the previous blob with the same id if it already exists
@@ -69,6 +84,19 @@ public interface BlobStoreDAO {
      */
     Publisher<Void> save(BucketName bucketName, BlobId blobId, ByteSource content);
 
+    /**
+     * Save a blob whose id depends on its content, and is thus only known once its content had been read.
+     *
+     * The blobIdSupplier is called once the InputStream had been fully consumed, and gives the id the blob
+     * is stored under. Implementations should avoid buffering the whole content when the underlying storage allows it.
+     *
+     * The InputStream should be closed after the call to this method
+     *
+     * @return a Mono containing the id of the saved blob,
+     *  otherwise an IOObjectStoreException in its error channel
+     */
+    Publisher<BlobId> save(BucketName bucketName, InputStream inputStream, Supplier<BlobId> blobIdSupplier);
+
     /**
      * @see #save(BucketName, BlobId, byte[])
      *
@@ -99,4 +127,26 @@ public interface BlobStoreDAO {
      *  otherwise an IOObjectStoreException in its error channel
      */
     Publisher<Void> deleteBucket(BucketName bucketName);
+
+    /**
+     * List the blobs stored in a bucket
+     *
+     * No ordering is guaranteed. Listing a bucket concurrently of saves or deletes
+     * might or might not include the affected blobs.
+     *
+     * @return a Publisher of the BlobIds stored in the bucket, empty if the bucket does not exist
+     *  or an IOObjectStoreException in its error channel when an unexpected IO error occurs
+     */
+    Publisher<BlobId> listBlobs(BucketName bucketName);
+
+    /**
+     * Check the existence of several blobs of a bucket at once
+     *
+     * No ordering is guaranteed. Blob ids not stored in the bucket, as well as all blob ids
+     * when the bucket does not exist, are silently filtered out.
+     *
+     * @return a Publisher of the given BlobIds that are stored in the bucket
+     *  or an IOObjectStoreException in its error channel when an unexpected IO error occurs
+     */
+    Publisher<BlobId> exists(BucketName bucketName, Collection<BlobId> blobIds);
 }
@@ -223,4 +223,39 @@ public interface BlobStoreContract extends BucketBlobStoreContract {
 
         assertThat(read).hasSameContentAs(new ByteArrayInputStream(TWELVE_MEGABYTES));
     }
+
+    @Test
+    default void readRangeShouldThrowWhenNoExisting() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        assertThatThrownBy(() -> Mono.from(store.readBytes(defaultBucketName, blobIdFactory().from("unknown"), 0, 10)).block())
+            .isExactlyInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @ParameterizedTest
+    @MethodSource("storagePolicies")
+    default void readRangeShouldReturnTheRequestedBytes(BlobStore.StoragePolicy storagePolicy) {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = Mono.from(store.save(defaultBucketName, ELEVEN_KILOBYTES, storagePolicy)).block();
+
+        byte[] bytes = Mono.from(store.readBytes(defaultBucketName, blobId, 5, 20)).block();
+
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("56789\n0123456789\n012");
+    }
+
+    @ParameterizedTest
+    @MethodSource("storagePolicies")
+    default void readRangeShouldBeTruncatedWhenGoingPastTheEnd(BlobStore.StoragePolicy storagePolicy) {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = Mono.from(store.save(defaultBucketName, SHORT_BYTEARRAY, storagePolicy)).block();
+
+        byte[] bytes = Mono.from(store.readBytes(defaultBucketName, blobId, 2, 100)).block();
+
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("to");
+    }
 }
@@ -306,6 +306,64 @@ public interface ReadSaveBlobStoreDAOContract {
             .isInstanceOf(ObjectStoreIOException.class);
     }
 
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("blobs")
+    default void saveInputStreamWithBlobIdSupplierShouldSaveUnderSuppliedBlobId(String description, byte[] bytes) {
+        BlobStoreDAO store = testee();
+
+        BlobId blobId = Mono.from(store.save(TEST_BUCKET_NAME, new ByteArrayInputStream(bytes), () -> TEST_BLOB_ID)).block();
+
+        byte[] read = Mono.from(store.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+        assertThat(blobId).isEqualTo(TEST_BLOB_ID);
+        assertThat(read).isEqualTo(bytes);
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("blobs")
+    default void saveInputStreamWithBlobIdSupplierShouldSupplyBlobIdOnceTheStreamIsConsumed(String description, byte[] bytes) {
+        BlobStoreDAO store = testee();
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+
+        Mono.from(store.save(TEST_BUCKET_NAME, inputStream, () -> {
+            assertThat(inputStream.available()).isZero();
+            return TEST_BLOB_ID;
+        })).block();
+
+        byte[] read = Mono.from(store.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+        assertThat(read).isEqualTo(bytes);
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @MethodSource("blobs")
+    default void saveInputStreamWithBlobIdSupplierShouldBeIdempotent(String description, byte[] bytes) {
+        BlobStoreDAO store = testee();
+        Mono.from(store.save(TEST_BUCKET_NAME, TEST_BLOB_ID, bytes)).block();
+        Mono.from(store.save(TEST_BUCKET_NAME, new ByteArrayInputStream(bytes), () -> TEST_BLOB_ID)).block();
+
+        byte[] read = Mono.from(store.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block();
+
+        assertThat(read).isEqualTo(bytes);
+    }
+
+    @Test
+    default void saveInputStreamWithBlobIdSupplierShouldThrowOnIOException() {
+        BlobStoreDAO store = testee();
+
+        assertThatThrownBy(() -> Mono.from(store.save(TEST_BUCKET_NAME, getThrowingInputStream(), () -> TEST_BLOB_ID)).block())
+            .isInstanceOf(ObjectStoreIOException.class);
+    }
+
+    @Test
+    default void saveInputStreamWithBlobIdSupplierShouldNotSaveAnythingOnIOException() {
+        BlobStoreDAO store = testee();
+
+        Mono.from(store.save(TEST_BUCKET_NAME, getThrowingInputStream(), () -> TEST_BLOB_ID))
+            .onErrorResume(throwable -> Mono.empty()).block();
+
+        assertThatThrownBy(() -> Mono.from(store.readBytes(TEST_BUCKET_NAME, TEST_BLOB_ID)).block())
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
     static Stream<Arguments> blobs() {
         return Stream.of(new Object[]{"SHORT", SHORT_BYTEARRAY}, new Object[]{"LONG", ELEVEN_KILOBYTES}, new Object[]{"BIG", TWELVE_MEGABYTES})
             .map(Arguments::of);
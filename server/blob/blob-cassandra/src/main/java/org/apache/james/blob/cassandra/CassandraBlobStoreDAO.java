@@ -21,10 +21,14 @@ package org.apache.james.blob.cassandra;
 
 import static org.apache.james.util.ReactorUtils.DEFAULT_CONCURRENCY;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -42,13 +46,18 @@ import org.apache.james.util.ReactorUtils;
 import com.github.fge.lambdas.Throwing;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.FileBackedOutputStream;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraBlobStoreDAO implements BlobStoreDAO {
     public static final boolean LAZY = false;
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+    private static final int FILE_THRESHOLD = 100 * 1024;
 
     private final CassandraDefaultBucketDAO defaultBucketDAO;
     private final CassandraBucketDAO bucketDAO;
@@ -79,6 +88,39 @@ public class CassandraBlobStoreDAO implements BlobStoreDAO {
             .map(this::byteBuffersToBytesArray);
     }
 
+    /**
+     * Parts are read in order and the ones located before the requested range are discarded: historical
+     * parts written from streams can be smaller than the configured part size, hence the position of a byte
+     * can not be computed from the part index. Reading stops as soon as the end of the range is reached.
+     */
+    @Override
+    public Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId, long offset, long length) {
+        Preconditions.checkArgument(offset >= 0, "'offset' should be positive");
+        Preconditions.checkArgument(length > 0, "'length' should be strictly positive");
+        long end = offset + Math.min(length, Long.MAX_VALUE - offset);
+
+        return Flux.defer(() -> {
+                AtomicLong partStart = new AtomicLong(0);
+                return readBlobParts(bucketName, blobId)
+                    .map(part -> slice(part, partStart.getAndAdd(part.remaining()), offset, end))
+                    .takeUntil(any -> partStart.get() >= end);
+            })
+            .collectList()
+            .map(this::byteBuffersToBytesArray);
+    }
+
+    private ByteBuffer slice(ByteBuffer part, long partStart, long offset, long end) {
+        long from = Math.max(partStart, offset);
+        long to = Math.min(partStart + part.remaining(), end);
+        if (from >= to) {
+            return EMPTY_BUFFER;
+        }
+        ByteBuffer slice = part.duplicate();
+        slice.position(part.position() + (int) (from - partStart));
+        slice.limit(part.position() + (int) (to - partStart));
+        return slice;
+    }
+
     @Override
     public Mono<Void> save(BucketName bucketName, BlobId blobId, byte[] data) {
         Preconditions.checkNotNull(data);
@@ -97,6 +139,28 @@ public class CassandraBlobStoreDAO implements BlobStoreDAO {
             .onErrorMap(e -> new ObjectStoreIOException("Exception occurred while saving input stream", e));
     }
 
+    /**
+     * Blob parts are keyed by the blob id, which is only known once the content had been read:
+     * the content is spooled before being saved.
+     */
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, InputStream inputStream, Supplier<BlobId> blobIdSupplier) {
+        Preconditions.checkNotNull(bucketName);
+        Preconditions.checkNotNull(inputStream);
+
+        return Mono.using(
+            () -> new FileBackedOutputStream(FILE_THRESHOLD),
+            fileBackedOutputStream -> Mono.fromCallable(() -> ByteStreams.copy(inputStream, fileBackedOutputStream))
+                .flatMap(any -> {
+                    BlobId blobId = blobIdSupplier.get();
+                    return save(bucketName, blobId, fileBackedOutputStream.asByteSource())
+                        .thenReturn(blobId);
+                }),
+            Throwing.consumer(FileBackedOutputStream::reset),
+            LAZY)
+            .onErrorMap(IOException.class, e -> new ObjectStoreIOException("Exception occurred while saving input stream", e));
+    }
+
     @Override
     public Mono<Void> save(BucketName bucketName, BlobId blobId, ByteSource content) {
         return Mono.using(content::openBufferedStream,
@@ -164,6 +228,24 @@ public class CassandraBlobStoreDAO implements BlobStoreDAO {
             .then();
     }
 
+    @Override
+    public Flux<BlobId> listBlobs(BucketName bucketName) {
+        if (isDefaultBucket(bucketName)) {
+            return defaultBucketDAO.listBlobs();
+        } else {
+            return bucketDAO.listAll()
+                .filter(bucketNameBlobIdPair -> bucketNameBlobIdPair.getKey().equals(bucketName))
+                .map(Pair::getValue);
+        }
+    }
+
+    @Override
+    public Flux<BlobId> exists(BucketName bucketName, Collection<BlobId> blobIds) {
+        return Flux.fromIterable(ImmutableSet.copyOf(blobIds))
+            .flatMap(blobId -> selectRowCount(bucketName, blobId)
+                .map(any -> blobId), DEFAULT_CONCURRENCY);
+    }
+
     private Mono<ByteBuffer> readPart(BucketName bucketName, BlobId blobId, Integer partIndex) {
         if (isDefaultBucket(bucketName)) {
             return defaultBucketDAO.readPart(blobId, partIndex);
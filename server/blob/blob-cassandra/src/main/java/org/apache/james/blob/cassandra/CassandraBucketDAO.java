@@ -27,6 +27,7 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static org.apache.james.blob.cassandra.BlobTables.BucketBlobTable.BUCKET;
 import static org.apache.james.blob.cassandra.BlobTables.BucketBlobTable.ID;
 import static org.apache.james.blob.cassandra.BlobTables.BucketBlobTable.NUMBER_OF_CHUNK;
+import static org.apache.james.util.ReactorUtils.DEFAULT_CONCURRENCY;
 
 import java.nio.ByteBuffer;
 
@@ -37,6 +38,7 @@ import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BucketName;
 import org.apache.james.blob.cassandra.BlobTables.BucketBlobParts;
+import org.apache.james.blob.cassandra.utils.TokenRanges;
 
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Row;
@@ -48,6 +50,7 @@ import reactor.core.publisher.Mono;
 
 public class CassandraBucketDAO {
     private final BlobId.Factory blobIdFactory;
+    private final Session session;
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement insert;
     private final PreparedStatement insertPart;
@@ -61,6 +64,7 @@ public class CassandraBucketDAO {
     @VisibleForTesting
     public CassandraBucketDAO(BlobId.Factory blobIdFactory, Session session) {
         this.blobIdFactory = blobIdFactory;
+        this.session = session;
         this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
         this.insert = prepareInsert(session);
         this.select = prepareSelect(session);
@@ -86,8 +90,9 @@ public class CassandraBucketDAO {
     }
 
     private PreparedStatement prepareListAll(Session session) {
-        return session.prepare(select()
-            .from(BlobTables.BucketBlobTable.TABLE_NAME));
+        return session.prepare(TokenRanges.restrictToTokenRange(
+            select(BUCKET, ID).from(BlobTables.BucketBlobTable.TABLE_NAME),
+            BUCKET, ID));
     }
 
     private PreparedStatement prepareSelect(Session session) {
@@ -169,7 +174,8 @@ public class CassandraBucketDAO {
     }
 
     public Flux<Pair<BucketName, BlobId>> listAll() {
-        return cassandraAsyncExecutor.executeRows(listAll.bind())
+        return Flux.defer(() -> Flux.fromIterable(TokenRanges.of(session)))
+            .flatMap(range -> cassandraAsyncExecutor.executeRows(TokenRanges.bind(listAll, range)), DEFAULT_CONCURRENCY)
             .map(row -> Pair.of(BucketName.of(row.getString(BUCKET)), blobIdFactory.from(row.getString(ID))));
     }
 
@@ -26,6 +26,7 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static org.apache.james.blob.cassandra.BlobTables.DefaultBucketBlobTable.ID;
 import static org.apache.james.blob.cassandra.BlobTables.DefaultBucketBlobTable.NUMBER_OF_CHUNK;
+import static org.apache.james.util.ReactorUtils.DEFAULT_CONCURRENCY;
 
 import java.nio.ByteBuffer;
 
@@ -34,15 +35,19 @@ import javax.inject.Inject;
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.cassandra.BlobTables.DefaultBucketBlobParts;
+import org.apache.james.blob.cassandra.utils.TokenRanges;
 
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.google.common.annotations.VisibleForTesting;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraDefaultBucketDAO {
+    private final BlobId.Factory blobIdFactory;
+    private final Session session;
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement insert;
     private final PreparedStatement insertPart;
@@ -50,10 +55,13 @@ public class CassandraDefaultBucketDAO {
     private final PreparedStatement selectPart;
     private final PreparedStatement delete;
     private final PreparedStatement deleteParts;
+    private final PreparedStatement listBlobs;
 
     @Inject
     @VisibleForTesting
-    public CassandraDefaultBucketDAO(Session session) {
+    public CassandraDefaultBucketDAO(BlobId.Factory blobIdFactory, Session session) {
+        this.blobIdFactory = blobIdFactory;
+        this.session = session;
         this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
         this.insert = prepareInsert(session);
         this.select = prepareSelect(session);
@@ -61,6 +69,13 @@ public class CassandraDefaultBucketDAO {
         this.selectPart = prepareSelectPart(session);
         this.delete = prepareDelete(session);
         this.deleteParts = prepareDeleteParts(session);
+        this.listBlobs = prepareListBlobs(session);
+    }
+
+    private PreparedStatement prepareListBlobs(Session session) {
+        return session.prepare(TokenRanges.restrictToTokenRange(
+            select(ID).from(BlobTables.DefaultBucketBlobTable.TABLE_NAME),
+            ID));
     }
 
     private PreparedStatement prepareSelect(Session session) {
@@ -143,6 +158,12 @@ public class CassandraDefaultBucketDAO {
                 .setString(DefaultBucketBlobParts.ID, blobId.asString()));
     }
 
+    Flux<BlobId> listBlobs() {
+        return Flux.defer(() -> Flux.fromIterable(TokenRanges.of(session)))
+            .flatMap(range -> cassandraAsyncExecutor.executeRows(TokenRanges.bind(listBlobs, range)), DEFAULT_CONCURRENCY)
+            .map(row -> blobIdFactory.from(row.getString(ID)));
+    }
+
     private ByteBuffer rowToData(Row row) {
         return row.getBytes(DefaultBucketBlobParts.DATA);
     }
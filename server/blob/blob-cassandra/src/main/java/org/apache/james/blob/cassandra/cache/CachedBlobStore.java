@@ -175,6 +175,11 @@ public class CachedBlobStore implements BlobStore {
         return read(bucketName, blobId, LOW_COST);
     }
 
+    @Override
+    public Publisher<byte[]> readBytes(BucketName bucketName, BlobId blobId, long offset, long length) {
+        return backend.readBytes(bucketName, blobId, offset, length);
+    }
+
     private Mono<byte[]> readBytesInDefaultBucket(BucketName bucketName, BlobId blobId) {
         return readFromCache(blobId).switchIfEmpty(
             readBytesFromBackend(bucketName, blobId)
@@ -0,0 +1,109 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Size bounded cache held by the James process itself.
+ *
+ * Meant to be stacked in front of a shared cache (see {@link TieredBlobStoreCache}) so that hits
+ * do not require a network round trip. Payloads can be kept in direct buffers in order not to
+ * put pressure on the garbage collector.
+ */
+public class LocalBlobStoreCache implements BlobStoreCache {
+    public static final String LOCAL_CACHE_HIT_COUNT_METRIC_NAME = "blobStoreLocalCacheHits";
+    public static final String LOCAL_CACHE_MISS_COUNT_METRIC_NAME = "blobStoreLocalCacheMisses";
+    public static final String LOCAL_CACHE_EVICTION_COUNT_METRIC_NAME = "blobStoreLocalCacheEvictions";
+
+    private final Cache<BlobId, ByteBuffer> cache;
+    private final boolean offHeap;
+    private final Metric hitCount;
+    private final Metric missCount;
+    private final Metric evictionCount;
+
+    public LocalBlobStoreCache(LocalCacheConfiguration configuration, MetricFactory metricFactory) {
+        this.offHeap = configuration.isOffHeap();
+        this.hitCount = metricFactory.generate(LOCAL_CACHE_HIT_COUNT_METRIC_NAME);
+        this.missCount = metricFactory.generate(LOCAL_CACHE_MISS_COUNT_METRIC_NAME);
+        this.evictionCount = metricFactory.generate(LOCAL_CACHE_EVICTION_COUNT_METRIC_NAME);
+        this.cache = CacheBuilder.newBuilder()
+            .expireAfterWrite(configuration.getTtl().toMillis(), TimeUnit.MILLISECONDS)
+            .maximumWeight(configuration.getMaxSizeInBytes())
+            .<BlobId, ByteBuffer>weigher((blobId, data) -> data.capacity())
+            .removalListener(notification -> {
+                if (notification.wasEvicted()) {
+                    evictionCount.increment();
+                }
+            })
+            .build();
+    }
+
+    @Override
+    public Mono<Void> cache(BlobId blobId, byte[] data) {
+        return Mono.fromRunnable(() -> cache.put(blobId, toByteBuffer(data)));
+    }
+
+    @Override
+    public Mono<byte[]> read(BlobId blobId) {
+        return Mono.fromCallable(() -> cache.getIfPresent(blobId))
+            .map(this::toByteArray)
+            .doOnNext(any -> hitCount.increment())
+            .switchIfEmpty(Mono.fromRunnable(missCount::increment));
+    }
+
+    @Override
+    public Mono<Void> remove(BlobId blobId) {
+        return Mono.fromRunnable(() -> cache.invalidate(blobId));
+    }
+
+    private ByteBuffer toByteBuffer(byte[] data) {
+        if (offHeap) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+            buffer.put(data);
+            buffer.flip();
+            return buffer;
+        }
+        return ByteBuffer.wrap(data.clone());
+    }
+
+    private byte[] toByteArray(ByteBuffer buffer) {
+        byte[] data = new byte[buffer.remaining()];
+        buffer.duplicate().get(data);
+        return data;
+    }
+
+    @VisibleForTesting
+    long size() {
+        cache.cleanUp();
+        return cache.size();
+    }
+}
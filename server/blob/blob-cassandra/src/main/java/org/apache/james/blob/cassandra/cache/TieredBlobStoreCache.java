@@ -0,0 +1,57 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.cache;
+
+import org.apache.james.blob.api.BlobId;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Looks up the first level cache before the second level one.
+ *
+ * Second level hits are copied into the first level. Writes and removals are applied to both levels.
+ */
+public class TieredBlobStoreCache implements BlobStoreCache {
+    private final BlobStoreCache firstLevel;
+    private final BlobStoreCache secondLevel;
+
+    public TieredBlobStoreCache(BlobStoreCache firstLevel, BlobStoreCache secondLevel) {
+        this.firstLevel = firstLevel;
+        this.secondLevel = secondLevel;
+    }
+
+    @Override
+    public Mono<Void> cache(BlobId blobId, byte[] data) {
+        return Mono.when(firstLevel.cache(blobId, data), secondLevel.cache(blobId, data));
+    }
+
+    @Override
+    public Mono<byte[]> read(BlobId blobId) {
+        return Mono.from(firstLevel.read(blobId))
+            .switchIfEmpty(Mono.defer(() -> Mono.from(secondLevel.read(blobId))
+                .flatMap(data -> Mono.from(firstLevel.cache(blobId, data))
+                    .thenReturn(data))));
+    }
+
+    @Override
+    public Mono<Void> remove(BlobId blobId) {
+        return Mono.when(secondLevel.remove(blobId), firstLevel.remove(blobId));
+    }
+}
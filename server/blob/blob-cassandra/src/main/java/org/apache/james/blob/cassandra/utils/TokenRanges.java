@@ -0,0 +1,64 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+
+package org.apache.james.blob.cassandra.utils;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.token;
+
+import java.util.List;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TokenRange;
+import com.datastax.driver.core.querybuilder.Select;
+import com.github.steveash.guavate.Guavate;
+
+/**
+ * Full table scans split along the token ranges of the cluster.
+ *
+ * Each range can then be read independently, concurrently, and from the replicas owning it,
+ * instead of relying on a single paged query walking through the whole ring.
+ */
+public class TokenRanges {
+    private static final String TOKEN_RANGE_START = "tokenRangeStart";
+    private static final String TOKEN_RANGE_END = "tokenRangeEnd";
+
+    public static Select.Where restrictToTokenRange(Select select, String... partitionKeys) {
+        return select.where(gt(token(partitionKeys), bindMarker(TOKEN_RANGE_START)))
+            .and(lte(token(partitionKeys), bindMarker(TOKEN_RANGE_END)));
+    }
+
+    public static List<TokenRange> of(Session session) {
+        return session.getCluster().getMetadata().getTokenRanges()
+            .stream()
+            .flatMap(range -> range.unwrap().stream())
+            .collect(Guavate.toImmutableList());
+    }
+
+    public static BoundStatement bind(PreparedStatement statement, TokenRange range) {
+        return statement.bind()
+            .setToken(TOKEN_RANGE_START, range.getStart())
+            .setToken(TOKEN_RANGE_END, range.getEnd());
+    }
+}
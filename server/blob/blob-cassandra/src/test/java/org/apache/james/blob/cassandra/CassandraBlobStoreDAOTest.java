@@ -43,7 +43,7 @@ public class CassandraBlobStoreDAOTest implements BlobStoreDAOContract {
     void setUp(CassandraCluster cassandra) {
         HashBlobId.Factory blobIdFactory = new HashBlobId.Factory();
         CassandraBucketDAO bucketDAO = new CassandraBucketDAO(blobIdFactory, cassandra.getConf());
-        defaultBucketDAO = new CassandraDefaultBucketDAO(cassandra.getConf());
+        defaultBucketDAO = new CassandraDefaultBucketDAO(blobIdFactory, cassandra.getConf());
         testee = new CassandraBlobStoreDAO(
             defaultBucketDAO,
                 bucketDAO,
@@ -45,7 +45,7 @@ public class CassandraBlobStoreTest implements CassandraBlobStoreContract, Dedup
     void setUp(CassandraCluster cassandra) {
         HashBlobId.Factory blobIdFactory = new HashBlobId.Factory();
         CassandraBucketDAO bucketDAO = new CassandraBucketDAO(blobIdFactory, cassandra.getConf());
-        defaultBucketDAO = spy(new CassandraDefaultBucketDAO(cassandra.getConf()));
+        defaultBucketDAO = spy(new CassandraDefaultBucketDAO(blobIdFactory, cassandra.getConf()));
         CassandraConfiguration cassandraConfiguration = CassandraConfiguration.builder()
             .blobPartSize(CHUNK_SIZE)
             .build();
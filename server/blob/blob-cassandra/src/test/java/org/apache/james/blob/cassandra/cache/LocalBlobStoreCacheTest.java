@@ -0,0 +1,136 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.cache;
+
+import static org.apache.james.blob.cassandra.cache.LocalBlobStoreCache.LOCAL_CACHE_EVICTION_COUNT_METRIC_NAME;
+import static org.apache.james.blob.cassandra.cache.LocalBlobStoreCache.LOCAL_CACHE_HIT_COUNT_METRIC_NAME;
+import static org.apache.james.blob.cassandra.cache.LocalBlobStoreCache.LOCAL_CACHE_MISS_COUNT_METRIC_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class LocalBlobStoreCacheTest implements BlobStoreCacheContract {
+    private static final Duration _2_SEC_TTL = Duration.ofSeconds(2);
+
+    private LocalBlobStoreCache testee;
+    private RecordingMetricFactory metricFactory;
+    private HashBlobId.Factory blobIdFactory;
+
+    @BeforeEach
+    void setUp() {
+        blobIdFactory = new HashBlobId.Factory();
+        metricFactory = new RecordingMetricFactory();
+        testee = new LocalBlobStoreCache(LocalCacheConfiguration.builder()
+                .ttl(_2_SEC_TTL)
+                .build(),
+            metricFactory);
+    }
+
+    @Override
+    public BlobStoreCache testee() {
+        return testee;
+    }
+
+    @Override
+    public BlobId.Factory blobIdFactory() {
+        return blobIdFactory;
+    }
+
+    @Test
+    void readShouldPublishHitMetric() {
+        BlobId blobId = blobIdFactory.randomId();
+        Mono.from(testee.cache(blobId, EIGHT_KILOBYTES)).block();
+
+        Mono.from(testee.read(blobId)).block();
+
+        assertThat(metricFactory.countFor(LOCAL_CACHE_HIT_COUNT_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void readShouldPublishMissMetric() {
+        Mono.from(testee.read(blobIdFactory.randomId())).block();
+
+        assertThat(metricFactory.countFor(LOCAL_CACHE_MISS_COUNT_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void cacheShouldEvictEntriesWhenExceedingMaxSize() {
+        testee = new LocalBlobStoreCache(LocalCacheConfiguration.builder()
+                .maxSizeInBytes(10 * EIGHT_KILOBYTES.length)
+                .build(),
+            metricFactory);
+
+        Flux.range(0, 20)
+            .concatMap(i -> testee.cache(blobIdFactory.randomId(), EIGHT_KILOBYTES))
+            .blockLast();
+
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(testee.size()).isLessThanOrEqualTo(10);
+            softly.assertThat(metricFactory.countFor(LOCAL_CACHE_EVICTION_COUNT_METRIC_NAME)).isGreaterThanOrEqualTo(10);
+        });
+    }
+
+    @Test
+    void readShouldNotExposeTheCachedArray() {
+        BlobId blobId = blobIdFactory.randomId();
+        byte[] data = EIGHT_KILOBYTES.clone();
+        Mono.from(testee.cache(blobId, data)).block();
+
+        data[0] = 'x';
+        Mono.from(testee.read(blobId)).block()[1] = 'x';
+
+        assertThat(Mono.from(testee.read(blobId)).block()).containsExactly(EIGHT_KILOBYTES);
+    }
+
+    @Nested
+    class OffHeap implements BlobStoreCacheContract {
+        private LocalBlobStoreCache offHeapTestee;
+
+        @BeforeEach
+        void setUp() {
+            offHeapTestee = new LocalBlobStoreCache(LocalCacheConfiguration.builder()
+                    .ttl(_2_SEC_TTL)
+                    .offHeap(true)
+                    .build(),
+                new RecordingMetricFactory());
+        }
+
+        @Override
+        public BlobStoreCache testee() {
+            return offHeapTestee;
+        }
+
+        @Override
+        public BlobId.Factory blobIdFactory() {
+            return blobIdFactory;
+        }
+    }
+}
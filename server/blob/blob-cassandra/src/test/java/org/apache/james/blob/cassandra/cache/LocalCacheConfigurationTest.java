@@ -0,0 +1,76 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.junit.jupiter.api.Test;
+
+class LocalCacheConfigurationTest {
+    @Test
+    void shouldThrowWhenNegativeMaxSize() {
+        assertThatThrownBy(() -> LocalCacheConfiguration.builder().maxSizeInBytes(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldThrowWhenZeroTTL() {
+        assertThatThrownBy(() -> LocalCacheConfiguration.builder().ttl(Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fromShouldReturnEmptyWhenNotEnabled() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.local.maxSizeInBytes", "4 MiB");
+
+        assertThat(LocalCacheConfiguration.from(configuration))
+            .isEmpty();
+    }
+
+    @Test
+    void fromShouldReturnDefaultConfigurationWhenOnlyEnabled() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.local.enable", "true");
+
+        assertThat(LocalCacheConfiguration.from(configuration))
+            .contains(LocalCacheConfiguration.DEFAULT);
+    }
+
+    @Test
+    void fromShouldReturnSuppliedConfiguration() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.local.enable", "true");
+        configuration.addProperty("cache.local.maxSizeInBytes", "4 MiB");
+        configuration.addProperty("cache.local.ttl", "30 min");
+        configuration.addProperty("cache.local.offHeap", "true");
+
+        assertThat(LocalCacheConfiguration.from(configuration))
+            .contains(LocalCacheConfiguration.builder()
+                .maxSizeInBytes(4 * 1024 * 1024)
+                .ttl(Duration.ofMinutes(30))
+                .offHeap(true)
+                .build());
+    }
+}
@@ -0,0 +1,95 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+
+class TieredBlobStoreCacheTest implements BlobStoreCacheContract {
+    private static final Duration _2_SEC_TTL = Duration.ofSeconds(2);
+
+    private LocalBlobStoreCache firstLevel;
+    private LocalBlobStoreCache secondLevel;
+    private TieredBlobStoreCache testee;
+    private HashBlobId.Factory blobIdFactory;
+
+    @BeforeEach
+    void setUp() {
+        blobIdFactory = new HashBlobId.Factory();
+        LocalCacheConfiguration configuration = LocalCacheConfiguration.builder()
+            .ttl(_2_SEC_TTL)
+            .build();
+        firstLevel = new LocalBlobStoreCache(configuration, new RecordingMetricFactory());
+        secondLevel = new LocalBlobStoreCache(configuration, new RecordingMetricFactory());
+        testee = new TieredBlobStoreCache(firstLevel, secondLevel);
+    }
+
+    @Override
+    public BlobStoreCache testee() {
+        return testee;
+    }
+
+    @Override
+    public BlobId.Factory blobIdFactory() {
+        return blobIdFactory;
+    }
+
+    @Test
+    void cacheShouldStoreInBothLevels() {
+        BlobId blobId = blobIdFactory.randomId();
+
+        Mono.from(testee.cache(blobId, EIGHT_KILOBYTES)).block();
+
+        assertThat(Mono.from(firstLevel.read(blobId)).block()).containsExactly(EIGHT_KILOBYTES);
+        assertThat(Mono.from(secondLevel.read(blobId)).block()).containsExactly(EIGHT_KILOBYTES);
+    }
+
+    @Test
+    void readShouldPopulateTheFirstLevelUponSecondLevelHit() {
+        BlobId blobId = blobIdFactory.randomId();
+        Mono.from(secondLevel.cache(blobId, EIGHT_KILOBYTES)).block();
+
+        assertThat(Mono.from(testee.read(blobId)).block()).containsExactly(EIGHT_KILOBYTES);
+        assertThat(Mono.from(firstLevel.read(blobId)).block()).containsExactly(EIGHT_KILOBYTES);
+    }
+
+    @Test
+    void removeShouldInvalidateBothLevels() {
+        BlobId blobId = blobIdFactory.randomId();
+        Mono.from(testee.cache(blobId, EIGHT_KILOBYTES)).block();
+
+        Mono.from(testee.remove(blobId)).block();
+
+        Optional<byte[]> firstLevelContent = Mono.from(firstLevel.read(blobId)).blockOptional();
+        Optional<byte[]> secondLevelContent = Mono.from(secondLevel.read(blobId)).blockOptional();
+        assertThat(firstLevelContent).isEmpty();
+        assertThat(secondLevelContent).isEmpty();
+    }
+}
@@ -34,6 +34,10 @@ public interface Store<T, I> {
 
     Mono<I> save(T t);
 
+    /**
+     * Implementations may return a lazily loaded value, whose content is only read from the underlying blobs once
+     * accessed. Such content needs to be read before the blobs get deleted with {@link #delete(Object)}.
+     */
     Mono<T> read(I blobIds);
 
     Publisher<Void> delete(I blobIds);
@@ -22,6 +22,9 @@ package org.apache.james.blob.memory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Supplier;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.james.blob.api.BlobId;
@@ -32,9 +35,11 @@ import org.apache.james.blob.api.ObjectStoreIOException;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Table;
 import com.google.common.io.ByteSource;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class MemoryBlobStoreDAO implements BlobStoreDAO {
@@ -58,6 +63,21 @@ public class MemoryBlobStoreDAO implements BlobStoreDAO {
             .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException(String.format("blob '%s' not found in bucket '%s'", blobId.asString(), bucketName.asString()))));
     }
 
+    @Override
+    public Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId, long offset, long length) {
+        Preconditions.checkArgument(offset >= 0, "'offset' should be positive");
+        Preconditions.checkArgument(length > 0, "'length' should be strictly positive");
+
+        return readBytes(bucketName, blobId)
+            .map(bytes -> slice(bytes, offset, length));
+    }
+
+    private byte[] slice(byte[] bytes, long offset, long length) {
+        int from = (int) Math.min(offset, bytes.length);
+        int to = from + (int) Math.min(length, bytes.length - from);
+        return Arrays.copyOfRange(bytes, from, to);
+    }
+
     @Override
     public Mono<Void> save(BucketName bucketName, BlobId blobId, byte[] data) {
         return Mono.fromRunnable(() -> {
@@ -92,6 +112,23 @@ public class MemoryBlobStoreDAO implements BlobStoreDAO {
             .flatMap(bytes -> save(bucketName, blobId, bytes));
     }
 
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, InputStream inputStream, Supplier<BlobId> blobIdSupplier) {
+        Preconditions.checkNotNull(inputStream);
+        return Mono.fromCallable(() -> {
+                try {
+                    return IOUtils.toByteArray(inputStream);
+                } catch (IOException e) {
+                    throw new ObjectStoreIOException("IOException occured", e);
+                }
+            })
+            .flatMap(bytes -> {
+                BlobId blobId = blobIdSupplier.get();
+                return save(bucketName, blobId, bytes)
+                    .thenReturn(blobId);
+            });
+    }
+
     @Override
     public Mono<Void> delete(BucketName bucketName, BlobId blobId) {
         Preconditions.checkNotNull(bucketName);
@@ -110,4 +147,25 @@ public class MemoryBlobStoreDAO implements BlobStoreDAO {
             }
         });
     }
+
+    @Override
+    public Flux<BlobId> listBlobs(BucketName bucketName) {
+        return Flux.defer(() -> {
+            synchronized (blobs) {
+                return Flux.fromIterable(ImmutableList.copyOf(blobs.row(bucketName).keySet()));
+            }
+        });
+    }
+
+    @Override
+    public Flux<BlobId> exists(BucketName bucketName, Collection<BlobId> blobIds) {
+        return Flux.defer(() -> {
+            synchronized (blobs) {
+                return Flux.fromIterable(blobIds.stream()
+                    .distinct()
+                    .filter(blobId -> blobs.contains(bucketName, blobId))
+                    .collect(ImmutableList.toImmutableList()));
+            }
+        });
+    }
 }
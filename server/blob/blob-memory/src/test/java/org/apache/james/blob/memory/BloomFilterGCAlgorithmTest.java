@@ -0,0 +1,191 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobReferenceSource;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.server.blob.deduplication.BloomFilterGCAlgorithm;
+import org.apache.james.server.blob.deduplication.DeDuplicationBlobStore;
+import org.apache.james.server.blob.deduplication.GenerationAwareBlobId;
+import org.apache.james.task.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class BloomFilterGCAlgorithmTest {
+    private static final Instant NOW = Instant.parse("2021-01-01T00:00:00.000Z");
+    private static final Instant THREE_GENERATIONS_AGO = NOW.minus(Duration.ofDays(90));
+    private static final GenerationAwareBlobId.Configuration CONFIGURATION = new GenerationAwareBlobId.Configuration(Duration.ofDays(30), 1);
+    private static final int DELETIONS_PER_SECOND = 1000;
+
+    private static class InMemoryReferenceSource implements BlobReferenceSource {
+        private final Collection<BlobId> references = new ConcurrentLinkedQueue<>();
+
+        void reference(BlobId blobId) {
+            references.add(blobId);
+        }
+
+        @Override
+        public Flux<BlobId> listReferencedBlobs() {
+            return Flux.fromIterable(references);
+        }
+    }
+
+    private MemoryBlobStoreDAO blobStoreDAO;
+    private InMemoryReferenceSource referenceSource;
+    private BlobStore pastBlobStore;
+    private BlobStore currentBlobStore;
+    private BloomFilterGCAlgorithm testee;
+
+    @BeforeEach
+    void setUp() {
+        blobStoreDAO = new MemoryBlobStoreDAO();
+        referenceSource = new InMemoryReferenceSource();
+        HashBlobId.Factory hashBlobIdFactory = new HashBlobId.Factory();
+        GenerationAwareBlobId.Factory pastBlobIdFactory = new GenerationAwareBlobId.Factory(Clock.fixed(THREE_GENERATIONS_AGO, ZoneOffset.UTC), hashBlobIdFactory, CONFIGURATION);
+        GenerationAwareBlobId.Factory currentBlobIdFactory = new GenerationAwareBlobId.Factory(Clock.fixed(NOW, ZoneOffset.UTC), hashBlobIdFactory, CONFIGURATION);
+        pastBlobStore = new DeDuplicationBlobStore(blobStoreDAO, BucketName.DEFAULT, pastBlobIdFactory);
+        currentBlobStore = new DeDuplicationBlobStore(blobStoreDAO, BucketName.DEFAULT, currentBlobIdFactory);
+        testee = new BloomFilterGCAlgorithm(ImmutableSet.of(referenceSource), blobStoreDAO, currentBlobIdFactory);
+    }
+
+    private BlobId save(BlobStore blobStore, String content) {
+        return Mono.from(blobStore.save(BucketName.DEFAULT, content.getBytes(StandardCharsets.UTF_8), BlobStore.StoragePolicy.LOW_COST)).block();
+    }
+
+    private BloomFilterGCAlgorithm.Context.Snapshot gc() {
+        BloomFilterGCAlgorithm.Context context = new BloomFilterGCAlgorithm.Context(100, 0.01);
+        Task.Result result = testee.gc(BucketName.DEFAULT, context, DELETIONS_PER_SECOND).block();
+        assertThat(result).isEqualTo(Task.Result.COMPLETED);
+        return context.snapshot();
+    }
+
+    private Collection<BlobId> storedBlobs() {
+        return blobStoreDAO.listBlobs(BucketName.DEFAULT).collectList().block();
+    }
+
+    @Test
+    void gcShouldSucceedWhenNoBlobs() {
+        assertThat(gc())
+            .isEqualTo(new BloomFilterGCAlgorithm.Context.Snapshot(0, 0, 0, 0, 100, 0.01));
+    }
+
+    @Test
+    void gcShouldDeleteUnreferencedBlobsOfOldGenerations() {
+        save(pastBlobStore, "unreferenced");
+
+        BloomFilterGCAlgorithm.Context.Snapshot snapshot = gc();
+
+        assertThat(storedBlobs()).isEmpty();
+        assertThat(snapshot.getGcedBlobCount()).isEqualTo(1);
+    }
+
+    @Test
+    void gcShouldNotDeleteReferencedBlobsOfOldGenerations() {
+        BlobId blobId = save(pastBlobStore, "referenced");
+        referenceSource.reference(blobId);
+
+        BloomFilterGCAlgorithm.Context.Snapshot snapshot = gc();
+
+        assertThat(storedBlobs()).containsOnly(blobId);
+        assertThat(snapshot.getReferenceSourceCount()).isEqualTo(1);
+        assertThat(snapshot.getGcedBlobCount()).isZero();
+    }
+
+    @Test
+    void gcShouldNotDeleteUnreferencedBlobsOfActiveGenerations() {
+        BlobId blobId = save(currentBlobStore, "unreferenced");
+
+        gc();
+
+        assertThat(storedBlobs()).containsOnly(blobId);
+    }
+
+    @Test
+    void gcShouldNotDeleteUnreferencedLegacyBlobsByDefault() {
+        BlobId blobId = new HashBlobId.Factory().from("legacy");
+        Mono.from(blobStoreDAO.save(BucketName.DEFAULT, blobId, "legacy")).block();
+
+        gc();
+
+        assertThat(storedBlobs()).containsOnly(blobId);
+    }
+
+    @Test
+    void gcShouldDeleteUnreferencedLegacyBlobsWhenOptedIn() {
+        GenerationAwareBlobId.Configuration configuration = new GenerationAwareBlobId.Configuration(Duration.ofDays(30), 1, true);
+        testee = new BloomFilterGCAlgorithm(ImmutableSet.of(referenceSource), blobStoreDAO,
+            new GenerationAwareBlobId.Factory(Clock.fixed(NOW, ZoneOffset.UTC), new HashBlobId.Factory(), configuration));
+        Mono.from(blobStoreDAO.save(BucketName.DEFAULT, new HashBlobId.Factory().from("legacy"), "legacy")).block();
+
+        gc();
+
+        assertThat(storedBlobs()).isEmpty();
+    }
+
+    @Test
+    void gcShouldNotDeleteReferencedLegacyBlobs() {
+        BlobId blobId = new HashBlobId.Factory().from("legacy");
+        Mono.from(blobStoreDAO.save(BucketName.DEFAULT, blobId, "legacy")).block();
+        referenceSource.reference(blobId);
+
+        gc();
+
+        assertThat(storedBlobs()).containsOnly(blobId);
+    }
+
+    @Test
+    void gcShouldOnlyConsiderTheGivenBucket() {
+        BucketName otherBucket = BucketName.of("other");
+        Mono.from(pastBlobStore.save(otherBucket, "unreferenced", BlobStore.StoragePolicy.LOW_COST)).block();
+
+        gc();
+
+        assertThat(blobStoreDAO.listBlobs(otherBucket).collectList().block()).hasSize(1);
+    }
+
+    @Test
+    void gcShouldReportBlobCount() {
+        BlobId referenced = save(pastBlobStore, "referenced");
+        referenceSource.reference(referenced);
+        save(pastBlobStore, "unreferenced");
+        save(currentBlobStore, "recent");
+
+        assertThat(gc())
+            .isEqualTo(new BloomFilterGCAlgorithm.Context.Snapshot(1, 3, 1, 0, 100, 0.01));
+    }
+}
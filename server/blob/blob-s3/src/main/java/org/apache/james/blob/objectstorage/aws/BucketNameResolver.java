@@ -95,6 +95,15 @@ public class BucketNameResolver {
             .orElse(bucketName);
     }
 
+    /**
+     * Whether the given bucket, as named on the object storage, could have been resolved from a James bucket.
+     */
+    boolean isResolved(BucketName bucketName) {
+        return isNameSpace(bucketName)
+            || prefix.map(bucketPrefix -> bucketName.asString().startsWith(bucketPrefix))
+                .orElse(true);
+    }
+
     private boolean isNameSpace(BucketName bucketName) {
         return namespace
             .map(existingNamespace -> existingNamespace.equals(bucketName))
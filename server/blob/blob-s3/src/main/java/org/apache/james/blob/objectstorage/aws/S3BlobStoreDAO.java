@@ -26,9 +26,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -42,14 +48,20 @@ import org.apache.james.blob.api.ObjectStoreIOException;
 import org.apache.james.lifecycle.api.Startable;
 import org.apache.james.util.DataChunker;
 import org.apache.james.util.ReactorUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.FileBackedOutputStream;
+import com.google.common.primitives.Ints;
 
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -67,31 +79,48 @@ import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.ListBucketsResponse;
-import software.amazon.awssdk.services.s3.model.ListObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ListMultipartUploadsResponse;
 import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.S3Object;
 
 public class S3BlobStoreDAO implements BlobStoreDAO, Startable, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(S3BlobStoreDAO.class);
 
     private static final int CHUNK_SIZE = 1024 * 1024;
     private static final int EMPTY_BUCKET_BATCH_SIZE = 1000;
     private static final int FILE_THRESHOLD = 1024 * 100;
     private static final Duration FIRST_BACK_OFF = Duration.ofMillis(100);
     private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+    private static final int INITIAL_PART_BUFFER_SIZE = 16 * 1024;
     private static final boolean LAZY = false;
     private static final int MAX_RETRIES = 5;
+    private static final int NOT_FOUND = 404;
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+    private static final long MAX_COPY_SIZE = 5L * 1024 * 1024 * 1024;
+    private static final String TEMPORARY_KEY_PREFIX = "temporary-upload/";
+    private static final Duration TEMPORARY_UPLOAD_MAX_AGE = Duration.ofDays(1);
+    private static final Duration TEMPORARY_UPLOAD_CLEANUP_PERIOD = Duration.ofHours(1);
+    private static final int RANGE_NOT_SATISFIABLE = 416;
 
     private final InstrumentedPool<S3AsyncClient> clientPool;
     private final BucketNameResolver bucketNameResolver;
+    private final BlobId.Factory blobIdFactory;
+    private Optional<Disposable> temporaryUploadCleanup;
 
     @Inject
-    S3BlobStoreDAO(S3BlobStoreConfiguration configuration) {
+    S3BlobStoreDAO(S3BlobStoreConfiguration configuration, BlobId.Factory blobIdFactory) {
+        this.blobIdFactory = blobIdFactory;
+        this.temporaryUploadCleanup = Optional.empty();
         AwsS3AuthConfiguration authConfiguration = configuration.getSpecificAuthConfiguration();
 
         S3Configuration pathStyleAccess = S3Configuration.builder()
@@ -124,11 +153,13 @@ public class S3BlobStoreDAO implements BlobStoreDAO, Startable, Closeable {
 
     public void start() {
         clientPool.warmup().block();
+        temporaryUploadCleanup = Optional.of(scheduleTemporaryUploadCleanup());
     }
 
     @Override
     @PreDestroy
     public void close() {
+        temporaryUploadCleanup.ifPresent(Disposable::dispose);
         clientPool.dispose();
     }
 
@@ -197,6 +228,29 @@ public class S3BlobStoreDAO implements BlobStoreDAO, Startable, Closeable {
             .map(BytesWrapper::asByteArray);
     }
 
+    @Override
+    public Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId, long offset, long length) {
+        Preconditions.checkArgument(offset >= 0, "'offset' should be positive");
+        Preconditions.checkArgument(length > 0, "'length' should be strictly positive");
+        BucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
+        long lastByte = offset + Math.min(length, Long.MAX_VALUE - offset) - 1;
+
+        return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                client.getObject(
+                    builder -> builder.bucket(resolvedBucketName.asString()).key(blobId.asString()).range("bytes=" + offset + "-" + lastByte),
+                    AsyncResponseTransformer.toBytes())))
+            .next()
+            .onErrorMap(NoSuchBucketException.class, e -> new ObjectNotFoundException("Bucket not found " + resolvedBucketName.asString(), e))
+            .onErrorMap(NoSuchKeyException.class, e -> new ObjectNotFoundException("Blob not found " + resolvedBucketName.asString(), e))
+            .map(BytesWrapper::asByteArray)
+            .onErrorResume(S3Exception.class, e -> {
+                if (e.statusCode() == RANGE_NOT_SATISFIABLE) {
+                    return Mono.just(new byte[0]);
+                }
+                return Mono.error(e);
+            });
+    }
+
     @Override
     public Mono<Void> save(BucketName bucketName, BlobId blobId, byte[] data) {
         BucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
@@ -228,6 +282,205 @@ public class S3BlobStoreDAO implements BlobStoreDAO, Startable, Closeable {
             .onErrorMap(IOException.class, e -> new ObjectStoreIOException("Error saving blob", e));
     }
 
+    /**
+     * Content fitting in a single part is uploaded directly under its blob id.
+     *
+     * Larger content is streamed part by part, as a multipart upload, under a temporary key, then copied server
+     * side to its blob id. At most one part is held in memory and nothing is spooled to disk. The copy is skipped
+     * when a blob with the same id is already stored.
+     *
+     * Temporary objects and multipart uploads left over by a crash are reclaimed hourly once older than a day, see
+     * {@link #deleteStaleTemporaryUploads(Duration)}.
+     *
+     * Blobs larger than 5 GB, the limit of a single server side copy, are copied part by part.
+     */
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, InputStream inputStream, Supplier<BlobId> blobIdSupplier) {
+        Preconditions.checkNotNull(inputStream);
+        BucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
+
+        return Mono.fromCallable(() -> readPart(inputStream))
+            .subscribeOn(Schedulers.elastic())
+            .flatMap(firstPart -> {
+                if (firstPart.remaining() < PART_SIZE) {
+                    BlobId blobId = blobIdSupplier.get();
+                    return save(bucketName, blobId, toArray(firstPart))
+                        .thenReturn(blobId);
+                }
+                return multipartUpload(resolvedBucketName, Flux.concat(Mono.just(firstPart), parts(inputStream)), blobIdSupplier);
+            })
+            .onErrorMap(IOException.class, e -> new ObjectStoreIOException("Error saving blob", e))
+            .onErrorMap(SdkClientException.class, e -> new ObjectStoreIOException("Error saving blob", e));
+    }
+
+    private Mono<BlobId> multipartUpload(BucketName resolvedBucketName, Flux<ByteBuffer> parts, Supplier<BlobId> blobIdSupplier) {
+        String temporaryKey = TEMPORARY_KEY_PREFIX + UUID.randomUUID().toString();
+
+        return createMultipartUpload(resolvedBucketName, temporaryKey)
+            .retryWhen(createBucketOnRetry(resolvedBucketName))
+            .flatMap(uploadId -> uploadParts(resolvedBucketName, temporaryKey, uploadId, parts)
+                .flatMap(completedParts -> completeMultipartUpload(resolvedBucketName, temporaryKey, uploadId, completedParts)
+                    .thenReturn(completedParts.size()))
+                .onErrorResume(e -> abortMultipartUpload(resolvedBucketName, temporaryKey, uploadId)
+                    .then(Mono.error(e))))
+            .flatMap(partCount -> Mono.fromCallable(blobIdSupplier::get)
+                .flatMap(blobId -> copyIfAbsent(resolvedBucketName, temporaryKey, blobId, partCount)
+                    .then(deleteKey(resolvedBucketName, temporaryKey))
+                    .thenReturn(blobId)
+                    .onErrorResume(e -> deleteKey(resolvedBucketName, temporaryKey)
+                        .then(Mono.error(e)))));
+    }
+
+    private Mono<String> createMultipartUpload(BucketName resolvedBucketName, String key) {
+        return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                client.createMultipartUpload(builder -> builder.bucket(resolvedBucketName.asString()).key(key))))
+            .next()
+            .map(CreateMultipartUploadResponse::uploadId);
+    }
+
+    private Mono<List<CompletedPart>> uploadParts(BucketName resolvedBucketName, String key, String uploadId, Flux<ByteBuffer> parts) {
+        return parts.index()
+            .concatMap(indexedPart -> {
+                int partNumber = indexedPart.getT1().intValue() + 1;
+                ByteBuffer part = indexedPart.getT2();
+                return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                        client.uploadPart(builder -> builder.bucket(resolvedBucketName.asString()).key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) part.remaining()),
+                            AsyncRequestBody.fromByteBuffer(part))))
+                    .next()
+                    .map(response -> CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+            })
+            .collect(Guavate.toImmutableList());
+    }
+
+    private Mono<Void> completeMultipartUpload(BucketName resolvedBucketName, String key, String uploadId, List<CompletedPart> completedParts) {
+        return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                client.completeMultipartUpload(builder -> builder.bucket(resolvedBucketName.asString()).key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(completedParts)))))
+            .next()
+            .then();
+    }
+
+    private Mono<Void> abortMultipartUpload(BucketName resolvedBucketName, String key, String uploadId) {
+        return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                client.abortMultipartUpload(builder -> builder.bucket(resolvedBucketName.asString()).key(key).uploadId(uploadId))))
+            .next()
+            .then()
+            .onErrorResume(e -> Mono.empty());
+    }
+
+    private Mono<Void> copyIfAbsent(BucketName resolvedBucketName, String sourceKey, BlobId blobId, int partCount) {
+        return exists(resolvedBucketName, blobId)
+            .hasElement()
+            .flatMap(alreadyStored -> {
+                if (alreadyStored) {
+                    return Mono.empty();
+                }
+                if ((long) partCount * PART_SIZE <= MAX_COPY_SIZE) {
+                    return copy(resolvedBucketName, sourceKey, blobId);
+                }
+                return contentLength(resolvedBucketName, sourceKey)
+                    .flatMap(size -> multipartCopy(resolvedBucketName, sourceKey, blobId, size));
+            });
+    }
+
+    private Mono<Void> copy(BucketName resolvedBucketName, String sourceKey, BlobId blobId) {
+        return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                client.copyObject(builder -> builder.copySource(resolvedBucketName.asString() + "/" + sourceKey)
+                    .destinationBucket(resolvedBucketName.asString())
+                    .destinationKey(blobId.asString()))))
+            .next()
+            .then();
+    }
+
+    private Mono<Long> contentLength(BucketName resolvedBucketName, String key) {
+        return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                client.headObject(head -> head.bucket(resolvedBucketName.asString()).key(key))))
+            .next()
+            .map(HeadObjectResponse::contentLength);
+    }
+
+    private Mono<Void> multipartCopy(BucketName resolvedBucketName, String sourceKey, BlobId blobId, long size) {
+        String destinationKey = blobId.asString();
+        int partCount = Ints.checkedCast((size + MAX_COPY_SIZE - 1) / MAX_COPY_SIZE);
+
+        return createMultipartUpload(resolvedBucketName, destinationKey)
+            .flatMap(uploadId -> Flux.range(1, partCount)
+                .concatMap(partNumber -> copyPart(resolvedBucketName, sourceKey, destinationKey, uploadId, partNumber, size))
+                .collect(Guavate.toImmutableList())
+                .flatMap(completedParts -> completeMultipartUpload(resolvedBucketName, destinationKey, uploadId, completedParts))
+                .onErrorResume(e -> abortMultipartUpload(resolvedBucketName, destinationKey, uploadId)
+                    .then(Mono.error(e))));
+    }
+
+    private Mono<CompletedPart> copyPart(BucketName resolvedBucketName, String sourceKey, String destinationKey, String uploadId, int partNumber, long size) {
+        long firstByte = (partNumber - 1) * MAX_COPY_SIZE;
+        long lastByte = Math.min(firstByte + MAX_COPY_SIZE, size) - 1;
+
+        return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                client.uploadPartCopy(builder -> builder.copySource(resolvedBucketName.asString() + "/" + sourceKey)
+                    .copySourceRange("bytes=" + firstByte + "-" + lastByte)
+                    .destinationBucket(resolvedBucketName.asString())
+                    .destinationKey(destinationKey)
+                    .uploadId(uploadId)
+                    .partNumber(partNumber))))
+            .next()
+            .map(response -> CompletedPart.builder().partNumber(partNumber).eTag(response.copyPartResult().eTag()).build());
+    }
+
+    private Mono<Void> deleteKey(BucketName resolvedBucketName, String key) {
+        return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                client.deleteObject(delete -> delete.bucket(resolvedBucketName.asString()).key(key))))
+            .next()
+            .then();
+    }
+
+    /**
+     * Parts are read from the stream on an elastic thread, as the next part is requested from the thread completing
+     * the upload of the previous one.
+     */
+    private Flux<ByteBuffer> parts(InputStream inputStream) {
+        return Flux.<ByteBuffer>generate(sink -> {
+            try {
+                ByteBuffer part = readPart(inputStream);
+                if (part.hasRemaining()) {
+                    sink.next(part);
+                } else {
+                    sink.complete();
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+        })
+            .subscribeOn(Schedulers.elastic());
+    }
+
+    /**
+     * Reads up to one part. The buffer starts small and doubles as long as it gets filled, so that small blobs do not
+     * allocate a whole part.
+     */
+    private ByteBuffer readPart(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[INITIAL_PART_BUFFER_SIZE];
+        int size = 0;
+        while (true) {
+            int read = ByteStreams.read(inputStream, buffer, size, buffer.length - size);
+            size += read;
+            if (size < buffer.length || buffer.length == PART_SIZE) {
+                return ByteBuffer.wrap(buffer, 0, size);
+            }
+            buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, PART_SIZE));
+        }
+    }
+
+    private byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
     @Override
     public Mono<Void> save(BucketName bucketName, BlobId blobId, ByteSource content) {
         BucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
@@ -294,8 +547,8 @@ public class S3BlobStoreDAO implements BlobStoreDAO, Startable, Closeable {
     }
 
     private Mono<BucketName> emptyBucket(BucketName bucketName) {
-        return clientPool.withPoolable(client -> Mono.fromFuture(() -> client.listObjects(builder -> builder.bucket(bucketName.asString())))
-            .flatMapIterable(ListObjectsResponse::contents))
+        return clientPool.withPoolable(client -> Flux.from(client.listObjectsV2Paginator(builder -> builder.bucket(bucketName.asString()))
+                .contents()))
             .window(EMPTY_BUCKET_BATCH_SIZE)
             .flatMap(this::buildListForBatch, DEFAULT_CONCURRENCY)
             .flatMap(identifiers -> deleteObjects(bucketName, identifiers), DEFAULT_CONCURRENCY)
@@ -314,6 +567,111 @@ public class S3BlobStoreDAO implements BlobStoreDAO, Startable, Closeable {
             .next();
     }
 
+    @Override
+    public Flux<BlobId> listBlobs(BucketName bucketName) {
+        BucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
+
+        return clientPool.withPoolable(client -> Flux.from(client.listObjectsV2Paginator(builder -> builder.bucket(resolvedBucketName.asString()))
+                .contents()))
+            .map(S3Object::key)
+            .filter(key -> !key.startsWith(TEMPORARY_KEY_PREFIX))
+            .map(blobIdFactory::from)
+            .onErrorResume(NoSuchBucketException.class, e -> Flux.empty());
+    }
+
+    private Disposable scheduleTemporaryUploadCleanup() {
+        return Flux.interval(TEMPORARY_UPLOAD_CLEANUP_PERIOD, Schedulers.elastic())
+            .onBackpressureDrop()
+            .concatMap(any -> deleteStaleTemporaryUploads(TEMPORARY_UPLOAD_MAX_AGE)
+                .onErrorResume(e -> {
+                    LOGGER.warn("Failed to delete stale temporary uploads", e);
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    /**
+     * Deletes temporary objects and aborts multipart uploads of temporary keys older than the given age, in every
+     * bucket used by James. They are left over when James crashes while saving a large blob.
+     */
+    public Mono<Void> deleteStaleTemporaryUploads(Duration maxAge) {
+        Instant threshold = Instant.now().minus(maxAge);
+
+        return clientPool.withPoolable(client -> Mono.fromFuture(client::listBuckets)
+                .flatMapIterable(ListBucketsResponse::buckets)
+                .map(bucket -> BucketName.of(bucket.name()))
+                .filter(bucketNameResolver::isResolved)
+                .concatMap(resolvedBucketName -> deleteResolvedTemporaryUploadsOlderThan(resolvedBucketName, threshold)))
+            .then();
+    }
+
+    @VisibleForTesting
+    Mono<Void> deleteTemporaryUploadsOlderThan(BucketName bucketName, Instant threshold) {
+        return deleteResolvedTemporaryUploadsOlderThan(bucketNameResolver.resolve(bucketName), threshold);
+    }
+
+    private Mono<Void> deleteResolvedTemporaryUploadsOlderThan(BucketName resolvedBucketName, Instant threshold) {
+        return Flux.merge(deleteStaleTemporaryObjects(resolvedBucketName, threshold),
+                abortStaleMultipartUploads(resolvedBucketName, threshold))
+            .then()
+            .onErrorResume(NoSuchBucketException.class, e -> Mono.empty());
+    }
+
+    private Mono<Void> deleteStaleTemporaryObjects(BucketName resolvedBucketName, Instant threshold) {
+        return clientPool.withPoolable(client -> Flux.from(client.listObjectsV2Paginator(builder -> builder.bucket(resolvedBucketName.asString())
+                    .prefix(TEMPORARY_KEY_PREFIX))
+                .contents()))
+            .filter(object -> object.lastModified().isBefore(threshold))
+            .window(EMPTY_BUCKET_BATCH_SIZE)
+            .flatMap(this::buildListForBatch, DEFAULT_CONCURRENCY)
+            .flatMap(identifiers -> deleteObjects(resolvedBucketName, identifiers), DEFAULT_CONCURRENCY)
+            .then();
+    }
+
+    private Mono<Void> abortStaleMultipartUploads(BucketName resolvedBucketName, Instant threshold) {
+        return listMultipartUploads(resolvedBucketName, null, null)
+            .expand(response -> {
+                if (response.isTruncated()) {
+                    return listMultipartUploads(resolvedBucketName, response.nextKeyMarker(), response.nextUploadIdMarker());
+                }
+                return Mono.empty();
+            })
+            .flatMapIterable(ListMultipartUploadsResponse::uploads)
+            .filter(upload -> upload.initiated().isBefore(threshold))
+            .flatMap(upload -> abortMultipartUpload(resolvedBucketName, upload.key(), upload.uploadId()), DEFAULT_CONCURRENCY)
+            .then();
+    }
+
+    private Mono<ListMultipartUploadsResponse> listMultipartUploads(BucketName resolvedBucketName, String keyMarker, String uploadIdMarker) {
+        return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                client.listMultipartUploads(builder -> builder.bucket(resolvedBucketName.asString())
+                    .prefix(TEMPORARY_KEY_PREFIX)
+                    .keyMarker(keyMarker)
+                    .uploadIdMarker(uploadIdMarker))))
+            .next();
+    }
+
+    @Override
+    public Flux<BlobId> exists(BucketName bucketName, Collection<BlobId> blobIds) {
+        BucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
+
+        return Flux.fromIterable(ImmutableSet.copyOf(blobIds))
+            .flatMap(blobId -> exists(resolvedBucketName, blobId), DEFAULT_CONCURRENCY);
+    }
+
+    private Mono<BlobId> exists(BucketName resolvedBucketName, BlobId blobId) {
+        return clientPool.withPoolable(client -> Mono.fromFuture(() ->
+                client.headObject(head -> head.bucket(resolvedBucketName.asString()).key(blobId.asString()))))
+            .next()
+            .map(any -> blobId)
+            .onErrorResume(S3Exception.class, e -> {
+                if (e.statusCode() == NOT_FOUND) {
+                    return Mono.empty();
+                }
+                return Mono.error(e);
+            });
+    }
+
     @VisibleForTesting
     public Mono<Void> deleteAllBuckets() {
         return clientPool.withPoolable(client -> Mono.fromFuture(client::listBuckets)
@@ -103,6 +103,39 @@ class BucketNameResolverTest {
             assertThat(resolver.resolve(BucketName.of("namespace")))
                 .isEqualTo(BucketName.of("namespace"));
         }
+
+        @Test
+        void isResolvedShouldReturnTrueWhenPrefixed() {
+            BucketNameResolver resolver = BucketNameResolver.builder()
+                .prefix("bucketPrefix-")
+                .namespace(BucketName.of("namespace"))
+                .build();
+
+            assertThat(resolver.isResolved(BucketName.of("bucketPrefix-bucketName")))
+                .isTrue();
+        }
+
+        @Test
+        void isResolvedShouldReturnTrueWhenNamespace() {
+            BucketNameResolver resolver = BucketNameResolver.builder()
+                .prefix("bucketPrefix-")
+                .namespace(BucketName.of("namespace"))
+                .build();
+
+            assertThat(resolver.isResolved(BucketName.of("namespace")))
+                .isTrue();
+        }
+
+        @Test
+        void isResolvedShouldReturnFalseWhenNotPrefixed() {
+            BucketNameResolver resolver = BucketNameResolver.builder()
+                .prefix("bucketPrefix-")
+                .namespace(BucketName.of("namespace"))
+                .build();
+
+            assertThat(resolver.isResolved(BucketName.of("otherBucket")))
+                .isFalse();
+        }
     }
 
 
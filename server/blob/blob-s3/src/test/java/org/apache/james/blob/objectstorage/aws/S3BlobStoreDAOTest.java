@@ -18,15 +18,34 @@
  ****************************************************************/
 package org.apache.james.blob.objectstorage.aws;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStoreDAO;
 import org.apache.james.blob.api.BlobStoreDAOContract;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.ObjectNotFoundException;
+import org.apache.james.blob.api.TestBlobId;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 @ExtendWith(DockerAwsS3Extension.class)
 public class S3BlobStoreDAOTest implements BlobStoreDAOContract {
+    private static final BlobId TEMPORARY_BLOB_ID = new TestBlobId.Factory().from("temporary-upload/abc");
+    private static final byte[] CONTENT = "content".getBytes(StandardCharsets.UTF_8);
+
     private static S3BlobStoreDAO testee;
 
     @BeforeAll
@@ -42,7 +61,7 @@ public class S3BlobStoreDAOTest implements BlobStoreDAOContract {
             .region(dockerAwsS3.dockerAwsS3().region())
             .build();
 
-        testee = new S3BlobStoreDAO(s3Configuration);
+        testee = new S3BlobStoreDAO(s3Configuration, new TestBlobId.Factory());
     }
 
     @AfterEach
@@ -59,4 +78,68 @@ public class S3BlobStoreDAOTest implements BlobStoreDAOContract {
     public BlobStoreDAO testee() {
         return testee;
     }
+
+    @Test
+    void deleteTemporaryUploadsOlderThanShouldDeleteStaleTemporaryObjects() {
+        Mono.from(testee.save(BucketName.DEFAULT, TEMPORARY_BLOB_ID, CONTENT)).block();
+
+        testee.deleteTemporaryUploadsOlderThan(BucketName.DEFAULT, Instant.now().plus(Duration.ofMinutes(1))).block();
+
+        assertThatThrownBy(() -> Mono.from(testee.readBytes(BucketName.DEFAULT, TEMPORARY_BLOB_ID)).block())
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    void deleteTemporaryUploadsOlderThanShouldNotDeleteBlobs() {
+        BlobId blobId = new TestBlobId.Factory().from("abc");
+        Mono.from(testee.save(BucketName.DEFAULT, blobId, CONTENT)).block();
+
+        testee.deleteTemporaryUploadsOlderThan(BucketName.DEFAULT, Instant.now().plus(Duration.ofMinutes(1))).block();
+
+        assertThat(Mono.from(testee.readBytes(BucketName.DEFAULT, blobId)).block()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void deleteTemporaryUploadsOlderThanShouldNotFailWhenBucketDoesNotExist() {
+        assertThatCode(() -> testee.deleteTemporaryUploadsOlderThan(BucketName.of("not-existing"), Instant.now()).block())
+            .doesNotThrowAnyException();
+    }
+
+    @Test
+    void deleteStaleTemporaryUploadsShouldNotDeleteRecentTemporaryObjects() {
+        Mono.from(testee.save(BucketName.DEFAULT, TEMPORARY_BLOB_ID, CONTENT)).block();
+
+        testee.deleteStaleTemporaryUploads(Duration.ofDays(1)).block();
+
+        assertThat(Mono.from(testee.readBytes(BucketName.DEFAULT, TEMPORARY_BLOB_ID)).block()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void deleteStaleTemporaryUploadsShouldDeleteTemporaryObjectsOfEveryBucket() {
+        BucketName otherBucket = BucketName.of("other");
+        Mono.from(testee.save(BucketName.DEFAULT, TEMPORARY_BLOB_ID, CONTENT)).block();
+        Mono.from(testee.save(otherBucket, TEMPORARY_BLOB_ID, CONTENT)).block();
+
+        testee.deleteStaleTemporaryUploads(Duration.ofMinutes(-1)).block();
+
+        assertThatThrownBy(() -> Mono.from(testee.readBytes(BucketName.DEFAULT, TEMPORARY_BLOB_ID)).block())
+            .isInstanceOf(ObjectNotFoundException.class);
+        assertThatThrownBy(() -> Mono.from(testee.readBytes(otherBucket, TEMPORARY_BLOB_ID)).block())
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    void deleteStaleTemporaryUploadsShouldNotFailWhenNoBucket() {
+        assertThatCode(() -> testee.deleteStaleTemporaryUploads(Duration.ofDays(1)).block())
+            .doesNotThrowAnyException();
+    }
+
+    @Test
+    void listBlobsShouldNotDeleteStaleTemporaryUploads() {
+        Mono.from(testee.save(BucketName.DEFAULT, TEMPORARY_BLOB_ID, CONTENT)).block();
+
+        Flux.from(testee.listBlobs(BucketName.DEFAULT)).blockLast();
+
+        assertThat(Mono.from(testee.readBytes(BucketName.DEFAULT, TEMPORARY_BLOB_ID)).block()).isEqualTo(CONTENT);
+    }
 }
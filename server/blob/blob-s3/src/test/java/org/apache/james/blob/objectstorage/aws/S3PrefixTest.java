@@ -48,7 +48,7 @@ class S3PrefixTest implements BlobStoreContract {
             .bucketPrefix("prefix")
             .build();
 
-        s3BlobStoreDAO = new S3BlobStoreDAO(s3Configuration);
+        s3BlobStoreDAO = new S3BlobStoreDAO(s3Configuration, new HashBlobId.Factory());
 
         testee = BlobStoreFactory.builder()
             .blobStoreDAO(s3BlobStoreDAO)
@@ -0,0 +1,171 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.task.TaskType;
+
+import com.google.common.base.Preconditions;
+
+import reactor.core.scheduler.Schedulers;
+
+public class BlobGCTask implements Task {
+    public static final TaskType TASK_TYPE = TaskType.of("BlobGCTask");
+    public static final long DEFAULT_EXPECTED_BLOB_COUNT = 1_000_000;
+    public static final double DEFAULT_ASSOCIATED_PROBABILITY = 0.01;
+    public static final int DEFAULT_DELETIONS_PER_SECOND = 1000;
+
+    public static class AdditionalInformation implements TaskExecutionDetails.AdditionalInformation {
+        private static AdditionalInformation from(BloomFilterGCAlgorithm.Context context, BucketName bucketName, int deletionsPerSecond) {
+            BloomFilterGCAlgorithm.Context.Snapshot snapshot = context.snapshot();
+            return new AdditionalInformation(
+                bucketName,
+                snapshot.getReferenceSourceCount(),
+                snapshot.getBlobCount(),
+                snapshot.getGcedBlobCount(),
+                snapshot.getErrorCount(),
+                snapshot.getBloomFilterExpectedBlobCount(),
+                snapshot.getBloomFilterAssociatedProbability(),
+                deletionsPerSecond,
+                Clock.systemUTC().instant());
+        }
+
+        private final BucketName bucketName;
+        private final long referenceSourceCount;
+        private final long blobCount;
+        private final long gcedBlobCount;
+        private final long errorCount;
+        private final long bloomFilterExpectedBlobCount;
+        private final double bloomFilterAssociatedProbability;
+        private final int deletionsPerSecond;
+        private final Instant timestamp;
+
+        public AdditionalInformation(BucketName bucketName, long referenceSourceCount, long blobCount, long gcedBlobCount,
+                                     long errorCount, long bloomFilterExpectedBlobCount, double bloomFilterAssociatedProbability,
+                                     int deletionsPerSecond, Instant timestamp) {
+            this.bucketName = bucketName;
+            this.referenceSourceCount = referenceSourceCount;
+            this.blobCount = blobCount;
+            this.gcedBlobCount = gcedBlobCount;
+            this.errorCount = errorCount;
+            this.bloomFilterExpectedBlobCount = bloomFilterExpectedBlobCount;
+            this.bloomFilterAssociatedProbability = bloomFilterAssociatedProbability;
+            this.deletionsPerSecond = deletionsPerSecond;
+            this.timestamp = timestamp;
+        }
+
+        public BucketName getBucketName() {
+            return bucketName;
+        }
+
+        public long getReferenceSourceCount() {
+            return referenceSourceCount;
+        }
+
+        public long getBlobCount() {
+            return blobCount;
+        }
+
+        public long getGcedBlobCount() {
+            return gcedBlobCount;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public long getBloomFilterExpectedBlobCount() {
+            return bloomFilterExpectedBlobCount;
+        }
+
+        public double getBloomFilterAssociatedProbability() {
+            return bloomFilterAssociatedProbability;
+        }
+
+        public int getDeletionsPerSecond() {
+            return deletionsPerSecond;
+        }
+
+        @Override
+        public Instant timestamp() {
+            return timestamp;
+        }
+    }
+
+    private final BloomFilterGCAlgorithm gcAlgorithm;
+    private final BucketName bucketName;
+    private final long expectedBlobCount;
+    private final double associatedProbability;
+    private final int deletionsPerSecond;
+    private final BloomFilterGCAlgorithm.Context context;
+
+    public BlobGCTask(BloomFilterGCAlgorithm gcAlgorithm, BucketName bucketName, long expectedBlobCount,
+                      double associatedProbability, int deletionsPerSecond) {
+        Preconditions.checkArgument(expectedBlobCount > 0, "'expectedBlobCount' must be strictly positive");
+        Preconditions.checkArgument(associatedProbability > 0 && associatedProbability < 1, "'associatedProbability' must be between 0 and 1 (excluded)");
+        Preconditions.checkArgument(deletionsPerSecond > 0, "'deletionsPerSecond' must be strictly positive");
+
+        this.gcAlgorithm = gcAlgorithm;
+        this.bucketName = bucketName;
+        this.expectedBlobCount = expectedBlobCount;
+        this.associatedProbability = associatedProbability;
+        this.deletionsPerSecond = deletionsPerSecond;
+        this.context = new BloomFilterGCAlgorithm.Context(expectedBlobCount, associatedProbability);
+    }
+
+    @Override
+    public Result run() {
+        return gcAlgorithm.gc(bucketName, context, deletionsPerSecond)
+            .subscribeOn(Schedulers.elastic())
+            .block();
+    }
+
+    @Override
+    public TaskType type() {
+        return TASK_TYPE;
+    }
+
+    @Override
+    public Optional<TaskExecutionDetails.AdditionalInformation> details() {
+        return Optional.of(AdditionalInformation.from(context, bucketName, deletionsPerSecond));
+    }
+
+    public BucketName getBucketName() {
+        return bucketName;
+    }
+
+    public long getExpectedBlobCount() {
+        return expectedBlobCount;
+    }
+
+    public double getAssociatedProbability() {
+        return associatedProbability;
+    }
+
+    public int getDeletionsPerSecond() {
+        return deletionsPerSecond;
+    }
+}
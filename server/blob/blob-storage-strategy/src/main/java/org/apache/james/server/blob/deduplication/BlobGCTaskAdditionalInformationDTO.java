@@ -0,0 +1,142 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import java.time.Instant;
+
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.json.DTOModule;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTO;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTOModule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BlobGCTaskAdditionalInformationDTO implements AdditionalInformationDTO {
+    public static AdditionalInformationDTOModule<BlobGCTask.AdditionalInformation, BlobGCTaskAdditionalInformationDTO> module() {
+        return DTOModule.forDomainObject(BlobGCTask.AdditionalInformation.class)
+            .convertToDTO(BlobGCTaskAdditionalInformationDTO.class)
+            .toDomainObjectConverter(BlobGCTaskAdditionalInformationDTO::toDomainObject)
+            .toDTOConverter(BlobGCTaskAdditionalInformationDTO::toDTO)
+            .typeName(BlobGCTask.TASK_TYPE.asString())
+            .withFactory(AdditionalInformationDTOModule::new);
+    }
+
+    private static BlobGCTask.AdditionalInformation toDomainObject(BlobGCTaskAdditionalInformationDTO dto) {
+        return new BlobGCTask.AdditionalInformation(
+            BucketName.of(dto.getBucketName()),
+            dto.getReferenceSourceCount(),
+            dto.getBlobCount(),
+            dto.getGcedBlobCount(),
+            dto.getErrorCount(),
+            dto.getBloomFilterExpectedBlobCount(),
+            dto.getBloomFilterAssociatedProbability(),
+            dto.getDeletionsPerSecond(),
+            dto.getTimestamp());
+    }
+
+    private static BlobGCTaskAdditionalInformationDTO toDTO(BlobGCTask.AdditionalInformation details, String type) {
+        return new BlobGCTaskAdditionalInformationDTO(
+            type,
+            details.timestamp(),
+            details.getBucketName().asString(),
+            details.getReferenceSourceCount(),
+            details.getBlobCount(),
+            details.getGcedBlobCount(),
+            details.getErrorCount(),
+            details.getBloomFilterExpectedBlobCount(),
+            details.getBloomFilterAssociatedProbability(),
+            details.getDeletionsPerSecond());
+    }
+
+    private final String type;
+    private final Instant timestamp;
+    private final String bucketName;
+    private final long referenceSourceCount;
+    private final long blobCount;
+    private final long gcedBlobCount;
+    private final long errorCount;
+    private final long bloomFilterExpectedBlobCount;
+    private final double bloomFilterAssociatedProbability;
+    private final int deletionsPerSecond;
+
+    public BlobGCTaskAdditionalInformationDTO(@JsonProperty("type") String type,
+                                              @JsonProperty("timestamp") Instant timestamp,
+                                              @JsonProperty("bucketName") String bucketName,
+                                              @JsonProperty("referenceSourceCount") long referenceSourceCount,
+                                              @JsonProperty("blobCount") long blobCount,
+                                              @JsonProperty("gcedBlobCount") long gcedBlobCount,
+                                              @JsonProperty("errorCount") long errorCount,
+                                              @JsonProperty("bloomFilterExpectedBlobCount") long bloomFilterExpectedBlobCount,
+                                              @JsonProperty("bloomFilterAssociatedProbability") double bloomFilterAssociatedProbability,
+                                              @JsonProperty("deletionsPerSecond") int deletionsPerSecond) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.bucketName = bucketName;
+        this.referenceSourceCount = referenceSourceCount;
+        this.blobCount = blobCount;
+        this.gcedBlobCount = gcedBlobCount;
+        this.errorCount = errorCount;
+        this.bloomFilterExpectedBlobCount = bloomFilterExpectedBlobCount;
+        this.bloomFilterAssociatedProbability = bloomFilterAssociatedProbability;
+        this.deletionsPerSecond = deletionsPerSecond;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public long getReferenceSourceCount() {
+        return referenceSourceCount;
+    }
+
+    public long getBlobCount() {
+        return blobCount;
+    }
+
+    public long getGcedBlobCount() {
+        return gcedBlobCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getBloomFilterExpectedBlobCount() {
+        return bloomFilterExpectedBlobCount;
+    }
+
+    public double getBloomFilterAssociatedProbability() {
+        return bloomFilterAssociatedProbability;
+    }
+
+    public int getDeletionsPerSecond() {
+        return deletionsPerSecond;
+    }
+}
@@ -0,0 +1,90 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.json.DTOModule;
+import org.apache.james.server.task.json.dto.TaskDTO;
+import org.apache.james.server.task.json.dto.TaskDTOModule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BlobGCTaskDTO implements TaskDTO {
+    public static TaskDTOModule<BlobGCTask, BlobGCTaskDTO> module(BloomFilterGCAlgorithm gcAlgorithm) {
+        return DTOModule
+            .forDomainObject(BlobGCTask.class)
+            .convertToDTO(BlobGCTaskDTO.class)
+            .toDomainObjectConverter(dto -> dto.toDomainObject(gcAlgorithm))
+            .toDTOConverter(BlobGCTaskDTO::toDTO)
+            .typeName(BlobGCTask.TASK_TYPE.asString())
+            .withFactory(TaskDTOModule::new);
+    }
+
+    private static BlobGCTaskDTO toDTO(BlobGCTask task, String type) {
+        return new BlobGCTaskDTO(type,
+            task.getBucketName().asString(),
+            task.getExpectedBlobCount(),
+            task.getAssociatedProbability(),
+            task.getDeletionsPerSecond());
+    }
+
+    private final String type;
+    private final String bucketName;
+    private final long expectedBlobCount;
+    private final double associatedProbability;
+    private final int deletionsPerSecond;
+
+    public BlobGCTaskDTO(@JsonProperty("type") String type,
+                         @JsonProperty("bucketName") String bucketName,
+                         @JsonProperty("expectedBlobCount") long expectedBlobCount,
+                         @JsonProperty("associatedProbability") double associatedProbability,
+                         @JsonProperty("deletionsPerSecond") int deletionsPerSecond) {
+        this.type = type;
+        this.bucketName = bucketName;
+        this.expectedBlobCount = expectedBlobCount;
+        this.associatedProbability = associatedProbability;
+        this.deletionsPerSecond = deletionsPerSecond;
+    }
+
+    private BlobGCTask toDomainObject(BloomFilterGCAlgorithm gcAlgorithm) {
+        return new BlobGCTask(gcAlgorithm, BucketName.of(bucketName), expectedBlobCount, associatedProbability, deletionsPerSecond);
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public long getExpectedBlobCount() {
+        return expectedBlobCount;
+    }
+
+    public double getAssociatedProbability() {
+        return associatedProbability;
+    }
+
+    public int getDeletionsPerSecond() {
+        return deletionsPerSecond;
+    }
+}
@@ -0,0 +1,246 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobReferenceSource;
+import org.apache.james.blob.api.BlobStoreDAO;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.task.Task;
+import org.apache.james.task.Task.Result;
+import org.apache.james.util.ReactorUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Incremental garbage collection for the {@link DeDuplicationBlobStore}.
+ *
+ * Referenced blobs are collected into a bloom filter, then every blob of the bucket that belongs to an inactive
+ * generation and is not in the bloom filter is deleted. A salt, different for each run, is prepended to the
+ * entries of the bloom filter so that false positives differ from one run to another: an unreferenced blob
+ * surviving one run because of a false positive will eventually be collected by a subsequent run.
+ */
+public class BloomFilterGCAlgorithm {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BloomFilterGCAlgorithm.class);
+    private static final Duration PERIOD = Duration.ofSeconds(1);
+
+    public static class Context {
+        public static class Snapshot {
+            private final long referenceSourceCount;
+            private final long blobCount;
+            private final long gcedBlobCount;
+            private final long errorCount;
+            private final long bloomFilterExpectedBlobCount;
+            private final double bloomFilterAssociatedProbability;
+
+            public Snapshot(long referenceSourceCount, long blobCount, long gcedBlobCount, long errorCount,
+                            long bloomFilterExpectedBlobCount, double bloomFilterAssociatedProbability) {
+                this.referenceSourceCount = referenceSourceCount;
+                this.blobCount = blobCount;
+                this.gcedBlobCount = gcedBlobCount;
+                this.errorCount = errorCount;
+                this.bloomFilterExpectedBlobCount = bloomFilterExpectedBlobCount;
+                this.bloomFilterAssociatedProbability = bloomFilterAssociatedProbability;
+            }
+
+            public long getReferenceSourceCount() {
+                return referenceSourceCount;
+            }
+
+            public long getBlobCount() {
+                return blobCount;
+            }
+
+            public long getGcedBlobCount() {
+                return gcedBlobCount;
+            }
+
+            public long getErrorCount() {
+                return errorCount;
+            }
+
+            public long getBloomFilterExpectedBlobCount() {
+                return bloomFilterExpectedBlobCount;
+            }
+
+            public double getBloomFilterAssociatedProbability() {
+                return bloomFilterAssociatedProbability;
+            }
+
+            @Override
+            public final boolean equals(Object o) {
+                if (o instanceof Snapshot) {
+                    Snapshot that = (Snapshot) o;
+
+                    return Objects.equals(this.referenceSourceCount, that.referenceSourceCount)
+                        && Objects.equals(this.blobCount, that.blobCount)
+                        && Objects.equals(this.gcedBlobCount, that.gcedBlobCount)
+                        && Objects.equals(this.errorCount, that.errorCount)
+                        && Objects.equals(this.bloomFilterExpectedBlobCount, that.bloomFilterExpectedBlobCount)
+                        && Objects.equals(this.bloomFilterAssociatedProbability, that.bloomFilterAssociatedProbability);
+                }
+                return false;
+            }
+
+            @Override
+            public final int hashCode() {
+                return Objects.hash(referenceSourceCount, blobCount, gcedBlobCount, errorCount, bloomFilterExpectedBlobCount, bloomFilterAssociatedProbability);
+            }
+
+            @Override
+            public String toString() {
+                return MoreObjects.toStringHelper(this)
+                    .add("referenceSourceCount", referenceSourceCount)
+                    .add("blobCount", blobCount)
+                    .add("gcedBlobCount", gcedBlobCount)
+                    .add("errorCount", errorCount)
+                    .add("bloomFilterExpectedBlobCount", bloomFilterExpectedBlobCount)
+                    .add("bloomFilterAssociatedProbability", bloomFilterAssociatedProbability)
+                    .toString();
+            }
+        }
+
+        private final AtomicLong referenceSourceCount;
+        private final AtomicLong blobCount;
+        private final AtomicLong gcedBlobCount;
+        private final AtomicLong errorCount;
+        private final long bloomFilterExpectedBlobCount;
+        private final double bloomFilterAssociatedProbability;
+
+        public Context(long bloomFilterExpectedBlobCount, double bloomFilterAssociatedProbability) {
+            this.bloomFilterExpectedBlobCount = bloomFilterExpectedBlobCount;
+            this.bloomFilterAssociatedProbability = bloomFilterAssociatedProbability;
+            this.referenceSourceCount = new AtomicLong();
+            this.blobCount = new AtomicLong();
+            this.gcedBlobCount = new AtomicLong();
+            this.errorCount = new AtomicLong();
+        }
+
+        void incrementReferenceSourceCount() {
+            referenceSourceCount.incrementAndGet();
+        }
+
+        void incrementBlobCount() {
+            blobCount.incrementAndGet();
+        }
+
+        void incrementGCedBlobCount() {
+            gcedBlobCount.incrementAndGet();
+        }
+
+        void incrementErrorCount() {
+            errorCount.incrementAndGet();
+        }
+
+        public Snapshot snapshot() {
+            return new Snapshot(
+                referenceSourceCount.get(),
+                blobCount.get(),
+                gcedBlobCount.get(),
+                errorCount.get(),
+                bloomFilterExpectedBlobCount,
+                bloomFilterAssociatedProbability);
+        }
+    }
+
+    private final Set<BlobReferenceSource> referenceSources;
+    private final BlobStoreDAO blobStoreDAO;
+    private final GenerationAwareBlobId.Factory blobIdFactory;
+
+    @Inject
+    public BloomFilterGCAlgorithm(Set<BlobReferenceSource> referenceSources,
+                                  BlobStoreDAO blobStoreDAO,
+                                  GenerationAwareBlobId.Factory blobIdFactory) {
+        this.referenceSources = referenceSources;
+        this.blobStoreDAO = blobStoreDAO;
+        this.blobIdFactory = blobIdFactory;
+    }
+
+    public Mono<Result> gc(BucketName bucketName, Context context, int deletionsPerSecond) {
+        Preconditions.checkArgument(deletionsPerSecond > 0, "'deletionsPerSecond' must be strictly positive");
+        String salt = UUID.randomUUID().toString();
+
+        return populatedBloomFilter(salt, context)
+            .flatMap(bloomFilter -> gc(bucketName, bloomFilter, salt, context, deletionsPerSecond));
+    }
+
+    private Mono<BloomFilter<CharSequence>> populatedBloomFilter(String salt, Context context) {
+        Context.Snapshot snapshot = context.snapshot();
+        BloomFilter<CharSequence> bloomFilter = BloomFilter.create(
+            Funnels.stringFunnel(StandardCharsets.UTF_8),
+            snapshot.getBloomFilterExpectedBlobCount(),
+            snapshot.getBloomFilterAssociatedProbability());
+
+        return Flux.fromIterable(referenceSources)
+            .concatMap(BlobReferenceSource::listReferencedBlobs)
+            .doOnNext(blobId -> {
+                context.incrementReferenceSourceCount();
+                bloomFilter.put(salt + blobId.asString());
+            })
+            .then(Mono.just(bloomFilter));
+    }
+
+    private Mono<Result> gc(BucketName bucketName, BloomFilter<CharSequence> bloomFilter, String salt, Context context, int deletionsPerSecond) {
+        return Flux.from(blobStoreDAO.listBlobs(bucketName))
+            .doOnNext(any -> context.incrementBlobCount())
+            .filter(blobId -> !blobIdFactory.isInActiveGeneration(blobIdFactory.parse(blobId)))
+            .filter(blobId -> !bloomFilter.mightContain(salt + blobId.asString()))
+            .transform(ReactorUtils.<BlobId, Result>throttle()
+                .elements(deletionsPerSecond)
+                .per(PERIOD)
+                .forOperation(blobId -> delete(bucketName, blobId, context)))
+            .reduce(Task::combine)
+            .switchIfEmpty(Mono.just(Result.COMPLETED))
+            .onErrorResume(e -> {
+                LOGGER.error("Error encountered while listing blobs of {}", bucketName.asString(), e);
+                return Mono.just(Result.PARTIAL);
+            });
+    }
+
+    private Mono<Result> delete(BucketName bucketName, BlobId blobId, Context context) {
+        return Mono.from(blobStoreDAO.delete(bucketName, blobId))
+            .then(Mono.fromCallable(() -> {
+                context.incrementGCedBlobCount();
+                return Result.COMPLETED;
+            }))
+            .onErrorResume(e -> {
+                LOGGER.error("Error encountered while garbage collecting blob {}", blobId.asString(), e);
+                context.incrementErrorCount();
+                return Mono.just(Result.PARTIAL);
+            });
+    }
+}
@@ -0,0 +1,243 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.james.blob.api.BlobId;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+
+/**
+ * Decorates the underlying {@link BlobId} with the generation it had been created in.
+ *
+ * The string representation is '{family}_{generation}_{underlying blobId}'. A blobId not matching
+ * this pattern (for instance a blobId created before generations were introduced) is considered
+ * as belonging to no generation. Such legacy blobs are never garbage collected, unless explicitly
+ * opted in, as the references of blobs written by older versions might not all be reported.
+ *
+ * Identical content saved within distinct generations is stored twice: deduplication is scoped
+ * to a generation, which allows garbage collection to consider only generations nobody writes to anymore.
+ */
+public class GenerationAwareBlobId {
+    private static final String SEPARATOR = "_";
+    private static final int NO_FAMILY = 0;
+    private static final long NO_GENERATION = 0;
+
+    public static class Configuration {
+        public static final Duration DEFAULT_DURATION = Duration.ofDays(30);
+        public static final int DEFAULT_FAMILY = 1;
+        public static final boolean DEFAULT_COLLECT_LEGACY_BLOBS = false;
+        public static final Configuration DEFAULT = new Configuration(DEFAULT_DURATION, DEFAULT_FAMILY);
+
+        private final Duration duration;
+        private final int family;
+        private final boolean collectLegacyBlobs;
+
+        public Configuration(Duration duration, int family) {
+            this(duration, family, DEFAULT_COLLECT_LEGACY_BLOBS);
+        }
+
+        public Configuration(Duration duration, int family, boolean collectLegacyBlobs) {
+            Preconditions.checkArgument(!duration.isNegative() && !duration.isZero(), "'duration' needs to be strictly positive");
+            Preconditions.checkArgument(family > NO_FAMILY, "'family' needs to be strictly positive");
+
+            this.duration = duration;
+            this.family = family;
+            this.collectLegacyBlobs = collectLegacyBlobs;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        public int getFamily() {
+            return family;
+        }
+
+        public boolean collectLegacyBlobs() {
+            return collectLegacyBlobs;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Configuration) {
+                Configuration that = (Configuration) o;
+
+                return Objects.equals(this.duration, that.duration)
+                    && Objects.equals(this.family, that.family)
+                    && Objects.equals(this.collectLegacyBlobs, that.collectLegacyBlobs);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(duration, family, collectLegacyBlobs);
+        }
+    }
+
+    /**
+     * Creates generation aware blobIds. Returned blobIds are instances of the delegate factory,
+     * hence can be parsed back by it.
+     */
+    public static class Factory implements BlobId.Factory {
+        private final Clock clock;
+        private final BlobId.Factory delegate;
+        private final Configuration configuration;
+
+        public Factory(Clock clock, BlobId.Factory delegate, Configuration configuration) {
+            this.clock = clock;
+            this.delegate = delegate;
+            this.configuration = configuration;
+        }
+
+        @Override
+        public BlobId forPayload(byte[] payload) {
+            return forHash(delegate.forPayload(payload).asString());
+        }
+
+        /**
+         * Decorates a raw identifier, typically a content hash, with the current generation.
+         */
+        public BlobId forHash(String hash) {
+            GenerationAwareBlobId blobId = new GenerationAwareBlobId(configuration.getFamily(), generation(clock.instant()), hash);
+            return delegate.from(blobId.asString());
+        }
+
+        @Override
+        public BlobId from(String id) {
+            return delegate.from(id);
+        }
+
+        public GenerationAwareBlobId parse(BlobId blobId) {
+            return GenerationAwareBlobId.parse(blobId.asString());
+        }
+
+        public Configuration getConfiguration() {
+            return configuration;
+        }
+
+        private long generation(Instant instant) {
+            return instant.toEpochMilli() / configuration.getDuration().toMillis();
+        }
+
+        /**
+         * A blob is still considered active when it belongs to the current or the previous generation: it may
+         * have been saved but not yet referenced.
+         *
+         * Legacy blobs, belonging to no generation, are considered active unless their collection was opted in.
+         */
+        public boolean isInActiveGeneration(GenerationAwareBlobId blobId) {
+            if (blobId.getFamily() == NO_FAMILY) {
+                return !configuration.collectLegacyBlobs();
+            }
+            if (blobId.getFamily() != configuration.getFamily()) {
+                return true;
+            }
+            return blobId.getGeneration() + 1 >= generation(clock.instant());
+        }
+    }
+
+    @VisibleForTesting
+    static GenerationAwareBlobId parse(String id) {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(id));
+
+        List<String> parts = Splitter.on(SEPARATOR).limit(3).splitToList(id);
+        if (parts.size() != 3) {
+            return noGeneration(id);
+        }
+        Integer family = Ints.tryParse(parts.get(0));
+        Long generation = Longs.tryParse(parts.get(1));
+        if (family == null || generation == null || family <= NO_FAMILY || generation < NO_GENERATION || parts.get(2).isEmpty()) {
+            return noGeneration(id);
+        }
+        return new GenerationAwareBlobId(family, generation, parts.get(2));
+    }
+
+    private static GenerationAwareBlobId noGeneration(String id) {
+        return new GenerationAwareBlobId(NO_FAMILY, NO_GENERATION, id);
+    }
+
+    private final int family;
+    private final long generation;
+    private final String delegateId;
+
+    private GenerationAwareBlobId(int family, long generation, String delegateId) {
+        this.family = family;
+        this.generation = generation;
+        this.delegateId = delegateId;
+    }
+
+    public int getFamily() {
+        return family;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public String getDelegateId() {
+        return delegateId;
+    }
+
+    public String asString() {
+        if (family == NO_FAMILY) {
+            return delegateId;
+        }
+        return family + SEPARATOR + generation + SEPARATOR + delegateId;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof GenerationAwareBlobId) {
+            GenerationAwareBlobId that = (GenerationAwareBlobId) o;
+
+            return Objects.equals(this.family, that.family)
+                && Objects.equals(this.generation, that.generation)
+                && Objects.equals(this.delegateId, that.delegateId);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(family, generation, delegateId);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("family", family)
+            .add("generation", generation)
+            .add("delegateId", delegateId)
+            .toString();
+    }
+}
@@ -20,25 +20,17 @@
 package org.apache.james.server.blob.deduplication
 
 import java.io.InputStream
-import java.util.concurrent.Callable
+import java.util.function.Supplier
 import com.google.common.base.Preconditions
 import com.google.common.hash.{Hashing, HashingInputStream}
-import com.google.common.io.{ByteSource, FileBackedOutputStream}
 
 import javax.inject.{Inject, Named}
-import org.apache.commons.io.IOUtils
 import org.apache.james.blob.api.{BlobId, BlobStore, BlobStoreDAO, BucketName}
 import org.reactivestreams.Publisher
-import reactor.core.publisher.Mono
 import reactor.core.scala.publisher.SMono
-import reactor.util.function.{Tuple2, Tuples}
-
-import scala.compat.java8.FunctionConverters._
 
 object DeDuplicationBlobStore {
   val DEFAULT_BUCKET = "defaultBucket"
-  val LAZY_RESOURCE_CLEANUP = false
-  val FILE_THRESHOLD = 10000
 }
 
 class DeDuplicationBlobStore @Inject()(blobStoreDAO: BlobStoreDAO,
@@ -59,25 +51,15 @@ class DeDuplicationBlobStore @Inject()(blobStoreDAO: BlobStoreDAO,
     Preconditions.checkNotNull(bucketName)
     Preconditions.checkNotNull(data)
     val hashingInputStream = new HashingInputStream(Hashing.sha256, data)
-    val sourceSupplier: FileBackedOutputStream => Mono[BlobId] = (fileBackedOutputStream: FileBackedOutputStream) => saveAndGenerateBlobId(bucketName, hashingInputStream, fileBackedOutputStream).asJava()
-    val ressourceSupplier: Callable[FileBackedOutputStream] = () => new FileBackedOutputStream(DeDuplicationBlobStore.FILE_THRESHOLD)
-
-    Mono.using(
-      ressourceSupplier,
-      sourceSupplier.asJava,
-      ((fileBackedOutputStream: FileBackedOutputStream) => fileBackedOutputStream.reset()).asJava,
-      DeDuplicationBlobStore.LAZY_RESOURCE_CLEANUP)
-  }
+    val blobIdSupplier: Supplier[BlobId] = () => blobIdForHash(hashingInputStream.hash.toString)
 
-  private def saveAndGenerateBlobId(bucketName: BucketName, hashingInputStream: HashingInputStream, fileBackedOutputStream: FileBackedOutputStream): SMono[BlobId] =
-    SMono.fromCallable(() => {
-      IOUtils.copy(hashingInputStream, fileBackedOutputStream)
-      Tuples.of(blobIdFactory.from(hashingInputStream.hash.toString), fileBackedOutputStream.asByteSource)
-    })
-      .flatMap((tuple: Tuple2[BlobId, ByteSource]) =>
-        SMono(blobStoreDAO.save(bucketName, tuple.getT1, tuple.getT2))
-          .`then`(SMono.just(tuple.getT1)))
+    blobStoreDAO.save(bucketName, hashingInputStream, blobIdSupplier)
+  }
 
+  private def blobIdForHash(hash: String): BlobId = blobIdFactory match {
+    case generationAwareFactory: GenerationAwareBlobId.Factory => generationAwareFactory.forHash(hash)
+    case _ => blobIdFactory.from(hash)
+  }
 
   override def readBytes(bucketName: BucketName, blobId: BlobId): Publisher[Array[Byte]] = {
     Preconditions.checkNotNull(bucketName)
@@ -85,6 +67,12 @@ class DeDuplicationBlobStore @Inject()(blobStoreDAO: BlobStoreDAO,
     blobStoreDAO.readBytes(bucketName, blobId)
   }
 
+  override def readBytes(bucketName: BucketName, blobId: BlobId, offset: Long, length: Long): Publisher[Array[Byte]] = {
+    Preconditions.checkNotNull(bucketName)
+
+    blobStoreDAO.readBytes(bucketName, blobId, offset, length)
+  }
+
   override def read(bucketName: BucketName, blobId: BlobId): InputStream = {
     Preconditions.checkNotNull(bucketName)
 
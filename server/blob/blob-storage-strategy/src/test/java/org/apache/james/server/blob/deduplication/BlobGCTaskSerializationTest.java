@@ -0,0 +1,75 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Instant;
+
+import org.apache.james.JsonSerializationVerifier;
+import org.apache.james.blob.api.BucketName;
+import org.junit.jupiter.api.Test;
+
+class BlobGCTaskSerializationTest {
+    private static final Instant TIMESTAMP = Instant.parse("2007-12-03T10:15:30.00Z");
+    private static final BucketName BUCKET_NAME = BucketName.of("default");
+
+    @Test
+    void taskShouldBeSerializable() throws Exception {
+        BloomFilterGCAlgorithm gcAlgorithm = mock(BloomFilterGCAlgorithm.class);
+
+        JsonSerializationVerifier.dtoModule(BlobGCTaskDTO.module(gcAlgorithm))
+            .bean(new BlobGCTask(gcAlgorithm, BUCKET_NAME, 1000, 0.02, 10))
+            .json("{" +
+                "  \"type\":\"BlobGCTask\"," +
+                "  \"bucketName\":\"default\"," +
+                "  \"expectedBlobCount\":1000," +
+                "  \"associatedProbability\":0.02," +
+                "  \"deletionsPerSecond\":10" +
+                "}")
+            .equalityTester((a, b) -> {
+                assertThat(a.getBucketName()).isEqualTo(b.getBucketName());
+                assertThat(a.getExpectedBlobCount()).isEqualTo(b.getExpectedBlobCount());
+                assertThat(a.getAssociatedProbability()).isEqualTo(b.getAssociatedProbability());
+                assertThat(a.getDeletionsPerSecond()).isEqualTo(b.getDeletionsPerSecond());
+            })
+            .verify();
+    }
+
+    @Test
+    void additionalInformationShouldBeSerializable() throws Exception {
+        JsonSerializationVerifier.dtoModule(BlobGCTaskAdditionalInformationDTO.module())
+            .bean(new BlobGCTask.AdditionalInformation(BUCKET_NAME, 1, 2, 3, 4, 1000, 0.02, 10, TIMESTAMP))
+            .json("{" +
+                "  \"type\":\"BlobGCTask\"," +
+                "  \"timestamp\":\"2007-12-03T10:15:30Z\"," +
+                "  \"bucketName\":\"default\"," +
+                "  \"referenceSourceCount\":1," +
+                "  \"blobCount\":2," +
+                "  \"gcedBlobCount\":3," +
+                "  \"errorCount\":4," +
+                "  \"bloomFilterExpectedBlobCount\":1000," +
+                "  \"bloomFilterAssociatedProbability\":0.02," +
+                "  \"deletionsPerSecond\":10" +
+                "}")
+            .verify();
+    }
+}
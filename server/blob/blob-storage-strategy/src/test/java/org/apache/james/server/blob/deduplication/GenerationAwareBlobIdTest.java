@@ -0,0 +1,181 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.blob.deduplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class GenerationAwareBlobIdTest {
+    private static final Instant NOW = Instant.parse("2021-01-01T00:00:00.000Z");
+    private static final GenerationAwareBlobId.Configuration CONFIGURATION = new GenerationAwareBlobId.Configuration(Duration.ofDays(30), 1);
+
+    private UpdatableTickingClock clock;
+    private GenerationAwareBlobId.Factory testee;
+
+    @BeforeEach
+    void setUp() {
+        clock = new UpdatableTickingClock(NOW);
+        testee = new GenerationAwareBlobId.Factory(clock, new HashBlobId.Factory(), CONFIGURATION);
+    }
+
+    @Nested
+    class Configuration {
+        @Test
+        void shouldRejectZeroDuration() {
+            assertThatThrownBy(() -> new GenerationAwareBlobId.Configuration(Duration.ZERO, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void shouldRejectNegativeDuration() {
+            assertThatThrownBy(() -> new GenerationAwareBlobId.Configuration(Duration.ofDays(-1), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void shouldRejectZeroFamily() {
+            assertThatThrownBy(() -> new GenerationAwareBlobId.Configuration(Duration.ofDays(1), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void forPayloadShouldPrefixWithFamilyAndGeneration() {
+        BlobId blobId = testee.forPayload("abc".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(blobId.asString())
+            .isEqualTo("1_620_ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+    }
+
+    @Test
+    void forHashShouldPrefixWithFamilyAndGeneration() {
+        assertThat(testee.forHash("abc").asString())
+            .isEqualTo("1_620_abc");
+    }
+
+    @Test
+    void forHashShouldReturnDelegateBlobIds() {
+        assertThat(testee.forHash("abc"))
+            .isEqualTo(new HashBlobId.Factory().from("1_620_abc"));
+    }
+
+    @Test
+    void fromShouldNotAlterTheId() {
+        assertThat(testee.from("1_620_abc").asString())
+            .isEqualTo("1_620_abc");
+    }
+
+    @Test
+    void parseShouldRetrieveFamilyAndGeneration() {
+        GenerationAwareBlobId parsed = GenerationAwareBlobId.parse("2_36_abc");
+
+        assertThat(parsed.getFamily()).isEqualTo(2);
+        assertThat(parsed.getGeneration()).isEqualTo(36);
+        assertThat(parsed.getDelegateId()).isEqualTo("abc");
+    }
+
+    @Test
+    void parseShouldKeepSeparatorsOfTheDelegateId() {
+        assertThat(GenerationAwareBlobId.parse("2_36_abc_def").getDelegateId())
+            .isEqualTo("abc_def");
+    }
+
+    @Test
+    void parseShouldFallbackToNoGenerationForLegacyIds() {
+        GenerationAwareBlobId parsed = GenerationAwareBlobId.parse("abc");
+
+        assertThat(parsed.getFamily()).isEqualTo(0);
+        assertThat(parsed.getDelegateId()).isEqualTo("abc");
+    }
+
+    @Test
+    void parseShouldFallbackToNoGenerationWhenNotNumeric() {
+        assertThat(GenerationAwareBlobId.parse("a_b_c").getFamily())
+            .isEqualTo(0);
+    }
+
+    @Test
+    void parseShouldFallbackToNoGenerationWhenEmptyDelegate() {
+        assertThat(GenerationAwareBlobId.parse("1_2_").getFamily())
+            .isEqualTo(0);
+    }
+
+    @Test
+    void asStringShouldBeTheReverseOfParse() {
+        assertThat(GenerationAwareBlobId.parse("1_620_abc").asString()).isEqualTo("1_620_abc");
+        assertThat(GenerationAwareBlobId.parse("abc").asString()).isEqualTo("abc");
+    }
+
+    @Test
+    void currentGenerationShouldBeActive() {
+        assertThat(testee.isInActiveGeneration(testee.parse(testee.forHash("abc"))))
+            .isTrue();
+    }
+
+    @Test
+    void previousGenerationShouldBeActive() {
+        BlobId blobId = testee.forHash("abc");
+        clock.setInstant(NOW.plus(Duration.ofDays(30)));
+
+        assertThat(testee.isInActiveGeneration(testee.parse(blobId)))
+            .isTrue();
+    }
+
+    @Test
+    void olderGenerationsShouldBeInactive() {
+        BlobId blobId = testee.forHash("abc");
+        clock.setInstant(NOW.plus(Duration.ofDays(60)));
+
+        assertThat(testee.isInActiveGeneration(testee.parse(blobId)))
+            .isFalse();
+    }
+
+    @Test
+    void legacyBlobIdsShouldBeActiveByDefault() {
+        assertThat(testee.isInActiveGeneration(testee.parse(new HashBlobId.Factory().from("abc"))))
+            .isTrue();
+    }
+
+    @Test
+    void legacyBlobIdsShouldBeInactiveWhenCollectingLegacyBlobs() {
+        GenerationAwareBlobId.Factory collectingFactory = new GenerationAwareBlobId.Factory(clock, new HashBlobId.Factory(),
+            new GenerationAwareBlobId.Configuration(Duration.ofDays(30), 1, true));
+
+        assertThat(collectingFactory.isInActiveGeneration(collectingFactory.parse(new HashBlobId.Factory().from("abc"))))
+            .isFalse();
+    }
+
+    @Test
+    void otherFamiliesShouldBeConsideredActive() {
+        assertThat(testee.isInActiveGeneration(testee.parse(new HashBlobId.Factory().from("2_1_abc"))))
+            .isTrue();
+    }
+}
@@ -0,0 +1,102 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.mail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link OutputStream} splitting a written message into its headers and its body.
+ * <p/>
+ * Everything up to, and including, the first empty line (<code>CRLF CRLF</code>) is written to the header
+ * {@link OutputStream}, the remaining bytes are written to the body {@link OutputStream}. This mirrors the body offset
+ * computed by {@link org.apache.james.util.io.BodyOffsetInputStream}.
+ * <p/>
+ * IMPORTANT: This class is not thread-safe!
+ */
+class HeaderBodySplittingOutputStream extends OutputStream {
+    private static final int HEADER_BODY_SEPARATOR = 0x0D0A0D0A;
+
+    private final OutputStream headerOutputStream;
+    private final OutputStream bodyOutputStream;
+    private int lastBytes;
+    private boolean inBody;
+
+    HeaderBodySplittingOutputStream(OutputStream headerOutputStream, OutputStream bodyOutputStream) {
+        this.headerOutputStream = headerOutputStream;
+        this.bodyOutputStream = bodyOutputStream;
+        this.lastBytes = 0;
+        this.inBody = false;
+    }
+
+    /**
+     * @return <code>true</code> if the end of the headers was reached
+     */
+    boolean isInBody() {
+        return inBody;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (inBody) {
+            bodyOutputStream.write(b);
+            return;
+        }
+        headerOutputStream.write(b);
+        trackHeaderEnd((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        int headerLength = 0;
+        while (!inBody && headerLength < length) {
+            trackHeaderEnd(bytes[offset + headerLength]);
+            headerLength++;
+        }
+        if (headerLength > 0) {
+            headerOutputStream.write(bytes, offset, headerLength);
+        }
+        if (headerLength < length) {
+            bodyOutputStream.write(bytes, offset + headerLength, length - headerLength);
+        }
+    }
+
+    private void trackHeaderEnd(byte b) {
+        lastBytes = (lastBytes << Byte.SIZE) | (b & 0xFF);
+        if (lastBytes == HEADER_BODY_SEPARATOR) {
+            inBody = true;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        headerOutputStream.flush();
+        bodyOutputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            headerOutputStream.close();
+        } finally {
+            bodyOutputStream.close();
+        }
+    }
+}
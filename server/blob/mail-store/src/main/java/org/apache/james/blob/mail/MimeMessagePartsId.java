@@ -24,6 +24,7 @@ import static org.apache.james.blob.api.BlobStore.StoragePolicy.SIZE_BASED;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobPartsId;
@@ -46,6 +47,7 @@ public class MimeMessagePartsId implements BlobPartsId {
     public static class Builder {
         private final BlobId headerBlobId;
         private final BlobId bodyBlobId;
+        private Optional<Long> bodySize;
 
         private Builder(BlobId headerBlobId, BlobId bodyBlobId) {
             Preconditions.checkNotNull(headerBlobId, "'headerBlobId' should not be null");
@@ -53,10 +55,23 @@ public class MimeMessagePartsId implements BlobPartsId {
 
             this.headerBlobId = headerBlobId;
             this.bodyBlobId = bodyBlobId;
+            this.bodySize = Optional.empty();
+        }
+
+        public Builder bodySize(long bodySize) {
+            Preconditions.checkArgument(bodySize >= 0, "'bodySize' should not be negative");
+
+            this.bodySize = Optional.of(bodySize);
+            return this;
+        }
+
+        public Builder bodySize(Optional<Long> bodySize) {
+            bodySize.ifPresent(this::bodySize);
+            return this;
         }
 
         public MimeMessagePartsId build() {
-            return new MimeMessagePartsId(headerBlobId, bodyBlobId);
+            return new MimeMessagePartsId(headerBlobId, bodyBlobId, bodySize);
         }
     }
 
@@ -67,14 +82,23 @@ public class MimeMessagePartsId implements BlobPartsId {
     public static class Factory implements BlobPartsId.Factory<MimeMessagePartsId> {
         @Override
         public MimeMessagePartsId generate(Map<BlobType, BlobId> map) {
+            return builder(map).build();
+        }
+
+        public MimeMessagePartsId generate(Map<BlobType, BlobId> map, long bodySize) {
+            return builder(map)
+                .bodySize(bodySize)
+                .build();
+        }
+
+        private Builder builder(Map<BlobType, BlobId> map) {
             Preconditions.checkArgument(map.containsKey(HEADER_BLOB_TYPE), "Expecting 'mailHeader' blobId to be specified");
             Preconditions.checkArgument(map.containsKey(BODY_BLOB_TYPE), "Expecting 'mailBody' blobId to be specified");
             Preconditions.checkArgument(map.size() == 2, "blobId other than 'mailHeader' or 'mailBody' are not supported");
 
             return builder()
                 .headerBlobId(map.get(HEADER_BLOB_TYPE))
-                .bodyBlobId(map.get(BODY_BLOB_TYPE))
-                .build();
+                .bodyBlobId(map.get(BODY_BLOB_TYPE));
         }
     }
 
@@ -83,10 +107,12 @@ public class MimeMessagePartsId implements BlobPartsId {
 
     private final BlobId headerBlobId;
     private final BlobId bodyBlobId;
+    private final Optional<Long> bodySize;
 
-    private MimeMessagePartsId(BlobId headerBlobId, BlobId bodyBlobId) {
+    private MimeMessagePartsId(BlobId headerBlobId, BlobId bodyBlobId, Optional<Long> bodySize) {
         this.headerBlobId = headerBlobId;
         this.bodyBlobId = bodyBlobId;
+        this.bodySize = bodySize;
     }
 
     @Override
@@ -104,6 +130,16 @@ public class MimeMessagePartsId implements BlobPartsId {
         return bodyBlobId;
     }
 
+    /**
+     * @return the size of the body blob when known, allowing to compute the message size without reading it
+     */
+    public Optional<Long> getBodySize() {
+        return bodySize;
+    }
+
+    /**
+     * The body size is derived from the body blob, hence not part of the identity.
+     */
     @Override
     public final boolean equals(Object o) {
         if (o instanceof MimeMessagePartsId) {
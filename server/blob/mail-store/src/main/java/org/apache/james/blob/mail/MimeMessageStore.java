@@ -19,7 +19,6 @@
 
 package org.apache.james.blob.mail;
 
-import static org.apache.commons.io.output.NullOutputStream.NULL_OUTPUT_STREAM;
 import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
 import static org.apache.james.blob.api.BlobStore.StoragePolicy.SIZE_BASED;
 import static org.apache.james.blob.mail.MimeMessagePartsId.BODY_BLOB_TYPE;
@@ -30,8 +29,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
-import java.nio.ByteBuffer;
-import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.stream.Stream;
 
@@ -42,13 +40,22 @@ import javax.mail.internet.MimeMessage;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.BlobType;
+import org.apache.james.blob.api.BucketName;
 import org.apache.james.blob.api.Store;
-import org.apache.james.util.io.BodyOffsetInputStream;
+import org.apache.james.server.core.MimeMessageSource;
+import org.apache.james.server.core.MimeMessageWrapper;
+import org.reactivestreams.Publisher;
 
+import com.github.fge.lambdas.Throwing;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.io.FileBackedOutputStream;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 public class MimeMessageStore {
 
@@ -61,92 +68,240 @@ public class MimeMessageStore {
         }
 
         public Store<MimeMessage, MimeMessagePartsId> mimeMessageStore() {
-            return new Store.Impl<>(
-                new MimeMessagePartsId.Factory(),
-                new MimeMessageEncoder(),
-                new MimeMessageDecoder(),
-                blobStore);
+            return new MimeMessagePartsStore(blobStore);
+        }
+    }
+
+    /**
+     * Stores the headers and the body of a {@link MimeMessage} in two distinct blobs.
+     *
+     * Read messages are lazily loaded: only the header blob is read upfront, the body blob being read the first time
+     * the body of the message is accessed. Hence the body of a read message should be accessed before its blobs
+     * get deleted. The size of the body is kept in the {@link MimeMessagePartsId} so that the message size can be
+     * computed without reading it.
+     */
+    static class MimeMessagePartsStore implements Store<MimeMessage, MimeMessagePartsId> {
+        private final BlobStore blobStore;
+        private final MimeMessagePartsId.Factory idFactory;
+        private final MimeMessageEncoder encoder;
+        private final MimeMessageDecoder decoder;
+
+        MimeMessagePartsStore(BlobStore blobStore) {
+            this.blobStore = blobStore;
+            this.idFactory = new MimeMessagePartsId.Factory();
+            this.encoder = new MimeMessageEncoder();
+            this.decoder = new MimeMessageDecoder(blobStore);
+        }
+
+        @Override
+        public Mono<MimeMessagePartsId> save(MimeMessage message) {
+            Preconditions.checkNotNull(message);
+
+            return Mono.fromCallable(() -> encoder.split(message))
+                .flatMap(encoded -> Flux.fromStream(encoded.getEntries())
+                    .flatMapSequential(this::saveEntry)
+                    .collectMap(Tuple2::getT1, Tuple2::getT2)
+                    .map(blobIds -> idFactory.generate(blobIds, encoded.getBodySize())));
+        }
+
+        private Mono<Tuple2<BlobType, BlobId>> saveEntry(Pair<BlobType, Store.Impl.ValueToSave> entry) {
+            return Mono.just(entry.getLeft())
+                .zipWith(entry.getRight().saveIn(blobStore.getDefaultBucketName(), blobStore));
+        }
+
+        @Override
+        public Mono<MimeMessage> read(MimeMessagePartsId partsId) {
+            Preconditions.checkNotNull(partsId);
+
+            return Mono.from(blobStore.readBytes(blobStore.getDefaultBucketName(), partsId.getHeaderBlobId(), HEADER_BLOB_TYPE.getStoragePolicy()))
+                .map(headerBytes -> decoder.decode(partsId, headerBytes));
+        }
+
+        @Override
+        public Publisher<Void> delete(MimeMessagePartsId partsId) {
+            return Flux.fromIterable(partsId.asMap().values())
+                .flatMap(id -> blobStore.delete(blobStore.getDefaultBucketName(), id), Store.Impl.DEFAULT_CONCURRENCY)
+                .then();
         }
     }
 
+    /**
+     * Splits the message in a single pass while writing it.
+     *
+     * Headers are small and kept in memory, the body is spooled to a temporary file past {@link #FILE_THRESHOLD}
+     * bytes, then streamed to the {@link BlobStore}.
+     */
     static class MimeMessageEncoder implements Store.Impl.Encoder<MimeMessage> {
+        private static final int FILE_THRESHOLD = 100 * 1024;
+
+        static class EncodedMimeMessage {
+            private final Stream<Pair<BlobType, Store.Impl.ValueToSave>> entries;
+            private final long bodySize;
+
+            EncodedMimeMessage(Stream<Pair<BlobType, Store.Impl.ValueToSave>> entries, long bodySize) {
+                this.entries = entries;
+                this.bodySize = bodySize;
+            }
+
+            Stream<Pair<BlobType, Store.Impl.ValueToSave>> getEntries() {
+                return entries;
+            }
+
+            long getBodySize() {
+                return bodySize;
+            }
+        }
+
         @Override
         public Stream<Pair<BlobType, Store.Impl.ValueToSave>> encode(MimeMessage message) {
+            return split(message).getEntries();
+        }
+
+        EncodedMimeMessage split(MimeMessage message) {
+            ByteArrayOutputStream headerOutputStream = new ByteArrayOutputStream();
+            FileBackedOutputStream bodyOutputStream = new FileBackedOutputStream(FILE_THRESHOLD);
             try {
-                byte[] messageAsArray = messageToArray(message);
-                int bodyStartOctet = computeBodyStartOctet(messageAsArray);
-                byte[] headerBytes = getHeaderBytes(messageAsArray, bodyStartOctet);
-                byte[] bodyBytes = getBodyBytes(messageAsArray, bodyStartOctet);
-                return Stream.of(
-                    Pair.of(HEADER_BLOB_TYPE, new Store.Impl.BytesToSave(headerBytes, SIZE_BASED)),
-                    Pair.of(BODY_BLOB_TYPE, new Store.Impl.BytesToSave(bodyBytes, LOW_COST)));
+                HeaderBodySplittingOutputStream outputStream = new HeaderBodySplittingOutputStream(headerOutputStream, bodyOutputStream);
+                try (outputStream) {
+                    message.writeTo(outputStream);
+                }
+
+                if (!outputStream.isInBody()) {
+                    // No header separator: the whole content is considered as the body
+                    bodyOutputStream.reset();
+                    byte[] body = headerOutputStream.toByteArray();
+                    return new EncodedMimeMessage(Stream.of(
+                            Pair.of(HEADER_BLOB_TYPE, new Store.Impl.BytesToSave(new byte[] {}, SIZE_BASED)),
+                            Pair.of(BODY_BLOB_TYPE, new Store.Impl.BytesToSave(body, LOW_COST))),
+                        body.length);
+                }
+                return new EncodedMimeMessage(Stream.of(
+                        Pair.of(HEADER_BLOB_TYPE, new Store.Impl.BytesToSave(headerOutputStream.toByteArray(), SIZE_BASED)),
+                        Pair.of(BODY_BLOB_TYPE, new SpooledBytesToSave(bodyOutputStream, LOW_COST))),
+                    bodyOutputStream.asByteSource().size());
             } catch (MessagingException | IOException e) {
+                reset(bodyOutputStream);
                 throw new RuntimeException(e);
             }
         }
-        
-        private static byte[] messageToArray(MimeMessage message) throws IOException, MessagingException {
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            message.writeTo(byteArrayOutputStream);
-            return byteArrayOutputStream.toByteArray();
-        }
-
-        private static byte[] getHeaderBytes(byte[] messageContentAsArray, int bodyStartOctet) {
-            ByteBuffer headerContent = ByteBuffer.wrap(messageContentAsArray, 0, bodyStartOctet);
-            byte[] headerBytes = new byte[bodyStartOctet];
-            headerContent.get(headerBytes);
-            return headerBytes;
-        }
-
-        private static byte[] getBodyBytes(byte[] messageContentAsArray, int bodyStartOctet) {
-            if (bodyStartOctet < messageContentAsArray.length) {
-                ByteBuffer bodyContent = ByteBuffer.wrap(messageContentAsArray,
-                    bodyStartOctet,
-                    messageContentAsArray.length - bodyStartOctet);
-                byte[] bodyBytes = new byte[messageContentAsArray.length - bodyStartOctet];
-                bodyContent.get(bodyBytes);
-                return bodyBytes;
-            } else {
-                return new byte[] {};
+
+        private static void reset(FileBackedOutputStream fileBackedOutputStream) {
+            try {
+                fileBackedOutputStream.reset();
+            } catch (IOException e) {
+                // ignore exception during cleanup
             }
         }
+    }
 
-        private static int computeBodyStartOctet(byte[] messageAsArray) throws IOException {
-            try (BodyOffsetInputStream bodyOffsetInputStream =
-                     new BodyOffsetInputStream(new ByteArrayInputStream(messageAsArray))) {
-                consume(bodyOffsetInputStream);
+    /**
+     * Saves the content of a {@link FileBackedOutputStream}, then releases it.
+     */
+    static class SpooledBytesToSave implements Store.Impl.ValueToSave {
+        private final FileBackedOutputStream content;
+        private final BlobStore.StoragePolicy storagePolicy;
 
-                if (bodyOffsetInputStream.getBodyStartOffset() == -1) {
-                    return 0;
-                }
-                return (int) bodyOffsetInputStream.getBodyStartOffset();
-            }
+        SpooledBytesToSave(FileBackedOutputStream content, BlobStore.StoragePolicy storagePolicy) {
+            this.content = content;
+            this.storagePolicy = storagePolicy;
         }
 
-        private static void consume(InputStream in) throws IOException {
-            IOUtils.copy(in, NULL_OUTPUT_STREAM);
+        @Override
+        public Mono<BlobId> saveIn(BucketName bucketName, BlobStore blobStore) {
+            return Mono.using(
+                    () -> content.asByteSource().openStream(),
+                    stream -> Mono.from(blobStore.save(bucketName, stream, storagePolicy)),
+                    IOUtils::closeQuietly)
+                .doFinally(Throwing.consumer(any -> content.reset()));
         }
     }
 
-    static class MimeMessageDecoder implements Store.Impl.Decoder<MimeMessage> {
+    static class MimeMessageDecoder {
+        private final BlobStore blobStore;
+
+        MimeMessageDecoder(BlobStore blobStore) {
+            this.blobStore = blobStore;
+        }
+
+        MimeMessage decode(MimeMessagePartsId partsId, byte[] headerBytes) {
+            return new MimeMessageWrapper(Session.getInstance(new Properties()),
+                new LazyBodyMimeMessageSource(blobStore, partsId, headerBytes));
+        }
+    }
+
+    /**
+     * {@link MimeMessageSource} reading the header blob from memory, and the body blob only once reached.
+     *
+     * {@link MimeMessageWrapper} only reads the headers of its source until the body is accessed.
+     */
+    static class LazyBodyMimeMessageSource extends MimeMessageSource {
+        private final BlobStore blobStore;
+        private final MimeMessagePartsId partsId;
+        private final byte[] headerBytes;
+        private Long messageSize;
+
+        LazyBodyMimeMessageSource(BlobStore blobStore, MimeMessagePartsId partsId, byte[] headerBytes) {
+            this.blobStore = blobStore;
+            this.partsId = partsId;
+            this.headerBytes = headerBytes;
+        }
+
         @Override
-        public MimeMessage decode(Stream<Pair<BlobType, byte[]>> streams) {
-            Preconditions.checkNotNull(streams);
-            Map<BlobType,byte[]> pairs = streams.collect(ImmutableMap.toImmutableMap(Pair::getLeft, Pair::getRight));
-            Preconditions.checkArgument(pairs.containsKey(HEADER_BLOB_TYPE));
-            Preconditions.checkArgument(pairs.containsKey(BODY_BLOB_TYPE));
+        public String getSourceId() {
+            return partsId.getHeaderBlobId().asString() + "-" + partsId.getBodyBlobId().asString();
+        }
 
-            return toMimeMessage(
-                new SequenceInputStream(
-                    new ByteArrayInputStream(pairs.get(HEADER_BLOB_TYPE)),
-                    new ByteArrayInputStream(pairs.get(BODY_BLOB_TYPE))));
+        @Override
+        public InputStream getInputStream() {
+            return new SequenceInputStream(new ByteArrayInputStream(headerBytes), new LazyBodyInputStream());
         }
 
-        private MimeMessage toMimeMessage(InputStream inputStream) {
-            try {
-                return new MimeMessage(Session.getInstance(new Properties()), inputStream);
-            } catch (MessagingException e) {
-                throw new RuntimeException(e);
+        @Override
+        public synchronized long getMessageSize() throws IOException {
+            Optional<Long> bodySize = partsId.getBodySize();
+            if (bodySize.isPresent()) {
+                return headerBytes.length + bodySize.get();
+            }
+            // Computing the size requires reading the body: do it only once
+            if (messageSize == null) {
+                messageSize = super.getMessageSize();
+            }
+            return messageSize;
+        }
+
+        private class LazyBodyInputStream extends InputStream {
+            private InputStream body;
+
+            private InputStream body() {
+                if (body == null) {
+                    body = blobStore.read(blobStore.getDefaultBucketName(), partsId.getBodyBlobId(), BODY_BLOB_TYPE.getStoragePolicy());
+                }
+                return body;
+            }
+
+            @Override
+            public int read() throws IOException {
+                return body().read();
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                return body().read(bytes, offset, length);
+            }
+
+            @Override
+            public int available() throws IOException {
+                if (body == null) {
+                    return 0;
+                }
+                return body.available();
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (body != null) {
+                    body.close();
+                }
             }
         }
     }
@@ -0,0 +1,77 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HeaderBodySplittingOutputStreamTest {
+    private ByteArrayOutputStream headers;
+    private ByteArrayOutputStream body;
+    private HeaderBodySplittingOutputStream testee;
+
+    @BeforeEach
+    void setUp() {
+        headers = new ByteArrayOutputStream();
+        body = new ByteArrayOutputStream();
+        testee = new HeaderBodySplittingOutputStream(headers, body);
+    }
+
+    @Test
+    void writeShouldSplitHeadersAndBody() throws Exception {
+        testee.write("Subject: test\r\n\r\nbody\r\n\r\nend".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(testee.isInBody()).isTrue();
+        assertThat(headers.toString(StandardCharsets.UTF_8)).isEqualTo("Subject: test\r\n\r\n");
+        assertThat(body.toString(StandardCharsets.UTF_8)).isEqualTo("body\r\n\r\nend");
+    }
+
+    @Test
+    void writeShouldDetectSeparatorSpanningSeveralWrites() throws Exception {
+        testee.write("Subject: test\r\n\r".getBytes(StandardCharsets.UTF_8));
+        testee.write('\n');
+        testee.write("body".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(headers.toString(StandardCharsets.UTF_8)).isEqualTo("Subject: test\r\n\r\n");
+        assertThat(body.toString(StandardCharsets.UTF_8)).isEqualTo("body");
+    }
+
+    @Test
+    void writeShouldKeepEverythingInHeadersWhenNoSeparator() throws Exception {
+        testee.write("Subject: test\r\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(testee.isInBody()).isFalse();
+        assertThat(headers.toString(StandardCharsets.UTF_8)).isEqualTo("Subject: test\r\n");
+        assertThat(body.size()).isZero();
+    }
+
+    @Test
+    void writeShouldSupportEmptyBody() throws Exception {
+        testee.write("Subject: test\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(testee.isInBody()).isTrue();
+        assertThat(body.size()).isZero();
+    }
+}
@@ -34,11 +34,14 @@ import org.apache.james.blob.api.ObjectNotFoundException;
 import org.apache.james.blob.api.Store;
 import org.apache.james.blob.memory.MemoryBlobStoreFactory;
 import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.server.core.MimeMessageWrapper;
 import org.apache.james.util.MimeMessageUtil;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.base.Strings;
+
 import reactor.core.publisher.Mono;
 
 class MimeMessageStoreTest {
@@ -129,6 +132,77 @@ class MimeMessageStoreTest {
             .isEqualTo(MimeMessageUtil.asString(message));
     }
 
+    @Test
+    void mailStoreShouldPreserveLargeContent() throws Exception {
+        MimeMessage message = MimeMessageBuilder.mimeMessageBuilder()
+            .addFrom("any@any.com")
+            .addToRecipient("toddy@any.com")
+            .setSubject("Important Mail")
+            .setText(Strings.repeat("Important mail content\r\n", 20 * 1024))
+            .build();
+
+        MimeMessagePartsId parts = testee.save(message).block();
+
+        MimeMessage retrievedMessage = testee.read(parts).block();
+
+        assertThat(MimeMessageUtil.asString(retrievedMessage))
+            .isEqualTo(MimeMessageUtil.asString(message));
+    }
+
+    @Test
+    void readShouldNotLoadBodyUntilItIsAccessed() throws Exception {
+        MimeMessage message = MimeMessageBuilder.mimeMessageBuilder()
+            .addFrom("any@any.com")
+            .addToRecipient("toddy@any.com")
+            .setSubject("Important Mail")
+            .setText("Important mail content")
+            .build();
+
+        MimeMessagePartsId parts = testee.save(message).block();
+        MimeMessage retrievedMessage = testee.read(parts).block();
+        Mono.from(blobStore.delete(blobStore.getDefaultBucketName(), parts.getBodyBlobId())).block();
+
+        assertThat(retrievedMessage.getSubject()).isEqualTo("Important Mail");
+        assertThatThrownBy(() -> MimeMessageUtil.asString(retrievedMessage))
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    void readMessageSizeShouldNotLoadBody() throws Exception {
+        MimeMessage message = MimeMessageBuilder.mimeMessageBuilder()
+            .addFrom("any@any.com")
+            .addToRecipient("toddy@any.com")
+            .setSubject("Important Mail")
+            .setText("Important mail content")
+            .build();
+
+        MimeMessagePartsId parts = testee.save(message).block();
+        long expectedSize = MimeMessageUtil.asString(testee.read(parts).block()).getBytes(StandardCharsets.UTF_8).length;
+        MimeMessage retrievedMessage = testee.read(parts).block();
+        Mono.from(blobStore.delete(blobStore.getDefaultBucketName(), parts.getBodyBlobId())).block();
+
+        assertThat(((MimeMessageWrapper) retrievedMessage).getMessageSize()).isEqualTo(expectedSize);
+    }
+
+    @Test
+    void readMessageSizeShouldFallbackToTheBodyWhenItsSizeIsUnknown() throws Exception {
+        MimeMessage message = MimeMessageBuilder.mimeMessageBuilder()
+            .addFrom("any@any.com")
+            .addToRecipient("toddy@any.com")
+            .setSubject("Important Mail")
+            .setText("Important mail content")
+            .build();
+
+        MimeMessagePartsId parts = testee.save(message).block();
+        long expectedSize = MimeMessageUtil.asString(testee.read(parts).block()).getBytes(StandardCharsets.UTF_8).length;
+        MimeMessagePartsId partsWithoutBodySize = MimeMessagePartsId.builder()
+            .headerBlobId(parts.getHeaderBlobId())
+            .bodyBlobId(parts.getBodyBlobId())
+            .build();
+
+        assertThat(((MimeMessageWrapper) testee.read(partsWithoutBodySize).block()).getMessageSize()).isEqualTo(expectedSize);
+    }
+
     @Test
     void saveShouldSeparateHeadersAndBodyInDifferentBlobs() throws Exception {
         MimeMessage message = MimeMessageBuilder.mimeMessageBuilder()
@@ -28,6 +28,7 @@ import org.apache.james.modules.blobstore.BlobStoreConfiguration;
 import org.apache.james.modules.blobstore.BlobStoreModulesChooser;
 import org.apache.james.modules.event.JMAPEventBusModule;
 import org.apache.james.modules.event.RabbitMQEventBusModule;
+import org.apache.james.modules.event.RecipientRewriteTableEventBusModule;
 import org.apache.james.modules.queue.rabbitmq.RabbitMQModule;
 import org.apache.james.modules.server.JMXServerModule;
 import org.apache.james.modules.server.RabbitMailQueueRoutesModule;
@@ -43,6 +44,7 @@ public class CassandraRabbitMQJamesServerMain implements JamesServerMain {
                 new RabbitMailQueueRoutesModule(),
                 new JMAPEventBusModule(),
                 new RabbitMQEventBusModule(),
+                new RecipientRewriteTableEventBusModule(),
                 new DistributedTaskSerializationModule());
 
     public static void main(String[] args) throws Exception {
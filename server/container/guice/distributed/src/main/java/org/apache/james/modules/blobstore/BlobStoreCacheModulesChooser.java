@@ -21,6 +21,7 @@ package org.apache.james.modules.blobstore;
 
 import java.io.FileNotFoundException;
 import java.util.List;
+import java.util.Optional;
 
 import javax.inject.Named;
 
@@ -35,6 +36,10 @@ import org.apache.james.blob.cassandra.cache.CachedBlobStore;
 import org.apache.james.blob.cassandra.cache.CassandraBlobCacheModule;
 import org.apache.james.blob.cassandra.cache.CassandraBlobStoreCache;
 import org.apache.james.blob.cassandra.cache.CassandraCacheConfiguration;
+import org.apache.james.blob.cassandra.cache.LocalBlobStoreCache;
+import org.apache.james.blob.cassandra.cache.LocalCacheConfiguration;
+import org.apache.james.blob.cassandra.cache.TieredBlobStoreCache;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.modules.mailbox.CassandraCacheSessionModule;
 import org.apache.james.modules.mailbox.ConfigurationComponent;
 import org.apache.james.utils.PropertiesProvider;
@@ -66,7 +71,6 @@ public class BlobStoreCacheModulesChooser {
         @Override
         protected void configure() {
             bind(CassandraBlobStoreCache.class).in(Scopes.SINGLETON);
-            bind(BlobStoreCache.class).to(CassandraBlobStoreCache.class);
 
             Multibinder.newSetBinder(binder(), CassandraModule.class, Names.named(InjectionNames.CACHE))
                 .addBinding()
@@ -80,6 +84,28 @@ public class BlobStoreCacheModulesChooser {
             return cachedBlobStore;
         }
 
+        @Provides
+        @Singleton
+        BlobStoreCache provideBlobStoreCache(CassandraBlobStoreCache cassandraBlobStoreCache,
+                                             PropertiesProvider propertiesProvider,
+                                             MetricFactory metricFactory) throws ConfigurationException {
+            return localCacheConfiguration(propertiesProvider)
+                .<BlobStoreCache>map(configuration -> new TieredBlobStoreCache(
+                    new LocalBlobStoreCache(configuration, metricFactory),
+                    cassandraBlobStoreCache))
+                .orElse(cassandraBlobStoreCache);
+        }
+
+        private Optional<LocalCacheConfiguration> localCacheConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+            try {
+                Configuration configuration = propertiesProvider.getConfigurations(ConfigurationComponent.NAMES);
+                return LocalCacheConfiguration.from(configuration);
+            } catch (FileNotFoundException e) {
+                LOGGER.warn("Could not find " + ConfigurationComponent.NAME + " configuration file, local cache is disabled");
+                return Optional.empty();
+            }
+        }
+
         @Provides
         @Singleton
         CassandraCacheConfiguration providesCacheConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
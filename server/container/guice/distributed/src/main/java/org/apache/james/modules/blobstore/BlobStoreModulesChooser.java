@@ -36,7 +36,6 @@ import org.apache.james.modules.mailbox.CassandraBlobStoreDependenciesModule;
 import org.apache.james.modules.mailbox.CassandraBucketModule;
 import org.apache.james.modules.objectstorage.DefaultBucketModule;
 import org.apache.james.modules.objectstorage.S3BlobStoreModule;
-import org.apache.james.server.blob.deduplication.DeDuplicationBlobStore;
 import org.apache.james.server.blob.deduplication.PassThroughBlobStore;
 import org.apache.james.server.blob.deduplication.StorageStrategy;
 
@@ -114,9 +113,7 @@ public class BlobStoreModulesChooser {
     private static Module chooseStoragePolicyModule(StorageStrategy storageStrategy) {
         switch (storageStrategy) {
             case DEDUPLICATION:
-                return binder -> binder.bind(BlobStore.class)
-                    .annotatedWith(Names.named(CachedBlobStore.BACKEND))
-                    .to(DeDuplicationBlobStore.class);
+                return new DeDuplicationBlobStoreModule();
             case PASSTHROUGH:
                 return binder -> binder.bind(BlobStore.class)
                     .annotatedWith(Names.named(CachedBlobStore.BACKEND))
@@ -0,0 +1,102 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.blobstore;
+
+import java.io.FileNotFoundException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import javax.inject.Named;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobReferenceSource;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BlobStoreDAO;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.cassandra.cache.CachedBlobStore;
+import org.apache.james.modules.mailbox.ConfigurationComponent;
+import org.apache.james.modules.server.BlobRoutesModule;
+import org.apache.james.server.blob.deduplication.DeDuplicationBlobStore;
+import org.apache.james.server.blob.deduplication.GenerationAwareBlobId;
+import org.apache.james.util.DurationParser;
+import org.apache.james.utils.PropertiesProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.multibindings.Multibinder;
+
+public class DeDuplicationBlobStoreModule extends AbstractModule {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeDuplicationBlobStoreModule.class);
+    private static final String GENERATION_DURATION_PROPERTY = "deduplication.gc.generation.duration";
+    private static final String GENERATION_FAMILY_PROPERTY = "deduplication.gc.generation.family";
+    private static final String COLLECT_LEGACY_BLOBS_PROPERTY = "deduplication.gc.legacy.enabled";
+
+    @VisibleForTesting
+    static GenerationAwareBlobId.Configuration parse(Configuration configuration) {
+        Duration duration = Optional.ofNullable(configuration.getString(GENERATION_DURATION_PROPERTY, null))
+            .map(value -> DurationParser.parse(value, ChronoUnit.DAYS))
+            .orElse(GenerationAwareBlobId.Configuration.DEFAULT_DURATION);
+        int family = configuration.getInt(GENERATION_FAMILY_PROPERTY, GenerationAwareBlobId.Configuration.DEFAULT_FAMILY);
+        boolean collectLegacyBlobs = configuration.getBoolean(COLLECT_LEGACY_BLOBS_PROPERTY, GenerationAwareBlobId.Configuration.DEFAULT_COLLECT_LEGACY_BLOBS);
+
+        return new GenerationAwareBlobId.Configuration(duration, family, collectLegacyBlobs);
+    }
+
+    @Override
+    protected void configure() {
+        Multibinder.newSetBinder(binder(), BlobReferenceSource.class);
+
+        install(new BlobRoutesModule());
+    }
+
+    @Provides
+    @Singleton
+    GenerationAwareBlobId.Configuration provideGenerationConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            return parse(propertiesProvider.getConfigurations(ConfigurationComponent.NAMES));
+        } catch (FileNotFoundException e) {
+            LOGGER.warn("Could not find " + ConfigurationComponent.NAME + " configuration file, using default blob generation configuration");
+            return GenerationAwareBlobId.Configuration.DEFAULT;
+        }
+    }
+
+    @Provides
+    @Singleton
+    GenerationAwareBlobId.Factory provideGenerationAwareBlobIdFactory(BlobId.Factory blobIdFactory, GenerationAwareBlobId.Configuration configuration) {
+        return new GenerationAwareBlobId.Factory(Clock.systemUTC(), blobIdFactory, configuration);
+    }
+
+    @Provides
+    @Singleton
+    @Named(CachedBlobStore.BACKEND)
+    BlobStore provideDeDuplicationBlobStore(BlobStoreDAO blobStoreDAO,
+                                            @Named("defaultBucket") BucketName defaultBucketName,
+                                            GenerationAwareBlobId.Factory blobIdFactory) {
+        return new DeDuplicationBlobStore(blobStoreDAO, defaultBucketName, blobIdFactory);
+    }
+}
@@ -19,22 +19,32 @@
 
 package org.apache.james.modules.event;
 
+import javax.inject.Named;
+
+import org.apache.commons.configuration2.Configuration;
 import org.apache.james.backends.rabbitmq.SimpleConnectionPool;
 import org.apache.james.event.json.MailboxEventSerializer;
 import org.apache.james.events.EventBus;
 import org.apache.james.events.EventBusId;
+import org.apache.james.events.EventCoalescer;
+import org.apache.james.events.EventCoalescingConfiguration;
+import org.apache.james.events.EventCodecConfiguration;
 import org.apache.james.events.EventSerializer;
 import org.apache.james.events.KeyReconnectionHandler;
 import org.apache.james.events.NamingStrategy;
 import org.apache.james.events.RabbitMQEventBus;
 import org.apache.james.events.RegistrationKey;
 import org.apache.james.events.RetryBackoffConfiguration;
+import org.apache.james.mailbox.events.FlagsUpdatedCoalescer;
 import org.apache.james.mailbox.events.MailboxIdRegistrationKey;
+import org.apache.james.modules.queue.rabbitmq.RabbitMQModule;
 import org.apache.james.utils.InitializationOperation;
 import org.apache.james.utils.InitilizationOperationBuilder;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
+import com.google.inject.Singleton;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.multibindings.ProvidesIntoSet;
 
@@ -44,6 +54,7 @@ public class RabbitMQEventBusModule extends AbstractModule {
     protected void configure() {
         bind(MailboxEventSerializer.class).in(Scopes.SINGLETON);
         bind(EventSerializer.class).to(MailboxEventSerializer.class);
+        bind(EventCoalescer.class).toInstance(new FlagsUpdatedCoalescer());
 
         bind(NamingStrategy.class).toInstance(new NamingStrategy("mailboxEvent"));
         bind(RabbitMQEventBus.class).in(Scopes.SINGLETON);
@@ -59,6 +70,18 @@ public class RabbitMQEventBusModule extends AbstractModule {
         reconnectionHandlerMultibinder.addBinding().to(KeyReconnectionHandler.class);
     }
 
+    @Provides
+    @Singleton
+    EventCodecConfiguration provideEventCodecConfiguration(@Named(RabbitMQModule.RABBITMQ_CONFIGURATION_NAME) Configuration configuration) {
+        return EventCodecConfiguration.from(configuration);
+    }
+
+    @Provides
+    @Singleton
+    EventCoalescingConfiguration provideEventCoalescingConfiguration(@Named(RabbitMQModule.RABBITMQ_CONFIGURATION_NAME) Configuration configuration) {
+        return EventCoalescingConfiguration.from(configuration);
+    }
+
     @ProvidesIntoSet
     InitializationOperation workQueue(RabbitMQEventBus instance) {
         return InitilizationOperationBuilder
@@ -0,0 +1,95 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.event;
+
+import javax.inject.Named;
+
+import org.apache.james.backends.rabbitmq.ReactorRabbitMQChannelPool;
+import org.apache.james.backends.rabbitmq.ReceiverProvider;
+import org.apache.james.backends.rabbitmq.SimpleConnectionPool;
+import org.apache.james.events.EventBusId;
+import org.apache.james.events.EventDeadLetters;
+import org.apache.james.events.KeyReconnectionHandler;
+import org.apache.james.events.NamingStrategy;
+import org.apache.james.events.RabbitMQEventBus;
+import org.apache.james.events.RetryBackoffConfiguration;
+import org.apache.james.events.RoutingKeyConverter;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.rrt.cassandra.CassandraRecipientRewriteTable;
+import org.apache.james.rrt.lib.RecipientRewriteTableEventSerializer;
+import org.apache.james.rrt.lib.RecipientRewriteTableRegistrationKey;
+import org.apache.james.utils.InitializationOperation;
+import org.apache.james.utils.InitilizationOperationBuilder;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.multibindings.ProvidesIntoSet;
+import com.google.inject.name.Names;
+
+import reactor.rabbitmq.Sender;
+
+/**
+ * Propagates recipient rewrite table changes across James nodes, so that their resolved mappings cache
+ * gets invalidated.
+ *
+ * Only the Cassandra table is wired, as the one of the servers running several nodes along RabbitMQ. Other servers run
+ * without this bus: their resolved mappings only reflect the changes of another node once they expire.
+ */
+public class RecipientRewriteTableEventBusModule extends AbstractModule {
+    public static final String RRT = "RRT";
+    public static final NamingStrategy RRT_NAMING_STRATEGY = new NamingStrategy("rrtEvent");
+
+    @Override
+    protected void configure() {
+        bind(EventBusId.class).annotatedWith(Names.named(RRT)).toInstance(EventBusId.random());
+    }
+
+    @ProvidesIntoSet
+    InitializationOperation workQueue(@Named(RRT) RabbitMQEventBus instance, CassandraRecipientRewriteTable recipientRewriteTable) {
+        return InitilizationOperationBuilder
+            .forClass(RabbitMQEventBus.class)
+            .init(() -> {
+                instance.start();
+                recipientRewriteTable.setEventBus(instance);
+            });
+    }
+
+    @ProvidesIntoSet
+    SimpleConnectionPool.ReconnectionHandler provideReconnectionHandler(@Named(RRT) EventBusId eventBusId) {
+        return new KeyReconnectionHandler(RRT_NAMING_STRATEGY, eventBusId);
+    }
+
+    @Provides
+    @Singleton
+    @Named(RRT)
+    RabbitMQEventBus provideRecipientRewriteTableEventBus(Sender sender, ReceiverProvider receiverProvider,
+                                                          RetryBackoffConfiguration retryBackoffConfiguration,
+                                                          EventDeadLetters eventDeadLetters,
+                                                          MetricFactory metricFactory, ReactorRabbitMQChannelPool channelPool,
+                                                          @Named(RRT) EventBusId eventBusId) {
+        return new RabbitMQEventBus(
+            RRT_NAMING_STRATEGY,
+            sender, receiverProvider, new RecipientRewriteTableEventSerializer(), retryBackoffConfiguration,
+            new RoutingKeyConverter(ImmutableSet.of(new RecipientRewriteTableRegistrationKey.Factory())),
+            eventDeadLetters, metricFactory, channelPool, eventBusId);
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.camel.impl.DefaultCamelContext;
@@ -44,7 +45,9 @@ import org.apache.james.mailetcontainer.impl.JamesMailSpooler;
 import org.apache.james.mailetcontainer.impl.JamesMailetContext;
 import org.apache.james.mailetcontainer.impl.MatcherMailetPair;
 import org.apache.james.mailetcontainer.impl.camel.CamelCompositeProcessor;
-import org.apache.james.mailetcontainer.impl.camel.CamelMailetProcessor;
+import org.apache.james.mailetcontainer.impl.pipeline.PipelineCompositeProcessor;
+import org.apache.james.mailetcontainer.lib.AbstractStateCompositeProcessor;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
 import org.apache.james.mailrepository.api.MailRepositoryStore;
 import org.apache.james.server.core.configuration.ConfigurationProvider;
 import org.apache.james.transport.mailets.RemoveMimeHeader;
@@ -72,6 +75,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
@@ -92,7 +96,8 @@ public class CamelMailetContainerModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(CamelCompositeProcessor.class).in(Scopes.SINGLETON);
-        bind(MailProcessor.class).to(CamelCompositeProcessor.class);
+        bind(PipelineCompositeProcessor.class).in(Scopes.SINGLETON);
+        bind(MailProcessor.class).to(AbstractStateCompositeProcessor.class);
 
         bind(JamesMailSpooler.class).in(Scopes.SINGLETON);
         bind(MailSpoolerMBean.class).to(JamesMailSpooler.class);
@@ -124,6 +129,26 @@ public class CamelMailetContainerModule extends AbstractModule {
         return camelContext;
     }
 
+    @Provides
+    @Singleton
+    public AbstractStateCompositeProcessor provideCompositeProcessor(ConfigurationProvider configurationProvider,
+                                                                     Provider<CamelCompositeProcessor> camelCompositeProcessor,
+                                                                     Provider<PipelineCompositeProcessor> pipelineCompositeProcessor) throws ConfigurationException {
+        switch (getProcessingEngine(configurationProvider)) {
+            case PIPELINE:
+                return pipelineCompositeProcessor.get();
+            case CAMEL:
+            default:
+                return camelCompositeProcessor.get();
+        }
+    }
+
+    @VisibleForTesting
+    ProcessingEngine getProcessingEngine(ConfigurationProvider configurationProvider) throws ConfigurationException {
+        HierarchicalConfiguration<ImmutableNode> mailetContainerConfiguration = configurationProvider.getConfiguration("mailetcontainer");
+        return ProcessingEngine.from(mailetContainerConfiguration.getString("processors[@engine]", ProcessingEngine.CAMEL.getName()));
+    }
+
     @Provides
     @Singleton
     public JamesMailSpooler.Configuration spoolerConfiguration(MailRepositoryStore mailRepositoryStore, ConfigurationProvider configurationProvider) {
@@ -172,19 +197,19 @@ public class CamelMailetContainerModule extends AbstractModule {
     @Singleton
     public static class MailetModuleInitializationOperation implements InitializationOperation {
         private final ConfigurationProvider configurationProvider;
-        private final CamelCompositeProcessor camelCompositeProcessor;
+        private final AbstractStateCompositeProcessor compositeProcessor;
         private final DefaultProcessorsConfigurationSupplier defaultProcessorsConfigurationSupplier;
         private final Set<ProcessorsCheck> processorsCheckSet;
-        private final DefaultCamelContext camelContext;
+        private final Provider<DefaultCamelContext> camelContext;
 
         @Inject
         public MailetModuleInitializationOperation(ConfigurationProvider configurationProvider,
-                                                   CamelCompositeProcessor camelCompositeProcessor,
+                                                   AbstractStateCompositeProcessor compositeProcessor,
                                                    Set<ProcessorsCheck> processorsCheckSet,
                                                    DefaultProcessorsConfigurationSupplier defaultProcessorsConfigurationSupplier,
-                                                   DefaultCamelContext camelContext) {
+                                                   Provider<DefaultCamelContext> camelContext) {
             this.configurationProvider = configurationProvider;
-            this.camelCompositeProcessor = camelCompositeProcessor;
+            this.compositeProcessor = compositeProcessor;
             this.processorsCheckSet = processorsCheckSet;
             this.defaultProcessorsConfigurationSupplier = defaultProcessorsConfigurationSupplier;
             this.camelContext = camelContext;
@@ -192,14 +217,16 @@ public class CamelMailetContainerModule extends AbstractModule {
 
         @Override
         public void initModule() throws Exception {
-            configureProcessors(camelContext);
+            configureProcessors();
             checkProcessors();
         }
 
-        private void configureProcessors(DefaultCamelContext camelContext) throws Exception {
-            camelCompositeProcessor.setCamelContext(camelContext);
-            camelCompositeProcessor.configure(getProcessorConfiguration());
-            camelCompositeProcessor.init();
+        private void configureProcessors() throws Exception {
+            if (compositeProcessor instanceof CamelCompositeProcessor) {
+                ((CamelCompositeProcessor) compositeProcessor).setCamelContext(camelContext.get());
+            }
+            compositeProcessor.configure(getProcessorConfiguration());
+            compositeProcessor.init();
         }
 
         @VisibleForTesting
@@ -214,15 +241,15 @@ public class CamelMailetContainerModule extends AbstractModule {
         }
 
         private void checkProcessors() throws ConfigurationException {
-            ImmutableListMultimap<String, MatcherMailetPair> processors = Arrays.stream(camelCompositeProcessor.getProcessorStates())
+            ImmutableListMultimap<String, MatcherMailetPair> processors = Arrays.stream(compositeProcessor.getProcessorStates())
                 .flatMap(state -> {
-                    MailProcessor processor = camelCompositeProcessor.getProcessor(state);
-                    if (processor instanceof CamelMailetProcessor) {
-                        CamelMailetProcessor camelProcessor = (CamelMailetProcessor) processor;
-                        return camelProcessor.getPairs().stream()
+                    MailProcessor processor = compositeProcessor.getProcessor(state);
+                    if (processor instanceof AbstractStateMailetProcessor) {
+                        AbstractStateMailetProcessor mailetProcessor = (AbstractStateMailetProcessor) processor;
+                        return mailetProcessor.getPairs().stream()
                             .map(pair -> Pair.of(state, pair));
                     } else {
-                        throw new RuntimeException("Can not perform checks as transport processor is not an instance of " + MailProcessor.class);
+                        throw new RuntimeException("Can not perform checks as transport processor is not an instance of " + AbstractStateMailetProcessor.class);
                     }
                 })
                 .collect(Guavate.toImmutableListMultimap(
@@ -235,7 +262,40 @@ public class CamelMailetContainerModule extends AbstractModule {
 
         @Override
         public Class<? extends Startable> forClass() {
-            return CamelCompositeProcessor.class;
+            return compositeProcessor.getClass();
+        }
+    }
+
+    /**
+     * Implementation routing mails through the processors, selected by the <code>engine</code>
+     * attribute of the <code>processors</code> element of mailetcontainer.xml.
+     */
+    public enum ProcessingEngine {
+        CAMEL("camel"),
+        PIPELINE("pipeline");
+
+        static String supportedEngineNames() {
+            return Stream.of(ProcessingEngine.values())
+                .map(ProcessingEngine::getName)
+                .collect(Collectors.joining(", "));
+        }
+
+        static ProcessingEngine from(String name) throws ConfigurationException {
+            return Stream.of(values())
+                .filter(engine -> engine.getName().equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new ConfigurationException(String.format("%s is not a valid processing engine, " +
+                    "please use one of supported values in: %s", name, supportedEngineNames())));
+        }
+
+        private final String name;
+
+        ProcessingEngine(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
         }
     }
 
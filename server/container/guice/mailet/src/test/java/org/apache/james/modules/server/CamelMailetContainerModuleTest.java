@@ -31,6 +31,7 @@ import org.apache.camel.impl.DefaultCamelContext;
 import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
 import org.apache.commons.configuration2.XMLConfiguration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.configuration2.ex.ConfigurationRuntimeException;
 import org.apache.commons.configuration2.tree.ImmutableNode;
 import org.apache.james.mailetcontainer.impl.camel.CamelCompositeProcessor;
@@ -103,7 +104,7 @@ class CamelMailetContainerModuleTest {
             mock(CamelCompositeProcessor.class),
             NO_TRANSPORT_CHECKS,
             () -> defaultConfiguration,
-            mock(DefaultCamelContext.class));
+            () -> mock(DefaultCamelContext.class));
 
         assertThat(testee.getProcessorConfiguration())
             .isEqualTo(defaultConfiguration);
@@ -119,7 +120,7 @@ class CamelMailetContainerModuleTest {
             mock(CamelCompositeProcessor.class),
             NO_TRANSPORT_CHECKS,
             mock(CamelMailetContainerModule.DefaultProcessorsConfigurationSupplier.class),
-            mock(DefaultCamelContext.class));
+            () -> mock(DefaultCamelContext.class));
 
         assertThatThrownBy(testee::getProcessorConfiguration)
             .isInstanceOf(ConfigurationRuntimeException.class);
@@ -141,10 +142,54 @@ class CamelMailetContainerModuleTest {
             mock(CamelCompositeProcessor.class),
             NO_TRANSPORT_CHECKS,
             mock(CamelMailetContainerModule.DefaultProcessorsConfigurationSupplier.class),
-            mock(DefaultCamelContext.class));
+            () -> mock(DefaultCamelContext.class));
 
         HierarchicalConfiguration<ImmutableNode> mailetContextConfiguration = testee.getProcessorConfiguration();
         assertThat(mailetContextConfiguration.getString("key"))
             .isEqualTo("value");
     }
-}
\ No newline at end of file
+
+    @Test
+    void getProcessingEngineShouldDefaultToCamel() throws Exception {
+        ConfigurationProvider configurationProvider = mock(ConfigurationProvider.class);
+        when(configurationProvider.getConfiguration("mailetcontainer"))
+            .thenReturn(new BaseHierarchicalConfiguration());
+
+        CamelMailetContainerModule testee = new CamelMailetContainerModule();
+
+        assertThat(testee.getProcessingEngine(configurationProvider))
+            .isEqualTo(CamelMailetContainerModule.ProcessingEngine.CAMEL);
+    }
+
+    @Test
+    void getProcessingEngineShouldReturnConfiguredEngine() throws Exception {
+        XMLConfiguration configuration = FileConfigurationProvider.getConfig(new ByteArrayInputStream((
+                    "<mailetcontainer>" +
+                    "  <processors engine=\"pipeline\"/>" +
+                    "</mailetcontainer>")
+            .getBytes(StandardCharsets.UTF_8)));
+        ConfigurationProvider configurationProvider = mock(ConfigurationProvider.class);
+        when(configurationProvider.getConfiguration("mailetcontainer")).thenReturn(configuration);
+
+        CamelMailetContainerModule testee = new CamelMailetContainerModule();
+
+        assertThat(testee.getProcessingEngine(configurationProvider))
+            .isEqualTo(CamelMailetContainerModule.ProcessingEngine.PIPELINE);
+    }
+
+    @Test
+    void getProcessingEngineShouldThrowOnUnknownEngine() throws Exception {
+        XMLConfiguration configuration = FileConfigurationProvider.getConfig(new ByteArrayInputStream((
+                    "<mailetcontainer>" +
+                    "  <processors engine=\"unknown\"/>" +
+                    "</mailetcontainer>")
+            .getBytes(StandardCharsets.UTF_8)));
+        ConfigurationProvider configurationProvider = mock(ConfigurationProvider.class);
+        when(configurationProvider.getConfiguration("mailetcontainer")).thenReturn(configuration);
+
+        CamelMailetContainerModule testee = new CamelMailetContainerModule();
+
+        assertThatThrownBy(() -> testee.getProcessingEngine(configurationProvider))
+            .isInstanceOf(ConfigurationException.class);
+    }
+}
@@ -0,0 +1,144 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.rrt.lib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Prefilters the regex mappings that can match an address.
+ *
+ * The leading literal of each regular expression is indexed in a trie. Walking the trie along the address yields the
+ * mappings whose leading literal is a prefix of the address, as well as the mappings without leading literal. Only those
+ * candidates then need to be matched, with their capture groups. The lookup cost thus depends on the address length and
+ * on the candidate count, not on the count of regex mappings.
+ *
+ * An index is meant to be built once per mapping set, and reused until these mappings change. Mappings added since
+ * are not indexed: callers should keep applying them, see {@link #isIndexed(String)}.
+ */
+public class RegexMappingIndex {
+    private static final char REGEX_SEPARATOR = ':';
+    private static final char ESCAPE = '\\';
+    private static final String METACHARACTERS = ".[]()*+?{}^$|";
+    private static final String OPTIONAL_QUANTIFIERS = "*?{";
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<String> mappings = new ArrayList<>();
+
+        private Node child(char c) {
+            return children.computeIfAbsent(c, any -> new Node());
+        }
+    }
+
+    /**
+     * @param regexMappings values of regex mappings, formatted as <regular-expression>:<parameterized-string>
+     */
+    public static RegexMappingIndex of(List<String> regexMappings) {
+        return new RegexMappingIndex(ImmutableSet.copyOf(regexMappings));
+    }
+
+    /**
+     * Returns the longest literal every string matched by the regex starts with.
+     *
+     * This is conservative: regexes relying on alternations or starting with a group have no leading literal.
+     */
+    @VisibleForTesting
+    static String leadingLiteral(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+        StringBuilder literal = new StringBuilder();
+        int position = regex.startsWith("^") ? 1 : 0;
+        while (position < regex.length()) {
+            char c = regex.charAt(position);
+            int next = position + 1;
+            if (c == ESCAPE) {
+                if (next >= regex.length() || Character.isLetterOrDigit(regex.charAt(next))) {
+                    break;
+                }
+                c = regex.charAt(next);
+                next++;
+            } else if (METACHARACTERS.indexOf(c) >= 0) {
+                break;
+            }
+            if (next < regex.length() && OPTIONAL_QUANTIFIERS.indexOf(regex.charAt(next)) >= 0) {
+                break;
+            }
+            literal.append(c);
+            position = next;
+        }
+        return literal.toString();
+    }
+
+    private final ImmutableSet<String> indexedMappings;
+    private final Node root;
+
+    private RegexMappingIndex(ImmutableSet<String> regexMappings) {
+        indexedMappings = regexMappings;
+        root = new Node();
+        regexMappings.forEach(this::index);
+    }
+
+    /**
+     * Returns whether the given regex mapping was indexed. When not, {@link #candidates(String)} cannot tell whether it
+     * matches an address.
+     */
+    public boolean isIndexed(String regexMapping) {
+        return indexedMappings.contains(regexMapping);
+    }
+
+    private void index(String mapping) {
+        int separator = mapping.indexOf(REGEX_SEPARATOR);
+        if (separator < 0 || separator != mapping.lastIndexOf(REGEX_SEPARATOR)) {
+            // Invalid mappings are always candidates, so that their application keeps failing
+            root.mappings.add(mapping);
+            return;
+        }
+        Node node = root;
+        for (char c : leadingLiteral(mapping.substring(0, separator)).toCharArray()) {
+            node = node.child(c);
+        }
+        node.mappings.add(mapping);
+    }
+
+    /**
+     * Returns the regex mappings that can match the given address.
+     */
+    public ImmutableSet<String> candidates(String address) {
+        ImmutableSet.Builder<String> candidates = ImmutableSet.builder();
+        Node node = root;
+        int position = 0;
+        while (node != null) {
+            candidates.addAll(node.mappings);
+            if (position == address.length()) {
+                break;
+            }
+            node = node.children.get(address.charAt(position));
+            position++;
+        }
+        return candidates.build();
+    }
+}
@@ -37,7 +37,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 
 @FunctionalInterface
@@ -81,6 +84,36 @@ public interface UserRewritter extends Serializable {
 
         private static final int REGEX = 0;
         private static final int PARAMETERIZED_STRING = 1;
+        private static final int COMPILED_MAPPINGS_CACHE_SIZE = 10000;
+
+        /**
+         * Mappings are read from the storage on each lookup: compiled patterns are shared between lookups, keyed
+         * by the raw mapping. A changed regex mapping thus gets compiled once, on its first use.
+         *
+         * {@link RegexMappingIndex} restricts the regex mappings applied to an address to the candidates that can match it.
+         */
+        private static final Cache<String, CompiledMapping> COMPILED_MAPPINGS = CacheBuilder.newBuilder()
+            .maximumSize(COMPILED_MAPPINGS_CACHE_SIZE)
+            .build();
+
+        @VisibleForTesting
+        static class CompiledMapping {
+            static CompiledMapping parse(String mapping) {
+                List<String> parts = ImmutableList.copyOf(Splitter.on(':').split(mapping));
+                if (parts.size() != 2) {
+                    throw new PatternSyntaxException("Regex should be formatted as <regular-expression>:<parameterized-string>", mapping, 0);
+                }
+                return new CompiledMapping(Pattern.compile(parts.get(REGEX)), parts.get(PARAMETERIZED_STRING));
+            }
+
+            private final Pattern pattern;
+            private final String parameterizedString;
+
+            private CompiledMapping(Pattern pattern, String parameterizedString) {
+                this.pattern = pattern;
+                this.parameterizedString = parameterizedString;
+            }
+        }
 
         @Override
         public UserRewritter generateUserRewriter(String mapping) {
@@ -102,21 +135,26 @@ public interface UserRewritter extends Serializable {
          * (.*)@(.*):${1}@tld
          */
         public Optional<String> regexMap(MailAddress address, String mapping) {
-            List<String> parts = ImmutableList.copyOf(Splitter.on(':').split(mapping));
-            if (parts.size() != 2) {
-                throw new PatternSyntaxException("Regex should be formatted as <regular-expression>:<parameterized-string>", mapping, 0);
-            }
-
-            Pattern pattern = Pattern.compile(parts.get(REGEX));
-            Matcher match = pattern.matcher(address.asString());
+            CompiledMapping compiledMapping = compile(mapping);
+            Matcher match = compiledMapping.pattern.matcher(address.asString());
 
             if (match.matches()) {
                 ImmutableList<String> parameters = listMatchingGroups(match);
-                return Optional.of(replaceParameters(parts.get(PARAMETERIZED_STRING), parameters));
+                return Optional.of(replaceParameters(compiledMapping.parameterizedString, parameters));
             }
             return Optional.empty();
         }
 
+        @VisibleForTesting
+        static CompiledMapping compile(String mapping) {
+            CompiledMapping compiledMapping = COMPILED_MAPPINGS.getIfPresent(mapping);
+            if (compiledMapping == null) {
+                compiledMapping = CompiledMapping.parse(mapping);
+                COMPILED_MAPPINGS.put(mapping, compiledMapping);
+            }
+            return compiledMapping;
+        }
+
         private ImmutableList<String> listMatchingGroups(Matcher match) {
             return IntStream
                 .rangeClosed(1, match.groupCount())
@@ -22,6 +22,8 @@ package org.apache.james.rrt.api;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
+import java.time.Duration;
+
 import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.junit.jupiter.api.Test;
@@ -43,6 +45,34 @@ class RecipientRewriteTableConfigurationTest {
             .isEqualTo(10);
         assertThat(recipientRewriteTableConfiguration.isRecursive())
             .isTrue();
+        assertThat(recipientRewriteTableConfiguration.isCacheEnabled())
+            .isFalse();
+    }
+
+    @Test
+    void cacheConfigurationShouldBeParsed() throws ConfigurationException {
+        BaseHierarchicalConfiguration configuration = new BaseHierarchicalConfiguration();
+        configuration.addProperty("read.cache.enable", "true");
+        configuration.addProperty("read.cache.expiracy", "1 minute");
+        configuration.addProperty("read.cache.size", 100);
+        RecipientRewriteTableConfiguration recipientRewriteTableConfiguration = RecipientRewriteTableConfiguration.fromConfiguration(configuration);
+
+        assertThat(recipientRewriteTableConfiguration.isCacheEnabled())
+            .isTrue();
+        assertThat(recipientRewriteTableConfiguration.getCacheExpiracy())
+            .isEqualTo(Duration.ofMinutes(1));
+        assertThat(recipientRewriteTableConfiguration.getCacheSize())
+            .isEqualTo(100);
+    }
+
+    @Test
+    void nonPositiveCacheSizeShouldThrow() {
+        BaseHierarchicalConfiguration configuration = new BaseHierarchicalConfiguration();
+        configuration.addProperty("read.cache.enable", "true");
+        configuration.addProperty("read.cache.size", 0);
+
+        assertThatCode(() -> RecipientRewriteTableConfiguration.fromConfiguration(configuration))
+            .isInstanceOf(ConfigurationException.class);
     }
 
     @Test
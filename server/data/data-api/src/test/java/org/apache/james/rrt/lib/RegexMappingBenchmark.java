@@ -0,0 +1,131 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.rrt.lib;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.james.core.Username;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Measures the cost of applying the regex mappings of a domain to an address, against the count of regex mappings.
+ *
+ * Mappings are read again from the storage on each lookup, hence are rebuilt from their raw value on each
+ * iteration. resolveThroughIndex only applies the candidates of the {@link RegexMappingIndex}, built once per mapping
+ * set as done when resolving mappings. resolve applies every mapping. The baseline compiles each pattern on each lookup, as done prior to sharing
+ * compiled patterns.
+ *
+ * Run it through its main method, from the test classpath of this module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegexMappingBenchmark {
+    private static final String DOMAIN = "domain.tld";
+
+    @Param({"10", "100", "1000", "5000"})
+    int ruleCount;
+
+    private List<String> rawMappings;
+    private RegexMappingIndex index;
+
+    @Setup
+    public void setUp() {
+        rawMappings = IntStream.range(0, ruleCount)
+            .mapToObj(i -> "alias" + i + "_(.*)@" + DOMAIN.replace(".", "\\.") + ":user" + i + "@" + DOMAIN)
+            .collect(Collectors.toList());
+        index = RegexMappingIndex.of(rawMappings);
+    }
+
+    @Benchmark
+    public List<Username> resolveThroughIndex() throws Exception {
+        Username username = randomUsername();
+        ImmutableList.Builder<Username> result = ImmutableList.builder();
+        for (String rawMapping : index.candidates(username.asString())) {
+            Mapping.regex(rawMapping).rewriteUser(username).ifPresent(result::add);
+        }
+        return result.build();
+    }
+
+    @Benchmark
+    public List<Username> resolve() throws Exception {
+        Username username = randomUsername();
+        ImmutableList.Builder<Username> result = ImmutableList.builder();
+        for (String rawMapping : rawMappings) {
+            Mapping.regex(rawMapping).rewriteUser(username).ifPresent(result::add);
+        }
+        return result.build();
+    }
+
+    @Benchmark
+    public List<Username> resolveCompilingOnEachLookup() throws Exception {
+        Username username = randomUsername();
+        ImmutableList.Builder<Username> result = ImmutableList.builder();
+        for (String rawMapping : rawMappings) {
+            compileAndMatch(username, rawMapping).ifPresent(result::add);
+        }
+        return result.build();
+    }
+
+    private Optional<Username> compileAndMatch(Username username, String rawMapping) {
+        int separator = rawMapping.indexOf(':');
+        Matcher matcher = Pattern.compile(rawMapping.substring(0, separator)).matcher(username.asString());
+        if (matcher.matches()) {
+            return Optional.of(Username.of(rawMapping.substring(separator + 1)));
+        }
+        return Optional.empty();
+    }
+
+    private Username randomUsername() {
+        return Username.of("alias" + ThreadLocalRandom.current().nextInt(ruleCount) + "_list@" + DOMAIN);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RegexMappingBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
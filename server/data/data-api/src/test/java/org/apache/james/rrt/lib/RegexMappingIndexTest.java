@@ -0,0 +1,121 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.rrt.lib;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+class RegexMappingIndexTest {
+    @Test
+    void leadingLiteralShouldStopAtTheFirstMetacharacter() {
+        assertThat(RegexMappingIndex.leadingLiteral("prefix_(.*)@domain\\.tld")).isEqualTo("prefix_");
+    }
+
+    @Test
+    void leadingLiteralShouldIncludeEscapedCharacters() {
+        assertThat(RegexMappingIndex.leadingLiteral("first\\.last@(.*)")).isEqualTo("first.last@");
+    }
+
+    @Test
+    void leadingLiteralShouldStopAtEscapedClasses() {
+        assertThat(RegexMappingIndex.leadingLiteral("user\\d+@domain")).isEqualTo("user");
+    }
+
+    @Test
+    void leadingLiteralShouldIgnoreStartAnchor() {
+        assertThat(RegexMappingIndex.leadingLiteral("^user(.*)")).isEqualTo("user");
+    }
+
+    @Test
+    void leadingLiteralShouldExcludeOptionalCharacters() {
+        assertThat(RegexMappingIndex.leadingLiteral("users?@domain")).isEqualTo("user");
+        assertThat(RegexMappingIndex.leadingLiteral("users*@domain")).isEqualTo("user");
+        assertThat(RegexMappingIndex.leadingLiteral("users{0,1}@domain")).isEqualTo("user");
+    }
+
+    @Test
+    void leadingLiteralShouldIncludeRepeatedCharacters() {
+        assertThat(RegexMappingIndex.leadingLiteral("users+@domain")).isEqualTo("users");
+    }
+
+    @Test
+    void leadingLiteralShouldBeEmptyForAlternations() {
+        assertThat(RegexMappingIndex.leadingLiteral("abc@domain|def@domain")).isEmpty();
+    }
+
+    @Test
+    void leadingLiteralShouldBeEmptyWhenStartingWithAFlag() {
+        assertThat(RegexMappingIndex.leadingLiteral("(?i)user@domain")).isEmpty();
+    }
+
+    @Test
+    void candidatesShouldReturnMappingsWhoseLeadingLiteralPrefixesTheAddress() {
+        RegexMappingIndex index = RegexMappingIndex.of(ImmutableList.of(
+            "alias1_(.*)@domain:user1@domain",
+            "alias2_(.*)@domain:user2@domain",
+            "alias(.*)@domain:user@domain"));
+
+        assertThat(index.candidates("alias1_list@domain"))
+            .containsOnly("alias1_(.*)@domain:user1@domain", "alias(.*)@domain:user@domain");
+    }
+
+    @Test
+    void candidatesShouldAlwaysReturnMappingsWithoutLeadingLiteral() {
+        RegexMappingIndex index = RegexMappingIndex.of(ImmutableList.of(
+            "alias_(.*)@domain:user@domain",
+            "(.*)@domain:${1}@other"));
+
+        assertThat(index.candidates("bob@domain"))
+            .containsOnly("(.*)@domain:${1}@other");
+    }
+
+    @Test
+    void candidatesShouldAlwaysReturnInvalidMappings() {
+        RegexMappingIndex index = RegexMappingIndex.of(ImmutableList.of("alias_(.*)@domain", "a:b:c"));
+
+        assertThat(index.candidates("bob@domain"))
+            .containsOnly("alias_(.*)@domain", "a:b:c");
+    }
+
+    @Test
+    void candidatesShouldReturnEmptyWhenNoMappingCanMatch() {
+        RegexMappingIndex index = RegexMappingIndex.of(ImmutableList.of("alias_(.*)@domain:user@domain"));
+
+        assertThat(index.candidates("bob@domain")).isEmpty();
+    }
+
+    @Test
+    void isIndexedShouldReturnTrueForIndexedMappings() {
+        RegexMappingIndex index = RegexMappingIndex.of(ImmutableList.of("alias_(.*)@domain:user@domain", "a:b:c"));
+
+        assertThat(index.isIndexed("alias_(.*)@domain:user@domain")).isTrue();
+        assertThat(index.isIndexed("a:b:c")).isTrue();
+    }
+
+    @Test
+    void isIndexedShouldReturnFalseForOtherMappings() {
+        RegexMappingIndex index = RegexMappingIndex.of(ImmutableList.of("alias_(.*)@domain:user@domain"));
+
+        assertThat(index.isIndexed("(.*)@domain:${1}@other")).isFalse();
+    }
+}
@@ -56,6 +56,22 @@ class RegexRewriterTest {
             .isInstanceOf(PatternSyntaxException.class);
     }
 
+    @Test
+    void regexMapShouldThrowOnInvalidSyntaxWhenCalledAgain() throws Exception {
+        UserRewritter.RegexRewriter rewriter = new UserRewritter.RegexRewriter();
+        assertThatThrownBy(() -> rewriter.regexMap(new MailAddress("abc@test"), "(.*:invalid"))
+            .isInstanceOf(PatternSyntaxException.class);
+
+        assertThatThrownBy(() -> rewriter.regexMap(new MailAddress("abc@test"), "(.*:invalid"))
+            .isInstanceOf(PatternSyntaxException.class);
+    }
+
+    @Test
+    void compileShouldReuseCompiledMappings() {
+        assertThat(UserRewritter.RegexRewriter.compile("prefix_(.*)@test:admin@${1}"))
+            .isSameAs(UserRewritter.RegexRewriter.compile("prefix_(.*)@test:admin@${1}"));
+    }
+
     @Test
     void regexMapShouldReturnInputWhenRegexDoesntMatch() throws Exception {
         assertThat(new UserRewritter.RegexRewriter().regexMap(new MailAddress("abc@test"), "notmatching:notreplaced"))
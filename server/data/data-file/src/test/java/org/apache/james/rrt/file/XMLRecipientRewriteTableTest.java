@@ -279,4 +279,19 @@ class XMLRecipientRewriteTableTest implements RecipientRewriteTableContract {
     @Disabled("XMLRecipientRewriteTable is read only")
     public void getMappingsForTypeShouldReturnSortedStream() {
     }
+
+    @Test
+    @Disabled("XMLRecipientRewriteTable is read only")
+    public void cachedResolvedMappingsShouldBeInvalidatedWhenAddingAMapping() {
+    }
+
+    @Test
+    @Disabled("XMLRecipientRewriteTable is read only")
+    public void cachedResolvedMappingsShouldBeInvalidatedWhenRemovingAMapping() {
+    }
+
+    @Test
+    @Disabled("XMLRecipientRewriteTable is read only")
+    public void cachedResolvedMappingsShouldBeInvalidatedWhenARecursedMappingChanges() {
+    }
 }
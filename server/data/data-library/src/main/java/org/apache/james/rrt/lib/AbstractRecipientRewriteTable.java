@@ -19,9 +19,14 @@
 package org.apache.james.rrt.lib;
 
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Stream;
@@ -37,6 +42,9 @@ import org.apache.james.core.MailAddress;
 import org.apache.james.core.Username;
 import org.apache.james.domainlist.api.DomainList;
 import org.apache.james.domainlist.api.DomainListException;
+import org.apache.james.events.Event;
+import org.apache.james.events.EventBus;
+import org.apache.james.events.EventListener;
 import org.apache.james.lifecycle.api.Configurable;
 import org.apache.james.rrt.api.InvalidRegexException;
 import org.apache.james.rrt.api.LoopDetectedException;
@@ -51,17 +59,77 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import reactor.core.publisher.Mono;
 
 public abstract class AbstractRecipientRewriteTable implements RecipientRewriteTable, Configurable {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractRecipientRewriteTable.class);
+    private static final int REGEX_MAPPING_INDEXES_CACHE_SIZE = 1000;
+
+    private static class ResolvedMappingsKey {
+        private final Username username;
+        private final EnumSet<Type> mappingTypes;
+
+        private ResolvedMappingsKey(Username username, EnumSet<Type> mappingTypes) {
+            this.username = username;
+            this.mappingTypes = EnumSet.copyOf(mappingTypes);
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof ResolvedMappingsKey) {
+                ResolvedMappingsKey that = (ResolvedMappingsKey) o;
+
+                return Objects.equals(this.username, that.username)
+                    && Objects.equals(this.mappingTypes, that.mappingTypes);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(username, mappingTypes);
+        }
+    }
 
     private RecipientRewriteTableConfiguration configuration;
     private DomainList domainList;
+    private Cache<ResolvedMappingsKey, Mappings> resolvedMappingsCache;
+    private Optional<EventBus> eventBus = Optional.empty();
+    // Built once per domain, until the mappings change. Regex mappings added meanwhile on another node are not indexed,
+    // hence keep being applied.
+    private final Cache<Domain, RegexMappingIndex> regexMappingIndexes = CacheBuilder.newBuilder()
+        .maximumSize(REGEX_MAPPING_INDEXES_CACHE_SIZE)
+        .build();
 
     public void setConfiguration(RecipientRewriteTableConfiguration configuration) {
         Preconditions.checkState(this.configuration == null, "A configuration cannot be set twice");
         this.configuration = configuration;
+        if (configuration.isCacheEnabled()) {
+            this.resolvedMappingsCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(configuration.getCacheExpiracy())
+                .maximumSize(configuration.getCacheSize())
+                .build();
+        }
+    }
+
+    /**
+     * Shares resolved mappings cache invalidations with the other James nodes listening on this {@link EventBus}.
+     *
+     * Only the distributed server sets one, for its Cassandra table. Without it, changes done on another node are
+     * only seen once the resolved mappings expire.
+     */
+    public void setEventBus(EventBus eventBus) {
+        EventListener cacheInvalidation = event -> invalidateResolvedMappingsCache();
+        Mono.from(eventBus.register(cacheInvalidation, RecipientRewriteTableRegistrationKey.INSTANCE))
+            .block();
+        this.eventBus = Optional.of(eventBus);
     }
 
     @Inject
@@ -87,7 +155,41 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
     @Override
     public Mappings getResolvedMappings(String user, Domain domain, EnumSet<Type> mappingTypes) throws ErrorMappingException, RecipientRewriteTableException {
         Preconditions.checkState(this.configuration != null, "RecipientRewriteTable is not configured");
-        return getMappings(Username.fromLocalPartWithDomain(user, domain), configuration.getMappingLimit(), mappingTypes);
+        Username username = Username.fromLocalPartWithDomain(user, domain);
+        if (configuration.isCacheEnabled()) {
+            try {
+                return resolvedMappingsCache.get(new ResolvedMappingsKey(username, mappingTypes),
+                    () -> getMappings(username, configuration.getMappingLimit(), mappingTypes));
+            } catch (ExecutionException | UncheckedExecutionException e) {
+                Throwables.throwIfInstanceOf(e.getCause(), ErrorMappingException.class);
+                Throwables.throwIfInstanceOf(e.getCause(), RecipientRewriteTableException.class);
+                Throwables.throwIfUnchecked(e.getCause());
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        return getMappings(username, configuration.getMappingLimit(), mappingTypes);
+    }
+
+    /**
+     * Drops the resolved mappings, and the regex mapping indexes, cached by this node.
+     */
+    public void invalidateResolvedMappingsCache() {
+        if (resolvedMappingsCache != null) {
+            resolvedMappingsCache.invalidateAll();
+        }
+        regexMappingIndexes.invalidateAll();
+    }
+
+    private void mappingsChanged() {
+        // Any stored mapping can take part in the resolution of any address: the whole cache is dropped
+        invalidateResolvedMappingsCache();
+        eventBus.ifPresent(bus -> bus.dispatch(new RecipientRewriteTableChangedEvent(Event.EventId.random()), RecipientRewriteTableRegistrationKey.INSTANCE)
+            .onErrorResume(e -> {
+                LOGGER.error("Failed to notify other nodes of a recipient rewrite table change, their resolved mappings will expire after {}",
+                    configuration.getCacheExpiracy(), e);
+                return Mono.empty();
+            })
+            .block());
     }
 
     private Mappings getMappings(Username username, int mappingLimit, EnumSet<Type> mappingTypes) throws ErrorMappingException, RecipientRewriteTableException {
@@ -100,8 +202,10 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
 
         Domain domain = username.getDomainPart().get();
         String localPart = username.getLocalPart();
-        Stream<Mapping> targetMappings = mapAddress(localPart, domain).asStream()
-                .filter(mapping -> mappingTypes.contains(mapping.getType()));
+        Mappings mappings = mapAddress(localPart, domain);
+        Stream<Mapping> targetMappings = mappings.asStream()
+                .filter(mapping -> mappingTypes.contains(mapping.getType()))
+                .filter(regexCandidates(mappings, username));
 
         try {
             return MappingsImpl.fromMappings(
@@ -112,6 +216,34 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
         }
     }
 
+    /**
+     * Only regex mappings that can match the address are applied, other mappings are kept.
+     */
+    private Predicate<Mapping> regexCandidates(Mappings mappings, Username username) {
+        if (mappings.asStream().noneMatch(mapping -> mapping.getType() == Type.Regex)) {
+            return mapping -> true;
+        }
+        try {
+            String address = username.asMailAddress().asString();
+            RegexMappingIndex index = regexMappingIndexes.asMap()
+                .computeIfAbsent(username.getDomainPart().get(), any -> RegexMappingIndex.of(regexMappings(mappings)));
+            Set<String> candidates = index.candidates(address);
+            return mapping -> mapping.getType() != Type.Regex
+                || !index.isIndexed(mapping.getMappingValue())
+                || candidates.contains(mapping.getMappingValue());
+        } catch (AddressException e) {
+            // Applying the regex mappings reports the invalid address
+            return mapping -> true;
+        }
+    }
+
+    private List<String> regexMappings(Mappings mappings) {
+        return mappings.asStream()
+            .filter(mapping -> mapping.getType() == Type.Regex)
+            .map(Mapping::getMappingValue)
+            .collect(Guavate.toImmutableList());
+    }
+
     private Stream<Mapping> convertAndRecurseMapping(Username originalUsername, Mapping associatedMapping, int remainingLoops, EnumSet<Type> mappingTypes) throws ErrorMappingException, SkipMappingProcessingException, AddressException {
 
         Function<Username, Stream<Mapping>> convertAndRecurseMapping =
@@ -167,6 +299,18 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
         throw new IllegalArgumentException("unhandled enum type");
     }
 
+    @Override
+    public void addMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+        addMappingInternal(source, mapping);
+        mappingsChanged();
+    }
+
+    @Override
+    public void removeMapping(MappingSource source, Mapping mapping) throws RecipientRewriteTableException {
+        removeMappingInternal(source, mapping);
+        mappingsChanged();
+    }
+
     @Override
     public void addRegexMapping(MappingSource source, String regex) throws RecipientRewriteTableException {
         try {
@@ -356,6 +500,10 @@ public abstract class AbstractRecipientRewriteTable implements RecipientRewriteT
      */
     protected abstract Mappings mapAddress(String user, Domain domain) throws RecipientRewriteTableException;
 
+    protected abstract void addMappingInternal(MappingSource source, Mapping mapping) throws RecipientRewriteTableException;
+
+    protected abstract void removeMappingInternal(MappingSource source, Mapping mapping) throws RecipientRewriteTableException;
+
     private void checkDomainMappingSourceIsManaged(MappingSource source) throws RecipientRewriteTableException {
         Optional<Domain> notManagedSourceDomain = source.availableDomain()
             .filter(Throwing.<Domain>predicate(domain -> !isManagedByDomainList(domain)).sneakyThrow());
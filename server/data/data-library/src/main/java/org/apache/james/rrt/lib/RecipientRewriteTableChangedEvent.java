@@ -0,0 +1,78 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ * http://www.apache.org/licenses/LICENSE-2.0                   *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ***************************************************************/
+
+package org.apache.james.rrt.lib;
+
+import java.util.Objects;
+
+import org.apache.james.core.Username;
+import org.apache.james.events.Event;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Notifies that the stored mappings of the {@link org.apache.james.rrt.api.RecipientRewriteTable} changed, and
+ * thus that resolved mappings cached by other James nodes are stale.
+ */
+public class RecipientRewriteTableChangedEvent implements Event {
+    public static final Username USERNAME = Username.of("recipientrewritetable");
+
+    private final EventId eventId;
+
+    public RecipientRewriteTableChangedEvent(EventId eventId) {
+        this.eventId = eventId;
+    }
+
+    @Override
+    public Username getUsername() {
+        return USERNAME;
+    }
+
+    @Override
+    public boolean isNoop() {
+        return false;
+    }
+
+    @Override
+    public EventId getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof RecipientRewriteTableChangedEvent) {
+            RecipientRewriteTableChangedEvent that = (RecipientRewriteTableChangedEvent) o;
+
+            return Objects.equals(this.eventId, that.eventId);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(eventId);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("eventId", eventId)
+            .toString();
+    }
+}
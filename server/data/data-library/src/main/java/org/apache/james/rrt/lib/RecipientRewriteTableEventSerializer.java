@@ -0,0 +1,60 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ * http://www.apache.org/licenses/LICENSE-2.0                   *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ***************************************************************/
+
+package org.apache.james.rrt.lib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.apache.james.events.Event;
+import org.apache.james.events.EventSerializer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Preconditions;
+
+public class RecipientRewriteTableEventSerializer implements EventSerializer {
+    private static final String EVENT_ID = "eventId";
+
+    private final ObjectMapper objectMapper;
+
+    public RecipientRewriteTableEventSerializer() {
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public String toJson(Event event) {
+        Preconditions.checkArgument(event instanceof RecipientRewriteTableChangedEvent, "Unsupported event %s", event.getClass());
+        ObjectNode json = objectMapper.createObjectNode()
+            .put(EVENT_ID, event.getEventId().getId().toString());
+        return json.toString();
+    }
+
+    @Override
+    public Event asEvent(String serialized) {
+        try {
+            JsonNode eventId = objectMapper.readTree(serialized).get(EVENT_ID);
+            Preconditions.checkArgument(eventId != null && eventId.isTextual(), "Missing %s in %s", EVENT_ID, serialized);
+            return new RecipientRewriteTableChangedEvent(Event.EventId.of(eventId.asText()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ * http://www.apache.org/licenses/LICENSE-2.0                   *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ***************************************************************/
+
+package org.apache.james.rrt.lib;
+
+import org.apache.james.events.RegistrationKey;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Single {@link RegistrationKey} every James node listens to in order to be notified of
+ * {@link RecipientRewriteTableChangedEvent}.
+ */
+public class RecipientRewriteTableRegistrationKey implements RegistrationKey {
+    public static class Factory implements RegistrationKey.Factory {
+        @Override
+        public Class<? extends RegistrationKey> forClass() {
+            return RecipientRewriteTableRegistrationKey.class;
+        }
+
+        @Override
+        public RegistrationKey fromString(String asString) {
+            Preconditions.checkArgument(INSTANCE.asString().equals(asString), "Unexpected registration key %s", asString);
+            return INSTANCE;
+        }
+    }
+
+    public static final RecipientRewriteTableRegistrationKey INSTANCE = new RecipientRewriteTableRegistrationKey();
+
+    private RecipientRewriteTableRegistrationKey() {
+    }
+
+    @Override
+    public String asString() {
+        return "recipientrewritetable";
+    }
+}
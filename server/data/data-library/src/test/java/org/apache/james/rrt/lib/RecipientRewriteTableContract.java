@@ -22,12 +22,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.time.Duration;
 import java.util.Map;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.core.Domain;
 import org.apache.james.core.MailAddress;
 import org.apache.james.domainlist.api.mock.SimpleDomainList;
+import org.apache.james.events.Event;
 import org.apache.james.lifecycle.api.LifecycleUtil;
 import org.apache.james.rrt.api.LoopDetectedException;
 import org.apache.james.rrt.api.RecipientRewriteTable.ErrorMappingException;
@@ -66,6 +68,11 @@ public interface RecipientRewriteTableContract {
         virtualUserTable().setConfiguration(new RecipientRewriteTableConfiguration(true, 10));
     }
 
+    private void setCachedRecipientRewriteTable() throws Exception {
+        setNotConfiguredRecipientRewriteTable();
+        virtualUserTable().setConfiguration(new RecipientRewriteTableConfiguration(true, 10, true, Duration.ofMinutes(1), 100));
+    }
+
     private void setNonRecursiveRecipientRewriteTable() throws Exception {
         setNotConfiguredRecipientRewriteTable();
         virtualUserTable().setConfiguration(new RecipientRewriteTableConfiguration(false, 0));
@@ -724,4 +731,109 @@ public interface RecipientRewriteTableContract {
             SOURCE.asString()))
             .isInstanceOf(LoopDetectedException.class);
     }
+
+    @Test
+    default void regexMappingsAddedAfterALookupShouldBeApplied() throws Exception {
+        MappingSource source = MappingSource.fromDomain(SUPPORTED_DOMAIN);
+        virtualUserTable().addMapping(source, Mapping.regex("alias_(.*)@localhost:user1@localhost"));
+        virtualUserTable().getResolvedMappings("alias_list", SUPPORTED_DOMAIN);
+
+        virtualUserTable().addMapping(source, Mapping.regex("alias(.*)@localhost:user2@localhost"));
+
+        assertThat(virtualUserTable().getResolvedMappings("alias_list", SUPPORTED_DOMAIN))
+            .containsOnly(Mapping.address("user1@localhost"), Mapping.address("user2@localhost"));
+    }
+
+    @Test
+    default void regexMappingsAddedByAnotherNodeShouldBeApplied() throws Exception {
+        MappingSource source = MappingSource.fromDomain(SUPPORTED_DOMAIN);
+        virtualUserTable().addMapping(source, Mapping.regex("alias_(.*)@localhost:user1@localhost"));
+        virtualUserTable().getResolvedMappings("alias_list", SUPPORTED_DOMAIN);
+
+        // Stored without notifying this node
+        virtualUserTable().addMappingInternal(source, Mapping.regex("alias(.*)@localhost:user2@localhost"));
+
+        assertThat(virtualUserTable().getResolvedMappings("alias_list", SUPPORTED_DOMAIN))
+            .containsOnly(Mapping.address("user1@localhost"), Mapping.address("user2@localhost"));
+    }
+
+    @Test
+    default void cachedResolvedMappingsShouldBeServedWithoutReadingTheStorage() throws Exception {
+        setCachedRecipientRewriteTable();
+        virtualUserTable().addAddressMapping(SOURCE, ADDRESS);
+        virtualUserTable().getResolvedMappings(USER, SUPPORTED_DOMAIN);
+
+        // Stored without invalidating the cache: only visible when reading the storage
+        virtualUserTable().addMappingInternal(SOURCE, Mapping.address(ADDRESS_2));
+
+        assertThat(virtualUserTable().getResolvedMappings(USER, SUPPORTED_DOMAIN))
+            .containsOnly(Mapping.address(ADDRESS));
+    }
+
+    @Test
+    default void cachedResolvedMappingsShouldBeInvalidatedByChangesOfAnotherNode() throws Exception {
+        setCachedRecipientRewriteTable();
+        RecordingEventBus eventBus = new RecordingEventBus();
+        virtualUserTable().setEventBus(eventBus);
+        virtualUserTable().addAddressMapping(SOURCE, ADDRESS);
+        virtualUserTable().getResolvedMappings(USER, SUPPORTED_DOMAIN);
+
+        virtualUserTable().addMappingInternal(SOURCE, Mapping.address(ADDRESS_2));
+        eventBus.deliverFromAnotherNode(new RecipientRewriteTableChangedEvent(Event.EventId.random()));
+
+        assertThat(virtualUserTable().getResolvedMappings(USER, SUPPORTED_DOMAIN))
+            .containsOnly(Mapping.address(ADDRESS), Mapping.address(ADDRESS_2));
+    }
+
+    @Test
+    default void mappingChangesShouldBeNotifiedToTheOtherNodes() throws Exception {
+        setCachedRecipientRewriteTable();
+        RecordingEventBus eventBus = new RecordingEventBus();
+        virtualUserTable().setEventBus(eventBus);
+
+        virtualUserTable().addAddressMapping(SOURCE, ADDRESS);
+        virtualUserTable().removeAddressMapping(SOURCE, ADDRESS);
+
+        assertThat(eventBus.dispatchedEvents())
+            .hasSize(2)
+            .allMatch(RecipientRewriteTableChangedEvent.class::isInstance);
+    }
+
+    @Test
+    default void cachedResolvedMappingsShouldBeInvalidatedWhenAddingAMapping() throws Exception {
+        setCachedRecipientRewriteTable();
+        virtualUserTable().addAddressMapping(SOURCE, ADDRESS);
+        virtualUserTable().getResolvedMappings(USER, SUPPORTED_DOMAIN);
+
+        virtualUserTable().addAddressMapping(SOURCE, ADDRESS_2);
+
+        assertThat(virtualUserTable().getResolvedMappings(USER, SUPPORTED_DOMAIN))
+            .containsOnly(Mapping.address(ADDRESS), Mapping.address(ADDRESS_2));
+    }
+
+    @Test
+    default void cachedResolvedMappingsShouldBeInvalidatedWhenRemovingAMapping() throws Exception {
+        setCachedRecipientRewriteTable();
+        virtualUserTable().addAddressMapping(SOURCE, ADDRESS);
+        virtualUserTable().addAddressMapping(SOURCE, ADDRESS_2);
+        virtualUserTable().getResolvedMappings(USER, SUPPORTED_DOMAIN);
+
+        virtualUserTable().removeAddressMapping(SOURCE, ADDRESS_2);
+
+        assertThat(virtualUserTable().getResolvedMappings(USER, SUPPORTED_DOMAIN))
+            .containsOnly(Mapping.address(ADDRESS));
+    }
+
+    @Test
+    default void cachedResolvedMappingsShouldBeInvalidatedWhenARecursedMappingChanges() throws Exception {
+        setCachedRecipientRewriteTable();
+        String address1 = "alice@localhost";
+        virtualUserTable().addAddressMapping(SOURCE, address1);
+        virtualUserTable().getResolvedMappings(USER, SUPPORTED_DOMAIN);
+
+        virtualUserTable().addAddressMapping(MappingSource.parse(address1), ADDRESS_2);
+
+        assertThat(virtualUserTable().getResolvedMappings(USER, SUPPORTED_DOMAIN))
+            .containsOnly(Mapping.address(ADDRESS_2));
+    }
 }
@@ -0,0 +1,78 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.rrt.lib;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.james.events.Event;
+import org.apache.james.events.EventBus;
+import org.apache.james.events.EventListener;
+import org.apache.james.events.Group;
+import org.apache.james.events.Registration;
+import org.apache.james.events.RegistrationKey;
+import org.reactivestreams.Publisher;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the events dispatched by a recipient rewrite table, and delivers its key listeners the events of another
+ * James node.
+ */
+public class RecordingEventBus implements EventBus {
+    private final List<EventListener.ReactiveEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<Event> dispatchedEvents = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Publisher<Registration> register(EventListener.ReactiveEventListener listener, RegistrationKey key) {
+        listeners.add(listener);
+        return Mono.just(() -> listeners.remove(listener));
+    }
+
+    @Override
+    public Registration register(EventListener.ReactiveEventListener listener, Group group) {
+        throw new UnsupportedOperationException("Group listeners are not supported");
+    }
+
+    @Override
+    public Mono<Void> dispatch(Event event, Set<RegistrationKey> key) {
+        return Mono.fromRunnable(() -> dispatchedEvents.add(event));
+    }
+
+    @Override
+    public Mono<Void> reDeliver(Group group, Event event) {
+        return Mono.error(new UnsupportedOperationException("Group listeners are not supported"));
+    }
+
+    public void deliverFromAnotherNode(Event event) {
+        Flux.fromIterable(listeners)
+            .concatMap(listener -> listener.reactiveEvent(event))
+            .then()
+            .block();
+    }
+
+    public List<Event> dispatchedEvents() {
+        return ImmutableList.copyOf(dispatchedEvents);
+    }
+}
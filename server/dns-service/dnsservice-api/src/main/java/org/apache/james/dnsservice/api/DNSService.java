@@ -22,10 +22,18 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Collection;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Provides abstraction for DNS resolutions. The interface is Mail specific. It
  * may be a good idea to make the interface more generic or expose commonly
  * needed DNS methods.
+ *
+ * Each resolution method has a reactive counterpart, which does not block the
+ * calling thread. Callers needing a {@link java.util.concurrent.CompletableFuture}
+ * can rely on {@link Mono#toFuture()}. The default implementations run the
+ * blocking method on an elastic scheduler.
  */
 public interface DNSService {
 
@@ -94,4 +102,51 @@ public interface DNSService {
      */
     String getHostName(InetAddress addr);
 
+    /**
+     * Reactive counterpart of {@link #findMXRecords(String)}
+     *
+     * @return the handling servers, or a {@link TemporaryResolutionException}
+     *         error on temporary problems
+     */
+    default Mono<Collection<String>> findMXRecordsReactive(String hostname) {
+        return Mono.fromCallable(() -> findMXRecords(hostname))
+            .subscribeOn(Schedulers.elastic());
+    }
+
+    /**
+     * Reactive counterpart of {@link #findTXTRecords(String)}
+     */
+    default Mono<Collection<String>> findTXTRecordsReactive(String hostname) {
+        return Mono.fromCallable(() -> findTXTRecords(hostname))
+            .subscribeOn(Schedulers.elastic());
+    }
+
+    /**
+     * Reactive counterpart of {@link #getAllByName(String)}
+     *
+     * @return the resolved addresses, or an {@link UnknownHostException} error
+     */
+    default Mono<Collection<InetAddress>> getAllByNameReactive(String host) {
+        return Mono.fromCallable(() -> getAllByName(host))
+            .subscribeOn(Schedulers.elastic());
+    }
+
+    /**
+     * Reactive counterpart of {@link #getByName(String)}
+     *
+     * @return the resolved address, or an {@link UnknownHostException} error
+     */
+    default Mono<InetAddress> getByNameReactive(String host) {
+        return Mono.fromCallable(() -> getByName(host))
+            .subscribeOn(Schedulers.elastic());
+    }
+
+    /**
+     * Reactive counterpart of {@link #getHostName(InetAddress)}
+     */
+    default Mono<String> getHostNameReactive(InetAddress addr) {
+        return Mono.fromCallable(() -> getHostName(addr))
+            .subscribeOn(Schedulers.elastic());
+    }
+
 }
@@ -21,12 +21,15 @@ package org.apache.james.dnsservice.dnsjava;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -39,7 +42,6 @@ import org.apache.james.dnsservice.api.DNSServiceMBean;
 import org.apache.james.dnsservice.api.TemporaryResolutionException;
 import org.apache.james.lifecycle.api.Configurable;
 import org.apache.james.metrics.api.MetricFactory;
-import org.apache.james.metrics.api.TimeMetric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xbill.DNS.ARecord;
@@ -61,13 +63,24 @@ import org.xbill.DNS.Type;
 
 import com.google.common.collect.ImmutableList;
 
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Provides DNS client functionality to services running inside James
+ *
+ * DNSJava lookups are blocking: they are run on a dedicated bounded scheduler by a {@link LookupEngine},
+ * which coalesces identical lookups in flight and caches their results. Blocking methods wait for
+ * their reactive counterpart.
  */
 public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DNSJavaService.class);
 
     private static final int CACHE_TTL_DISABLE = -1;
+    private static final Duration DEFAULT_NEGATIVE_RESULT_TTL = Duration.ofSeconds(60);
+    private static final int DEFAULT_MAX_CONCURRENT_LOOKUPS = Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
 
     /**
      * A resolver instance used to retrieve DNS records. This is a reference to
@@ -88,6 +101,13 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
 
     private int negativeCacheTTL;
 
+    /**
+     * Maximum number of lookups run at the same time, further lookups get queued.
+     */
+    private int maxConcurrentLookups = DEFAULT_MAX_CONCURRENT_LOOKUPS;
+
+    private LookupEngine lookupEngine;
+
     /**
      * Whether the DNS response is required to be authoritative
      */
@@ -192,6 +212,11 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         maxCacheSize = configuration.getInt("maxcachesize", maxCacheSize);
 
         negativeCacheTTL = configuration.getInt("negativeCacheTTL", CACHE_TTL_DISABLE);
+
+        maxConcurrentLookups = configuration.getInt("maxConcurrentLookups", DEFAULT_MAX_CONCURRENT_LOOKUPS);
+        if (maxConcurrentLookups < 1) {
+            throw new ConfigurationException("maxConcurrentLookups must be strictly positive");
+        }
     }
 
     @PostConstruct
@@ -227,6 +252,9 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         cache.setMaxEntries(maxCacheSize);
         cache.setMaxNCache(negativeCacheTTL);
 
+        Scheduler lookupScheduler = Schedulers.newBoundedElastic(maxConcurrentLookups, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "dns-lookup");
+        lookupEngine = new LookupEngine(this::blockingLookup, lookupScheduler, Clock.systemUTC(), maxCacheSize, negativeResultTtl(), metricFactory);
+
         if (setAsDNSJavaDefault) {
             Lookup.setDefaultResolver(resolver);
             Lookup.setDefaultCache(cache, DClass.IN);
@@ -265,26 +293,25 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         return searchPaths;
     }
 
+    private Duration negativeResultTtl() {
+        if (negativeCacheTTL < 0) {
+            return DEFAULT_NEGATIVE_RESULT_TTL;
+        }
+        return Duration.ofSeconds(negativeCacheTTL);
+    }
+
     /**
-     * Return a prioritized unmodifiable list of MX records obtained from the
+     * Return a prioritized list of MX hosts from the MX records obtained from the
      * server.
      *
-     * @param hostname domain name to look up
-     * @return a list of MX records corresponding to this mail domain
-     * @throws TemporaryResolutionException get thrown on temporary problems
+     * @param answers MX records of the looked up domain
+     * @return a list of MX hosts corresponding to this mail domain
      */
-    private List<String> findMXRecordsRaw(String hostname) throws TemporaryResolutionException {
-        Record[] answers = lookup(hostname, Type.MX, "MX");
+    private List<String> prioritizedServers(List<Record> answers) {
         List<String> servers = new ArrayList<>();
-        if (answers == null) {
-            return servers;
-        }
 
-        MXRecord[] mxAnswers = new MXRecord[answers.length];
+        MXRecord[] mxAnswers = answers.toArray(MXRecord[]::new);
 
-        for (int i = 0; i < answers.length; i++) {
-            mxAnswers[i] = (MXRecord) answers[i];
-        }
         // just sort for now.. This will ensure that mx records with same prio
         // are in sequence
         Arrays.sort(mxAnswers, mxComparator);
@@ -330,28 +357,33 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
 
     @Override
     public Collection<String> findMXRecords(String hostname) throws TemporaryResolutionException {
-        TimeMetric timeMetric = metricFactory.timer("findMXRecords");
-        List<String> servers = new ArrayList<>();
-        try {
-            servers = findMXRecordsRaw(hostname);
-            return Collections.unmodifiableCollection(servers);
-        } finally {
-            // If we found no results, we'll add the original domain name if
-            // it's a valid DNS entry
-            if (servers.size() == 0) {
-                LOGGER.info("Couldn't resolve MX records for domain {}.", hostname);
-                try {
-                    getByName(hostname);
-                    servers.add(hostname);
-                } catch (UnknownHostException uhe) {
-                    // The original domain name is not a valid host,
-                    // so we can't add it to the server list. In this
-                    // case we return an empty list of servers
-                    LOGGER.error("Couldn't resolve IP address for host {}.", hostname, uhe);
-                }
-            }
-            timeMetric.stopAndPublish();
+        return await(findMXRecordsReactive(hostname), TemporaryResolutionException.class);
+    }
+
+    @Override
+    public Mono<Collection<String>> findMXRecordsReactive(String hostname) {
+        return Mono.from(metricFactory.decoratePublisherWithTimerMetric("findMXRecords",
+            lookupEngine.lookup(hostname, Type.MX)
+                .map(this::prioritizedServers)
+                .flatMap(servers -> serversOrHostname(hostname, servers))));
+    }
+
+    private Mono<Collection<String>> serversOrHostname(String hostname, List<String> servers) {
+        if (!servers.isEmpty()) {
+            return Mono.just(Collections.unmodifiableCollection(servers));
         }
+        // If we found no results, we'll add the original domain name if
+        // it's a valid DNS entry
+        LOGGER.info("Couldn't resolve MX records for domain {}.", hostname);
+        return getByNameReactive(hostname)
+            .<Collection<String>>map(any -> ImmutableList.of(hostname))
+            .onErrorResume(UnknownHostException.class, uhe -> {
+                // The original domain name is not a valid host,
+                // so we can't add it to the server list. In this
+                // case we return an empty list of servers
+                LOGGER.error("Couldn't resolve IP address for host {}.", hostname, uhe);
+                return Mono.just(ImmutableList.of());
+            });
     }
 
     /**
@@ -396,15 +428,33 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         }
     }
 
-    protected Record[] lookupNoException(String namestr, int type, String typeDesc) {
-        try {
-            return lookup(namestr, type, typeDesc);
-        } catch (TemporaryResolutionException e) {
-            return null;
+    private List<Record> blockingLookup(String namestr, int type) throws TemporaryResolutionException {
+        Record[] records = lookup(namestr, type, Type.string(type));
+        if (records == null) {
+            return ImmutableList.of();
         }
+        return ImmutableList.copyOf(records);
     }
 
+    private Mono<List<Record>> lookupNoException(String namestr, int type) {
+        return lookupEngine.lookup(namestr, type)
+            .onErrorResume(TemporaryResolutionException.class, e -> Mono.just(ImmutableList.of()));
+    }
 
+    /**
+     * Wait for the given resolution, rethrowing the checked exception it may fail with
+     */
+    private static <T, E extends Exception> T await(Mono<T> resolution, Class<E> checkedException) throws E {
+        try {
+            return resolution.block();
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (checkedException.isInstance(cause)) {
+                throw checkedException.cast(cause);
+            }
+            throw e;
+        }
+    }
 
     /*
      * java.net.InetAddress.get[All]ByName(String) allows an IP literal to be
@@ -432,100 +482,107 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         return host;
     }
 
+    private boolean isLocal(String name) {
+        return name.equalsIgnoreCase(localHostName) || name.equalsIgnoreCase(localCanonicalHostName) || name.equals(localAddress);
+    }
+
     @Override
     public InetAddress getByName(String host) throws UnknownHostException {
-        TimeMetric timeMetric = metricFactory.timer("getByName");
+        return await(getByNameReactive(host), UnknownHostException.class);
+    }
+
+    @Override
+    public Mono<InetAddress> getByNameReactive(String host) {
         String name = allowIPLiteral(host);
 
-        try {
-            // Check if its local
-            if (name.equalsIgnoreCase(localHostName) || name.equalsIgnoreCase(localCanonicalHostName) || name.equals(localAddress)) {
-                return getLocalHost();
-            }
+        // Check if its local
+        if (isLocal(name)) {
+            return Mono.fromCallable(this::getLocalHost);
+        }
 
-            return org.xbill.DNS.Address.getByAddress(name);
+        try {
+            return Mono.just(org.xbill.DNS.Address.getByAddress(name));
         } catch (UnknownHostException e) {
-            Record[] records = lookupNoException(name, Type.A, "A");
-
-            if (records != null && records.length >= 1) {
-                ARecord a = (ARecord) records[0];
-                return InetAddress.getByAddress(name, a.getAddress().getAddress());
-            } else {
-                throw e;
-            }
-        } finally {
-            timeMetric.stopAndPublish();
+            return Mono.from(metricFactory.decoratePublisherWithTimerMetric("getByName",
+                lookupNoException(name, Type.A)
+                    .flatMap(records -> {
+                        if (records.isEmpty()) {
+                            return Mono.error(e);
+                        }
+                        ARecord a = (ARecord) records.get(0);
+                        return Mono.fromCallable(() -> InetAddress.getByAddress(name, a.getAddress().getAddress()));
+                    })));
         }
     }
 
     @Override
     public Collection<InetAddress> getAllByName(String host) throws UnknownHostException {
-        TimeMetric timeMetric = metricFactory.timer("getAllByName");
+        return await(getAllByNameReactive(host), UnknownHostException.class);
+    }
+
+    @Override
+    public Mono<Collection<InetAddress>> getAllByNameReactive(String host) {
         String name = allowIPLiteral(host);
-        try {
-            // Check if its local
-            if (name.equalsIgnoreCase(localHostName) || name.equalsIgnoreCase(localCanonicalHostName) || name.equals(localAddress)) {
-                return ImmutableList.of(getLocalHost());
-            }
 
-            InetAddress addr = org.xbill.DNS.Address.getByAddress(name);
-            return ImmutableList.of(addr);
+        // Check if its local
+        if (isLocal(name)) {
+            return Mono.fromCallable(() -> ImmutableList.of(getLocalHost()));
+        }
+
+        try {
+            return Mono.just(ImmutableList.of(org.xbill.DNS.Address.getByAddress(name)));
         } catch (UnknownHostException e) {
-            Record[] records = lookupNoException(name, Type.A, "A");
+            return Mono.from(metricFactory.decoratePublisherWithTimerMetric("getAllByName",
+                lookupNoException(name, Type.A)
+                    .flatMap(records -> {
+                        if (records.isEmpty()) {
+                            return Mono.error(e);
+                        }
+                        return Mono.fromCallable(() -> toInetAddresses(name, records));
+                    })));
+        }
+    }
 
-            if (records != null && records.length >= 1) {
-                InetAddress[] addrs = new InetAddress[records.length];
-                for (int i = 0; i < records.length; i++) {
-                    ARecord a = (ARecord) records[i];
-                    addrs[i] = InetAddress.getByAddress(name, a.getAddress().getAddress());
-                }
-                return ImmutableList.copyOf(addrs);
-            } else {
-                throw e;
-            }
-        } finally {
-            timeMetric.stopAndPublish();
+    private Collection<InetAddress> toInetAddresses(String name, List<Record> records) throws UnknownHostException {
+        ImmutableList.Builder<InetAddress> addrs = ImmutableList.builder();
+        for (Record record : records) {
+            ARecord a = (ARecord) record;
+            addrs.add(InetAddress.getByAddress(name, a.getAddress().getAddress()));
         }
+        return addrs.build();
     }
 
     @Override
     public Collection<String> findTXTRecords(String hostname) {
-        TimeMetric timeMetric = metricFactory.timer("findTXTRecords");
-        List<String> txtR = new ArrayList<>();
-        Record[] records = lookupNoException(hostname, Type.TXT, "TXT");
-
-        try {
-            if (records != null) {
-                for (Record record : records) {
-                    TXTRecord txt = (TXTRecord) record;
-                    txtR.add(txt.rdataToString());
-                }
+        return findTXTRecordsReactive(hostname).block();
+    }
 
-            }
-            return txtR;
-        } finally {
-            timeMetric.stopAndPublish();
-        }
+    @Override
+    public Mono<Collection<String>> findTXTRecordsReactive(String hostname) {
+        return Mono.from(metricFactory.decoratePublisherWithTimerMetric("findTXTRecords",
+            lookupNoException(hostname, Type.TXT)
+                .<Collection<String>>map(records -> records.stream()
+                    .map(record -> ((TXTRecord) record).rdataToString())
+                    .collect(Collectors.toList()))));
     }
 
     @Override
     public String getHostName(InetAddress addr) {
-        TimeMetric timeMetric = metricFactory.timer("getHostName");
-        String result;
-        Name name = ReverseMap.fromAddress(addr);
-        Record[] records = lookupNoException(name.toString(), Type.PTR, "PTR");
+        return getHostNameReactive(addr).block();
+    }
 
-        try {
-            if (records == null) {
-                result = addr.getHostAddress();
-            } else {
-                PTRRecord ptr = (PTRRecord) records[0];
-                result = ptr.getTarget().toString();
-            }
-            return result;
-        } finally {
-            timeMetric.stopAndPublish();
-        }
+    @Override
+    public Mono<String> getHostNameReactive(InetAddress addr) {
+        Name name = ReverseMap.fromAddress(addr);
+        return Mono.from(metricFactory.decoratePublisherWithTimerMetric("getHostName",
+            lookupNoException(name.toString(), Type.PTR)
+                .map(records -> {
+                    if (records.isEmpty()) {
+                        return addr.getHostAddress();
+                    }
+                    PTRRecord ptr = (PTRRecord) records.get(0);
+                    return ptr.getTarget().toString();
+                })));
     }
 
     @Override
@@ -546,6 +603,7 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
     @Override
     public void clearCache() {
         cache.clearCache();
+        lookupEngine.clear();
     }
 
 }
@@ -0,0 +1,201 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.dnsservice.dnsjava;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.james.dnsservice.api.TemporaryResolutionException;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.xbill.DNS.Record;
+import org.xbill.DNS.Type;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Runs DNS lookups on a dedicated scheduler so that callers are not blocked during the resolver round-trip.
+ *
+ * Identical lookups in flight are coalesced: only the first one reaches the resolver, the others wait for its
+ * result. Results are then cached for the smallest TTL of the returned records. Empty results (the name or the
+ * record type does not exist) are cached for the negative TTL. Temporary failures are not cached.
+ */
+class LookupEngine {
+
+    @FunctionalInterface
+    interface BlockingLookup {
+        /**
+         * @return the records found, empty if none
+         */
+        List<Record> lookup(String name, int type) throws TemporaryResolutionException;
+    }
+
+    static final String CACHE_HIT_METRIC_NAME = "dnsLookupCacheHit";
+    static final String CACHE_MISS_METRIC_NAME = "dnsLookupCacheMiss";
+    static final String COALESCED_METRIC_NAME = "dnsLookupCoalesced";
+
+    private static class LookupKey {
+        private final String name;
+        private final int type;
+
+        private LookupKey(String name, int type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof LookupKey) {
+                LookupKey that = (LookupKey) o;
+
+                return Objects.equals(this.name, that.name)
+                    && Objects.equals(this.type, that.type);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(name, type);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("name", name)
+                .add("type", Type.string(type))
+                .toString();
+        }
+    }
+
+    private static class CachedResult {
+        private final List<Record> records;
+        private final Instant expiry;
+
+        private CachedResult(List<Record> records, Instant expiry) {
+            this.records = records;
+            this.expiry = expiry;
+        }
+    }
+
+    private final BlockingLookup blockingLookup;
+    private final Scheduler scheduler;
+    private final Clock clock;
+    private final Duration negativeTtl;
+    private final Cache<LookupKey, CachedResult> results;
+    private final ConcurrentMap<LookupKey, Mono<List<Record>>> inFlightLookups;
+    private final Metric cacheHits;
+    private final Metric cacheMisses;
+    private final Metric coalescedLookups;
+
+    LookupEngine(BlockingLookup blockingLookup, Scheduler scheduler, Clock clock, int maxCacheSize, Duration negativeTtl, MetricFactory metricFactory) {
+        this.blockingLookup = blockingLookup;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.negativeTtl = negativeTtl;
+        this.results = CacheBuilder.newBuilder()
+            .maximumSize(maxCacheSize)
+            .build();
+        this.inFlightLookups = new ConcurrentHashMap<>();
+        this.cacheHits = metricFactory.generate(CACHE_HIT_METRIC_NAME);
+        this.cacheMisses = metricFactory.generate(CACHE_MISS_METRIC_NAME);
+        this.coalescedLookups = metricFactory.generate(COALESCED_METRIC_NAME);
+    }
+
+    /**
+     * @return the records found, empty if none, or a {@link TemporaryResolutionException} error
+     */
+    Mono<List<Record>> lookup(String name, int type) {
+        LookupKey key = new LookupKey(name, type);
+        return Mono.defer(() -> cachedResult(key)
+            .map(records -> {
+                cacheHits.increment();
+                return Mono.just(records);
+            })
+            .orElseGet(() -> {
+                cacheMisses.increment();
+                return joinOrStartLookup(key);
+            }));
+    }
+
+    void clear() {
+        results.invalidateAll();
+    }
+
+    private Optional<List<Record>> cachedResult(LookupKey key) {
+        CachedResult cachedResult = results.getIfPresent(key);
+        if (cachedResult == null) {
+            return Optional.empty();
+        }
+        if (!clock.instant().isBefore(cachedResult.expiry)) {
+            results.asMap().remove(key, cachedResult);
+            return Optional.empty();
+        }
+        return Optional.of(cachedResult.records);
+    }
+
+    private Mono<List<Record>> joinOrStartLookup(LookupKey key) {
+        AtomicBoolean started = new AtomicBoolean(false);
+        Mono<List<Record>> lookup = inFlightLookups.computeIfAbsent(key, any -> {
+            started.set(true);
+            return startLookup(key);
+        });
+        if (!started.get()) {
+            coalescedLookups.increment();
+        }
+        return lookup;
+    }
+
+    private Mono<List<Record>> startLookup(LookupKey key) {
+        return Mono.fromCallable(() -> blockingLookup.lookup(key.name, key.type))
+            .subscribeOn(scheduler)
+            .doOnNext(records -> cache(key, records))
+            .doFinally(any -> inFlightLookups.remove(key))
+            .cache();
+    }
+
+    private void cache(LookupKey key, List<Record> records) {
+        Duration ttl = ttl(records);
+        if (!ttl.isNegative() && !ttl.isZero()) {
+            results.put(key, new CachedResult(records, clock.instant().plus(ttl)));
+        }
+    }
+
+    private Duration ttl(List<Record> records) {
+        if (records.isEmpty()) {
+            return negativeTtl;
+        }
+        return Duration.ofSeconds(records.stream()
+            .mapToLong(Record::getTTL)
+            .min()
+            .getAsLong());
+    }
+}
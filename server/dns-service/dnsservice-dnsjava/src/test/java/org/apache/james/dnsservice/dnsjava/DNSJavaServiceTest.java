@@ -22,8 +22,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Fail.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -44,6 +47,7 @@ import org.xbill.DNS.DClass;
 import org.xbill.DNS.Lookup;
 import org.xbill.DNS.Name;
 import org.xbill.DNS.Resolver;
+import org.xbill.DNS.Type;
 import org.xbill.DNS.Zone;
 
 import com.google.common.io.Resources;
@@ -208,6 +212,31 @@ class DNSJavaServiceTest {
         assertThat(records.size()).isEqualTo(1);
         assertThat(records.contains("mx1.one-mx.bar.")).isTrue();
     }
+    @Test
+    void findMXRecordsReactiveShouldReturnPrioritizedServers() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("three-mx.bar.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        ArrayList<String> records = new ArrayList<>(dnsServer.findMXRecordsReactive("three-mx.bar.").block());
+        assertThat(records).hasSize(3);
+        assertThat(records).contains("mx1.three-mx.bar.", "mx2.three-mx.bar.");
+        assertThat(records.get(2)).isEqualTo("mx3.three-mx.bar.");
+    }
+
+    @Test
+    void findMXRecordsShouldNotLookupTwiceWithinRecordsTtl() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("one-mx.bar.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        dnsServer.findMXRecords("one-mx.bar.");
+        Collection<String> records = dnsServer.findMXRecords("one-mx.bar.");
+
+        assertThat(records).containsExactly("mx1.one-mx.bar.");
+        verify(mockedCache, times(1)).lookupRecords(any(Name.class), eq(Type.MX), anyInt());
+    }
+
     /*
      * public void testCNAMEasMXrecords() throws Exception { // Zone z =
      * loadZone("brandilyncollins.com."); dnsServer.setResolver(null);
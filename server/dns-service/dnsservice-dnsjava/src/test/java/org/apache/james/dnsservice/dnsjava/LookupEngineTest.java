@@ -0,0 +1,219 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.dnsservice.dnsjava;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.dnsservice.api.TemporaryResolutionException;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xbill.DNS.ARecord;
+import org.xbill.DNS.DClass;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.Record;
+import org.xbill.DNS.Type;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+class LookupEngineTest {
+    private static final String KNOWN_HOST = "known.tld.";
+    private static final String UNKNOWN_HOST = "unknown.tld.";
+    private static final String UNREACHABLE_HOST = "unreachable.tld.";
+    private static final long TTL_IN_SECONDS = 300;
+    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(60);
+    private static final Instant NOW = Instant.parse("2021-01-01T00:00:00Z");
+
+    private AtomicInteger lookupCount;
+    private UpdatableTickingClock clock;
+    private RecordingMetricFactory metricFactory;
+    private LookupEngine testee;
+    private Record knownHostRecord;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lookupCount = new AtomicInteger();
+        clock = new UpdatableTickingClock(NOW);
+        metricFactory = new RecordingMetricFactory();
+        knownHostRecord = new ARecord(Name.fromString(KNOWN_HOST), DClass.IN, TTL_IN_SECONDS, InetAddress.getByName("192.0.2.1"));
+        testee = new LookupEngine(this::stubLookup, Schedulers.elastic(), clock, 100, NEGATIVE_TTL, metricFactory);
+    }
+
+    private List<Record> stubLookup(String name, int type) throws TemporaryResolutionException {
+        lookupCount.incrementAndGet();
+        if (name.equals(UNREACHABLE_HOST)) {
+            throw new TemporaryResolutionException("DNSService is temporary not reachable");
+        }
+        if (name.equals(KNOWN_HOST)) {
+            return ImmutableList.of(knownHostRecord);
+        }
+        return ImmutableList.of();
+    }
+
+    @Test
+    void lookupShouldReturnRecords() {
+        assertThat(testee.lookup(KNOWN_HOST, Type.A).block())
+            .containsExactly(knownHostRecord);
+    }
+
+    @Test
+    void lookupShouldReturnEmptyWhenNoRecords() {
+        assertThat(testee.lookup(UNKNOWN_HOST, Type.A).block())
+            .isEmpty();
+    }
+
+    @Test
+    void lookupShouldPropagateTemporaryResolutionException() {
+        assertThatThrownBy(() -> testee.lookup(UNREACHABLE_HOST, Type.A).block())
+            .hasCauseInstanceOf(TemporaryResolutionException.class);
+    }
+
+    @Test
+    void lookupShouldBeLazy() {
+        testee.lookup(KNOWN_HOST, Type.A);
+
+        assertThat(lookupCount.get()).isZero();
+    }
+
+    @Test
+    void lookupShouldCacheRecordsDuringTheirTtl() {
+        testee.lookup(KNOWN_HOST, Type.A).block();
+        clock.setInstant(NOW.plusSeconds(TTL_IN_SECONDS - 1));
+
+        assertThat(testee.lookup(KNOWN_HOST, Type.A).block())
+            .containsExactly(knownHostRecord);
+        assertThat(lookupCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    void lookupShouldResolveAgainWhenTtlIsExpired() {
+        testee.lookup(KNOWN_HOST, Type.A).block();
+        clock.setInstant(NOW.plusSeconds(TTL_IN_SECONDS));
+
+        testee.lookup(KNOWN_HOST, Type.A).block();
+
+        assertThat(lookupCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void lookupShouldNotShareResultsAcrossRecordTypes() {
+        testee.lookup(KNOWN_HOST, Type.A).block();
+        testee.lookup(KNOWN_HOST, Type.MX).block();
+
+        assertThat(lookupCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void lookupShouldCacheEmptyResultsDuringNegativeTtl() {
+        testee.lookup(UNKNOWN_HOST, Type.A).block();
+        clock.setInstant(NOW.plus(NEGATIVE_TTL).minusSeconds(1));
+
+        testee.lookup(UNKNOWN_HOST, Type.A).block();
+
+        assertThat(lookupCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    void lookupShouldResolveAgainWhenNegativeTtlIsExpired() {
+        testee.lookup(UNKNOWN_HOST, Type.A).block();
+        clock.setInstant(NOW.plus(NEGATIVE_TTL));
+
+        testee.lookup(UNKNOWN_HOST, Type.A).block();
+
+        assertThat(lookupCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void lookupShouldNotCacheEmptyResultsWhenNegativeTtlIsZero() {
+        testee = new LookupEngine(this::stubLookup, Schedulers.elastic(), clock, 100, Duration.ZERO, metricFactory);
+
+        testee.lookup(UNKNOWN_HOST, Type.A).block();
+        testee.lookup(UNKNOWN_HOST, Type.A).block();
+
+        assertThat(lookupCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void lookupShouldNotCacheTemporaryFailures() {
+        Mono<List<Record>> lookup = testee.lookup(UNREACHABLE_HOST, Type.A)
+            .onErrorResume(TemporaryResolutionException.class, e -> Mono.just(ImmutableList.of()));
+
+        lookup.block();
+        lookup.block();
+
+        assertThat(lookupCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void clearShouldEvictCachedResults() {
+        testee.lookup(KNOWN_HOST, Type.A).block();
+
+        testee.clear();
+        testee.lookup(KNOWN_HOST, Type.A).block();
+
+        assertThat(lookupCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentLookupsShouldBeCoalesced() throws Exception {
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch lookupAllowed = new CountDownLatch(1);
+        testee = new LookupEngine((name, type) -> {
+            lookupStarted.countDown();
+            Uninterruptibles.awaitUninterruptibly(lookupAllowed, 10, TimeUnit.SECONDS);
+            return stubLookup(name, type);
+        }, Schedulers.elastic(), clock, 100, NEGATIVE_TTL, metricFactory);
+
+        Mono<List<Record>> firstLookup = testee.lookup(KNOWN_HOST, Type.A).cache();
+        firstLookup.subscribe();
+        lookupStarted.await(10, TimeUnit.SECONDS);
+        Mono<List<Record>> secondLookup = testee.lookup(KNOWN_HOST, Type.A).cache();
+        secondLookup.subscribe();
+        lookupAllowed.countDown();
+
+        assertThat(firstLookup.block()).containsExactly(knownHostRecord);
+        assertThat(secondLookup.block()).containsExactly(knownHostRecord);
+        assertThat(lookupCount.get()).isEqualTo(1);
+        assertThat(metricFactory.countFor(LookupEngine.COALESCED_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void lookupShouldRecordCacheHitsAndMisses() {
+        testee.lookup(KNOWN_HOST, Type.A).block();
+        testee.lookup(KNOWN_HOST, Type.A).block();
+        testee.lookup(KNOWN_HOST, Type.A).block();
+
+        assertThat(metricFactory.countFor(LookupEngine.CACHE_MISS_METRIC_NAME)).isEqualTo(1);
+        assertThat(metricFactory.countFor(LookupEngine.CACHE_HIT_METRIC_NAME)).isEqualTo(2);
+    }
+}
@@ -63,6 +63,16 @@ public class Inet4Network implements InetNetwork {
         }
     }
 
+    @Override
+    public byte[] getNetworkAddress() {
+        return network.getAddress();
+    }
+
+    @Override
+    public byte[] getMask() {
+        return netmask.getAddress();
+    }
+
     @Override
     public String toString() {
         return network.getHostAddress() + "/" + netmask.getHostAddress();
@@ -61,6 +61,16 @@ public class Inet6Network implements InetNetwork {
         }
     }
 
+    @Override
+    public byte[] getNetworkAddress() {
+        return network.getAddress();
+    }
+
+    @Override
+    public byte[] getMask() {
+        return maskBytes(netmask);
+    }
+
     @Override
     public String toString() {
         return network.getHostAddress() + "/" + netmask;
@@ -77,6 +87,10 @@ public class Inet6Network implements InetNetwork {
     }
 
     private static InetAddress maskIP(InetAddress ip, Integer mask) {
+        return maskIP(ip.getAddress(), maskBytes(mask));
+    }
+
+    private static byte[] maskBytes(Integer mask) {
         byte[] maskBytes = new byte[16];
         int i = 0;
         while (mask > 0) {
@@ -84,7 +98,7 @@ public class Inet6Network implements InetNetwork {
             i++;
             mask = (mask >> 1);
         }
-        return maskIP(ip.getAddress(), maskBytes);
+        return maskBytes;
     }
 
     /**
@@ -39,4 +39,18 @@ public interface InetNetwork {
      */
     boolean contains(InetAddress ip);
 
+    /**
+     * Return the network address, that is the IP address on which the subnet mask is applied
+     *
+     * @return the raw network address
+     */
+    byte[] getNetworkAddress();
+
+    /**
+     * Return the subnet mask applied to the IP addresses this network is checked against
+     *
+     * @return the raw subnet mask, of the same length than the network address
+     */
+    byte[] getMask();
+
 }
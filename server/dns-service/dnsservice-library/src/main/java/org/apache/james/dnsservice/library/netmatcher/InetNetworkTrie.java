@@ -0,0 +1,199 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.dnsservice.library.netmatcher;
+
+import java.util.OptionalInt;
+
+/**
+ * Binary radix (Patricia) trie of networks sharing an address length, either IPv4 or IPv6 networks.
+ *
+ * Each node holds the network address and the length of the prefix it stands for, hence single child chains
+ * are collapsed. Networks contained in an already inserted network are not stored: lookups only need to
+ * know whether a network contains the address. Lookups walk at most one node per distinct prefix length and
+ * do not allocate.
+ *
+ * The trie is not thread safe when mutated: build it first, then share it for lookups.
+ */
+class InetNetworkTrie {
+
+    private static class Node {
+        private final byte[] key;
+        private final int prefixLength;
+        private boolean terminal;
+        private Node zero;
+        private Node one;
+
+        private Node(byte[] key, int prefixLength, boolean terminal) {
+            this.key = key;
+            this.prefixLength = prefixLength;
+            this.terminal = terminal;
+        }
+
+        private Node child(byte[] address) {
+            if (bitAt(address, prefixLength)) {
+                return one;
+            }
+            return zero;
+        }
+
+        private void setChild(Node child) {
+            if (bitAt(child.key, prefixLength)) {
+                one = child;
+            } else {
+                zero = child;
+            }
+        }
+
+        private void replaceChild(Node oldChild, Node newChild) {
+            if (zero == oldChild) {
+                zero = newChild;
+            } else {
+                one = newChild;
+            }
+        }
+    }
+
+    /**
+     * Return the length of the prefix described by the given subnet mask, or nothing if the mask bits are not
+     * contiguous
+     */
+    static OptionalInt prefixLength(byte[] mask) {
+        int length = 0;
+        while (length < mask.length * Byte.SIZE && bitAt(mask, length)) {
+            length++;
+        }
+        for (int i = length; i < mask.length * Byte.SIZE; i++) {
+            if (bitAt(mask, i)) {
+                return OptionalInt.empty();
+            }
+        }
+        return OptionalInt.of(length);
+    }
+
+    private final int addressLength;
+    private Node root;
+
+    InetNetworkTrie(int addressLength) {
+        this.addressLength = addressLength;
+    }
+
+    void insert(byte[] networkAddress, int prefixLength) {
+        if (networkAddress.length != addressLength || prefixLength < 0 || prefixLength > addressLength * Byte.SIZE) {
+            throw new IllegalArgumentException("Invalid network of length " + networkAddress.length + " with prefix length " + prefixLength);
+        }
+        byte[] key = mask(networkAddress, prefixLength);
+        Node parent = null;
+        Node node = root;
+        while (node != null) {
+            int commonLength = commonPrefixLength(node.key, key, Math.min(node.prefixLength, prefixLength));
+            if (commonLength < node.prefixLength) {
+                replace(parent, node, split(node, key, prefixLength, commonLength));
+                return;
+            }
+            if (node.terminal) {
+                // Already contained in an inserted network
+                return;
+            }
+            if (node.prefixLength == prefixLength) {
+                // Contains the networks stored below
+                node.terminal = true;
+                node.zero = null;
+                node.one = null;
+                return;
+            }
+            Node child = node.child(key);
+            if (child == null) {
+                node.setChild(new Node(key, prefixLength, true));
+                return;
+            }
+            parent = node;
+            node = child;
+        }
+        root = new Node(key, prefixLength, true);
+    }
+
+    private Node split(Node node, byte[] key, int prefixLength, int commonLength) {
+        if (commonLength == prefixLength) {
+            // The inserted network contains the node
+            return new Node(key, prefixLength, true);
+        }
+        Node split = new Node(mask(key, commonLength), commonLength, false);
+        split.setChild(node);
+        split.setChild(new Node(key, prefixLength, true));
+        return split;
+    }
+
+    private void replace(Node parent, Node oldNode, Node newNode) {
+        if (parent == null) {
+            root = newNode;
+        } else {
+            parent.replaceChild(oldNode, newNode);
+        }
+    }
+
+    /**
+     * Return true if one of the inserted networks contains the given raw address. Addresses of another length
+     * are never contained.
+     */
+    boolean contains(byte[] address) {
+        if (address.length != addressLength) {
+            return false;
+        }
+        Node node = root;
+        while (node != null) {
+            if (commonPrefixLength(node.key, address, node.prefixLength) < node.prefixLength) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+            node = node.child(address);
+        }
+        return false;
+    }
+
+    private static boolean bitAt(byte[] bytes, int index) {
+        return (bytes[index / Byte.SIZE] & (0x80 >>> (index % Byte.SIZE))) != 0;
+    }
+
+    private static int commonPrefixLength(byte[] a, byte[] b, int limit) {
+        int length = 0;
+        for (int i = 0; length < limit; i++) {
+            int difference = (a[i] ^ b[i]) & 0xFF;
+            if (difference != 0) {
+                length += Integer.numberOfLeadingZeros(difference) - (Integer.SIZE - Byte.SIZE);
+                return Math.min(length, limit);
+            }
+            length += Byte.SIZE;
+        }
+        return Math.min(length, limit);
+    }
+
+    private static byte[] mask(byte[] address, int prefixLength) {
+        byte[] masked = new byte[address.length];
+        int fullBytes = prefixLength / Byte.SIZE;
+        System.arraycopy(address, 0, masked, 0, fullBytes);
+        int remainingBits = prefixLength % Byte.SIZE;
+        if (remainingBits > 0) {
+            masked[fullBytes] = (byte) (address[fullBytes] & (0xFF << (Byte.SIZE - remainingBits)));
+        }
+        return masked;
+    }
+}
@@ -20,10 +20,12 @@ package org.apache.james.dnsservice.library.netmatcher;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
+import java.util.OptionalInt;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -40,12 +42,21 @@ import com.google.common.base.Splitter;
  * 
  * NetMatcher provides a means for checking whether a particular IPv4 or IPv6
  * address or domain name is within a set of subnets.
+ *
+ * Networks are indexed by a radix trie per address family, built once, so that
+ * the cost of a lookup does not depend on the count of networks. Networks whose
+ * mask bits are not contiguous are checked one by one. IPv4-mapped IPv6 networks
+ * and addresses (::ffff:a.b.c.d) are handled as IPv4 ones.
  */
 public class NetMatcher {
     private static final Logger LOGGER = LoggerFactory.getLogger(NetMatcher.class);
 
     public static final String NETS_SEPARATOR = ",";
 
+    private static final int IPV4_ADDRESS_LENGTH = 4;
+    private static final int IPV6_ADDRESS_LENGTH = 16;
+    private static final int IPV4_MAPPED_PREFIX_LENGTH = 96;
+
     /**
      * The DNS Service used to build InetNetworks.
      */
@@ -56,6 +67,17 @@ public class NetMatcher {
      */
     private SortedSet<InetNetwork> networks;
 
+    /**
+     * The networks indexed by address family.
+     */
+    private InetNetworkTrie ipv4Networks;
+    private InetNetworkTrie ipv6Networks;
+
+    /**
+     * The networks which can not be expressed as a prefix.
+     */
+    private List<InetNetwork> nonPrefixNetworks;
+
     /**
      * Create a new instance of Netmatcher.
      * 
@@ -119,16 +141,38 @@ public class NetMatcher {
      * @return true if match the network
      */
     public boolean matchInetNetwork(InetAddress ip) {
+        return matchInetNetwork(ip.getAddress());
+    }
 
-        boolean sameNet = false;
-
-        for (Iterator<InetNetwork> iter = networks.iterator(); (!sameNet) && iter.hasNext();) {
-            InetNetwork network = iter.next();
-            sameNet = network.contains(ip);
+    /**
+     * Return true if the passed raw IPv4 or IPv6 address match a network which
+     * was used to construct the Netmatcher.
+     *
+     * @param address
+     *            the raw address, as returned by {@link InetAddress#getAddress()}
+     * @return true if match the network
+     */
+    public boolean matchInetNetwork(byte[] address) {
+        if (ipv4Networks.contains(address) || ipv6Networks.contains(address)) {
+            return true;
         }
+        if (isIpv4Mapped(address) && ipv4Networks.contains(Arrays.copyOfRange(address, IPV4_MAPPED_PREFIX_LENGTH / Byte.SIZE, IPV6_ADDRESS_LENGTH))) {
+            return true;
+        }
+        return matchNonPrefixNetworks(address);
+    }
 
-        return sameNet;
-
+    private boolean matchNonPrefixNetworks(byte[] address) {
+        if (nonPrefixNetworks.isEmpty()) {
+            return false;
+        }
+        try {
+            InetAddress ip = InetAddress.getByAddress(address);
+            return nonPrefixNetworks.stream()
+                .anyMatch(network -> network.contains(ip));
+        } catch (UnknownHostException e) {
+            return false;
+        }
     }
 
     @Override
@@ -167,6 +211,54 @@ public class NetMatcher {
             }
         }
 
+        indexInetNetworks();
+    }
+
+    private void indexInetNetworks() {
+        ipv4Networks = new InetNetworkTrie(IPV4_ADDRESS_LENGTH);
+        ipv6Networks = new InetNetworkTrie(IPV6_ADDRESS_LENGTH);
+        nonPrefixNetworks = new ArrayList<>();
+
+        for (InetNetwork network : networks) {
+            byte[] networkAddress = network.getNetworkAddress();
+            OptionalInt prefixLength = prefixLength(network);
+            if (prefixLength.isPresent() && networkAddress.length == IPV4_ADDRESS_LENGTH) {
+                ipv4Networks.insert(networkAddress, prefixLength.getAsInt());
+            } else if (prefixLength.isPresent() && networkAddress.length == IPV6_ADDRESS_LENGTH) {
+                ipv6Networks.insert(networkAddress, prefixLength.getAsInt());
+            } else {
+                nonPrefixNetworks.add(network);
+            }
+        }
+    }
+
+    /**
+     * Networks built from an IPv4-mapped IPv6 address have an IPv4 network address but an IPv6 mask: their
+     * prefix length is then made relative to the IPv4 address.
+     */
+    private static OptionalInt prefixLength(InetNetwork network) {
+        byte[] mask = network.getMask();
+        OptionalInt prefixLength = InetNetworkTrie.prefixLength(mask);
+        if (prefixLength.isPresent() && mask.length == IPV6_ADDRESS_LENGTH && network.getNetworkAddress().length == IPV4_ADDRESS_LENGTH) {
+            int ipv4PrefixLength = prefixLength.getAsInt() - IPV4_MAPPED_PREFIX_LENGTH;
+            if (ipv4PrefixLength < 0) {
+                return OptionalInt.empty();
+            }
+            return OptionalInt.of(ipv4PrefixLength);
+        }
+        return prefixLength;
+    }
+
+    private static boolean isIpv4Mapped(byte[] address) {
+        if (address.length != IPV6_ADDRESS_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) {
+                return false;
+            }
+        }
+        return address[10] == (byte) 0xFF && address[11] == (byte) 0xFF;
     }
 
 }
@@ -0,0 +1,165 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.dnsservice.library.netmatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.junit.jupiter.api.Test;
+
+class InetNetworkTrieTest {
+
+    private static byte[] address(String ip) throws UnknownHostException {
+        return InetAddress.getByName(ip).getAddress();
+    }
+
+    @Test
+    void prefixLengthShouldCountContiguousMaskBits() throws Exception {
+        assertThat(InetNetworkTrie.prefixLength(address("255.255.240.0"))).hasValue(20);
+    }
+
+    @Test
+    void prefixLengthShouldAcceptEmptyMask() throws Exception {
+        assertThat(InetNetworkTrie.prefixLength(address("0.0.0.0"))).hasValue(0);
+    }
+
+    @Test
+    void prefixLengthShouldAcceptFullMask() throws Exception {
+        assertThat(InetNetworkTrie.prefixLength(address("255.255.255.255"))).hasValue(32);
+    }
+
+    @Test
+    void prefixLengthShouldBeEmptyWhenMaskBitsAreNotContiguous() throws Exception {
+        assertThat(InetNetworkTrie.prefixLength(address("255.0.255.0"))).isEmpty();
+    }
+
+    @Test
+    void containsShouldReturnFalseWhenEmpty() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(4);
+
+        assertThat(trie.contains(address("10.0.0.1"))).isFalse();
+    }
+
+    @Test
+    void containsShouldMatchAddressesOfInsertedNetwork() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(4);
+        trie.insert(address("192.168.1.0"), 24);
+
+        assertThat(trie.contains(address("192.168.1.254"))).isTrue();
+        assertThat(trie.contains(address("192.168.2.1"))).isFalse();
+    }
+
+    @Test
+    void containsShouldMatchSingleAddressNetwork() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(4);
+        trie.insert(address("127.0.0.1"), 32);
+
+        assertThat(trie.contains(address("127.0.0.1"))).isTrue();
+        assertThat(trie.contains(address("127.0.0.2"))).isFalse();
+    }
+
+    @Test
+    void containsShouldMatchEveryAddressWhenEmptyPrefixInserted() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(4);
+        trie.insert(address("0.0.0.0"), 0);
+
+        assertThat(trie.contains(address("203.0.113.7"))).isTrue();
+    }
+
+    @Test
+    void insertShouldIgnoreHostBitsOfNetworkAddress() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(4);
+        trie.insert(address("172.16.15.254"), 16);
+
+        assertThat(trie.contains(address("172.16.200.1"))).isTrue();
+    }
+
+    @Test
+    void containsShouldMatchSiblingNetworks() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(4);
+        trie.insert(address("10.0.0.0"), 24);
+        trie.insert(address("10.0.1.0"), 24);
+        trie.insert(address("10.128.0.0"), 9);
+
+        assertThat(trie.contains(address("10.0.0.5"))).isTrue();
+        assertThat(trie.contains(address("10.0.1.5"))).isTrue();
+        assertThat(trie.contains(address("10.200.3.4"))).isTrue();
+        assertThat(trie.contains(address("10.0.2.5"))).isFalse();
+        assertThat(trie.contains(address("10.64.0.1"))).isFalse();
+    }
+
+    @Test
+    void insertingContainingNetworkShouldMatchAddressesOfBoth() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(4);
+        trie.insert(address("10.1.2.0"), 24);
+        trie.insert(address("10.0.0.0"), 8);
+
+        assertThat(trie.contains(address("10.1.2.3"))).isTrue();
+        assertThat(trie.contains(address("10.200.0.1"))).isTrue();
+        assertThat(trie.contains(address("11.0.0.1"))).isFalse();
+    }
+
+    @Test
+    void insertingContainedNetworkShouldNotRestrictContainingNetwork() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(4);
+        trie.insert(address("10.0.0.0"), 8);
+        trie.insert(address("10.1.2.0"), 24);
+
+        assertThat(trie.contains(address("10.200.0.1"))).isTrue();
+    }
+
+    @Test
+    void containsShouldMatchIpV6Networks() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(16);
+        trie.insert(address("2781:db8:1234::"), 48);
+        trie.insert(address("::1"), 128);
+
+        assertThat(trie.contains(address("2781:0db8:1234:8612:45ee:ffff:fffe:0001"))).isTrue();
+        assertThat(trie.contains(address("2781:0db8:1235:8612:45ee:ffff:fffe:0001"))).isFalse();
+        assertThat(trie.contains(address("::1"))).isTrue();
+        assertThat(trie.contains(address("::2"))).isFalse();
+    }
+
+    @Test
+    void containsShouldReturnFalseForAddressesOfAnotherLength() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(16);
+        trie.insert(address("::"), 0);
+
+        assertThat(trie.contains(address("127.0.0.1"))).isFalse();
+    }
+
+    @Test
+    void insertShouldRejectNetworksOfAnotherLength() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(4);
+
+        assertThatThrownBy(() -> trie.insert(address("::1"), 128))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void insertShouldRejectTooLongPrefix() throws Exception {
+        InetNetworkTrie trie = new InetNetworkTrie(4);
+
+        assertThatThrownBy(() -> trie.insert(address("10.0.0.0"), 33))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,123 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.dnsservice.library.netmatcher;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.james.dnsservice.api.mock.DNSFixture;
+import org.apache.james.dnsservice.library.inetnetwork.InetNetworkBuilder;
+import org.apache.james.dnsservice.library.inetnetwork.model.InetNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of matching an IPv4 address against the count of configured networks.
+ *
+ * The baseline checks each network one by one, as done prior to indexing networks in a trie.
+ *
+ * Run it through its main method, from the test classpath of this module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NetMatcherBenchmark {
+    private static final int ADDRESS_COUNT = 1024;
+
+    @Param({"10", "100", "1000", "10000"})
+    int networkCount;
+
+    private NetMatcher netMatcher;
+    private List<InetNetwork> networks;
+    private InetAddress[] addresses;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<String> nets = IntStream.range(0, networkCount)
+            .mapToObj(i -> "10." + (i >> 8 & 0xFF) + "." + (i & 0xFF) + ".0/24")
+            .collect(Collectors.toList());
+        netMatcher = new NetMatcher(nets, DNSFixture.DNS_SERVER_IPV4_MOCK);
+
+        InetNetworkBuilder builder = new InetNetworkBuilder(DNSFixture.DNS_SERVER_IPV4_MOCK);
+        networks = nets.stream()
+            .map(net -> {
+                try {
+                    return builder.getFromString(net);
+                } catch (UnknownHostException e) {
+                    throw new RuntimeException(e);
+                }
+            })
+            .collect(Collectors.toList());
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        addresses = new InetAddress[ADDRESS_COUNT];
+        for (int i = 0; i < ADDRESS_COUNT; i++) {
+            // About half of the addresses are out of the configured networks
+            int network = random.nextInt(networkCount * 2);
+            addresses[i] = InetAddress.getByAddress(new byte[] {10, (byte) (network >> 8), (byte) network, (byte) random.nextInt(256)});
+        }
+    }
+
+    @Benchmark
+    public boolean match() {
+        return netMatcher.matchInetNetwork(randomAddress().getAddress());
+    }
+
+    @Benchmark
+    public boolean matchCheckingEachNetwork() {
+        InetAddress address = randomAddress();
+        for (InetNetwork network : networks) {
+            if (network.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private InetAddress randomAddress() {
+        return addresses[ThreadLocalRandom.current().nextInt(ADDRESS_COUNT)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(NetMatcherBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
@@ -20,7 +20,13 @@ package org.apache.james.dnsservice.library.netmatcher;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.apache.james.dnsservice.api.DNSService;
 import org.apache.james.dnsservice.api.mock.DNSFixture;
+import org.apache.james.dnsservice.api.mock.MockDNSService;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -107,4 +113,50 @@ class NetMatcherTest {
         assertThat(netMatcher.matchInetNetwork("192.168.1.254")).isFalse();
         assertThat(netMatcher.matchInetNetwork("192.169.1.254")).isFalse();
     }
+
+    @Test
+    void matchInetNetworkShouldMatchRawAddresses() {
+        netMatcher = new NetMatcher(DNSFixture.LOCALHOST_IP_V4_ADDRESSES, DNSFixture.DNS_SERVER_IPV4_MOCK);
+
+        assertThat(netMatcher.matchInetNetwork(new byte[] {(byte) 192, (byte) 168, 1, (byte) 254})).isTrue();
+        assertThat(netMatcher.matchInetNetwork(new byte[] {(byte) 192, (byte) 169, 1, (byte) 254})).isFalse();
+    }
+
+    @Test
+    void matchInetNetworkShouldSupportNonContiguousMasks() {
+        netMatcher = new NetMatcher("10.0.0.0/255.0.255.0", DNSFixture.DNS_SERVER_IPV4_MOCK);
+
+        assertThat(netMatcher.matchInetNetwork("10.42.0.1")).isTrue();
+        assertThat(netMatcher.matchInetNetwork("10.42.1.1")).isFalse();
+    }
+
+    @Test
+    void ipv4MappedNetworksShouldMatchIpv4Addresses() throws Exception {
+        DNSService dnsService = new MockDNSService() {
+            @Override
+            public InetAddress getByName(String host) throws UnknownHostException {
+                InetAddress address = InetAddress.getByName(host);
+                if (host.startsWith("::ffff:")) {
+                    // Keep the IPv6 form of IPv4-mapped addresses
+                    return Inet6Address.getByAddress(null, ipv4Mapped(address.getAddress()), -1);
+                }
+                return address;
+            }
+        };
+        // Inet6Network masks whole bytes: 16384 spans 15 bytes, hence ::ffff:192.168.1.0/120
+        netMatcher = new NetMatcher("::ffff:192.168.1.0/16384", dnsService);
+
+        assertThat(netMatcher.matchInetNetwork("192.168.1.254")).isTrue();
+        assertThat(netMatcher.matchInetNetwork("192.168.2.1")).isFalse();
+        assertThat(netMatcher.matchInetNetwork(ipv4Mapped(new byte[] {(byte) 192, (byte) 168, 1, (byte) 254}))).isTrue();
+        assertThat(netMatcher.matchInetNetwork(ipv4Mapped(new byte[] {(byte) 192, (byte) 168, 2, 1}))).isFalse();
+    }
+
+    private static byte[] ipv4Mapped(byte[] ipv4Address) {
+        byte[] address = new byte[16];
+        address[10] = (byte) 0xFF;
+        address[11] = (byte) 0xFF;
+        System.arraycopy(ipv4Address, 0, address, 12, 4);
+        return address;
+    }
 }
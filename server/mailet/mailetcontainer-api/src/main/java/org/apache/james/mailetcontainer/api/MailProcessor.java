@@ -19,6 +19,11 @@
 
 package org.apache.james.mailetcontainer.api;
 
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.mailet.BatchMailetException;
 import org.apache.mailet.Mail;
 
 /**
@@ -58,4 +63,33 @@ public interface MailProcessor {
      */
     void service(Mail mail) throws javax.mail.MessagingException;
 
+    /**
+     * Process several mails at once, allowing implementations to call
+     * {@link org.apache.mailet.BatchMailet} with all the mails they match.
+     *
+     * The default implementation processes the mails one after the other.
+     *
+     * @param mails
+     *            - the Mail objects to process
+     * @throws BatchMailetException
+     *             - if the processing of some of the mails failed. The mails it does
+     *             not list were processed.
+     * @throws javax.mail.MessagingException
+     *             - if the processing of the batch failed. The mails of the batch
+     *             are then to be considered as not processed.
+     */
+    default void service(Collection<Mail> mails) throws javax.mail.MessagingException {
+        Map<Mail, Exception> failures = new IdentityHashMap<>();
+        for (Mail mail : mails) {
+            try {
+                service(mail);
+            } catch (javax.mail.MessagingException | RuntimeException e) {
+                failures.put(mail, e);
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new BatchMailetException(failures);
+        }
+    }
+
 }
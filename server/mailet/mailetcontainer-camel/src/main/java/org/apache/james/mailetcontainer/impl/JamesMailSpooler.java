@@ -22,6 +22,11 @@ package org.apache.james.mailetcontainer.impl;
 import static org.apache.james.metrics.api.TimeMetric.ExecutionResult.DEFAULT_100_MS_THRESHOLD;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -46,15 +51,20 @@ import org.apache.james.metrics.api.TimeMetric;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.james.queue.api.MailQueue.MailQueueItem;
 import org.apache.james.queue.api.MailQueueFactory;
+import org.apache.james.util.DurationParser;
 import org.apache.mailet.Attribute;
 import org.apache.mailet.AttributeName;
 import org.apache.mailet.AttributeValue;
+import org.apache.mailet.BatchMailetException;
 import org.apache.mailet.Mail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -87,13 +97,23 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
         }
 
         private reactor.core.Disposable run(MailQueue queue) {
-            return Flux.from(queue.deQueue())
-                .flatMap(item -> handleOnQueueItem(item).subscribeOn(Schedulers.elastic()), configuration.getConcurrencyLevel())
+            return spool(Flux.from(queue.deQueue()))
                 .onErrorContinue((throwable, item) -> LOGGER.error("Exception processing mail while spooling {}", item, throwable))
                 .subscribeOn(Schedulers.elastic())
                 .subscribe();
         }
 
+        private Flux<Void> spool(Flux<MailQueueItem> queueItems) {
+            if (configuration.isBatchingEnabled()) {
+                return queueItems
+                    .bufferTimeout(configuration.getBatchSize(), configuration.getBatchWindow())
+                    .flatMap(batch -> handleOnQueueItems(batch).subscribeOn(Schedulers.elastic()),
+                        Math.max(1, configuration.getConcurrencyLevel() / configuration.getBatchSize()));
+            }
+            return queueItems
+                .flatMap(queueItem -> handleOnQueueItem(queueItem).subscribeOn(Schedulers.elastic()), configuration.getConcurrencyLevel());
+        }
+
         private Mono<Void> handleOnQueueItem(MailQueueItem queueItem) {
             TimeMetric timeMetric = metricFactory.timer(SPOOL_PROCESSING);
             return Mono.fromCallable(processingActive::incrementAndGet)
@@ -106,11 +126,11 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
             return Mono
                 .using(
                     queueItem::getMail,
-                    mail -> Mono.fromRunnable(() -> performProcessMail(queueItem, mail)),
+                    mail -> Mono.defer(() -> performProcessMail(queueItem, mail)),
                     LifecycleUtil::dispose);
         }
 
-        private void performProcessMail(MailQueueItem queueItem, Mail mail) {
+        private Mono<Void> performProcessMail(MailQueueItem queueItem, Mail mail) {
             LOGGER.debug("==== Begin processing mail {} ====", mail.getName());
             try {
                 mailProcessor.service(mail);
@@ -119,28 +139,93 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
                     throw new InterruptedException("Thread has been interrupted");
                 }
                 queueItem.done(true);
+                return Mono.empty();
             } catch (Exception e) {
-                handleError(queueItem, mail, e);
+                return handleError(queueItem, mail, e);
             } finally {
                 LOGGER.debug("==== End processing mail {} ====", mail.getName());
             }
         }
 
-        private void handleError(MailQueueItem queueItem, Mail mail, Exception processingException) {
-            int failureCount = computeFailureCount(mail);
+        private Mono<Void> handleOnQueueItems(List<MailQueueItem> queueItems) {
+            List<TimeMetric> timeMetrics = queueItems.stream()
+                .map(any -> metricFactory.timer(SPOOL_PROCESSING))
+                .collect(Guavate.toImmutableList());
+            return Mono.fromCallable(() -> processingActive.addAndGet(queueItems.size()))
+                .flatMap(ignore -> processMails(queueItems))
+                .doOnSuccess(any -> timeMetrics.forEach(timeMetric -> timeMetric.stopAndPublish().logWhenExceedP99(DEFAULT_100_MS_THRESHOLD)))
+                .doOnTerminate(() -> processingActive.addAndGet(-queueItems.size()));
+        }
 
+        private Mono<Void> processMails(List<MailQueueItem> queueItems) {
+            return Mono
+                .using(
+                    () -> queueItems.stream()
+                        .map(MailQueueItem::getMail)
+                        .collect(Guavate.toImmutableList()),
+                    mails -> Mono.defer(() -> performProcessMails(queueItems, mails)),
+                    mails -> mails.forEach(LifecycleUtil::dispose));
+        }
+
+        /**
+         * Only the mails whose processing failed go through the error handling: re-enqueuing mails whose processing
+         * completed would process them again.
+         */
+        private Mono<Void> performProcessMails(List<MailQueueItem> queueItems, List<Mail> mails) {
+            LOGGER.debug("==== Begin processing a batch of {} mails ====", mails.size());
+            Map<Mail, Exception> failures;
             try {
-                if (failureCount > MAXIMUM_FAILURE_COUNT) {
-                    LOGGER.error("Failed {} processing {} consecutive times. Abort. Mail is saved in {}", mail.getName(), failureCount, configuration.getErrorRepositoryURL().asString());
-                    storeInErrorRepository(queueItem);
-                } else {
-                    LOGGER.error("Failed {} processing {} consecutive times. Mail is requeued with increased failure count.", mail.getName(), failureCount, processingException);
-                    reEnqueue(queueItem, failureCount);
+                mailProcessor.service(mails);
+
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("Thread has been interrupted");
+                }
+                failures = ImmutableMap.of();
+            } catch (BatchMailetException e) {
+                failures = e.getFailures();
+            } catch (Exception e) {
+                failures = new IdentityHashMap<>();
+                for (Mail mail : mails) {
+                    if (!Mail.GHOST.equals(mail.getState())) {
+                        failures.put(mail, e);
+                    }
                 }
-            } catch (Exception nestedE) {
-                LOGGER.error("Could not apply standard error handling for {}, defaulting to nack", mail.getName(), nestedE);
-                nack(queueItem, processingException);
+            } finally {
+                LOGGER.debug("==== End processing a batch of {} mails ====", mails.size());
             }
+
+            Map<Mail, Exception> batchFailures = failures;
+            return Flux.range(0, queueItems.size())
+                .concatMap(i -> Optional.ofNullable(batchFailures.get(mails.get(i)))
+                    .map(failure -> handleError(queueItems.get(i), mails.get(i), failure))
+                    .orElseGet(() -> acknowledge(queueItems.get(i), mails.get(i))))
+                .then();
+        }
+
+        private Mono<Void> acknowledge(MailQueueItem queueItem, Mail mail) {
+            try {
+                queueItem.done(true);
+                return Mono.empty();
+            } catch (Exception e) {
+                return handleError(queueItem, mail, e);
+            }
+        }
+
+        private Mono<Void> handleError(MailQueueItem queueItem, Mail mail, Exception processingException) {
+            int failureCount = computeFailureCount(mail);
+
+            return Mono.defer(() -> {
+                    if (failureCount > MAXIMUM_FAILURE_COUNT) {
+                        LOGGER.error("Failed {} processing {} consecutive times. Abort. Mail is saved in {}", mail.getName(), failureCount, configuration.getErrorRepositoryURL().asString());
+                        return Mono.<Void>fromRunnable(Throwing.runnable(() -> storeInErrorRepository(queueItem)).sneakyThrow());
+                    }
+                    LOGGER.error("Failed {} processing {} consecutive times. Mail is requeued with increased failure count.", mail.getName(), failureCount, processingException);
+                    return reEnqueue(queueItem, failureCount);
+                })
+                .onErrorResume(nestedE -> {
+                    LOGGER.error("Could not apply standard error handling for {}, defaulting to nack", mail.getName(), nestedE);
+                    return Mono.fromRunnable(() -> nack(queueItem, processingException));
+                });
         }
 
         private int computeFailureCount(Mail mail) {
@@ -150,11 +235,11 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
             return previousFailureCount + 1;
         }
 
-        private void reEnqueue(MailQueueItem queueItem, int failureCount) throws MailQueue.MailQueueException {
+        private Mono<Void> reEnqueue(MailQueueItem queueItem, int failureCount) {
             Mail mail = queueItem.getMail();
             mail.setAttribute(new Attribute(MAIL_PROCESSING_ERROR_COUNT, AttributeValue.of(failureCount)));
-            queue.enQueue(mail);
-            queueItem.done(true);
+            return Mono.from(queue.enqueueReactive(mail))
+                .then(Mono.fromRunnable(Throwing.runnable(() -> queueItem.done(true)).sneakyThrow()));
         }
 
         private void storeInErrorRepository(MailQueueItem queueItem) throws MessagingException {
@@ -196,17 +281,32 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
                         .orElseThrow(() -> new IllegalStateException("Cannot retrieve mailRepository URL, you need to configure an `errorRepository` property for the spooler.0")),
                     ERROR_REPOSITORY_PATH));
 
-            return new Configuration(concurrencyLevel, errorRepositoryURL);
+            int batchSize = config.getInt("batchSize", DEFAULT_BATCH_SIZE);
+            Duration batchWindow = Optional.ofNullable(config.getString("batchWindow", null))
+                .map(rawValue -> DurationParser.parse(rawValue, ChronoUnit.MILLIS))
+                .orElse(DEFAULT_BATCH_WINDOW);
+
+            return new Configuration(concurrencyLevel, errorRepositoryURL, batchSize, batchWindow);
         }
 
         private final int concurrencyLevel;
         private final MailRepositoryUrl errorRepositoryURL;
+        private final int batchSize;
+        private final Duration batchWindow;
 
         public Configuration(int concurrencyLevel, MailRepositoryUrl errorRepositoryURL) {
+            this(concurrencyLevel, errorRepositoryURL, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_WINDOW);
+        }
+
+        public Configuration(int concurrencyLevel, MailRepositoryUrl errorRepositoryURL, int batchSize, Duration batchWindow) {
             Preconditions.checkArgument(concurrencyLevel >= 0, "'threads' needs to be greater than or equal to zero");
+            Preconditions.checkArgument(batchSize > 0, "'batchSize' needs to be strictly positive");
+            Preconditions.checkArgument(!batchWindow.isNegative() && !batchWindow.isZero(), "'batchWindow' needs to be strictly positive");
             
             this.concurrencyLevel = concurrencyLevel;
             this.errorRepositoryURL = errorRepositoryURL;
+            this.batchSize = batchSize;
+            this.batchWindow = batchWindow;
         }
 
         public int getConcurrencyLevel() {
@@ -221,11 +321,25 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
             return errorRepositoryURL;
         }
 
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public Duration getBatchWindow() {
+            return batchWindow;
+        }
+
+        public boolean isBatchingEnabled() {
+            return batchSize > 1;
+        }
+
         @Override
         public String toString() {
             return MoreObjects.toStringHelper(this)
                 .add("concurrencyLevel", concurrencyLevel)
                 .add("errorRepositoryURL", errorRepositoryURL)
+                .add("batchSize", batchSize)
+                .add("batchWindow", batchWindow)
                 .toString();
         }
     }
@@ -236,6 +350,8 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
     public static final AttributeName MAIL_PROCESSING_ERROR_COUNT = AttributeName.of("mail-processing-error-count");
     public static final MailRepositoryPath ERROR_REPOSITORY_PATH = MailRepositoryPath.from("var/mail/error");
     public static final int MAXIMUM_FAILURE_COUNT = 5;
+    public static final int DEFAULT_BATCH_SIZE = 1;
+    public static final Duration DEFAULT_BATCH_WINDOW = Duration.ofMillis(100);
 
     /**
      * concurrency level to use for dequeuing mails from spool, allows to throttle resources dedicated to that async
@@ -274,6 +390,10 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
         if (configuration.isEnabled()) {
             LOGGER.info("init...");
             LOGGER.info("Concurrency level is {}", configuration.getConcurrencyLevel());
+            if (configuration.isBatchingEnabled()) {
+                LOGGER.info("Mails are processed by batches of up to {} mails, within a {} window",
+                    configuration.getBatchSize(), configuration.getBatchWindow());
+            }
             MailQueue queue = queueFactory.createQueue(MailQueueFactory.SPOOL, MailQueueFactory.prefetchCount(configuration.getConcurrencyLevel()));
             runner = Optional.of(new Runner(metricFactory,
                 mailProcessor, errorRepository(), queue, configuration));
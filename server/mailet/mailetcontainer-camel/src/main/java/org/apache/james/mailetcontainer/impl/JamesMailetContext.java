@@ -382,6 +382,9 @@ public class JamesMailetContext implements MailetContext, Configurable, Disposab
         sendMail(mail, Mail.DEFAULT, delay, unit);
     }
 
+    /**
+     * Mailets rely on the mail being spooled once this returns, hence the blocking enqueue.
+     */
     @Override
     public void sendMail(Mail mail, String state) throws MessagingException {
         mail.setAttribute(Mail.SENT_BY_MAILET_ATTRIBUTE);
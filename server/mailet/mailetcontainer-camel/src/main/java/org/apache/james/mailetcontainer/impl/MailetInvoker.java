@@ -0,0 +1,208 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailetcontainer.impl;
+
+import static org.apache.james.metrics.api.TimeMetric.ExecutionResult.DEFAULT_100_MS_THRESHOLD;
+
+import java.io.Closeable;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor.MailetProcessorListener;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.apache.james.util.MDCBuilder;
+import org.apache.mailet.BatchMailet;
+import org.apache.mailet.BatchMailetException;
+import org.apache.mailet.Mail;
+import org.apache.mailet.Mailet;
+import org.apache.mailet.MailetConfig;
+import org.apache.mailet.base.MailetPipelineLogging;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Calls a {@link Mailet} on behalf of a processor: takes care of logging context, metrics,
+ * listeners and of the <code>onMailetException</code> policy.
+ *
+ * {@link BatchMailet} failures are handled mail per mail, as if each mail had been serviced separately.
+ */
+public class MailetInvoker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailetInvoker.class);
+
+    private final MetricFactory metricFactory;
+    private final AbstractStateMailetProcessor processor;
+    private final Mailet mailet;
+
+    public MailetInvoker(MetricFactory metricFactory, AbstractStateMailetProcessor processor, Mailet mailet) {
+        this.metricFactory = metricFactory;
+        this.processor = processor;
+        this.mailet = mailet;
+    }
+
+    /**
+     * Call the wrapped mailet for the given mail.
+     *
+     * The mail is switched to {@link Mail#GHOST} once it has no recipients left.
+     */
+    public void service(Mail mail) throws MessagingException {
+        long start = System.currentTimeMillis();
+        TimeMetric timeMetric = metricFactory.timer(mailet.getClass().getSimpleName());
+        Throwable ex = null;
+        try (Closeable closeable =
+                 MDCBuilder.create()
+                     .addContext(MDCBuilder.PROTOCOL, "MAILET")
+                     .addContext(MDCBuilder.ACTION, "MAILET")
+                     .addContext(MDCBuilder.HOST, mail.getRemoteHost())
+                     .addContext("state", mail.getState())
+                     .addContext("mailet", mailet.getClass().getSimpleName())
+                     .addContext("mail", mail.getName())
+                     .addContext("recipients", ImmutableList.copyOf(mail.getRecipients()))
+                     .addContext("sender", mail.getMaybeSender())
+                     .build()) {
+            MailetPipelineLogging.logBeginOfMailetProcess(mailet, mail);
+            mailet.service(mail);
+        } catch (Exception | NoClassDefFoundError me) {
+            ex = me;
+            handleException(mail, me);
+        } finally {
+            timeMetric.stopAndPublish().logWhenExceedP99(DEFAULT_100_MS_THRESHOLD);
+            MailetPipelineLogging.logEndOfMailetProcess(mailet, mail);
+            List<MailetProcessorListener> listeners = processor.getListeners();
+            long complete = System.currentTimeMillis() - start;
+            if (mail.getRecipients().isEmpty()) {
+                mail.setState(Mail.GHOST);
+            }
+            for (MailetProcessorListener listener : listeners) {
+                listener.afterMailet(mailet, mail.getName(), mail.getState(), complete, ex);
+            }
+        }
+    }
+
+    /**
+     * Call the wrapped mailet for the given mails.
+     *
+     * A {@link BatchMailet} is called once with all the mails, other mailets are called once per mail.
+     *
+     * @throws BatchMailetException listing the mails for which the <code>onMailetException</code>
+     *         policy propagated the failure
+     */
+    public void service(List<Mail> mails) throws MessagingException {
+        Map<Mail, Exception> propagatedFailures = new IdentityHashMap<>();
+        if (mails.size() <= 1 || !(mailet instanceof BatchMailet)) {
+            for (Mail mail : mails) {
+                try {
+                    service(mail);
+                } catch (MessagingException e) {
+                    propagatedFailures.put(mail, e);
+                }
+            }
+            throwOnFailures(propagatedFailures);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        TimeMetric timeMetric = metricFactory.timer(mailet.getClass().getSimpleName());
+        Map<Mail, Exception> failures = ImmutableMap.of();
+        Throwable ex = null;
+        try (Closeable closeable =
+                 MDCBuilder.create()
+                     .addContext(MDCBuilder.PROTOCOL, "MAILET")
+                     .addContext(MDCBuilder.ACTION, "MAILET")
+                     .addContext("state", mails.get(0).getState())
+                     .addContext("mailet", mailet.getClass().getSimpleName())
+                     .addContext("mails", mails.stream().map(Mail::getName).collect(Guavate.toImmutableList()))
+                     .build()) {
+            mails.forEach(mail -> MailetPipelineLogging.logBeginOfMailetProcess(mailet, mail));
+            ((BatchMailet) mailet).service(mails);
+        } catch (BatchMailetException me) {
+            failures = me.getFailures();
+            for (Map.Entry<Mail, Exception> failure : failures.entrySet()) {
+                handleException(failure.getKey(), failure.getValue(), propagatedFailures);
+            }
+        } catch (Exception | NoClassDefFoundError me) {
+            ex = me;
+            for (Mail mail : mails) {
+                handleException(mail, me, propagatedFailures);
+            }
+        } finally {
+            timeMetric.stopAndPublish().logWhenExceedP99(DEFAULT_100_MS_THRESHOLD);
+            List<MailetProcessorListener> listeners = processor.getListeners();
+            long complete = System.currentTimeMillis() - start;
+            for (Mail mail : mails) {
+                MailetPipelineLogging.logEndOfMailetProcess(mailet, mail);
+                if (mail.getRecipients().isEmpty()) {
+                    mail.setState(Mail.GHOST);
+                }
+                Throwable mailException = Optional.<Throwable>ofNullable(failures.get(mail)).orElse(ex);
+                for (MailetProcessorListener listener : listeners) {
+                    listener.afterMailet(mailet, mail.getName(), mail.getState(), complete, mailException);
+                }
+            }
+        }
+        throwOnFailures(propagatedFailures);
+    }
+
+    private void handleException(Mail mail, Throwable me, Map<Mail, Exception> propagatedFailures) {
+        try {
+            handleException(mail, me);
+        } catch (MessagingException e) {
+            propagatedFailures.put(mail, e);
+        }
+    }
+
+    private void throwOnFailures(Map<Mail, Exception> propagatedFailures) throws BatchMailetException {
+        if (!propagatedFailures.isEmpty()) {
+            throw new BatchMailetException(propagatedFailures);
+        }
+    }
+
+    private void handleException(Mail mail, Throwable me) throws MessagingException {
+        String onMailetException = null;
+
+        MailetConfig mailetConfig = mailet.getMailetConfig();
+        if (mailetConfig instanceof MailetConfigImpl) {
+            onMailetException = mailetConfig.getInitParameter("onMailetException");
+        }
+        if (onMailetException == null) {
+            onMailetException = Mail.ERROR;
+        } else {
+            onMailetException = onMailetException.trim().toLowerCase(Locale.US);
+        }
+        if (onMailetException.equalsIgnoreCase("ignore")) {
+            // ignore the exception and continue
+            // this option should not be used if the mail object can be
+            // changed by the mailet
+            LOGGER.warn("Encountered error while executing mailet {}. Ignoring it.", mailet, me);
+            ProcessorUtil.verifyMailAddresses(mail.getRecipients());
+        } else {
+            ProcessorUtil.handleException(me, mail, mailet.getMailetConfig().getMailetName(), onMailetException, LOGGER);
+        }
+    }
+}
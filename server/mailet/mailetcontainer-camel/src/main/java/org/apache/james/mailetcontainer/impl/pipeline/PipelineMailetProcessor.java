@@ -0,0 +1,263 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailetcontainer.impl.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.mailetcontainer.impl.MailetInvoker;
+import org.apache.james.mailetcontainer.impl.MatcherInvoker;
+import org.apache.james.mailetcontainer.impl.MatcherMailetPair;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.server.core.MailImpl;
+import org.apache.mailet.BatchMailetException;
+import org.apache.mailet.Mail;
+import org.apache.mailet.Mailet;
+import org.apache.mailet.Matcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+/**
+ * {@link AbstractStateMailetProcessor} implementation calling the {@link Matcher} / {@link Mailet}
+ * pairs directly, in the calling thread, without any routing engine.
+ *
+ * The pairs are compiled once into an array of steps. A mail only gets duplicated when a matcher
+ * matches some, but not all, of its recipients: the matched part then runs the remaining steps
+ * before the unmatched part resumes, just like with the Camel based processor.
+ *
+ * Batches of mails are run through the steps together, so that {@link org.apache.mailet.BatchMailet}
+ * get called once per step with all the mails they match.
+ */
+public class PipelineMailetProcessor extends AbstractStateMailetProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelineMailetProcessor.class);
+
+    private static class Step {
+        private final MatcherInvoker matcher;
+        private final MailetInvoker mailet;
+
+        private Step(MatcherInvoker matcher, MailetInvoker mailet) {
+            this.matcher = matcher;
+            this.mailet = mailet;
+        }
+    }
+
+    private final MetricFactory metricFactory;
+    private Step[] steps;
+    private MailetInvoker terminatingMailet;
+
+    public PipelineMailetProcessor(MetricFactory metricFactory) {
+        this.metricFactory = metricFactory;
+    }
+
+    @Override
+    public void service(Mail mail) throws MessagingException {
+        process(mail, 0);
+    }
+
+    /**
+     * Run a batch of mails through the pipeline: each step matches every mail of the batch,
+     * then calls its mailet once with all the matched mails. Mails leaving this processor
+     * are handed over as a batch too.
+     *
+     * A failure only aborts the processing of the mail it occurred for, along with the parts
+     * split from that mail: the other mails of the batch carry on.
+     *
+     * @throws BatchMailetException listing the mails of the batch whose processing failed
+     */
+    @Override
+    public void service(Collection<Mail> mails) throws MessagingException {
+        Map<Mail, Mail> origins = new IdentityHashMap<>();
+        Map<Mail, Exception> failures = new IdentityHashMap<>();
+        List<Mail> leavingMails = new ArrayList<>();
+        List<Mail> currentMails = new ArrayList<>(mails);
+        mails.forEach(mail -> origins.put(mail, mail));
+
+        for (int i = 0; i < steps.length && !currentMails.isEmpty(); i++) {
+            Step step = steps[i];
+            List<Mail> matchedMails = new ArrayList<>();
+            List<Mail> splitMails = new ArrayList<>();
+
+            for (Mail mail : currentMails) {
+                Collection<MailAddress> matchedRecipients = step.matcher.match(mail);
+
+                if (!matchedRecipients.isEmpty()) {
+                    Collection<MailAddress> unmatchedRecipients = unmatchedRecipients(mail, matchedRecipients);
+
+                    if (unmatchedRecipients.isEmpty()) {
+                        matchedMails.add(mail);
+                    } else {
+                        mail.setRecipients(unmatchedRecipients);
+                        Mail matchedMail = MailImpl.duplicate(mail);
+                        matchedMail.setRecipients(matchedRecipients);
+                        origins.put(matchedMail, origins.get(mail));
+                        matchedMails.add(matchedMail);
+                        splitMails.add(matchedMail);
+                    }
+                }
+            }
+
+            try {
+                step.mailet.service(matchedMails);
+            } catch (BatchMailetException e) {
+                e.getFailures().forEach((mail, failure) -> failures.putIfAbsent(origins.get(mail), failure));
+            } catch (MessagingException | RuntimeException e) {
+                matchedMails.forEach(mail -> failures.putIfAbsent(origins.get(mail), e));
+            }
+
+            List<Mail> remainingMails = new ArrayList<>();
+            for (Mail mail : Iterables.concat(splitMails, currentMails)) {
+                if (!failures.containsKey(origins.get(mail)) && shouldContinue(mail, leavingMails)) {
+                    remainingMails.add(mail);
+                }
+            }
+            currentMails = remainingMails;
+        }
+
+        for (Mail mail : currentMails) {
+            try {
+                terminate(mail);
+            } catch (MessagingException | RuntimeException e) {
+                failures.putIfAbsent(origins.get(mail), e);
+            }
+        }
+        List<Mail> handedOverMails = leavingMails.stream()
+            .filter(mail -> !failures.containsKey(origins.get(mail)))
+            .collect(Guavate.toImmutableList());
+        if (!handedOverMails.isEmpty()) {
+            try {
+                toProcessor(handedOverMails);
+            } catch (BatchMailetException e) {
+                e.getFailures().forEach((mail, failure) -> failures.putIfAbsent(origins.get(mail), failure));
+            } catch (MessagingException | RuntimeException e) {
+                handedOverMails.forEach(mail -> failures.putIfAbsent(origins.get(mail), e));
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new BatchMailetException(failures);
+        }
+    }
+
+    @Override
+    protected void setupRouting(List<MatcherMailetPair> pairs) {
+        this.steps = pairs.stream()
+            .map(pair -> new Step(
+                new MatcherInvoker(metricFactory, this, pair),
+                new MailetInvoker(metricFactory, this, pair.getMailet())))
+            .toArray(Step[]::new);
+        this.terminatingMailet = new MailetInvoker(metricFactory, this, new TerminatingMailet());
+    }
+
+    private void process(Mail mail, int firstStep) throws MessagingException {
+        for (int i = firstStep; i < steps.length; i++) {
+            Step step = steps[i];
+            Collection<MailAddress> matchedRecipients = step.matcher.match(mail);
+
+            if (!matchedRecipients.isEmpty()) {
+                Collection<MailAddress> unmatchedRecipients = unmatchedRecipients(mail, matchedRecipients);
+
+                if (unmatchedRecipients.isEmpty()) {
+                    step.mailet.service(mail);
+                } else {
+                    mail.setRecipients(unmatchedRecipients);
+                    Mail matchedMail = MailImpl.duplicate(mail);
+                    matchedMail.setRecipients(matchedRecipients);
+
+                    step.mailet.service(matchedMail);
+                    if (shouldContinue(matchedMail)) {
+                        process(matchedMail, i + 1);
+                    }
+                }
+            }
+
+            if (!shouldContinue(mail)) {
+                return;
+            }
+        }
+
+        terminate(mail);
+    }
+
+    private Collection<MailAddress> unmatchedRecipients(Mail mail, Collection<MailAddress> matchedRecipients) {
+        Collection<MailAddress> recipients = mail.getRecipients();
+        if (matchedRecipients == recipients) {
+            // Matchers like All return the recipients as is: no need to compare them
+            return ImmutableList.of();
+        }
+        List<MailAddress> unmatchedRecipients = new ArrayList<>(recipients);
+        for (MailAddress matchedRecipient : matchedRecipients) {
+            unmatchedRecipients.remove(matchedRecipient);
+        }
+        return unmatchedRecipients;
+    }
+
+    /**
+     * Dispose ghosted mails and hand mails whose state changed over to their new processor.
+     *
+     * @return true if the mail should carry on in this processor
+     */
+    private boolean shouldContinue(Mail mail) throws MessagingException {
+        if (mail.getState().equals(Mail.GHOST)) {
+            dispose(mail);
+            return false;
+        }
+        if (!mail.getState().equals(getState())) {
+            toProcessor(mail);
+            LOGGER.debug("End of mailetprocessor for state {} reached", getState());
+            return false;
+        }
+        return true;
+    }
+
+    private boolean shouldContinue(Mail mail, List<Mail> leavingMails) throws MessagingException {
+        if (mail.getState().equals(Mail.GHOST)) {
+            dispose(mail);
+            return false;
+        }
+        if (!mail.getState().equals(getState())) {
+            leavingMails.add(mail);
+            return false;
+        }
+        return true;
+    }
+
+    private void terminate(Mail mail) throws MessagingException {
+        terminatingMailet.service(mail);
+        if (mail.getState().equals(Mail.GHOST)) {
+            dispose(mail);
+        }
+        LOGGER.debug("End of mailetprocessor for state {} reached", getState());
+    }
+
+    private void dispose(Mail mail) throws MessagingException {
+        LifecycleUtil.dispose(mail.getMessage());
+        LifecycleUtil.dispose(mail);
+    }
+}
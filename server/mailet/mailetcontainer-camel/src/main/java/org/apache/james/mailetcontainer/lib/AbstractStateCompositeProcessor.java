@@ -19,8 +19,11 @@
 package org.apache.james.mailetcontainer.lib;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -36,13 +39,15 @@ import org.apache.james.lifecycle.api.Configurable;
 import org.apache.james.lifecycle.api.LifecycleUtil;
 import org.apache.james.mailetcontainer.api.MailProcessor;
 import org.apache.james.mailetcontainer.impl.jmx.JMXStateCompositeProcessorListener;
+import org.apache.mailet.BatchMailetException;
 import org.apache.mailet.Mail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Abstract base class for {@link org.apache.james.mailetcontainer.impl.camel.CamelCompositeProcessor} which service the
- * {@link Mail} with a {@link org.apache.james.mailetcontainer.impl.camel.CamelProcessor} instances
+ * Abstract base class for {@link org.apache.james.mailetcontainer.impl.camel.CamelCompositeProcessor} and
+ * {@link org.apache.james.mailetcontainer.impl.pipeline.PipelineCompositeProcessor} which service the
+ * {@link Mail} with {@link AbstractStateMailetProcessor} instances
  */
 public abstract class AbstractStateCompositeProcessor implements MailProcessor, Configurable {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractStateCompositeProcessor.class);
@@ -71,6 +76,34 @@ public abstract class AbstractStateCompositeProcessor implements MailProcessor,
         handleWithProcessor(mail, getProcessorOrFallBackToError(mail));
     }
 
+    /**
+     * Hand each group of mails sharing the same state over to the matching processor at once
+     *
+     * @throws BatchMailetException listing the mails whose processing failed, the other mails
+     *         having been processed
+     */
+    @Override
+    public void service(Collection<Mail> mails) throws MessagingException {
+        Map<MailProcessor, List<Mail>> mailsByProcessor = new LinkedHashMap<>();
+        for (Mail mail : mails) {
+            mailsByProcessor.computeIfAbsent(getProcessorOrFallBackToError(mail), any -> new ArrayList<>())
+                .add(mail);
+        }
+        Map<Mail, Exception> failures = new IdentityHashMap<>();
+        for (Map.Entry<MailProcessor, List<Mail>> entry : mailsByProcessor.entrySet()) {
+            try {
+                handleWithProcessor(entry.getValue(), entry.getKey());
+            } catch (BatchMailetException e) {
+                failures.putAll(e.getFailures());
+            } catch (MessagingException e) {
+                entry.getValue().forEach(mail -> failures.put(mail, e));
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new BatchMailetException(failures);
+        }
+    }
+
     private MailProcessor getProcessorOrFallBackToError(Mail mail) {
         return Optional.ofNullable(getProcessor(mail.getState()))
             .orElseGet(() -> {
@@ -107,6 +140,43 @@ public abstract class AbstractStateCompositeProcessor implements MailProcessor,
         }
     }
 
+    private void handleWithProcessor(List<Mail> mails, MailProcessor processor) throws MessagingException {
+        if (mails.size() == 1) {
+            handleWithProcessor(mails.get(0), processor);
+            return;
+        }
+        MessagingException ex = null;
+        long start = System.currentTimeMillis();
+        LOGGER.debug("Call MailProcessor {} for {} mails", mails.get(0).getState(), mails.size());
+        try {
+            processor.service(mails);
+
+            disposeGhostMails(mails);
+        } catch (BatchMailetException e) {
+            ex = e;
+            disposeGhostMails(mails);
+            throw e;
+        } catch (MessagingException e) {
+            ex = e;
+            throw e;
+        } finally {
+            long end = System.currentTimeMillis() - start;
+            for (CompositeProcessorListener listener : listeners) {
+                for (Mail mail : mails) {
+                    listener.afterProcessor(processor, mail.getName(), end, ex);
+                }
+            }
+        }
+    }
+
+    private void disposeGhostMails(List<Mail> mails) {
+        for (Mail mail : mails) {
+            if (Mail.GHOST.equals(mail.getState())) {
+                LifecycleUtil.dispose(mail);
+            }
+        }
+    }
+
     /**
      * Return a {@link MailProcessor} for a given state
      */
@@ -55,6 +55,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Abstract base class for {@link MailProcessor} implementations which want to
@@ -151,6 +152,13 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
         rootMailProcessor.service(mail);
     }
 
+    /**
+     * Hand several mails over to other processors
+     */
+    protected void toProcessor(Collection<Mail> mails) throws MessagingException {
+        rootMailProcessor.service(mails);
+    }
+
     protected String getState() {
         return state;
     }
@@ -173,6 +181,13 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
             .collect(Guavate.toImmutableList());
     }
 
+    /**
+     * Return a unmodifiable {@link List} of the configured {@link MatcherMailetPair}'s
+     */
+    public List<MatcherMailetPair> getPairs() {
+        return ImmutableList.copyOf(pairs);
+    }
+
     public void addListener(MailetProcessorListener listener) {
         listeners.add(listener);
     }
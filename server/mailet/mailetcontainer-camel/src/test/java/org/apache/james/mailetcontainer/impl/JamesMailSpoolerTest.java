@@ -0,0 +1,127 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.mailetcontainer.api.MailProcessor;
+import org.apache.james.mailrepository.api.MailRepositoryStore;
+import org.apache.james.mailrepository.api.MailRepositoryUrl;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.queue.api.MailQueue;
+import org.apache.james.queue.api.MailQueue.MailQueueItem;
+import org.apache.james.queue.api.MailQueueFactory;
+import org.apache.mailet.BatchMailetException;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMail;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class JamesMailSpoolerTest {
+    private static final MailRepositoryUrl ERROR_REPOSITORY_URL = MailRepositoryUrl.from("memory://var/mail/error");
+
+    private MailQueue queue;
+    private MailProcessor mailProcessor;
+    private JamesMailSpooler spooler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        queue = mock(MailQueue.class);
+        when(queue.enqueueReactive(any())).thenReturn(Mono.empty());
+        MailQueueFactory<MailQueue> queueFactory = mock(MailQueueFactory.class);
+        when(queueFactory.createQueue(eq(MailQueueFactory.SPOOL), any())).thenReturn(queue);
+        mailProcessor = mock(MailProcessor.class);
+
+        spooler = new JamesMailSpooler(new RecordingMetricFactory(), mailProcessor, mock(MailRepositoryStore.class), queueFactory);
+        spooler.configure(new JamesMailSpooler.Configuration(2, ERROR_REPOSITORY_URL, 2, Duration.ofSeconds(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        spooler.dispose();
+    }
+
+    @Test
+    void aPartialBatchFailureShouldOnlyReEnqueueTheFailedMails() throws Exception {
+        Mail processedMail = FakeMail.builder().name("processed").build();
+        Mail failedMail = FakeMail.builder().name("failed").build();
+        MailQueueItem processedItem = queueItem(processedMail);
+        MailQueueItem failedItem = queueItem(failedMail);
+        when(queue.deQueue()).thenReturn(Flux.just(processedItem, failedItem));
+        doAnswer(invocation -> {
+            processedMail.setState(Mail.GHOST);
+            throw new BatchMailetException(ImmutableMap.of(failedMail, new MessagingException("failure")));
+        }).when(mailProcessor).service(anyCollection());
+
+        spooler.init();
+
+        Awaitility.await().atMost(Duration.ofSeconds(10))
+            .untilAsserted(() -> verify(failedItem).done(true));
+        verify(processedItem).done(true);
+        verify(queue).enqueueReactive(failedMail);
+        verify(queue, never()).enqueueReactive(processedMail);
+    }
+
+    @Test
+    void aBatchFailureShouldNotReEnqueueTheMailsHavingCompletedTheirProcessing() throws Exception {
+        Mail processedMail = FakeMail.builder().name("processed").build();
+        Mail failedMail = FakeMail.builder().name("failed").build();
+        MailQueueItem processedItem = queueItem(processedMail);
+        MailQueueItem failedItem = queueItem(failedMail);
+        when(queue.deQueue()).thenReturn(Flux.just(processedItem, failedItem));
+        doAnswer(invocation -> {
+            processedMail.setState(Mail.GHOST);
+            throw new MessagingException("failure");
+        }).when(mailProcessor).service(anyCollection());
+
+        spooler.init();
+
+        Awaitility.await().atMost(Duration.ofSeconds(10))
+            .untilAsserted(() -> verify(failedItem).done(true));
+        verify(processedItem).done(true);
+        verify(queue).enqueueReactive(failedMail);
+        verify(queue, never()).enqueueReactive(processedMail);
+    }
+
+    private MailQueueItem queueItem(Mail mail) {
+        MailQueueItem queueItem = mock(MailQueueItem.class);
+        when(queueItem.getMail()).thenReturn(mail);
+        return queueItem;
+    }
+}
@@ -0,0 +1,151 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.impl.pipeline;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.internet.MimeMessage;
+
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.commons.configuration2.HierarchicalConfiguration;
+import org.apache.commons.configuration2.tree.ImmutableNode;
+import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.mailetcontainer.api.mock.MockMailet;
+import org.apache.james.mailetcontainer.api.mock.MockMailetLoader;
+import org.apache.james.mailetcontainer.api.mock.MockMatcher;
+import org.apache.james.mailetcontainer.api.mock.MockMatcherLoader;
+import org.apache.james.mailetcontainer.impl.camel.CamelMailetProcessor;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.logger.DefaultMetricFactory;
+import org.apache.james.server.core.MailImpl;
+import org.apache.james.server.core.configuration.FileConfigurationProvider;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMailContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the throughput of a processor made of a chain of matcher / mailet pairs, for the Camel
+ * based and for the pipeline based implementations.
+ *
+ * Each matcher matches the configured count of recipients out of 4: no recipients, some of them
+ * (the mail gets split) or all of them.
+ *
+ * Run it through its main method, from the test classpath of this module.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MailetProcessorBenchmark {
+    private static final int MAILET_COUNT = 20;
+    private static final String[] RECIPIENTS = {"a@localhost", "b@localhost", "c@localhost", "d@localhost"};
+
+    @Param({"camel", "pipeline"})
+    String engine;
+
+    @Param({"0", "1", "4"})
+    int matchedRecipients;
+
+    private MimeMessage message;
+    private DefaultCamelContext camelContext;
+    private AbstractStateMailetProcessor processor;
+
+    @Setup
+    public void setUp() throws Exception {
+        message = MimeMessageBuilder.mimeMessageBuilder()
+            .setSubject("benchmark")
+            .setText("content")
+            .build();
+
+        MetricFactory metricFactory = new DefaultMetricFactory();
+        if (engine.equals("camel")) {
+            camelContext = new DefaultCamelContext();
+            CamelMailetProcessor camelProcessor = new CamelMailetProcessor(metricFactory);
+            camelProcessor.setCamelContext(camelContext);
+            processor = camelProcessor;
+        } else {
+            processor = new PipelineMailetProcessor(metricFactory);
+        }
+        processor.setMailetContext(FakeMailContext.defaultContext());
+        processor.setMailetLoader(new MockMailetLoader());
+        processor.setMatcherLoader(new MockMatcherLoader());
+        processor.setRootMailProcessor(mail -> { });
+        processor.configure(processorConfiguration());
+        processor.init();
+    }
+
+    private HierarchicalConfiguration<ImmutableNode> processorConfiguration() throws Exception {
+        StringBuilder configuration = new StringBuilder("<processor state=\"" + Mail.DEFAULT + "\" enableJmx=\"false\">");
+        for (int i = 0; i < MAILET_COUNT; i++) {
+            configuration.append("<mailet match=\"").append(MockMatcher.class.getName()).append("=").append(matchedRecipients).append("\"")
+                .append(" class=\"").append(MockMailet.class.getName()).append("\">")
+                .append("<state>").append(Mail.DEFAULT).append("</state>")
+                .append("</mailet>");
+        }
+        configuration.append("</processor>");
+        return FileConfigurationProvider.getConfig(new ByteArrayInputStream(configuration.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        processor.destroy();
+        if (camelContext != null) {
+            camelContext.stop();
+        }
+    }
+
+    @Benchmark
+    public String service() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name(MailImpl.getId())
+            .sender("sender@localhost")
+            .addRecipients(RECIPIENTS)
+            .mimeMessage(message)
+            .build();
+        processor.service(mail);
+        return mail.getState();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(MailetProcessorBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
@@ -0,0 +1,113 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.impl.pipeline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+
+import org.apache.commons.configuration2.HierarchicalConfiguration;
+import org.apache.commons.configuration2.tree.ImmutableNode;
+import org.apache.james.mailetcontainer.api.MailProcessor;
+import org.apache.james.mailetcontainer.api.mock.MockBatchMailet;
+import org.apache.james.mailetcontainer.api.mock.MockMailetLoader;
+import org.apache.james.mailetcontainer.api.mock.MockMatcher;
+import org.apache.james.mailetcontainer.api.mock.MockMatcherLoader;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessorTest;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.server.core.MailImpl;
+import org.apache.james.server.core.configuration.FileConfigurationProvider;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMailContext;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class PipelineMailetProcessorTest extends AbstractStateMailetProcessorTest {
+
+    @Override
+    protected AbstractStateMailetProcessor createProcessor(HierarchicalConfiguration<ImmutableNode> configuration) throws Exception {
+        PipelineMailetProcessor processor = null;
+        try {
+            processor = new PipelineMailetProcessor(new RecordingMetricFactory());
+            processor.setMailetContext(FakeMailContext.defaultContext());
+            processor.setMailetLoader(new MockMailetLoader());
+            processor.setMatcherLoader(new MockMatcherLoader());
+            processor.setRootMailProcessor(mock(MailProcessor.class));
+            processor.configure(configuration);
+            processor.init();
+            return processor;
+        } finally {
+            if (processor != null) {
+                processor.destroy();
+            }
+        }
+    }
+
+    @Test
+    void serviceShouldHandAllTheMatchedMailsOfABatchToBatchMailetsAtOnce() throws Exception {
+        AbstractStateMailetProcessor processor = createProcessor(createBatchConfig(2));
+        MailImpl mail1 = newMail();
+        MailImpl mail2 = newMail();
+
+        processor.service(ImmutableList.of(mail1, mail2));
+
+        MockBatchMailet mailet = (MockBatchMailet) processor.getMailets().get(0);
+        assertThat(mailet.getBatchSizes()).containsExactly(2);
+        assertThat(mail1.getState()).isEqualTo("test");
+        assertThat(mail2.getState()).isEqualTo("test");
+    }
+
+    @Test
+    void serviceShouldHandSplitMailsOfABatchToBatchMailets() throws Exception {
+        AbstractStateMailetProcessor processor = createProcessor(createBatchConfig(1));
+        MailImpl mail1 = newMail();
+        MailImpl mail2 = newMail();
+
+        processor.service(ImmutableList.of(mail1, mail2));
+
+        MockBatchMailet mailet = (MockBatchMailet) processor.getMailets().get(0);
+        assertThat(mailet.getBatchSizes()).containsExactly(2);
+        assertThat(mail1.getState()).isEqualTo(Mail.GHOST);
+        assertThat(mail2.getState()).isEqualTo(Mail.GHOST);
+    }
+
+    private HierarchicalConfiguration<ImmutableNode> createBatchConfig(int matchedRecipientCount) throws Exception {
+        String configuration = "<processor state=\"" + Mail.DEFAULT + "\">" +
+            "<mailet match=\"" + MockMatcher.class.getName() + "=" + matchedRecipientCount + "\"" +
+            " class=\"" + MockBatchMailet.class.getName() + "\">" +
+            "<state>test</state>" +
+            "</mailet>" +
+            "</processor>";
+
+        return FileConfigurationProvider.getConfig(new ByteArrayInputStream(configuration.getBytes()));
+    }
+
+    private MailImpl newMail() throws Exception {
+        return MailImpl.builder()
+            .name(MailImpl.getId())
+            .sender("test@localhost")
+            .addRecipient("test@localhost")
+            .addRecipient("test2@localhost")
+            .build();
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.apache.james.transport.mailets;
 
+import java.util.Collection;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.mail.MessagingException;
@@ -30,6 +32,7 @@ import org.apache.james.transport.mailets.delivery.MailDispatcher;
 import org.apache.james.transport.mailets.delivery.MailboxAppender;
 import org.apache.james.transport.mailets.delivery.SimpleMailStore;
 import org.apache.james.user.api.UsersRepository;
+import org.apache.mailet.BatchMailet;
 import org.apache.mailet.Mail;
 import org.apache.mailet.base.GenericMailet;
 
@@ -40,8 +43,11 @@ import org.apache.mailet.base.GenericMailet;
  * This mailet is a composition of RecipientRewriteTable, SieveMailet 
  * and MailboxManager configured to mimic the old "LocalDelivery"
  * James 2.3 behavior.
+ *
+ * Within a batch, the mails of each recipient are appended one after the other while distinct
+ * recipients are delivered concurrently.
  */
-public class LocalDelivery extends GenericMailet {
+public class LocalDelivery extends GenericMailet implements BatchMailet {
 
     public static final String LOCAL_DELIVERED_MAILS_METRIC_NAME = "localDeliveredMails";
     private final UsersRepository usersRepository;
@@ -62,6 +68,11 @@ public class LocalDelivery extends GenericMailet {
         mailDispatcher.dispatch(mail);
     }
 
+    @Override
+    public void service(Collection<Mail> mails) throws MessagingException {
+        mailDispatcher.dispatch(mails);
+    }
+
     @Override
     public String getMailetInfo() {
         return "Local Delivery Mailet";
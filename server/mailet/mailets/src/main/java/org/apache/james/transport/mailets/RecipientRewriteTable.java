@@ -19,11 +19,14 @@
 
 package org.apache.james.transport.mailets;
 
+import java.util.Collection;
+
 import javax.inject.Inject;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 
 import org.apache.james.domainlist.api.DomainList;
+import org.apache.mailet.BatchMailet;
 import org.apache.mailet.Mail;
 import org.apache.mailet.base.GenericMailet;
 
@@ -44,8 +47,10 @@ import com.google.common.base.Preconditions;
  *  &lt;/mailet&gt;
  * </code>
  * </pre>
+ *
+ * When processing a batch of mails, the mappings of all the recipients of the batch are resolved once.
  */
-public class RecipientRewriteTable extends GenericMailet {
+public class RecipientRewriteTable extends GenericMailet implements BatchMailet {
     public static final String ERROR_PROCESSOR = "errorProcessor";
 
     private final org.apache.james.rrt.api.RecipientRewriteTable virtualTableStore;
@@ -90,6 +95,11 @@ public class RecipientRewriteTable extends GenericMailet {
 
     }
 
+    @Override
+    public void service(Collection<Mail> mails) throws MessagingException {
+        processor.processMails(mails);
+    }
+
     @Override
     public String getMailetInfo() {
         return "RecipientRewriteTable Mailet";
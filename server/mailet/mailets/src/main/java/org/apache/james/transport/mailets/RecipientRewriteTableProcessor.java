@@ -20,6 +20,7 @@
 package org.apache.james.transport.mailets;
 
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -43,7 +44,9 @@ import org.apache.james.rrt.api.RecipientRewriteTableException;
 import org.apache.james.rrt.lib.Mapping;
 import org.apache.james.rrt.lib.Mappings;
 import org.apache.james.server.core.MailImpl;
+import org.apache.james.transport.util.BatchUtils;
 import org.apache.james.util.MemoizedSupplier;
+import org.apache.mailet.BatchMailetException;
 import org.apache.mailet.DsnParameters;
 import org.apache.mailet.DsnParameters.RecipientDsnParameters;
 import org.apache.mailet.Mail;
@@ -59,6 +62,10 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public class RecipientRewriteTableProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(RecipientRewriteTableProcessor.class);
 
@@ -147,6 +154,39 @@ public class RecipientRewriteTableProcessor {
 
     }
 
+    @FunctionalInterface
+    private interface MappingsResolver {
+        Mappings resolve(MailAddress recipient) throws ErrorMappingException, RecipientRewriteTableException;
+    }
+
+    private static class Resolution {
+        private static Resolution resolve(MappingsResolver resolver, MailAddress recipient) {
+            try {
+                return new Resolution(Optional.ofNullable(resolver.resolve(recipient)), Optional.empty());
+            } catch (ErrorMappingException | RecipientRewriteTableException e) {
+                return new Resolution(Optional.empty(), Optional.of(e));
+            }
+        }
+
+        private final Optional<Mappings> mappings;
+        private final Optional<Exception> error;
+
+        private Resolution(Optional<Mappings> mappings, Optional<Exception> error) {
+            this.mappings = mappings;
+            this.error = error;
+        }
+
+        Mappings get() throws ErrorMappingException, RecipientRewriteTableException {
+            if (error.isPresent()) {
+                if (error.get() instanceof ErrorMappingException) {
+                    throw (ErrorMappingException) error.get();
+                }
+                throw (RecipientRewriteTableException) error.get();
+            }
+            return mappings.orElse(null);
+        }
+    }
+
     private final RecipientRewriteTable virtualTableStore;
     private final MailetContext mailetContext;
     private final Supplier<Domain> defaultDomainSupplier;
@@ -173,12 +213,60 @@ public class RecipientRewriteTableProcessor {
     }
 
     public void processMail(Mail mail) throws MessagingException {
-        List<Decision> decisions = executeRrtFor(mail);
+        processMail(mail, this::resolveMappings);
+    }
+
+    /**
+     * Processes a batch of mails, resolving the mappings of the distinct recipients of the batch once,
+     * up to {@link BatchUtils#DEFAULT_CONCURRENCY} of them concurrently.
+     *
+     * Mails without message are left untouched.
+     *
+     * @throws BatchMailetException listing the mails whose processing failed
+     */
+    public void processMails(Collection<Mail> mails) throws MessagingException {
+        Map<Mail, Exception> failures = new IdentityHashMap<>();
+        ImmutableList.Builder<Mail> mailsWithMessage = ImmutableList.builder();
+        for (Mail mail : mails) {
+            try {
+                if (mail.getMessage() != null) {
+                    mailsWithMessage.add(mail);
+                }
+            } catch (MessagingException e) {
+                failures.put(mail, e);
+            }
+        }
+        ImmutableList<Mail> mailsToProcess = mailsWithMessage.build();
+
+        Map<MailAddress, Resolution> resolutions = Flux.fromIterable(mailsToProcess)
+            .flatMapIterable(Mail::getRecipients)
+            .distinct()
+            .flatMap(recipient -> Mono.fromCallable(() -> Pair.of(recipient, Resolution.resolve(this::resolveMappings, recipient)))
+                .subscribeOn(Schedulers.elastic()), BatchUtils.DEFAULT_CONCURRENCY)
+            .collectMap(Pair::getKey, Pair::getValue)
+            .block();
+
+        try {
+            BatchUtils.forEach(mailsToProcess, mail -> processMail(mail, recipient -> resolutions.get(recipient).get()));
+        } catch (BatchMailetException e) {
+            failures.putAll(e.getFailures());
+        }
+        if (!failures.isEmpty()) {
+            throw new BatchMailetException(failures);
+        }
+    }
+
+    private void processMail(Mail mail, MappingsResolver resolver) throws MessagingException {
+        List<Decision> decisions = executeRrtFor(mail, resolver);
 
         applyDecisionsOnMailRecipients(mail, decisions);
         applyDecisionOnDSNParameters(mail, decisions);
     }
 
+    private Mappings resolveMappings(MailAddress recipient) throws ErrorMappingException, RecipientRewriteTableException {
+        return virtualTableStore.getResolvedMappings(recipient.getLocalPart(), recipient.getDomain());
+    }
+
     private void applyDecisionOnDSNParameters(Mail mail, List<Decision> decisions) {
         mail.dsnParameters()
             .map(dsnParameters -> decisions.stream()
@@ -211,11 +299,11 @@ public class RecipientRewriteTableProcessor {
         mail.setRecipients(executionResults.newRecipients);
     }
 
-    private List<Decision> executeRrtFor(Mail mail) {
+    private List<Decision> executeRrtFor(Mail mail, MappingsResolver resolver) {
         Function<MailAddress, Decision> convertToMappingData = recipient -> {
             Preconditions.checkNotNull(recipient);
 
-            return executeRrtForRecipient(mail, recipient);
+            return executeRrtForRecipient(mail, recipient, resolver);
         };
 
         return mail.getRecipients()
@@ -224,9 +312,9 @@ public class RecipientRewriteTableProcessor {
             .collect(Guavate.toImmutableList());
     }
 
-    private Decision executeRrtForRecipient(Mail mail, MailAddress recipient) {
+    private Decision executeRrtForRecipient(Mail mail, MailAddress recipient, MappingsResolver resolver) {
         try {
-            Mappings mappings = virtualTableStore.getResolvedMappings(recipient.getLocalPart(), recipient.getDomain());
+            Mappings mappings = resolver.resolve(recipient);
 
             if (mappings != null && !mappings.isEmpty()) {
                 List<MailAddress> newMailAddresses = handleMappings(mappings, mail, recipient);
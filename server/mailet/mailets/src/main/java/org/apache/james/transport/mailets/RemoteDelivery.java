@@ -31,7 +31,9 @@ import org.apache.james.core.Domain;
 import org.apache.james.core.MailAddress;
 import org.apache.james.dnsservice.api.DNSService;
 import org.apache.james.domainlist.api.DomainList;
+import org.apache.james.metrics.api.GaugeRegistry;
 import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.NoopGaugeRegistry;
 import org.apache.james.queue.api.MailPrioritySupport;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.james.queue.api.MailQueue.MailQueueException;
@@ -81,6 +83,25 @@ import com.google.common.collect.HashMultimap;
  * Default is 0.
  * <li><b>timeout</b> (optional) - an Integer for the Socket I/O timeout in milliseconds. Default is 180000</li>
  * <li><b>connectionTimeout</b> (optional) - an Integer for the Socket connection timeout in milliseconds. Default is 60000</li>
+ * <li><b>maxIdleConnectionsPerHost</b> (optional) - an Integer for the count of connections kept open to each remote host once
+ * a delivery succeeded, so that they are reused by later deliveries to that host. Default is 0, meaning a connection is opened
+ * for each delivery.</li>
+ * <li><b>connectionMaxIdleTime</b> (optional) - a Duration after which an idle connection is closed. Unit defaults to seconds.
+ * Default is 30 seconds.</li>
+ * <li><b>maxMessagesPerConnection</b> (optional) - an Integer for the count of messages sent over a connection before closing it.
+ * Default is 100.</li>
+ * <li><b>batchSize</b> (optional) - an Integer for the maximum count of mails to the same destination domain delivered within
+ * a single SMTP session, one transaction per mail. Default is 1, which disables batching.</li>
+ * <li><b>batchWindow</b> (optional) - a Duration for how long a batch waits for further mails to the same destination
+ * domain before being delivered. Unit defaults to milliseconds. Default is 100 milliseconds.</li>
+ * <li><b>maxConcurrentDeliveriesPerDomain</b> (optional) - an Integer for the maximum count of concurrent deliveries to a
+ * destination domain. Default is 0, meaning unlimited.</li>
+ * <li><b>maxDeliveriesPerSecondPerDomain</b> (optional) - an Integer for the maximum count of mails delivered per second to
+ * a destination domain. Default is 0, meaning unlimited.</li>
+ * <li><b>maxPendingDeliveriesPerDomain</b> (optional) - an Integer for the maximum count of deliveries waiting for one of the
+ * above limits, per destination domain. Further mails to that domain are put back in the queue for a short delay, letting
+ * other destinations progress. Default is 32. Running and waiting deliveries, across all destination domains, are
+ * reported by the remoteDeliveryRunning and remoteDeliveryWaiting metrics.</li>
  * <li><b>bounceProcessor</b> (optional) - a String containing the name of the mailet processor to pass messages that cannot
  * be delivered to for DSN bounce processing. Default is to send a traditional message containing the bounce details.</li>
  * <li><b>startTLS</b> (optional) - a Boolean (true/false) indicating whether the STARTTLS command (if supported by the server)
@@ -143,21 +164,29 @@ public class RemoteDelivery extends GenericMailet {
     private final DomainList domainList;
     private final MailQueueFactory<?> queueFactory;
     private final MetricFactory metricFactory;
+    private final GaugeRegistry gaugeRegistry;
     private final ThreadState startThreads;
 
     private MailQueue queue;
     private RemoteDeliveryConfiguration configuration;
 
     @Inject
-    public RemoteDelivery(DNSService dnsServer, DomainList domainList, MailQueueFactory<?> queueFactory, MetricFactory metricFactory) {
-        this(dnsServer, domainList, queueFactory, metricFactory, ThreadState.START_THREADS);
+    public RemoteDelivery(DNSService dnsServer, DomainList domainList, MailQueueFactory<?> queueFactory, MetricFactory metricFactory,
+                          GaugeRegistry gaugeRegistry) {
+        this(dnsServer, domainList, queueFactory, metricFactory, gaugeRegistry, ThreadState.START_THREADS);
     }
 
     public RemoteDelivery(DNSService dnsServer, DomainList domainList, MailQueueFactory<?> queueFactory, MetricFactory metricFactory, ThreadState startThreads) {
+        this(dnsServer, domainList, queueFactory, metricFactory, new NoopGaugeRegistry(), startThreads);
+    }
+
+    public RemoteDelivery(DNSService dnsServer, DomainList domainList, MailQueueFactory<?> queueFactory, MetricFactory metricFactory,
+                          GaugeRegistry gaugeRegistry, ThreadState startThreads) {
         this.dnsServer = dnsServer;
         this.domainList = domainList;
         this.queueFactory = queueFactory;
         this.metricFactory = metricFactory;
+        this.gaugeRegistry = gaugeRegistry;
         this.startThreads = startThreads;
     }
 
@@ -176,6 +205,7 @@ public class RemoteDelivery extends GenericMailet {
             configuration,
             dnsServer,
             metricFactory,
+            gaugeRegistry,
             getMailetContext(),
             new Bouncer(configuration, getMailetContext()));
         if (startThreads == ThreadState.START_THREADS) {
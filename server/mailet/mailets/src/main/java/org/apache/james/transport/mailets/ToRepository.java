@@ -19,12 +19,16 @@
 
 package org.apache.james.transport.mailets;
 
+import java.util.Collection;
+
 import javax.inject.Inject;
 import javax.mail.MessagingException;
 
 import org.apache.james.mailrepository.api.MailRepository;
 import org.apache.james.mailrepository.api.MailRepositoryStore;
 import org.apache.james.mailrepository.api.MailRepositoryUrl;
+import org.apache.james.transport.util.BatchUtils;
+import org.apache.mailet.BatchMailet;
 import org.apache.mailet.Mail;
 import org.apache.mailet.base.GenericMailet;
 import org.slf4j.Logger;
@@ -33,9 +37,10 @@ import org.slf4j.LoggerFactory;
 /**
  * Stores incoming Mail in the specified Repository.<br>
  * If the "passThrough" in conf is true the mail will be returned untouched in
- * the pipe and may be processed by additional mailets. If false will be destroyed.
+ * the pipe and may be processed by additional mailets. If false will be destroyed.<br>
+ * Mails of a batch are stored concurrently.
  */
-public class ToRepository extends GenericMailet {
+public class ToRepository extends GenericMailet implements BatchMailet {
     private static final Logger LOGGER = LoggerFactory.getLogger(ToRepository.class);
 
     private final MailRepositoryStore mailStore;
@@ -82,6 +87,11 @@ public class ToRepository extends GenericMailet {
         }
     }
 
+    @Override
+    public void service(Collection<Mail> mails) throws MessagingException {
+        BatchUtils.forEachConcurrently(mails, this::service);
+    }
+
     @Override
     public String getMailetInfo() {
         return "ToRepository Mailet";
@@ -21,6 +21,9 @@ package org.apache.james.transport.mailets.delivery;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -30,6 +33,8 @@ import javax.mail.internet.MimeMessage;
 
 import org.apache.james.core.MailAddress;
 import org.apache.james.server.core.MailImpl;
+import org.apache.james.transport.util.BatchUtils;
+import org.apache.mailet.BatchMailetException;
 import org.apache.mailet.Mail;
 import org.apache.mailet.MailetContext;
 import org.apache.mailet.PerRecipientHeaders.Header;
@@ -42,6 +47,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
@@ -101,6 +107,52 @@ public class MailDispatcher {
 
     public void dispatch(Mail mail) throws MessagingException {
         List<MailAddress> errors =  customizeHeadersAndDeliver(mail);
+        handleErrorsAndConsume(mail, errors);
+    }
+
+    /**
+     * Dispatches a batch of mails. The mails of each recipient are stored sequentially while distinct
+     * recipients are served concurrently, up to {@link BatchUtils#DEFAULT_CONCURRENCY} at a time.
+     *
+     * @throws BatchMailetException listing the mails whose dispatching failed
+     */
+    public void dispatch(Collection<Mail> mails) throws MessagingException {
+        Map<Mail, Exception> failures = new IdentityHashMap<>();
+        Map<Mail, List<MailAddress>> errors = new IdentityHashMap<>();
+        Map<MailAddress, List<Mail>> mailsByRecipient = new LinkedHashMap<>();
+        for (Mail mail : mails) {
+            try {
+                setReturnPath(mail);
+                errors.put(mail, Collections.synchronizedList(new ArrayList<>()));
+                mail.getRecipients()
+                    .forEach(recipient -> mailsByRecipient.computeIfAbsent(recipient, any -> new ArrayList<>()).add(mail));
+            } catch (MessagingException e) {
+                failures.put(mail, e);
+            }
+        }
+
+        Flux.fromIterable(mailsByRecipient.entrySet())
+            .flatMap(entry -> Flux.fromIterable(entry.getValue())
+                .concatMap(mail -> deliverWithinBatch(mail, entry.getKey(), errors.get(mail))),
+                BatchUtils.DEFAULT_CONCURRENCY)
+            .then()
+            .block();
+
+        for (Mail mail : mails) {
+            if (!failures.containsKey(mail)) {
+                try {
+                    handleErrorsAndConsume(mail, ImmutableList.copyOf(errors.get(mail)));
+                } catch (MessagingException e) {
+                    failures.put(mail, e);
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new BatchMailetException(failures);
+        }
+    }
+
+    private void handleErrorsAndConsume(Mail mail, List<MailAddress> errors) throws MessagingException {
         if (!errors.isEmpty()) {
             // If there were errors, we redirect the email to the ERROR
             // processor.
@@ -125,26 +177,24 @@ public class MailDispatcher {
     }
 
     private List<MailAddress> customizeHeadersAndDeliver(Mail mail) throws MessagingException {
-        MimeMessage message = mail.getMessage();
-        // Set Return-Path and remove all other Return-Path headers from the message
-        // This only works because there is a placeholder inserted by MimeMessageWrapper
-        message.setHeader(RFC2822Headers.RETURN_PATH, mail.getMaybeSender().asPrettyString());
+        setReturnPath(mail);
 
-        List<MailAddress> errors = deliver(mail, message);
+        List<MailAddress> errors = deliver(mail);
 
         return errors;
     }
 
-    private List<MailAddress> deliver(Mail mail, MimeMessage message) {
+    private void setReturnPath(Mail mail) throws MessagingException {
+        // Set Return-Path and remove all other Return-Path headers from the message
+        // This only works because there is a placeholder inserted by MimeMessageWrapper
+        mail.getMessage().setHeader(RFC2822Headers.RETURN_PATH, mail.getMaybeSender().asPrettyString());
+    }
+
+    private List<MailAddress> deliver(Mail mail) {
         List<MailAddress> errors = new ArrayList<>();
         for (MailAddress recipient : mail.getRecipients()) {
             try {
-                Map<String, List<String>> savedHeaders = saveHeaders(mail, recipient);
-
-                addSpecificHeadersForRecipient(mail, message, recipient);
-                storeMailWithRetry(mail, recipient).block();
-
-                restoreHeaders(mail.getMessage(), savedHeaders);
+                deliver(mail, recipient);
             } catch (Exception ex) {
                 LOGGER.error("Error while storing mail.", ex);
                 errors.add(recipient);
@@ -153,6 +203,31 @@ public class MailDispatcher {
         return errors;
     }
 
+    private Mono<Void> deliverWithinBatch(Mail mail, MailAddress recipient, List<MailAddress> errors) {
+        return Mono.fromRunnable(() -> {
+                // Per recipient headers are written on the message shared by all the recipients of the mail
+                synchronized (mail) {
+                    try {
+                        deliver(mail, recipient);
+                    } catch (Exception ex) {
+                        LOGGER.error("Error while storing mail.", ex);
+                        errors.add(recipient);
+                    }
+                }
+            })
+            .subscribeOn(scheduler)
+            .then();
+    }
+
+    private void deliver(Mail mail, MailAddress recipient) throws MessagingException {
+        Map<String, List<String>> savedHeaders = saveHeaders(mail, recipient);
+
+        addSpecificHeadersForRecipient(mail, mail.getMessage(), recipient);
+        storeMailWithRetry(mail, recipient).block();
+
+        restoreHeaders(mail.getMessage(), savedHeaders);
+    }
+
     private Mono<Void> storeMailWithRetry(Mail mail, MailAddress recipient) {
        return Mono.fromRunnable((ThrowingRunnable)() -> mailStore.storeMail(recipient, mail))
            .doOnError(error -> LOGGER.error("Error While storing mail.", error))
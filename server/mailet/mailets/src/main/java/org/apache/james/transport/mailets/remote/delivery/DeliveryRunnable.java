@@ -24,12 +24,19 @@ import static org.apache.james.transport.mailets.remote.delivery.Bouncer.IS_DELI
 
 import java.time.Duration;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import org.apache.james.core.Domain;
+import org.apache.james.core.MailAddress;
 import org.apache.james.dnsservice.api.DNSService;
 import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.metrics.api.GaugeRegistry;
 import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.NoopGaugeRegistry;
 import org.apache.james.metrics.api.TimeMetric;
 import org.apache.james.queue.api.MailPrioritySupport;
 import org.apache.james.queue.api.MailQueue;
@@ -40,9 +47,12 @@ import org.apache.mailet.MailetContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.fge.lambdas.Throwing;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 
 import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
@@ -55,27 +65,42 @@ public class DeliveryRunnable implements Disposable {
     public static final Supplier<Date> CURRENT_DATE_SUPPLIER = Date::new;
     public static final String OUTGOING_MAILS = "outgoingMails";
     public static final String REMOTE_DELIVERY_TRIAL = "RemoteDeliveryTrial";
+    public static final Duration DEFERRAL_DELAY = Duration.ofSeconds(1);
 
     private final MailQueue queue;
     private final RemoteDeliveryConfiguration configuration;
     private final Metric outgoingMailsMetric;
     private final MetricFactory metricFactory;
+    private final GaugeRegistry gaugeRegistry;
     private final Bouncer bouncer;
     private final MailDelivrer mailDelivrer;
     private final Supplier<Date> dateSupplier;
+    private final Disposable transportPool;
     private Disposable disposable;
     private Scheduler remoteDeliveryScheduler;
+    private Optional<DestinationBatcher> batcher;
+    private Optional<DestinationScheduler> destinationScheduler;
 
     public DeliveryRunnable(MailQueue queue, RemoteDeliveryConfiguration configuration, DNSService dnsServer, MetricFactory metricFactory,
-                            MailetContext mailetContext, Bouncer bouncer) {
-        this(queue, configuration, metricFactory, bouncer,
-            new MailDelivrer(configuration, new MailDelivrerToHost(configuration, mailetContext), dnsServer, bouncer),
-            CURRENT_DATE_SUPPLIER);
+                            GaugeRegistry gaugeRegistry, MailetContext mailetContext, Bouncer bouncer) {
+        this(queue, configuration, dnsServer, metricFactory, gaugeRegistry, mailetContext, bouncer, new SMTPTransportPool(configuration, metricFactory));
+    }
+
+    private DeliveryRunnable(MailQueue queue, RemoteDeliveryConfiguration configuration, DNSService dnsServer, MetricFactory metricFactory,
+                             GaugeRegistry gaugeRegistry, MailetContext mailetContext, Bouncer bouncer, SMTPTransportPool transportPool) {
+        this(queue, configuration, metricFactory, gaugeRegistry, bouncer,
+            new MailDelivrer(configuration, new MailDelivrerToHost(configuration, mailetContext, transportPool), dnsServer, bouncer),
+            transportPool, CURRENT_DATE_SUPPLIER);
     }
 
     @VisibleForTesting
     DeliveryRunnable(MailQueue queue, RemoteDeliveryConfiguration configuration, MetricFactory metricFactory, Bouncer bouncer,
                      MailDelivrer mailDelivrer, Supplier<Date> dateSupplier) {
+        this(queue, configuration, metricFactory, new NoopGaugeRegistry(), bouncer, mailDelivrer, Disposables.disposed(), dateSupplier);
+    }
+
+    private DeliveryRunnable(MailQueue queue, RemoteDeliveryConfiguration configuration, MetricFactory metricFactory, GaugeRegistry gaugeRegistry,
+                             Bouncer bouncer, MailDelivrer mailDelivrer, Disposable transportPool, Supplier<Date> dateSupplier) {
         this.queue = queue;
         this.configuration = configuration;
         this.outgoingMailsMetric = metricFactory.generate(OUTGOING_MAILS);
@@ -83,60 +108,164 @@ public class DeliveryRunnable implements Disposable {
         this.mailDelivrer = mailDelivrer;
         this.dateSupplier = dateSupplier;
         this.metricFactory = metricFactory;
+        this.gaugeRegistry = gaugeRegistry;
+        this.transportPool = transportPool;
     }
 
     public void start() {
         remoteDeliveryScheduler = Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "RemoteDelivery");
+        if (configuration.isBatchingEnabled()) {
+            batcher = Optional.of(new DestinationBatcher(configuration.getBatchSize(), configuration.getBatchWindow(),
+                remoteDeliveryScheduler, this::runBatch));
+        } else {
+            batcher = Optional.empty();
+        }
+        if (configuration.isDestinationThrottlingEnabled()) {
+            destinationScheduler = Optional.of(new DestinationScheduler(configuration, remoteDeliveryScheduler, metricFactory, gaugeRegistry));
+        } else {
+            destinationScheduler = Optional.empty();
+        }
         disposable = Flux.from(queue.deQueue())
-            .flatMap(queueItem -> runStep(queueItem).subscribeOn(remoteDeliveryScheduler), Queues.SMALL_BUFFER_SIZE)
+            .flatMap(this::dispatch, Queues.SMALL_BUFFER_SIZE)
             .onErrorContinue(((throwable, nothing) -> LOGGER.error("Exception caught in RemoteDelivery", throwable)))
             .subscribeOn(remoteDeliveryScheduler)
             .subscribe();
     }
 
-    private Mono<Void> runStep(MailQueue.MailQueueItem queueItem) {
+    private Mono<Void> dispatch(MailQueue.MailQueueItem queueItem) {
+        Optional<Domain> destination = destinationDomain(queueItem.getMail());
+        if (destination.isEmpty()) {
+            return runStep(queueItem, mailDelivrer::deliver).subscribeOn(remoteDeliveryScheduler);
+        }
+        if (batcher.isPresent()) {
+            return batcher.get().submit(destination.get(), queueItem);
+        }
+        return schedule(destination.get(), ImmutableList.of(queueItem),
+            Mono.defer(() -> runStep(queueItem, mailDelivrer::deliver)));
+    }
+
+    private Mono<Void> schedule(Domain destination, List<MailQueue.MailQueueItem> queueItems, Mono<Void> delivery) {
+        return destinationScheduler
+            .map(scheduler -> scheduler.schedule(destination, queueItems.size(), delivery, defer(queueItems),
+                () -> abort(queueItems)))
+            .orElse(delivery.subscribeOn(remoteDeliveryScheduler));
+    }
+
+    /**
+     * Put the mails back in the queue, without counting a delivery attempt, so that they do not hold the
+     * dequeue capacity while their destination is saturated.
+     *
+     * The mails are held, without any thread, for {@link #DEFERRAL_DELAY} before being re-enqueued rather than
+     * enqueued with a delay: not every MailQueue implementation honors enqueue delays, and re-enqueuing right away
+     * would spin on a saturated destination.
+     */
+    private Mono<Void> defer(List<MailQueue.MailQueueItem> queueItems) {
+        return Mono.delay(DEFERRAL_DELAY, remoteDeliveryScheduler)
+            .thenMany(Flux.fromIterable(queueItems))
+            .concatMap(this::deferMail)
+            .then();
+    }
+
+    private Mono<Void> deferMail(MailQueue.MailQueueItem queueItem) {
+        Mail mail = queueItem.getMail();
+        LOGGER.debug("Deferring delivery of {} as its destination is saturated", mail.getName());
+        return Mono.from(queue.enqueueReactive(mail))
+            .then(Mono.fromRunnable(Throwing.runnable(() -> queueItem.done(true)).sneakyThrow()))
+            .onErrorResume(MailQueue.MailQueueException.class, e -> {
+                LOGGER.error("Could not defer the delivery of {}", mail.getName(), e);
+                try {
+                    queueItem.done(false);
+                } catch (MailQueue.MailQueueException e2) {
+                    LOGGER.error("Could not negatively acknowledge {}", mail.getName(), e2);
+                }
+                return Mono.empty();
+            })
+            .doFinally(any -> LifecycleUtil.dispose(mail))
+            .then();
+    }
+
+    private void abort(List<MailQueue.MailQueueItem> queueItems) {
+        queueItems.forEach(queueItem -> {
+            try {
+                queueItem.done(false);
+            } catch (MailQueue.MailQueueException e) {
+                LOGGER.error("Could not negatively acknowledge a mail waiting for its destination", e);
+            }
+        });
+    }
+
+    private Optional<Domain> destinationDomain(Mail mail) {
+        return mail.getRecipients().stream()
+            .findFirst()
+            .map(MailAddress::getDomain);
+    }
+
+    /**
+     * Deliver a batch of mails to the same destination one after the other within a single SMTP session: each mail
+     * is delivered within its own transaction (MAIL FROM, RCPT TO, DATA) and is acknowledged on its own.
+     */
+    private Mono<Void> runBatch(List<MailQueue.MailQueueItem> batch) {
+        return schedule(destinationDomain(batch.get(0).getMail()).get(), batch, deliverBatch(batch));
+    }
+
+    private Mono<Void> deliverBatch(List<MailQueue.MailQueueItem> batch) {
+        return Mono.using(() -> SMTPTransportPool.session(configuration, metricFactory),
+            session -> Flux.fromIterable(batch)
+                .concatMap(queueItem -> runStep(queueItem, mail -> mailDelivrer.deliver(mail, session))
+                    .onErrorResume(e -> {
+                        LOGGER.error("Exception caught in RemoteDelivery", e);
+                        return Mono.empty();
+                    }))
+                .then(),
+            SMTPTransportPool::dispose);
+    }
+
+    private Mono<Void> runStep(MailQueue.MailQueueItem queueItem, Function<Mail, ExecutionResult> delivery) {
         TimeMetric timeMetric = metricFactory.timer(REMOTE_DELIVERY_TRIAL);
         try {
-            return processMail(queueItem)
+            return processMail(queueItem, delivery)
                 .doOnSuccess(any -> timeMetric.stopAndPublish().logWhenExceedP99(DEFAULT_100_MS_THRESHOLD));
         } catch (Throwable e) {
             return Mono.error(e);
         }
     }
 
-    private Mono<Void> processMail(MailQueue.MailQueueItem queueItem) throws MailQueue.MailQueueException {
+    private Mono<Void> processMail(MailQueue.MailQueueItem queueItem, Function<Mail, ExecutionResult> delivery) {
         Mail mail = queueItem.getMail();
 
-        try {
-            LOGGER.debug("will process mail {}", mail.getName());
-            attemptDelivery(mail);
-            queueItem.done(true);
-            return Mono.empty();
-        } catch (Exception e) {
+        return Mono.defer(() -> {
+                LOGGER.debug("will process mail {}", mail.getName());
+                return attemptDelivery(mail, delivery);
+            })
+            .then(Mono.fromRunnable(Throwing.runnable(() -> queueItem.done(true)).sneakyThrow()))
             // Prevent unexpected exceptions from causing looping by removing message from outgoing.
             // DO NOT CHANGE THIS to catch Error!
             // For example, if there were an OutOfMemory condition caused because
             // something else in the server was abusing memory, we would not want to start purging the retrying spool!
-            queueItem.done(false);
-            return Mono.error(e);
-        } finally {
-            LifecycleUtil.dispose(mail);
-        }
+            .onErrorResume(Exception.class, e -> Mono.fromRunnable(Throwing.runnable(() -> queueItem.done(false)).sneakyThrow())
+                .then(Mono.error(e)))
+            .doFinally(any -> LifecycleUtil.dispose(mail))
+            .then();
     }
 
     @VisibleForTesting
-    void attemptDelivery(Mail mail) throws MailQueue.MailQueueException {
-        ExecutionResult executionResult = mailDelivrer.deliver(mail);
+    Mono<Void> attemptDelivery(Mail mail) {
+        return attemptDelivery(mail, mailDelivrer::deliver);
+    }
+
+    private Mono<Void> attemptDelivery(Mail mail, Function<Mail, ExecutionResult> delivery) {
+        ExecutionResult executionResult = delivery.apply(mail);
         switch (executionResult.getExecutionState()) {
             case SUCCESS:
                 outgoingMailsMetric.increment();
-                break;
+                return Mono.empty();
             case TEMPORARY_FAILURE:
-                handleTemporaryFailure(mail, executionResult);
-                break;
+                return handleTemporaryFailure(mail, executionResult);
             case PERMANENT_FAILURE:
                 handlePermanentFailure(mail, executionResult);
-                break;
+                return Mono.empty();
+            default:
+                return Mono.empty();
         }
     }
 
@@ -145,7 +274,7 @@ public class DeliveryRunnable implements Disposable {
         bouncer.bounce(mail, executionResult.getException().orElse(null));
     }
 
-    private void handleTemporaryFailure(Mail mail, ExecutionResult executionResult) throws MailQueue.MailQueueException {
+    private Mono<Void> handleTemporaryFailure(Mail mail, ExecutionResult executionResult) {
         if (!mail.getState().equals(Mail.ERROR)) {
             mail.setState(Mail.ERROR);
             DeliveryRetriesHelper.initRetries(mail);
@@ -155,14 +284,14 @@ public class DeliveryRunnable implements Disposable {
         int retries = DeliveryRetriesHelper.retrieveRetries(mail);
 
         if (retries < configuration.getMaxRetries()) {
-            reAttemptDelivery(mail, retries);
-        } else {
-            LOGGER.debug("Bouncing message {} after {} retries", mail.getName(), retries);
-            bouncer.bounce(mail, new Exception("Too many retries failure. Bouncing after " + retries + " retries.", executionResult.getException().orElse(null)));
+            return reAttemptDelivery(mail, retries);
         }
+        LOGGER.debug("Bouncing message {} after {} retries", mail.getName(), retries);
+        bouncer.bounce(mail, new Exception("Too many retries failure. Bouncing after " + retries + " retries.", executionResult.getException().orElse(null)));
+        return Mono.empty();
     }
 
-    private void reAttemptDelivery(Mail mail, int retries) throws MailQueue.MailQueueException {
+    private Mono<Void> reAttemptDelivery(Mail mail, int retries) {
         LOGGER.debug("Storing message {} into outgoing after {} retries", mail.getName(), retries);
         DeliveryRetriesHelper.incrementRetries(mail);
         mail.setLastUpdated(dateSupplier.get());
@@ -173,7 +302,7 @@ public class DeliveryRunnable implements Disposable {
             // Use lowest priority for retries. See JAMES-1311
             mail.setAttribute(MailPrioritySupport.LOW_PRIORITY_ATTRIBUTE);
         }
-        queue.enQueue(mail, delay);
+        return Mono.from(queue.enqueueReactive(mail, delay));
     }
 
     private Duration getNextDelay(int retry_count) {
@@ -186,6 +315,9 @@ public class DeliveryRunnable implements Disposable {
     @Override
     public void dispose() {
         disposable.dispose();
+        batcher.ifPresent(DestinationBatcher::dispose);
+        destinationScheduler.ifPresent(DestinationScheduler::dispose);
         remoteDeliveryScheduler.dispose();
+        transportPool.dispose();
     }
 }
@@ -0,0 +1,161 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.apache.james.core.Domain;
+import org.apache.james.queue.api.MailQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Groups the mails dequeued for remote delivery by destination domain, within a size and time window, so that each
+ * batch can be delivered within a single SMTP session.
+ *
+ * A batch is delivered as soon as it holds the configured count of mails, or once the time window opened by its first
+ * mail elapsed. The Mono returned upon submission completes once the batch holding the mail got delivered: mails
+ * waiting for their batch stay in flight, which bounds pending batches by the dequeue concurrency.
+ */
+class DestinationBatcher implements Disposable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DestinationBatcher.class);
+
+    private static class PendingItem {
+        private final MailQueue.MailQueueItem queueItem;
+        private final MonoSink<Void> sink;
+
+        private PendingItem(MailQueue.MailQueueItem queueItem, MonoSink<Void> sink) {
+            this.queueItem = queueItem;
+            this.sink = sink;
+        }
+    }
+
+    private static class PendingBatch {
+        private final List<PendingItem> items;
+        private Disposable windowTimeout;
+
+        private PendingBatch() {
+            this.items = new ArrayList<>();
+        }
+    }
+
+    private final int batchSize;
+    private final Duration batchWindow;
+    private final Scheduler scheduler;
+    private final Function<List<MailQueue.MailQueueItem>, Mono<Void>> batchDelivery;
+    private final ConcurrentMap<Domain, PendingBatch> pendingBatches;
+
+    DestinationBatcher(int batchSize, Duration batchWindow, Scheduler scheduler,
+                       Function<List<MailQueue.MailQueueItem>, Mono<Void>> batchDelivery) {
+        this.batchSize = batchSize;
+        this.batchWindow = batchWindow;
+        this.scheduler = scheduler;
+        this.batchDelivery = batchDelivery;
+        this.pendingBatches = new ConcurrentHashMap<>();
+    }
+
+    Mono<Void> submit(Domain destination, MailQueue.MailQueueItem queueItem) {
+        return Mono.create(sink -> add(destination, new PendingItem(queueItem, sink)));
+    }
+
+    private void add(Domain destination, PendingItem item) {
+        AtomicReference<PendingBatch> fullBatch = new AtomicReference<>();
+        pendingBatches.compute(destination, (key, batch) -> {
+            PendingBatch result = batch;
+            if (result == null) {
+                result = new PendingBatch();
+                PendingBatch openedBatch = result;
+                result.windowTimeout = scheduler.schedule(() -> flushOnTimeout(key, openedBatch),
+                    batchWindow.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            result.items.add(item);
+            if (result.items.size() >= batchSize) {
+                fullBatch.set(result);
+                return null;
+            }
+            return result;
+        });
+
+        PendingBatch batch = fullBatch.get();
+        if (batch != null) {
+            batch.windowTimeout.dispose();
+            deliver(batch);
+        }
+    }
+
+    private void flushOnTimeout(Domain destination, PendingBatch batch) {
+        if (pendingBatches.remove(destination, batch)) {
+            deliver(batch);
+        }
+    }
+
+    private void deliver(PendingBatch batch) {
+        ImmutableList<MailQueue.MailQueueItem> queueItems = batch.items.stream()
+            .map(item -> item.queueItem)
+            .collect(Guavate.toImmutableList());
+
+        batchDelivery.apply(queueItems)
+            .onErrorResume(e -> {
+                LOGGER.error("Exception caught while delivering a batch of {} mails", queueItems.size(), e);
+                return Mono.empty();
+            })
+            .doFinally(any -> batch.items.forEach(item -> item.sink.success()))
+            .subscribeOn(scheduler)
+            .subscribe();
+    }
+
+    /**
+     * Pending batches are not delivered: their mails are negatively acknowledged so that the queue redelivers them,
+     * and their submissions terminate in error.
+     */
+    @Override
+    public void dispose() {
+        ImmutableList<Domain> destinations = ImmutableList.copyOf(pendingBatches.keySet());
+        destinations.forEach(destination -> Optional.ofNullable(pendingBatches.remove(destination))
+            .ifPresent(this::abort));
+    }
+
+    private void abort(PendingBatch batch) {
+        batch.windowTimeout.dispose();
+        batch.items.forEach(item -> {
+            try {
+                item.queueItem.done(false);
+            } catch (MailQueue.MailQueueException e) {
+                LOGGER.error("Could not negatively acknowledge a mail pending for its batch", e);
+            }
+            item.sink.error(new IllegalStateException("Mail batching had been disposed before the batch got delivered"));
+        });
+    }
+}
@@ -0,0 +1,349 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import org.apache.james.core.Domain;
+import org.apache.james.metrics.api.GaugeRegistry;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.queue.api.MailQueueName;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Schedules remote deliveries per destination domain so that a slow or greylisting destination can not take over
+ * the delivery capacity at the expense of healthy destinations.
+ *
+ * For each destination, it enforces:
+ *  - a maximum count of concurrent deliveries,
+ *  - a maximum rate of delivered mails per second (token bucket),
+ *  - a maximum count of deliveries waiting for one of the above. Further deliveries to that destination are
+ *  deferred, freeing the dequeue capacity for other destinations.
+ *
+ * Waiting deliveries do not hold any thread. Running and waiting deliveries are reported, across all destinations, by
+ * the {@value #RUNNING_METRIC_NAME} and {@value #WAITING_METRIC_NAME} metrics. Per destination metrics named after the
+ * domain would grow the metric registry with every domain ever delivered to: the {@value #MONITORED_DESTINATIONS}
+ * destinations with the largest backlog are instead reported by gauges named after their rank,
+ * {@value #DESTINATION_METRIC_NAME_PREFIX}{outgoing queue}:{rank}:{domain|running|waiting|rate}.
+ */
+class DestinationScheduler implements Disposable {
+    public static final String RUNNING_METRIC_NAME = "remoteDeliveryRunning";
+    public static final String WAITING_METRIC_NAME = "remoteDeliveryWaiting";
+    public static final String DEFERRED_METRIC_NAME = "remoteDeliveryDeferred";
+    public static final String DESTINATION_METRIC_NAME_PREFIX = "remoteDeliveryDestination:";
+    public static final int MONITORED_DESTINATIONS = 10;
+
+    /**
+     * State of a destination at a given time.
+     */
+    static class DestinationSnapshot {
+        private static final Comparator<DestinationSnapshot> BY_BACKLOG = Comparator.comparingInt(DestinationSnapshot::getWaiting)
+            .thenComparingInt(DestinationSnapshot::getRunning)
+            .reversed()
+            .thenComparing(snapshot -> snapshot.getDomain().asString());
+
+        private final Domain domain;
+        private final int running;
+        private final int waiting;
+        private final double rate;
+
+        DestinationSnapshot(Domain domain, int running, int waiting, double rate) {
+            this.domain = domain;
+            this.running = running;
+            this.waiting = waiting;
+            this.rate = rate;
+        }
+
+        Domain getDomain() {
+            return domain;
+        }
+
+        int getRunning() {
+            return running;
+        }
+
+        int getWaiting() {
+            return waiting;
+        }
+
+        /**
+         * @return the count of mails per second whose delivery started since the destination became busy
+         */
+        double getRate() {
+            return rate;
+        }
+    }
+
+    private static class PendingDelivery {
+        private final Mono<Void> delivery;
+        private final int mailCount;
+        private final Runnable abort;
+        private final MonoSink<Void> sink;
+
+        private PendingDelivery(Mono<Void> delivery, int mailCount, Runnable abort, MonoSink<Void> sink) {
+            this.delivery = delivery;
+            this.mailCount = mailCount;
+            this.abort = abort;
+            this.sink = sink;
+        }
+
+        private void abort() {
+            abort.run();
+            sink.error(new IllegalStateException("Destination scheduling had been disposed before the delivery started"));
+        }
+    }
+
+    private class Destination {
+        private final Domain domain;
+        private final Deque<PendingDelivery> waiting;
+        private final Optional<TokenBucket> rateLimiter;
+        private final Instant busySince;
+        private int running;
+        private long startedMails;
+        private boolean wakeUpScheduled;
+
+        private Destination(Domain domain) {
+            this.domain = domain;
+            this.waiting = new ArrayDeque<>();
+            this.busySince = clock.instant();
+            this.rateLimiter = Optional.of(maxDeliveriesPerSecond)
+                .filter(rate -> rate != RemoteDeliveryConfiguration.UNLIMITED)
+                .map(rate -> new TokenBucket(rate, clock));
+        }
+
+        private boolean canRun() {
+            return maxConcurrentDeliveries == RemoteDeliveryConfiguration.UNLIMITED || running < maxConcurrentDeliveries;
+        }
+
+        private boolean isIdle() {
+            return running == 0 && waiting.isEmpty() && !wakeUpScheduled
+                && rateLimiter.map(TokenBucket::isFull).orElse(true);
+        }
+
+        private DestinationSnapshot snapshot() {
+            double elapsedSeconds = Math.max(1, Duration.between(busySince, clock.instant()).getSeconds());
+            return new DestinationSnapshot(domain, running, waiting.size(), startedMails / elapsedSeconds);
+        }
+    }
+
+    private final int maxConcurrentDeliveries;
+    private final int maxDeliveriesPerSecond;
+    private final int maxPendingDeliveries;
+    private final Scheduler scheduler;
+    private final Clock clock;
+    private final Metric runningMetric;
+    private final Metric waitingMetric;
+    private final Metric deferredMetric;
+    private final ConcurrentMap<Domain, Destination> destinations;
+    private volatile boolean disposed;
+
+    DestinationScheduler(RemoteDeliveryConfiguration configuration, Scheduler scheduler, MetricFactory metricFactory,
+                         GaugeRegistry gaugeRegistry) {
+        this(configuration.getMaxConcurrentDeliveriesPerDomain(), configuration.getMaxDeliveriesPerSecondPerDomain(),
+            configuration.getMaxPendingDeliveriesPerDomain(), scheduler, metricFactory, gaugeRegistry,
+            configuration.getOutGoingQueueName(), Clock.systemUTC());
+    }
+
+    @VisibleForTesting
+    DestinationScheduler(int maxConcurrentDeliveries, int maxDeliveriesPerSecond, int maxPendingDeliveries,
+                         Scheduler scheduler, MetricFactory metricFactory, GaugeRegistry gaugeRegistry,
+                         MailQueueName outgoingQueue, Clock clock) {
+        this.maxConcurrentDeliveries = maxConcurrentDeliveries;
+        this.maxDeliveriesPerSecond = maxDeliveriesPerSecond;
+        this.maxPendingDeliveries = maxPendingDeliveries;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.runningMetric = metricFactory.generate(RUNNING_METRIC_NAME);
+        this.waitingMetric = metricFactory.generate(WAITING_METRIC_NAME);
+        this.deferredMetric = metricFactory.generate(DEFERRED_METRIC_NAME);
+        this.destinations = new ConcurrentHashMap<>();
+        IntStream.rangeClosed(1, MONITORED_DESTINATIONS)
+            .forEach(rank -> registerDestinationGauges(gaugeRegistry, outgoingQueue, rank));
+    }
+
+    private void registerDestinationGauges(GaugeRegistry gaugeRegistry, MailQueueName outgoingQueue, int rank) {
+        String prefix = DESTINATION_METRIC_NAME_PREFIX + outgoingQueue.asString() + ":" + rank + ":";
+        gaugeRegistry.register(prefix + "domain", () -> destinationAt(rank).map(snapshot -> snapshot.getDomain().asString()).orElse(""))
+            .register(prefix + "running", () -> destinationAt(rank).map(DestinationSnapshot::getRunning).orElse(0))
+            .register(prefix + "waiting", () -> destinationAt(rank).map(DestinationSnapshot::getWaiting).orElse(0))
+            .register(prefix + "rate", () -> destinationAt(rank).map(DestinationSnapshot::getRate).orElse(0d));
+    }
+
+    private Optional<DestinationSnapshot> destinationAt(int rank) {
+        return topDestinations(rank).stream()
+            .skip(rank - 1)
+            .findFirst();
+    }
+
+    /**
+     * @return the given count of destinations with the largest backlog, that is the most waiting then running deliveries
+     */
+    List<DestinationSnapshot> topDestinations(int count) {
+        return destinations.values().stream()
+            .map(destination -> {
+                synchronized (destination) {
+                    return destination.snapshot();
+                }
+            })
+            .sorted(DestinationSnapshot.BY_BACKLOG)
+            .limit(count)
+            .collect(Guavate.toImmutableList());
+    }
+
+    /**
+     * Run the delivery of the given count of mails to the given destination once the destination limits allow it, or
+     * run the deferral if too many deliveries are already waiting for this destination.
+     *
+     * If the scheduler is disposed before the delivery started, the abort action is run instead, and the returned Mono
+     * terminates in error.
+     *
+     * @return a Mono completing once either the delivery or the deferral completed
+     */
+    Mono<Void> schedule(Domain domain, int mailCount, Mono<Void> delivery, Mono<Void> deferral, Runnable abort) {
+        return Mono.create(sink -> {
+            PendingDelivery pendingDelivery = new PendingDelivery(delivery, mailCount, abort, sink);
+            AtomicBoolean admitted = new AtomicBoolean(false);
+            AtomicBoolean aborted = new AtomicBoolean(false);
+            Destination destination = destinations.compute(domain, (key, existing) -> {
+                Destination result = Optional.ofNullable(existing).orElseGet(() -> new Destination(key));
+                synchronized (result) {
+                    if (disposed) {
+                        aborted.set(true);
+                    } else if (result.waiting.size() < maxPendingDeliveries || (result.waiting.isEmpty() && result.canRun())) {
+                        result.waiting.offerLast(pendingDelivery);
+                        waitingMetric.increment();
+                        admitted.set(true);
+                    }
+                    return result.isIdle() ? null : result;
+                }
+            });
+
+            if (aborted.get()) {
+                pendingDelivery.abort();
+            } else if (admitted.get()) {
+                drain(destination);
+            } else {
+                deferredMetric.add(mailCount);
+                deferral.subscribe(any -> { }, sink::error, sink::success);
+            }
+        });
+    }
+
+    private void drain(Destination destination) {
+        List<PendingDelivery> startedDeliveries = new ArrayList<>();
+        synchronized (destination) {
+            destination.wakeUpScheduled = false;
+            while (!disposed && !destination.waiting.isEmpty() && destination.canRun()) {
+                PendingDelivery next = destination.waiting.peekFirst();
+                Optional<Duration> wait = destination.rateLimiter.flatMap(limiter -> limiter.tryAcquire(next.mailCount));
+                if (wait.isPresent()) {
+                    destination.wakeUpScheduled = true;
+                    scheduler.schedule(() -> drain(destination), wait.get().toNanos(), TimeUnit.NANOSECONDS);
+                    break;
+                }
+                destination.waiting.pollFirst();
+                waitingMetric.decrement();
+                destination.running++;
+                destination.startedMails += next.mailCount;
+                runningMetric.increment();
+                startedDeliveries.add(next);
+            }
+        }
+        startedDeliveries.forEach(pendingDelivery -> run(destination, pendingDelivery));
+        releaseIfIdle(destination);
+    }
+
+    private void run(Destination destination, PendingDelivery pendingDelivery) {
+        pendingDelivery.delivery
+            .doFinally(any -> release(destination))
+            .subscribeOn(scheduler)
+            .subscribe(any -> { }, pendingDelivery.sink::error, pendingDelivery.sink::success);
+    }
+
+    private void release(Destination destination) {
+        synchronized (destination) {
+            destination.running--;
+            runningMetric.decrement();
+        }
+        drain(destination);
+    }
+
+    private void releaseIfIdle(Destination destination) {
+        destinations.computeIfPresent(destination.domain, (key, existing) -> {
+            synchronized (existing) {
+                return existing.isIdle() ? null : existing;
+            }
+        });
+    }
+
+    @VisibleForTesting
+    int trackedDestinationCount() {
+        return destinations.size();
+    }
+
+    /**
+     * Aborts the deliveries waiting for their destination, so that their mails are handed back to the queue. Running
+     * deliveries are left untouched.
+     */
+    @Override
+    public void dispose() {
+        disposed = true;
+        ImmutableList.copyOf(destinations.values())
+            .forEach(this::abortWaitingDeliveries);
+    }
+
+    private void abortWaitingDeliveries(Destination destination) {
+        List<PendingDelivery> abortedDeliveries = new ArrayList<>();
+        synchronized (destination) {
+            while (!destination.waiting.isEmpty()) {
+                abortedDeliveries.add(destination.waiting.pollFirst());
+                waitingMetric.decrement();
+            }
+        }
+        abortedDeliveries.forEach(PendingDelivery::abort);
+        releaseIfIdle(destination);
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+}
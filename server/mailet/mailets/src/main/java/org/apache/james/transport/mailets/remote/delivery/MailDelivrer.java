@@ -80,8 +80,20 @@ public class MailDelivrer {
      * @return boolean Whether the delivery was successful and the message can be deleted
      */
     public ExecutionResult deliver(Mail mail) {
+        return deliver(mail, mailDelivrerToHost);
+    }
+
+    /**
+     * Deliver the given mail using the SMTP transports of the given pool, for instance the pool of a session
+     * shared by a batch of mails to the same destination.
+     */
+    public ExecutionResult deliver(Mail mail, SMTPTransportPool transportPool) {
+        return deliver(mail, mailDelivrerToHost.withTransportPool(transportPool));
+    }
+
+    private ExecutionResult deliver(Mail mail, MailDelivrerToHost delivrerToHost) {
         try {
-            return tryDeliver(mail);
+            return tryDeliver(mail, delivrerToHost);
         } catch (SendFailedException sfe) {
             return handleSenderFailedException(mail, sfe);
         } catch (MessagingException ex) {
@@ -95,7 +107,7 @@ public class MailDelivrer {
         }
     }
 
-    private ExecutionResult tryDeliver(Mail mail) throws MessagingException {
+    private ExecutionResult tryDeliver(Mail mail, MailDelivrerToHost delivrerToHost) throws MessagingException {
         if (mail.getRecipients().isEmpty()) {
             LOGGER.info("No recipients specified... not sure how this could have happened.");
             return ExecutionResult.permanentFailure(new Exception("No recipients specified for " + mail.getName() + " sent by " + mail.getMaybeSender().asString()));
@@ -112,7 +124,7 @@ public class MailDelivrer {
             if (!targetServers.hasNext()) {
                 return handleNoTargetServer(mail, host);
             }
-            return doDeliver(mail, InternetAddressConverter.convert(mail.getRecipients()), targetServers);
+            return doDeliver(mail, InternetAddressConverter.convert(mail.getRecipients()), targetServers, delivrerToHost);
         } catch (TemporaryResolutionException e) {
             return logAndReturn(mail, ExecutionResult.temporaryFailure(new MessagingException("Temporary problem looking " +
                 "up mail server for host: " + host + ".  I cannot determine where to send this message.")));
@@ -125,14 +137,15 @@ public class MailDelivrer {
         return rcpt.getDomain();
     }
 
-    private ExecutionResult doDeliver(Mail mail, Set<InternetAddress> addr, Iterator<HostAddress> targetServers) throws MessagingException {
+    private ExecutionResult doDeliver(Mail mail, Set<InternetAddress> addr, Iterator<HostAddress> targetServers,
+                                      MailDelivrerToHost delivrerToHost) throws MessagingException {
         MessagingException lastError = null;
 
         Set<InternetAddress> targetAddresses = new HashSet<>(addr);
 
         while (targetServers.hasNext()) {
             try {
-                return mailDelivrerToHost.tryDeliveryToHost(mail, targetAddresses, targetServers.next());
+                return delivrerToHost.tryDeliveryToHost(mail, targetAddresses, targetServers.next());
             } catch (SendFailedException sfe) {
                 lastError = handleSendFailExceptionOnMxIteration(mail, sfe);
 
@@ -61,11 +61,25 @@ public class MailDelivrerToHost {
     private final RemoteDeliveryConfiguration configuration;
     private final Converter7Bit converter7Bit;
     private final Session session;
+    private final SMTPTransportPool transportPool;
 
-    public MailDelivrerToHost(RemoteDeliveryConfiguration remoteDeliveryConfiguration, MailetContext mailetContext) {
-        this.configuration = remoteDeliveryConfiguration;
-        this.converter7Bit = new Converter7Bit(mailetContext);
-        this.session = Session.getInstance(configuration.createFinalJavaxProperties());
+    public MailDelivrerToHost(RemoteDeliveryConfiguration remoteDeliveryConfiguration, MailetContext mailetContext, SMTPTransportPool transportPool) {
+        this(remoteDeliveryConfiguration, new Converter7Bit(mailetContext),
+            Session.getInstance(remoteDeliveryConfiguration.createFinalJavaxProperties()), transportPool);
+    }
+
+    private MailDelivrerToHost(RemoteDeliveryConfiguration configuration, Converter7Bit converter7Bit, Session session, SMTPTransportPool transportPool) {
+        this.configuration = configuration;
+        this.converter7Bit = converter7Bit;
+        this.session = session;
+        this.transportPool = transportPool;
+    }
+
+    /**
+     * @return a delivrer borrowing its SMTP transports from the given pool, for instance the pool of a batch session
+     */
+    public MailDelivrerToHost withTransportPool(SMTPTransportPool transportPool) {
+        return new MailDelivrerToHost(configuration, converter7Bit, session, transportPool);
     }
 
     public ExecutionResult tryDeliveryToHost(Mail mail, Collection<InternetAddress> addr, HostAddress outgoingMailServer) throws MessagingException {
@@ -79,24 +93,34 @@ public class MailDelivrerToHost {
         // "mail.smtp.dsn.ret"        //default to nothing... appended as RET= after MAIL FROM line.
         // "mail.smtp.dsn.notify"     //default to nothing... appended as NOTIFY= after RCPT TO line.
 
-        SMTPTransport transport = null;
+        SMTPTransportPool.PooledTransport pooledTransport = transportPool.borrow(outgoingMailServer, () -> openTransport(outgoingMailServer, props));
+        SMTPTransport transport = pooledTransport.getTransport();
+        boolean delivered = false;
         try {
-            transport = (SMTPTransport) session.getTransport(outgoingMailServer);
-            transport.setLocalHost(props.getProperty("mail.smtp.localhost", configuration.getHeloNameProvider().getHeloName()));
-            connect(outgoingMailServer, transport);
             if (mail.dsnParameters().isPresent()) {
                 sendDSNAwareEmail(mail, transport, addr);
             } else {
                 transport.sendMessage(adaptToTransport(mail.getMessage(), transport), addr.toArray(InternetAddress[]::new));
             }
+            delivered = true;
             LOGGER.debug("Mail ({})  sent successfully to {} at {} from {} for {}", mail.getName(), outgoingMailServer.getHostName(),
                 outgoingMailServer.getHost(), props.get("mail.smtp.from"), mail.getRecipients());
         } finally {
-            closeTransport(mail, outgoingMailServer, transport);
+            // The state of the connection is unknown after a failure: it is not reused
+            if (!delivered || !transportPool.release(pooledTransport)) {
+                closeTransport(mail, outgoingMailServer, transport);
+            }
         }
         return ExecutionResult.success();
     }
 
+    private SMTPTransport openTransport(HostAddress outgoingMailServer, Properties props) throws MessagingException {
+        SMTPTransport transport = (SMTPTransport) session.getTransport(outgoingMailServer);
+        transport.setLocalHost(props.getProperty("mail.smtp.localhost", configuration.getHeloNameProvider().getHeloName()));
+        connect(outgoingMailServer, transport);
+        return transport;
+    }
+
     private void sendDSNAwareEmail(Mail mail, SMTPTransport transport, Collection<InternetAddress> addresses) {
         addresses.stream()
             .map(address -> Pair.of(
@@ -20,6 +20,7 @@
 package org.apache.james.transport.mailets.remote.delivery;
 
 import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -28,12 +29,14 @@ import java.util.Properties;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.domainlist.api.DomainList;
 import org.apache.james.queue.api.MailQueueName;
+import org.apache.james.util.DurationParser;
 import org.apache.mailet.MailetConfig;
 import org.apache.mailet.base.MailetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
@@ -62,12 +65,27 @@ public class RemoteDeliveryConfiguration {
     public static final String MAX_RETRIES = "maxRetries";
     public static final String DELAY_TIME = "delayTime";
     public static final String DEBUG = "debug";
+    public static final String MAX_IDLE_CONNECTIONS_PER_HOST = "maxIdleConnectionsPerHost";
+    public static final String CONNECTION_MAX_IDLE_TIME = "connectionMaxIdleTime";
+    public static final String MAX_MESSAGES_PER_CONNECTION = "maxMessagesPerConnection";
+    public static final String BATCH_SIZE = "batchSize";
+    public static final String BATCH_WINDOW = "batchWindow";
+    public static final String MAX_CONCURRENT_DELIVERIES_PER_DOMAIN = "maxConcurrentDeliveriesPerDomain";
+    public static final String MAX_DELIVERIES_PER_SECOND_PER_DOMAIN = "maxDeliveriesPerSecondPerDomain";
+    public static final String MAX_PENDING_DELIVERIES_PER_DOMAIN = "maxPendingDeliveriesPerDomain";
     public static final int DEFAULT_SMTP_TIMEOUT = 180000;
     public static final MailQueueName DEFAULT_OUTGOING_QUEUE_NAME = MailQueueName.of("outgoing");
     public static final int DEFAULT_CONNECTION_TIMEOUT = 60000;
     public static final int DEFAULT_DNS_RETRY_PROBLEM = 0;
     public static final int DEFAULT_MAX_RETRY = 5;
     public static final String ADDRESS_PORT_SEPARATOR = ":";
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS_PER_HOST = 0;
+    public static final Duration DEFAULT_CONNECTION_MAX_IDLE_TIME = Duration.ofSeconds(30);
+    public static final int DEFAULT_MAX_MESSAGES_PER_CONNECTION = 100;
+    public static final int DEFAULT_BATCH_SIZE = 1;
+    public static final Duration DEFAULT_BATCH_WINDOW = Duration.ofMillis(100);
+    public static final int UNLIMITED = 0;
+    public static final int DEFAULT_MAX_PENDING_DELIVERIES_PER_DOMAIN = 32;
 
     private final boolean isDebug;
     private final boolean usePriority;
@@ -79,6 +97,14 @@ public class RemoteDeliveryConfiguration {
     private final long smtpTimeout;
     private final int dnsProblemRetry;
     private final int connectionTimeout;
+    private final int maxIdleConnectionsPerHost;
+    private final Duration connectionMaxIdleTime;
+    private final int maxMessagesPerConnection;
+    private final int batchSize;
+    private final Duration batchWindow;
+    private final int maxConcurrentDeliveriesPerDomain;
+    private final int maxDeliveriesPerSecondPerDomain;
+    private final int maxPendingDeliveriesPerDomain;
     private final List<Duration> delayTimes;
     private final HeloNameProvider heloNameProvider;
     private final MailQueueName outGoingQueueName;
@@ -107,6 +133,14 @@ public class RemoteDeliveryConfiguration {
         smtpTimeout = computeSmtpTimeout(mailetConfig);
         connectionTimeout = computeConnectionTimeout(mailetConfig);
         dnsProblemRetry = computeDnsProblemRetry(mailetConfig);
+        maxIdleConnectionsPerHost = computeMaxIdleConnectionsPerHost(mailetConfig);
+        connectionMaxIdleTime = computeConnectionMaxIdleTime(mailetConfig);
+        maxMessagesPerConnection = computeMaxMessagesPerConnection(mailetConfig);
+        batchSize = computeBatchSize(mailetConfig);
+        batchWindow = computeBatchWindow(mailetConfig);
+        maxConcurrentDeliveriesPerDomain = computeNonNegativeInteger(mailetConfig, MAX_CONCURRENT_DELIVERIES_PER_DOMAIN, UNLIMITED);
+        maxDeliveriesPerSecondPerDomain = computeNonNegativeInteger(mailetConfig, MAX_DELIVERIES_PER_SECOND_PER_DOMAIN, UNLIMITED);
+        maxPendingDeliveriesPerDomain = computeNonNegativeInteger(mailetConfig, MAX_PENDING_DELIVERIES_PER_DOMAIN, DEFAULT_MAX_PENDING_DELIVERIES_PER_DOMAIN);
         heloNameProvider = new HeloNameProvider(mailetConfig.getInitParameter(HELO_NAME), domainList);
 
         String gatewayPort = mailetConfig.getInitParameter(GATEWAY_PORT);
@@ -155,6 +189,54 @@ public class RemoteDeliveryConfiguration {
         }
     }
 
+    private int computeMaxIdleConnectionsPerHost(MailetConfig mailetConfig) {
+        int value = Optional.ofNullable(mailetConfig.getInitParameter(MAX_IDLE_CONNECTIONS_PER_HOST))
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_MAX_IDLE_CONNECTIONS_PER_HOST);
+        Preconditions.checkArgument(value >= 0, "'%s' can not be negative", MAX_IDLE_CONNECTIONS_PER_HOST);
+        return value;
+    }
+
+    private Duration computeConnectionMaxIdleTime(MailetConfig mailetConfig) {
+        Duration value = Optional.ofNullable(mailetConfig.getInitParameter(CONNECTION_MAX_IDLE_TIME))
+            .map(rawValue -> DurationParser.parse(rawValue, ChronoUnit.SECONDS))
+            .orElse(DEFAULT_CONNECTION_MAX_IDLE_TIME);
+        Preconditions.checkArgument(!value.isNegative() && !value.isZero(), "'%s' should be strictly positive", CONNECTION_MAX_IDLE_TIME);
+        return value;
+    }
+
+    private int computeMaxMessagesPerConnection(MailetConfig mailetConfig) {
+        int value = Optional.ofNullable(mailetConfig.getInitParameter(MAX_MESSAGES_PER_CONNECTION))
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_MAX_MESSAGES_PER_CONNECTION);
+        Preconditions.checkArgument(value > 0, "'%s' should be strictly positive", MAX_MESSAGES_PER_CONNECTION);
+        return value;
+    }
+
+    private int computeBatchSize(MailetConfig mailetConfig) {
+        int value = Optional.ofNullable(mailetConfig.getInitParameter(BATCH_SIZE))
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_BATCH_SIZE);
+        Preconditions.checkArgument(value > 0, "'%s' should be strictly positive", BATCH_SIZE);
+        return value;
+    }
+
+    private int computeNonNegativeInteger(MailetConfig mailetConfig, String parameterName, int defaultValue) {
+        int value = Optional.ofNullable(mailetConfig.getInitParameter(parameterName))
+            .map(Integer::parseInt)
+            .orElse(defaultValue);
+        Preconditions.checkArgument(value >= 0, "'%s' can not be negative", parameterName);
+        return value;
+    }
+
+    private Duration computeBatchWindow(MailetConfig mailetConfig) {
+        Duration value = Optional.ofNullable(mailetConfig.getInitParameter(BATCH_WINDOW))
+            .map(rawValue -> DurationParser.parse(rawValue, ChronoUnit.MILLIS))
+            .orElse(DEFAULT_BATCH_WINDOW);
+        Preconditions.checkArgument(!value.isNegative() && !value.isZero(), "'%s' should be strictly positive", BATCH_WINDOW);
+        return value;
+    }
+
     private long computeSmtpTimeout(MailetConfig mailetConfig) {
         try {
             if (mailetConfig.getInitParameter(TIMEOUT) != null) {
@@ -292,6 +374,50 @@ public class RemoteDeliveryConfiguration {
         return isSSLEnable;
     }
 
+    public int getMaxIdleConnectionsPerHost() {
+        return maxIdleConnectionsPerHost;
+    }
+
+    public boolean isConnectionPoolingEnabled() {
+        return maxIdleConnectionsPerHost > 0;
+    }
+
+    public Duration getConnectionMaxIdleTime() {
+        return connectionMaxIdleTime;
+    }
+
+    public int getMaxMessagesPerConnection() {
+        return maxMessagesPerConnection;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isBatchingEnabled() {
+        return batchSize > 1;
+    }
+
+    public Duration getBatchWindow() {
+        return batchWindow;
+    }
+
+    public int getMaxConcurrentDeliveriesPerDomain() {
+        return maxConcurrentDeliveriesPerDomain;
+    }
+
+    public int getMaxDeliveriesPerSecondPerDomain() {
+        return maxDeliveriesPerSecondPerDomain;
+    }
+
+    public int getMaxPendingDeliveriesPerDomain() {
+        return maxPendingDeliveriesPerDomain;
+    }
+
+    public boolean isDestinationThrottlingEnabled() {
+        return maxConcurrentDeliveriesPerDomain != UNLIMITED || maxDeliveriesPerSecondPerDomain != UNLIMITED;
+    }
+
     public HeloNameProvider getHeloNameProvider() {
         return heloNameProvider;
     }
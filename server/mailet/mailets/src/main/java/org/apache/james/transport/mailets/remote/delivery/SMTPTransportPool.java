@@ -0,0 +1,288 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.mailet.HostAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.sun.mail.smtp.SMTPTransport;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Keeps connected SMTP transports idle, per destination host, so that subsequent deliveries to the same host
+ * do not pay the connection handshake (TCP, EHLO, STARTTLS, AUTH) again.
+ *
+ * An idle transport is reused when it passes a health check (RSET), and closed once idle for longer than the
+ * configured maximum idle time, or once it sent the configured maximum count of messages.
+ *
+ * Pooling is disabled when the configured maximum count of idle connections per host is zero: transports are
+ * then used for a single delivery.
+ */
+public class SMTPTransportPool implements Disposable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SMTPTransportPool.class);
+
+    public static final String POOL_HIT_METRIC_NAME = "remoteDeliveryConnectionPoolHit";
+    public static final String CONNECTION_OPENED_METRIC_NAME = "remoteDeliveryConnectionOpened";
+    public static final String CONNECTION_FAILURE_METRIC_NAME = "remoteDeliveryConnectionFailure";
+
+    private static final int SMTP_OK = 250;
+
+    @FunctionalInterface
+    public interface TransportOpener {
+        SMTPTransport open() throws MessagingException;
+    }
+
+    public static class PooledTransport {
+        private final Destination destination;
+        private final SMTPTransport transport;
+        private int sentMessages;
+        private Instant idleSince;
+
+        private PooledTransport(Destination destination, SMTPTransport transport) {
+            this.destination = destination;
+            this.transport = transport;
+            this.sentMessages = 0;
+        }
+
+        public SMTPTransport getTransport() {
+            return transport;
+        }
+    }
+
+    private static class Destination {
+        static Destination of(HostAddress hostAddress) {
+            return new Destination(hostAddress.getHostName(), hostAddress.toString());
+        }
+
+        private final String hostName;
+        private final String url;
+
+        private Destination(String hostName, String url) {
+            this.hostName = hostName;
+            this.url = url;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Destination) {
+                Destination that = (Destination) o;
+
+                return Objects.equals(this.hostName, that.hostName)
+                    && Objects.equals(this.url, that.url);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(hostName, url);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("hostName", hostName)
+                .add("url", url)
+                .toString();
+        }
+    }
+
+    private final int maxIdleConnectionsPerHost;
+    private final Duration connectionMaxIdleTime;
+    private final int maxMessagesPerConnection;
+    private final Clock clock;
+    private final ConcurrentMap<Destination, Deque<PooledTransport>> idleTransports;
+    private final Metric poolHits;
+    private final Metric connectionsOpened;
+    private final Metric connectionFailures;
+    private final Optional<Disposable> eviction;
+    private volatile boolean disposed;
+
+    public SMTPTransportPool(RemoteDeliveryConfiguration configuration, MetricFactory metricFactory) {
+        this(configuration, metricFactory, Clock.systemUTC());
+    }
+
+    @VisibleForTesting
+    SMTPTransportPool(RemoteDeliveryConfiguration configuration, MetricFactory metricFactory, Clock clock) {
+        this(configuration.getMaxIdleConnectionsPerHost(), configuration.getConnectionMaxIdleTime(),
+            configuration.getMaxMessagesPerConnection(), configuration.isConnectionPoolingEnabled(), metricFactory, clock);
+    }
+
+    private SMTPTransportPool(int maxIdleConnectionsPerHost, Duration connectionMaxIdleTime, int maxMessagesPerConnection,
+                              boolean scheduleEviction, MetricFactory metricFactory, Clock clock) {
+        this.maxIdleConnectionsPerHost = maxIdleConnectionsPerHost;
+        this.connectionMaxIdleTime = connectionMaxIdleTime;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.clock = clock;
+        this.idleTransports = new ConcurrentHashMap<>();
+        this.poolHits = metricFactory.generate(POOL_HIT_METRIC_NAME);
+        this.connectionsOpened = metricFactory.generate(CONNECTION_OPENED_METRIC_NAME);
+        this.connectionFailures = metricFactory.generate(CONNECTION_FAILURE_METRIC_NAME);
+        if (scheduleEviction) {
+            this.eviction = Optional.of(Flux.interval(connectionMaxIdleTime, Schedulers.elastic())
+                .subscribe(any -> evictExpiredTransports()));
+        } else {
+            this.eviction = Optional.empty();
+        }
+    }
+
+    /**
+     * A pool scoped to a single SMTP session: it keeps one connection per host idle between the deliveries of a
+     * batch, regardless of the configured pooling. Connections are closed once the pool is disposed.
+     */
+    public static SMTPTransportPool session(RemoteDeliveryConfiguration configuration, MetricFactory metricFactory) {
+        return new SMTPTransportPool(1, configuration.getConnectionMaxIdleTime(), configuration.getMaxMessagesPerConnection(),
+            false, metricFactory, Clock.systemUTC());
+    }
+
+    /**
+     * Return an healthy idle transport to the given host if any, otherwise a transport newly opened by the
+     * given opener.
+     */
+    public PooledTransport borrow(HostAddress outgoingMailServer, TransportOpener opener) throws MessagingException {
+        Destination destination = Destination.of(outgoingMailServer);
+        Optional<PooledTransport> idleTransport = pollHealthyTransport(destination);
+        if (idleTransport.isPresent()) {
+            poolHits.increment();
+            return idleTransport.get();
+        }
+        try {
+            PooledTransport openedTransport = new PooledTransport(destination, opener.open());
+            connectionsOpened.increment();
+            return openedTransport;
+        } catch (MessagingException e) {
+            connectionFailures.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Give back a transport after a successful delivery.
+     *
+     * @return true if the transport is kept idle for further deliveries, false if the caller needs to close it
+     */
+    public boolean release(PooledTransport pooledTransport) {
+        pooledTransport.sentMessages++;
+        if (disposed || pooledTransport.sentMessages >= maxMessagesPerConnection) {
+            return false;
+        }
+        pooledTransport.idleSince = clock.instant();
+        AtomicBoolean kept = new AtomicBoolean(false);
+        idleTransports.compute(pooledTransport.destination, (destination, transports) -> {
+            Deque<PooledTransport> result = Optional.ofNullable(transports).orElseGet(ConcurrentLinkedDeque::new);
+            if (result.size() < maxIdleConnectionsPerHost) {
+                result.offerFirst(pooledTransport);
+                kept.set(true);
+            }
+            return result.isEmpty() ? null : result;
+        });
+        return kept.get();
+    }
+
+    private Optional<PooledTransport> pollHealthyTransport(Destination destination) {
+        Deque<PooledTransport> destinationTransports = idleTransports.get(destination);
+        if (destinationTransports == null) {
+            return Optional.empty();
+        }
+        PooledTransport candidate = destinationTransports.pollFirst();
+        while (candidate != null) {
+            if (isExpired(candidate)) {
+                close(candidate);
+            } else if (isHealthy(candidate)) {
+                return Optional.of(candidate);
+            } else {
+                connectionFailures.increment();
+                close(candidate);
+            }
+            candidate = destinationTransports.pollFirst();
+        }
+        return Optional.empty();
+    }
+
+    private boolean isHealthy(PooledTransport pooledTransport) {
+        try {
+            pooledTransport.transport.issueCommand("RSET", SMTP_OK);
+            return true;
+        } catch (MessagingException e) {
+            LOGGER.debug("Idle connection to {} failed its health check", pooledTransport.destination, e);
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledTransport pooledTransport) {
+        return !clock.instant().isBefore(pooledTransport.idleSince.plus(connectionMaxIdleTime));
+    }
+
+    @VisibleForTesting
+    void evictExpiredTransports() {
+        List<PooledTransport> expiredTransports = new ArrayList<>();
+        idleTransports.keySet().forEach(destination ->
+            idleTransports.computeIfPresent(destination, (key, transports) -> {
+                transports.stream()
+                    .filter(this::isExpired)
+                    .filter(transports::removeFirstOccurrence)
+                    .forEach(expiredTransports::add);
+                return transports.isEmpty() ? null : transports;
+            }));
+        expiredTransports.forEach(this::close);
+    }
+
+    private void close(PooledTransport pooledTransport) {
+        try {
+            pooledTransport.transport.close();
+        } catch (MessagingException e) {
+            LOGGER.debug("Could not close idle connection to {}", pooledTransport.destination, e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        eviction.ifPresent(Disposable::dispose);
+        idleTransports.keySet().forEach(destination -> {
+            Deque<PooledTransport> transports = idleTransports.remove(destination);
+            if (transports != null) {
+                transports.forEach(this::close);
+            }
+        });
+    }
+}
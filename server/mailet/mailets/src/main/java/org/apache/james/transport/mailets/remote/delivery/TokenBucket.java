@@ -0,0 +1,80 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Rate limiter allowing up to a count of permits per second, with bursts of at most one second worth of permits.
+ *
+ * Acquiring more permits than the bucket capacity is allowed once the bucket is full: the bucket then goes in debt,
+ * delaying later acquisitions so that the long term rate is enforced.
+ */
+class TokenBucket {
+    private static final long NANOS_PER_SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final int permitsPerSecond;
+    private final Clock clock;
+    private double tokens;
+    private Instant lastRefill;
+
+    TokenBucket(int permitsPerSecond, Clock clock) {
+        Preconditions.checkArgument(permitsPerSecond > 0, "'permitsPerSecond' should be strictly positive");
+        this.permitsPerSecond = permitsPerSecond;
+        this.clock = clock;
+        this.tokens = permitsPerSecond;
+        this.lastRefill = clock.instant();
+    }
+
+    /**
+     * @return empty if the permits were acquired, otherwise the delay after which the permits can be acquired
+     */
+    synchronized Optional<Duration> tryAcquire(int permits) {
+        refill();
+        double required = Math.min(permits, permitsPerSecond);
+        if (tokens >= required) {
+            tokens -= permits;
+            return Optional.empty();
+        }
+        long waitNanos = (long) Math.ceil((required - tokens) * NANOS_PER_SECOND / permitsPerSecond);
+        return Optional.of(Duration.ofNanos(waitNanos));
+    }
+
+    /**
+     * @return true when no acquisition is remembered, that is when the bucket can be discarded without losing state
+     */
+    synchronized boolean isFull() {
+        refill();
+        return tokens >= permitsPerSecond;
+    }
+
+    private void refill() {
+        Instant now = clock.instant();
+        long elapsedNanos = Duration.between(lastRefill, now).toNanos();
+        if (elapsedNanos > 0) {
+            tokens = Math.min(permitsPerSecond, tokens + (double) elapsedNanos * permitsPerSecond / NANOS_PER_SECOND);
+            lastRefill = now;
+        }
+    }
+}
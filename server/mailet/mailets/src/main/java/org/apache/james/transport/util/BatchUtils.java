@@ -0,0 +1,86 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.util;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.mailet.BatchMailetException;
+import org.apache.mailet.Mail;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+public class BatchUtils {
+    public static final int DEFAULT_CONCURRENCY = 8;
+
+    @FunctionalInterface
+    public interface MailAction {
+        void execute(Mail mail) throws Exception;
+    }
+
+    /**
+     * Executes the action on each mail of the batch, sequentially.
+     *
+     * @throws BatchMailetException listing the mails the action failed for
+     */
+    public static void forEach(Collection<Mail> mails, MailAction action) throws BatchMailetException {
+        Map<Mail, Exception> failures = new IdentityHashMap<>();
+        for (Mail mail : mails) {
+            execute(mail, action).ifPresent(failure -> failures.put(failure.getKey(), failure.getValue()));
+        }
+
+        throwOnFailures(failures);
+    }
+
+    /**
+     * Executes the action on each mail of the batch, with up to {@link #DEFAULT_CONCURRENCY} concurrent executions.
+     *
+     * @throws BatchMailetException listing the mails the action failed for
+     */
+    public static void forEachConcurrently(Collection<Mail> mails, MailAction action) throws BatchMailetException {
+        Map<Mail, Exception> failures = Flux.fromIterable(mails)
+            .flatMap(mail -> Mono.fromCallable(() -> execute(mail, action))
+                .subscribeOn(Schedulers.elastic()), DEFAULT_CONCURRENCY)
+            .flatMap(Mono::justOrEmpty)
+            .collectMap(Pair::getKey, Pair::getValue, IdentityHashMap::new)
+            .block();
+
+        throwOnFailures(failures);
+    }
+
+    private static Optional<Pair<Mail, Exception>> execute(Mail mail, MailAction action) {
+        try {
+            action.execute(mail);
+            return Optional.empty();
+        } catch (Exception e) {
+            return Optional.of(Pair.of(mail, e));
+        }
+    }
+
+    private static void throwOnFailures(Map<Mail, Exception> failures) throws BatchMailetException {
+        if (!failures.isEmpty()) {
+            throw new BatchMailetException(failures);
+        }
+    }
+}
@@ -24,6 +24,8 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collection;
@@ -337,4 +339,79 @@ class RecipientRewriteTableProcessorTest {
         assertThat(mail.getState()).isEqualTo(Mail.GHOST);
         assertThat(mail.getRecipients()).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void processMailsShouldRewriteRecipientsOfEachMail() throws Exception {
+        when(virtualTableStore.getResolvedMappings(eq("other"), eq(Domain.of(MailAddressFixture.JAMES_LOCAL))))
+            .thenReturn(MappingsImpl.builder()
+                .add(Mapping.alias(MailAddressFixture.ANY_AT_LOCAL.asString()))
+                .build());
+        when(virtualTableStore.getResolvedMappings(eq("any"), eq(Domain.of(MailAddressFixture.JAMES_LOCAL))))
+            .thenReturn(null);
+
+        FakeMail mail1 = FakeMail.builder()
+            .name("mail1")
+            .sender(MailAddressFixture.ANY_AT_JAMES)
+            .mimeMessage(message)
+            .recipients(MailAddressFixture.OTHER_AT_LOCAL)
+            .build();
+        FakeMail mail2 = FakeMail.builder()
+            .name("mail2")
+            .sender(MailAddressFixture.ANY_AT_JAMES)
+            .mimeMessage(message)
+            .recipients(MailAddressFixture.ANY_AT_LOCAL)
+            .build();
+
+        processor.processMails(ImmutableList.of(mail1, mail2));
+
+        assertThat(mail1.getRecipients()).containsExactly(MailAddressFixture.ANY_AT_LOCAL);
+        assertThat(mail2.getRecipients()).containsExactly(MailAddressFixture.ANY_AT_LOCAL);
+    }
+
+    @Test
+    void processMailsShouldResolveRecipientsSharedBySeveralMailsOnce() throws Exception {
+        when(virtualTableStore.getResolvedMappings(any(String.class), any(Domain.class))).thenReturn(null);
+
+        FakeMail mail1 = FakeMail.builder()
+            .name("mail1")
+            .sender(MailAddressFixture.ANY_AT_JAMES)
+            .mimeMessage(message)
+            .recipients(MailAddressFixture.OTHER_AT_LOCAL)
+            .build();
+        FakeMail mail2 = FakeMail.builder()
+            .name("mail2")
+            .sender(MailAddressFixture.ANY_AT_JAMES)
+            .mimeMessage(message)
+            .recipients(MailAddressFixture.OTHER_AT_LOCAL, MailAddressFixture.ANY_AT_LOCAL)
+            .build();
+
+        processor.processMails(ImmutableList.of(mail1, mail2));
+
+        verify(virtualTableStore, times(1)).getResolvedMappings("other", Domain.of(MailAddressFixture.JAMES_LOCAL));
+    }
+
+    @Test
+    void processMailsShouldSendErrorRecipientsOfEachMailToTheErrorProcessor() throws Exception {
+        when(virtualTableStore.getResolvedMappings(eq("other"), eq(Domain.of(MailAddressFixture.JAMES_LOCAL)))).thenThrow(ErrorMappingException.class);
+        when(virtualTableStore.getResolvedMappings(eq("any"), eq(Domain.of(MailAddressFixture.JAMES_LOCAL)))).thenReturn(null);
+
+        FakeMail mail1 = FakeMail.builder()
+            .name("mail1")
+            .sender(MailAddressFixture.ANY_AT_JAMES)
+            .mimeMessage(message)
+            .recipients(MailAddressFixture.OTHER_AT_LOCAL, MailAddressFixture.ANY_AT_LOCAL)
+            .build();
+        FakeMail mail2 = FakeMail.builder()
+            .name("mail2")
+            .sender(MailAddressFixture.ANY_AT_JAMES)
+            .mimeMessage(message)
+            .recipients(MailAddressFixture.OTHER_AT_LOCAL)
+            .build();
+
+        processor.processMails(ImmutableList.of(mail1, mail2));
+
+        assertThat(mailetContext.getSentMails()).hasSize(2);
+        assertThat(mail1.getRecipients()).containsOnly(MailAddressFixture.ANY_AT_LOCAL);
+        assertThat(mail2.getState()).isEqualTo(Mail.GHOST);
+    }
+}
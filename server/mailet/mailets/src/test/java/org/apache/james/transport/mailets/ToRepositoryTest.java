@@ -21,6 +21,7 @@ package org.apache.james.transport.mailets;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,6 +30,7 @@ import javax.mail.MessagingException;
 
 import org.apache.james.mailrepository.api.MailRepository;
 import org.apache.james.mailrepository.api.MailRepositoryStore;
+import org.apache.mailet.BatchMailetException;
 import org.apache.mailet.Mail;
 import org.apache.mailet.MailetConfig;
 import org.apache.mailet.base.test.FakeMail;
@@ -37,6 +39,8 @@ import org.apache.mailet.base.test.MailUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+
 public class ToRepositoryTest {
     public static final String REPOSITORY_PATH = "file://var/mail/any";
 
@@ -146,4 +150,39 @@ public class ToRepositoryTest {
         assertThat(message.getState()).isNull();
     }
 
+    @Test
+    void serviceShouldStoreEveryMailOfTheBatch() throws Exception {
+        MailRepository mailRepository = mock(MailRepository.class);
+        when(mailRepositoryStore.select(any())).thenReturn(mailRepository);
+        mailet.init(FakeMailetConfig.builder()
+            .mailetName("Test")
+            .setProperty("repositoryPath", REPOSITORY_PATH)
+            .build());
+        FakeMail otherMessage = MailUtil.createMockMail2Recipients(MailUtil.createMimeMessage());
+
+        mailet.service(ImmutableList.of(message, otherMessage));
+
+        verify(mailRepository).store(message);
+        verify(mailRepository).store(otherMessage);
+        assertThat(message.getState()).isEqualTo(Mail.GHOST);
+        assertThat(otherMessage.getState()).isEqualTo(Mail.GHOST);
+    }
+
+    @Test
+    void serviceShouldReportTheMailsOfTheBatchItFailedToStore() throws Exception {
+        MailRepository mailRepository = mock(MailRepository.class);
+        when(mailRepositoryStore.select(any())).thenReturn(mailRepository);
+        mailet.init(FakeMailetConfig.builder()
+            .mailetName("Test")
+            .setProperty("repositoryPath", REPOSITORY_PATH)
+            .build());
+        FakeMail otherMessage = MailUtil.createMockMail2Recipients(MailUtil.createMimeMessage());
+        MessagingException failure = new MessagingException("Storage failure");
+        doThrow(failure).when(mailRepository).store(otherMessage);
+
+        assertThatThrownBy(() -> mailet.service(ImmutableList.of(message, otherMessage)))
+            .isInstanceOfSatisfying(BatchMailetException.class, e ->
+                assertThat(e.getFailures()).containsOnlyKeys(otherMessage));
+        assertThat(message.getState()).isEqualTo(Mail.GHOST);
+    }
 }
@@ -20,6 +20,7 @@
 package org.apache.james.transport.mailets.delivery;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -47,6 +48,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 
 class MailDispatcherTest {
     private static final String TEST_HEADER_NAME = "X-HEADER";
@@ -86,6 +88,77 @@ class MailDispatcherTest {
         verifyNoMoreInteractions(mailStore);
     }
 
+    @Test
+    void dispatchBatchShouldStoreEveryMailForEachOfItsRecipients() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .consume(true)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2)
+            .state("state")
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .build();
+        FakeMail otherMail = FakeMail.builder()
+            .name("other")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES)
+            .state("state")
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .build();
+        testee.dispatch(ImmutableList.of(mail, otherMail));
+
+        verify(mailStore).storeMail(MailAddressFixture.ANY_AT_JAMES, mail);
+        verify(mailStore).storeMail(MailAddressFixture.ANY_AT_JAMES2, mail);
+        verify(mailStore).storeMail(MailAddressFixture.ANY_AT_JAMES, otherMail);
+        verifyNoMoreInteractions(mailStore);
+        assertThat(mail.getState()).isEqualTo(Mail.GHOST);
+        assertThat(otherMail.getState()).isEqualTo(Mail.GHOST);
+    }
+
+    @Test
+    void dispatchBatchShouldSendErrorMailOnlyForTheFailedRecipientsOfTheFailedMail() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .consume(true)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2)
+            .state("state")
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .build();
+        FakeMail otherMail = FakeMail.builder()
+            .name("other")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES)
+            .state("state")
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .build();
+        doThrow(new MessagingException())
+            .when(mailStore)
+            .storeMail(MailAddressFixture.ANY_AT_JAMES2, mail);
+
+        assertThatCode(() -> testee.dispatch(ImmutableList.of(mail, otherMail)))
+            .doesNotThrowAnyException();
+
+        FakeMailContext.SentMail expected = FakeMailContext.sentMailBuilder()
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipient(MailAddressFixture.ANY_AT_JAMES2)
+            .fromMailet()
+            .state(Mail.ERROR).build();
+        assertThat(fakeMailContext.getSentMails()).containsOnly(expected);
+        assertThat(mail.getState()).isEqualTo(Mail.GHOST);
+        assertThat(otherMail.getState()).isEqualTo(Mail.GHOST);
+    }
+
     @Test
     void dispatchShouldConsumeMailIfSpecified() throws Exception {
         MailDispatcher testee = MailDispatcher.builder()
@@ -45,6 +45,8 @@ import org.apache.mailet.base.test.FakeMailetConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import reactor.core.publisher.Mono;
+
 public class DeliveryRunnableTest {
 
     public static final Date FIXED_DATE = new Date(1159599194961L);
@@ -68,6 +70,7 @@ public class DeliveryRunnableTest {
         bouncer = mock(Bouncer.class);
         mailDelivrer = mock(MailDelivrer.class);
         mailQueue = mock(MailQueue.class);
+        when(mailQueue.enqueueReactive(any(), any())).thenReturn(Mono.empty());
         testee = new DeliveryRunnable(mailQueue, configuration, metricFactory, bouncer, mailDelivrer, FIXED_DATE_SUPPLIER);
     }
 
@@ -76,7 +79,7 @@ public class DeliveryRunnableTest {
         FakeMail fakeMail = FakeMail.defaultFakeMail();
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.success());
 
-        testee.attemptDelivery(fakeMail);
+        testee.attemptDelivery(fakeMail).block();
 
         assertThat(metricFactory.countFor(OUTGOING_MAILS))
             .isEqualTo(1);
@@ -88,7 +91,7 @@ public class DeliveryRunnableTest {
         Exception exception = new Exception();
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.permanentFailure(exception));
 
-        testee.attemptDelivery(fakeMail);
+        testee.attemptDelivery(fakeMail).block();
 
         verify(bouncer).bounce(fakeMail, exception);
         verifyNoMoreInteractions(bouncer);
@@ -100,7 +103,7 @@ public class DeliveryRunnableTest {
         Exception exception = new Exception();
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.permanentFailure(exception));
 
-        testee.attemptDelivery(fakeMail);
+        testee.attemptDelivery(fakeMail).block();
 
         assertThat(metricFactory.countFor(OUTGOING_MAILS))
             .isEqualTo(0);
@@ -112,7 +115,7 @@ public class DeliveryRunnableTest {
         Exception exception = new Exception();
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.temporaryFailure(exception));
 
-        testee.attemptDelivery(fakeMail);
+        testee.attemptDelivery(fakeMail).block();
 
         assertThat(metricFactory.countFor(OUTGOING_MAILS))
             .isEqualTo(0);
@@ -124,7 +127,7 @@ public class DeliveryRunnableTest {
         Exception exception = new Exception();
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.temporaryFailure(exception));
 
-        assertThatThrownBy(() -> testee.attemptDelivery(fakeMail))
+        assertThatThrownBy(() -> testee.attemptDelivery(fakeMail).block())
             .isInstanceOf(NullPointerException.class);
     }
 
@@ -134,9 +137,9 @@ public class DeliveryRunnableTest {
         Exception exception = new Exception();
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.temporaryFailure(exception));
 
-        testee.attemptDelivery(fakeMail);
+        testee.attemptDelivery(fakeMail).block();
 
-        verify(mailQueue).enQueue(FakeMail.builder()
+        verify(mailQueue).enqueueReactive(FakeMail.builder()
                 .name("name")
                 .attribute(DeliveryRetriesHelper.makeAttribute(1))
                 .attribute(new Attribute(IS_DELIVERY_PERMANENT_ERROR, AttributeValue.of(false)))
@@ -157,9 +160,9 @@ public class DeliveryRunnableTest {
         Exception exception = new Exception();
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.temporaryFailure(exception));
 
-        testee.attemptDelivery(fakeMail);
+        testee.attemptDelivery(fakeMail).block();
 
-        verify(mailQueue).enQueue(FakeMail.builder()
+        verify(mailQueue).enqueueReactive(FakeMail.builder()
                 .name("name")
                 .attribute(DeliveryRetriesHelper.makeAttribute(3))
                 .attribute(new Attribute(IS_DELIVERY_PERMANENT_ERROR, AttributeValue.of(false)))
@@ -180,9 +183,9 @@ public class DeliveryRunnableTest {
         Exception exception = new Exception();
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.temporaryFailure(exception));
 
-        testee.attemptDelivery(fakeMail);
+        testee.attemptDelivery(fakeMail).block();
 
-        verify(mailQueue).enQueue(FakeMail.builder()
+        verify(mailQueue).enqueueReactive(FakeMail.builder()
                 .name("name")
                 .attribute(DeliveryRetriesHelper.makeAttribute(5))
                 .attribute(new Attribute(IS_DELIVERY_PERMANENT_ERROR, AttributeValue.of(false)))
@@ -203,7 +206,7 @@ public class DeliveryRunnableTest {
         Exception exception = new Exception();
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.temporaryFailure(exception));
 
-        testee.attemptDelivery(fakeMail);
+        testee.attemptDelivery(fakeMail).block();
 
         verifyNoMoreInteractions(mailQueue);
     }
@@ -218,7 +221,7 @@ public class DeliveryRunnableTest {
         Exception exception = new Exception("");
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.temporaryFailure(exception));
 
-        testee.attemptDelivery(fakeMail);
+        testee.attemptDelivery(fakeMail).block();
 
         verify(bouncer).bounce(eq(fakeMail), any(Exception.class));
         verifyNoMoreInteractions(bouncer);
@@ -234,9 +237,9 @@ public class DeliveryRunnableTest {
         Exception exception = new Exception();
         when(mailDelivrer.deliver(fakeMail)).thenReturn(ExecutionResult.temporaryFailure(exception));
 
-        testee.attemptDelivery(fakeMail);
+        testee.attemptDelivery(fakeMail).block();
 
-        verify(mailQueue).enQueue(FakeMail.builder()
+        verify(mailQueue).enqueueReactive(FakeMail.builder()
                 .name("name")
                 .attribute(DeliveryRetriesHelper.makeAttribute(1))
                 .attribute(new Attribute(IS_DELIVERY_PERMANENT_ERROR, AttributeValue.of(false)))
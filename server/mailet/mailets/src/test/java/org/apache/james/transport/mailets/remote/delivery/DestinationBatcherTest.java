@@ -0,0 +1,164 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets.remote.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.james.core.Domain;
+import org.apache.james.queue.api.MailQueue;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+class DestinationBatcherTest {
+    private static final Domain DOMAIN_1 = Domain.of("domain1.com");
+    private static final Domain DOMAIN_2 = Domain.of("domain2.com");
+    private static final Duration ONE_HOUR = Duration.ofHours(1);
+
+    private Scheduler scheduler;
+    private ConcurrentLinkedQueue<List<MailQueue.MailQueueItem>> deliveredBatches;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Schedulers.newSingle("batcher-test");
+        deliveredBatches = new ConcurrentLinkedQueue<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    private DestinationBatcher batcher(int batchSize, Duration batchWindow) {
+        return new DestinationBatcher(batchSize, batchWindow, scheduler,
+            batch -> Mono.fromRunnable(() -> deliveredBatches.add(batch)));
+    }
+
+    @Test
+    void submitShouldDeliverTheBatchOnceFull() {
+        DestinationBatcher testee = batcher(2, ONE_HOUR);
+        MailQueue.MailQueueItem item1 = mock(MailQueue.MailQueueItem.class);
+        MailQueue.MailQueueItem item2 = mock(MailQueue.MailQueueItem.class);
+
+        testee.submit(DOMAIN_1, item1).subscribe();
+        testee.submit(DOMAIN_1, item2).block(Duration.ofSeconds(10));
+
+        assertThat(deliveredBatches).containsExactly(ImmutableList.of(item1, item2));
+    }
+
+    @Test
+    void submitShouldDeliverAPartialBatchOnceTheWindowElapsed() {
+        DestinationBatcher testee = batcher(10, Duration.ofMillis(100));
+        MailQueue.MailQueueItem item1 = mock(MailQueue.MailQueueItem.class);
+        MailQueue.MailQueueItem item2 = mock(MailQueue.MailQueueItem.class);
+
+        testee.submit(DOMAIN_1, item1).subscribe();
+        testee.submit(DOMAIN_1, item2).block(Duration.ofSeconds(10));
+
+        assertThat(deliveredBatches).containsExactly(ImmutableList.of(item1, item2));
+    }
+
+    @Test
+    void submitShouldNotMixDestinations() {
+        DestinationBatcher testee = batcher(2, ONE_HOUR);
+        MailQueue.MailQueueItem item1 = mock(MailQueue.MailQueueItem.class);
+        MailQueue.MailQueueItem item2 = mock(MailQueue.MailQueueItem.class);
+        MailQueue.MailQueueItem item3 = mock(MailQueue.MailQueueItem.class);
+
+        testee.submit(DOMAIN_1, item1).subscribe();
+        testee.submit(DOMAIN_2, item2).subscribe();
+        testee.submit(DOMAIN_1, item3).block(Duration.ofSeconds(10));
+
+        assertThat(deliveredBatches).containsExactly(ImmutableList.of(item1, item3));
+    }
+
+    @Test
+    void submitShouldOpenANewBatchOnceTheFormerOneIsDelivered() {
+        DestinationBatcher testee = batcher(1, ONE_HOUR);
+        MailQueue.MailQueueItem item1 = mock(MailQueue.MailQueueItem.class);
+        MailQueue.MailQueueItem item2 = mock(MailQueue.MailQueueItem.class);
+
+        testee.submit(DOMAIN_1, item1).block(Duration.ofSeconds(10));
+        testee.submit(DOMAIN_1, item2).block(Duration.ofSeconds(10));
+
+        assertThat(deliveredBatches).containsExactly(ImmutableList.of(item1), ImmutableList.of(item2));
+    }
+
+    @Test
+    void submittedMailsShouldCompleteWhenTheBatchDeliveryFails() {
+        DestinationBatcher testee = new DestinationBatcher(1, ONE_HOUR, scheduler,
+            batch -> Mono.error(new RuntimeException()));
+
+        Mono<Void> submission = testee.submit(DOMAIN_1, mock(MailQueue.MailQueueItem.class));
+
+        assertThatCode(() -> submission.block(Duration.ofSeconds(10)))
+            .doesNotThrowAnyException();
+    }
+
+    @Test
+    void disposeShouldCancelPendingWindows() {
+        DestinationBatcher testee = batcher(10, Duration.ofMillis(100));
+
+        testee.submit(DOMAIN_1, mock(MailQueue.MailQueueItem.class)).subscribe(any -> { }, any -> { });
+        testee.dispose();
+
+        Awaitility.await()
+            .pollDelay(Duration.ofMillis(300))
+            .atMost(Duration.ofSeconds(1))
+            .untilAsserted(() -> assertThat(deliveredBatches).isEmpty());
+    }
+
+    @Test
+    void disposeShouldNackPendingMails() throws Exception {
+        DestinationBatcher testee = batcher(10, ONE_HOUR);
+        MailQueue.MailQueueItem item = mock(MailQueue.MailQueueItem.class);
+
+        testee.submit(DOMAIN_1, item).subscribe(any -> { }, any -> { });
+        testee.dispose();
+
+        verify(item).done(false);
+    }
+
+    @Test
+    void disposeShouldFailPendingSubmissions() {
+        DestinationBatcher testee = batcher(10, ONE_HOUR);
+        Mono<Void> submission = testee.submit(DOMAIN_1, mock(MailQueue.MailQueueItem.class)).cache();
+        submission.subscribe(any -> { }, any -> { });
+
+        testee.dispose();
+
+        assertThatThrownBy(() -> submission.block(Duration.ofSeconds(10)))
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,290 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets.remote.delivery;
+
+import static org.apache.james.transport.mailets.remote.delivery.DestinationScheduler.DEFERRED_METRIC_NAME;
+import static org.apache.james.transport.mailets.remote.delivery.DestinationScheduler.DESTINATION_METRIC_NAME_PREFIX;
+import static org.apache.james.transport.mailets.remote.delivery.DestinationScheduler.RUNNING_METRIC_NAME;
+import static org.apache.james.transport.mailets.remote.delivery.DestinationScheduler.WAITING_METRIC_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.james.core.Domain;
+import org.apache.james.metrics.api.Gauge;
+import org.apache.james.metrics.api.GaugeRegistry;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.queue.api.MailQueueName;
+import org.apache.james.transport.mailets.remote.delivery.DestinationScheduler.DestinationSnapshot;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+class DestinationSchedulerTest {
+    private static final Domain DOMAIN_1 = Domain.of("domain1.com");
+    private static final Domain DOMAIN_2 = Domain.of("domain2.com");
+    private static final Duration TEN_SECONDS = Duration.ofSeconds(10);
+    private static final int UNLIMITED = RemoteDeliveryConfiguration.UNLIMITED;
+    private static final MailQueueName OUTGOING = MailQueueName.of("outgoing");
+
+    private Scheduler scheduler;
+    private RecordingMetricFactory metricFactory;
+    private Map<String, Gauge<?>> gauges;
+    private GaugeRegistry gaugeRegistry;
+    private UpdatableTickingClock clock;
+    private AtomicInteger deliveries;
+    private AtomicInteger deferrals;
+    private AtomicInteger aborts;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Schedulers.newBoundedElastic(4, 100, "destination-scheduler-test");
+        metricFactory = new RecordingMetricFactory();
+        gauges = new ConcurrentHashMap<>();
+        gaugeRegistry = new GaugeRegistry() {
+            @Override
+            public <T> GaugeRegistry register(String name, Gauge<T> gauge) {
+                gauges.put(name, gauge);
+                return this;
+            }
+        };
+        clock = new UpdatableTickingClock(Instant.parse("2021-01-01T00:00:00Z"));
+        deliveries = new AtomicInteger();
+        deferrals = new AtomicInteger();
+        aborts = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    private DestinationScheduler testee(int maxConcurrentDeliveries, int maxDeliveriesPerSecond, int maxPendingDeliveries) {
+        return new DestinationScheduler(maxConcurrentDeliveries, maxDeliveriesPerSecond, maxPendingDeliveries,
+            scheduler, metricFactory, gaugeRegistry, OUTGOING, clock);
+    }
+
+    private Mono<Void> delivery() {
+        return Mono.fromRunnable(deliveries::incrementAndGet);
+    }
+
+    private Mono<Void> deferral() {
+        return Mono.fromRunnable(deferrals::incrementAndGet);
+    }
+
+    private Runnable abort() {
+        return aborts::incrementAndGet;
+    }
+
+    @Test
+    void scheduleShouldRunTheDelivery() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 10);
+
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).block(TEN_SECONDS);
+
+        assertThat(deliveries.get()).isEqualTo(1);
+        assertThat(deferrals.get()).isZero();
+    }
+
+    @Test
+    void scheduleShouldEnforceTheConcurrencyPerDestination() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 10);
+        Sinks.Empty<Void> firstDelivery = Sinks.empty();
+
+        testee.schedule(DOMAIN_1, 1, firstDelivery.asMono(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).subscribe();
+
+        assertThat(metricFactory.countFor(RUNNING_METRIC_NAME)).isEqualTo(1);
+        assertThat(metricFactory.countFor(WAITING_METRIC_NAME)).isEqualTo(1);
+        assertThat(deliveries.get()).isZero();
+
+        firstDelivery.tryEmitEmpty();
+
+        Awaitility.await().atMost(TEN_SECONDS)
+            .untilAsserted(() -> assertThat(deliveries.get()).isEqualTo(1));
+    }
+
+    @Test
+    void aSaturatedDestinationShouldNotDelayOtherDestinations() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 10);
+        Sinks.Empty<Void> slowDelivery = Sinks.empty();
+
+        testee.schedule(DOMAIN_1, 1, slowDelivery.asMono(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_2, 1, delivery(), deferral(), abort()).block(TEN_SECONDS);
+
+        assertThat(deliveries.get()).isEqualTo(1);
+        slowDelivery.tryEmitEmpty();
+    }
+
+    @Test
+    void scheduleShouldDeferWhenTooManyDeliveriesAreWaiting() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 1);
+        Sinks.Empty<Void> slowDelivery = Sinks.empty();
+
+        testee.schedule(DOMAIN_1, 1, slowDelivery.asMono(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).block(TEN_SECONDS);
+
+        assertThat(deferrals.get()).isEqualTo(1);
+        assertThat(metricFactory.countFor(DEFERRED_METRIC_NAME)).isEqualTo(1);
+        slowDelivery.tryEmitEmpty();
+    }
+
+    @Test
+    void scheduleShouldEnforceTheRatePerDestination() {
+        DestinationScheduler testee = testee(UNLIMITED, 1, 10);
+
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).block(TEN_SECONDS);
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).subscribe();
+
+        assertThat(deliveries.get()).isEqualTo(1);
+        assertThat(metricFactory.countFor(WAITING_METRIC_NAME)).isEqualTo(1);
+
+        clock.setInstant(clock.instant().plusSeconds(1));
+
+        Awaitility.await().atMost(TEN_SECONDS)
+            .untilAsserted(() -> assertThat(deliveries.get()).isEqualTo(2));
+    }
+
+    @Test
+    void idleDestinationsShouldNotBeTracked() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 10);
+
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).block(TEN_SECONDS);
+
+        Awaitility.await().atMost(TEN_SECONDS)
+            .untilAsserted(() -> assertThat(testee.trackedDestinationCount()).isZero());
+    }
+
+    @Test
+    void topDestinationsShouldRankDestinationsByBacklog() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 10);
+        Sinks.Empty<Void> slowDelivery1 = Sinks.empty();
+        Sinks.Empty<Void> slowDelivery2 = Sinks.empty();
+
+        testee.schedule(DOMAIN_2, 1, slowDelivery2.asMono(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_2, 1, delivery(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_1, 1, slowDelivery1.asMono(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).subscribe();
+
+        assertThat(testee.topDestinations(10))
+            .extracting(DestinationSnapshot::getDomain, DestinationSnapshot::getRunning, DestinationSnapshot::getWaiting)
+            .containsExactly(tuple(DOMAIN_1, 1, 2), tuple(DOMAIN_2, 1, 1));
+        slowDelivery1.tryEmitEmpty();
+        slowDelivery2.tryEmitEmpty();
+    }
+
+    @Test
+    void topDestinationsShouldBeLimitedToTheRequestedCount() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 10);
+        Sinks.Empty<Void> slowDelivery1 = Sinks.empty();
+        Sinks.Empty<Void> slowDelivery2 = Sinks.empty();
+
+        testee.schedule(DOMAIN_1, 1, slowDelivery1.asMono(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_2, 1, slowDelivery2.asMono(), deferral(), abort()).subscribe();
+
+        assertThat(testee.topDestinations(1)).hasSize(1);
+        slowDelivery1.tryEmitEmpty();
+        slowDelivery2.tryEmitEmpty();
+    }
+
+    @Test
+    void destinationGaugesShouldReportTheDestinationsWithTheLargestBacklog() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 10);
+        Sinks.Empty<Void> slowDelivery = Sinks.empty();
+
+        testee.schedule(DOMAIN_1, 1, slowDelivery.asMono(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).subscribe();
+
+        String prefix = DESTINATION_METRIC_NAME_PREFIX + OUTGOING.asString() + ":";
+        assertThat(gauges.get(prefix + "1:domain").get()).isEqualTo(DOMAIN_1.asString());
+        assertThat(gauges.get(prefix + "1:running").get()).isEqualTo(1);
+        assertThat(gauges.get(prefix + "1:waiting").get()).isEqualTo(1);
+        assertThat(gauges.get(prefix + "2:domain").get()).isEqualTo("");
+        assertThat(gauges.get(prefix + "2:waiting").get()).isEqualTo(0);
+        slowDelivery.tryEmitEmpty();
+    }
+
+    @Test
+    void destinationGaugesShouldBeBounded() {
+        testee(1, UNLIMITED, 10);
+
+        assertThat(gauges).hasSize(DestinationScheduler.MONITORED_DESTINATIONS * 4);
+    }
+
+    @Test
+    void disposeShouldAbortTheWaitingDeliveries() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 10);
+        Sinks.Empty<Void> slowDelivery = Sinks.empty();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+        testee.schedule(DOMAIN_1, 1, slowDelivery.asMono(), deferral(), abort()).subscribe();
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).subscribe(any -> { }, errors::add);
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).subscribe(any -> { }, errors::add);
+
+        testee.dispose();
+
+        assertThat(aborts.get()).isEqualTo(2);
+        assertThat(errors).hasSize(2);
+        assertThat(metricFactory.countFor(WAITING_METRIC_NAME)).isZero();
+        slowDelivery.tryEmitEmpty();
+        assertThat(deliveries.get()).isZero();
+    }
+
+    @Test
+    void scheduleShouldAbortOnceDisposed() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 10);
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+        testee.dispose();
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).subscribe(any -> { }, errors::add);
+
+        assertThat(aborts.get()).isEqualTo(1);
+        assertThat(errors).hasSize(1);
+        assertThat(deliveries.get()).isZero();
+        assertThat(deferrals.get()).isZero();
+    }
+
+    @Test
+    void metricsShouldBeResetOnceDeliveriesCompleted() {
+        DestinationScheduler testee = testee(1, UNLIMITED, 10);
+
+        testee.schedule(DOMAIN_1, 1, delivery(), deferral(), abort()).block(TEN_SECONDS);
+
+        Awaitility.await().atMost(TEN_SECONDS)
+            .untilAsserted(() -> assertThat(metricFactory.countFor(RUNNING_METRIC_NAME)).isZero());
+        assertThat(metricFactory.countFor(WAITING_METRIC_NAME)).isZero();
+    }
+}
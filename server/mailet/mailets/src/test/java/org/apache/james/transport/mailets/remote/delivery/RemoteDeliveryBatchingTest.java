@@ -0,0 +1,158 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets.remote.delivery;
+
+import static org.apache.james.mock.smtp.server.model.Response.SMTPStatusCode.REQUESTED_ACTION_NOT_TAKEN_550;
+import static org.apache.james.mock.smtp.server.model.SMTPCommand.RCPT_TO;
+import static org.apache.james.transport.mailets.remote.delivery.DeliveryRunnable.OUTGOING_MAILS;
+import static org.apache.james.transport.mailets.remote.delivery.SMTPTransportPool.CONNECTION_OPENED_METRIC_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+
+import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.dnsservice.api.InMemoryDNSService;
+import org.apache.james.domainlist.api.DomainList;
+import org.apache.james.metrics.api.NoopGaugeRegistry;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.mock.smtp.server.MockSMTPServer;
+import org.apache.james.mock.smtp.server.ReceivedMailRepository;
+import org.apache.james.mock.smtp.server.SMTPBehaviorRepository;
+import org.apache.james.mock.smtp.server.model.Condition;
+import org.apache.james.mock.smtp.server.model.MockSMTPBehavior;
+import org.apache.james.mock.smtp.server.model.Operator;
+import org.apache.james.mock.smtp.server.model.Response;
+import org.apache.james.queue.api.MailQueue;
+import org.apache.james.queue.api.RawMailQueueItemDecoratorFactory;
+import org.apache.james.queue.memory.MemoryMailQueueFactory;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMail;
+import org.apache.mailet.base.test.FakeMailContext;
+import org.apache.mailet.base.test.FakeMailetConfig;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RemoteDeliveryBatchingTest {
+    private static final Duration TEN_SECONDS = Duration.ofSeconds(10);
+
+    private MockSMTPServer smtpServer;
+    private SMTPBehaviorRepository behaviorRepository;
+    private ReceivedMailRepository receivedMails;
+    private MailQueue mailQueue;
+    private RecordingMetricFactory metricFactory;
+    private Bouncer bouncer;
+    private DeliveryRunnable testee;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        behaviorRepository = new SMTPBehaviorRepository();
+        receivedMails = new ReceivedMailRepository();
+        smtpServer = MockSMTPServer.onRandomPort(behaviorRepository, receivedMails);
+        smtpServer.start();
+
+        RemoteDeliveryConfiguration configuration = new RemoteDeliveryConfiguration(FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.HELO_NAME, "james.local")
+            .setProperty(RemoteDeliveryConfiguration.GATEWAY, "localhost")
+            .setProperty(RemoteDeliveryConfiguration.GATEWAY_PORT, String.valueOf(smtpServer.getPort().getValue()))
+            .setProperty(RemoteDeliveryConfiguration.BATCH_SIZE, "3")
+            .setProperty(RemoteDeliveryConfiguration.BATCH_WINDOW, "10s")
+            .build(), mock(DomainList.class));
+        InMemoryDNSService dnsService = new InMemoryDNSService()
+            .registerMxRecord("localhost", "127.0.0.1");
+        mailQueue = new MemoryMailQueueFactory(new RawMailQueueItemDecoratorFactory())
+            .createQueue(RemoteDeliveryConfiguration.DEFAULT_OUTGOING_QUEUE_NAME);
+        metricFactory = new RecordingMetricFactory();
+        bouncer = mock(Bouncer.class);
+
+        testee = new DeliveryRunnable(mailQueue, configuration, dnsService, metricFactory,
+            new NoopGaugeRegistry(), FakeMailContext.defaultContext(), bouncer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        testee.dispose();
+        smtpServer.stop();
+    }
+
+    private Mail mail(String name, String recipient) throws Exception {
+        return FakeMail.builder()
+            .name(name)
+            .sender("sender@james.local")
+            .recipient(recipient)
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                .setSubject(name)
+                .setText("content"))
+            .build();
+    }
+
+    @Test
+    void mailsToTheSameDomainShouldBeDeliveredWithinASingleSession() throws Exception {
+        mailQueue.enQueue(mail("mail1", "alice@remote.com"));
+        mailQueue.enQueue(mail("mail2", "bob@remote.com"));
+        mailQueue.enQueue(mail("mail3", "cedric@remote.com"));
+
+        testee.start();
+
+        Awaitility.await().atMost(TEN_SECONDS)
+            .untilAsserted(() -> assertThat(metricFactory.countFor(OUTGOING_MAILS)).isEqualTo(3));
+        assertThat(receivedMails.list()).hasSize(3);
+        assertThat(metricFactory.countFor(CONNECTION_OPENED_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void mailsToDistinctDomainsShouldNotBeBatchedTogether() throws Exception {
+        mailQueue.enQueue(mail("mail1", "alice@remote.com"));
+        mailQueue.enQueue(mail("mail2", "bob@other.com"));
+        mailQueue.enQueue(mail("mail3", "cedric@remote.com"));
+        mailQueue.enQueue(mail("mail4", "david@other.com"));
+        mailQueue.enQueue(mail("mail5", "emma@remote.com"));
+        mailQueue.enQueue(mail("mail6", "fanny@other.com"));
+
+        testee.start();
+
+        Awaitility.await().atMost(TEN_SECONDS)
+            .untilAsserted(() -> assertThat(metricFactory.countFor(OUTGOING_MAILS)).isEqualTo(6));
+        assertThat(metricFactory.countFor(CONNECTION_OPENED_METRIC_NAME)).isEqualTo(2);
+    }
+
+    @Test
+    void aFailingMailShouldNotPreventTheDeliveryOfTheOtherMailsOfItsBatch() throws Exception {
+        behaviorRepository.setBehaviors(new MockSMTPBehavior(
+            RCPT_TO,
+            new Condition.OperatorCondition(Operator.CONTAINS, "rejected"),
+            new Response(REQUESTED_ACTION_NOT_TAKEN_550, "mock response"),
+            MockSMTPBehavior.NumberOfAnswersPolicy.anytime()));
+        mailQueue.enQueue(mail("mail1", "alice@remote.com"));
+        mailQueue.enQueue(mail("mail2", "rejected@remote.com"));
+        mailQueue.enQueue(mail("mail3", "cedric@remote.com"));
+
+        testee.start();
+
+        Awaitility.await().atMost(TEN_SECONDS)
+            .untilAsserted(() -> assertThat(metricFactory.countFor(OUTGOING_MAILS)).isEqualTo(2));
+        assertThat(receivedMails.list()).hasSize(2);
+        verify(bouncer).bounce(argThat(mail -> mail.getName().equals("mail2")), any());
+    }
+}
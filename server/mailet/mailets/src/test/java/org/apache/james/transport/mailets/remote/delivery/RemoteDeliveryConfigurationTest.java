@@ -190,6 +190,180 @@ public class RemoteDeliveryConfigurationTest {
             .isEqualTo(-1);
     }
 
+    @Test
+    void connectionPoolingShouldBeDisabledByDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).isConnectionPoolingEnabled()).isFalse();
+    }
+
+    @Test
+    void connectionPoolingShouldBeEnabledWhenMaxIdleConnectionsPerHostIsPositive() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_IDLE_CONNECTIONS_PER_HOST, "4")
+            .build();
+
+        RemoteDeliveryConfiguration configuration = new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+        assertThat(configuration.isConnectionPoolingEnabled()).isTrue();
+        assertThat(configuration.getMaxIdleConnectionsPerHost()).isEqualTo(4);
+    }
+
+    @Test
+    void maxIdleConnectionsPerHostShouldNotBeNegative() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_IDLE_CONNECTIONS_PER_HOST, "-1")
+            .build();
+
+        assertThatThrownBy(() -> new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getConnectionMaxIdleTimeShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionMaxIdleTime())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_CONNECTION_MAX_IDLE_TIME);
+    }
+
+    @Test
+    void getConnectionMaxIdleTimeShouldDefaultToSeconds() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.CONNECTION_MAX_IDLE_TIME, "10")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionMaxIdleTime())
+            .isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void getConnectionMaxIdleTimeShouldAcceptUnits() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.CONNECTION_MAX_IDLE_TIME, "2 minutes")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionMaxIdleTime())
+            .isEqualTo(Duration.ofMinutes(2));
+    }
+
+    @Test
+    void getMaxMessagesPerConnectionShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxMessagesPerConnection())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_MAX_MESSAGES_PER_CONNECTION);
+    }
+
+    @Test
+    void maxMessagesPerConnectionShouldBeStrictlyPositive() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_MESSAGES_PER_CONNECTION, "0")
+            .build();
+
+        assertThatThrownBy(() -> new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void batchingShouldBeDisabledByDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).isBatchingEnabled()).isFalse();
+    }
+
+    @Test
+    void batchingShouldBeEnabledWhenBatchSizeIsGreaterThanOne() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.BATCH_SIZE, "10")
+            .build();
+
+        RemoteDeliveryConfiguration configuration = new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+        assertThat(configuration.isBatchingEnabled()).isTrue();
+        assertThat(configuration.getBatchSize()).isEqualTo(10);
+    }
+
+    @Test
+    void batchSizeShouldBeStrictlyPositive() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.BATCH_SIZE, "0")
+            .build();
+
+        assertThatThrownBy(() -> new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void batchWindowShouldDefaultToMilliseconds() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.BATCH_WINDOW, "250")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getBatchWindow())
+            .isEqualTo(Duration.ofMillis(250));
+    }
+
+    @Test
+    void destinationThrottlingShouldBeDisabledByDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).isDestinationThrottlingEnabled()).isFalse();
+    }
+
+    @Test
+    void destinationThrottlingShouldBeEnabledWhenConcurrencyIsLimited() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_CONCURRENT_DELIVERIES_PER_DOMAIN, "4")
+            .build();
+
+        RemoteDeliveryConfiguration configuration = new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+        assertThat(configuration.isDestinationThrottlingEnabled()).isTrue();
+        assertThat(configuration.getMaxConcurrentDeliveriesPerDomain()).isEqualTo(4);
+    }
+
+    @Test
+    void destinationThrottlingShouldBeEnabledWhenRateIsLimited() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_DELIVERIES_PER_SECOND_PER_DOMAIN, "10")
+            .build();
+
+        RemoteDeliveryConfiguration configuration = new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+        assertThat(configuration.isDestinationThrottlingEnabled()).isTrue();
+        assertThat(configuration.getMaxDeliveriesPerSecondPerDomain()).isEqualTo(10);
+    }
+
+    @Test
+    void maxConcurrentDeliveriesPerDomainShouldNotBeNegative() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_CONCURRENT_DELIVERIES_PER_DOMAIN, "-1")
+            .build();
+
+        assertThatThrownBy(() -> new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getMaxPendingDeliveriesPerDomainShouldReturnDefaultValueWhenMissing() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxPendingDeliveriesPerDomain())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_MAX_PENDING_DELIVERIES_PER_DOMAIN);
+    }
+
+    @Test
+    void getBatchWindowShouldReturnDefaultValueWhenMissing() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getBatchWindow())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_BATCH_WINDOW);
+    }
+
     @Test
     void isSendPartialShouldBeFalseByDefault() {
         FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
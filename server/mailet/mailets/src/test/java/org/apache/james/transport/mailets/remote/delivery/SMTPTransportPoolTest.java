@@ -0,0 +1,217 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets.remote.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.domainlist.api.DomainList;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.apache.mailet.HostAddress;
+import org.apache.mailet.base.test.FakeMailetConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.mail.smtp.SMTPTransport;
+
+class SMTPTransportPoolTest {
+    private static final HostAddress HOST_ADDRESS_1 = new HostAddress("mx1.domain.tld", "smtp://192.0.2.1:25");
+    private static final HostAddress HOST_ADDRESS_2 = new HostAddress("mx2.domain.tld", "smtp://192.0.2.2:25");
+    private static final Instant NOW = Instant.parse("2021-01-01T00:00:00Z");
+    private static final Duration MAX_IDLE_TIME = Duration.ofSeconds(30);
+
+    private RecordingMetricFactory metricFactory;
+    private UpdatableTickingClock clock;
+    private SMTPTransportPool testee;
+
+    @BeforeEach
+    void setUp() {
+        metricFactory = new RecordingMetricFactory();
+        clock = new UpdatableTickingClock(NOW);
+        testee = pool(FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_IDLE_CONNECTIONS_PER_HOST, "2")
+            .setProperty(RemoteDeliveryConfiguration.CONNECTION_MAX_IDLE_TIME, "30s")
+            .setProperty(RemoteDeliveryConfiguration.MAX_MESSAGES_PER_CONNECTION, "3")
+            .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        testee.dispose();
+    }
+
+    private SMTPTransportPool pool(FakeMailetConfig mailetConfig) {
+        return new SMTPTransportPool(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)), metricFactory, clock);
+    }
+
+    @Test
+    void borrowShouldOpenTransportWhenNoIdleTransport() throws Exception {
+        SMTPTransport transport = mock(SMTPTransport.class);
+
+        assertThat(testee.borrow(HOST_ADDRESS_1, () -> transport).getTransport()).isEqualTo(transport);
+        assertThat(metricFactory.countFor(SMTPTransportPool.CONNECTION_OPENED_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void borrowShouldReuseReleasedTransport() throws Exception {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport));
+
+        assertThat(testee.borrow(HOST_ADDRESS_1, () -> mock(SMTPTransport.class)).getTransport()).isEqualTo(transport);
+        assertThat(metricFactory.countFor(SMTPTransportPool.POOL_HIT_METRIC_NAME)).isEqualTo(1);
+        assertThat(metricFactory.countFor(SMTPTransportPool.CONNECTION_OPENED_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void borrowShouldCheckHealthOfIdleTransport() throws Exception {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport));
+
+        testee.borrow(HOST_ADDRESS_1, () -> mock(SMTPTransport.class));
+
+        verify(transport).issueCommand("RSET", 250);
+    }
+
+    @Test
+    void borrowShouldNotReuseTransportOfAnotherHost() throws Exception {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport));
+
+        SMTPTransport otherTransport = mock(SMTPTransport.class);
+        assertThat(testee.borrow(HOST_ADDRESS_2, () -> otherTransport).getTransport()).isEqualTo(otherTransport);
+    }
+
+    @Test
+    void borrowShouldDiscardUnhealthyTransport() throws Exception {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport));
+        doThrow(new MessagingException("Connection closed")).when(transport).issueCommand(anyString(), anyInt());
+
+        SMTPTransport newTransport = mock(SMTPTransport.class);
+        assertThat(testee.borrow(HOST_ADDRESS_1, () -> newTransport).getTransport()).isEqualTo(newTransport);
+        verify(transport).close();
+        assertThat(metricFactory.countFor(SMTPTransportPool.CONNECTION_FAILURE_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void borrowShouldDiscardExpiredTransport() throws Exception {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport));
+        clock.setInstant(NOW.plus(MAX_IDLE_TIME));
+
+        SMTPTransport newTransport = mock(SMTPTransport.class);
+        assertThat(testee.borrow(HOST_ADDRESS_1, () -> newTransport).getTransport()).isEqualTo(newTransport);
+        verify(transport).close();
+    }
+
+    @Test
+    void borrowShouldRecordFailuresWhenOpening() {
+        assertThatThrownBy(() -> testee.borrow(HOST_ADDRESS_1, () -> {
+            throw new MessagingException("Connection refused");
+        })).isInstanceOf(MessagingException.class);
+
+        assertThat(metricFactory.countFor(SMTPTransportPool.CONNECTION_FAILURE_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void releaseShouldKeepTransportIdle() throws Exception {
+        assertThat(testee.release(testee.borrow(HOST_ADDRESS_1, () -> mock(SMTPTransport.class)))).isTrue();
+    }
+
+    @Test
+    void releaseShouldNotKeepTransportWhenMaxIdleConnectionsPerHostIsReached() throws Exception {
+        SMTPTransportPool.PooledTransport transport1 = testee.borrow(HOST_ADDRESS_1, () -> mock(SMTPTransport.class));
+        SMTPTransportPool.PooledTransport transport2 = testee.borrow(HOST_ADDRESS_1, () -> mock(SMTPTransport.class));
+        SMTPTransportPool.PooledTransport transport3 = testee.borrow(HOST_ADDRESS_1, () -> mock(SMTPTransport.class));
+
+        testee.release(transport1);
+        testee.release(transport2);
+
+        assertThat(testee.release(transport3)).isFalse();
+    }
+
+    @Test
+    void releaseShouldNotKeepTransportWhenMaxMessagesPerConnectionIsReached() throws Exception {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport));
+        testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport));
+
+        assertThat(testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport))).isFalse();
+    }
+
+    @Test
+    void releaseShouldNotKeepTransportWhenPoolingIsDisabled() throws Exception {
+        SMTPTransportPool disabledPool = pool(FakeMailetConfig.builder().build());
+
+        assertThat(disabledPool.release(disabledPool.borrow(HOST_ADDRESS_1, () -> mock(SMTPTransport.class)))).isFalse();
+    }
+
+    @Test
+    void releaseShouldNotKeepTransportWhenDisposed() throws Exception {
+        SMTPTransportPool.PooledTransport transport = testee.borrow(HOST_ADDRESS_1, () -> mock(SMTPTransport.class));
+        testee.dispose();
+
+        assertThat(testee.release(transport)).isFalse();
+    }
+
+    @Test
+    void evictExpiredTransportsShouldCloseExpiredTransports() throws Exception {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport));
+        clock.setInstant(NOW.plus(MAX_IDLE_TIME));
+
+        testee.evictExpiredTransports();
+
+        verify(transport).close();
+    }
+
+    @Test
+    void evictExpiredTransportsShouldKeepRecentTransports() throws Exception {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport));
+        clock.setInstant(NOW.plus(MAX_IDLE_TIME).minusSeconds(1));
+
+        testee.evictExpiredTransports();
+
+        verify(transport, never()).close();
+    }
+
+    @Test
+    void disposeShouldCloseIdleTransports() throws Exception {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        testee.release(testee.borrow(HOST_ADDRESS_1, () -> transport));
+
+        testee.dispose();
+
+        verify(transport).close();
+    }
+}
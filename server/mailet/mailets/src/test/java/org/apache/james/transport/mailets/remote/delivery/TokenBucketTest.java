@@ -0,0 +1,112 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.transport.mailets.remote.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.james.utils.UpdatableTickingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+    private static final Instant NOW = Instant.parse("2021-01-01T00:00:00Z");
+
+    private UpdatableTickingClock clock;
+    private TokenBucket testee;
+
+    @BeforeEach
+    void setUp() {
+        clock = new UpdatableTickingClock(NOW);
+        testee = new TokenBucket(2, clock);
+    }
+
+    @Test
+    void constructorShouldRejectNonPositiveRates() {
+        assertThatThrownBy(() -> new TokenBucket(0, clock))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tryAcquireShouldAllowBurstsUpToTheRate() {
+        assertThat(testee.tryAcquire(1)).isEmpty();
+        assertThat(testee.tryAcquire(1)).isEmpty();
+    }
+
+    @Test
+    void tryAcquireShouldReturnTheWaitDelayWhenExhausted() {
+        testee.tryAcquire(2);
+
+        assertThat(testee.tryAcquire(1)).contains(Duration.ofMillis(500));
+    }
+
+    @Test
+    void tryAcquireShouldSucceedOnceRefilled() {
+        testee.tryAcquire(2);
+
+        clock.setInstant(NOW.plusMillis(500));
+
+        assertThat(testee.tryAcquire(1)).isEmpty();
+    }
+
+    @Test
+    void tryAcquireShouldNotAccumulateMoreThanOneSecondOfPermits() {
+        clock.setInstant(NOW.plusSeconds(10));
+
+        testee.tryAcquire(2);
+
+        assertThat(testee.tryAcquire(1)).isPresent();
+    }
+
+    @Test
+    void tryAcquireShouldAllowAcquiringMoreThanTheCapacityWhenFull() {
+        assertThat(testee.tryAcquire(4)).isEmpty();
+    }
+
+    @Test
+    void acquiringMoreThanTheCapacityShouldDelayFollowingAcquisitions() {
+        testee.tryAcquire(4);
+
+        assertThat(testee.tryAcquire(1)).contains(Duration.ofMillis(1500));
+    }
+
+    @Test
+    void isFullShouldBeTrueInitially() {
+        assertThat(testee.isFull()).isTrue();
+    }
+
+    @Test
+    void isFullShouldBeFalseAfterAnAcquisition() {
+        testee.tryAcquire(1);
+
+        assertThat(testee.isFull()).isFalse();
+    }
+
+    @Test
+    void isFullShouldBeTrueOnceRefilled() {
+        testee.tryAcquire(1);
+
+        clock.setInstant(NOW.plusSeconds(1));
+
+        assertThat(testee.isFull()).isTrue();
+    }
+}
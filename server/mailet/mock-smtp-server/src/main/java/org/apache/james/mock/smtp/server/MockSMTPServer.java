@@ -22,7 +22,7 @@ package org.apache.james.mock.smtp.server;
 import org.apache.james.util.Port;
 import org.subethamail.smtp.server.SMTPServer;
 
-class MockSMTPServer {
+public class MockSMTPServer {
     private static final int RANDOM_PORT = 0;
 
     public static MockSMTPServer onRandomPort(SMTPBehaviorRepository behaviorRepository, ReceivedMailRepository mailRepository) {
@@ -43,17 +43,17 @@ class MockSMTPServer {
         this.server.getCommandHandler().addCommand(new ExtendedRcptToCommand());
     }
 
-    void start() {
+    public void start() {
         if (!server.isRunning()) {
            server.start();
         }
     }
 
-    Port getPort() {
+    public Port getPort() {
         return Port.of(server.getPort());
     }
 
-    void stop() {
+    public void stop() {
         server.stop();
     }
 }
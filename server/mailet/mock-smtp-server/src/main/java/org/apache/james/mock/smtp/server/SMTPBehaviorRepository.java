@@ -34,12 +34,12 @@ import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 
-class SMTPBehaviorRepository {
+public class SMTPBehaviorRepository {
 
     private final ConcurrentLinkedQueue<MockSMTPBehaviorInformation> behaviorsInformation;
     private final ConcurrentLinkedQueue<SMTPExtension> smtpExtensions;
 
-    SMTPBehaviorRepository() {
+    public SMTPBehaviorRepository() {
         this.behaviorsInformation = new ConcurrentLinkedQueue<>();
         this.smtpExtensions = new ConcurrentLinkedQueue<>();
     }
@@ -82,7 +82,7 @@ class SMTPBehaviorRepository {
         }
     }
 
-    void setBehaviors(MockSMTPBehavior... behaviors) {
+    public void setBehaviors(MockSMTPBehavior... behaviors) {
         setBehaviors(new MockSmtpBehaviors(Arrays.asList(behaviors)));
     }
 
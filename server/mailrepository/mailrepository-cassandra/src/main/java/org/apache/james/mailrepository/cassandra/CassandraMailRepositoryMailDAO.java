@@ -86,6 +86,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraMailRepositoryMailDAO implements CassandraMailRepositoryMailDaoAPI {
@@ -94,6 +95,7 @@ public class CassandraMailRepositoryMailDAO implements CassandraMailRepositoryMa
     private final PreparedStatement insertMail;
     private final PreparedStatement deleteMail;
     private final PreparedStatement selectMail;
+    private final PreparedStatement selectBlobIds;
     private final BlobId.Factory blobIdFactory;
     private final CassandraTypesProvider cassandraTypesProvider;
 
@@ -106,10 +108,16 @@ public class CassandraMailRepositoryMailDAO implements CassandraMailRepositoryMa
         this.insertMail = prepareInsert(session);
         this.deleteMail = prepareDelete(session);
         this.selectMail = prepareSelect(session);
+        this.selectBlobIds = prepareSelectBlobIds(session);
         this.blobIdFactory = blobIdFactory;
         this.cassandraTypesProvider = cassandraTypesProvider;
     }
 
+    private PreparedStatement prepareSelectBlobIds(Session session) {
+        return session.prepare(select(HEADER_BLOB_ID, BODY_BLOB_ID)
+            .from(CONTENT_TABLE_NAME));
+    }
+
     private PreparedStatement prepareDelete(Session session) {
         return session.prepare(delete()
             .from(CONTENT_TABLE_NAME)
@@ -172,6 +180,14 @@ public class CassandraMailRepositoryMailDAO implements CassandraMailRepositoryMa
             .flatMap(executor::executeVoid);
     }
 
+    @Override
+    public Flux<BlobId> listBlobs() {
+        return executor.executeRows(selectBlobIds.bind())
+            .flatMapIterable(row -> ImmutableList.of(
+                blobIdFactory.from(row.getString(HEADER_BLOB_ID)),
+                blobIdFactory.from(row.getString(BODY_BLOB_ID))));
+    }
+
     @Override
     public Mono<Void> remove(MailRepositoryUrl url, MailKey key) {
         return executor.executeVoid(deleteMail.bind()
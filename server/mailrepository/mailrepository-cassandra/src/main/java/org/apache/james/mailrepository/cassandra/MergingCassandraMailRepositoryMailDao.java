@@ -55,6 +55,11 @@ public class MergingCassandraMailRepositoryMailDao implements CassandraMailRepos
         return Flux.merge(v1.remove(url, key), v2.remove(url, key)).then();
     }
 
+    @Override
+    public Flux<BlobId> listBlobs() {
+        return Flux.concat(v1.listBlobs(), v2.listBlobs());
+    }
+
     @Override
     public Mono<Optional<MailDTO>> read(MailRepositoryUrl url, MailKey key) {
         return v2.read(url, key)
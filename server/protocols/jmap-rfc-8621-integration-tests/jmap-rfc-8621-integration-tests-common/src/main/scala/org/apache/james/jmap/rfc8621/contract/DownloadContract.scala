@@ -25,7 +25,7 @@ import java.nio.charset.StandardCharsets
 import io.netty.handler.codec.http.HttpHeaderNames.ACCEPT
 import io.restassured.RestAssured.{`given`, requestSpecification}
 import org.apache.commons.io.IOUtils
-import org.apache.http.HttpStatus.{SC_FORBIDDEN, SC_NOT_FOUND, SC_OK, SC_UNAUTHORIZED}
+import org.apache.http.HttpStatus.{SC_FORBIDDEN, SC_NOT_FOUND, SC_OK, SC_PARTIAL_CONTENT, SC_REQUESTED_RANGE_NOT_SATISFIABLE, SC_UNAUTHORIZED}
 import org.apache.james.GuiceJamesServer
 import org.apache.james.jmap.http.UserCredential
 import org.apache.james.jmap.rfc8621.contract.DownloadContract.accountId
@@ -86,6 +86,100 @@ trait DownloadContract {
       .hasContent(expectedResponse)
   }
 
+  @Test
+  def downloadMessageShouldSupportRangeRequests(server: GuiceJamesServer): Unit = {
+    val path = MailboxPath.inbox(BOB)
+    server.getProbe(classOf[MailboxProbeImpl]).createMailbox(path)
+    val messageId: MessageId = server.getProbe(classOf[MailboxProbeImpl])
+      .appendMessage(BOB.asString, path, AppendCommand.from(
+        ClassLoader.getSystemResourceAsStream("eml/multipart_simple.eml")))
+      .getMessageId
+    val expectedContent: Array[Byte] = IOUtils.toByteArray(ClassLoader.getSystemResourceAsStream("eml/multipart_simple.eml"))
+
+    val response = `given`
+        .basePath("")
+      .header(ACCEPT.toString, ACCEPT_RFC8621_VERSION_HEADER)
+      .header("Range", "bytes=10-19")
+    .when
+      .get(s"/download/$accountId/${messageId.serialize()}")
+    .`then`
+      .statusCode(SC_PARTIAL_CONTENT)
+      .header("Content-Range", s"bytes 10-19/${expectedContent.length}")
+      .header("Content-Length", "10")
+      .extract
+      .body
+      .asByteArray
+
+    assertThat(response).isEqualTo(expectedContent.slice(10, 20))
+  }
+
+  @Test
+  def downloadMessageShouldSupportSuffixRangeRequests(server: GuiceJamesServer): Unit = {
+    val path = MailboxPath.inbox(BOB)
+    server.getProbe(classOf[MailboxProbeImpl]).createMailbox(path)
+    val messageId: MessageId = server.getProbe(classOf[MailboxProbeImpl])
+      .appendMessage(BOB.asString, path, AppendCommand.from(
+        ClassLoader.getSystemResourceAsStream("eml/multipart_simple.eml")))
+      .getMessageId
+    val expectedContent: Array[Byte] = IOUtils.toByteArray(ClassLoader.getSystemResourceAsStream("eml/multipart_simple.eml"))
+
+    val response = `given`
+        .basePath("")
+      .header(ACCEPT.toString, ACCEPT_RFC8621_VERSION_HEADER)
+      .header("Range", "bytes=-5")
+    .when
+      .get(s"/download/$accountId/${messageId.serialize()}")
+    .`then`
+      .statusCode(SC_PARTIAL_CONTENT)
+      .header("Content-Range", s"bytes ${expectedContent.length - 5}-${expectedContent.length - 1}/${expectedContent.length}")
+      .extract
+      .body
+      .asByteArray
+
+    assertThat(response).isEqualTo(expectedContent.takeRight(5))
+  }
+
+  @Test
+  def downloadMessageShouldRejectUnsatisfiableRanges(server: GuiceJamesServer): Unit = {
+    val path = MailboxPath.inbox(BOB)
+    server.getProbe(classOf[MailboxProbeImpl]).createMailbox(path)
+    val messageId: MessageId = server.getProbe(classOf[MailboxProbeImpl])
+      .appendMessage(BOB.asString, path, AppendCommand.from(
+        ClassLoader.getSystemResourceAsStream("eml/multipart_simple.eml")))
+      .getMessageId
+    val expectedContent: Array[Byte] = IOUtils.toByteArray(ClassLoader.getSystemResourceAsStream("eml/multipart_simple.eml"))
+
+    `given`
+        .basePath("")
+      .header(ACCEPT.toString, ACCEPT_RFC8621_VERSION_HEADER)
+      .header("Range", "bytes=100000000-")
+    .when
+      .get(s"/download/$accountId/${messageId.serialize()}")
+    .`then`
+      .statusCode(SC_REQUESTED_RANGE_NOT_SATISFIABLE)
+      .header("Content-Range", s"bytes */${expectedContent.length}")
+  }
+
+  @Test
+  def downloadMessageShouldIgnoreMultipleRanges(server: GuiceJamesServer): Unit = {
+    val path = MailboxPath.inbox(BOB)
+    server.getProbe(classOf[MailboxProbeImpl]).createMailbox(path)
+    val messageId: MessageId = server.getProbe(classOf[MailboxProbeImpl])
+      .appendMessage(BOB.asString, path, AppendCommand.from(
+        ClassLoader.getSystemResourceAsStream("eml/multipart_simple.eml")))
+      .getMessageId
+
+    `given`
+        .basePath("")
+      .header(ACCEPT.toString, ACCEPT_RFC8621_VERSION_HEADER)
+      .header("Range", "bytes=0-9,20-29")
+    .when
+      .get(s"/download/$accountId/${messageId.serialize()}")
+    .`then`
+      .statusCode(SC_OK)
+      .header("Accept-Ranges", "bytes")
+  }
+
   @Test
   def downloadMessageShouldFailWhenUnauthentified(server: GuiceJamesServer): Unit = {
     val path = MailboxPath.inbox(BOB)
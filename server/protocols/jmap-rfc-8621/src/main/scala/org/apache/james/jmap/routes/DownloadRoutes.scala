@@ -24,13 +24,15 @@ import java.util.stream
 import java.util.stream.Stream
 
 import com.google.common.base.CharMatcher
+import com.google.common.io.ByteStreams
 import eu.timepit.refined.numeric.NonNegative
 import eu.timepit.refined.refineV
 import io.netty.buffer.Unpooled
-import io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE
-import io.netty.handler.codec.http.HttpResponseStatus.{BAD_REQUEST, FORBIDDEN, INTERNAL_SERVER_ERROR, NOT_FOUND, OK, UNAUTHORIZED}
+import io.netty.handler.codec.http.HttpHeaderNames.{ACCEPT_RANGES, CONTENT_RANGE, CONTENT_TYPE, RANGE}
+import io.netty.handler.codec.http.HttpResponseStatus.{BAD_REQUEST, FORBIDDEN, INTERNAL_SERVER_ERROR, NOT_FOUND, OK, PARTIAL_CONTENT, REQUESTED_RANGE_NOT_SATISFIABLE, UNAUTHORIZED}
 import io.netty.handler.codec.http.{HttpMethod, HttpResponseStatus, QueryStringDecoder}
 import javax.inject.{Inject, Named}
+import org.apache.commons.io.IOUtils
 import org.apache.james.jmap.HttpConstants.JSON_CONTENT_TYPE
 import org.apache.james.jmap.core.Id.Id
 import org.apache.james.jmap.core.{AccountId, Id, ProblemDetails}
@@ -78,11 +80,49 @@ trait BlobResolver {
   def resolve(blobId: BlobId, mailboxSession: MailboxSession): BlobResolutionResult
 }
 
+case class ByteRange(offset: Long, length: Long) {
+  def lastByte: Long = offset + length - 1
+}
+
+sealed trait RangeRequest
+case object FullContent extends RangeRequest
+case class PartialContent(range: ByteRange) extends RangeRequest
+case object RangeNotSatisfiable extends RangeRequest
+
+object RangeRequest {
+  private val SINGLE_BYTE_RANGE = """bytes=(\d*)-(\d*)""".r
+
+  // Only single byte ranges are supported: other Range headers are ignored, as allowed by RFC-7233
+  def parse(rangeHeader: Option[String], size: Long): RangeRequest =
+    rangeHeader.map(_.trim) match {
+      case Some(SINGLE_BYTE_RANGE(firstByte, lastByte)) => parse(firstByte.toLongOption, lastByte.toLongOption, size)
+      case _ => FullContent
+    }
+
+  private def parse(firstByte: Option[Long], lastByte: Option[Long], size: Long): RangeRequest =
+    (firstByte, lastByte) match {
+      case (Some(first), _) if first >= size => RangeNotSatisfiable
+      case (Some(first), Some(last)) if last >= first => PartialContent(ByteRange(first, Math.min(last, size - 1) - first + 1))
+      case (Some(first), None) => PartialContent(ByteRange(first, size - first))
+      case (None, Some(suffixLength)) if suffixLength > 0 && size > 0 =>
+        val length = Math.min(suffixLength, size)
+        PartialContent(ByteRange(size - length, length))
+      case (None, Some(_)) => RangeNotSatisfiable
+      case _ => FullContent
+    }
+}
+
 trait Blob {
   def blobId: BlobId
   def contentType: ContentType
   def size: Try[Size]
   def content: InputStream
+
+  def content(range: ByteRange): InputStream = {
+    val stream = content
+    IOUtils.skip(stream, range.offset)
+    ByteStreams.limit(stream, range.length)
+  }
 }
 
 case class BlobNotFoundException(blobId: BlobId) extends RuntimeException
@@ -99,12 +139,15 @@ case class MessageBlob(blobId: BlobId, message: MessageResult) extends Blob {
   override def content: InputStream = message.getFullContent.getInputStream
 }
 
-case class AttachmentBlob(attachmentMetadata: AttachmentMetadata, fileContent: InputStream) extends Blob {
+case class AttachmentBlob(attachmentMetadata: AttachmentMetadata, attachmentManager: AttachmentManager, mailboxSession: MailboxSession) extends Blob {
   override def size: Try[Size] = Success(UploadRoutes.sanitizeSize(attachmentMetadata.getSize))
 
   override def contentType: ContentType = attachmentMetadata.getType
 
-  override def content: InputStream = fileContent
+  override def content: InputStream = attachmentManager.load(attachmentMetadata, mailboxSession)
+
+  override def content(range: ByteRange): InputStream =
+    attachmentManager.loadAttachmentContent(attachmentMetadata.getAttachmentId, range.offset, range.length, mailboxSession)
 
   override def blobId: BlobId = BlobId.of(attachmentMetadata.getAttachmentId.getId).get
 }
@@ -141,7 +184,7 @@ class AttachmentBlobResolver @Inject()(val attachmentManager: AttachmentManager)
       case attachmentId: AttachmentId =>
         Try(attachmentManager.getAttachment(attachmentId, mailboxSession)) match {
           case Success(attachmentMetadata) => Applicable(
-            SMono.fromCallable(() => AttachmentBlob(attachmentMetadata, attachmentManager.load(attachmentMetadata, mailboxSession))))
+            SMono.just(AttachmentBlob(attachmentMetadata, attachmentManager, mailboxSession)))
           case Failure(_) => Applicable(SMono.raiseError(BlobNotFoundException(blobId)))
         }
 
@@ -252,7 +295,10 @@ class DownloadRoutes @Inject()(@Named(InjectionKeys.RFC_8621) val authenticator:
         blobContentType = queryParam(request, contentTypeParam)
           .map(ContentType.of)
           .getOrElse(blob.contentType),
-        blob = blob)
+        blob = blob,
+        rangeRequest = blob.size
+          .map(size => RangeRequest.parse(Option(request.requestHeaders.get(RANGE)), size.value))
+          .getOrElse(FullContent))
         .`then`())
   }
 
@@ -277,14 +323,36 @@ class DownloadRoutes @Inject()(@Named(InjectionKeys.RFC_8621) val authenticator:
   private def downloadBlob(optionalName: Option[String],
                            response: HttpServerResponse,
                            blobContentType: ContentType,
-                           blob: Blob): SMono[Unit] =
+                           blob: Blob,
+                           rangeRequest: RangeRequest): SMono[Unit] =
+    rangeRequest match {
+      case FullContent => sendContent(() => blob.content,
+        addContentDispositionHeader(optionalName)
+          .compose(addContentLengthHeader(blob.size))
+          .compose(addAcceptRangesHeader(blob.size))
+          .apply(response)
+          .header(CONTENT_TYPE, blobContentType.asString)
+          .status(OK))
+      case PartialContent(range) => sendContent(() => blob.content(range),
+        addContentDispositionHeader(optionalName)
+          .apply(response)
+          .header("Content-Length", range.length.toString)
+          .header(CONTENT_RANGE, s"bytes ${range.offset}-${range.lastByte}/${blob.size.get.value}")
+          .header(ACCEPT_RANGES, "bytes")
+          .header(CONTENT_TYPE, blobContentType.asString)
+          .status(PARTIAL_CONTENT))
+      case RangeNotSatisfiable => SMono.fromPublisher(response
+          .header(CONTENT_RANGE, s"bytes */${blob.size.get.value}")
+          .status(REQUESTED_RANGE_NOT_SATISFIABLE)
+          .send()
+          .`then`)
+        .`then`
+    }
+
+  private def sendContent(content: () => InputStream, response: HttpServerResponse): SMono[Unit] =
     SMono.fromPublisher(Mono.using(
-      () => blob.content,
-      (stream: InputStream) => addContentDispositionHeader(optionalName)
-        .compose(addContentLengthHeader(blob.size))
-        .apply(response)
-        .header(CONTENT_TYPE, blobContentType.asString)
-        .status(OK)
+      () => content(),
+      (stream: InputStream) => response
         .send(ReactorUtils.toChunks(stream, BUFFER_SIZE)
           .map(Unpooled.wrappedBuffer(_))
           .subscribeOn(Schedulers.elastic))
@@ -301,6 +369,11 @@ class DownloadRoutes @Inject()(@Named(InjectionKeys.RFC_8621) val authenticator:
       .map(size => resp.header("Content-Length", size.value.toString))
       .getOrElse(resp)
 
+  private def addAcceptRangesHeader(sizeTry: Try[Size]): HttpServerResponse => HttpServerResponse =
+    resp => sizeTry
+      .map(_ => resp.header(ACCEPT_RANGES, "bytes"))
+      .getOrElse(resp)
+
   private def addContentDispositionHeaderRegardingEncoding(name: String, resp: HttpServerResponse): HttpServerResponse =
     if (CharMatcher.ascii.matchesAllOf(name)) {
       resp.header("Content-Disposition", "attachment; filename=\"" + name + "\"")
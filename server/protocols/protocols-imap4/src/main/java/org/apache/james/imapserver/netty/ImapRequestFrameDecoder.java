@@ -21,10 +21,9 @@ package org.apache.james.imapserver.netty;
 
 import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -40,6 +39,7 @@ import org.jboss.netty.channel.ChannelFutureListener;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.handler.codec.frame.FrameDecoder;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -56,7 +56,8 @@ public class ImapRequestFrameDecoder extends FrameDecoder implements NettyConsta
     static final String NEEDED_DATA = "NEEDED_DATA";
     private static final String STORED_DATA = "STORED_DATA";
     private static final String WRITTEN_DATA = "WRITTEN_DATA";
-    private static final String OUTPUT_STREAM = "OUTPUT_STREAM";
+    private static final String OUTPUT_CHANNEL = "OUTPUT_CHANNEL";
+    private static final String SPOOLED_REQUEST = "SPOOLED_REQUEST";
 
     public ImapRequestFrameDecoder(ImapDecoder decoder, int inMemorySizeLimit, int literalSizeLimit) {
         this.decoder = decoder;
@@ -80,6 +81,7 @@ public class ImapRequestFrameDecoder extends FrameDecoder implements NettyConsta
         // check if we failed before and if we already know how much data we
         // need to sucess next run
         Map<String, Object> attachment = (Map<String, Object>) ctx.getAttachment();
+        releaseSpooledRequest(attachment);
         int size = -1;
         if (attachment.containsKey(NEEDED_DATA)) {
             retry = true;
@@ -96,34 +98,32 @@ public class ImapRequestFrameDecoder extends FrameDecoder implements NettyConsta
                     final File f;
                     int written;
 
-                    OutputStream out;
+                    FileChannel out;
                     // check if we have created a temporary file already or if
                     // we need to create a new one
                     if (attachment.containsKey(STORED_DATA)) {
                         f = (File) attachment.get(STORED_DATA);
                         written = (Integer) attachment.get(WRITTEN_DATA);
-                        out = (OutputStream) attachment.get(OUTPUT_STREAM);
+                        out = (FileChannel) attachment.get(OUTPUT_CHANNEL);
                     } else {
                         f = File.createTempFile("imap-literal", ".tmp");
                         attachment.put(STORED_DATA, f);
                         written = 0;
                         attachment.put(WRITTEN_DATA, written);
-                        out = new FileOutputStream(f, true);
-                        attachment.put(OUTPUT_STREAM, out);
-
+                        out = openPreallocated(f, size);
+                        attachment.put(OUTPUT_CHANNEL, out);
                     }
 
 
                     try {
                         int amount = Math.min(buffer.readableBytes(), size - written);
-                        buffer.readBytes(out, amount);
-                        written += amount;
-                    } catch (Exception e) {
-                        try {
-                            out.close();
-                        } catch (IOException ignored) {
-                            //ignore exception during close
+                        while (amount > 0) {
+                            int transferred = buffer.readBytes(out, amount);
+                            written += transferred;
+                            amount -= transferred;
                         }
+                    } catch (Exception e) {
+                        releaseStoredData(attachment);
                         throw e;
                     }
                     // Check if all needed data was streamed to the file.
@@ -134,20 +134,7 @@ public class ImapRequestFrameDecoder extends FrameDecoder implements NettyConsta
                             //ignore exception during close
                         }
 
-                        reader = new NettyStreamImapRequestLineReader(channel, new FileInputStream(f) {
-                            /**
-                             * Delete the File on close too
-                             */
-                            @Override
-                            public void close() throws IOException {
-                                try {
-                                    super.close();
-                                } finally {
-                                    f.delete();
-                                }
-                            }
-
-                        }, retry);
+                        reader = new NettyStreamImapRequestLineReader(channel, f, retry);
                     } else {
                         attachment.put(WRITTEN_DATA, written);
                         return null;
@@ -171,9 +158,10 @@ public class ImapRequestFrameDecoder extends FrameDecoder implements NettyConsta
         // check if the session was removed before to prevent a harmless NPE. See JAMES-1312
         // Also check if the session was logged out if so there is not need to try to decode it. See JAMES-1341
         if (session != null && session.getState() != ImapSessionState.LOGOUT) {
+            ImapMessage message = null;
             try {
 
-                ImapMessage message = decoder.decode(reader, session);
+                message = decoder.decode(reader, session);
 
                 // if size is != -1 the case was a literal. if thats the case we
                 // should not consume the line
@@ -216,10 +204,11 @@ public class ImapRequestFrameDecoder extends FrameDecoder implements NettyConsta
                 return null;
             } finally {
                 if (reader instanceof Closeable) {
-                    try {
-                        ((Closeable) reader).close();
-                    } catch (IOException ignored) {
-                        // Nothing to do
+                    if (message != null) {
+                        // The decoded message refers to the spooled request: it is released once processed
+                        attachment.put(SPOOLED_REQUEST, reader);
+                    } else {
+                        closeQuietly((Closeable) reader);
                     }
                 }
             }
@@ -233,6 +222,71 @@ public class ImapRequestFrameDecoder extends FrameDecoder implements NettyConsta
         }
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        try {
+            super.messageReceived(ctx, e);
+        } finally {
+            // Decoded messages are processed synchronously by the following handlers
+            releaseSpooledRequest((Map<String, Object>) ctx.getAttachment());
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void cleanup(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        try {
+            super.cleanup(ctx, e);
+        } finally {
+            Map<String, Object> attachment = (Map<String, Object>) ctx.getAttachment();
+            releaseSpooledRequest(attachment);
+            releaseStoredData(attachment);
+        }
+    }
+
+    /**
+     * The spooled file is preallocated to the announced size: the file system reserves it upfront instead of
+     * growing the file on each write.
+     */
+    private FileChannel openPreallocated(File f, int size) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(f, "rw");
+        try {
+            file.setLength(size);
+            return file.getChannel();
+        } catch (IOException e) {
+            closeQuietly(file);
+            throw e;
+        }
+    }
+
+    private void releaseSpooledRequest(Map<String, Object> attachment) {
+        Closeable spooledRequest = (Closeable) attachment.remove(SPOOLED_REQUEST);
+        if (spooledRequest != null) {
+            closeQuietly(spooledRequest);
+        }
+    }
+
+    private void releaseStoredData(Map<String, Object> attachment) {
+        Closeable out = (Closeable) attachment.remove(OUTPUT_CHANNEL);
+        if (out != null) {
+            closeQuietly(out);
+        }
+        File f = (File) attachment.remove(STORED_DATA);
+        if (f != null) {
+            f.delete();
+        }
+        attachment.remove(WRITTEN_DATA);
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Nothing to do
+        }
+    }
+
     @Override
     protected synchronized ChannelBuffer newCumulationBuffer(ChannelHandlerContext ctx, int minimumCapacity) {
         Map<String, Object> attachment = (Map<String, Object>) ctx.getAttachment();
@@ -21,11 +21,15 @@ package org.apache.james.imapserver.netty;
 
 import java.io.InputStream;
 
+import javax.mail.util.SharedByteArrayInputStream;
+
 import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.james.imap.api.display.HumanReadableText;
 import org.apache.james.imap.decode.DecodingException;
 import org.apache.james.imap.decode.ImapRequestLineReader;
 import org.apache.james.imap.utils.EolInputStream;
+import org.apache.james.imap.utils.SharedInputStreamContent;
+import org.apache.james.mailbox.model.Content;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBufferInputStream;
 import org.jboss.netty.channel.Channel;
@@ -85,16 +89,7 @@ public class NettyImapRequestLineReader extends AbstractNettyImapRequestLineRead
         if (extraCRLF) {
             crlf = 2;
         }
-        
-        if (maxLiteralSize > 0 && maxLiteralSize > size) {
-            throw new DecodingException(HumanReadableText.FAILED, "Specified literal is greater then the allowed size");
-        }
-        // Check if we have enough data
-        if (size + crlf > buffer.readableBytes()) {
-            // ok let us throw a exception which till the decoder how many more
-            // bytes we need
-            throw new NotEnoughDataException(size + read + crlf);
-        }
+        checkReadable(size, crlf);
 
         // Unset the next char.
         nextSeen = false;
@@ -109,6 +104,38 @@ public class NettyImapRequestLineReader extends AbstractNettyImapRequestLineRead
         }
     }
 
+    /**
+     * Copy the literal out of the wrapped {@link ChannelBuffer}, which is reused for the following requests, so
+     * that it can be stored without any further copy. If not enough data is available it will throw a
+     * {@link NotEnoughDataException}
+     */
+    @Override
+    protected Content readContent(int size) throws DecodingException {
+        checkReadable(size, 2);
+
+        // Unset the next char.
+        nextSeen = false;
+        nextChar = 0;
+
+        byte[] literal = new byte[size];
+        buffer.readBytes(literal);
+        read += size;
+        eol();
+        return new SharedInputStreamContent(new SharedByteArrayInputStream(literal), 0, size);
+    }
+
+    private void checkReadable(int size, int crlf) throws DecodingException {
+        if (maxLiteralSize > 0 && maxLiteralSize > size) {
+            throw new DecodingException(HumanReadableText.FAILED, "Specified literal is greater then the allowed size");
+        }
+        // Check if we have enough data
+        if (size + crlf > buffer.readableBytes()) {
+            // ok let us throw a exception which till the decoder how many more
+            // bytes we need
+            throw new NotEnoughDataException(size + read + crlf);
+        }
+    }
+
     /**
      * {@link RuntimeException} which will get thrown by
      * {@link NettyImapRequestLineReader#nextChar()} and
@@ -19,23 +19,33 @@
 package org.apache.james.imapserver.netty;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
+import javax.mail.util.SharedFileInputStream;
+
 import org.apache.james.imap.api.display.HumanReadableText;
 import org.apache.james.imap.decode.DecodingException;
 import org.apache.james.imap.utils.EolInputStream;
+import org.apache.james.imap.utils.SharedInputStreamContent;
+import org.apache.james.mailbox.model.Content;
 import org.jboss.netty.channel.Channel;
 
 import com.google.common.io.ByteStreams;
 
+/**
+ * Reads a request spooled to a file. The file is deleted once this reader is closed.
+ */
 public class NettyStreamImapRequestLineReader extends AbstractNettyImapRequestLineReader implements Closeable {
 
-    private final InputStream in;
+    private final File file;
+    private final SharedFileInputStream in;
 
-    public NettyStreamImapRequestLineReader(Channel channel, InputStream in, boolean retry) {
+    public NettyStreamImapRequestLineReader(Channel channel, File file, boolean retry) throws IOException {
         super(channel, retry);
-        this.in = in;
+        this.file = file;
+        this.in = new SharedFileInputStream(file);
     }
 
     /**
@@ -97,9 +107,32 @@ public class NettyStreamImapRequestLineReader extends AbstractNettyImapRequestLi
         
     }
 
+    /**
+     * Literals are exposed as a range of the spooled file and are thus not copied. The returned {@link Content}
+     * can be read until this reader is closed.
+     */
+    @Override
+    protected Content readContent(int size) throws DecodingException {
+        // Unset the next char.
+        nextSeen = false;
+        nextChar = 0;
+        long start = in.getPosition();
+        try {
+            ByteStreams.skipFully(in, size);
+        } catch (IOException e) {
+            throw new DecodingException(HumanReadableText.SOCKET_IO_FAILURE, "Error reading from stream.", e);
+        }
+        eol();
+        return new SharedInputStreamContent(in, start, size);
+    }
+
     @Override
     public void close() throws IOException {
-        in.close();
+        try {
+            in.close();
+        } finally {
+            file.delete();
+        }
     }
 
 }
@@ -0,0 +1,81 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imapserver.netty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.james.mailbox.model.Content;
+import org.jboss.netty.channel.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NettyStreamImapRequestLineReaderTest {
+    private static final byte[] LITERAL = "Subject: test\r\n\r\ntestmail".getBytes(StandardCharsets.US_ASCII);
+
+    File file;
+    NettyStreamImapRequestLineReader testee;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws Exception {
+        file = tempDir.resolve("imap-literal.tmp").toFile();
+        Files.write(file.toPath(), ("{" + LITERAL.length + "}\r\n" + new String(LITERAL, StandardCharsets.US_ASCII) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        testee = new NettyStreamImapRequestLineReader(mock(Channel.class), file, true);
+    }
+
+    @Test
+    void consumeLiteralContentShouldReturnTheLiteral() throws Exception {
+        Content content = testee.consumeLiteralContent();
+
+        assertThat(content.size()).isEqualTo(LITERAL.length);
+        assertThat(content.getInputStream()).hasSameContentAs(new ByteArrayInputStream(LITERAL));
+    }
+
+    @Test
+    void consumeLiteralContentShouldBeReadableSeveralTimes() throws Exception {
+        Content content = testee.consumeLiteralContent();
+        content.getInputStream().readAllBytes();
+
+        assertThat(content.getInputStream()).hasSameContentAs(new ByteArrayInputStream(LITERAL));
+    }
+
+    @Test
+    void consumeLiteralContentShouldConsumeTheEndOfLine() throws Exception {
+        testee.consumeLiteralContent();
+
+        assertThat(testee.nextChar()).isEqualTo('\n');
+    }
+
+    @Test
+    void closeShouldDeleteTheSpooledFile() throws Exception {
+        testee.consumeLiteralContent();
+
+        testee.close();
+
+        assertThat(file).doesNotExist();
+    }
+}
@@ -26,6 +26,7 @@ import java.net.UnknownHostException;
 import java.security.KeyStore;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 import javax.annotation.PostConstruct;
@@ -56,6 +57,8 @@ import org.jboss.netty.util.HashedWheelTimer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Abstract base class for Servers for all James Servers
  */
@@ -74,6 +77,9 @@ public abstract class AbstractConfigurableAsyncServer extends AbstractAsyncServe
     /** The name of the parameter defining the connection backlog. */
     private static final String BACKLOG_NAME = "connectionBacklog";
 
+    /** The name of the parameter defining the network engine of the server. */
+    private static final String TRANSPORT_NAME = "transport";
+
     /** The name of the parameter defining the service hello name. */
     public static final String HELLO_NAME = "helloName";
 
@@ -122,6 +128,14 @@ public abstract class AbstractConfigurableAsyncServer extends AbstractAsyncServe
 
     private int port;
 
+    private Transport transport;
+
+    private InetSocketAddress[] listenAddresses;
+
+    private int ioWorker;
+
+    private ConfigurableNetty4Server netty4Server;
+
     @Inject
     public final void setFileSystem(FileSystem filesystem) {
         this.fileSystem = filesystem;
@@ -186,10 +200,17 @@ public abstract class AbstractConfigurableAsyncServer extends AbstractAsyncServe
 
             bindAddresses.add(address);
         }
-        setListenAddresses(bindAddresses.toArray(InetSocketAddress[]::new));
+        listenAddresses = bindAddresses.toArray(InetSocketAddress[]::new);
+        setListenAddresses(listenAddresses);
+
+        transport = Transport.parse(config.getString(TRANSPORT_NAME, Transport.NETTY3.toString()));
+        if (!getSupportedTransports().contains(transport)) {
+            throw new ConfigurationException(getServiceType() + " does not support the " + transport + " transport, supported transports are " + getSupportedTransports());
+        }
+        LOGGER.info("{} runs on the {} transport", getServiceType(), transport);
 
         jmxName = config.getString("jmxName", getDefaultJMXName());
-        int ioWorker = config.getInt("ioWorkerCount", DEFAULT_IO_WORKER_COUNT);
+        ioWorker = config.getInt("ioWorkerCount", DEFAULT_IO_WORKER_COUNT);
         setIoWorkerCount(ioWorker);
 
         maxExecutorThreads = config.getInt("maxExecutorCount", DEFAULT_MAX_EXECUTOR_COUNT);
@@ -263,8 +284,12 @@ public abstract class AbstractConfigurableAsyncServer extends AbstractAsyncServe
 
             buildSSLContext();
             preInit();
-            executionHandler = createExecutionHander();
-            frameHandlerFactory = createFrameHandlerFactory();
+            if (transport == Transport.NETTY4) {
+                netty4Server = createNetty4Server();
+            } else {
+                executionHandler = createExecutionHander();
+                frameHandlerFactory = createFrameHandlerFactory();
+            }
             bind();
             port = retrieveFirstBindedPort();
 
@@ -303,6 +328,9 @@ public abstract class AbstractConfigurableAsyncServer extends AbstractAsyncServe
             if (executionHandler != null) {
                 executionHandler.releaseExternalResources();
             }
+            if (netty4Server != null) {
+                netty4Server.releaseExternalResources();
+            }
 
             unregisterMBean();
         }
@@ -497,11 +525,17 @@ public abstract class AbstractConfigurableAsyncServer extends AbstractAsyncServe
 
     @Override
     public long getHandledConnections() {
+        if (netty4Server != null) {
+            return netty4Server.getHandledConnections();
+        }
         return countHandler.getConnectionsTillStartup();
     }
 
     @Override
     public int getCurrentConnections() {
+        if (netty4Server != null) {
+            return netty4Server.getCurrentConnections();
+        }
         return countHandler.getCurrentConnectionCount();
     }
 
@@ -522,6 +556,64 @@ public abstract class AbstractConfigurableAsyncServer extends AbstractAsyncServe
         return addrs;
     }
 
+    @Override
+    public synchronized void bind() throws Exception {
+        if (netty4Server != null) {
+            netty4Server.bind();
+        } else {
+            super.bind();
+        }
+    }
+
+    @Override
+    public synchronized void unbind() {
+        if (netty4Server != null) {
+            netty4Server.unbind();
+        } else {
+            super.unbind();
+        }
+    }
+
+    @Override
+    public boolean isBound() {
+        if (netty4Server != null) {
+            return netty4Server.isBound();
+        }
+        return super.isBound();
+    }
+
+    @Override
+    public synchronized List<InetSocketAddress> getListenAddresses() {
+        if (netty4Server != null) {
+            return netty4Server.getListenAddresses();
+        }
+        return super.getListenAddresses();
+    }
+
+    /**
+     * Return the {@link Transport}'s this server can run on: the netty4 transport requires the server to implement
+     * {@link Netty4TransportSupport}
+     *
+     * @return supportedTransports
+     */
+    private Set<Transport> getSupportedTransports() {
+        if (this instanceof Netty4TransportSupport) {
+            return ImmutableSet.of(Transport.NETTY3, Transport.NETTY4);
+        }
+        return ImmutableSet.of(Transport.NETTY3);
+    }
+
+    private ConfigurableNetty4Server createNetty4Server() {
+        Netty4TransportSupport netty4TransportSupport = (Netty4TransportSupport) this;
+        ConfigurableNetty4Server server = new ConfigurableNetty4Server(getDefaultJMXName(), connectionLimit, connPerIP,
+            maxExecutorThreads, encryption, netty4TransportSupport.createNetty4FrameHandlerFactory(), netty4TransportSupport::createNetty4CoreHandler);
+        server.setListenAddresses(listenAddresses);
+        server.setIoWorkerCount(ioWorker);
+        server.setTimeout(getTimeout());
+        server.setBacklog(getBacklog());
+        return server;
+    }
+
     @Override
     protected void configureBootstrap(ServerBootstrap bootstrap) {
         super.configureBootstrap(bootstrap);
@@ -0,0 +1,94 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.lib.netty;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+import org.apache.james.protocols.api.Encryption;
+import org.apache.james.protocols.netty4.AbstractNetty4Server;
+import org.apache.james.protocols.netty4.AbstractProtocolChannelInitializer;
+import org.apache.james.protocols.netty4.FrameHandlerFactory;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelOption;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
+
+/**
+ * Netty 4 engine of an {@link AbstractConfigurableAsyncServer} configured with the netty4 {@link Transport}.
+ *
+ * The core handler is run by a pool of executors, so that blocking protocol handlers do not stall the IO threads.
+ */
+class ConfigurableNetty4Server extends AbstractNetty4Server {
+
+    private final String name;
+    private final int connectionLimit;
+    private final int connPerIP;
+    private final Encryption encryption;
+    private final FrameHandlerFactory frameHandlerFactory;
+    private final Supplier<ChannelHandler> coreHandlerFactory;
+    private final EventExecutorGroup executorGroup;
+
+    ConfigurableNetty4Server(String name, int connectionLimit, int connPerIP, int maxExecutorThreads, Encryption encryption,
+                             FrameHandlerFactory frameHandlerFactory, Supplier<ChannelHandler> coreHandlerFactory) {
+        this.name = name;
+        this.connectionLimit = connectionLimit;
+        this.connPerIP = connPerIP;
+        this.encryption = encryption;
+        this.frameHandlerFactory = frameHandlerFactory;
+        this.coreHandlerFactory = coreHandlerFactory;
+        this.executorGroup = new DefaultEventExecutorGroup(maxExecutorThreads, createThreadFactory("executor"));
+    }
+
+    @Override
+    protected ChannelHandler createChannelInitializer() {
+        return new AbstractProtocolChannelInitializer(getTimeout(), connectionLimit, connPerIP, encryption,
+            executorGroup, frameHandlerFactory) {
+
+            @Override
+            protected ChannelHandler createHandler() {
+                return coreHandlerFactory.get();
+            }
+        };
+    }
+
+    @Override
+    protected void configureBootstrap(ServerBootstrap bootstrap) {
+        super.configureBootstrap(bootstrap);
+
+        // enable tcp keep-alives
+        bootstrap.childOption(ChannelOption.SO_KEEPALIVE, true);
+    }
+
+    @Override
+    protected ThreadFactory createThreadFactory(String role) {
+        return new DefaultThreadFactory(name + "-" + role);
+    }
+
+    /**
+     * Release the executors of the core handler
+     */
+    void releaseExternalResources() {
+        executorGroup.shutdownGracefully();
+    }
+}
@@ -0,0 +1,49 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.lib.netty;
+
+import org.apache.james.protocols.netty4.AbstractProtocolChannelInitializer;
+import org.apache.james.protocols.netty4.FrameHandlerFactory;
+import org.apache.james.protocols.netty4.LineDelimiterBasedFrameHandlerFactory;
+
+import io.netty.channel.ChannelHandler;
+
+/**
+ * Implemented by the {@link AbstractConfigurableAsyncServer} able to run on the netty4 {@link Transport}. Other
+ * servers only accept the netty3 {@link Transport}.
+ */
+public interface Netty4TransportSupport {
+
+    /**
+     * Create the core {@link ChannelHandler} of a connection
+     *
+     * @return coreHandler
+     */
+    ChannelHandler createNetty4CoreHandler();
+
+    /**
+     * Create the {@link FrameHandlerFactory} splitting the received bytes into frames
+     *
+     * @return frameHandlerFactory
+     */
+    default FrameHandlerFactory createNetty4FrameHandlerFactory() {
+        return new LineDelimiterBasedFrameHandlerFactory(AbstractProtocolChannelInitializer.MAX_LINE_LENGTH);
+    }
+}
@@ -0,0 +1,58 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.lib.netty;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.apache.commons.configuration2.ex.ConfigurationException;
+
+/**
+ * The network engine a server runs on, as selected by its <code>transport</code> configuration parameter
+ */
+public enum Transport {
+    /**
+     * The historical Netty 3 engine
+     */
+    NETTY3("netty3"),
+    /**
+     * The Netty 4 engine, using pooled buffers and the native epoll transport when available
+     */
+    NETTY4("netty4");
+
+    public static Transport parse(String value) throws ConfigurationException {
+        String normalizedValue = value.trim().toLowerCase(Locale.US);
+        return Arrays.stream(values())
+            .filter(transport -> transport.value.equals(normalizedValue))
+            .findFirst()
+            .orElseThrow(() -> new ConfigurationException("Unknown transport '" + value + "', expecting one of " + Arrays.toString(values())));
+    }
+
+    private final String value;
+
+    Transport(String value) {
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -25,17 +25,21 @@ import org.apache.james.lmtpserver.CoreCmdHandlerLoader;
 import org.apache.james.lmtpserver.jmx.JMXHandlersLoader;
 import org.apache.james.protocols.lib.handler.HandlersPackage;
 import org.apache.james.protocols.lib.netty.AbstractProtocolAsyncServer;
+import org.apache.james.protocols.lib.netty.Netty4TransportSupport;
 import org.apache.james.protocols.lmtp.LMTPConfiguration;
 import org.apache.james.protocols.netty.AbstractChannelPipelineFactory;
 import org.apache.james.protocols.netty.ChannelHandlerFactory;
 import org.apache.james.protocols.netty.LineDelimiterBasedChannelHandlerFactory;
 import org.apache.james.protocols.smtp.SMTPProtocol;
 import org.apache.james.smtpserver.netty.SMTPChannelUpstreamHandler;
+import org.apache.james.smtpserver.netty4.SMTPChannelInboundHandler;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class LMTPServer extends AbstractProtocolAsyncServer implements LMTPServerMBean {
+import io.netty.channel.ChannelHandler;
+
+public class LMTPServer extends AbstractProtocolAsyncServer implements LMTPServerMBean, Netty4TransportSupport {
     private static final Logger LOGGER = LoggerFactory.getLogger(LMTPServer.class);
 
     /**
@@ -132,6 +136,12 @@ public class LMTPServer extends AbstractProtocolAsyncServer implements LMTPServe
         return new SMTPChannelUpstreamHandler(protocol, lmtpMetrics);
     }
 
+    @Override
+    public ChannelHandler createNetty4CoreHandler() {
+        SMTPProtocol protocol = new SMTPProtocol(getProtocolHandlerChain(), lmtpConfig);
+        return new SMTPChannelInboundHandler(protocol, lmtpMetrics);
+    }
+
     @Override
     protected Class<? extends HandlersPackage> getCoreHandlersPackage() {
         return CoreCmdHandlerLoader.class;
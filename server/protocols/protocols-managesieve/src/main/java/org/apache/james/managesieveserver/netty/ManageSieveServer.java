@@ -24,13 +24,17 @@ import static org.jboss.netty.channel.Channels.pipeline;
 import javax.net.ssl.SSLEngine;
 
 import org.apache.james.managesieve.transcode.ManageSieveProcessor;
+import org.apache.james.managesieveserver.netty4.ManageSieveChannelInboundHandler;
 import org.apache.james.protocols.api.Encryption;
 import org.apache.james.protocols.lib.netty.AbstractConfigurableAsyncServer;
+import org.apache.james.protocols.lib.netty.Netty4TransportSupport;
 import org.apache.james.protocols.netty.ChannelGroupHandler;
 import org.apache.james.protocols.netty.ChannelHandlerFactory;
 import org.apache.james.protocols.netty.ConnectionLimitUpstreamHandler;
 import org.apache.james.protocols.netty.ConnectionPerIpLimitUpstreamHandler;
 import org.apache.james.protocols.netty.LineDelimiterBasedChannelHandlerFactory;
+import org.apache.james.protocols.netty4.FrameHandlerFactory;
+import org.apache.james.protocols.netty4.LineDelimiterBasedFrameHandlerFactory;
 import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
@@ -44,7 +48,9 @@ import org.jboss.netty.util.CharsetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ManageSieveServer extends AbstractConfigurableAsyncServer implements ManageSieveServerMBean {
+import io.netty.channel.ChannelHandler;
+
+public class ManageSieveServer extends AbstractConfigurableAsyncServer implements ManageSieveServerMBean, Netty4TransportSupport {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ManageSieveServer.class);
 
@@ -85,6 +91,15 @@ public class ManageSieveServer extends AbstractConfigurableAsyncServer implement
             LOGGER);
     }
 
+    @Override
+    public ChannelHandler createNetty4CoreHandler() {
+        return new ManageSieveChannelInboundHandler(manageSieveProcessor,
+            getEncryption() == null ? null : getEncryption().getContext(),
+            getEnabledCipherSuites(),
+            isSSL(),
+            LOGGER);
+    }
+
     private boolean isSSL() {
         return getEncryption() != null
             && !getEncryption().isStartTLS();
@@ -142,4 +157,9 @@ public class ManageSieveServer extends AbstractConfigurableAsyncServer implement
     protected ChannelHandlerFactory createFrameHandlerFactory() {
         return new LineDelimiterBasedChannelHandlerFactory(maxLineLength);
     }
+
+    @Override
+    public FrameHandlerFactory createNetty4FrameHandlerFactory() {
+        return new LineDelimiterBasedFrameHandlerFactory(maxLineLength);
+    }
 }
@@ -0,0 +1,155 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.managesieveserver.netty4;
+
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+
+import org.apache.james.managesieve.api.Session;
+import org.apache.james.managesieve.api.SessionTerminatedException;
+import org.apache.james.managesieve.transcode.ManageSieveProcessor;
+import org.apache.james.managesieve.util.SettableSession;
+import org.apache.james.protocols.netty4.HandlerConstants;
+import org.slf4j.Logger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.AttributeKey;
+
+@Sharable
+public class ManageSieveChannelInboundHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+    static final AttributeKey<Session> SESSION = AttributeKey.valueOf("manageSieveSession");
+
+    private final Logger logger;
+    private final ManageSieveProcessor manageSieveProcessor;
+    private final SSLContext sslContext;
+    private final String[] enabledCipherSuites;
+    private final boolean sslServer;
+
+    public ManageSieveChannelInboundHandler(ManageSieveProcessor manageSieveProcessor, SSLContext sslContext,
+                                            String[] enabledCipherSuites, boolean sslServer, Logger logger) {
+        this.logger = logger;
+        this.manageSieveProcessor = manageSieveProcessor;
+        this.sslContext = sslContext;
+        this.enabledCipherSuites = enabledCipherSuites;
+        this.sslServer = sslServer;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf buf) throws Exception {
+        try (Closeable closeable = ManageSieveMDCContext.from(ctx)) {
+            String request = buf.toString(StandardCharsets.UTF_8);
+            Session manageSieveSession = ctx.channel().attr(SESSION).get();
+            String responseString = manageSieveProcessor.handleRequest(manageSieveSession, request);
+            if (manageSieveSession.getState() == Session.State.SSL_NEGOCIATION) {
+                // The SSL handler lets the pending response go through in clear text
+                turnSSLon(ctx.channel());
+                manageSieveSession.setSslEnabled(true);
+                manageSieveSession.setState(Session.State.UNAUTHENTICATED);
+            }
+            write(ctx.channel(), responseString);
+        }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        try (Closeable closeable = ManageSieveMDCContext.from(ctx)) {
+            logger.warn("Error while processing ManageSieve request", cause);
+
+            if (cause instanceof TooLongFrameException) {
+                // Max line length exceeded
+                // See also JAMES-1190
+                write(ctx.channel(), "NO Maximum command line length exceeded");
+            } else if (cause instanceof SessionTerminatedException) {
+                write(ctx.channel(), "OK channel is closing");
+                logout(ctx);
+            }
+        }
+    }
+
+    private void logout(ChannelHandlerContext ctx) {
+        // logout on error not sure if that is the best way to handle it
+        Channel channel = ctx.channel();
+        channel.attr(SESSION).set(null);
+        // Make sure we close the channel after all the buffers were flushed out
+        if (channel.isActive()) {
+            channel.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        try (Closeable closeable = ManageSieveMDCContext.from(ctx)) {
+            InetSocketAddress address = (InetSocketAddress) ctx.channel().remoteAddress();
+            logger.info("Connection established from {}", address.getAddress().getHostAddress());
+
+            Session session = new SettableSession();
+            if (sslServer) {
+                session.setSslEnabled(true);
+            }
+            ctx.channel().attr(SESSION).set(session);
+            super.channelActive(ctx);
+            write(ctx.channel(), manageSieveProcessor.getAdvertisedCapabilities());
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        try (Closeable closeable = ManageSieveMDCContext.from(ctx)) {
+            InetSocketAddress address = (InetSocketAddress) ctx.channel().remoteAddress();
+            logger.info("Connection closed for {}", address.getAddress().getHostAddress());
+            ctx.channel().attr(SESSION).set(null);
+        }
+    }
+
+    @Override
+    public void channelUnregistered(ChannelHandlerContext ctx) {
+        // Last handler of the pipeline: nothing to propagate the event to
+    }
+
+    private void write(Channel channel, String response) {
+        if (channel.isActive()) {
+            channel.writeAndFlush(Unpooled.copiedBuffer(response, StandardCharsets.UTF_8));
+        }
+    }
+
+    private void turnSSLon(Channel channel) {
+        if (sslContext != null) {
+            SSLEngine engine = sslContext.createSSLEngine();
+            engine.setUseClientMode(false);
+            if (enabledCipherSuites != null && enabledCipherSuites.length > 0) {
+                engine.setEnabledCipherSuites(enabledCipherSuites);
+            }
+            channel.pipeline().addFirst(HandlerConstants.SSL_HANDLER, new SslHandler(engine, true));
+        }
+    }
+}
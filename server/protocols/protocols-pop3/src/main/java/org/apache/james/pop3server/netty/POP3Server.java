@@ -23,24 +23,29 @@ import org.apache.james.pop3server.jmx.JMXHandlersLoader;
 import org.apache.james.protocols.api.ProtocolConfiguration;
 import org.apache.james.protocols.lib.handler.HandlersPackage;
 import org.apache.james.protocols.lib.netty.AbstractProtocolAsyncServer;
+import org.apache.james.protocols.lib.netty.Netty4TransportSupport;
 import org.apache.james.protocols.netty.AbstractChannelPipelineFactory;
 import org.apache.james.protocols.netty.BasicChannelUpstreamHandler;
 import org.apache.james.protocols.netty.ChannelHandlerFactory;
 import org.apache.james.protocols.netty.LineDelimiterBasedChannelHandlerFactory;
 import org.apache.james.protocols.netty.ProtocolMDCContextFactory;
+import org.apache.james.protocols.netty4.BasicChannelInboundHandler;
 import org.apache.james.protocols.pop3.POP3Protocol;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
 
+import io.netty.channel.ChannelHandler;
+
 /**
  * NIO POP3 Server which use Netty
  */
-public class POP3Server extends AbstractProtocolAsyncServer implements POP3ServerMBean {
+public class POP3Server extends AbstractProtocolAsyncServer implements POP3ServerMBean, Netty4TransportSupport {
 
     /**
      * The configuration data to be passed to the handler
      */
     private final ProtocolConfiguration theConfigData = new POP3Configuration();
     private BasicChannelUpstreamHandler coreHandler;
+    private BasicChannelInboundHandler netty4CoreHandler;
     
     @Override
     protected int getDefaultPort() {
@@ -77,6 +82,7 @@ public class POP3Server extends AbstractProtocolAsyncServer implements POP3Serve
         super.preInit();
         POP3Protocol protocol = new POP3Protocol(getProtocolHandlerChain(), theConfigData);
         coreHandler = new BasicChannelUpstreamHandler(new ProtocolMDCContextFactory.Standard(), protocol, getEncryption());
+        netty4CoreHandler = new BasicChannelInboundHandler(new org.apache.james.protocols.netty4.ProtocolMDCContextFactory.Standard(), protocol, getEncryption());
     }
 
     @Override
@@ -104,4 +110,9 @@ public class POP3Server extends AbstractProtocolAsyncServer implements POP3Serve
         return new LineDelimiterBasedChannelHandlerFactory(AbstractChannelPipelineFactory.MAX_LINE_LENGTH);
     }
 
+    @Override
+    public ChannelHandler createNetty4CoreHandler() {
+        return netty4CoreHandler;
+    }
+
 }
@@ -31,22 +31,29 @@ import org.apache.james.protocols.api.ProtocolSession;
 import org.apache.james.protocols.api.ProtocolTransport;
 import org.apache.james.protocols.lib.handler.HandlersPackage;
 import org.apache.james.protocols.lib.netty.AbstractProtocolAsyncServer;
+import org.apache.james.protocols.lib.netty.Netty4TransportSupport;
 import org.apache.james.protocols.netty.AbstractChannelPipelineFactory;
 import org.apache.james.protocols.netty.ChannelHandlerFactory;
+import org.apache.james.protocols.netty4.AbstractProtocolChannelInitializer;
+import org.apache.james.protocols.netty4.FrameHandlerFactory;
 import org.apache.james.protocols.smtp.AllButStartTlsLineChannelHandlerFactory;
 import org.apache.james.protocols.smtp.SMTPConfiguration;
 import org.apache.james.protocols.smtp.SMTPProtocol;
+import org.apache.james.protocols.smtp.netty4.AllButStartTlsLineFrameHandlerFactory;
 import org.apache.james.smtpserver.CoreCmdHandlerLoader;
 import org.apache.james.smtpserver.ExtendedSMTPSession;
 import org.apache.james.smtpserver.jmx.JMXHandlersLoader;
+import org.apache.james.smtpserver.netty4.SMTPChannelInboundHandler;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.netty.channel.ChannelHandler;
+
 /**
  * NIO SMTPServer which use Netty
  */
-public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServerMBean {
+public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServerMBean, Netty4TransportSupport {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractProtocolAsyncServer.class);
 
     /**
@@ -93,6 +100,7 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
     private String authorizedAddresses;
     
     private SMTPChannelUpstreamHandler coreHandler;
+    private SMTPChannelInboundHandler netty4CoreHandler;
 
     public SMTPServer(SmtpMetrics smtpMetrics) {
         this.smtpMetrics = smtpMetrics;
@@ -124,6 +132,7 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
             
         };
         coreHandler = new SMTPChannelUpstreamHandler(transport, getEncryption(), smtpMetrics);
+        netty4CoreHandler = new SMTPChannelInboundHandler(transport, getEncryption(), smtpMetrics);
     }
 
     @Override
@@ -336,6 +345,16 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
         return new AllButStartTlsLineChannelHandlerFactory(AbstractChannelPipelineFactory.MAX_LINE_LENGTH);
     }
 
+    @Override
+    public ChannelHandler createNetty4CoreHandler() {
+        return netty4CoreHandler;
+    }
+
+    @Override
+    public FrameHandlerFactory createNetty4FrameHandlerFactory() {
+        return new AllButStartTlsLineFrameHandlerFactory(AbstractProtocolChannelInitializer.MAX_LINE_LENGTH);
+    }
+
     public int getAuthRequired() {
         return authRequired;
     }
@@ -0,0 +1,152 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.server.blob.deduplication.BlobGCTask;
+import org.apache.james.server.blob.deduplication.BloomFilterGCAlgorithm;
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskManager;
+import org.apache.james.webadmin.Constants;
+import org.apache.james.webadmin.Routes;
+import org.apache.james.webadmin.tasks.TaskFromRequestRegistry;
+import org.apache.james.webadmin.tasks.TaskIdDto;
+import org.apache.james.webadmin.tasks.TaskRegistrationKey;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import io.swagger.annotations.ResponseHeader;
+import spark.Request;
+import spark.Route;
+import spark.Service;
+
+@Api(tags = "Blobs")
+@Path(BlobRoutes.BASE_PATH)
+@Produces(Constants.JSON_CONTENT_TYPE)
+public class BlobRoutes implements Routes {
+    public static final String BASE_PATH = "/blobs";
+    private static final String SCOPE_QUERY_PARAM = "scope";
+    private static final TaskRegistrationKey UNREFERENCED = TaskRegistrationKey.of("unreferenced");
+    private static final String EXPECTED_BLOB_COUNT_PARAM = "expectedBlobCount";
+    private static final String ASSOCIATED_PROBABILITY_PARAM = "associatedProbability";
+    private static final String DELETIONS_PER_SECOND_PARAM = "deletionsPerSecond";
+
+    private final TaskManager taskManager;
+    private final JsonTransformer jsonTransformer;
+    private final BloomFilterGCAlgorithm gcAlgorithm;
+    private final BlobStore blobStore;
+
+    @Inject
+    public BlobRoutes(TaskManager taskManager, JsonTransformer jsonTransformer,
+                      BloomFilterGCAlgorithm gcAlgorithm, BlobStore blobStore) {
+        this.taskManager = taskManager;
+        this.jsonTransformer = jsonTransformer;
+        this.gcAlgorithm = gcAlgorithm;
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public String getBasePath() {
+        return BASE_PATH;
+    }
+
+    @Override
+    public void define(Service service) {
+        service.delete(BASE_PATH, deleteUnreferencedBlobs(), jsonTransformer);
+    }
+
+    @DELETE
+    @ApiOperation(value = "Garbage collect blobs of the default bucket that are no longer referenced")
+    @ApiImplicitParams({
+        @ApiImplicitParam(
+            required = true,
+            name = "scope",
+            dataType = "String",
+            paramType = "query",
+            example = "?scope=unreferenced",
+            value = "Compulsory. Only 'unreferenced' is supported."),
+        @ApiImplicitParam(
+            name = EXPECTED_BLOB_COUNT_PARAM,
+            dataType = "Long",
+            paramType = "query",
+            example = "?expectedBlobCount=1000000",
+            value = "Optional. Number of blobs expected to be referenced, used to size the bloom filter. Defaults to 1000000."),
+        @ApiImplicitParam(
+            name = ASSOCIATED_PROBABILITY_PARAM,
+            dataType = "Double",
+            paramType = "query",
+            example = "?associatedProbability=0.01",
+            value = "Optional. False positive probability of the bloom filter, strictly between 0 and 1. Defaults to 0.01."),
+        @ApiImplicitParam(
+            name = DELETIONS_PER_SECOND_PARAM,
+            dataType = "Integer",
+            paramType = "query",
+            example = "?deletionsPerSecond=1000",
+            value = "Optional. Maximum count of blob deletions per second. Defaults to 1000.")
+    })
+    @ApiResponses(value = {
+        @ApiResponse(code = HttpStatus.CREATED_201, message = "The taskId of the given scheduled task", response = TaskIdDto.class,
+            responseHeaders = {
+                @ResponseHeader(name = "Location", description = "URL of the resource associated with the scheduled task")
+            }),
+        @ApiResponse(code = HttpStatus.BAD_REQUEST_400, message = "Bad request - invalid scope or parameters"),
+        @ApiResponse(code = HttpStatus.INTERNAL_SERVER_ERROR_500, message = "Internal server error - Something went bad on the server side.")
+    })
+    public Route deleteUnreferencedBlobs() {
+        return TaskFromRequestRegistry.builder()
+            .parameterName(SCOPE_QUERY_PARAM)
+            .register(UNREFERENCED, this::gcTask)
+            .buildAsRoute(taskManager);
+    }
+
+    private Task gcTask(Request request) {
+        return new BlobGCTask(gcAlgorithm,
+            blobStore.getDefaultBucketName(),
+            queryParameter(request, EXPECTED_BLOB_COUNT_PARAM, Long::parseLong)
+                .orElse(BlobGCTask.DEFAULT_EXPECTED_BLOB_COUNT),
+            queryParameter(request, ASSOCIATED_PROBABILITY_PARAM, Double::parseDouble)
+                .orElse(BlobGCTask.DEFAULT_ASSOCIATED_PROBABILITY),
+            queryParameter(request, DELETIONS_PER_SECOND_PARAM, Integer::parseInt)
+                .orElse(BlobGCTask.DEFAULT_DELETIONS_PER_SECOND));
+    }
+
+    private <T> Optional<T> queryParameter(Request request, String queryParameter, Function<String, T> parser) {
+        try {
+            return Optional.ofNullable(request.queryParams(queryParameter))
+                .map(parser);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Illegal value supplied for query parameter '%s'", queryParameter), e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+import static io.restassured.RestAssured.with;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.memory.MemoryBlobStoreDAO;
+import org.apache.james.json.DTOConverter;
+import org.apache.james.server.blob.deduplication.BlobGCTask;
+import org.apache.james.server.blob.deduplication.BlobGCTaskAdditionalInformationDTO;
+import org.apache.james.server.blob.deduplication.BloomFilterGCAlgorithm;
+import org.apache.james.server.blob.deduplication.DeDuplicationBlobStore;
+import org.apache.james.server.blob.deduplication.GenerationAwareBlobId;
+import org.apache.james.task.Hostname;
+import org.apache.james.task.MemoryTaskManager;
+import org.apache.james.webadmin.WebAdminServer;
+import org.apache.james.webadmin.WebAdminUtils;
+import org.apache.james.webadmin.utils.ErrorResponder;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import io.restassured.RestAssured;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class BlobRoutesTest {
+    private static final Instant NOW = Instant.parse("2021-01-01T00:00:00.000Z");
+    private static final GenerationAwareBlobId.Configuration CONFIGURATION = new GenerationAwareBlobId.Configuration(Duration.ofDays(30), 1);
+
+    private WebAdminServer webAdminServer;
+    private MemoryTaskManager taskManager;
+    private MemoryBlobStoreDAO blobStoreDAO;
+    private BlobStore oldGenerationBlobStore;
+
+    @BeforeEach
+    void setUp() {
+        HashBlobId.Factory hashBlobIdFactory = new HashBlobId.Factory();
+        GenerationAwareBlobId.Factory blobIdFactory = new GenerationAwareBlobId.Factory(Clock.fixed(NOW, ZoneOffset.UTC), hashBlobIdFactory, CONFIGURATION);
+        GenerationAwareBlobId.Factory oldGenerationBlobIdFactory = new GenerationAwareBlobId.Factory(Clock.fixed(NOW.minus(Duration.ofDays(90)), ZoneOffset.UTC), hashBlobIdFactory, CONFIGURATION);
+
+        blobStoreDAO = new MemoryBlobStoreDAO();
+        BlobStore blobStore = new DeDuplicationBlobStore(blobStoreDAO, BucketName.DEFAULT, blobIdFactory);
+        oldGenerationBlobStore = new DeDuplicationBlobStore(blobStoreDAO, BucketName.DEFAULT, oldGenerationBlobIdFactory);
+        BloomFilterGCAlgorithm gcAlgorithm = new BloomFilterGCAlgorithm(ImmutableSet.of(() -> Flux.empty()), blobStoreDAO, blobIdFactory);
+
+        JsonTransformer jsonTransformer = new JsonTransformer();
+        taskManager = new MemoryTaskManager(new Hostname("foo"));
+        webAdminServer = WebAdminUtils.createWebAdminServer(
+                new BlobRoutes(taskManager, jsonTransformer, gcAlgorithm, blobStore),
+                new TasksRoutes(taskManager, jsonTransformer, DTOConverter.of(BlobGCTaskAdditionalInformationDTO.module())))
+            .start();
+
+        RestAssured.requestSpecification = WebAdminUtils.buildRequestSpecification(webAdminServer)
+            .setBasePath(BlobRoutes.BASE_PATH)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webAdminServer.destroy();
+        taskManager.stop();
+    }
+
+    @Test
+    void deleteUnreferencedShouldCreateATask() {
+        given()
+            .queryParam("scope", "unreferenced")
+        .when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.CREATED_201)
+            .header("Location", is(notNullValue()))
+            .body("taskId", is(notNullValue()));
+    }
+
+    @Test
+    void deleteUnreferencedShouldRequireScope() {
+        when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("details", is("'scope' query parameter is compulsory. Supported values are [unreferenced]"));
+    }
+
+    @Test
+    void deleteUnreferencedShouldRejectInvalidScope() {
+        given()
+            .queryParam("scope", "invalid")
+        .when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+            .body("details", is("Invalid value supplied for query parameter 'scope': invalid. Supported values are [unreferenced]"));
+    }
+
+    @Test
+    void deleteUnreferencedShouldRejectInvalidDeletionsPerSecond() {
+        given()
+            .queryParam("scope", "unreferenced")
+            .queryParam("deletionsPerSecond", "abc")
+        .when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()));
+    }
+
+    @Test
+    void deleteUnreferencedShouldRejectNegativeDeletionsPerSecond() {
+        given()
+            .queryParam("scope", "unreferenced")
+            .queryParam("deletionsPerSecond", "-1")
+        .when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()));
+    }
+
+    @Test
+    void deleteUnreferencedShouldRejectOutOfRangeProbability() {
+        given()
+            .queryParam("scope", "unreferenced")
+            .queryParam("associatedProbability", "1.5")
+        .when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(400))
+            .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()));
+    }
+
+    @Test
+    void deleteUnreferencedShouldGarbageCollectUnreferencedBlobs() {
+        BlobId blobId = Mono.from(oldGenerationBlobStore.save(BucketName.DEFAULT, "content".getBytes(StandardCharsets.UTF_8), BlobStore.StoragePolicy.LOW_COST)).block();
+
+        String taskId = with()
+            .queryParam("scope", "unreferenced")
+            .queryParam("expectedBlobCount", "100")
+            .queryParam("associatedProbability", "0.05")
+            .queryParam("deletionsPerSecond", "10")
+            .delete()
+            .jsonPath()
+            .get("taskId");
+
+        given()
+            .basePath(TasksRoutes.BASE)
+        .when()
+            .get(taskId + "/await")
+        .then()
+            .body("status", is("completed"))
+            .body("taskId", is(taskId))
+            .body("type", is(BlobGCTask.TASK_TYPE.asString()))
+            .body("additionalInformation.bucketName", is(BucketName.DEFAULT.asString()))
+            .body("additionalInformation.referenceSourceCount", is(0))
+            .body("additionalInformation.blobCount", is(1))
+            .body("additionalInformation.gcedBlobCount", is(1))
+            .body("additionalInformation.errorCount", is(0))
+            .body("additionalInformation.bloomFilterExpectedBlobCount", is(100))
+            .body("additionalInformation.bloomFilterAssociatedProbability", is(0.05F))
+            .body("additionalInformation.deletionsPerSecond", is(10));
+
+        assertThat(blobStoreDAO.listBlobs(BucketName.DEFAULT).collectList().block())
+            .doesNotContain(blobId);
+    }
+}
@@ -29,6 +29,10 @@ import org.apache.mailet.Mail;
 import org.reactivestreams.Publisher;
 import org.threeten.extra.Temporals;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * <p>
  * A Queue/Spool for Mails. How the Queue handles the ordering of the dequeuing
@@ -105,6 +109,60 @@ public interface MailQueue extends Closeable {
      */
     void enQueue(Mail mail) throws MailQueueException;
 
+    /**
+     * Enqueue the Mail to the queue without blocking the calling thread.
+     *
+     * The returned {@link Publisher} completes once the Mail is durably enqueued, and fails with a
+     * {@link MailQueueException} otherwise. Nothing happens until it is subscribed.
+     *
+     * The default implementation offloads {@link #enQueue(Mail)} to a scheduler suited for blocking
+     * tasks: implementations able to enqueue asynchronously should override it. The JMS and the
+     * legacy file queues rely on it, as their underlying stores only offer blocking APIs.
+     *
+     * Callers bound to a synchronous contract, like the SMTP message hooks or
+     * {@link org.apache.mailet.MailetContext#sendMail(Mail)}, keep relying on {@link #enQueue(Mail)}.
+     *
+     * @param mail
+     */
+    default Publisher<Void> enqueueReactive(Mail mail) {
+        return Mono.<Void>fromCallable(() -> {
+                enQueue(mail);
+                return null;
+            })
+            .subscribeOn(Schedulers.elastic());
+    }
+
+    /**
+     * Enqueue the Mail to the queue without blocking the calling thread. The Mail becomes available for
+     * deQueue once the given delay elapsed.
+     *
+     * The default implementation offloads {@link #enQueue(Mail, Duration)}, see {@link #enqueueReactive(Mail)}.
+     *
+     * @param mail
+     * @param delay
+     */
+    default Publisher<Void> enqueueReactive(Mail mail, Duration delay) {
+        return Mono.<Void>fromCallable(() -> {
+                enQueue(mail, delay);
+                return null;
+            })
+            .subscribeOn(Schedulers.elastic());
+    }
+
+    /**
+     * Enqueue several Mails to the queue without blocking the calling thread.
+     *
+     * The returned {@link Publisher} completes once all Mails are enqueued. Implementations are free
+     * to enqueue the Mails concurrently, thus the ordering of the resulting queue is not guaranteed.
+     *
+     * @param mails
+     */
+    default Publisher<Void> enqueueAllReactive(Iterable<Mail> mails) {
+        return Flux.fromIterable(mails)
+            .concatMap(this::enqueueReactive)
+            .then();
+    }
+
     /**
      * Dequeue the next ready-to-process Mail of the queue. This method will
      * block until a Mail is ready and then process the operation.
@@ -53,6 +53,31 @@ public interface DelayedMailQueueContract {
             .isInstanceOf(RuntimeException.class);
     }
 
+    @Test
+    default void enqueueReactiveShouldDelayMailsWhenSpecified() throws Exception {
+        Mono.from(getMailQueue().enqueueReactive(defaultMail()
+            .name("name")
+            .build(),
+            Duration.ofSeconds(5)))
+            .block();
+
+        Mono<MailQueue.MailQueueItem> next = Flux.from(getMailQueue().deQueue()).subscribeOn(Schedulers.elastic()).next();
+        assertThatThrownBy(() -> next.block(Duration.ofSeconds(1)))
+            .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    default void delayedReactiveEnqueuedMailCanBeRetrievedFromTheQueue() throws Exception {
+        Mono.from(getMailQueue().enqueueReactive(defaultMail()
+            .name("name1")
+            .build(),
+            Duration.ofSeconds(1)))
+            .block();
+
+        MailQueue.MailQueueItem mailQueueItem = Flux.from(getMailQueue().deQueue()).blockFirst();
+        assertThat(mailQueueItem.getMail().getName()).isEqualTo("name1");
+    }
+
     @Test
     default void enqueueWithNegativeDelayShouldNotDelayDelivery() throws Exception {
         getMailQueue().enQueue(defaultMail()
@@ -59,6 +59,7 @@ import org.junit.jupiter.api.Test;
 import com.github.fge.lambdas.Throwing;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -159,6 +160,50 @@ public interface MailQueueContract {
         assertThat(dequeuedItemNames).hasSize(2).containsOnly(name);
     }
 
+    @Test
+    default void enqueueReactiveShouldEnqueueTheMail() throws Exception {
+        Mono.from(getMailQueue().enqueueReactive(defaultMail()
+            .name("name")
+            .build()))
+            .block();
+
+        MailQueue.MailQueueItem mailQueueItem = Flux.from(getMailQueue().deQueue()).blockFirst();
+        assertThat(mailQueueItem.getMail().getName())
+            .isEqualTo("name");
+    }
+
+    @Test
+    default void enqueueReactiveShouldBeLazy() throws Exception {
+        getMailQueue().enqueueReactive(defaultMail()
+            .name("name")
+            .build());
+
+        enQueue(defaultMail()
+            .name("other")
+            .build());
+
+        MailQueue.MailQueueItem mailQueueItem = Flux.from(getMailQueue().deQueue()).blockFirst();
+        assertThat(mailQueueItem.getMail().getName())
+            .isEqualTo("other");
+    }
+
+    @Test
+    default void enqueueAllReactiveShouldEnqueueAllMails() throws Exception {
+        Mono.from(getMailQueue().enqueueAllReactive(ImmutableList.<Mail>of(
+                defaultMail().name("name1").build(),
+                defaultMail().name("name2").build(),
+                defaultMail().name("name3").build())))
+            .block();
+
+        Stream<String> dequeuedItemNames = Flux.from(getMailQueue().deQueue())
+            .take(3)
+            .map(MailQueue.MailQueueItem::getMail)
+            .map(Mail::getName)
+            .toStream();
+
+        assertThat(dequeuedItemNames).containsOnly("name1", "name2", "name3");
+    }
+
     @Test
     default void queueShouldHandleNoSender() throws Exception {
         enQueue(FakeMail.builder()
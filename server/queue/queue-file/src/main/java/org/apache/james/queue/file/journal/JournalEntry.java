@@ -0,0 +1,98 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file.journal;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Location of a mail that was appended to a {@link MailQueueJournal} and not yet acknowledged.
+ */
+public final class JournalEntry {
+    private final long sequence;
+    private final long segmentId;
+    private final int position;
+    private final int recordLength;
+    private final Instant deliveryDate;
+
+    JournalEntry(long sequence, long segmentId, int position, int recordLength, Instant deliveryDate) {
+        this.sequence = sequence;
+        this.segmentId = segmentId;
+        this.position = position;
+        this.recordLength = recordLength;
+        this.deliveryDate = deliveryDate;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Instant getDeliveryDate() {
+        return deliveryDate;
+    }
+
+    long getSegmentId() {
+        return segmentId;
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    int getRecordLength() {
+        return recordLength;
+    }
+
+    JournalEntry relocate(long segmentId, int position) {
+        return new JournalEntry(sequence, segmentId, position, recordLength, deliveryDate);
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof JournalEntry) {
+            JournalEntry that = (JournalEntry) o;
+
+            return Objects.equals(this.sequence, that.sequence)
+                && Objects.equals(this.segmentId, that.segmentId)
+                && Objects.equals(this.position, that.position)
+                && Objects.equals(this.recordLength, that.recordLength)
+                && Objects.equals(this.deliveryDate, that.deliveryDate);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(sequence, segmentId, position, recordLength, deliveryDate);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("sequence", sequence)
+            .add("segmentId", segmentId)
+            .add("position", position)
+            .add("recordLength", recordLength)
+            .add("deliveryDate", deliveryDate)
+            .toString();
+    }
+}
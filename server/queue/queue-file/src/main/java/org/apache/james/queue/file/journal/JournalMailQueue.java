@@ -0,0 +1,461 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file.journal;
+
+import static org.apache.james.util.ReactorUtils.DEFAULT_CONCURRENCY;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
+import org.apache.james.queue.api.MailQueueName;
+import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
+import org.apache.james.server.core.MimeMessageSource;
+import org.apache.mailet.Mail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link ManageableMailQueue} storing its {@link Mail}s in a {@link MailQueueJournal}.
+ * <p/>
+ * Unlike {@link org.apache.james.queue.file.FileCacheableMailQueue}, enqueueing a mail does not create any file: the
+ * mail and its message are appended to the active segment of the journal, and concurrent enqueues share the same
+ * <code>fsync</code>. Dequeued messages are read lazily from the memory mapping of the journal.
+ * <p/>
+ * This implementation targets single node deployments: the journal can not be shared between several James servers.
+ */
+public class JournalMailQueue implements ManageableMailQueue {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalMailQueue.class);
+    private static final Instant MAX_DELIVERY_DATE = Instant.ofEpochMilli(Long.MAX_VALUE);
+    // Due right away: wakes up the dequeuers once the queue is closed
+    private static final ScheduledEntry CLOSED = new ScheduledEntry(-1, Instant.EPOCH);
+
+    private static class ScheduledEntry implements Delayed {
+        private final long sequence;
+        private final Instant deliveryDate;
+
+        ScheduledEntry(long sequence, Instant deliveryDate) {
+            this.sequence = sequence;
+            this.deliveryDate = deliveryDate;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            try {
+                return unit.convert(Duration.between(Instant.now(), deliveryDate));
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            ScheduledEntry that = (ScheduledEntry) o;
+            int deliveryComparison = deliveryDate.compareTo(that.deliveryDate);
+            if (deliveryComparison != 0) {
+                return deliveryComparison;
+            }
+            return Long.compare(sequence, that.sequence);
+        }
+    }
+
+    private static class PayloadOutputStream extends ByteArrayOutputStream {
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    private static class JournalMimeMessageSource extends MimeMessageSource {
+        private final String sourceId;
+        private final ByteBuffer content;
+
+        JournalMimeMessageSource(String sourceId, ByteBuffer content) {
+            this.sourceId = sourceId;
+            this.content = content;
+        }
+
+        @Override
+        public String getSourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteBufferInputStream(content);
+        }
+
+        @Override
+        public long getMessageSize() {
+            return content.remaining();
+        }
+    }
+
+    private final MailQueueName queueName;
+    private final MailQueueJournal journal;
+    private final DelayQueue<ScheduledEntry> scheduledEntries;
+    private final Flux<MailQueueItem> flux;
+
+    public JournalMailQueue(MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, File parentDir, MailQueueName queueName,
+                            boolean sync, int segmentSize) throws IOException {
+        this.queueName = queueName;
+        this.journal = MailQueueJournal.open(new File(parentDir, queueName.asString()), sync, segmentSize);
+        this.scheduledEntries = new DelayQueue<>();
+        journal.entries()
+            .forEach(entry -> scheduledEntries.put(new ScheduledEntry(entry.getSequence(), entry.getDeliveryDate())));
+        this.flux = Flux.<ScheduledEntry>generate(sink -> {
+                try {
+                    ScheduledEntry scheduledEntry = scheduledEntries.take();
+                    if (scheduledEntry == CLOSED) {
+                        // Let the other dequeuers complete too
+                        scheduledEntries.put(CLOSED);
+                        sink.complete();
+                    } else {
+                        sink.next(scheduledEntry);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    sink.complete();
+                }
+            })
+            .subscribeOn(Schedulers.elastic())
+            .flatMap(this::toMailQueueItem, DEFAULT_CONCURRENCY)
+            // Entries taken but not yet handed to a cancelled dequeuer are scheduled again
+            .doOnDiscard(ScheduledEntry.class, scheduledEntries::put)
+            .doOnDiscard(JournalMailQueueItem.class, JournalMailQueueItem::reschedule)
+            .map(item -> mailQueueItemDecoratorFactory.decorate(item, queueName));
+    }
+
+    @Override
+    public void close() {
+        scheduledEntries.put(CLOSED);
+        journal.close();
+    }
+
+    @Override
+    public MailQueueName getName() {
+        return queueName;
+    }
+
+    @Override
+    public void enQueue(Mail mail, Duration delay) throws MailQueueException {
+        await(append(mail, delay), "Unable to enqueue mail " + mail.getName());
+    }
+
+    @Override
+    public void enQueue(Mail mail) throws MailQueueException {
+        enQueue(mail, Duration.ZERO);
+    }
+
+    @Override
+    public Mono<Void> enqueueReactive(Mail mail) {
+        return enqueueReactive(mail, Duration.ZERO);
+    }
+
+    @Override
+    public Mono<Void> enqueueReactive(Mail mail, Duration delay) {
+        // Only serialization is blocking: the commit of the journal is awaited asynchronously
+        return Mono.fromCallable(() -> append(mail, delay))
+            .subscribeOn(Schedulers.elastic())
+            .flatMap(Mono::fromFuture);
+    }
+
+    private CompletableFuture<Void> append(Mail mail, Duration delay) throws MailQueueException {
+        Instant deliveryDate = computeDeliveryDate(delay);
+        return journal.append(deliveryDate, serialize(mail))
+            .thenAccept(entry -> scheduledEntries.put(new ScheduledEntry(entry.getSequence(), deliveryDate)));
+    }
+
+    private Instant computeDeliveryDate(Duration delay) {
+        Instant now = Instant.now();
+        if (delay.isNegative()) {
+            return now;
+        }
+        try {
+            Instant deliveryDate = now.plus(delay);
+            if (deliveryDate.isAfter(MAX_DELIVERY_DATE)) {
+                return MAX_DELIVERY_DATE;
+            }
+            return deliveryDate;
+        } catch (DateTimeException | ArithmeticException e) {
+            return MAX_DELIVERY_DATE;
+        }
+    }
+
+    /**
+     * The payload is made of the length of the serialized {@link Mail}, the serialized {@link Mail}, then the message.
+     */
+    private ByteBuffer serialize(Mail mail) throws MailQueueException {
+        try {
+            PayloadOutputStream out = new PayloadOutputStream();
+            out.write(new byte[Integer.BYTES]);
+            try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+                objectOut.writeObject(mail);
+            }
+            int mailLength = out.size() - Integer.BYTES;
+            if (mail.getMessage() != null) {
+                mail.getMessage().writeTo(out);
+            }
+            ByteBuffer payload = out.asByteBuffer();
+            payload.putInt(0, mailLength);
+            return payload;
+        } catch (IOException | MessagingException e) {
+            throw new MailQueueException("Unable to serialize mail " + mail.getName(), e);
+        }
+    }
+
+    private Mail readMail(long sequence, ByteBuffer payload) throws IOException, ClassNotFoundException, MessagingException {
+        int mailLength = payload.getInt(0);
+        ByteBuffer mailBytes = slice(payload, Integer.BYTES, mailLength);
+        ByteBuffer messageBytes = slice(payload, Integer.BYTES + mailLength, payload.limit() - Integer.BYTES - mailLength);
+
+        Mail mail;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(mailBytes))) {
+            mail = (Mail) in.readObject();
+        }
+        if (messageBytes.hasRemaining()) {
+            String sourceId = queueName.asString() + "-" + sequence;
+            mail.setMessage(new MimeMessageCopyOnWriteProxy(new JournalMimeMessageSource(sourceId, messageBytes)));
+        }
+        return mail;
+    }
+
+    private ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(position);
+        slice.limit(position + length);
+        return slice.slice();
+    }
+
+    private Optional<Mail> readMail(long sequence) throws IOException, ClassNotFoundException, MessagingException {
+        Optional<ByteBuffer> payload = journal.read(sequence);
+        if (!payload.isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(readMail(sequence, payload.get()));
+    }
+
+    @Override
+    public Flux<MailQueueItem> deQueue() {
+        return flux;
+    }
+
+    private Mono<MailQueueItem> toMailQueueItem(ScheduledEntry scheduledEntry) {
+        try {
+            // Mails removed from the queue are still scheduled: skip them
+            return Mono.justOrEmpty(readMail(scheduledEntry.sequence)
+                .map(mail -> new JournalMailQueueItem(scheduledEntry.sequence, mail)));
+        } catch (IOException | ClassNotFoundException | MessagingException e) {
+            LOGGER.error("Unable to dequeue mail {} of queue {}", scheduledEntry.sequence, queueName.asString(), e);
+            return Mono.empty();
+        }
+    }
+
+    private class JournalMailQueueItem implements MailQueueItem {
+        private final long sequence;
+        private final Mail mail;
+
+        JournalMailQueueItem(long sequence, Mail mail) {
+            this.sequence = sequence;
+            this.mail = mail;
+        }
+
+        @Override
+        public Mail getMail() {
+            return mail;
+        }
+
+        @Override
+        public void done(boolean success) throws MailQueueException {
+            if (success) {
+                await(journal.acknowledge(sequence), "Unable to acknowledge mail " + mail.getName());
+            } else if (journal.entry(sequence).isPresent()) {
+                scheduledEntries.put(new ScheduledEntry(sequence, Instant.now()));
+            }
+
+            LifecycleUtil.dispose(mail);
+        }
+
+        void reschedule() {
+            scheduledEntries.put(new ScheduledEntry(sequence, Instant.now()));
+            LifecycleUtil.dispose(mail);
+        }
+    }
+
+    @Override
+    public long getSize() {
+        return journal.size();
+    }
+
+    @Override
+    public long flush() {
+        long count = 0;
+        for (ScheduledEntry scheduledEntry : scheduledEntries) {
+            if (scheduledEntry.getDelay(TimeUnit.MILLISECONDS) > 0 && scheduledEntries.remove(scheduledEntry)) {
+                scheduledEntries.put(new ScheduledEntry(scheduledEntry.sequence, Instant.now()));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long clear() throws MailQueueException {
+        return acknowledge(journal.entries());
+    }
+
+    @Override
+    public long remove(Type type, String value) throws MailQueueException {
+        ImmutableList.Builder<JournalEntry> toBeRemoved = ImmutableList.builder();
+        for (JournalEntry entry : journal.entries()) {
+            try {
+                Optional<Mail> mail = readMail(entry.getSequence());
+                if (mail.isPresent() && shouldRemove(mail.get(), type, value)) {
+                    toBeRemoved.add(entry);
+                }
+            } catch (IOException | ClassNotFoundException | MessagingException e) {
+                throw new MailQueueException("Unable to read mail " + entry.getSequence() + " of queue " + queueName.asString(), e);
+            }
+        }
+        return acknowledge(toBeRemoved.build());
+    }
+
+    private boolean shouldRemove(Mail mail, Type type, String value) throws MailQueueException {
+        switch (type) {
+            case Name:
+                return mail.getName().equals(value);
+            case Recipient:
+                return mail.getRecipients().stream()
+                    .map(MailAddress::asString)
+                    .anyMatch(value::equals);
+            case Sender:
+                return mail.getMaybeSender()
+                    .asString()
+                    .equals(value);
+            default:
+                throw new MailQueueException("Unsupported remove type " + type);
+        }
+    }
+
+    private long acknowledge(Iterable<JournalEntry> entries) throws MailQueueException {
+        ImmutableList<CompletableFuture<Boolean>> acknowledgements = ImmutableList.copyOf(entries)
+            .stream()
+            .map(entry -> journal.acknowledge(entry.getSequence()))
+            .collect(ImmutableList.toImmutableList());
+        await(CompletableFuture.allOf(acknowledgements.toArray(new CompletableFuture[0])), "Unable to remove mails");
+
+        return acknowledgements.stream()
+            .filter(CompletableFuture::join)
+            .count();
+    }
+
+    private void await(CompletableFuture<?> future, String errorMessage) throws MailQueueException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailQueueException(errorMessage, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw new MailQueueException(errorMessage, (Exception) e.getCause());
+            }
+            throw new MailQueueException(errorMessage, e);
+        }
+    }
+
+    @Override
+    public MailQueueIterator browse() {
+        Iterator<JournalEntry> entries = journal.entries().iterator();
+
+        return new MailQueueIterator() {
+            private MailQueueItemView item;
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Read-only");
+            }
+
+            @Override
+            public MailQueueItemView next() {
+                if (hasNext()) {
+                    MailQueueItemView itemView = item;
+                    item = null;
+                    return itemView;
+                }
+
+                throw new NoSuchElementException();
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (item != null) {
+                    return true;
+                }
+
+                while (entries.hasNext()) {
+                    JournalEntry entry = entries.next();
+                    try {
+                        Optional<Mail> mail = readMail(entry.getSequence());
+                        if (mail.isPresent()) {
+                            item = new DefaultMailQueueItemView(mail.get(), entry.getDeliveryDate().atZone(ZoneOffset.UTC));
+                            return true;
+                        }
+                    } catch (IOException | ClassNotFoundException | MessagingException e) {
+                        LOGGER.info("Unable to load mail", e);
+                    }
+                }
+
+                return false;
+            }
+
+            @Override
+            public void close() {
+                // do nothing
+            }
+        };
+    }
+}
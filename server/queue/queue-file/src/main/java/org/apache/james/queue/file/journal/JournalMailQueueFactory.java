@@ -0,0 +1,105 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file.journal;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.apache.james.filesystem.api.FileSystem;
+import org.apache.james.queue.api.MailQueue;
+import org.apache.james.queue.api.MailQueueFactory;
+import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
+import org.apache.james.queue.api.MailQueueName;
+import org.apache.james.queue.api.ManageableMailQueue;
+
+import com.github.steveash.guavate.Guavate;
+
+/**
+ * {@link MailQueueFactory} implementation which returns {@link JournalMailQueue} instances
+ */
+public class JournalMailQueueFactory implements MailQueueFactory<ManageableMailQueue> {
+
+    private final Map<MailQueueName, JournalMailQueue> queues = new ConcurrentHashMap<>();
+    private final MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory;
+    private final FileSystem fs;
+    private boolean sync = true;
+    private int segmentSize = MailQueueJournal.DEFAULT_SEGMENT_SIZE;
+
+    @Inject
+    public JournalMailQueueFactory(FileSystem fs, MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory) {
+        this.fs = fs;
+        this.mailQueueItemDecoratorFactory = mailQueueItemDecoratorFactory;
+    }
+
+    @Override
+    public Set<MailQueueName> listCreatedMailQueues() {
+        return queues.values()
+            .stream()
+            .map(MailQueue::getName)
+            .collect(Guavate.toImmutableSet());
+    }
+
+    /**
+     * If <code>true</code> the later created {@link JournalMailQueue} will only acknowledge enqueues and acknowledgements
+     * once they are durably written. Concurrent operations share the same <code>fsync</code>.
+     * <p/>
+     * The default is <code>true</code>
+     */
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * Size in bytes of the journal segments of the later created {@link JournalMailQueue}. Mails bigger than that get
+     * a dedicated segment.
+     * <p/>
+     * The default is 64 MiB
+     */
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public Optional<ManageableMailQueue> getQueue(MailQueueName name, PrefetchCount prefetchCount) {
+        return Optional.ofNullable(queues.get(name));
+    }
+
+    @Override
+    public ManageableMailQueue createQueue(MailQueueName name, PrefetchCount prefetchCount) {
+        return queues.computeIfAbsent(name, mailQueueName -> {
+            try {
+                return new JournalMailQueue(mailQueueItemDecoratorFactory, fs.getFile("file://var/store/journal-queue"), mailQueueName, sync, segmentSize);
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to access queue " + mailQueueName.asString(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void dispose() {
+        queues.values().forEach(JournalMailQueue::close);
+    }
+}
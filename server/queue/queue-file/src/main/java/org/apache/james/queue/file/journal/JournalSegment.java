@@ -0,0 +1,299 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fixed capacity, memory-mapped file of the {@link MailQueueJournal}.
+ * <p/>
+ * Records are laid out back to back, each one being made of:
+ * <pre>
+ * type (1 byte) | sequence (8 bytes) | delivery date in epoch millis (8 bytes) | payload length (4 bytes) | CRC32 (4 bytes) | payload
+ * </pre>
+ * The file is preallocated, hence a zero type marks the end of the written records. A record failing its checksum
+ * denotes a write interrupted by a crash and is considered as the end of the segment too.
+ * <p/>
+ * This class is not thread safe: appends and reads are serialized by the {@link MailQueueJournal}. Slices returned by
+ * {@link #read(int, int)} stay valid even after the segment is closed and deleted, the mapping being released upon
+ * garbage collection.
+ */
+class JournalSegment implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalSegment.class);
+
+    static final byte END_OF_SEGMENT = 0;
+    static final byte ENQUEUE = 1;
+    static final byte ACKNOWLEDGE = 2;
+    static final int HEADER_SIZE = Byte.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int CHECKSUMMED_HEADER_SIZE = HEADER_SIZE - Integer.BYTES;
+    private static final String EXTENSION = ".segment";
+
+    static class Record {
+        private final byte type;
+        private final long sequence;
+        private final long deliveryDate;
+        private final int position;
+        private final int length;
+
+        Record(byte type, long sequence, long deliveryDate, int position, int length) {
+            this.type = type;
+            this.sequence = sequence;
+            this.deliveryDate = deliveryDate;
+            this.position = position;
+            this.length = length;
+        }
+
+        byte getType() {
+            return type;
+        }
+
+        long getSequence() {
+            return sequence;
+        }
+
+        long getDeliveryDate() {
+            return deliveryDate;
+        }
+
+        int getPosition() {
+            return position;
+        }
+
+        int getLength() {
+            return length;
+        }
+    }
+
+    static String fileName(long id) {
+        return String.format("%020d%s", id, EXTENSION);
+    }
+
+    static Optional<Long> parseId(String fileName) {
+        if (!fileName.endsWith(EXTENSION)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.parseLong(fileName.substring(0, fileName.length() - EXTENSION.length())));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    static JournalSegment create(File directory, long id, int capacity) throws IOException {
+        File file = new File(directory, fileName(id));
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            return new JournalSegment(id, file, channel, mapped, 0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing segment, feeding its valid records to the given consumer. The returned segment is sealed: its
+     * free space, if any, will not be appended to.
+     */
+    static JournalSegment recover(File file, long id, Consumer<Record> recordConsumer) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment " + file.getAbsolutePath() + " exceeds maximum segment size");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            JournalSegment segment = new JournalSegment(id, file, channel, mapped, 0);
+            segment.scan(recordConsumer);
+            segment.writePosition = mapped.capacity();
+            return segment;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private final long id;
+    private final File file;
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private int writePosition;
+    private int endPosition;
+    private long liveBytes;
+
+    private JournalSegment(long id, File file, FileChannel channel, MappedByteBuffer mapped, int writePosition) {
+        this.id = id;
+        this.file = file;
+        this.channel = channel;
+        this.mapped = mapped;
+        this.writePosition = writePosition;
+        this.endPosition = writePosition;
+        this.liveBytes = 0;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    /**
+     * @return the number of bytes holding records
+     */
+    int getSize() {
+        return endPosition;
+    }
+
+    long getLiveBytes() {
+        return liveBytes;
+    }
+
+    void retain(int recordLength) {
+        liveBytes += recordLength;
+    }
+
+    void release(int recordLength) {
+        liveBytes -= recordLength;
+    }
+
+    boolean hasRoomFor(int recordLength) {
+        return mapped.capacity() - writePosition >= recordLength;
+    }
+
+    /**
+     * @return the position of the appended record
+     */
+    int append(byte type, long sequence, long deliveryDate, ByteBuffer payload) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+            .put(type)
+            .putLong(sequence)
+            .putLong(deliveryDate)
+            .putInt(payload.remaining());
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, CHECKSUMMED_HEADER_SIZE);
+        crc.update(payload.duplicate());
+        header.putInt((int) crc.getValue());
+        header.flip();
+
+        return appendRaw(header, payload.duplicate());
+    }
+
+    /**
+     * Appends records read from another segment, checksums included.
+     *
+     * @return the position of the appended record
+     */
+    int appendRaw(ByteBuffer... buffers) {
+        int position = writePosition;
+        ByteBuffer target = mapped.duplicate();
+        target.position(position);
+        for (ByteBuffer buffer : buffers) {
+            target.put(buffer);
+        }
+        writePosition = target.position();
+        endPosition = writePosition;
+        return position;
+    }
+
+    ByteBuffer read(int position, int length) {
+        ByteBuffer slice = mapped.duplicate();
+        slice.position(position);
+        slice.limit(position + length);
+        return slice.slice();
+    }
+
+    ByteBuffer readPayload(JournalEntry entry) {
+        return read(entry.getPosition() + HEADER_SIZE, entry.getRecordLength() - HEADER_SIZE);
+    }
+
+    void force() {
+        mapped.force();
+    }
+
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete journal segment {}", file.getAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close journal segment {}", file.getAbsolutePath(), e);
+        }
+    }
+
+    private void scan(Consumer<Record> recordConsumer) {
+        int position = 0;
+        while (mapped.capacity() - position >= HEADER_SIZE) {
+            Optional<Record> record = readRecord(position);
+            if (!record.isPresent()) {
+                break;
+            }
+            recordConsumer.accept(record.get());
+            position += record.get().getLength();
+        }
+        endPosition = position;
+    }
+
+    private Optional<Record> readRecord(int position) {
+        ByteBuffer header = read(position, HEADER_SIZE);
+        byte type = header.get();
+        if (type == END_OF_SEGMENT) {
+            return Optional.empty();
+        }
+        long sequence = header.getLong();
+        long deliveryDate = header.getLong();
+        int payloadLength = header.getInt();
+        int checksum = header.getInt();
+
+        if ((type != ENQUEUE && type != ACKNOWLEDGE)
+            || payloadLength < 0
+            || mapped.capacity() - position - HEADER_SIZE < payloadLength) {
+            LOGGER.warn("Ignoring corrupted record at position {} of journal segment {}", position, file.getAbsolutePath());
+            return Optional.empty();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(read(position, CHECKSUMMED_HEADER_SIZE));
+        crc.update(read(position + HEADER_SIZE, payloadLength));
+        if ((int) crc.getValue() != checksum) {
+            LOGGER.warn("Ignoring partially written record at position {} of journal segment {}", position, file.getAbsolutePath());
+            return Optional.empty();
+        }
+        return Optional.of(new Record(type, sequence, deliveryDate, position, HEADER_SIZE + payloadLength));
+    }
+}
@@ -0,0 +1,419 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.james.util.concurrent.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Append-only log storing the content of a file based mail queue.
+ * <p/>
+ * The log is split into memory-mapped {@link JournalSegment}s. Enqueued mails are appended to the active segment
+ * along with their delivery date, and acknowledgements are appended as small records referencing the sequence of
+ * the mail. An in-memory index keeps track of the location of unacknowledged mails, and is rebuilt by scanning the
+ * segments upon {@link #open(File, boolean, int)}.
+ * <p/>
+ * When <code>sync</code> is enabled, appends complete only once written records are durable. Concurrent appends
+ * are committed together by a single syncing thread, so that one <code>msync</code> call is shared by all the
+ * records appended meanwhile.
+ * <p/>
+ * Segments are reclaimed oldest first: the live records of the oldest segments are copied to the active segment
+ * and these segments are deleted, once their live records fall below a threshold of their total size. A segment
+ * holding long-delayed mails is thus relocated as soon as enough dead records pile up in the segments following it.
+ * Deleting segments in order guarantees that an acknowledgement record is never reclaimed before the record it
+ * acknowledges.
+ */
+public class MailQueueJournal implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailQueueJournal.class);
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final double COMPACTION_THRESHOLD = 0.5;
+    private static final long COMPACTION_INTERVAL_IN_SECONDS = 60;
+    private static final long SYNC_POLL_INTERVAL_IN_MILLIS = 100;
+    private static final ByteBuffer NO_PAYLOAD = ByteBuffer.allocate(0);
+
+    private static class PendingSync {
+        private final JournalSegment segment;
+        private final CompletableFuture<Void> future;
+
+        PendingSync(JournalSegment segment) {
+            this.segment = segment;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+    public static MailQueueJournal open(File directory, boolean sync, int segmentSize) throws IOException {
+        Preconditions.checkArgument(segmentSize > JournalSegment.HEADER_SIZE, "'segmentSize' should be greater than " + JournalSegment.HEADER_SIZE);
+
+        FileUtils.forceMkdir(directory);
+        MailQueueJournal journal = new MailQueueJournal(directory, sync, segmentSize);
+        journal.recover();
+        journal.start();
+        return journal;
+    }
+
+    private final File directory;
+    private final boolean sync;
+    private final int segmentSize;
+    private final Object lock;
+    private final TreeMap<Long, JournalSegment> segments;
+    private final ConcurrentSkipListMap<Long, JournalEntry> entries;
+    private final LinkedBlockingQueue<PendingSync> pendingSyncs;
+    private final ExecutorService syncer;
+    private final ScheduledExecutorService compactor;
+    private JournalSegment activeSegment;
+    private long nextSequence;
+    private volatile boolean closed;
+
+    private MailQueueJournal(File directory, boolean sync, int segmentSize) {
+        this.directory = directory;
+        this.sync = sync;
+        this.segmentSize = segmentSize;
+        this.lock = new Object();
+        this.segments = new TreeMap<>();
+        this.entries = new ConcurrentSkipListMap<>();
+        this.pendingSyncs = new LinkedBlockingQueue<>();
+        this.syncer = Executors.newSingleThreadExecutor(NamedThreadFactory.withName("journal-sync-" + directory.getName()));
+        this.compactor = Executors.newSingleThreadScheduledExecutor(NamedThreadFactory.withName("journal-compaction-" + directory.getName()));
+        this.closed = false;
+    }
+
+    private void recover() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> JournalSegment.parseId(name).isPresent());
+        TreeMap<Long, File> segmentFiles = new TreeMap<>();
+        for (File file : files) {
+            segmentFiles.put(JournalSegment.parseId(file.getName()).get(), file);
+        }
+
+        for (Map.Entry<Long, File> segmentFile : segmentFiles.entrySet()) {
+            long segmentId = segmentFile.getKey();
+            JournalSegment segment = JournalSegment.recover(segmentFile.getValue(), segmentId,
+                record -> replay(segmentId, record));
+            segments.put(segmentId, segment);
+        }
+        entries.values().forEach(entry -> segments.get(entry.getSegmentId()).retain(entry.getRecordLength()));
+
+        long nextSegmentId = segmentFiles.isEmpty() ? 0 : segmentFiles.lastKey() + 1;
+        activeSegment = createSegment(nextSegmentId, segmentSize);
+    }
+
+    private void replay(long segmentId, JournalSegment.Record record) {
+        nextSequence = Math.max(nextSequence, record.getSequence() + 1);
+        switch (record.getType()) {
+            case JournalSegment.ENQUEUE:
+                // A record can be present twice if a compaction was interrupted: the latest copy wins
+                entries.put(record.getSequence(), new JournalEntry(record.getSequence(), segmentId, record.getPosition(),
+                    record.getLength(), Instant.ofEpochMilli(record.getDeliveryDate())));
+                break;
+            case JournalSegment.ACKNOWLEDGE:
+                entries.remove(record.getSequence());
+                break;
+            default:
+                throw new IllegalStateException("Unknown record type " + record.getType());
+        }
+    }
+
+    private void start() {
+        if (sync) {
+            syncer.execute(this::syncLoop);
+        }
+        compactor.scheduleWithFixedDelay(this::compactQuietly, 0, COMPACTION_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Appends a mail to the journal.
+     *
+     * @param deliveryDate date at which the mail should be dequeued
+     * @param payload the serialized mail
+     * @return a future completed with the location of the record once it is committed
+     */
+    public CompletableFuture<JournalEntry> append(Instant deliveryDate, ByteBuffer payload) {
+        JournalEntry entry;
+        JournalSegment segment;
+        synchronized (lock) {
+            try {
+                int recordLength = JournalSegment.HEADER_SIZE + payload.remaining();
+                segment = segmentFor(recordLength);
+                long sequence = nextSequence++;
+                int position = segment.append(JournalSegment.ENQUEUE, sequence, deliveryDate.toEpochMilli(), payload);
+                entry = new JournalEntry(sequence, segment.getId(), position, recordLength, deliveryDate);
+                segment.retain(recordLength);
+                entries.put(sequence, entry);
+            } catch (IOException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return commit(segment).thenApply(any -> entry);
+    }
+
+    /**
+     * Marks a mail as processed. Its record will be reclaimed upon compaction.
+     *
+     * @return a future completed with <code>true</code> once the acknowledgement is committed, or with
+     * <code>false</code> if the mail was already acknowledged
+     */
+    public CompletableFuture<Boolean> acknowledge(long sequence) {
+        JournalSegment segment;
+        synchronized (lock) {
+            try {
+                ensureOpen();
+                JournalEntry entry = entries.get(sequence);
+                if (entry == null) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                segment = segmentFor(JournalSegment.HEADER_SIZE);
+                segment.append(JournalSegment.ACKNOWLEDGE, sequence, 0, NO_PAYLOAD);
+                entries.remove(sequence);
+                segments.get(entry.getSegmentId()).release(entry.getRecordLength());
+            } catch (IOException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return commit(segment).thenApply(any -> true);
+    }
+
+    /**
+     * @return the payload of an unacknowledged mail, backed by the memory mapping of its segment
+     */
+    public Optional<ByteBuffer> read(long sequence) {
+        synchronized (lock) {
+            return Optional.ofNullable(entries.get(sequence))
+                .map(entry -> segments.get(entry.getSegmentId()).readPayload(entry));
+        }
+    }
+
+    public Optional<JournalEntry> entry(long sequence) {
+        return Optional.ofNullable(entries.get(sequence));
+    }
+
+    /**
+     * @return the unacknowledged mails, in append order
+     */
+    public Collection<JournalEntry> entries() {
+        return ImmutableList.copyOf(entries.values());
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    /**
+     * Reclaims the oldest segments holding few live records.
+     */
+    public void compact() throws IOException {
+        synchronized (lock) {
+            int reclaimableSegmentCount = reclaimableSegmentCount();
+            for (int i = 0; i < reclaimableSegmentCount; i++) {
+                JournalSegment oldest = segments.firstEntry().getValue();
+                relocateLiveEntries(oldest);
+                segments.remove(oldest.getId());
+                oldest.delete();
+            }
+        }
+    }
+
+    /**
+     * @return the length of the longest run of oldest inactive segments whose live records, all together, fall below
+     * the compaction threshold. Relocation thus copies at most as many bytes as are reclaimed.
+     */
+    private int reclaimableSegmentCount() {
+        long liveBytes = 0;
+        long size = 0;
+        int count = 0;
+        int reclaimableCount = 0;
+        for (JournalSegment segment : segments.values()) {
+            if (segment == activeSegment) {
+                break;
+            }
+            liveBytes += segment.getLiveBytes();
+            size += segment.getSize();
+            count++;
+            if (liveBytes <= size * COMPACTION_THRESHOLD) {
+                reclaimableCount = count;
+            }
+        }
+        return reclaimableCount;
+    }
+
+    @VisibleForTesting
+    int segmentCount() {
+        synchronized (lock) {
+            return segments.size();
+        }
+    }
+
+    private void relocateLiveEntries(JournalSegment source) throws IOException {
+        if (source.getLiveBytes() == 0) {
+            return;
+        }
+        List<JournalEntry> liveEntries = entries.values()
+            .stream()
+            .filter(entry -> entry.getSegmentId() == source.getId())
+            .collect(ImmutableList.toImmutableList());
+
+        Set<JournalSegment> targets = new HashSet<>();
+        for (JournalEntry entry : liveEntries) {
+            JournalSegment target = segmentFor(entry.getRecordLength());
+            int position = target.appendRaw(source.read(entry.getPosition(), entry.getRecordLength()));
+            target.retain(entry.getRecordLength());
+            source.release(entry.getRecordLength());
+            entries.put(entry.getSequence(), entry.relocate(target.getId(), position));
+            targets.add(target);
+        }
+        if (sync) {
+            // Copies need to be durable before the original records are deleted
+            targets.forEach(JournalSegment::force);
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (Exception e) {
+            LOGGER.error("Error while compacting mail queue journal {}", directory.getAbsolutePath(), e);
+        }
+    }
+
+    private JournalSegment segmentFor(int recordLength) throws IOException {
+        ensureOpen();
+        if (!activeSegment.hasRoomFor(recordLength)) {
+            if (sync) {
+                activeSegment.force();
+            }
+            activeSegment = createSegment(activeSegment.getId() + 1, Math.max(segmentSize, recordLength));
+            scheduleCompaction();
+        }
+        return activeSegment;
+    }
+
+    private JournalSegment createSegment(long id, int capacity) throws IOException {
+        JournalSegment segment = JournalSegment.create(directory, id, capacity);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private void scheduleCompaction() {
+        try {
+            compactor.execute(this::compactQuietly);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Journal {} is closing, skipping compaction", directory.getAbsolutePath());
+        }
+    }
+
+    private CompletableFuture<Void> commit(JournalSegment segment) {
+        if (!sync) {
+            return CompletableFuture.completedFuture(null);
+        }
+        PendingSync pendingSync = new PendingSync(segment);
+        pendingSyncs.add(pendingSync);
+        if (closed) {
+            // The syncing thread might have exited already
+            syncPending();
+        }
+        return pendingSync.future;
+    }
+
+    private void syncLoop() {
+        while (!closed) {
+            try {
+                PendingSync first = pendingSyncs.poll(SYNC_POLL_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    List<PendingSync> batch = new ArrayList<>();
+                    batch.add(first);
+                    pendingSyncs.drainTo(batch);
+                    sync(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void syncPending() {
+        List<PendingSync> batch = new ArrayList<>();
+        pendingSyncs.drainTo(batch);
+        sync(batch);
+    }
+
+    private void sync(List<PendingSync> batch) {
+        try {
+            batch.stream()
+                .map(pendingSync -> pendingSync.segment)
+                .distinct()
+                .forEach(JournalSegment::force);
+            batch.forEach(pendingSync -> pendingSync.future.complete(null));
+        } catch (RuntimeException e) {
+            LOGGER.error("Error while syncing mail queue journal {}", directory.getAbsolutePath(), e);
+            batch.forEach(pendingSync -> pendingSync.future.completeExceptionally(e));
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Mail queue journal " + directory.getAbsolutePath() + " is closed");
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        compactor.shutdown();
+        syncer.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.SECONDS);
+            syncer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        syncPending();
+        synchronized (lock) {
+            segments.values().forEach(JournalSegment::close);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file.journal;
+
+import static org.apache.james.queue.api.Mails.defaultMail;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.time.Duration;
+
+import org.apache.james.queue.api.DelayedManageableMailQueueContract;
+import org.apache.james.queue.api.MailQueue;
+import org.apache.james.queue.api.MailQueueName;
+import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.queue.api.RawMailQueueItemDecoratorFactory;
+import org.apache.mailet.Mail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.fge.lambdas.Throwing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class JournalMailQueueTest implements DelayedManageableMailQueueContract {
+    private static final boolean SYNC = true;
+    private static final int SEGMENT_SIZE = 1024 * 1024;
+    private static final MailQueueName NAME = MailQueueName.of("test");
+
+    @TempDir
+    File temporaryFolder;
+
+    private JournalMailQueue mailQueue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mailQueue = createQueue();
+    }
+
+    @AfterEach
+    void teardown() {
+        mailQueue.close();
+    }
+
+    private JournalMailQueue createQueue() throws Exception {
+        return new JournalMailQueue(new RawMailQueueItemDecoratorFactory(), temporaryFolder, NAME, SYNC, SEGMENT_SIZE);
+    }
+
+    private JournalMailQueue restart() throws Exception {
+        mailQueue.close();
+        mailQueue = createQueue();
+        return mailQueue;
+    }
+
+    @Override
+    @Disabled("JAMES-3431 No support for Attribute collection Java serialization yet")
+    public void queueShouldPreserveDsnParameters() {
+
+    }
+
+    @Override
+    public MailQueue getMailQueue() {
+        return mailQueue;
+    }
+
+    @Override
+    public ManageableMailQueue getManageableMailQueue() {
+        return mailQueue;
+    }
+
+    @Test
+    void enqueuedMailsShouldBeDequeuedAfterRestart() throws Exception {
+        enQueue(defaultMail()
+            .name("name1")
+            .build());
+        enQueue(defaultMail()
+            .name("name2")
+            .build());
+
+        Flux<String> names = Flux.from(restart().deQueue())
+            .take(2)
+            .map(MailQueue.MailQueueItem::getMail)
+            .map(Mail::getName);
+
+        assertThat(names.collectList().block())
+            .containsExactly("name1", "name2");
+    }
+
+    @Test
+    void acknowledgedMailsShouldNotBeDequeuedAfterRestart() throws Exception {
+        enQueue(defaultMail()
+            .name("name1")
+            .build());
+        enQueue(defaultMail()
+            .name("name2")
+            .build());
+        Flux.from(mailQueue.deQueue())
+            .doOnNext(Throwing.consumer(item -> item.done(true)))
+            .blockFirst();
+
+        MailQueue.MailQueueItem item = Flux.from(restart().deQueue()).blockFirst();
+
+        assertThat(item.getMail().getName()).isEqualTo("name2");
+        assertThat(mailQueue.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void nonAcknowledgedMailsShouldBeDequeuedAfterRestart() throws Exception {
+        enQueue(defaultMail()
+            .name("name1")
+            .build());
+        Flux.from(mailQueue.deQueue()).blockFirst();
+
+        MailQueue.MailQueueItem item = Flux.from(restart().deQueue()).blockFirst();
+
+        assertThat(item.getMail().getName()).isEqualTo("name1");
+    }
+
+    @Test
+    void removedMailsShouldNotBeDequeuedAfterRestart() throws Exception {
+        enQueue(defaultMail()
+            .name("name1")
+            .build());
+        enQueue(defaultMail()
+            .name("name2")
+            .build());
+        mailQueue.remove(ManageableMailQueue.Type.Name, "name1");
+
+        MailQueue.MailQueueItem item = Flux.from(restart().deQueue()).blockFirst();
+
+        assertThat(item.getMail().getName()).isEqualTo("name2");
+    }
+
+    @Test
+    void delaysShouldBePreservedUponRestart() throws Exception {
+        mailQueue.enQueue(defaultMail()
+            .name("name1")
+            .build(), Duration.ofMinutes(30));
+
+        Mono<MailQueue.MailQueueItem> next = Flux.from(restart().deQueue()).next();
+        assertThatThrownBy(() -> next.block(Duration.ofSeconds(1)))
+            .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void mimeMessageShouldBePreservedUponRestart() throws Exception {
+        Mail mail = defaultMail()
+            .name("name1")
+            .build();
+        enQueue(mail);
+
+        MailQueue.MailQueueItem item = Flux.from(restart().deQueue()).blockFirst();
+
+        assertThat(item.getMail().getMessage().getSubject())
+            .isEqualTo(mail.getMessage().getSubject());
+    }
+
+    @Test
+    void mailsBiggerThanSegmentsShouldBeSupported() throws Exception {
+        mailQueue.close();
+        mailQueue = new JournalMailQueue(new RawMailQueueItemDecoratorFactory(), temporaryFolder, NAME, SYNC, 1024);
+
+        enQueue(defaultMail()
+            .name("name1")
+            .build());
+
+        MailQueue.MailQueueItem item = Flux.from(restart().deQueue()).blockFirst();
+
+        assertThat(item.getMail().getName()).isEqualTo("name1");
+    }
+
+    @Test
+    void queueShouldWorkWithoutSync() throws Exception {
+        mailQueue.close();
+        mailQueue = new JournalMailQueue(new RawMailQueueItemDecoratorFactory(), temporaryFolder, NAME, !SYNC, SEGMENT_SIZE);
+
+        enQueue(defaultMail()
+            .name("name1")
+            .build());
+
+        MailQueue.MailQueueItem item = Flux.from(mailQueue.deQueue()).blockFirst();
+
+        assertThat(item.getMail().getName()).isEqualTo("name1");
+    }
+
+    @Test
+    void deQueueShouldCompleteUponClose() {
+        Mono<Long> dequeued = Flux.from(mailQueue.deQueue())
+            .count()
+            .cache();
+        dequeued.subscribe();
+
+        mailQueue.close();
+
+        assertThat(dequeued.block(Duration.ofSeconds(5))).isZero();
+    }
+
+    @Test
+    void mailsNotHandedToACancelledDequeuerShouldBeDequeuedAgain() throws Exception {
+        enQueue(defaultMail()
+            .name("name1")
+            .build());
+        enQueue(defaultMail()
+            .name("name2")
+            .build());
+        Flux.from(mailQueue.deQueue()).blockFirst();
+
+        MailQueue.MailQueueItem item = Flux.from(mailQueue.deQueue()).blockFirst(Duration.ofSeconds(5));
+
+        assertThat(item.getMail().getName()).isEqualTo("name2");
+    }
+}
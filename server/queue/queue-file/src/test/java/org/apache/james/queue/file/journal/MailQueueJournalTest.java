@@ -0,0 +1,292 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.collect.ImmutableList;
+
+class MailQueueJournalTest {
+    private static final boolean SYNC = true;
+    private static final int SEGMENT_SIZE = 1024;
+    private static final Instant DELIVERY_DATE = Instant.parse("2020-10-15T10:00:00Z");
+
+    @TempDir
+    File directory;
+
+    private MailQueueJournal journal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journal = MailQueueJournal.open(directory, SYNC, SEGMENT_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    private MailQueueJournal reopen() throws Exception {
+        journal.close();
+        journal = MailQueueJournal.open(directory, SYNC, SEGMENT_SIZE);
+        return journal;
+    }
+
+    private static ByteBuffer payload(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String asString(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+    @Test
+    void readShouldReturnAppendedPayload() {
+        JournalEntry entry = journal.append(DELIVERY_DATE, payload("content")).join();
+
+        assertThat(journal.read(entry.getSequence()).map(MailQueueJournalTest::asString))
+            .contains("content");
+    }
+
+    @Test
+    void readShouldReturnEmptyWhenUnknownSequence() {
+        assertThat(journal.read(42)).isEmpty();
+    }
+
+    @Test
+    void appendShouldAssignIncreasingSequences() {
+        JournalEntry entry1 = journal.append(DELIVERY_DATE, payload("content1")).join();
+        JournalEntry entry2 = journal.append(DELIVERY_DATE, payload("content2")).join();
+
+        assertThat(entry2.getSequence()).isGreaterThan(entry1.getSequence());
+    }
+
+    @Test
+    void entriesShouldBeOrderedBySequence() {
+        JournalEntry entry1 = journal.append(DELIVERY_DATE, payload("content1")).join();
+        JournalEntry entry2 = journal.append(DELIVERY_DATE, payload("content2")).join();
+
+        assertThat(journal.entries()).containsExactly(entry1, entry2);
+    }
+
+    @Test
+    void acknowledgeShouldRemoveEntry() {
+        JournalEntry entry = journal.append(DELIVERY_DATE, payload("content")).join();
+
+        journal.acknowledge(entry.getSequence()).join();
+
+        assertThat(journal.read(entry.getSequence())).isEmpty();
+        assertThat(journal.size()).isZero();
+    }
+
+    @Test
+    void acknowledgeShouldReturnFalseWhenAlreadyAcknowledged() {
+        JournalEntry entry = journal.append(DELIVERY_DATE, payload("content")).join();
+        journal.acknowledge(entry.getSequence()).join();
+
+        assertThat(journal.acknowledge(entry.getSequence()).join()).isFalse();
+    }
+
+    @Test
+    void concurrentAppendsShouldAllBeCommitted() {
+        ImmutableList<CompletableFuture<JournalEntry>> appends = IntStream.range(0, 100)
+            .parallel()
+            .mapToObj(i -> journal.append(DELIVERY_DATE, payload("content" + i)))
+            .collect(ImmutableList.toImmutableList());
+
+        CompletableFuture.allOf(appends.toArray(new CompletableFuture[0])).join();
+
+        assertThat(journal.size()).isEqualTo(100);
+    }
+
+    @Test
+    void entriesShouldBeRecoveredUponReopening() throws Exception {
+        JournalEntry entry = journal.append(DELIVERY_DATE, payload("content")).join();
+
+        MailQueueJournal reopened = reopen();
+
+        assertThat(reopened.entries())
+            .extracting(JournalEntry::getSequence, JournalEntry::getDeliveryDate)
+            .containsExactly(tuple(entry.getSequence(), DELIVERY_DATE));
+        assertThat(reopened.read(entry.getSequence()).map(MailQueueJournalTest::asString))
+            .contains("content");
+    }
+
+    @Test
+    void acknowledgementsShouldBeRecoveredUponReopening() throws Exception {
+        JournalEntry entry1 = journal.append(DELIVERY_DATE, payload("content1")).join();
+        JournalEntry entry2 = journal.append(DELIVERY_DATE, payload("content2")).join();
+        journal.acknowledge(entry1.getSequence()).join();
+
+        assertThat(reopen().entries())
+            .extracting(JournalEntry::getSequence)
+            .containsExactly(entry2.getSequence());
+    }
+
+    @Test
+    void sequencesShouldKeepIncreasingUponReopening() throws Exception {
+        JournalEntry entry1 = journal.append(DELIVERY_DATE, payload("content1")).join();
+        journal.acknowledge(entry1.getSequence()).join();
+
+        JournalEntry entry2 = reopen().append(DELIVERY_DATE, payload("content2")).join();
+
+        assertThat(entry2.getSequence()).isGreaterThan(entry1.getSequence());
+    }
+
+    @Test
+    void partiallyWrittenRecordsShouldBeIgnoredUponReopening() throws Exception {
+        JournalEntry entry1 = journal.append(DELIVERY_DATE, payload("content1")).join();
+        JournalEntry entry2 = journal.append(DELIVERY_DATE, payload("content2")).join();
+        journal.close();
+
+        File segment = new File(directory, JournalSegment.fileName(entry2.getSegmentId()));
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(entry2.getPosition() + entry2.getRecordLength() - 1);
+            file.write('X');
+        }
+
+        assertThat(reopen().entries())
+            .extracting(JournalEntry::getSequence)
+            .containsExactly(entry1.getSequence());
+    }
+
+    @Test
+    void appendShouldRollSegmentsWhenFull() {
+        IntStream.range(0, 50)
+            .forEach(i -> journal.append(DELIVERY_DATE, payload("content" + i)).join());
+
+        assertThat(journal.segmentCount()).isGreaterThan(1);
+    }
+
+    @Test
+    void appendShouldSupportPayloadsBiggerThanSegments() throws Exception {
+        String content = "a".repeat(SEGMENT_SIZE * 2);
+        JournalEntry entry = journal.append(DELIVERY_DATE, payload(content)).join();
+
+        assertThat(reopen().read(entry.getSequence()).map(MailQueueJournalTest::asString))
+            .contains(content);
+    }
+
+    @Test
+    void compactShouldDeleteFullyAcknowledgedSegments() throws Exception {
+        IntStream.range(0, 50)
+            .mapToObj(i -> journal.append(DELIVERY_DATE, payload("content" + i)).join())
+            .forEach(entry -> journal.acknowledge(entry.getSequence()).join());
+
+        journal.compact();
+
+        assertThat(journal.segmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void compactShouldRelocateLiveEntries() throws Exception {
+        ImmutableList<JournalEntry> entries = IntStream.range(0, 50)
+            .mapToObj(i -> journal.append(DELIVERY_DATE, payload("content" + i)).join())
+            .collect(ImmutableList.toImmutableList());
+        JournalEntry survivor = entries.get(0);
+        entries.stream()
+            .skip(1)
+            .forEach(entry -> journal.acknowledge(entry.getSequence()).join());
+
+        journal.compact();
+
+        assertThat(journal.entry(survivor.getSequence()).map(JournalEntry::getSegmentId))
+            .isNotEqualTo(survivor.getSegmentId());
+        assertThat(journal.read(survivor.getSequence()).map(MailQueueJournalTest::asString))
+            .contains("content0");
+    }
+
+    @Test
+    void relocatedEntriesShouldBeRecoveredUponReopening() throws Exception {
+        ImmutableList<JournalEntry> entries = IntStream.range(0, 50)
+            .mapToObj(i -> journal.append(DELIVERY_DATE, payload("content" + i)).join())
+            .collect(ImmutableList.toImmutableList());
+        JournalEntry survivor = entries.get(0);
+        entries.stream()
+            .skip(1)
+            .forEach(entry -> journal.acknowledge(entry.getSequence()).join());
+        journal.compact();
+
+        MailQueueJournal reopened = reopen();
+
+        assertThat(reopened.entries())
+            .extracting(JournalEntry::getSequence)
+            .containsExactly(survivor.getSequence());
+        assertThat(reopened.read(survivor.getSequence()).map(MailQueueJournalTest::asString))
+            .contains("content0");
+    }
+
+    @Test
+    void compactShouldRelocateOldestSegmentWhenItBlocksReclaimableSegments() throws Exception {
+        ImmutableList<JournalEntry> delayedEntries = IntStream.range(0, 20)
+            .mapToObj(i -> journal.append(DELIVERY_DATE, payload("delayed" + i)).join())
+            .collect(ImmutableList.toImmutableList());
+        IntStream.range(0, 200)
+            .mapToObj(i -> journal.append(DELIVERY_DATE, payload("content" + i)).join())
+            .forEach(entry -> journal.acknowledge(entry.getSequence()).join());
+
+        journal.compact();
+
+        assertThat(journal.segmentCount()).isLessThanOrEqualTo(2);
+        assertThat(journal.entries())
+            .extracting(JournalEntry::getSequence)
+            .containsExactlyElementsOf(delayedEntries.stream()
+                .map(JournalEntry::getSequence)
+                .collect(ImmutableList.toImmutableList()));
+        assertThat(journal.read(delayedEntries.get(0).getSequence()).map(MailQueueJournalTest::asString))
+            .contains("delayed0");
+    }
+
+    @Test
+    void compactShouldNotReclaimSegmentsWithManyLiveEntries() throws Exception {
+        IntStream.range(0, 50)
+            .forEach(i -> journal.append(DELIVERY_DATE, payload("content" + i)).join());
+        int segmentCount = journal.segmentCount();
+
+        journal.compact();
+
+        assertThat(journal.segmentCount()).isEqualTo(segmentCount);
+        assertThat(journal.size()).isEqualTo(50);
+    }
+
+    @Test
+    void appendShouldFailWhenClosed() {
+        journal.close();
+
+        assertThatThrownBy(() -> journal.append(DELIVERY_DATE, payload("content")).get())
+            .isInstanceOf(ExecutionException.class);
+    }
+}
@@ -97,6 +97,10 @@ import reactor.core.publisher.Mono;
  * It use {@link ObjectMessage} with a byte array as payload to store the
  * {@link Mail} objects.
  * </p>
+ * <p>
+ * JMS sessions are blocking: reactive enqueues are offloaded by the default
+ * {@link MailQueue#enqueueReactive(Mail)}.
+ * </p>
  */
 public class JMSCacheableMailQueue implements ManageableMailQueue, JMSSupport, MailPrioritySupport, Disposable {
 
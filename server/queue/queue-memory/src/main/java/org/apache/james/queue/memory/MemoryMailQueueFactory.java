@@ -144,6 +144,20 @@ public class MemoryMailQueueFactory implements MailQueueFactory<MemoryMailQueueF
             enQueue(mail, 0, TimeUnit.SECONDS);
         }
 
+        @Override
+        public Mono<Void> enqueueReactive(Mail mail) {
+            return enqueueReactive(mail, Duration.ZERO);
+        }
+
+        @Override
+        public Mono<Void> enqueueReactive(Mail mail, Duration delay) {
+            // DelayQueue is unbounded: enqueueing never blocks, no need to offload it
+            return Mono.fromCallable(() -> {
+                enQueue(mail, delay);
+                return null;
+            });
+        }
+
         private Mail cloneMail(Mail mail) throws MessagingException {
             MailImpl mailImpl = MailImpl.duplicate(mail);
             mailImpl.setName(mail.getName());
@@ -0,0 +1,103 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * A mail reference waiting in Cassandra for its delivery date before being published to RabbitMQ.
+ */
+public class DelayedMail {
+    /**
+     * Cassandra timestamps are stored with a millisecond precision: later delivery dates are
+     * truncated to this value, which anyway means "never" before an explicit flush.
+     */
+    public static final Instant MAX_DELIVERY_DATE = Instant.ofEpochMilli(Long.MAX_VALUE);
+
+    public static DelayedMail of(EnqueueId enqueueId, Instant deliveryDate, byte[] mailReference) {
+        Preconditions.checkNotNull(enqueueId);
+        Preconditions.checkNotNull(deliveryDate);
+        Preconditions.checkNotNull(mailReference);
+
+        return new DelayedMail(enqueueId, min(deliveryDate, MAX_DELIVERY_DATE), mailReference);
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        if (a.isAfter(b)) {
+            return b;
+        }
+        return a;
+    }
+
+    private final EnqueueId enqueueId;
+    private final Instant deliveryDate;
+    private final byte[] mailReference;
+
+    private DelayedMail(EnqueueId enqueueId, Instant deliveryDate, byte[] mailReference) {
+        this.enqueueId = enqueueId;
+        this.deliveryDate = deliveryDate;
+        this.mailReference = mailReference;
+    }
+
+    public EnqueueId getEnqueueId() {
+        return enqueueId;
+    }
+
+    public Instant getDeliveryDate() {
+        return deliveryDate;
+    }
+
+    /**
+     * @return the serialized {@link MailReferenceDTO}, as published to RabbitMQ
+     */
+    public byte[] getMailReference() {
+        return mailReference;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof DelayedMail) {
+            DelayedMail that = (DelayedMail) o;
+
+            return Objects.equals(this.enqueueId, that.enqueueId)
+                && Objects.equals(this.deliveryDate, that.deliveryDate)
+                && Arrays.equals(this.mailReference, that.mailReference);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(enqueueId, deliveryDate, Arrays.hashCode(mailReference));
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("enqueueId", enqueueId)
+            .add("deliveryDate", deliveryDate)
+            .toString();
+    }
+}
@@ -0,0 +1,78 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq;
+
+import java.io.Closeable;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Periodically publishes to RabbitMQ the delayed mails that are due.
+ *
+ * Delayed mails are stored in Cassandra, thus survive restarts, and are claimed by a single scheduler
+ * even when several James servers poll the same mail queue.
+ */
+class DelayedMailScheduler implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DelayedMailScheduler.class);
+
+    private final MailQueueName name;
+    private final Enqueuer enqueuer;
+    private final Disposable disposable;
+
+    DelayedMailScheduler(MailQueueName name, Enqueuer enqueuer, Duration pollingInterval) {
+        this.name = name;
+        this.enqueuer = enqueuer;
+        this.disposable = Flux.interval(pollingInterval, Schedulers.elastic())
+            .onBackpressureDrop()
+            .concatMap(any -> publishDueMails())
+            .subscribe();
+    }
+
+    private Mono<Long> publishDueMails() {
+        return Mono.defer(enqueuer::publishDueDelayedMails)
+            .doOnNext(count -> {
+                if (count > 0) {
+                    LOGGER.debug("Published {} delayed mails of queue {}", count, name.asString());
+                }
+            })
+            .onErrorResume(e -> {
+                LOGGER.error("Failed publishing delayed mails of queue {}", name.asString(), e);
+                return Mono.empty();
+            });
+    }
+
+    long flush() {
+        return enqueuer.publishAllDelayedMails()
+            .subscribeOn(Schedulers.elastic())
+            .block();
+    }
+
+    @Override
+    public void close() {
+        disposable.dispose();
+    }
+}
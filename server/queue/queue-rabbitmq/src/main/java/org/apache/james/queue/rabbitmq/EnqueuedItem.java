@@ -21,6 +21,7 @@ package org.apache.james.queue.rabbitmq;
 
 import java.time.Instant;
 import java.util.Objects;
+import java.util.Optional;
 
 import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.mailet.Mail;
@@ -53,7 +54,25 @@ public class EnqueuedItem {
 
         @FunctionalInterface
         interface RequireMimeMessagePartsId {
-            ReadyToBuild mimeMessagePartsId(MimeMessagePartsId partsId);
+            ReadyToBuild content(Optional<MimeMessagePartsId> partsId, Optional<InlineMessage> inlineMessage);
+
+            default ReadyToBuild partsId(Optional<MimeMessagePartsId> partsId) {
+                return content(partsId, Optional.empty());
+            }
+
+            default ReadyToBuild mimeMessagePartsId(MimeMessagePartsId partsId) {
+                Preconditions.checkNotNull(partsId, "'partsId' is mandatory");
+                return partsId(Optional.of(partsId));
+            }
+
+            default ReadyToBuild inlineMessage() {
+                return partsId(Optional.empty());
+            }
+
+            default ReadyToBuild inlineMessage(InlineMessage inlineMessage) {
+                Preconditions.checkNotNull(inlineMessage, "'inlineMessage' is mandatory");
+                return content(Optional.empty(), Optional.of(inlineMessage));
+            }
         }
 
         class ReadyToBuild {
@@ -61,44 +80,49 @@ public class EnqueuedItem {
             private final MailQueueName mailQueueName;
             private final Mail mail;
             private final Instant enqueuedTime;
-            private final MimeMessagePartsId partsId;
+            private final Optional<MimeMessagePartsId> partsId;
+            private final Optional<InlineMessage> inlineMessage;
 
-            ReadyToBuild(EnqueueId enqueueId, MailQueueName mailQueueName, Mail mail, Instant enqueuedTime, MimeMessagePartsId partsId) {
+            ReadyToBuild(EnqueueId enqueueId, MailQueueName mailQueueName, Mail mail, Instant enqueuedTime, Optional<MimeMessagePartsId> partsId, Optional<InlineMessage> inlineMessage) {
                 Preconditions.checkNotNull(enqueueId, "'enqueueId' is mandatory");
                 Preconditions.checkNotNull(mailQueueName, "'mailQueueName' is mandatory");
                 Preconditions.checkNotNull(mail, "'mail' is mandatory");
                 Preconditions.checkNotNull(enqueuedTime, "'enqueuedTime' is mandatory");
                 Preconditions.checkNotNull(partsId, "'partsId' is mandatory");
+                Preconditions.checkNotNull(inlineMessage, "'inlineMessage' is mandatory");
 
                 this.enqueueId = enqueueId;
                 this.mailQueueName = mailQueueName;
                 this.mail = mail;
                 this.enqueuedTime = enqueuedTime;
                 this.partsId = partsId;
+                this.inlineMessage = inlineMessage;
             }
 
             public EnqueuedItem build() {
-                return new EnqueuedItem(enqueueId, mailQueueName, mail, enqueuedTime, partsId);
+                return new EnqueuedItem(enqueueId, mailQueueName, mail, enqueuedTime, partsId, inlineMessage);
             }
         }
     }
 
     public static Builder.RequireEnqueueId builder() {
-        return enqueueId -> queueName -> mail -> enqueuedTime -> partsId -> new Builder.ReadyToBuild(enqueueId, queueName, mail, enqueuedTime, partsId);
+        return enqueueId -> queueName -> mail -> enqueuedTime -> (partsId, inlineMessage) -> new Builder.ReadyToBuild(enqueueId, queueName, mail, enqueuedTime, partsId, inlineMessage);
     }
 
     private final EnqueueId enqueueId;
     private final MailQueueName mailQueueName;
     private final Mail mail;
     private final Instant enqueuedTime;
-    private final MimeMessagePartsId partsId;
+    private final Optional<MimeMessagePartsId> partsId;
+    private final Optional<InlineMessage> inlineMessage;
 
-    EnqueuedItem(EnqueueId enqueueId, MailQueueName mailQueueName, Mail mail, Instant enqueuedTime, MimeMessagePartsId partsId) {
+    EnqueuedItem(EnqueueId enqueueId, MailQueueName mailQueueName, Mail mail, Instant enqueuedTime, Optional<MimeMessagePartsId> partsId, Optional<InlineMessage> inlineMessage) {
         this.enqueueId = enqueueId;
         this.mailQueueName = mailQueueName;
         this.mail = mail;
         this.enqueuedTime = enqueuedTime;
         this.partsId = partsId;
+        this.inlineMessage = inlineMessage;
     }
 
     public EnqueueId getEnqueueId() {
@@ -117,10 +141,20 @@ public class EnqueuedItem {
         return enqueuedTime;
     }
 
-    public MimeMessagePartsId getPartsId() {
+    /**
+     * @return the blobs holding the message, empty when the message content travels inline
+     */
+    public Optional<MimeMessagePartsId> getPartsId() {
         return partsId;
     }
 
+    /**
+     * @return the serialized message travelling inline, only known while enqueuing as the view stores it apart
+     */
+    public Optional<InlineMessage> getInlineMessage() {
+        return inlineMessage;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof EnqueuedItem) {
@@ -130,13 +164,14 @@ public class EnqueuedItem {
                 && Objects.equals(this.mailQueueName, that.mailQueueName)
                 && Objects.equals(this.mail, that.mail)
                 && Objects.equals(this.enqueuedTime, that.enqueuedTime)
-                && Objects.equals(this.partsId, that.partsId);
+                && Objects.equals(this.partsId, that.partsId)
+                && Objects.equals(this.inlineMessage, that.inlineMessage);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(enqueueId, mailQueueName, mail, enqueuedTime, partsId);
+        return Objects.hash(enqueueId, mailQueueName, mail, enqueuedTime, partsId, inlineMessage);
     }
 }
@@ -22,8 +22,13 @@ package org.apache.james.queue.rabbitmq;
 import static com.rabbitmq.client.MessageProperties.PERSISTENT_TEXT_PLAIN;
 import static org.apache.james.backends.rabbitmq.Constants.EMPTY_ROUTING_KEY;
 import static org.apache.james.queue.api.MailQueue.ENQUEUED_METRIC_NAME_PREFIX;
+import static org.apache.james.util.ReactorUtils.DEFAULT_CONCURRENCY;
 
 import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -33,9 +38,12 @@ import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.queue.api.MailQueue;
+import org.apache.james.queue.rabbitmq.view.RabbitMQMailQueueConfiguration;
 import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
 import org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueBrowser;
 import org.apache.mailet.Mail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.fge.lambdas.Throwing;
@@ -48,6 +56,8 @@ import reactor.rabbitmq.OutboundMessage;
 import reactor.rabbitmq.Sender;
 
 class Enqueuer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Enqueuer.class);
+
     private final MailQueueName name;
     private final Sender sender;
     private final Store<MimeMessage, MimeMessagePartsId> mimeMessageStore;
@@ -55,41 +65,137 @@ class Enqueuer {
     private final Metric enqueueMetric;
     private final MailQueueView mailQueueView;
     private final Clock clock;
+    private final RabbitMQMailQueueConfiguration configuration;
 
     Enqueuer(MailQueueName name, Sender sender, Store<MimeMessage, MimeMessagePartsId> mimeMessageStore,
              MailReferenceSerializer serializer, MetricFactory metricFactory,
-             MailQueueView mailQueueView, Clock clock) {
+             MailQueueView mailQueueView, Clock clock, RabbitMQMailQueueConfiguration configuration) {
         this.name = name;
         this.sender = sender;
         this.mimeMessageStore = mimeMessageStore;
         this.mailReferenceSerializer = serializer;
         this.mailQueueView = mailQueueView;
         this.clock = clock;
+        this.configuration = configuration;
         this.enqueueMetric = metricFactory.generate(ENQUEUED_METRIC_NAME_PREFIX + name.asString());
     }
 
     void enQueue(Mail mail) throws MailQueue.MailQueueException {
+        enQueue(mail, Duration.ZERO);
+    }
+
+    void enQueue(Mail mail, Duration delay) throws MailQueue.MailQueueException {
+        EnqueueId enqueueId = EnqueueId.generate();
+        enqueue(toMailReference(enqueueId, mail), delay)
+            .block();
+    }
+
+    Mono<Void> enqueueReactive(Mail mail, Duration delay) {
         EnqueueId enqueueId = EnqueueId.generate();
-        saveMail(mail)
-            .map(partIds -> new MailReference(enqueueId, mail, partIds))
-            .flatMap(Throwing.<MailReference, Mono<Void>>function(mailReference -> {
-                EnqueuedItem enqueuedItem = toEnqueuedItems(mailReference);
+        return enqueue(Mono.defer(Throwing.supplier(() -> toMailReference(enqueueId, mail)).sneakyThrow()), delay);
+    }
+
+    private Mono<Void> enqueue(Mono<MailReference> mailReference, Duration delay) {
+        return mailReference
+            .flatMap(Throwing.<MailReference, Mono<Void>>function(reference -> {
+                EnqueuedItem enqueuedItem = toEnqueuedItems(reference);
                 return Flux.mergeDelayError(2,
                         mailQueueView.storeMail(enqueuedItem),
-                        publishReferenceToRabbit(mailReference))
+                        dispatch(reference, delay))
                         .then();
             }).sneakyThrow())
-            .thenEmpty(Mono.fromRunnable(enqueueMetric::increment))
-            .block();
+            .thenEmpty(Mono.fromRunnable(enqueueMetric::increment));
+    }
+
+    /**
+     * Delayed mails are kept in the view until they are due, and are only then published to RabbitMQ.
+     */
+    private Mono<Void> dispatch(MailReference mailReference, Duration delay) throws MailQueue.MailQueueException {
+        if (delay.isNegative() || delay.isZero()) {
+            return publishReferenceToRabbit(mailReference);
+        }
+        return mailQueueView.storeDelayedMail(DelayedMail.of(mailReference.getEnqueueId(), deliveryDate(delay), getMailReferenceBytes(mailReference)));
+    }
+
+    private Instant deliveryDate(Duration delay) {
+        try {
+            return clock.instant().plus(delay);
+        } catch (DateTimeException | ArithmeticException e) {
+            return DelayedMail.MAX_DELIVERY_DATE;
+        }
+    }
+
+    Mono<Long> publishDueDelayedMails() {
+        return publishDelayedMails(mailQueueView.claimDueDelayedMails(clock.instant()));
+    }
+
+    Mono<Long> publishAllDelayedMails() {
+        return publishDelayedMails(mailQueueView.claimAllDelayedMails());
+    }
+
+    private Mono<Long> publishDelayedMails(Flux<DelayedMail> claimedMails) {
+        return claimedMails
+            .flatMap(this::publishDelayedMail, DEFAULT_CONCURRENCY)
+            .count();
+    }
+
+    /**
+     * A claimed mail is only deleted once published: upon publication failure, or upon a crash before its
+     * deletion, it is published again once its claim expired.
+     */
+    private Mono<Void> publishDelayedMail(DelayedMail delayedMail) {
+        return publishToRabbit(delayedMail.getMailReference())
+            .then(mailQueueView.deleteDelayedMail(delayedMail))
+            .onErrorResume(e -> {
+                LOGGER.warn("Failed publishing delayed mail {} of queue {}, it will be retried once its claim expired", delayedMail.getEnqueueId().serialize(), name.asString(), e);
+                return Mono.empty();
+            });
     }
 
     Mono<Void> reQueue(CassandraMailQueueBrowser.CassandraMailQueueItemView item) {
         Mail mail = item.getMail();
-        return Mono.fromCallable(() -> new MailReference(item.getEnqueuedId(), mail, item.getEnqueuedPartsId()))
+        return Mono.fromCallable(() -> requeuedMailReference(item, mail))
             .flatMap(Throwing.function(this::publishReferenceToRabbit).sneakyThrow())
             .then();
     }
 
+    private MailReference requeuedMailReference(CassandraMailQueueBrowser.CassandraMailQueueItemView item, Mail mail) throws MessagingException {
+        Optional<MimeMessagePartsId> partsId = item.getEnqueuedPartsId();
+        if (partsId.isPresent()) {
+            return new MailReference(item.getEnqueuedId(), mail, partsId.get());
+        }
+        return new MailReference(item.getEnqueuedId(), mail, InlineMessage.from(mail.getMessage()));
+    }
+
+    private Mono<MailReference> toMailReference(EnqueueId enqueueId, Mail mail) throws MailQueue.MailQueueException {
+        Optional<InlineMessage> inlineMessage = asInlineMessage(mail);
+        if (inlineMessage.isPresent()) {
+            return Mono.just(new MailReference(enqueueId, mail, inlineMessage.get()));
+        }
+        return saveMail(mail)
+            .map(partIds -> new MailReference(enqueueId, mail, partIds));
+    }
+
+    /**
+     * Small messages skip the blob store: their content travels within the AMQP payload and is
+     * kept in the view for browsing, saving the blob writes on enqueue and the blob reads on dequeue.
+     */
+    private Optional<InlineMessage> asInlineMessage(Mail mail) throws MailQueue.MailQueueException {
+        if (!configuration.isInliningEnabled()) {
+            return Optional.empty();
+        }
+        try {
+            long estimatedSize = mail.getMessageSize();
+            if (estimatedSize < 0 || estimatedSize > configuration.getInlineThreshold()) {
+                return Optional.empty();
+            }
+            return Optional.of(InlineMessage.from(mail.getMessage()))
+                .filter(inlineMessage -> inlineMessage.size() <= configuration.getInlineThreshold());
+        } catch (MessagingException e) {
+            throw new MailQueue.MailQueueException("Error while serializing message", e);
+        }
+    }
+
     private Mono<MimeMessagePartsId> saveMail(Mail mail) throws MailQueue.MailQueueException {
         try {
             return mimeMessageStore.save(mail.getMessage());
@@ -99,6 +205,10 @@ class Enqueuer {
     }
 
     private Mono<Void> publishReferenceToRabbit(MailReference mailReference) throws MailQueue.MailQueueException {
+        return publishToRabbit(getMailReferenceBytes(mailReference));
+    }
+
+    private Mono<Void> publishToRabbit(byte[] mailReferenceBytes) {
         AMQP.BasicProperties basicProperties = new AMQP.BasicProperties.Builder()
             .deliveryMode(PERSISTENT_TEXT_PLAIN.getDeliveryMode())
             .priority(PERSISTENT_TEXT_PLAIN.getPriority())
@@ -110,7 +220,7 @@ class Enqueuer {
             name.toRabbitExchangeName().asString(),
             EMPTY_ROUTING_KEY,
             basicProperties,
-            getMailReferenceBytes(mailReference));
+            mailReferenceBytes);
         return sender.send(Mono.just(data));
     }
 
@@ -120,7 +230,7 @@ class Enqueuer {
                 .mailQueueName(name)
                 .mail(mailReference.getMail())
                 .enqueuedTime(clock.instant())
-                .mimeMessagePartsId(mailReference.getPartsId())
+                .content(mailReference.getPartsId(), mailReference.getInlineMessage())
                 .build();
     }
 
@@ -0,0 +1,88 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Properties;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Raw content of a message small enough to travel along its mail reference
+ * instead of being saved in the blob store.
+ */
+public class InlineMessage {
+
+    public static InlineMessage of(byte[] bytes) {
+        Preconditions.checkNotNull(bytes);
+        return new InlineMessage(bytes);
+    }
+
+    public static InlineMessage from(MimeMessage mimeMessage) throws MessagingException {
+        Preconditions.checkNotNull(mimeMessage);
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            mimeMessage.writeTo(outputStream);
+            return new InlineMessage(outputStream.toByteArray());
+        } catch (IOException e) {
+            throw new MessagingException("Unable to serialize message", e);
+        }
+    }
+
+    private final byte[] bytes;
+
+    private InlineMessage(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public byte[] asBytes() {
+        return bytes;
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+
+    public MimeMessage asMimeMessage() throws MessagingException {
+        return new MimeMessage(Session.getInstance(new Properties()), new ByteArrayInputStream(bytes));
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof InlineMessage) {
+            InlineMessage that = (InlineMessage) o;
+
+            return Arrays.equals(this.bytes, that.bytes);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Arrays.hashCode(bytes);
+    }
+}
@@ -54,10 +54,19 @@ class MailLoader {
     }
 
     private Mono<Mail> buildMail(MailReference mailReference) {
-        return mimeMessageStore.read(mailReference.getPartsId())
+        return readMessage(mailReference)
             .flatMap(mimeMessage -> buildMailWithMessageReference(mailReference, mimeMessage));
     }
 
+    private Mono<MimeMessage> readMessage(MailReference mailReference) {
+        return mailReference.getInlineMessage()
+            .map(inlineMessage -> Mono.fromCallable(inlineMessage::asMimeMessage)
+                .onErrorResume(MessagingException.class, e -> Mono.error(new MailQueue.MailQueueException("Failed to parse inline mime message", e))))
+            .orElseGet(() -> Mono.justOrEmpty(mailReference.getPartsId())
+                .switchIfEmpty(Mono.error(() -> new MailQueue.MailQueueException("Mail reference " + mailReference.getEnqueueId().serialize() + " has neither blobs nor inline content")))
+                .flatMap(mimeMessageStore::read));
+    }
+
     private Mono<Mail> buildMailWithMessageReference(MailReference mailReference, MimeMessage mimeMessage) {
         Function<Mail, Mono<Object>> setMessage = mail ->
             Mono.fromRunnable(Throwing.runnable(() -> mail.setMessage(mimeMessage)).sneakyThrow())
@@ -19,6 +19,8 @@
 
 package org.apache.james.queue.rabbitmq;
 
+import java.util.Optional;
+
 import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.mailet.Mail;
 
@@ -26,12 +28,22 @@ public class MailReference {
 
     private final EnqueueId enqueueId;
     private final Mail mail;
-    private final MimeMessagePartsId partsId;
+    private final Optional<MimeMessagePartsId> partsId;
+    private final Optional<InlineMessage> inlineMessage;
 
     public MailReference(EnqueueId enqueueId, Mail mail, MimeMessagePartsId partsId) {
+        this(enqueueId, mail, Optional.of(partsId), Optional.empty());
+    }
+
+    public MailReference(EnqueueId enqueueId, Mail mail, InlineMessage inlineMessage) {
+        this(enqueueId, mail, Optional.empty(), Optional.of(inlineMessage));
+    }
+
+    private MailReference(EnqueueId enqueueId, Mail mail, Optional<MimeMessagePartsId> partsId, Optional<InlineMessage> inlineMessage) {
         this.enqueueId = enqueueId;
         this.mail = mail;
         this.partsId = partsId;
+        this.inlineMessage = inlineMessage;
     }
 
     public EnqueueId getEnqueueId() {
@@ -42,7 +54,11 @@ public class MailReference {
         return mail;
     }
 
-    public MimeMessagePartsId getPartsId() {
+    public Optional<MimeMessagePartsId> getPartsId() {
         return partsId;
     }
+
+    public Optional<InlineMessage> getInlineMessage() {
+        return inlineMessage;
+    }
 }
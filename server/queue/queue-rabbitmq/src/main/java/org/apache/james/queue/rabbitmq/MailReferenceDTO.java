@@ -20,6 +20,7 @@
 package org.apache.james.queue.rabbitmq;
 
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
@@ -41,6 +42,7 @@ import org.apache.mailet.Mail;
 import org.apache.mailet.PerRecipientHeaders;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.fge.lambdas.Throwing;
 import com.github.fge.lambdas.consumers.ThrowingBiConsumer;
@@ -52,7 +54,7 @@ class MailReferenceDTO {
 
     static MailReferenceDTO fromMailReference(MailReference mailReference) {
         Mail mail = mailReference.getMail();
-        MimeMessagePartsId partsId = mailReference.getPartsId();
+        Optional<MimeMessagePartsId> partsId = mailReference.getPartsId();
 
         return new MailReferenceDTO(
             mailReference.getEnqueueId().serialize(),
@@ -69,8 +71,13 @@ class MailReferenceDTO {
             mail.getRemoteAddr(),
             mail.getRemoteHost(),
             fromPerRecipientHeaders(mail.getPerRecipientSpecificHeaders()),
-            partsId.getHeaderBlobId().asString(),
-            partsId.getBodyBlobId().asString());
+            partsId.map(MimeMessagePartsId::getHeaderBlobId).map(BlobId::asString).orElse(null),
+            partsId.map(MimeMessagePartsId::getBodyBlobId).map(BlobId::asString).orElse(null),
+            partsId.flatMap(MimeMessagePartsId::getBodySize).orElse(null),
+            mailReference.getInlineMessage()
+                .map(InlineMessage::asBytes)
+                .map(Base64.getEncoder()::encodeToString)
+                .orElse(null));
     }
 
     private static Map<String, HeadersDto> fromPerRecipientHeaders(PerRecipientHeaders perRecipientHeaders) {
@@ -104,6 +111,8 @@ class MailReferenceDTO {
     private final Map<String, HeadersDto> perRecipientHeaders;
     private final String headerBlobId;
     private final String bodyBlobId;
+    private final Optional<Long> bodySize;
+    private final Optional<String> inlineMessage;
 
     @JsonCreator
     private MailReferenceDTO(@JsonProperty("enqueueId") String enqueueId,
@@ -118,7 +127,9 @@ class MailReferenceDTO {
                              @JsonProperty("remoteHost") String remoteHost,
                              @JsonProperty("perRecipientHeaders") Map<String, HeadersDto> perRecipientHeaders,
                              @JsonProperty("headerBlobId") String headerBlobId,
-                             @JsonProperty("bodyBlobId") String bodyBlobId) {
+                             @JsonProperty("bodyBlobId") String bodyBlobId,
+                             @JsonProperty("bodySize") Long bodySize,
+                             @JsonProperty("inlineMessage") String inlineMessage) {
         this.enqueueId = enqueueId;
         this.recipients = recipients;
         this.name = name;
@@ -132,6 +143,8 @@ class MailReferenceDTO {
         this.perRecipientHeaders = perRecipientHeaders;
         this.headerBlobId = headerBlobId;
         this.bodyBlobId = bodyBlobId;
+        this.bodySize = Optional.ofNullable(bodySize);
+        this.inlineMessage = Optional.ofNullable(inlineMessage);
     }
 
     @JsonProperty("enqueueId")
@@ -190,22 +203,43 @@ class MailReferenceDTO {
     }
 
     @JsonProperty("headerBlobId")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     String getHeaderBlobId() {
         return headerBlobId;
     }
 
     @JsonProperty("bodyBlobId")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     String getBodyBlobId() {
         return bodyBlobId;
     }
 
+    @JsonProperty("bodySize")
+    @JsonInclude(JsonInclude.Include.NON_ABSENT)
+    Optional<Long> getBodySize() {
+        return bodySize;
+    }
+
+    @JsonProperty("inlineMessage")
+    @JsonInclude(JsonInclude.Include.NON_ABSENT)
+    Optional<String> getInlineMessage() {
+        return inlineMessage;
+    }
+
     MailReference toMailReference(BlobId.Factory blobIdFactory) {
+        EnqueueId enqueueId = EnqueueId.ofSerialized(this.enqueueId);
+        if (inlineMessage.isPresent()) {
+            InlineMessage message = InlineMessage.of(Base64.getDecoder().decode(inlineMessage.get()));
+            return new MailReference(enqueueId, mailMetadata(), message);
+        }
+
         MimeMessagePartsId messagePartsId = MimeMessagePartsId.builder()
             .headerBlobId(blobIdFactory.from(headerBlobId))
             .bodyBlobId(blobIdFactory.from(bodyBlobId))
+            .bodySize(bodySize)
             .build();
 
-        return new MailReference(EnqueueId.ofSerialized(enqueueId), mailMetadata(), messagePartsId);
+        return new MailReference(enqueueId, mailMetadata(), messagePartsId);
     }
 
     private MailImpl mailMetadata() {
@@ -263,13 +297,15 @@ class MailReferenceDTO {
                 && Objects.equals(this.remoteHost, mailDTO.remoteHost)
                 && Objects.equals(this.perRecipientHeaders, mailDTO.perRecipientHeaders)
                 && Objects.equals(this.headerBlobId, mailDTO.headerBlobId)
-                && Objects.equals(this.bodyBlobId, mailDTO.bodyBlobId);
+                && Objects.equals(this.bodyBlobId, mailDTO.bodyBlobId)
+                && Objects.equals(this.bodySize, mailDTO.bodySize)
+                && Objects.equals(this.inlineMessage, mailDTO.inlineMessage);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(enqueueId, recipients, name, sender, state, errorMessage, lastUpdated, attributes, remoteAddr, remoteHost, perRecipientHeaders, headerBlobId, bodyBlobId);
+        return Objects.hash(enqueueId, recipients, name, sender, state, errorMessage, lastUpdated, attributes, remoteAddr, remoteHost, perRecipientHeaders, headerBlobId, bodyBlobId, bodySize, inlineMessage);
     }
 }
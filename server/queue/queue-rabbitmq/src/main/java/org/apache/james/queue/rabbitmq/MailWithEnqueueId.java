@@ -19,15 +19,17 @@
 
 package org.apache.james.queue.rabbitmq;
 
+import java.util.Optional;
+
 import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.mailet.Mail;
 
 public class MailWithEnqueueId {
     private final EnqueueId enqueueId;
     private final Mail mail;
-    private final MimeMessagePartsId blobIds;
+    private final Optional<MimeMessagePartsId> blobIds;
 
-    MailWithEnqueueId(EnqueueId enqueueId, Mail mail, MimeMessagePartsId blobIds) {
+    MailWithEnqueueId(EnqueueId enqueueId, Mail mail, Optional<MimeMessagePartsId> blobIds) {
         this.enqueueId = enqueueId;
         this.mail = mail;
         this.blobIds = blobIds;
@@ -41,7 +43,7 @@ public class MailWithEnqueueId {
         return mail;
     }
 
-    public MimeMessagePartsId getBlobIds() {
+    public Optional<MimeMessagePartsId> getBlobIds() {
         return blobIds;
     }
 }
@@ -31,8 +31,6 @@ import org.apache.james.queue.rabbitmq.view.api.DeleteCondition;
 import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
 import org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueBrowser;
 import org.apache.mailet.Mail;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
 import com.google.common.base.Function;
@@ -43,22 +41,22 @@ import reactor.core.publisher.Mono;
 
 public class RabbitMQMailQueue implements ManageableMailQueue {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(RabbitMQMailQueue.class);
-
     private final MailQueueName name;
     private final MetricFactory metricFactory;
     private final Enqueuer enqueuer;
     private final Dequeuer dequeuer;
+    private final DelayedMailScheduler delayedMailScheduler;
     private final MailQueueView<CassandraMailQueueBrowser.CassandraMailQueueItemView> mailQueueView;
     private final MailQueueItemDecoratorFactory decoratorFactory;
 
     RabbitMQMailQueue(MetricFactory metricFactory, MailQueueName name,
-                      Enqueuer enqueuer, Dequeuer dequeuer,
+                      Enqueuer enqueuer, Dequeuer dequeuer, DelayedMailScheduler delayedMailScheduler,
                       MailQueueView<CassandraMailQueueBrowser.CassandraMailQueueItemView> mailQueueView, MailQueueItemDecoratorFactory decoratorFactory) {
         this.metricFactory = metricFactory;
         this.name = name;
         this.enqueuer = enqueuer;
         this.dequeuer = dequeuer;
+        this.delayedMailScheduler = delayedMailScheduler;
         this.mailQueueView = mailQueueView;
         this.decoratorFactory = decoratorFactory;
     }
@@ -66,6 +64,7 @@ public class RabbitMQMailQueue implements ManageableMailQueue {
     @Override
     public void close() {
         dequeuer.close();
+        delayedMailScheduler.close();
     }
 
     @Override
@@ -75,10 +74,8 @@ public class RabbitMQMailQueue implements ManageableMailQueue {
 
     @Override
     public void enQueue(Mail mail, Duration delay) {
-        if (!delay.isNegative()) {
-            LOGGER.info("Ignored delay upon enqueue of {} : {}.", mail.getName(), delay);
-        }
-        enQueue(mail);
+        metricFactory.runPublishingTimerMetric(ENQUEUED_TIMER_METRIC_NAME_PREFIX + name.asString(),
+            Throwing.runnable(() -> enqueuer.enQueue(mail, delay)).sneakyThrow());
     }
 
     @Override
@@ -87,6 +84,17 @@ public class RabbitMQMailQueue implements ManageableMailQueue {
             Throwing.runnable(() -> enqueuer.enQueue(mail)).sneakyThrow());
     }
 
+    @Override
+    public Mono<Void> enqueueReactive(Mail mail) {
+        return enqueueReactive(mail, Duration.ZERO);
+    }
+
+    @Override
+    public Mono<Void> enqueueReactive(Mail mail, Duration delay) {
+        return Mono.from(metricFactory.decoratePublisherWithTimerMetric(ENQUEUED_TIMER_METRIC_NAME_PREFIX + name.asString(),
+            enqueuer.enqueueReactive(mail, delay)));
+    }
+
     @Override
     public Flux<MailQueueItem> deQueue() {
         return dequeuer.deQueue()
@@ -100,8 +108,7 @@ public class RabbitMQMailQueue implements ManageableMailQueue {
 
     @Override
     public long flush() {
-        LOGGER.warn("Delays are not supported by RabbitMQ. Flush is a NOOP.");
-        return 0;
+        return delayedMailScheduler.flush();
     }
 
     @Override
@@ -96,13 +96,15 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
             MailQueueView mailQueueView = mailQueueViewFactory.create(mailQueueName);
             mailQueueView.initialize(mailQueueName);
 
+            Enqueuer enqueuer = new Enqueuer(mailQueueName, sender, mimeMessageStore, mailReferenceSerializer,
+                metricFactory, mailQueueView, clock, configuration);
             RabbitMQMailQueue rabbitMQMailQueue = new RabbitMQMailQueue(
                 metricFactory,
                 mailQueueName,
-                new Enqueuer(mailQueueName, sender, mimeMessageStore, mailReferenceSerializer,
-                    metricFactory, mailQueueView, clock),
+                enqueuer,
                 new Dequeuer(mailQueueName, receiverProvider, mailLoader, mailReferenceSerializer,
                     metricFactory, mailQueueView, prefetchCount),
+                new DelayedMailScheduler(mailQueueName, enqueuer, configuration.getDelayedMailsPollingInterval()),
                 mailQueueView,
                 decoratorFactory);
 
@@ -19,16 +19,25 @@
 
 package org.apache.james.queue.rabbitmq.view;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.commons.configuration2.Configuration;
+import org.apache.james.util.DurationParser;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
 
 public class RabbitMQMailQueueConfiguration {
     private static final boolean DEFAULT_SIZE_METRICS_DISABLED = false;
+    private static final long DEFAULT_INLINE_THRESHOLD_DISABLED = 0L;
+    private static final Duration DEFAULT_DELAYED_MAILS_POLLING_INTERVAL = Duration.ofSeconds(1);
 
     public static class Builder {
-        private Optional<Boolean> sizeMetricsEnabled;
+        private Optional<Boolean> sizeMetricsEnabled = Optional.empty();
+        private Optional<Long> inlineThreshold = Optional.empty();
+        private Optional<Duration> delayedMailsPollingInterval = Optional.empty();
 
         public Builder sizeMetricsEnabled(boolean sizeMetricsEnabled) {
             this.sizeMetricsEnabled = Optional.of(sizeMetricsEnabled);
@@ -40,12 +49,39 @@ public class RabbitMQMailQueueConfiguration {
             return this;
         }
 
+        public Builder inlineThreshold(long inlineThreshold) {
+            this.inlineThreshold = Optional.of(inlineThreshold);
+            return this;
+        }
+
+        public Builder inlineThreshold(Optional<Long> inlineThreshold) {
+            this.inlineThreshold = inlineThreshold;
+            return this;
+        }
+
+        public Builder delayedMailsPollingInterval(Duration delayedMailsPollingInterval) {
+            this.delayedMailsPollingInterval = Optional.of(delayedMailsPollingInterval);
+            return this;
+        }
+
+        public Builder delayedMailsPollingInterval(Optional<Duration> delayedMailsPollingInterval) {
+            this.delayedMailsPollingInterval = delayedMailsPollingInterval;
+            return this;
+        }
+
         public RabbitMQMailQueueConfiguration build() {
-            return new RabbitMQMailQueueConfiguration(sizeMetricsEnabled.orElse(DEFAULT_SIZE_METRICS_DISABLED));
+            long threshold = inlineThreshold.orElse(DEFAULT_INLINE_THRESHOLD_DISABLED);
+            Preconditions.checkArgument(threshold >= 0, "'%s' needs to be positive or zero", INLINE_THRESHOLD_PROPERTY);
+            Duration pollingInterval = delayedMailsPollingInterval.orElse(DEFAULT_DELAYED_MAILS_POLLING_INTERVAL);
+            Preconditions.checkArgument(!pollingInterval.isNegative() && !pollingInterval.isZero(), "'%s' needs to be strictly positive", DELAYED_MAILS_POLLING_INTERVAL_PROPERTY);
+
+            return new RabbitMQMailQueueConfiguration(sizeMetricsEnabled.orElse(DEFAULT_SIZE_METRICS_DISABLED), threshold, pollingInterval);
         }
     }
 
     public static final String SIZE_METRICS_ENABLED_PROPERTY = "mailqueue.size.metricsEnabled";
+    public static final String INLINE_THRESHOLD_PROPERTY = "mailqueue.inline.threshold";
+    public static final String DELAYED_MAILS_POLLING_INTERVAL_PROPERTY = "mailqueue.delayed.pollingInterval";
 
     public static Builder builder() {
         return new Builder();
@@ -54,6 +90,9 @@ public class RabbitMQMailQueueConfiguration {
     public static RabbitMQMailQueueConfiguration from(Configuration configuration) {
         return builder()
             .sizeMetricsEnabled(Optional.ofNullable(configuration.getBoolean(SIZE_METRICS_ENABLED_PROPERTY, null)))
+            .inlineThreshold(Optional.ofNullable(configuration.getLong(INLINE_THRESHOLD_PROPERTY, null)))
+            .delayedMailsPollingInterval(Optional.ofNullable(configuration.getString(DELAYED_MAILS_POLLING_INTERVAL_PROPERTY, null))
+                .map(DurationParser::parse))
             .build();
     }
 
@@ -70,27 +109,61 @@ public class RabbitMQMailQueueConfiguration {
     }
 
     private final boolean sizeMetricsEnabled;
+    private final long inlineThreshold;
+    private final Duration delayedMailsPollingInterval;
 
-    private RabbitMQMailQueueConfiguration(boolean sizeMetricsEnabled) {
+    private RabbitMQMailQueueConfiguration(boolean sizeMetricsEnabled, long inlineThreshold, Duration delayedMailsPollingInterval) {
         this.sizeMetricsEnabled = sizeMetricsEnabled;
+        this.inlineThreshold = inlineThreshold;
+        this.delayedMailsPollingInterval = delayedMailsPollingInterval;
     }
 
     public boolean isSizeMetricsEnabled() {
         return sizeMetricsEnabled;
     }
 
+    /**
+     * @return the size in bytes under which a message is carried inline along its mail reference,
+     * 0 meaning messages are always saved in the blob store
+     */
+    public long getInlineThreshold() {
+        return inlineThreshold;
+    }
+
+    public boolean isInliningEnabled() {
+        return inlineThreshold > 0;
+    }
+
+    /**
+     * @return how often mails enqueued with a delay are checked for being due
+     */
+    public Duration getDelayedMailsPollingInterval() {
+        return delayedMailsPollingInterval;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof RabbitMQMailQueueConfiguration) {
             RabbitMQMailQueueConfiguration that = (RabbitMQMailQueueConfiguration) o;
 
-            return Objects.equals(this.sizeMetricsEnabled, that.sizeMetricsEnabled);
+            return Objects.equals(this.sizeMetricsEnabled, that.sizeMetricsEnabled)
+                && Objects.equals(this.inlineThreshold, that.inlineThreshold)
+                && Objects.equals(this.delayedMailsPollingInterval, that.delayedMailsPollingInterval);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(sizeMetricsEnabled);
+        return Objects.hash(sizeMetricsEnabled, inlineThreshold, delayedMailsPollingInterval);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("sizeMetricsEnabled", sizeMetricsEnabled)
+            .add("inlineThreshold", inlineThreshold)
+            .add("delayedMailsPollingInterval", delayedMailsPollingInterval)
+            .toString();
     }
 }
@@ -20,6 +20,7 @@
 package org.apache.james.queue.rabbitmq.view.api;
 
 import java.util.Objects;
+import java.util.Optional;
 
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.james.blob.mail.MimeMessagePartsId;
@@ -115,9 +116,9 @@ public interface DeleteCondition {
 
     class WithEnqueueId implements DeleteCondition {
         private final EnqueueId enqueueId;
-        private final MimeMessagePartsId blobIds;
+        private final Optional<MimeMessagePartsId> blobIds;
 
-        WithEnqueueId(EnqueueId enqueueId, MimeMessagePartsId blobIds) {
+        WithEnqueueId(EnqueueId enqueueId, Optional<MimeMessagePartsId> blobIds) {
             this.enqueueId = enqueueId;
             this.blobIds = blobIds;
         }
@@ -126,7 +127,7 @@ public interface DeleteCondition {
             return enqueueId;
         }
 
-        public MimeMessagePartsId getBlobIds() {
+        public Optional<MimeMessagePartsId> getBlobIds() {
             return blobIds;
         }
 
@@ -198,7 +199,7 @@ public interface DeleteCondition {
         return new WithName(value);
     }
 
-    static WithEnqueueId withEnqueueId(EnqueueId value, MimeMessagePartsId blobIds) {
+    static WithEnqueueId withEnqueueId(EnqueueId value, Optional<MimeMessagePartsId> blobIds) {
         Preconditions.checkNotNull(value);
         return new WithEnqueueId(value, blobIds);
     }
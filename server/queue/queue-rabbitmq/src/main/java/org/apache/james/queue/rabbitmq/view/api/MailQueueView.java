@@ -22,6 +22,7 @@ package org.apache.james.queue.rabbitmq.view.api;
 import java.time.Instant;
 
 import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.queue.rabbitmq.DelayedMail;
 import org.apache.james.queue.rabbitmq.EnqueueId;
 import org.apache.james.queue.rabbitmq.EnqueuedItem;
 import org.apache.james.queue.rabbitmq.MailQueueName;
@@ -39,6 +40,19 @@ public interface MailQueueView<V extends ManageableMailQueue.MailQueueItemView>
 
     Mono<Void> storeMail(EnqueuedItem enqueuedItem);
 
+    Mono<Void> storeDelayedMail(DelayedMail delayedMail);
+
+    /**
+     * Claims the delayed mails due at the given instant and returns them: a delayed mail is returned
+     * to a single caller, even upon concurrent calls. Claimed mails are kept until deleted with
+     * {@link #deleteDelayedMail(DelayedMail)}, and are returned again once their claim expired.
+     */
+    Flux<DelayedMail> claimDueDelayedMails(Instant now);
+
+    Flux<DelayedMail> claimAllDelayedMails();
+
+    Mono<Void> deleteDelayedMail(DelayedMail delayedMail);
+
     long delete(DeleteCondition deleteCondition);
 
     Mono<Boolean> isPresent(EnqueueId id);
@@ -41,6 +41,7 @@ import org.apache.james.blob.mail.MimeMessageStore;
 import org.apache.james.queue.api.ManageableMailQueue;
 import org.apache.james.queue.rabbitmq.EnqueueId;
 import org.apache.james.queue.rabbitmq.EnqueuedItem;
+import org.apache.james.queue.rabbitmq.InlineMessage;
 import org.apache.james.queue.rabbitmq.MailQueueName;
 import org.apache.james.queue.rabbitmq.view.cassandra.configuration.CassandraMailQueueViewConfiguration;
 import org.apache.james.queue.rabbitmq.view.cassandra.model.EnqueuedItemWithSlicingContext;
@@ -48,6 +49,7 @@ import org.apache.mailet.Mail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.fge.lambdas.Throwing;
 import com.google.common.base.Preconditions;
 
 import reactor.core.publisher.Flux;
@@ -86,6 +88,7 @@ public class CassandraMailQueueBrowser {
     private final BrowseStartDAO browseStartDao;
     private final DeletedMailsDAO deletedMailsDao;
     private final EnqueuedMailsDAO enqueuedMailsDao;
+    private final EnqueuedMailsContentDAO enqueuedMailsContentDao;
     private final Store<MimeMessage, MimeMessagePartsId> mimeMessageStore;
     private final CassandraMailQueueViewConfiguration configuration;
     private final Clock clock;
@@ -94,12 +97,14 @@ public class CassandraMailQueueBrowser {
     CassandraMailQueueBrowser(BrowseStartDAO browseStartDao,
                               DeletedMailsDAO deletedMailsDao,
                               EnqueuedMailsDAO enqueuedMailsDao,
+                              EnqueuedMailsContentDAO enqueuedMailsContentDao,
                               MimeMessageStore.Factory mimeMessageStoreFactory,
                               CassandraMailQueueViewConfiguration configuration,
                               Clock clock) {
         this.browseStartDao = browseStartDao;
         this.deletedMailsDao = deletedMailsDao;
         this.enqueuedMailsDao = enqueuedMailsDao;
+        this.enqueuedMailsContentDao = enqueuedMailsContentDao;
         this.mimeMessageStore = mimeMessageStoreFactory.mimeMessageStore();
         this.configuration = configuration;
         this.clock = clock;
@@ -133,10 +138,17 @@ public class CassandraMailQueueBrowser {
 
     private Mono<Pair<EnqueuedItem, Mail>> toMailFuture(EnqueuedItemWithSlicingContext enqueuedItemWithSlicingContext) {
         EnqueuedItem enqueuedItem = enqueuedItemWithSlicingContext.getEnqueuedItem();
-        return mimeMessageStore.read(enqueuedItem.getPartsId())
+        return readMessage(enqueuedItem)
             .map(mimeMessage -> Pair.of(enqueuedItem, toMail(enqueuedItem, mimeMessage)));
     }
 
+    private Mono<MimeMessage> readMessage(EnqueuedItem enqueuedItem) {
+        return enqueuedItem.getPartsId()
+            .map(mimeMessageStore::read)
+            .orElseGet(() -> enqueuedMailsContentDao.read(enqueuedItem.getMailQueueName(), enqueuedItem.getEnqueueId())
+                .map(Throwing.function(InlineMessage::asMimeMessage).sneakyThrow()));
+    }
+
     private Mail toMail(EnqueuedItem enqueuedItem, MimeMessage mimeMessage) {
         Mail mail = enqueuedItem.getMail();
 
@@ -188,7 +200,7 @@ public class CassandraMailQueueBrowser {
             return enqueuedItem.getEnqueueId();
         }
 
-        public MimeMessagePartsId getEnqueuedPartsId() {
+        public Optional<MimeMessagePartsId> getEnqueuedPartsId() {
             return enqueuedItem.getPartsId();
         }
 
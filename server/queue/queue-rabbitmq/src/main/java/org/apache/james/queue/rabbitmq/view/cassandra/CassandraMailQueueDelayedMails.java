@@ -0,0 +1,137 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq.view.cassandra;
+
+import static org.apache.james.util.ReactorUtils.DEFAULT_CONCURRENCY;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.inject.Inject;
+
+import org.apache.james.queue.rabbitmq.DelayedMail;
+import org.apache.james.queue.rabbitmq.EnqueueId;
+import org.apache.james.queue.rabbitmq.MailQueueName;
+import org.apache.james.queue.rabbitmq.view.cassandra.configuration.CassandraMailQueueViewConfiguration;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.BucketId;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Delayed mails are sliced by delivery date and spread over buckets, the same way the enqueued
+ * mails are. An index of the slices holding delayed mails allows to only read the due ones.
+ *
+ * Claimed mails are deleted once published. A mail whose publisher crashed before deleting it
+ * can be claimed again once its claim is older than {@link #CLAIM_DURATION}: a delayed mail
+ * is published at least once.
+ */
+public class CassandraMailQueueDelayedMails {
+    static final Duration CLAIM_DURATION = Duration.ofMinutes(5);
+
+    private final DelayedMailsDAO delayedMailsDao;
+    private final DelayedMailsSlicesDAO delayedMailsSlicesDao;
+    private final CassandraMailQueueViewConfiguration configuration;
+    private final Clock clock;
+
+    @Inject
+    CassandraMailQueueDelayedMails(DelayedMailsDAO delayedMailsDao,
+                                   DelayedMailsSlicesDAO delayedMailsSlicesDao,
+                                   CassandraMailQueueViewConfiguration configuration,
+                                   Clock clock) {
+        this.delayedMailsDao = delayedMailsDao;
+        this.delayedMailsSlicesDao = delayedMailsSlicesDao;
+        this.configuration = configuration;
+        this.clock = clock;
+    }
+
+    Mono<Void> store(MailQueueName mailQueueName, DelayedMail delayedMail) {
+        Slice slice = sliceOf(delayedMail.getDeliveryDate());
+        BucketId bucketId = bucketOf(delayedMail.getEnqueueId());
+
+        return delayedMailsSlicesDao.insert(mailQueueName, slice)
+            .then(delayedMailsDao.insert(mailQueueName, slice, bucketId, delayedMail));
+    }
+
+    Flux<DelayedMail> claimDue(MailQueueName mailQueueName, Instant now) {
+        return claim(mailQueueName, now);
+    }
+
+    Flux<DelayedMail> claimAll(MailQueueName mailQueueName) {
+        return claim(mailQueueName, DelayedMail.MAX_DELIVERY_DATE);
+    }
+
+    private Flux<DelayedMail> claim(MailQueueName mailQueueName, Instant deliveredBefore) {
+        return delayedMailsSlicesDao.listSlicesStartingBefore(mailQueueName, deliveredBefore)
+            .concatMap(slice -> claimSlice(mailQueueName, slice, deliveredBefore)
+                .concatWith(cleanUpSlice(mailQueueName, slice).then(Mono.<DelayedMail>empty())));
+    }
+
+    private Flux<DelayedMail> claimSlice(MailQueueName mailQueueName, Slice slice, Instant deliveredBefore) {
+        Instant now = clock.instant();
+        Instant claimExpiredBefore = now.minus(CLAIM_DURATION);
+
+        return allBucketIds()
+            .flatMap(bucketId -> delayedMailsDao.selectClaimableDelayedMails(mailQueueName, slice, bucketId, deliveredBefore, claimExpiredBefore)
+                .filterWhen(delayedMail -> delayedMailsDao.claim(mailQueueName, slice, bucketId, delayedMail, now, claimExpiredBefore)), DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Deletes a claimed mail, once published.
+     */
+    Mono<Void> delete(MailQueueName mailQueueName, DelayedMail delayedMail) {
+        return delayedMailsDao.delete(mailQueueName, sliceOf(delayedMail.getDeliveryDate()), bucketOf(delayedMail.getEnqueueId()), delayedMail);
+    }
+
+    /**
+     * No delayed mail can be stored in a slice long past, thus once drained such a slice is removed
+     * from the index so that it is no longer read.
+     */
+    private Mono<Void> cleanUpSlice(MailQueueName mailQueueName, Slice slice) {
+        Instant cleanUpThreshold = clock.instant().minus(configuration.getSliceWindow().multipliedBy(2));
+        if (slice.getStartSliceInstant().isAfter(cleanUpThreshold)) {
+            return Mono.empty();
+        }
+
+        return allBucketIds()
+            .concatMap(bucketId -> delayedMailsDao.selectDelayedMails(mailQueueName, slice, bucketId, DelayedMail.MAX_DELIVERY_DATE))
+            .hasElements()
+            .filter(hasDelayedMails -> !hasDelayedMails)
+            .flatMap(any -> delayedMailsSlicesDao.delete(mailQueueName, slice));
+    }
+
+    private Slice sliceOf(Instant deliveryDate) {
+        long sliceSize = configuration.getSliceWindow().getSeconds();
+        long sliceId = deliveryDate.getEpochSecond() / sliceSize;
+        return Slice.of(Instant.ofEpochSecond(sliceId * sliceSize));
+    }
+
+    private BucketId bucketOf(EnqueueId enqueueId) {
+        return BucketId.of(Math.floorMod(enqueueId.asUUID().hashCode(), configuration.getBucketCount()));
+    }
+
+    private Flux<BucketId> allBucketIds() {
+        return Flux
+            .range(0, configuration.getBucketCount())
+            .map(BucketId::of);
+    }
+}
@@ -34,16 +34,19 @@ import reactor.core.scheduler.Schedulers;
 public class CassandraMailQueueMailDelete {
 
     private final DeletedMailsDAO deletedMailsDao;
+    private final EnqueuedMailsContentDAO enqueuedMailsContentDao;
     private final BrowseStartDAO browseStartDao;
     private final CassandraMailQueueBrowser cassandraMailQueueBrowser;
     private final CassandraMailQueueViewConfiguration configuration;
 
     @Inject
     CassandraMailQueueMailDelete(DeletedMailsDAO deletedMailsDao,
+                                 EnqueuedMailsContentDAO enqueuedMailsContentDao,
                                  BrowseStartDAO browseStartDao,
                                  CassandraMailQueueBrowser cassandraMailQueueBrowser,
                                  CassandraMailQueueViewConfiguration configuration) {
         this.deletedMailsDao = deletedMailsDao;
+        this.enqueuedMailsContentDao = enqueuedMailsContentDao;
         this.browseStartDao = browseStartDao;
         this.cassandraMailQueueBrowser = cassandraMailQueueBrowser;
         this.configuration = configuration;
@@ -55,6 +58,10 @@ public class CassandraMailQueueMailDelete {
             .doOnNext(ignored -> maybeUpdateBrowseStart(mailQueueName));
     }
 
+    Mono<Void> deleteInlineMessage(EnqueueId enqueueId, MailQueueName mailQueueName) {
+        return enqueuedMailsContentDao.delete(mailQueueName, enqueueId);
+    }
+
     Mono<Boolean> isDeleted(EnqueueId enqueueId, MailQueueName mailQueueName) {
         return deletedMailsDao.isDeleted(mailQueueName, enqueueId);
     }
@@ -31,21 +31,25 @@ import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Bucke
 import org.apache.james.queue.rabbitmq.view.cassandra.model.EnqueuedItemWithSlicingContext;
 import org.apache.mailet.Mail;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraMailQueueMailStore {
 
     private final EnqueuedMailsDAO enqueuedMailsDao;
+    private final EnqueuedMailsContentDAO enqueuedMailsContentDao;
     private final BrowseStartDAO browseStartDao;
     private final CassandraMailQueueViewConfiguration configuration;
     private final Clock clock;
 
     @Inject
     CassandraMailQueueMailStore(EnqueuedMailsDAO enqueuedMailsDao,
+                                EnqueuedMailsContentDAO enqueuedMailsContentDao,
                                 BrowseStartDAO browseStartDao,
                                 CassandraMailQueueViewConfiguration configuration,
                                 Clock clock) {
         this.enqueuedMailsDao = enqueuedMailsDao;
+        this.enqueuedMailsContentDao = enqueuedMailsContentDao;
         this.browseStartDao = browseStartDao;
         this.configuration = configuration;
         this.clock = clock;
@@ -54,7 +58,18 @@ public class CassandraMailQueueMailStore {
     Mono<Void> storeMail(EnqueuedItem enqueuedItem) {
         EnqueuedItemWithSlicingContext enqueuedItemAndSlicing = addSliceContext(enqueuedItem);
 
-        return enqueuedMailsDao.insert(enqueuedItemAndSlicing);
+        if (enqueuedItem.getPartsId().isPresent()) {
+            return enqueuedMailsDao.insert(enqueuedItemAndSlicing);
+        }
+        return Flux.merge(
+                enqueuedMailsDao.insert(enqueuedItemAndSlicing),
+                storeInlineMessage(enqueuedItem))
+            .then();
+    }
+
+    private Mono<Void> storeInlineMessage(EnqueuedItem enqueuedItem) {
+        return Mono.justOrEmpty(enqueuedItem.getInlineMessage())
+            .flatMap(inlineMessage -> enqueuedMailsContentDao.insert(enqueuedItem.getMailQueueName(), enqueuedItem.getEnqueueId(), inlineMessage));
     }
 
     Mono<Void> initializeBrowseStart(MailQueueName mailQueueName) {
@@ -22,6 +22,7 @@ package org.apache.james.queue.rabbitmq.view.cassandra;
 import static org.apache.james.util.FunctionalUtils.negate;
 
 import java.time.Instant;
+import java.util.Optional;
 
 import javax.inject.Inject;
 import javax.mail.internet.MimeMessage;
@@ -30,6 +31,7 @@ import org.apache.james.blob.api.Store;
 import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.james.blob.mail.MimeMessageStore;
 import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.queue.rabbitmq.DelayedMail;
 import org.apache.james.queue.rabbitmq.EnqueueId;
 import org.apache.james.queue.rabbitmq.EnqueuedItem;
 import org.apache.james.queue.rabbitmq.MailQueueName;
@@ -47,23 +49,26 @@ public class CassandraMailQueueView implements MailQueueView<CassandraMailQueueB
         private final CassandraMailQueueMailStore storeHelper;
         private final CassandraMailQueueBrowser cassandraMailQueueBrowser;
         private final CassandraMailQueueMailDelete cassandraMailQueueMailDelete;
+        private final CassandraMailQueueDelayedMails cassandraMailQueueDelayedMails;
         private final MimeMessageStore.Factory mimeMessageStoreFactory;
 
         @Inject
         public Factory(CassandraMailQueueMailStore storeHelper,
                        CassandraMailQueueBrowser cassandraMailQueueBrowser,
                        CassandraMailQueueMailDelete cassandraMailQueueMailDelete,
+                       CassandraMailQueueDelayedMails cassandraMailQueueDelayedMails,
                        MimeMessageStore.Factory mimeMessageStoreFactory) {
             this.storeHelper = storeHelper;
             this.cassandraMailQueueBrowser = cassandraMailQueueBrowser;
             this.cassandraMailQueueMailDelete = cassandraMailQueueMailDelete;
+            this.cassandraMailQueueDelayedMails = cassandraMailQueueDelayedMails;
             this.mimeMessageStoreFactory = mimeMessageStoreFactory;
         }
 
         @Override
         public MailQueueView create(MailQueueName mailQueueName) {
             return new CassandraMailQueueView(storeHelper, mailQueueName, cassandraMailQueueBrowser, cassandraMailQueueMailDelete,
-                mimeMessageStoreFactory.mimeMessageStore());
+                cassandraMailQueueDelayedMails, mimeMessageStoreFactory.mimeMessageStore());
         }
     }
 
@@ -72,6 +77,7 @@ public class CassandraMailQueueView implements MailQueueView<CassandraMailQueueB
     private final CassandraMailQueueMailStore storeHelper;
     private final CassandraMailQueueBrowser cassandraMailQueueBrowser;
     private final CassandraMailQueueMailDelete cassandraMailQueueMailDelete;
+    private final CassandraMailQueueDelayedMails cassandraMailQueueDelayedMails;
     private final Store<MimeMessage, MimeMessagePartsId> mimeMessageStore;
 
     private final MailQueueName mailQueueName;
@@ -79,11 +85,14 @@ public class CassandraMailQueueView implements MailQueueView<CassandraMailQueueB
     CassandraMailQueueView(CassandraMailQueueMailStore storeHelper,
                            MailQueueName mailQueueName,
                            CassandraMailQueueBrowser cassandraMailQueueBrowser,
-                           CassandraMailQueueMailDelete cassandraMailQueueMailDelete, Store<MimeMessage, MimeMessagePartsId> mimeMessageStore) {
+                           CassandraMailQueueMailDelete cassandraMailQueueMailDelete,
+                           CassandraMailQueueDelayedMails cassandraMailQueueDelayedMails,
+                           Store<MimeMessage, MimeMessagePartsId> mimeMessageStore) {
         this.mailQueueName = mailQueueName;
         this.storeHelper = storeHelper;
         this.cassandraMailQueueBrowser = cassandraMailQueueBrowser;
         this.cassandraMailQueueMailDelete = cassandraMailQueueMailDelete;
+        this.cassandraMailQueueDelayedMails = cassandraMailQueueDelayedMails;
         this.mimeMessageStore = mimeMessageStore;
     }
 
@@ -97,6 +106,26 @@ public class CassandraMailQueueView implements MailQueueView<CassandraMailQueueB
         return storeHelper.storeMail(enqueuedItem);
     }
 
+    @Override
+    public Mono<Void> storeDelayedMail(DelayedMail delayedMail) {
+        return cassandraMailQueueDelayedMails.store(mailQueueName, delayedMail);
+    }
+
+    @Override
+    public Flux<DelayedMail> claimDueDelayedMails(Instant now) {
+        return cassandraMailQueueDelayedMails.claimDue(mailQueueName, now);
+    }
+
+    @Override
+    public Flux<DelayedMail> claimAllDelayedMails() {
+        return cassandraMailQueueDelayedMails.claimAll(mailQueueName);
+    }
+
+    @Override
+    public Mono<Void> deleteDelayedMail(DelayedMail delayedMail) {
+        return cassandraMailQueueDelayedMails.delete(mailQueueName, delayedMail);
+    }
+
     @Override
     public ManageableMailQueue.MailQueueIterator browse() {
         return new CassandraMailQueueBrowser.CassandraMailQueueIterator(
@@ -139,8 +168,7 @@ public class CassandraMailQueueView implements MailQueueView<CassandraMailQueueB
         return cassandraMailQueueBrowser.browseReferences(mailQueueName)
             .map(EnqueuedItemWithSlicingContext::getEnqueuedItem)
             .filter(deleteCondition::shouldBeDeleted)
-            .flatMap(mailReference -> cassandraMailQueueMailDelete.considerDeleted(mailReference.getEnqueueId(), mailQueueName)
-                .then(Mono.from(mimeMessageStore.delete(mailReference.getPartsId()))), DELETION_CONCURRENCY)
+            .flatMap(mailReference -> delete(mailReference.getEnqueueId(), mailReference.getPartsId()), DELETION_CONCURRENCY)
             .count()
             .doOnNext(ignored -> cassandraMailQueueMailDelete.updateBrowseStart(mailQueueName))
             .subscribeOn(Schedulers.elastic())
@@ -148,9 +176,15 @@ public class CassandraMailQueueView implements MailQueueView<CassandraMailQueueB
     }
 
     private Mono<Void> delete(EnqueueId enqueueId,
-                              MimeMessagePartsId blobIds) {
+                              Optional<MimeMessagePartsId> blobIds) {
         return cassandraMailQueueMailDelete.considerDeleted(enqueueId, mailQueueName)
-            .then(Mono.from(mimeMessageStore.delete(blobIds)));
+            .then(deleteContent(enqueueId, blobIds));
+    }
+
+    private Mono<Void> deleteContent(EnqueueId enqueueId, Optional<MimeMessagePartsId> blobIds) {
+        return blobIds
+            .map(ids -> Mono.from(mimeMessageStore.delete(ids)))
+            .orElseGet(() -> cassandraMailQueueMailDelete.deleteInlineMessage(enqueueId, mailQueueName));
     }
 
     @Override
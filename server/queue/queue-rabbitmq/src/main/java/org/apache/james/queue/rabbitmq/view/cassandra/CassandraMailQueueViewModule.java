@@ -76,6 +76,34 @@ public interface CassandraMailQueueViewModule {
         String ENQUEUE_ID = "enqueueId";
     }
 
+    interface EnqueuedMailsContentTable {
+        String TABLE_NAME = "enqueuedMailsContent";
+
+        String QUEUE_NAME = "queueName";
+        String ENQUEUE_ID = "enqueueId";
+        String CONTENT = "content";
+    }
+
+    interface DelayedMailsTable {
+        String TABLE_NAME = "delayedMails";
+
+        String QUEUE_NAME = "queueName";
+        String TIME_RANGE_START = "timeRangeStart";
+        String BUCKET_ID = "bucketId";
+
+        String DELIVERY_DATE = "deliveryDate";
+        String ENQUEUE_ID = "enqueueId";
+        String MAIL_REFERENCE = "mailReference";
+        String CLAIMED_AT = "claimedAt";
+    }
+
+    interface DelayedMailsSlicesTable {
+        String TABLE_NAME = "delayedMailsSlices";
+
+        String QUEUE_NAME = "queueName";
+        String TIME_RANGE_START = "timeRangeStart";
+    }
+
     interface HeaderEntry {
         int USER_INDEX = 0;
         int HEADER_NAME_INDEX = 1;
@@ -132,5 +160,38 @@ public interface CassandraMailQueueViewModule {
             .addPartitionKey(DeletedMailTable.QUEUE_NAME, text())
             .addPartitionKey(DeletedMailTable.ENQUEUE_ID, uuid()))
 
+        .table(EnqueuedMailsContentTable.TABLE_NAME)
+        .comment("this table stores the content of the mails small enough to be carried inline in the RabbitMQ messages," +
+            " so that they can be browsed without being saved in the blob store")
+        .options(options -> options
+            .readRepairChance(NO_READ_REPAIR))
+        .statement(statement -> statement
+            .addPartitionKey(EnqueuedMailsContentTable.QUEUE_NAME, text())
+            .addPartitionKey(EnqueuedMailsContentTable.ENQUEUE_ID, uuid())
+            .addColumn(EnqueuedMailsContentTable.CONTENT, blob()))
+
+        .table(DelayedMailsTable.TABLE_NAME)
+        .comment("this table stores the references of the mails enqueued with a delay, sliced by delivery date," +
+            " until they are due and published to RabbitMQ. A mail being published is claimed for a while," +
+            " and is only deleted once published")
+        .options(options -> options
+            .readRepairChance(NO_READ_REPAIR))
+        .statement(statement -> statement
+            .addPartitionKey(DelayedMailsTable.QUEUE_NAME, text())
+            .addPartitionKey(DelayedMailsTable.TIME_RANGE_START, timestamp())
+            .addPartitionKey(DelayedMailsTable.BUCKET_ID, cint())
+            .addClusteringColumn(DelayedMailsTable.DELIVERY_DATE, timestamp())
+            .addClusteringColumn(DelayedMailsTable.ENQUEUE_ID, uuid())
+            .addColumn(DelayedMailsTable.MAIL_REFERENCE, blob())
+            .addColumn(DelayedMailsTable.CLAIMED_AT, timestamp()))
+
+        .table(DelayedMailsSlicesTable.TABLE_NAME)
+        .comment("this table lists, for each mail queue, the slices of the table: " + DelayedMailsTable.TABLE_NAME +
+            " that may still hold delayed mails")
+        .options(options -> options)
+        .statement(statement -> statement
+            .addPartitionKey(DelayedMailsSlicesTable.QUEUE_NAME, text())
+            .addClusteringColumn(DelayedMailsSlicesTable.TIME_RANGE_START, timestamp()))
+
         .build();
 }
@@ -0,0 +1,206 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq.view.cassandra;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsTable.BUCKET_ID;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsTable.CLAIMED_AT;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsTable.DELIVERY_DATE;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsTable.ENQUEUE_ID;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsTable.MAIL_REFERENCE;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsTable.QUEUE_NAME;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsTable.TABLE_NAME;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsTable.TIME_RANGE_START;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Date;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.queue.rabbitmq.DelayedMail;
+import org.apache.james.queue.rabbitmq.EnqueueId;
+import org.apache.james.queue.rabbitmq.MailQueueName;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.BucketId;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A delayed mail is claimed before being published to RabbitMQ, and only deleted once published. A claim is a lease:
+ * the mail of a publisher crashing in between can be claimed again once the lease expired.
+ */
+public class DelayedMailsDAO {
+    /**
+     * Stored as the claim date of unclaimed mails. Lightweight transactions do not apply conditions on a null
+     * column, this makes sure that a claim can not recreate a deleted mail.
+     */
+    private static final Date UNCLAIMED = Date.from(Instant.EPOCH);
+    private static final String CLAIM_EXPIRED_BEFORE = "claimExpiredBefore";
+
+    private final CassandraAsyncExecutor executor;
+    private final PreparedStatement selectDue;
+    private final PreparedStatement insertOne;
+    private final PreparedStatement claimOne;
+    private final PreparedStatement deleteOne;
+
+    @Inject
+    DelayedMailsDAO(Session session) {
+        this.executor = new CassandraAsyncExecutor(session);
+        this.selectDue = prepareSelectDue(session);
+        this.insertOne = prepareInsert(session);
+        this.claimOne = prepareClaim(session);
+        this.deleteOne = prepareDelete(session);
+    }
+
+    private PreparedStatement prepareSelectDue(Session session) {
+        return session.prepare(select()
+            .from(TABLE_NAME)
+            .where(eq(QUEUE_NAME, bindMarker(QUEUE_NAME)))
+            .and(eq(TIME_RANGE_START, bindMarker(TIME_RANGE_START)))
+            .and(eq(BUCKET_ID, bindMarker(BUCKET_ID)))
+            .and(lte(DELIVERY_DATE, bindMarker(DELIVERY_DATE))));
+    }
+
+    private PreparedStatement prepareInsert(Session session) {
+        return session.prepare(insertInto(TABLE_NAME)
+            .value(QUEUE_NAME, bindMarker(QUEUE_NAME))
+            .value(TIME_RANGE_START, bindMarker(TIME_RANGE_START))
+            .value(BUCKET_ID, bindMarker(BUCKET_ID))
+            .value(DELIVERY_DATE, bindMarker(DELIVERY_DATE))
+            .value(ENQUEUE_ID, bindMarker(ENQUEUE_ID))
+            .value(MAIL_REFERENCE, bindMarker(MAIL_REFERENCE))
+            .value(CLAIMED_AT, UNCLAIMED));
+    }
+
+    private PreparedStatement prepareClaim(Session session) {
+        return session.prepare(update(TABLE_NAME)
+            .with(set(CLAIMED_AT, bindMarker(CLAIMED_AT)))
+            .where(eq(QUEUE_NAME, bindMarker(QUEUE_NAME)))
+            .and(eq(TIME_RANGE_START, bindMarker(TIME_RANGE_START)))
+            .and(eq(BUCKET_ID, bindMarker(BUCKET_ID)))
+            .and(eq(DELIVERY_DATE, bindMarker(DELIVERY_DATE)))
+            .and(eq(ENQUEUE_ID, bindMarker(ENQUEUE_ID)))
+            .onlyIf(lt(CLAIMED_AT, bindMarker(CLAIM_EXPIRED_BEFORE))));
+    }
+
+    private PreparedStatement prepareDelete(Session session) {
+        return session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(QUEUE_NAME, bindMarker(QUEUE_NAME)))
+            .and(eq(TIME_RANGE_START, bindMarker(TIME_RANGE_START)))
+            .and(eq(BUCKET_ID, bindMarker(BUCKET_ID)))
+            .and(eq(DELIVERY_DATE, bindMarker(DELIVERY_DATE)))
+            .and(eq(ENQUEUE_ID, bindMarker(ENQUEUE_ID))));
+    }
+
+    Mono<Void> insert(MailQueueName mailQueueName, Slice slice, BucketId bucketId, DelayedMail delayedMail) {
+        return executor.executeVoid(insertOne.bind()
+            .setString(QUEUE_NAME, mailQueueName.asString())
+            .setTimestamp(TIME_RANGE_START, Date.from(slice.getStartSliceInstant()))
+            .setInt(BUCKET_ID, bucketId.getValue())
+            .setTimestamp(DELIVERY_DATE, Date.from(delayedMail.getDeliveryDate()))
+            .setUUID(ENQUEUE_ID, delayedMail.getEnqueueId().asUUID())
+            .setBytes(MAIL_REFERENCE, ByteBuffer.wrap(delayedMail.getMailReference())));
+    }
+
+    /**
+     * @return the delayed mails of this bucket whose delivery date is not after the given one, by delivery date,
+     * claimed or not
+     */
+    Flux<DelayedMail> selectDelayedMails(MailQueueName mailQueueName, Slice slice, BucketId bucketId, Instant deliveredBefore) {
+        return selectDueRows(mailQueueName, slice, bucketId, deliveredBefore)
+            .map(this::toDelayedMail);
+    }
+
+    /**
+     * @return the delayed mails of this bucket whose delivery date is not after the given one, by delivery date,
+     * that are not claimed or whose claim is not after the given date
+     */
+    Flux<DelayedMail> selectClaimableDelayedMails(MailQueueName mailQueueName, Slice slice, BucketId bucketId, Instant deliveredBefore, Instant claimExpiredBefore) {
+        return selectDueRows(mailQueueName, slice, bucketId, deliveredBefore)
+            .filter(row -> isClaimable(row, claimExpiredBefore))
+            .map(this::toDelayedMail);
+    }
+
+    private Flux<Row> selectDueRows(MailQueueName mailQueueName, Slice slice, BucketId bucketId, Instant deliveredBefore) {
+        return executor.executeRows(selectDue.bind()
+            .setString(QUEUE_NAME, mailQueueName.asString())
+            .setTimestamp(TIME_RANGE_START, Date.from(slice.getStartSliceInstant()))
+            .setInt(BUCKET_ID, bucketId.getValue())
+            .setTimestamp(DELIVERY_DATE, Date.from(deliveredBefore)));
+    }
+
+    private boolean isClaimable(Row row, Instant claimExpiredBefore) {
+        return row.getTimestamp(CLAIMED_AT).toInstant().isBefore(claimExpiredBefore);
+    }
+
+    /**
+     * Claims the given delayed mail using a lightweight transaction, so that concurrent schedulers
+     * agree on a single one publishing it. The mail is kept: it needs to be deleted once published.
+     *
+     * @param claimedAt date of this claim
+     * @param claimExpiredBefore claims that are not before this date are still active
+     * @return true if the caller is in charge of publishing the mail
+     */
+    Mono<Boolean> claim(MailQueueName mailQueueName, Slice slice, BucketId bucketId, DelayedMail delayedMail, Instant claimedAt, Instant claimExpiredBefore) {
+        return executor.executeReturnApplied(claimOne.bind()
+            .setTimestamp(CLAIMED_AT, Date.from(claimedAt))
+            .setString(QUEUE_NAME, mailQueueName.asString())
+            .setTimestamp(TIME_RANGE_START, Date.from(slice.getStartSliceInstant()))
+            .setInt(BUCKET_ID, bucketId.getValue())
+            .setTimestamp(DELIVERY_DATE, Date.from(delayedMail.getDeliveryDate()))
+            .setUUID(ENQUEUE_ID, delayedMail.getEnqueueId().asUUID())
+            .setTimestamp(CLAIM_EXPIRED_BEFORE, Date.from(claimExpiredBefore)));
+    }
+
+    Mono<Void> delete(MailQueueName mailQueueName, Slice slice, BucketId bucketId, DelayedMail delayedMail) {
+        return executor.executeVoid(deleteOne.bind()
+            .setString(QUEUE_NAME, mailQueueName.asString())
+            .setTimestamp(TIME_RANGE_START, Date.from(slice.getStartSliceInstant()))
+            .setInt(BUCKET_ID, bucketId.getValue())
+            .setTimestamp(DELIVERY_DATE, Date.from(delayedMail.getDeliveryDate()))
+            .setUUID(ENQUEUE_ID, delayedMail.getEnqueueId().asUUID()));
+    }
+
+    private DelayedMail toDelayedMail(Row row) {
+        ByteBuffer mailReference = row.getBytes(MAIL_REFERENCE);
+        byte[] bytes = new byte[mailReference.remaining()];
+        mailReference.get(bytes);
+        return DelayedMail.of(
+            EnqueueId.of(row.getUUID(ENQUEUE_ID)),
+            row.getTimestamp(DELIVERY_DATE).toInstant(),
+            bytes);
+    }
+}
@@ -0,0 +1,100 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq.view.cassandra;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsSlicesTable.QUEUE_NAME;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsSlicesTable.TABLE_NAME;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DelayedMailsSlicesTable.TIME_RANGE_START;
+
+import java.time.Instant;
+import java.util.Date;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.queue.rabbitmq.MailQueueName;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class DelayedMailsSlicesDAO {
+
+    private final CassandraAsyncExecutor executor;
+    private final PreparedStatement selectStartingBefore;
+    private final PreparedStatement insertOne;
+    private final PreparedStatement deleteOne;
+
+    @Inject
+    DelayedMailsSlicesDAO(Session session) {
+        this.executor = new CassandraAsyncExecutor(session);
+        this.selectStartingBefore = prepareSelectStartingBefore(session);
+        this.insertOne = prepareInsert(session);
+        this.deleteOne = prepareDelete(session);
+    }
+
+    private PreparedStatement prepareSelectStartingBefore(Session session) {
+        return session.prepare(select(TIME_RANGE_START)
+            .from(TABLE_NAME)
+            .where(eq(QUEUE_NAME, bindMarker(QUEUE_NAME)))
+            .and(lte(TIME_RANGE_START, bindMarker(TIME_RANGE_START))));
+    }
+
+    private PreparedStatement prepareInsert(Session session) {
+        return session.prepare(insertInto(TABLE_NAME)
+            .value(QUEUE_NAME, bindMarker(QUEUE_NAME))
+            .value(TIME_RANGE_START, bindMarker(TIME_RANGE_START)));
+    }
+
+    private PreparedStatement prepareDelete(Session session) {
+        return session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(QUEUE_NAME, bindMarker(QUEUE_NAME)))
+            .and(eq(TIME_RANGE_START, bindMarker(TIME_RANGE_START))));
+    }
+
+    Mono<Void> insert(MailQueueName mailQueueName, Slice slice) {
+        return executor.executeVoid(insertOne.bind()
+            .setString(QUEUE_NAME, mailQueueName.asString())
+            .setTimestamp(TIME_RANGE_START, Date.from(slice.getStartSliceInstant())));
+    }
+
+    Flux<Slice> listSlicesStartingBefore(MailQueueName mailQueueName, Instant instant) {
+        return executor.executeRows(selectStartingBefore.bind()
+                .setString(QUEUE_NAME, mailQueueName.asString())
+                .setTimestamp(TIME_RANGE_START, Date.from(instant)))
+            .map(row -> Slice.of(row.getTimestamp(TIME_RANGE_START).toInstant()));
+    }
+
+    Mono<Void> delete(MailQueueName mailQueueName, Slice slice) {
+        return executor.executeVoid(deleteOne.bind()
+            .setString(QUEUE_NAME, mailQueueName.asString())
+            .setTimestamp(TIME_RANGE_START, Date.from(slice.getStartSliceInstant())));
+    }
+}
@@ -0,0 +1,109 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq.view.cassandra;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.EnqueuedMailsContentTable.CONTENT;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.EnqueuedMailsContentTable.ENQUEUE_ID;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.EnqueuedMailsContentTable.QUEUE_NAME;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.EnqueuedMailsContentTable.TABLE_NAME;
+
+import java.nio.ByteBuffer;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.queue.rabbitmq.EnqueueId;
+import org.apache.james.queue.rabbitmq.InlineMessage;
+import org.apache.james.queue.rabbitmq.MailQueueName;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+
+import reactor.core.publisher.Mono;
+
+public class EnqueuedMailsContentDAO {
+
+    private final CassandraAsyncExecutor executor;
+    private final PreparedStatement selectOne;
+    private final PreparedStatement insertOne;
+    private final PreparedStatement deleteOne;
+
+    @Inject
+    EnqueuedMailsContentDAO(Session session) {
+        this.executor = new CassandraAsyncExecutor(session);
+        this.selectOne = prepareSelectOne(session);
+        this.insertOne = prepareInsert(session);
+        this.deleteOne = prepareDelete(session);
+    }
+
+    private PreparedStatement prepareSelectOne(Session session) {
+        return session.prepare(select(CONTENT)
+            .from(TABLE_NAME)
+            .where(eq(QUEUE_NAME, bindMarker(QUEUE_NAME)))
+            .and(eq(ENQUEUE_ID, bindMarker(ENQUEUE_ID))));
+    }
+
+    private PreparedStatement prepareInsert(Session session) {
+        return session.prepare(insertInto(TABLE_NAME)
+            .value(QUEUE_NAME, bindMarker(QUEUE_NAME))
+            .value(ENQUEUE_ID, bindMarker(ENQUEUE_ID))
+            .value(CONTENT, bindMarker(CONTENT)));
+    }
+
+    private PreparedStatement prepareDelete(Session session) {
+        return session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(QUEUE_NAME, bindMarker(QUEUE_NAME)))
+            .and(eq(ENQUEUE_ID, bindMarker(ENQUEUE_ID))));
+    }
+
+    Mono<Void> insert(MailQueueName mailQueueName, EnqueueId enqueueId, InlineMessage inlineMessage) {
+        return executor.executeVoid(insertOne.bind()
+            .setString(QUEUE_NAME, mailQueueName.asString())
+            .setUUID(ENQUEUE_ID, enqueueId.asUUID())
+            .setBytes(CONTENT, ByteBuffer.wrap(inlineMessage.asBytes())));
+    }
+
+    Mono<InlineMessage> read(MailQueueName mailQueueName, EnqueueId enqueueId) {
+        return executor.executeSingleRow(selectOne.bind()
+                .setString(QUEUE_NAME, mailQueueName.asString())
+                .setUUID(ENQUEUE_ID, enqueueId.asUUID()))
+            .map(this::toInlineMessage);
+    }
+
+    Mono<Void> delete(MailQueueName mailQueueName, EnqueueId enqueueId) {
+        return executor.executeVoid(deleteOne.bind()
+            .setString(QUEUE_NAME, mailQueueName.asString())
+            .setUUID(ENQUEUE_ID, enqueueId.asUUID()));
+    }
+
+    private InlineMessage toInlineMessage(Row row) {
+        ByteBuffer content = row.getBytes(CONTENT);
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        return InlineMessage.of(bytes);
+    }
+}
@@ -47,7 +47,9 @@ import static org.apache.james.queue.rabbitmq.view.cassandra.EnqueuedMailsDaoUti
 import static org.apache.james.queue.rabbitmq.view.cassandra.EnqueuedMailsDaoUtil.toTupleList;
 
 import java.util.Date;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -66,6 +68,7 @@ import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.TupleType;
+import com.google.common.collect.ImmutableList;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -75,6 +78,7 @@ public class EnqueuedMailsDAO {
     private final CassandraAsyncExecutor executor;
     private final PreparedStatement selectFrom;
     private final PreparedStatement insert;
+    private final PreparedStatement selectBlobIds;
     private final BlobId.Factory blobFactory;
     private final TupleType userHeaderNameHeaderValueTriple;
 
@@ -84,6 +88,7 @@ public class EnqueuedMailsDAO {
 
         this.selectFrom = prepareSelectFrom(session);
         this.insert = prepareInsert(session);
+        this.selectBlobIds = prepareSelectBlobIds(session);
         this.blobFactory = blobIdFactory;
         this.userHeaderNameHeaderValueTriple = session.getCluster().getMetadata().newTupleType(text(), text(), text());
     }
@@ -96,6 +101,11 @@ public class EnqueuedMailsDAO {
             .and(eq(BUCKET_ID, bindMarker(BUCKET_ID))));
     }
 
+    private PreparedStatement prepareSelectBlobIds(Session session) {
+        return session.prepare(select(HEADER_BLOB_ID, BODY_BLOB_ID)
+            .from(TABLE_NAME));
+    }
+
     private PreparedStatement prepareInsert(Session session) {
         return session.prepare(insertInto(TABLE_NAME)
             .value(QUEUE_NAME, bindMarker(QUEUE_NAME))
@@ -121,7 +131,7 @@ public class EnqueuedMailsDAO {
         EnqueuedItem enqueuedItem = enqueuedItemWithSlicing.getEnqueuedItem();
         EnqueuedItemWithSlicingContext.SlicingContext slicingContext = enqueuedItemWithSlicing.getSlicingContext();
         Mail mail = enqueuedItem.getMail();
-        MimeMessagePartsId mimeMessagePartsId = enqueuedItem.getPartsId();
+        Optional<MimeMessagePartsId> mimeMessagePartsId = enqueuedItem.getPartsId();
 
         BoundStatement statement = insert.bind()
             .setString(QUEUE_NAME, enqueuedItem.getMailQueueName().asString())
@@ -130,8 +140,6 @@ public class EnqueuedMailsDAO {
             .setTimestamp(ENQUEUED_TIME, Date.from(enqueuedItem.getEnqueuedTime()))
             .setUUID(ENQUEUE_ID, enqueuedItem.getEnqueueId().asUUID())
             .setString(NAME, mail.getName())
-            .setString(HEADER_BLOB_ID, mimeMessagePartsId.getHeaderBlobId().asString())
-            .setString(BODY_BLOB_ID, mimeMessagePartsId.getBodyBlobId().asString())
             .setString(STATE, mail.getState())
             .setList(RECIPIENTS, asStringList(mail.getRecipients()))
 
@@ -144,6 +152,11 @@ public class EnqueuedMailsDAO {
         Optional.ofNullable(mail.getErrorMessage())
             .ifPresent(errorMessage -> statement.setString(ERROR_MESSAGE, mail.getErrorMessage()));
 
+        mimeMessagePartsId
+            .ifPresent(partsId -> statement
+                .setString(HEADER_BLOB_ID, partsId.getHeaderBlobId().asString())
+                .setString(BODY_BLOB_ID, partsId.getBodyBlobId().asString()));
+
         mail.getMaybeSender()
             .asOptional()
             .map(MailAddress::asString)
@@ -163,4 +176,12 @@ public class EnqueuedMailsDAO {
             .map(row -> EnqueuedMailsDaoUtil.toEnqueuedMail(row, blobFactory));
     }
 
+    Flux<BlobId> listBlobs() {
+        return executor.executeRows(selectBlobIds.bind())
+            .flatMapIterable(row -> Stream.of(row.getString(HEADER_BLOB_ID), row.getString(BODY_BLOB_ID))
+                .filter(Objects::nonNull)
+                .map(blobFactory::from)
+                .collect(ImmutableList.toImmutableList()));
+    }
+
 }
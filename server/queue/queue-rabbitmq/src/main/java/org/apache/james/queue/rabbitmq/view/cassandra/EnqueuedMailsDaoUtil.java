@@ -86,13 +86,12 @@ public class EnqueuedMailsDaoUtil {
         Instant timeRangeStart = row.getTimestamp(TIME_RANGE_START).toInstant();
         BucketedSlices.BucketId bucketId = BucketedSlices.BucketId.of(row.getInt(BUCKET_ID));
         Instant enqueuedTime = row.getTimestamp(ENQUEUED_TIME).toInstant();
-        BlobId headerBlobId = blobFactory.from(row.getString(HEADER_BLOB_ID));
-        BlobId bodyBlobId = blobFactory.from(row.getString(BODY_BLOB_ID));
-        MimeMessagePartsId mimeMessagePartsId = MimeMessagePartsId
-            .builder()
-            .headerBlobId(headerBlobId)
-            .bodyBlobId(bodyBlobId)
-            .build();
+        Optional<MimeMessagePartsId> mimeMessagePartsId = Optional.ofNullable(row.getString(HEADER_BLOB_ID))
+            .map(headerBlobId -> MimeMessagePartsId
+                .builder()
+                .headerBlobId(blobFactory.from(headerBlobId))
+                .bodyBlobId(blobFactory.from(row.getString(BODY_BLOB_ID)))
+                .build());
 
         MailAddress sender = Optional.ofNullable(row.getString(SENDER))
             .map(Throwing.function(MailAddress::new))
@@ -127,7 +126,7 @@ public class EnqueuedMailsDaoUtil {
             .mailQueueName(queueName)
             .mail(mail)
             .enqueuedTime(enqueuedTime)
-            .mimeMessagePartsId(mimeMessagePartsId)
+            .partsId(mimeMessagePartsId)
             .build();
 
 
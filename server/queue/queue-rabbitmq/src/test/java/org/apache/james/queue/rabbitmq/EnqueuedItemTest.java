@@ -19,8 +19,10 @@
 
 package org.apache.james.queue.rabbitmq;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 
 import javax.mail.MessagingException;
@@ -115,4 +117,33 @@ class EnqueuedItemTest {
                 .build())
             .isInstanceOf(NullPointerException.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void buildShouldNotRequirePartsIdForInlineMessages() {
+        EnqueuedItem enqueuedItem = EnqueuedItem.builder()
+            .enqueueId(EnqueueId.generate())
+            .mailQueueName(mailQueueName)
+            .mail(mail)
+            .enqueuedTime(enqueuedTime)
+            .inlineMessage()
+            .build();
+
+        assertThat(enqueuedItem.getPartsId()).isEmpty();
+    }
+
+    @Test
+    void buildShouldKeepInlineMessageContent() {
+        InlineMessage inlineMessage = InlineMessage.of("Subject: test\r\n\r\nbody\r\n".getBytes(StandardCharsets.UTF_8));
+
+        EnqueuedItem enqueuedItem = EnqueuedItem.builder()
+            .enqueueId(EnqueueId.generate())
+            .mailQueueName(mailQueueName)
+            .mail(mail)
+            .enqueuedTime(enqueuedTime)
+            .inlineMessage(inlineMessage)
+            .build();
+
+        assertThat(enqueuedItem.getPartsId()).isEmpty();
+        assertThat(enqueuedItem.getInlineMessage()).contains(inlineMessage);
+    }
+}
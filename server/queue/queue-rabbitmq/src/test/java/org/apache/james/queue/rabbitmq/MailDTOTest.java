@@ -23,6 +23,7 @@ import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.apache.james.util.ClassLoaderUtils.getSystemResourceAsString;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
 
@@ -49,6 +50,8 @@ class MailDTOTest {
     static final EnqueueId EN_QUEUE_ID = EnqueueId.ofSerialized("110e8400-e29b-11d4-a716-446655440000");
     static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
     static final Date LAST_UPDATED = Date.from(Instant.parse("2016-09-08T14:25:52.000Z"));
+    static final long BODY_SIZE = 1024L;
+    static final InlineMessage INLINE_MESSAGE = InlineMessage.of("Subject: test\r\n\r\nbody\r\n".getBytes(StandardCharsets.UTF_8));
 
     private ObjectMapper objectMapper;
 
@@ -84,6 +87,42 @@ class MailDTOTest {
             .isEqualTo(mailDTOMin());
     }
 
+    @Test
+    void mailDtoShouldBeSerializedWhenInlineMessage() throws Exception {
+        assertThatJson(objectMapper.writeValueAsString(mailDTOInline()))
+            .isEqualTo(getSystemResourceAsString("json/mail_inline.json"));
+    }
+
+    @Test
+    void mailDtoShouldBeDeserializedWhenInlineMessage() throws Exception {
+        assertThat(objectMapper.readValue(getSystemResourceAsString("json/mail_inline.json"), MailReferenceDTO.class))
+            .isEqualTo(mailDTOInline());
+    }
+
+    @Test
+    void mailDtoShouldPreserveBodySize() throws Exception {
+        MailReferenceDTO mailDTO = objectMapper.readValue(objectMapper.writeValueAsString(mailDTOWithBodySize()), MailReferenceDTO.class);
+
+        assertThat(mailDTO.toMailReference(BLOB_ID_FACTORY).getPartsId().flatMap(MimeMessagePartsId::getBodySize))
+            .contains(BODY_SIZE);
+    }
+
+    @Test
+    void toMailReferenceShouldRestoreInlineMessage() throws Exception {
+        MailReference mailReference = mailDTOInline().toMailReference(BLOB_ID_FACTORY);
+
+        assertThat(mailReference.getPartsId()).isEmpty();
+        assertThat(mailReference.getInlineMessage()).contains(INLINE_MESSAGE);
+    }
+
+    @Test
+    void toMailReferenceShouldRestoreBlobIds() throws Exception {
+        MailReference mailReference = mailDTOMin().toMailReference(BLOB_ID_FACTORY);
+
+        assertThat(mailReference.getInlineMessage()).isEmpty();
+        assertThat(mailReference.getPartsId()).isPresent();
+    }
+
     private MailReferenceDTO mailDTO1() throws MessagingException {
         return MailReferenceDTO.fromMailReference(
             new MailReference(
@@ -128,4 +167,31 @@ class MailDTOTest {
                     .bodyBlobId(BLOB_ID_FACTORY.from("ef46c026-7819-4048-b562-3a37469191ed"))
                     .build()));
     }
+
+    private MailReferenceDTO mailDTOWithBodySize() {
+        return MailReferenceDTO.fromMailReference(
+            new MailReference(
+                EN_QUEUE_ID,
+                MailImpl.builder()
+                    .name("mail-name-558")
+                    .build(),
+                MimeMessagePartsId.builder()
+                    .headerBlobId(BLOB_ID_FACTORY.from("210e7136-ede3-44eb-9495-3ed816d6e23b"))
+                    .bodyBlobId(BLOB_ID_FACTORY.from("ef46c026-7819-4048-b562-3a37469191ed"))
+                    .bodySize(BODY_SIZE)
+                    .build()));
+    }
+
+    private MailReferenceDTO mailDTOInline() {
+        MailImpl mail = MailImpl.builder()
+            .name("mail-name-558")
+            .build();
+        mail.setState(null);
+        mail.setLastUpdated(null);
+        return MailReferenceDTO.fromMailReference(
+            new MailReference(
+                EN_QUEUE_ID,
+                mail,
+                INLINE_MESSAGE));
+    }
 }
@@ -22,25 +22,37 @@ package org.apache.james.queue.rabbitmq;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
+
 import javax.mail.internet.MimeMessage;
 
 import org.apache.james.blob.api.HashBlobId;
 import org.apache.james.blob.api.Store;
 import org.apache.james.blob.mail.MimeMessagePartsId;
+import org.apache.james.server.core.MailImpl;
 import org.junit.jupiter.api.Test;
 
 import reactor.core.publisher.Mono;
 
 class MailLoaderTest {
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+
     @Test
     void storeExceptionShouldBePropagated() {
         Store<MimeMessage, MimeMessagePartsId> store = mock(Store.class);
         when(store.read(any())).thenReturn(Mono.error(new RuntimeException("Cassandra problem")));
         MailReferenceDTO dto = mock(MailReferenceDTO.class);
-        when(dto.toMailReference(any())).thenReturn(mock(MailReference.class));
-        MailLoader loader = new MailLoader(store, new HashBlobId.Factory());
+        when(dto.toMailReference(any())).thenReturn(new MailReference(EnqueueId.generate(),
+            MailImpl.builder().name("name").build(),
+            MimeMessagePartsId.builder()
+                .headerBlobId(BLOB_ID_FACTORY.from("header"))
+                .bodyBlobId(BLOB_ID_FACTORY.from("body"))
+                .build()));
+        MailLoader loader = new MailLoader(store, BLOB_ID_FACTORY);
 
         String result = loader.load(dto)
             .thenReturn("continued")
@@ -48,4 +60,20 @@ class MailLoaderTest {
             .block();
         assertThat(result).isEqualTo("caught");
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadShouldNotReadStoreForInlineMessages() throws Exception {
+        Store<MimeMessage, MimeMessagePartsId> store = mock(Store.class);
+        MailReferenceDTO dto = mock(MailReferenceDTO.class);
+        when(dto.toMailReference(any())).thenReturn(new MailReference(EnqueueId.generate(),
+            MailImpl.builder().name("name").build(),
+            InlineMessage.of("Subject: test\r\n\r\nbody\r\n".getBytes(StandardCharsets.UTF_8))));
+        MailLoader loader = new MailLoader(store, BLOB_ID_FACTORY);
+
+        MailWithEnqueueId mail = loader.load(dto).block();
+
+        assertThat(mail.getMail().getMessage().getSubject()).isEqualTo("test");
+        assertThat(mail.getBlobIds()).isEmpty();
+        verify(store, never()).read(any());
+    }
+}
@@ -31,11 +31,13 @@ import static org.apache.mailet.base.MailAddressFixture.RECIPIENT1;
 import static org.apache.mailet.base.MailAddressFixture.SENDER;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Durations.TEN_SECONDS;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
@@ -85,6 +87,7 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 import org.mockito.ArgumentCaptor;
 
 import com.github.fge.lambdas.Throwing;
+import com.google.common.base.Strings;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -203,6 +206,27 @@ class RabbitMQMailQueueTest {
                 .isEmpty();
         }
 
+        @Test
+        void dequeuedMailSizeShouldRemainAvailableOnceAcknowledged(CassandraCluster cassandra) throws Exception {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            Flux<MailQueue.MailQueueItem> dequeueFlux = Flux.from(getMailQueue().deQueue());
+            getMailQueue().enQueue(defaultMail()
+                .name("myMail1")
+                .build());
+
+            MailQueue.MailQueueItem dequeuedItem = dequeueFlux.take(1)
+                .flatMap(mailQueueItem -> Mono.fromCallable(() -> {
+                    mailQueueItem.getMail().getMessage().writeTo(content);
+                    mailQueueItem.done(true);
+                    return mailQueueItem;
+                })).blockLast(Duration.ofSeconds(10));
+
+            assertThat(cassandra.getConf().execute(select().from(BlobTables.DefaultBucketBlobTable.TABLE_NAME)))
+                .isEmpty();
+            assertThat(dequeuedItem.getMail().getMessageSize())
+                .isEqualTo(content.size());
+        }
+
         @Test
         void clearShouldDeleteBlobs(CassandraCluster cassandra) throws Exception {
             String name1 = "myMail1";
@@ -813,6 +837,259 @@ class RabbitMQMailQueueTest {
         }
     }
 
+    @Nested
+    class InlineMessages implements ManageableMailQueueContract {
+        private static final long INLINE_THRESHOLD = 16 * 1024;
+
+        @RegisterExtension
+        MailQueueMetricExtension mailQueueMetricExtension = new MailQueueMetricExtension();
+
+        @BeforeEach
+        void setup(CassandraCluster cassandra, MailQueueMetricExtension.MailQueueMetricTestSystem metricTestSystem) throws Exception {
+            setUp(cassandra,
+                metricTestSystem,
+                RabbitMQMailQueueConfiguration.builder()
+                    .sizeMetricsEnabled(true)
+                    .inlineThreshold(INLINE_THRESHOLD)
+                    .build(),
+                CassandraBlobStoreFactory.forTesting(cassandra.getConf())
+                    .passthrough());
+        }
+
+        @Override
+        public void enQueue(Mail mail) throws MailQueue.MailQueueException {
+            ManageableMailQueueContract.super.enQueue(mail);
+            clock.tick();
+        }
+
+        @Override
+        public RabbitMQMailQueue getMailQueue() {
+            return mailQueue;
+        }
+
+        @Override
+        public ManageableMailQueue getManageableMailQueue() {
+            return mailQueue;
+        }
+
+        @Test
+        void enqueueShouldNotSaveBlobsForSmallMessages(CassandraCluster cassandra) throws Exception {
+            getMailQueue().enQueue(defaultMail()
+                .name("myMail1")
+                .build());
+
+            assertThat(cassandra.getConf().execute(select().from(BlobTables.DefaultBucketBlobTable.TABLE_NAME)))
+                .isEmpty();
+        }
+
+        @Test
+        void enqueueShouldSaveBlobsForMessagesBiggerThanThreshold(CassandraCluster cassandra) throws Exception {
+            getMailQueue().enQueue(defaultMail()
+                .name("myMail1")
+                .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                    .setSubject("big")
+                    .setText(Strings.repeat("0123456789", 2 * 1024)))
+                .build());
+
+            assertThat(cassandra.getConf().execute(select().from(BlobTables.DefaultBucketBlobTable.TABLE_NAME)))
+                .isNotEmpty();
+        }
+
+        @Test
+        void dequeueShouldRetrieveInlineMessageContent() throws Exception {
+            Flux<MailQueue.MailQueueItem> dequeueFlux = Flux.from(getMailQueue().deQueue());
+            getMailQueue().enQueue(defaultMail()
+                .name("myMail1")
+                .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                    .setSubject("small")
+                    .setText("small content"))
+                .build());
+
+            MailQueue.MailQueueItem item = dequeueFlux.blockFirst(Duration.ofSeconds(10));
+
+            assertThat(item.getMail().getMessage().getContent())
+                .isEqualTo("small content");
+        }
+
+        @Test
+        void dequeueShouldDeleteInlineMessageContent(CassandraCluster cassandra) throws Exception {
+            Flux<MailQueue.MailQueueItem> dequeueFlux = Flux.from(getMailQueue().deQueue());
+            getMailQueue().enQueue(defaultMail()
+                .name("myMail1")
+                .build());
+
+            dequeueFlux.take(1)
+                .flatMap(mailQueueItem -> Mono.fromCallable(() -> {
+                    mailQueueItem.done(true);
+                    return mailQueueItem;
+                })).blockLast(Duration.ofSeconds(10));
+
+            assertThat(cassandra.getConf().execute(select().from(CassandraMailQueueViewModule.EnqueuedMailsContentTable.TABLE_NAME)))
+                .isEmpty();
+        }
+    }
+
+    @Nested
+    class DelayedMails {
+        private static final Duration POLLING_INTERVAL = Duration.ofMillis(100);
+
+        @RegisterExtension
+        MailQueueMetricExtension mailQueueMetricExtension = new MailQueueMetricExtension();
+
+        @BeforeEach
+        void setup(CassandraCluster cassandra, MailQueueMetricExtension.MailQueueMetricTestSystem metricTestSystem) throws Exception {
+            setUp(cassandra,
+                metricTestSystem,
+                RabbitMQMailQueueConfiguration.builder()
+                    .sizeMetricsEnabled(true)
+                    .delayedMailsPollingInterval(POLLING_INTERVAL)
+                    .build(),
+                CassandraBlobStoreFactory.forTesting(cassandra.getConf())
+                    .passthrough());
+        }
+
+        @Test
+        void delayedMailShouldNotBeDeliveredBeforeItIsDue() throws Exception {
+            mailQueue.enQueue(defaultMail()
+                .name("name")
+                .build(),
+                Duration.ofHours(1));
+
+            Mono<MailQueue.MailQueueItem> next = Flux.from(mailQueue.deQueue()).subscribeOn(Schedulers.elastic()).next();
+            assertThatThrownBy(() -> next.block(Duration.ofSeconds(2)))
+                .isInstanceOf(RuntimeException.class);
+        }
+
+        @Test
+        void delayedMailShouldBeDeliveredOnceDue() throws Exception {
+            mailQueue.enQueue(defaultMail()
+                .name("name")
+                .build(),
+                Duration.ofHours(1));
+
+            clock.setInstant(IN_SLICE_3);
+
+            assertThat(Flux.from(mailQueue.deQueue()).blockFirst(Duration.ofSeconds(10)).getMail().getName())
+                .isEqualTo("name");
+        }
+
+        @Test
+        void deliveredDelayedMailShouldBeDeletedFromTheView(CassandraCluster cassandra) throws Exception {
+            mailQueue.enQueue(defaultMail()
+                .name("name")
+                .build(),
+                Duration.ofHours(1));
+
+            clock.setInstant(IN_SLICE_3);
+            Flux.from(mailQueue.deQueue()).blockFirst(Duration.ofSeconds(10));
+
+            Awaitility.await().atMost(TEN_SECONDS)
+                .untilAsserted(() -> assertThat(cassandra.getConf().execute(select().from(CassandraMailQueueViewModule.DelayedMailsTable.TABLE_NAME)))
+                    .isEmpty());
+        }
+
+        @Test
+        void negativeDelayShouldNotDelayDelivery() throws Exception {
+            mailQueue.enQueue(defaultMail()
+                .name("name")
+                .build(),
+                Duration.ofHours(-1));
+
+            assertThat(Flux.from(mailQueue.deQueue()).blockFirst(Duration.ofSeconds(10)).getMail().getName())
+                .isEqualTo("name");
+        }
+
+        @Test
+        void flushShouldDeliverDelayedMails() throws Exception {
+            mailQueue.enQueue(defaultMail()
+                .name("name")
+                .build(),
+                Duration.ofDays(365));
+
+            assertThat(mailQueue.flush()).isEqualTo(1L);
+            assertThat(Flux.from(mailQueue.deQueue()).blockFirst(Duration.ofSeconds(10)).getMail().getName())
+                .isEqualTo("name");
+        }
+
+        @Test
+        void flushShouldDeliverMailsDelayedForever() throws Exception {
+            mailQueue.enQueue(defaultMail()
+                .name("name")
+                .build(),
+                ChronoUnit.FOREVER.getDuration());
+
+            mailQueue.flush();
+
+            assertThat(Flux.from(mailQueue.deQueue()).blockFirst(Duration.ofSeconds(10)).getMail().getName())
+                .isEqualTo("name");
+        }
+
+        @Test
+        void delayedMailsShouldBeBrowsable() throws Exception {
+            mailQueue.enQueue(defaultMail()
+                .name("name")
+                .build(),
+                Duration.ofHours(1));
+
+            assertThat(mailQueue.browse())
+                .toIterable()
+                .extracting(ManageableMailQueue.MailQueueItemView::getMail)
+                .extracting(Mail::getName)
+                .containsExactly("name");
+            assertThat(mailQueue.getSize()).isEqualTo(1L);
+        }
+
+        @Test
+        void clearedDelayedMailsShouldNotBeDelivered() throws Exception {
+            mailQueue.enQueue(defaultMail()
+                .name("name")
+                .build(),
+                Duration.ofHours(1));
+
+            mailQueue.clear();
+            mailQueue.flush();
+
+            Mono<MailQueue.MailQueueItem> next = Flux.from(mailQueue.deQueue()).subscribeOn(Schedulers.elastic()).next();
+            assertThatThrownBy(() -> next.block(Duration.ofSeconds(2)))
+                .isInstanceOf(RuntimeException.class);
+        }
+
+        @Test
+        void delayedMailsShouldSurviveRestarts() throws Exception {
+            mailQueue.enQueue(defaultMail()
+                .name("name")
+                .build(),
+                Duration.ofHours(1));
+            mailQueue.close();
+
+            RabbitMQMailQueue restartedMailQueue = mailQueueFactory.getQueue(SPOOL).get();
+            clock.setInstant(IN_SLICE_3);
+
+            assertThat(Flux.from(restartedMailQueue.deQueue()).blockFirst(Duration.ofSeconds(10)).getMail().getName())
+                .isEqualTo("name");
+        }
+
+        @Test
+        void delayedMailsShouldBeDeliveredOnceWhenSeveralSchedulers() throws Exception {
+            RabbitMQMailQueue otherMailQueue = mailQueueFactory.getQueue(SPOOL).get();
+            mailQueue.enQueue(defaultMail()
+                .name("name")
+                .build(),
+                Duration.ofHours(1));
+
+            clock.setInstant(IN_SLICE_3);
+
+            List<MailQueue.MailQueueItem> items = Flux.merge(mailQueue.deQueue(), otherMailQueue.deQueue())
+                .take(Duration.ofSeconds(3))
+                .collectList()
+                .block();
+            assertThat(items)
+                .extracting(MailQueue.MailQueueItem::getMail)
+                .extracting(Mail::getName)
+                .containsExactly("name");
+        }
+    }
+
     @Nested
     class DeDuplicationTest {
         @RegisterExtension
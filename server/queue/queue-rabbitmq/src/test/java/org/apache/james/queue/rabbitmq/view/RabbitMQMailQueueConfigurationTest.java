@@ -20,6 +20,9 @@
 package org.apache.james.queue.rabbitmq.view;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
 
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.junit.jupiter.api.Test;
@@ -49,4 +52,58 @@ class RabbitMQMailQueueConfigurationTest {
         assertThat(actual.isSizeMetricsEnabled())
             .isEqualTo(false);
     }
+
+    @Test
+    void fromShouldDisableInliningByDefault() {
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(new PropertiesConfiguration());
+
+        assertThat(actual.isInliningEnabled())
+            .isFalse();
+    }
+
+    @Test
+    void fromShouldReturnConfiguredInlineThreshold() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.INLINE_THRESHOLD_PROPERTY, 16384);
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(configuration);
+
+        assertThat(actual.getInlineThreshold())
+            .isEqualTo(16384L);
+    }
+
+    @Test
+    void fromShouldThrowOnNegativeInlineThreshold() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.INLINE_THRESHOLD_PROPERTY, -1);
+
+        assertThatThrownBy(() -> RabbitMQMailQueueConfiguration.from(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fromShouldPollDelayedMailsEverySecondByDefault() {
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(new PropertiesConfiguration());
+
+        assertThat(actual.getDelayedMailsPollingInterval())
+            .isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void fromShouldReturnConfiguredDelayedMailsPollingInterval() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.DELAYED_MAILS_POLLING_INTERVAL_PROPERTY, "500ms");
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(configuration);
+
+        assertThat(actual.getDelayedMailsPollingInterval())
+            .isEqualTo(Duration.ofMillis(500));
+    }
+
+    @Test
+    void fromShouldThrowOnZeroDelayedMailsPollingInterval() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.DELAYED_MAILS_POLLING_INTERVAL_PROPERTY, "0s");
+
+        assertThatThrownBy(() -> RabbitMQMailQueueConfiguration.from(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
 }
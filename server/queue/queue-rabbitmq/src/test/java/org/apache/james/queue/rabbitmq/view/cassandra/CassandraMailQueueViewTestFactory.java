@@ -39,15 +39,20 @@ public class CassandraMailQueueViewTestFactory {
         EnqueuedMailsDAO enqueuedMailsDao = new EnqueuedMailsDAO(session, blobIdFactory);
         BrowseStartDAO browseStartDao = new BrowseStartDAO(session);
         DeletedMailsDAO deletedMailsDao = new DeletedMailsDAO(session);
+        EnqueuedMailsContentDAO enqueuedMailsContentDao = new EnqueuedMailsContentDAO(session);
+        DelayedMailsDAO delayedMailsDao = new DelayedMailsDAO(session);
+        DelayedMailsSlicesDAO delayedMailsSlicesDao = new DelayedMailsSlicesDAO(session);
 
-        CassandraMailQueueBrowser cassandraMailQueueBrowser = new CassandraMailQueueBrowser(browseStartDao, deletedMailsDao, enqueuedMailsDao, mimeMessageStoreFactory, configuration, clock);
-        CassandraMailQueueMailStore cassandraMailQueueMailStore = new CassandraMailQueueMailStore(enqueuedMailsDao, browseStartDao, configuration, clock);
-        CassandraMailQueueMailDelete cassandraMailQueueMailDelete = new CassandraMailQueueMailDelete(deletedMailsDao, browseStartDao, cassandraMailQueueBrowser, configuration);
+        CassandraMailQueueBrowser cassandraMailQueueBrowser = new CassandraMailQueueBrowser(browseStartDao, deletedMailsDao, enqueuedMailsDao, enqueuedMailsContentDao, mimeMessageStoreFactory, configuration, clock);
+        CassandraMailQueueMailStore cassandraMailQueueMailStore = new CassandraMailQueueMailStore(enqueuedMailsDao, enqueuedMailsContentDao, browseStartDao, configuration, clock);
+        CassandraMailQueueMailDelete cassandraMailQueueMailDelete = new CassandraMailQueueMailDelete(deletedMailsDao, enqueuedMailsContentDao, browseStartDao, cassandraMailQueueBrowser, configuration);
+        CassandraMailQueueDelayedMails cassandraMailQueueDelayedMails = new CassandraMailQueueDelayedMails(delayedMailsDao, delayedMailsSlicesDao, configuration, clock);
 
         return new CassandraMailQueueView.Factory(
             cassandraMailQueueMailStore,
             cassandraMailQueueBrowser,
             cassandraMailQueueMailDelete,
+            cassandraMailQueueDelayedMails,
             mimeMessageStoreFactory);
     }
 
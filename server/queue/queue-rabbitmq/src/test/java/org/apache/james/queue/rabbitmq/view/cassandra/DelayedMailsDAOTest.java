@@ -0,0 +1,197 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq.view.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
+import org.apache.james.queue.rabbitmq.DelayedMail;
+import org.apache.james.queue.rabbitmq.EnqueueId;
+import org.apache.james.queue.rabbitmq.MailQueueName;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.BucketId;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class DelayedMailsDAOTest {
+
+    private static final MailQueueName OUT_GOING_1 = MailQueueName.fromString("OUT_GOING_1");
+    private static final MailQueueName OUT_GOING_2 = MailQueueName.fromString("OUT_GOING_2");
+    private static final Slice SLICE = Slice.of(Instant.parse("2040-01-01T10:00:00.000Z"));
+    private static final BucketId BUCKET_ID = BucketId.of(1);
+    private static final BucketId OTHER_BUCKET_ID = BucketId.of(2);
+    private static final Instant DELIVERY_DATE_1 = Instant.parse("2040-01-01T10:10:00.000Z");
+    private static final Instant DELIVERY_DATE_2 = Instant.parse("2040-01-01T10:20:00.000Z");
+    private static final byte[] MAIL_REFERENCE = "{\"name\":\"mail\"}".getBytes(StandardCharsets.UTF_8);
+    private static final DelayedMail DELAYED_MAIL_1 = DelayedMail.of(EnqueueId.ofSerialized("110e8400-e29b-11d4-a716-446655440000"), DELIVERY_DATE_1, MAIL_REFERENCE);
+    private static final DelayedMail DELAYED_MAIL_2 = DelayedMail.of(EnqueueId.ofSerialized("464765a0-e4e7-11e4-aba4-710c1de3782b"), DELIVERY_DATE_2, MAIL_REFERENCE);
+    private static final Instant NOW = Instant.parse("2040-01-01T11:00:00.000Z");
+    private static final Duration CLAIM_DURATION = Duration.ofMinutes(5);
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(
+        CassandraModule.aggregateModules(
+            CassandraSchemaVersionModule.MODULE,
+            CassandraMailQueueViewModule.MODULE));
+
+    private DelayedMailsDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new DelayedMailsDAO(cassandra.getConf());
+    }
+
+    @Test
+    void selectDelayedMailsShouldReturnEmptyByDefault() {
+        assertThat(testee.selectDelayedMails(OUT_GOING_1, SLICE, BUCKET_ID, DelayedMail.MAX_DELIVERY_DATE).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void selectDelayedMailsShouldReturnInsertedMailsByDeliveryDate() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_2).block();
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+
+        assertThat(testee.selectDelayedMails(OUT_GOING_1, SLICE, BUCKET_ID, DelayedMail.MAX_DELIVERY_DATE).collectList().block())
+            .containsExactly(DELAYED_MAIL_1, DELAYED_MAIL_2);
+    }
+
+    @Test
+    void selectDelayedMailsShouldOnlyReturnDueMails() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_2).block();
+
+        assertThat(testee.selectDelayedMails(OUT_GOING_1, SLICE, BUCKET_ID, DELIVERY_DATE_1).collectList().block())
+            .containsExactly(DELAYED_MAIL_1);
+    }
+
+    @Test
+    void selectDelayedMailsShouldNotReturnMailsOfOtherBuckets() {
+        testee.insert(OUT_GOING_1, SLICE, OTHER_BUCKET_ID, DELAYED_MAIL_1).block();
+
+        assertThat(testee.selectDelayedMails(OUT_GOING_1, SLICE, BUCKET_ID, DelayedMail.MAX_DELIVERY_DATE).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void selectDelayedMailsShouldNotReturnMailsOfOtherQueues() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+
+        assertThat(testee.selectDelayedMails(OUT_GOING_2, SLICE, BUCKET_ID, DelayedMail.MAX_DELIVERY_DATE).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void claimShouldKeepTheMail() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+
+        claim(DELAYED_MAIL_1, NOW);
+
+        assertThat(testee.selectDelayedMails(OUT_GOING_1, SLICE, BUCKET_ID, DelayedMail.MAX_DELIVERY_DATE).collectList().block())
+            .containsExactly(DELAYED_MAIL_1);
+    }
+
+    @Test
+    void claimShouldSucceedOnlyOnce() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+
+        Boolean firstClaim = claim(DELAYED_MAIL_1, NOW);
+        Boolean secondClaim = claim(DELAYED_MAIL_1, NOW.plusSeconds(1));
+
+        assertThat(firstClaim).isTrue();
+        assertThat(secondClaim).isFalse();
+    }
+
+    @Test
+    void claimShouldSucceedAgainOnceTheClaimExpired() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+        claim(DELAYED_MAIL_1, NOW);
+
+        assertThat(claim(DELAYED_MAIL_1, NOW.plus(CLAIM_DURATION).plusSeconds(1)))
+            .isTrue();
+    }
+
+    @Test
+    void claimShouldFailWhenNoMail() {
+        assertThat(claim(DELAYED_MAIL_1, NOW))
+            .isFalse();
+    }
+
+    @Test
+    void claimShouldFailWhenDeleted() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+        claim(DELAYED_MAIL_1, NOW);
+        testee.delete(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+
+        assertThat(claim(DELAYED_MAIL_1, NOW.plus(CLAIM_DURATION).plusSeconds(1)))
+            .isFalse();
+        assertThat(testee.selectDelayedMails(OUT_GOING_1, SLICE, BUCKET_ID, DelayedMail.MAX_DELIVERY_DATE).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void deleteShouldRemoveTheMail() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_2).block();
+
+        testee.delete(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+
+        assertThat(testee.selectDelayedMails(OUT_GOING_1, SLICE, BUCKET_ID, DelayedMail.MAX_DELIVERY_DATE).collectList().block())
+            .containsExactly(DELAYED_MAIL_2);
+    }
+
+    @Test
+    void selectClaimableDelayedMailsShouldReturnUnclaimedMails() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+
+        assertThat(testee.selectClaimableDelayedMails(OUT_GOING_1, SLICE, BUCKET_ID, DelayedMail.MAX_DELIVERY_DATE, NOW.minus(CLAIM_DURATION)).collectList().block())
+            .containsExactly(DELAYED_MAIL_1);
+    }
+
+    @Test
+    void selectClaimableDelayedMailsShouldNotReturnMailsWithAnActiveClaim() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+        claim(DELAYED_MAIL_1, NOW);
+
+        assertThat(testee.selectClaimableDelayedMails(OUT_GOING_1, SLICE, BUCKET_ID, DelayedMail.MAX_DELIVERY_DATE, NOW.plusSeconds(1).minus(CLAIM_DURATION)).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void selectClaimableDelayedMailsShouldReturnMailsWithAnExpiredClaim() {
+        testee.insert(OUT_GOING_1, SLICE, BUCKET_ID, DELAYED_MAIL_1).block();
+        claim(DELAYED_MAIL_1, NOW);
+
+        assertThat(testee.selectClaimableDelayedMails(OUT_GOING_1, SLICE, BUCKET_ID, DelayedMail.MAX_DELIVERY_DATE, NOW.plusSeconds(1)).collectList().block())
+            .containsExactly(DELAYED_MAIL_1);
+    }
+
+    private Boolean claim(DelayedMail delayedMail, Instant now) {
+        return testee.claim(OUT_GOING_1, SLICE, BUCKET_ID, delayedMail, now, now.minus(CLAIM_DURATION)).block();
+    }
+}
@@ -0,0 +1,108 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq.view.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
+import org.apache.james.queue.rabbitmq.MailQueueName;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class DelayedMailsSlicesDAOTest {
+
+    private static final MailQueueName OUT_GOING_1 = MailQueueName.fromString("OUT_GOING_1");
+    private static final MailQueueName OUT_GOING_2 = MailQueueName.fromString("OUT_GOING_2");
+    private static final Slice SLICE_1 = Slice.of(Instant.parse("2040-01-01T10:00:00.000Z"));
+    private static final Slice SLICE_2 = Slice.of(Instant.parse("2040-01-01T11:00:00.000Z"));
+    private static final Slice SLICE_3 = Slice.of(Instant.parse("2040-01-01T12:00:00.000Z"));
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(
+        CassandraModule.aggregateModules(
+            CassandraSchemaVersionModule.MODULE,
+            CassandraMailQueueViewModule.MODULE));
+
+    private DelayedMailsSlicesDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new DelayedMailsSlicesDAO(cassandra.getConf());
+    }
+
+    @Test
+    void listSlicesStartingBeforeShouldReturnEmptyByDefault() {
+        assertThat(testee.listSlicesStartingBefore(OUT_GOING_1, SLICE_3.getStartSliceInstant()).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void listSlicesStartingBeforeShouldReturnSlicesInOrder() {
+        testee.insert(OUT_GOING_1, SLICE_2).block();
+        testee.insert(OUT_GOING_1, SLICE_1).block();
+
+        assertThat(testee.listSlicesStartingBefore(OUT_GOING_1, SLICE_3.getStartSliceInstant()).collectList().block())
+            .containsExactly(SLICE_1, SLICE_2);
+    }
+
+    @Test
+    void listSlicesStartingBeforeShouldNotReturnLaterSlices() {
+        testee.insert(OUT_GOING_1, SLICE_1).block();
+        testee.insert(OUT_GOING_1, SLICE_3).block();
+
+        assertThat(testee.listSlicesStartingBefore(OUT_GOING_1, SLICE_2.getStartSliceInstant()).collectList().block())
+            .containsExactly(SLICE_1);
+    }
+
+    @Test
+    void insertShouldBeIdempotent() {
+        testee.insert(OUT_GOING_1, SLICE_1).block();
+        testee.insert(OUT_GOING_1, SLICE_1).block();
+
+        assertThat(testee.listSlicesStartingBefore(OUT_GOING_1, SLICE_3.getStartSliceInstant()).collectList().block())
+            .containsExactly(SLICE_1);
+    }
+
+    @Test
+    void listSlicesStartingBeforeShouldNotReturnSlicesOfOtherQueues() {
+        testee.insert(OUT_GOING_1, SLICE_1).block();
+
+        assertThat(testee.listSlicesStartingBefore(OUT_GOING_2, SLICE_3.getStartSliceInstant()).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void deleteShouldRemoveTheSlice() {
+        testee.insert(OUT_GOING_1, SLICE_1).block();
+        testee.insert(OUT_GOING_1, SLICE_2).block();
+
+        testee.delete(OUT_GOING_1, SLICE_1).block();
+
+        assertThat(testee.listSlicesStartingBefore(OUT_GOING_1, SLICE_3.getStartSliceInstant()).collectList().block())
+            .containsExactly(SLICE_2);
+    }
+}
@@ -0,0 +1,105 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq.view.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
+import org.apache.james.queue.rabbitmq.EnqueueId;
+import org.apache.james.queue.rabbitmq.InlineMessage;
+import org.apache.james.queue.rabbitmq.MailQueueName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class EnqueuedMailsContentDAOTest {
+
+    private static final MailQueueName OUT_GOING_1 = MailQueueName.fromString("OUT_GOING_1");
+    private static final MailQueueName OUT_GOING_2 = MailQueueName.fromString("OUT_GOING_2");
+    private static final EnqueueId ENQUEUE_ID_1 = EnqueueId.ofSerialized("110e8400-e29b-11d4-a716-446655440000");
+    private static final EnqueueId ENQUEUE_ID_2 = EnqueueId.ofSerialized("464765a0-e4e7-11e4-aba4-710c1de3782b");
+    private static final InlineMessage MESSAGE = InlineMessage.of("Subject: test\r\n\r\nbody\r\n".getBytes(StandardCharsets.UTF_8));
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(
+        CassandraModule.aggregateModules(
+            CassandraSchemaVersionModule.MODULE,
+            CassandraMailQueueViewModule.MODULE));
+
+    private EnqueuedMailsContentDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new EnqueuedMailsContentDAO(cassandra.getConf());
+    }
+
+    @Test
+    void readShouldReturnEmptyByDefault() {
+        assertThat(testee.read(OUT_GOING_1, ENQUEUE_ID_1).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    void readShouldReturnInsertedContent() {
+        testee.insert(OUT_GOING_1, ENQUEUE_ID_1, MESSAGE).block();
+
+        assertThat(testee.read(OUT_GOING_1, ENQUEUE_ID_1).block())
+            .isEqualTo(MESSAGE);
+    }
+
+    @Test
+    void readShouldNotReturnContentOfOtherMails() {
+        testee.insert(OUT_GOING_1, ENQUEUE_ID_1, MESSAGE).block();
+
+        assertThat(testee.read(OUT_GOING_1, ENQUEUE_ID_2).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    void readShouldNotReturnContentOfOtherQueues() {
+        testee.insert(OUT_GOING_1, ENQUEUE_ID_1, MESSAGE).block();
+
+        assertThat(testee.read(OUT_GOING_2, ENQUEUE_ID_1).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    void deleteShouldRemoveContent() {
+        testee.insert(OUT_GOING_1, ENQUEUE_ID_1, MESSAGE).block();
+
+        testee.delete(OUT_GOING_1, ENQUEUE_ID_1).block();
+
+        assertThat(testee.read(OUT_GOING_1, ENQUEUE_ID_1).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    void deleteShouldBeIdempotent() {
+        testee.delete(OUT_GOING_1, ENQUEUE_ID_1).block();
+
+        assertThat(testee.read(OUT_GOING_1, ENQUEUE_ID_1).blockOptional())
+            .isEmpty();
+    }
+}
@@ -144,8 +144,51 @@ class EnqueuedMailsDaoTest {
                     softly.assertThat(enqueuedItem.getEnqueuedTime()).isEqualTo(NOW.truncatedTo(ChronoUnit.MILLIS));
                     softly.assertThat(enqueuedItem.getEnqueueId()).isEqualTo(ENQUEUE_ID);
                     softly.assertThat(enqueuedItem.getMail().getName()).isEqualTo(NAME);
-                    softly.assertThat(enqueuedItem.getPartsId()).isEqualTo(MIME_MESSAGE_PARTS_ID);
+                    softly.assertThat(enqueuedItem.getPartsId()).contains(MIME_MESSAGE_PARTS_ID);
                 });
             });
     }
-}
\ No newline at end of file
+
+    @Test
+    void selectEnqueuedMailsShouldReturnNoPartsIdForInlineMessages() throws Exception {
+        testee.insert(EnqueuedItemWithSlicingContext.builder()
+                .enqueuedItem(EnqueuedItem.builder()
+                    .enqueueId(ENQUEUE_ID)
+                    .mailQueueName(OUT_GOING_1)
+                    .mail(FakeMail.builder()
+                        .name(NAME)
+                        .build())
+                    .enqueuedTime(NOW)
+                    .inlineMessage()
+                    .build())
+                .slicingContext(EnqueuedItemWithSlicingContext.SlicingContext.of(BucketId.of(BUCKET_ID_VALUE), NOW))
+                .build())
+            .block();
+
+        List<EnqueuedItemWithSlicingContext> selectedEnqueuedMails = testee.selectEnqueuedMails(OUT_GOING_1, SLICE_OF_NOW, BUCKET_ID)
+            .collectList().block();
+
+        assertThat(selectedEnqueuedMails)
+            .hasOnlyOneElementSatisfying(selectedEnqueuedMail -> assertThat(selectedEnqueuedMail.getEnqueuedItem().getPartsId()).isEmpty());
+    }
+
+    @Test
+    void listBlobsShouldIgnoreInlineMessages() throws Exception {
+        testee.insert(EnqueuedItemWithSlicingContext.builder()
+                .enqueuedItem(EnqueuedItem.builder()
+                    .enqueueId(ENQUEUE_ID)
+                    .mailQueueName(OUT_GOING_1)
+                    .mail(FakeMail.builder()
+                        .name(NAME)
+                        .build())
+                    .enqueuedTime(NOW)
+                    .inlineMessage()
+                    .build())
+                .slicingContext(EnqueuedItemWithSlicingContext.SlicingContext.of(BucketId.of(BUCKET_ID_VALUE), NOW))
+                .build())
+            .block();
+
+        assertThat(testee.listBlobs().collectList().block())
+            .isEmpty();
+    }
+}